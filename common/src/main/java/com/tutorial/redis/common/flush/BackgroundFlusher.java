@@ -0,0 +1,138 @@
+package com.tutorial.redis.common.flush;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs the flush action of a write buffer on a virtual thread: every interval, when a
+ * writer reports the buffer full, and once more on {@link #close()}.
+ *
+ * <p>Adapters that buffer writes in memory and send them to Redis in pipelines own one
+ * instance each and keep the buffer itself. All flushes — periodic, woken and explicit —
+ * run under one lock, so an explicit {@link #flush()} also waits for an in-flight flush
+ * that may already hold the entries the caller is waiting for. A failed periodic flush is
+ * logged and retried on the next interval; the flush action is expected to put its batch
+ * back before throwing.</p>
+ *
+ * <p>Writers call {@link #ensureOpen()} before buffering an entry and {@link #buffered}
+ * after it. If closing began in between, {@code buffered} flushes in the writer's thread,
+ * so an entry buffered concurrently with the final flush is not left behind. Closing waits
+ * up to {@value #CLOSE_TIMEOUT_MILLIS} ms for the final flush.</p>
+ */
+public final class BackgroundFlusher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundFlusher.class);
+
+    static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final String name;
+    private final long intervalNanos;
+    private final Runnable flushAction;
+    private final IntSupplier pending;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Starts the flusher thread.
+     *
+     * @param name           thread name, also used in log and error messages
+     * @param intervalMillis time between periodic flushes, i.e. the staleness bound
+     * @param flushAction    drains the buffer and sends it; runs under the flush lock
+     * @param pending        number of buffered entries, for the failure log
+     */
+    public BackgroundFlusher(String name, long intervalMillis, Runnable flushAction, IntSupplier pending) {
+        this.name = name;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.flushAction = flushAction;
+        this.pending = pending;
+        this.thread = Thread.ofVirtual().name(name).start(this::flushLoop);
+    }
+
+    /**
+     * @throws IllegalStateException if the flusher has been closed
+     */
+    public void ensureOpen() {
+        if (!running) {
+            throw new IllegalStateException(name + " has been shut down");
+        }
+    }
+
+    /**
+     * Called after an entry was buffered. Flushes right away if closing began since
+     * {@link #ensureOpen()}; otherwise wakes the flusher thread when {@code full}.
+     */
+    public void buffered(boolean full) {
+        if (!running) {
+            flush();
+        } else if (full) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Runs the flush action now, after any flush in progress.
+     */
+    public void flush() {
+        runExclusively(flushAction);
+    }
+
+    /**
+     * Runs {@code action} under the flush lock, e.g. to flush part of the buffer.
+     */
+    public void runExclusively(Runnable action) {
+        flushLock.lock();
+        try {
+            action.run();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Counts one batch (pipeline) sent to Redis.
+     */
+    public void recordSent() {
+        sentBatches.incrementAndGet();
+    }
+
+    /**
+     * Number of batches sent so far; each one is a single network round trip.
+     */
+    public long sentBatches() {
+        return sentBatches.get();
+    }
+
+    /**
+     * Stops the periodic flushes and waits for the final one.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            flushQuietly();
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("{} flush failed; {} entries kept for retry", name, pending.getAsInt(), e);
+        }
+    }
+}
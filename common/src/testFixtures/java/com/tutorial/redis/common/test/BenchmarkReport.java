@@ -0,0 +1,36 @@
+package com.tutorial.redis.common.test;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports benchmark results through SLF4J, under the logger of the benchmark class.
+ *
+ * <p>Benchmarks print aligned tables, so each line is a {@link String#format} pattern
+ * with its arguments. Lines are logged at INFO, which lets the test logging
+ * configuration route or silence them like any other output.</p>
+ */
+public final class BenchmarkReport {
+
+    private final Logger log;
+
+    private BenchmarkReport(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * Creates a report that logs under {@code benchmark}'s logger.
+     */
+    public static BenchmarkReport forClass(Class<?> benchmark) {
+        return new BenchmarkReport(LoggerFactory.getLogger(benchmark));
+    }
+
+    /**
+     * Logs one line of results, formatted with {@link String#format}.
+     */
+    public void line(String format, Object... args) {
+        if (log.isInfoEnabled()) {
+            log.info(String.format(format, args));
+        }
+    }
+}
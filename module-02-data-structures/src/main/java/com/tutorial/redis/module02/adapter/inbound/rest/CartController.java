@@ -6,6 +6,7 @@ import com.tutorial.redis.module02.domain.port.inbound.ManageCartUseCase;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -18,7 +19,8 @@ import org.springframework.web.bind.annotation.RestController;
  * REST controller for shopping cart management.
  *
  * <p>Demonstrates Redis Hash operations through cart CRUD endpoints.
- * Each cart is a Redis Hash where field = productId and value = CartItem (JSON).</p>
+ * Each cart is a Redis Hash where field = productId and value = quantity, with item
+ * details in a second hash.</p>
  */
 @RestController
 @RequestMapping("/api/v1/carts")
@@ -55,6 +57,16 @@ public class CartController {
         return ResponseEntity.ok().build();
     }
 
+    @PatchMapping("/{customerId}/items/{productId}")
+    public ResponseEntity<Integer> changeQuantity(
+            @PathVariable String customerId,
+            @PathVariable String productId,
+            @RequestParam int delta) {
+        return manageCartUseCase.changeQuantity(customerId, productId, delta)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{customerId}")
     public ResponseEntity<CartResponse> getCart(@PathVariable String customerId) {
         return manageCartUseCase.getCart(customerId)
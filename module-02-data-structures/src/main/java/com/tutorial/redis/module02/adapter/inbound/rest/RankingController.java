@@ -17,7 +17,11 @@ import java.util.List;
  * REST controller for ranking/leaderboard management.
  *
  * <p>Demonstrates Redis Sorted Set operations through leaderboard endpoints.
- * Supports score submission, top-N queries, and individual rank lookups.</p>
+ * Supports score submission, score increments, top-N queries, and individual rank lookups.</p>
+ *
+ * <p>Increments are buffered and merged per member before they are written, so the
+ * endpoint answers 202 Accepted and the new score becomes visible within the flush
+ * interval.</p>
  */
 @RestController
 @RequestMapping("/api/v1/rankings")
@@ -37,6 +41,14 @@ public class RankingController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{rankingKey}/increments")
+    public ResponseEntity<Void> incrementScore(
+            @PathVariable String rankingKey,
+            @RequestBody ScoreIncrement increment) {
+        manageRankingUseCase.addToScoreBuffered(rankingKey, increment.memberId(), increment.delta());
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/{rankingKey}/top")
     public ResponseEntity<List<RankEntryResponse>> getLeaderboard(
             @PathVariable String rankingKey,
@@ -63,4 +75,10 @@ public class RankingController {
      */
     record ScoreSubmission(String memberId, double score) {
     }
+
+    /**
+     * Request body for a score increment.
+     */
+    record ScoreIncrement(String memberId, double delta) {
+    }
 }
@@ -0,0 +1,420 @@
+package com.tutorial.redis.module02.adapter.outbound.file;
+
+import com.tutorial.redis.module02.domain.model.Transaction;
+import com.tutorial.redis.module02.domain.port.outbound.TransactionArchivePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Archive of trimmed transactions in compressed segment files on local disk.
+ *
+ * <p>Layout: {@code {directory}/{account}/{yyyy-MM-dd}-{nnnn}.seg}, partitioned by the UTC
+ * day entries were archived and rolled over at {@value #SEGMENT_MAX_BYTES} bytes, so
+ * segment names sort chronologically. Each {@link #archive} call appends one block: entry
+ * count, compressed length, then the entries (oldest first) compressed with Deflate.</p>
+ *
+ * <p>Every segment has a sparse index {@code .idx} with one {@value #INDEX_RECORD_BYTES}-byte
+ * record per block (first ordinal, offset, entry count, compressed length); ordinals
+ * number an account's archived entries from 0, oldest first. The index is kept in memory,
+ * and reads map segments read-only ({@link FileChannel#map}) and inflate only the blocks
+ * holding the requested ordinals. A block is written and forced before its index record,
+ * so after a crash the index never points past the data; an unindexed trailing block is
+ * ignored.</p>
+ *
+ * <p>At most {@value #MAX_MAPPED_SEGMENTS} segments stay mapped. Each mapping has its own
+ * {@link Arena}; the least recently read one is unmapped when the limit is exceeded, as
+ * soon as no read is copying from it.</p>
+ *
+ * <p>The directory is the required property {@code banking.txlog.archive-directory}. The
+ * archive is local to the instance that trimmed the entries, so it must be on storage that
+ * survives restarts of that instance.</p>
+ */
+@Component
+public class SegmentFileTransactionArchiveAdapter implements TransactionArchivePort {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentFileTransactionArchiveAdapter.class);
+
+    static final long SEGMENT_MAX_BYTES = 8L * 1024 * 1024;
+    static final int INDEX_RECORD_BYTES = 24;
+    static final int MAX_MAPPED_SEGMENTS = 64;
+
+    private static final int BLOCK_HEADER_BYTES = 8;
+    private static final Pattern PLAIN_ACCOUNT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, AccountArchive> archives = new ConcurrentHashMap<>();
+    /** Access-ordered, so the first entry is the least recently read; guarded by itself. */
+    private final LinkedHashMap<Path, MappedSegment> mappedSegments = new LinkedHashMap<>(16, 0.75f, true);
+
+    public SegmentFileTransactionArchiveAdapter(@Value("${banking.txlog.archive-directory}") Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void archive(String accountId, List<Transaction> oldestFirst) {
+        if (oldestFirst.isEmpty()) {
+            return;
+        }
+        AccountArchive archive = archiveOf(accountId);
+        try {
+            byte[] block = encode(oldestFirst);
+            archive.lock.lock();
+            try {
+                archive.append(block, oldestFirst.size());
+            } finally {
+                archive.lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive transactions of account " + accountId, e);
+        }
+    }
+
+    @Override
+    public List<Transaction> readNewest(String accountId, long skip, int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        AccountArchive archive = archiveOf(accountId);
+        List<Block> blocks;
+        long newest;
+        long oldest;
+        archive.lock.lock();
+        try {
+            newest = archive.total() - 1 - skip;
+            if (newest < 0) {
+                return Collections.emptyList();
+            }
+            oldest = Math.max(0, newest - count + 1);
+            int from = archive.blockIndexOf(oldest);
+            int to = archive.blockIndexOf(newest);
+            blocks = List.copyOf(archive.blocks.subList(from, to + 1));
+        } finally {
+            archive.lock.unlock();
+        }
+
+        List<Transaction> result = new ArrayList<>((int) (newest - oldest + 1));
+        try {
+            for (Block block : blocks.reversed()) {
+                List<Transaction> entries = decode(read(block), block.count());
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    long ordinal = block.firstOrdinal() + i;
+                    if (ordinal >= oldest && ordinal <= newest) {
+                        result.add(entries.get(i));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived transactions of account " + accountId, e);
+        }
+        return result;
+    }
+
+    @Override
+    public long count(String accountId) {
+        AccountArchive archive = archiveOf(accountId);
+        archive.lock.lock();
+        try {
+            return archive.total();
+        } finally {
+            archive.lock.unlock();
+        }
+    }
+
+    private AccountArchive archiveOf(String accountId) {
+        return archives.computeIfAbsent(accountId, id -> {
+            try {
+                return new AccountArchive(directory.resolve(directoryName(id)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load transaction archive of account " + id, e);
+            }
+        });
+    }
+
+    /**
+     * Copies a block's compressed bytes out of the mapped segment, remapping the segment
+     * if it grew since it was mapped.
+     */
+    private byte[] read(Block block) throws IOException {
+        long end = block.offset() + BLOCK_HEADER_BYTES + block.length();
+        MappedSegment mapped = acquire(block.segment(), end);
+        try {
+            byte[] compressed = new byte[block.length()];
+            MemorySegment.copy(mapped.memory, ValueLayout.JAVA_BYTE, block.offset() + BLOCK_HEADER_BYTES,
+                    compressed, 0, compressed.length);
+            return compressed;
+        } finally {
+            release(mapped);
+        }
+    }
+
+    /**
+     * Returns a mapping of {@code segment} covering at least {@code end} bytes, registered
+     * as in use, and unmaps the least recently read segments beyond the limit.
+     */
+    private MappedSegment acquire(Path segment, long end) throws IOException {
+        synchronized (mappedSegments) {
+            MappedSegment mapped = mappedSegments.get(segment);
+            if (mapped == null || mapped.memory.byteSize() < end) {
+                if (mapped != null) {
+                    mapped.retire();
+                }
+                Arena arena = Arena.ofShared();
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    mapped = new MappedSegment(arena,
+                            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+                } catch (IOException | RuntimeException e) {
+                    arena.close();
+                    throw e;
+                }
+                mappedSegments.put(segment, mapped);
+                Iterator<MappedSegment> eldest = mappedSegments.values().iterator();
+                while (mappedSegments.size() > MAX_MAPPED_SEGMENTS) {
+                    eldest.next().retire();
+                    eldest.remove();
+                }
+            }
+            mapped.users++;
+            return mapped;
+        }
+    }
+
+    private void release(MappedSegment mapped) {
+        synchronized (mappedSegments) {
+            mapped.users--;
+            mapped.closeIfUnused();
+        }
+    }
+
+    /**
+     * Number of segments currently mapped.
+     */
+    int mappedSegmentCount() {
+        synchronized (mappedSegments) {
+            return mappedSegments.size();
+        }
+    }
+
+    private static byte[] encode(List<Transaction> transactions) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            for (Transaction transaction : transactions) {
+                out.writeUTF(transaction.getTransactionId());
+                out.writeUTF(transaction.getAccountId());
+                out.writeUTF(transaction.getAmount().toString());
+                out.writeUTF(transaction.getType().name());
+                out.writeLong(transaction.getTimestamp().getEpochSecond());
+                out.writeInt(transaction.getTimestamp().getNano());
+                out.writeBoolean(transaction.getDescription() != null);
+                if (transaction.getDescription() != null) {
+                    out.writeUTF(transaction.getDescription());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Transaction> decode(byte[] compressed, int count) throws IOException {
+        List<Transaction> transactions = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            for (int i = 0; i < count; i++) {
+                String transactionId = in.readUTF();
+                String accountId = in.readUTF();
+                BigDecimal amount = new BigDecimal(in.readUTF());
+                Transaction.TransactionType type = Transaction.TransactionType.valueOf(in.readUTF());
+                Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                String description = in.readBoolean() ? in.readUTF() : null;
+                transactions.add(new Transaction(transactionId, accountId, amount, type, timestamp, description));
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Account IDs that are not safe file names are hex-encoded.
+     */
+    private static String directoryName(String accountId) {
+        if (PLAIN_ACCOUNT_ID.matcher(accountId).matches()) {
+            return accountId;
+        }
+        return "x" + HexFormat.of().formatHex(accountId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Block(Path segment, long offset, long firstOrdinal, int count, int length) {
+    }
+
+    /**
+     * One read-only mapping and the reads copying from it; guarded by {@code mappedSegments}.
+     * A retired mapping is unmapped when its last read finishes.
+     */
+    private static final class MappedSegment {
+
+        private final Arena arena;
+        private final MemorySegment memory;
+        private int users;
+        private boolean retired;
+
+        MappedSegment(Arena arena, MemorySegment memory) {
+            this.arena = arena;
+            this.memory = memory;
+        }
+
+        void retire() {
+            retired = true;
+            closeIfUnused();
+        }
+
+        void closeIfUnused() {
+            if (retired && users == 0) {
+                arena.close();
+            }
+        }
+    }
+
+    /**
+     * Index and active segment of one account; guarded by {@link #lock}.
+     */
+    private static final class AccountArchive {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Path directory;
+        private final List<Block> blocks = new ArrayList<>();
+        private Path activeSegment;
+        private long activeSize;
+
+        AccountArchive(Path directory) throws IOException {
+            this.directory = directory;
+            if (!Files.isDirectory(directory)) {
+                return;
+            }
+            List<Path> segments;
+            try (Stream<Path> files = Files.list(directory)) {
+                segments = files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+            }
+            for (Path segment : segments) {
+                Path index = indexOf(segment);
+                if (Files.exists(index)) {
+                    ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(index));
+                    // a partial trailing record is left over from a crash
+                    while (records.remaining() >= INDEX_RECORD_BYTES) {
+                        blocks.add(new Block(segment, records.getLong(), records.getLong(),
+                                records.getInt(), records.getInt()));
+                    }
+                }
+            }
+            if (!segments.isEmpty()) {
+                activeSegment = segments.getLast();
+                activeSize = Files.size(activeSegment);
+            }
+            log.debug("Loaded {} archive blocks from {}", blocks.size(), directory);
+        }
+
+        long total() {
+            if (blocks.isEmpty()) {
+                return 0;
+            }
+            Block last = blocks.getLast();
+            return last.firstOrdinal() + last.count();
+        }
+
+        /**
+         * Position of the block holding {@code ordinal}, by binary search on first ordinals.
+         */
+        int blockIndexOf(long ordinal) {
+            int low = 0;
+            int high = blocks.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (blocks.get(mid).firstOrdinal() <= ordinal) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        void append(byte[] compressed, int count) throws IOException {
+            String today = LocalDate.now(ZoneOffset.UTC).toString();
+            if (activeSegment == null || activeSize >= SEGMENT_MAX_BYTES
+                    || !activeSegment.getFileName().toString().startsWith(today)) {
+                rollOver(today);
+            }
+
+            long offset = activeSize;
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + compressed.length)
+                    .putInt(count).putInt(compressed.length).put(compressed).flip();
+            try (FileChannel channel = FileChannel.open(activeSegment,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                while (block.hasRemaining()) {
+                    channel.write(block, offset + block.position());
+                }
+                channel.force(false);
+            }
+
+            Block indexed = new Block(activeSegment, offset, total(), count, compressed.length);
+            ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_BYTES)
+                    .putLong(indexed.offset()).putLong(indexed.firstOrdinal())
+                    .putInt(indexed.count()).putInt(indexed.length()).flip();
+            try (FileChannel channel = FileChannel.open(indexOf(activeSegment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(false);
+            }
+
+            activeSize = offset + BLOCK_HEADER_BYTES + compressed.length;
+            blocks.add(indexed);
+        }
+
+        private void rollOver(String today) throws IOException {
+            Files.createDirectories(directory);
+            int sequence = 0;
+            if (activeSegment != null && activeSegment.getFileName().toString().startsWith(today)) {
+                sequence = Integer.parseInt(activeSegment.getFileName().toString().substring(11, 15)) + 1;
+            }
+            activeSegment = directory.resolve("%s-%04d.seg".formatted(today, sequence));
+            activeSize = Files.exists(activeSegment) ? Files.size(activeSegment) : 0;
+        }
+
+        private static Path indexOf(Path segment) {
+            String name = segment.getFileName().toString();
+            return segment.resolveSibling(name.substring(0, name.length() - ".seg".length()) + ".idx");
+        }
+    }
+}
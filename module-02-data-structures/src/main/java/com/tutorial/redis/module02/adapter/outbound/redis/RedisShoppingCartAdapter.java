@@ -1,83 +1,295 @@
 package com.tutorial.redis.module02.adapter.outbound.redis;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tutorial.redis.common.config.RedisKeyConvention;
 import com.tutorial.redis.module02.domain.model.CartItem;
 import com.tutorial.redis.module02.domain.model.ShoppingCart;
 import com.tutorial.redis.module02.domain.port.outbound.ShoppingCartPort;
-import org.springframework.data.redis.core.RedisTemplate;
+import com.tutorial.redis.module02.domain.service.CartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * Redis adapter for shopping cart operations using HashOperations (Redis Hash).
  *
- * <p>Uses {@link RedisTemplate} with Jackson2JsonRedisSerializer because
- * CartItem values are serialized as JSON objects in hash fields.</p>
+ * <p>A cart is two hashes. {@code ecommerce:cart:{customerId}} maps productId to the
+ * quantity as a plain number, so quantity changes are single HSET/HINCRBY commands
+ * without reading or re-serializing the item. {@code ecommerce:cart:{customerId}:meta}
+ * holds each item's {@code name:{productId}} and {@code price:{productId}}; it is written
+ * when an item is added and only read to render items ({@link #getItem}, {@link #getCart}).</p>
  *
- * <p>Key pattern: {@code ecommerce:cart:{customerId}}<br>
- * Hash field = productId, Hash value = CartItem (JSON serialized)</p>
+ * <p>Mutations run in Lua scripts that enforce the {@link CartService} limits on the
+ * server, so concurrent requests (e.g. two browser tabs) cannot exceed
+ * {@value CartService#MAX_CART_ITEMS} distinct items or push a quantity outside
+ * 1..{@value CartService#MAX_ITEM_QUANTITY}. Reads fetch both hashes in one pipeline.</p>
+ *
+ * <p>Abandoned carts: every mutation also sets the customer's score in the sorted set
+ * {@code ecommerce:cart-index:activity} to the current time, inside the same script or
+ * pipeline. {@link #removeAbandonedCarts} pops the least recently active carts idle since
+ * a cutoff ({@code ZRANGEBYSCORE ... LIMIT}), appends each non-empty one (quantities and
+ * item details) to the stream {@code ecommerce:cart-events:abandoned} for re-engagement,
+ * and deletes it, all in one script. A sweep therefore costs O(expired carts · log N) and
+ * never scans the keyspace. Scripts touching a cart's two hashes derive the metadata key
+ * (and, when sweeping, the cart keys) from their arguments, which assumes a single Redis
+ * node rather than a cluster.</p>
+ *
+ * <p>Carts created before the activity index existed have no score in it. Reads fetch the
+ * score in the same pipeline and, for an existing cart without one, add it with
+ * {@code ZADD NX} at the current time, so such a cart becomes sweepable once it is read
+ * (and is not swept right away).</p>
+ *
+ * <p>Legacy carts: carts written before this layout hold one JSON {@code CartItem} per
+ * field of {@code ecommerce:cart:{customerId}} and have no metadata hash. Reads convert
+ * such a field on the fly and rewrite it into the current layout with a compare-and-set
+ * script, so a concurrent update is never overwritten; quantity updates that find a
+ * legacy field convert the cart first and retry.</p>
  */
 @Component
 public class RedisShoppingCartAdapter implements ShoppingCartPort {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisShoppingCartAdapter.class);
+    private static final ObjectMapper LEGACY_JSON = new ObjectMapper();
+
     private static final String SERVICE = "ecommerce";
     private static final String ENTITY = "cart";
+    private static final String ACTIVITY_KEY = RedisKeyConvention.buildKey(SERVICE, "cart-index", "activity");
+    private static final String ABANDONED_STREAM_KEY = RedisKeyConvention.buildKey(SERVICE, "cart-events", "abandoned");
+
+    static final int ABANDONED_STREAM_MAXLEN = 100_000;
+
+    /**
+     * KEYS[1] = quantities, KEYS[2] = metadata, KEYS[3] = activity; ARGV[1] = productId,
+     * ARGV[2] = quantity, ARGV[3] = name, ARGV[4] = unit price, ARGV[5] = max items,
+     * ARGV[6] = customerId, ARGV[7] = now (ms).
+     * Returns 1, or 0 if the item is new and the cart is full.
+     */
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0\n" +
+            "    and redis.call('HLEN', KEYS[1]) >= tonumber(ARGV[5]) then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "redis.call('HSET', KEYS[2], 'name:' .. ARGV[1], ARGV[3], 'price:' .. ARGV[1], ARGV[4])\n" +
+            "redis.call('ZADD', KEYS[3], ARGV[7], ARGV[6])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = quantities, KEYS[2] = activity; ARGV[1] = productId, ARGV[2] = quantity,
+     * ARGV[3] = customerId, ARGV[4] = now (ms).
+     * Returns 1, 0 if the item is not in the cart, or {@value #LEGACY_ITEM} if it is a
+     * legacy JSON item (nothing is changed).
+     */
+    private static final DefaultRedisScript<Long> SET_QUANTITY_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], ARGV[1])\n" +
+            "if not current then return 0 end\n" +
+            "if not tonumber(current) then return -2 end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "redis.call('ZADD', KEYS[2], ARGV[4], ARGV[3])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = quantities, KEYS[2] = activity; ARGV[1] = productId, ARGV[2] = delta,
+     * ARGV[3] = max quantity, ARGV[4] = customerId, ARGV[5] = now (ms).
+     * Returns the new quantity, 0 if the item is not in the cart, -1 if the new quantity
+     * would be out of range, or {@value #LEGACY_ITEM} if it is a legacy JSON item (nothing is
+     * changed in either case).
+     */
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], ARGV[1])\n" +
+            "if not current then return 0 end\n" +
+            "if not tonumber(current) then return -2 end\n" +
+            "local updated = tonumber(current) + tonumber(ARGV[2])\n" +
+            "if updated < 1 or updated > tonumber(ARGV[3]) then return -1 end\n" +
+            "redis.call('ZADD', KEYS[2], ARGV[5], ARGV[4])\n" +
+            "return redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])",
+            Long.class);
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    /**
+     * KEYS[1] = activity, KEYS[2] = abandoned stream; ARGV[1] = idle-before (ms),
+     * ARGV[2] = limit, ARGV[3] = cart key prefix, ARGV[4] = stream MAXLEN.
+     * Returns the number of carts removed.
+     */
+    private static final DefaultRedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1],\n" +
+            "  'WITHSCORES', 'LIMIT', 0, ARGV[2])\n" +
+            "for i = 1, #expired, 2 do\n" +
+            "  local cart = ARGV[3] .. expired[i]\n" +
+            "  local quantities = redis.call('HGETALL', cart)\n" +
+            "  if #quantities > 0 then\n" +
+            "    local entry = {'customerId', expired[i], 'lastActivity', expired[i + 1]}\n" +
+            "    for j = 1, #quantities, 2 do\n" +
+            "      entry[#entry + 1] = 'qty:' .. quantities[j]\n" +
+            "      entry[#entry + 1] = quantities[j + 1]\n" +
+            "    end\n" +
+            "    for _, value in ipairs(redis.call('HGETALL', cart .. ':meta')) do entry[#entry + 1] = value end\n" +
+            "    redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[4], '*', unpack(entry))\n" +
+            "  end\n" +
+            "  redis.call('DEL', cart, cart .. ':meta')\n" +
+            "  redis.call('ZREM', KEYS[1], expired[i])\n" +
+            "end\n" +
+            "return #expired / 2",
+            Long.class);
 
-    public RedisShoppingCartAdapter(RedisTemplate<String, Object> redisTemplate) {
+    /**
+     * KEYS[1] = quantities, KEYS[2] = metadata; ARGV[1] = productId, ARGV[2] = legacy JSON
+     * value, ARGV[3] = quantity, ARGV[4] = name, ARGV[5] = unit price. Rewrites the item in
+     * the current layout if the field still holds ARGV[2]; returns 1 if it did.
+     */
+    private static final DefaultRedisScript<Long> CONVERT_LEGACY_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])\n" +
+            "redis.call('HSET', KEYS[2], 'name:' .. ARGV[1], ARGV[4], 'price:' .. ARGV[1], ARGV[5])\n" +
+            "return 1",
+            Long.class);
+
+    static final long LEGACY_ITEM = -2;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartService cartService = new CartService();
+
+    public RedisShoppingCartAdapter(StringRedisTemplate redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
 
     @Override
     public void addItem(String customerId, CartItem item) {
-        String key = buildKey(customerId);
-        redisTemplate.opsForHash().put(key, item.getProductId(), item);
+        requireValidQuantity(item.getQuantity());
+        Long added = redisTemplate.execute(ADD_SCRIPT,
+                List.of(buildKey(customerId), metadataKey(customerId), ACTIVITY_KEY), item.getProductId(),
+                String.valueOf(item.getQuantity()), item.getProductName(), item.getUnitPrice().toPlainString(),
+                String.valueOf(CartService.MAX_CART_ITEMS), customerId, now());
+        if (added == null || added == 0) {
+            throw new IllegalStateException("Cart of %s already holds %d items".formatted(
+                    customerId, CartService.MAX_CART_ITEMS));
+        }
     }
 
     @Override
     public void removeItem(String customerId, String productId) {
-        String key = buildKey(customerId);
-        redisTemplate.opsForHash().delete(key, productId);
+        byte[] quantitiesKey = bytes(buildKey(customerId));
+        byte[] metadataKey = bytes(metadataKey(customerId));
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hDel(quantitiesKey, bytes(productId));
+            connection.hashCommands().hDel(metadataKey, bytes("name:" + productId), bytes("price:" + productId));
+            connection.zSetCommands().zAdd(bytes(ACTIVITY_KEY), now, bytes(customerId));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
     }
 
     @Override
     public void updateItemQuantity(String customerId, String productId, int quantity) {
-        String key = buildKey(customerId);
-        Object existing = redisTemplate.opsForHash().get(key, productId);
-        if (existing instanceof CartItem cartItem) {
-            CartItem updated = cartItem.withQuantity(quantity);
-            redisTemplate.opsForHash().put(key, productId, updated);
+        requireValidQuantity(quantity);
+        Long updated = redisTemplate.execute(SET_QUANTITY_SCRIPT, List.of(buildKey(customerId), ACTIVITY_KEY),
+                productId, String.valueOf(quantity), customerId, now());
+        if (updated != null && updated == LEGACY_ITEM) {
+            convertLegacyCart(customerId);
+            redisTemplate.execute(SET_QUANTITY_SCRIPT, List.of(buildKey(customerId), ACTIVITY_KEY),
+                    productId, String.valueOf(quantity), customerId, now());
         }
     }
 
     @Override
+    public Optional<Integer> incrementItemQuantity(String customerId, String productId, int delta) {
+        List<String> keys = List.of(buildKey(customerId), ACTIVITY_KEY);
+        Long quantity = redisTemplate.execute(INCREMENT_SCRIPT, keys,
+                productId, String.valueOf(delta), String.valueOf(CartService.MAX_ITEM_QUANTITY), customerId, now());
+        if (quantity != null && quantity == LEGACY_ITEM) {
+            convertLegacyCart(customerId);
+            quantity = redisTemplate.execute(INCREMENT_SCRIPT, keys, productId, String.valueOf(delta),
+                    String.valueOf(CartService.MAX_ITEM_QUANTITY), customerId, now());
+        }
+        if (quantity == null || quantity == 0 || quantity == LEGACY_ITEM) {
+            return Optional.empty();
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity of %s must stay within 1..%d".formatted(
+                    productId, CartService.MAX_ITEM_QUANTITY));
+        }
+        return Optional.of(quantity.intValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
     public Optional<CartItem> getItem(String customerId, String productId) {
-        String key = buildKey(customerId);
-        Object value = redisTemplate.opsForHash().get(key, productId);
-        if (value instanceof CartItem cartItem) {
-            return Optional.of(cartItem);
+        byte[] quantitiesKey = bytes(buildKey(customerId));
+        byte[] metadataKey = bytes(metadataKey(customerId));
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGet(quantitiesKey, bytes(productId));
+            connection.hashCommands().hMGet(metadataKey, bytes("name:" + productId), bytes("price:" + productId));
+            connection.zSetCommands().zScore(bytes(ACTIVITY_KEY), bytes(customerId));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+        String quantity = (String) replies.get(0);
+        List<String> metadata = (List<String>) replies.get(1);
+        if (quantity != null) {
+            indexIfMissing(customerId, (Double) replies.get(2));
+        }
+        if (quantity != null && !isPlainQuantity(quantity)) {
+            Optional<CartItem> legacy = parseLegacyItem(productId, quantity);
+            legacy.ifPresent(item -> convertLegacyItem(customerId, quantity, item));
+            return legacy;
         }
-        return Optional.empty();
+        if (quantity == null || metadata == null || metadata.get(0) == null || metadata.get(1) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CartItem(productId, metadata.get(0), new BigDecimal(metadata.get(1)),
+                Integer.parseInt(quantity)));
     }
 
+    /**
+     * Reads quantities and metadata with two HGETALLs in one pipeline; an empty or missing
+     * cart yields {@link Optional#empty()}.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public Optional<ShoppingCart> getCart(String customerId) {
-        String key = buildKey(customerId);
-        if (Boolean.FALSE.equals(redisTemplate.hasKey(key))) {
+        byte[] quantitiesKey = bytes(buildKey(customerId));
+        byte[] metadataKey = bytes(metadataKey(customerId));
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGetAll(quantitiesKey);
+            connection.hashCommands().hGetAll(metadataKey);
+            connection.zSetCommands().zScore(bytes(ACTIVITY_KEY), bytes(customerId));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+        Map<String, String> quantities = (Map<String, String>) replies.get(0);
+        Map<String, String> metadata = (Map<String, String>) replies.get(1);
+        if (quantities == null || quantities.isEmpty()) {
             return Optional.empty();
         }
+        indexIfMissing(customerId, (Double) replies.get(2));
 
-        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
         Map<String, CartItem> items = new LinkedHashMap<>();
-
-        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
-            String productId = (String) entry.getKey();
-            if (entry.getValue() instanceof CartItem cartItem) {
-                items.put(productId, cartItem);
+        for (Map.Entry<String, String> entry : quantities.entrySet()) {
+            String productId = entry.getKey();
+            if (!isPlainQuantity(entry.getValue())) {
+                parseLegacyItem(productId, entry.getValue()).ifPresent(item -> {
+                    convertLegacyItem(customerId, entry.getValue(), item);
+                    items.put(productId, item);
+                });
+                continue;
+            }
+            String name = metadata != null ? metadata.get("name:" + productId) : null;
+            String price = metadata != null ? metadata.get("price:" + productId) : null;
+            if (name != null && price != null) {
+                items.put(productId, new CartItem(productId, name, new BigDecimal(price),
+                        Integer.parseInt(entry.getValue())));
             }
         }
 
@@ -92,11 +304,108 @@ public class RedisShoppingCartAdapter implements ShoppingCartPort {
 
     @Override
     public void deleteCart(String customerId) {
-        String key = buildKey(customerId);
-        redisTemplate.delete(key);
+        byte[] quantitiesKey = bytes(buildKey(customerId));
+        byte[] metadataKey = bytes(metadataKey(customerId));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(quantitiesKey, metadataKey);
+            connection.zSetCommands().zRem(bytes(ACTIVITY_KEY), bytes(customerId));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+    }
+
+    @Override
+    public int removeAbandonedCarts(long idleBeforeMillis, int limit) {
+        Long removed = redisTemplate.execute(SWEEP_SCRIPT, List.of(ACTIVITY_KEY, ABANDONED_STREAM_KEY),
+                String.valueOf(idleBeforeMillis), String.valueOf(limit), buildKey(""),
+                String.valueOf(ABANDONED_STREAM_MAXLEN));
+        return removed != null ? removed.intValue() : 0;
+    }
+
+    /**
+     * Adds an existing cart that has no activity score yet (created before the index).
+     */
+    private void indexIfMissing(String customerId, Double activityScore) {
+        if (activityScore == null) {
+            redisTemplate.opsForZSet().addIfAbsent(ACTIVITY_KEY, customerId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Rewrites every legacy JSON item of the cart into the current layout.
+     */
+    private void convertLegacyCart(String customerId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(buildKey(customerId));
+        fields.forEach((productId, value) -> {
+            if (!isPlainQuantity((String) value)) {
+                parseLegacyItem((String) productId, (String) value)
+                        .ifPresent(item -> convertLegacyItem(customerId, (String) value, item));
+            }
+        });
+    }
+
+    private void convertLegacyItem(String customerId, String legacyValue, CartItem item) {
+        Long converted = redisTemplate.execute(CONVERT_LEGACY_SCRIPT,
+                List.of(buildKey(customerId), metadataKey(customerId)), item.getProductId(), legacyValue,
+                String.valueOf(item.getQuantity()), item.getProductName(), item.getUnitPrice().toPlainString());
+        if (converted != null && converted == 1) {
+            log.debug("Converted legacy cart item {} of customer {}", item.getProductId(), customerId);
+        }
+    }
+
+    /**
+     * Parses a legacy value: a {@code CartItem} serialized as JSON, possibly wrapped in
+     * Jackson's {@code ["type", value]} type information, as was the unit price.
+     */
+    private static Optional<CartItem> parseLegacyItem(String productId, String value) {
+        try {
+            JsonNode item = unwrapTypeInfo(LEGACY_JSON.readTree(value));
+            JsonNode name = item.get("productName");
+            JsonNode price = unwrapTypeInfo(item.path("unitPrice"));
+            JsonNode quantity = item.get("quantity");
+            if (name == null || price.isMissingNode() || quantity == null) {
+                log.warn("Cart item {} has an unrecognized value, skipping it: {}", productId, value);
+                return Optional.empty();
+            }
+            return Optional.of(new CartItem(productId, name.asText(), new BigDecimal(price.asText()),
+                    quantity.asInt()));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Cart item {} has an unrecognized value, skipping it: {}", productId, value, e);
+            return Optional.empty();
+        }
+    }
+
+    private static JsonNode unwrapTypeInfo(JsonNode node) {
+        if (node.isArray() && node.size() == 2 && node.get(0).isTextual()) {
+            return node.get(1);
+        }
+        return node;
+    }
+
+    private static boolean isPlainQuantity(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    private void requireValidQuantity(int quantity) {
+        if (!cartService.isValidQuantity(quantity)) {
+            throw new IllegalArgumentException("quantity must be within 1..%d, got: %d".formatted(
+                    CartService.MAX_ITEM_QUANTITY, quantity));
+        }
     }
 
     private String buildKey(String customerId) {
         return RedisKeyConvention.buildKey(SERVICE, ENTITY, customerId);
     }
+
+    private String metadataKey(String customerId) {
+        return buildKey(customerId) + ":meta";
+    }
+
+    private static String now() {
+        return String.valueOf(System.currentTimeMillis());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
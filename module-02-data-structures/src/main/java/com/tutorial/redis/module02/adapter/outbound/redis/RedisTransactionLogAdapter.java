@@ -3,9 +3,14 @@ package com.tutorial.redis.module02.adapter.outbound.redis;
 import com.tutorial.redis.common.config.RedisKeyConvention;
 import com.tutorial.redis.module02.domain.model.Transaction;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionLogPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,13 +21,76 @@ import java.util.List;
  * Transaction objects are serialized as JSON and stored as list elements.</p>
  *
  * <p>Key pattern: {@code banking:txlog:{accountId}}<br>
- * New transactions are pushed to the head (LPUSH) for newest-first ordering.</p>
+ * New transactions are pushed to the head (LPUSH) for newest-first ordering, by a Lua
+ * script that also trims the list to the caller's hard cap (LTRIM), so a log whose
+ * archiving falls behind stops growing.</p>
+ *
+ * <p>Below the hard cap, entries beyond the caller's size limit stay in the list until they
+ * are archived.
+ * {@link #claimOverflow} reads them (LRANGE) and takes a lease on the claim key
+ * {@code banking:txlog:{accountId}:archiving} (SET NX PX) in one Lua script;
+ * {@link #trimClaimed} removes them (LTRIM) only after the caller archived them, in a
+ * script that first checks that the same owner still holds the lease and that the list
+ * is long enough. Pushes only touch the head and only the lease holder trims the tail, so
+ * the trimmed entries are exactly the archived ones. The hard cap is the exception: when
+ * a push drops entries it also deletes the claim key, so an archiver that claimed before
+ * the drop fails its trim instead of removing entries it never read.</p>
  */
 @Component
 public class RedisTransactionLogAdapter implements TransactionLogPort {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisTransactionLogAdapter.class);
+
     private static final String SERVICE = "banking";
     private static final String ENTITY = "txlog";
+    private static final String CLAIM_FIELD = "archiving";
+
+    /**
+     * KEYS[1] = log, KEYS[2] = claim; ARGV[1] = transaction, ARGV[2] = hard cap.
+     * Returns {size after the push, number of entries dropped}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CAPPED_PUSH_SCRIPT = new DefaultRedisScript<>(
+            "local size = redis.call('LPUSH', KEYS[1], ARGV[1])\n" +
+            "local cap = tonumber(ARGV[2])\n" +
+            "if size <= cap then return {size, 0} end\n" +
+            "redis.call('LTRIM', KEYS[1], 0, cap - 1)\n" +
+            "redis.call('DEL', KEYS[2])\n" +
+            "return {cap, size - cap}",
+            List.class);
+
+    /**
+     * KEYS[1] = log, KEYS[2] = claim; ARGV[1] = max size, ARGV[2] = owner, ARGV[3] = lease ms.
+     * Returns the entries beyond the max size, newest first, or an empty list.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_OVERFLOW_SCRIPT = new DefaultRedisScript<>(
+            "local max = tonumber(ARGV[1])\n" +
+            "if redis.call('LLEN', KEYS[1]) <= max then return {} end\n" +
+            "if not redis.call('SET', KEYS[2], ARGV[2], 'NX', 'PX', ARGV[3]) then return {} end\n" +
+            "return redis.call('LRANGE', KEYS[1], max, -1)",
+            List.class);
+
+    /**
+     * KEYS[1] = log, KEYS[2] = claim; ARGV[1] = owner, ARGV[2] = number of oldest entries.
+     * Returns 1 if trimmed, 0 if the claim is no longer held by the owner.
+     */
+    private static final DefaultRedisScript<Long> TRIM_CLAIMED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[2]) ~= ARGV[1] then return 0 end\n" +
+            "local count = tonumber(ARGV[2])\n" +
+            "if redis.call('LLEN', KEYS[1]) < count then return 0 end\n" +
+            "redis.call('LTRIM', KEYS[1], 0, -count - 1)\n" +
+            "redis.call('DEL', KEYS[2])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = claim; ARGV[1] = owner.
+     */
+    private static final DefaultRedisScript<Long> RELEASE_CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n" +
+            "return 0",
+            Long.class);
 
     private final RedisTemplate<String, Object> redisTemplate;
 
@@ -31,9 +99,63 @@ public class RedisTransactionLogAdapter implements TransactionLogPort {
     }
 
     @Override
-    public void addTransaction(String accountId, Transaction transaction) {
-        String key = buildKey(accountId);
-        redisTemplate.opsForList().leftPush(key, transaction);
+    @SuppressWarnings("unchecked")
+    public long addTransaction(String accountId, Transaction transaction, int hardCap) {
+        if (hardCap < 1) {
+            throw new IllegalArgumentException("hardCap must be positive");
+        }
+        List<Object> reply = redisTemplate.execute(CAPPED_PUSH_SCRIPT,
+                List.of(buildKey(accountId), buildClaimKey(accountId)), transaction, hardCap);
+        if (reply == null || reply.size() < 2) {
+            return 0L;
+        }
+        long dropped = ((Number) reply.get(1)).longValue();
+        if (dropped > 0) {
+            log.warn("Transaction log of account {} reached its hard cap of {}; dropped {} oldest transactions "
+                    + "that may not be archived", accountId, hardCap, dropped);
+        }
+        return ((Number) reply.getFirst()).longValue();
+    }
+
+    /**
+     * Script arguments go through the JSON value serializer, so the sizes are passed as
+     * numbers (a String would arrive quoted). The owner is compared as serialized, so the
+     * quoting does not matter there.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Transaction> claimOverflow(String accountId, int maxSize, String owner, Duration lease) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        List<Object> claimed = redisTemplate.execute(CLAIM_OVERFLOW_SCRIPT,
+                List.of(buildKey(accountId), buildClaimKey(accountId)), maxSize, owner, lease.toMillis());
+        if (claimed == null || claimed.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Transaction> oldestFirst = new ArrayList<>(claimed.size());
+        for (Object value : claimed.reversed()) {
+            if (!(value instanceof Transaction claimedTransaction)) {
+                releaseClaim(accountId, owner);
+                throw new IllegalStateException("Transaction log of account " + accountId
+                        + " holds a value that is not a transaction: " + value);
+            }
+            oldestFirst.add(claimedTransaction);
+        }
+        return oldestFirst;
+    }
+
+    @Override
+    public boolean trimClaimed(String accountId, int count, String owner) {
+        Long trimmed = redisTemplate.execute(TRIM_CLAIMED_SCRIPT,
+                List.of(buildKey(accountId), buildClaimKey(accountId)), owner, count);
+        return trimmed != null && trimmed == 1L;
+    }
+
+    @Override
+    public void releaseClaim(String accountId, String owner) {
+        redisTemplate.execute(RELEASE_CLAIM_SCRIPT, List.of(buildClaimKey(accountId)), owner);
     }
 
     @Override
@@ -51,12 +173,6 @@ public class RedisTransactionLogAdapter implements TransactionLogPort {
                 .toList();
     }
 
-    @Override
-    public void trimToSize(String accountId, int maxSize) {
-        String key = buildKey(accountId);
-        redisTemplate.opsForList().trim(key, 0, maxSize - 1L);
-    }
-
     @Override
     public long getTransactionCount(String accountId) {
         String key = buildKey(accountId);
@@ -67,4 +183,8 @@ public class RedisTransactionLogAdapter implements TransactionLogPort {
     private String buildKey(String accountId) {
         return RedisKeyConvention.buildKey(SERVICE, ENTITY, accountId);
     }
+
+    private String buildClaimKey(String accountId) {
+        return RedisKeyConvention.buildKey(SERVICE, ENTITY, accountId, CLAIM_FIELD);
+    }
 }
@@ -1,16 +1,41 @@
 package com.tutorial.redis.module02.adapter.outbound.redis;
 
+import com.tutorial.redis.common.flush.BackgroundFlusher;
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionRankingPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis adapter for ranking/leaderboard operations using ZSetOperations (Redis Sorted Set).
@@ -21,54 +46,345 @@ import java.util.Set;
  * <p>Key pattern: {@code ranking:{rankingKey}}<br>
  * Supports Redis sorted set operations: ZADD, ZINCRBY, ZSCORE, ZRANK,
  * ZREVRANK, ZREVRANGEBYSCORE, ZCARD, ZCOUNT, ZREM.</p>
+ *
+ * <p>Sharded mode: a ranking configured with more than one shard spreads its members over
+ * {@code ranking:{rankingKey}:shard:{i}}, chosen by {@code memberId.hashCode()}, so writes
+ * to a hot ranking land on several smaller keys of the same node: each ZINCRBY works on a
+ * smaller skiplist and no single key dominates slow-log or big-key reports. It does not
+ * spread load across nodes. Single-member operations touch only the member's shard.
+ * {@link #getTopN} reads the top {@code n} of every shard in one pipeline and k-way merges them;
+ * {@link #getRank} and {@link #getReverseRank} read the member's score, then add the
+ * member's rank in its own shard to the number of members every other shard orders ahead
+ * of it (two round trips, not an atomic snapshot). Ties are ordered as Redis orders them
+ * within one key — by the member's bytes — and tied members of other shards are counted by
+ * a binary search inside a script, so only a count per shard is transferred.</p>
+ *
+ * <p>The shard count of each ranking is kept in the hash {@code ranking:config:shards}
+ * (absent means the single key) and cached for {@value #SHARD_CONFIG_TTL_MILLIS} ms. It can
+ * only be changed while the ranking is empty, so configure it before the ranking receives
+ * traffic. Writes to the all-time ranking run in a script that first compares the cached
+ * count with the configured one; on a mismatch nothing is written, the cache is dropped
+ * and the write is retried with the current layout, so an instance with a stale cache
+ * cannot put members into keys of the old layout. Reads may use the stale layout until the
+ * cache expires. The scripts read the configuration hash next to the ranking keys, so they
+ * assume a single Redis node, as does the rest of this module.</p>
+ *
+ * <p>Buffered increments: {@link #incrementScoreBuffered} only adds the delta to a
+ * {@link ScoreDeltaAccumulator}, which merges increments of the same member. A
+ * {@link BackgroundFlusher} drains it every {@code banking.ranking.max-staleness-ms} ms
+ * (default 100), or as soon as {@value #MAX_PENDING_MEMBERS} members are pending, and sends
+ * one ZINCRBY per member in a single pipeline — a hot member costs one command per interval
+ * however often it is incremented. If the pipeline fails the deltas are added back and
+ * retried; since a broken connection can fail a pipeline Redis already applied, such a retry
+ * may apply a delta twice. All-time writes the pipeline skipped because the shard layout
+ * changed are retried alone; if that retry fails, only those all-time deltas are kept and
+ * sent first by the next flush, so the buckets are not written again. Remaining deltas are
+ * flushed on shutdown.</p>
+ *
+ * <p>Time buckets: every increment (direct or flushed) is written in one pipeline to the
+ * all-time ranking and to the UTC hour and day buckets
+ * {@code ranking:{rankingKey}:hour:{yyyy-MM-ddTHH}} and {@code ranking:{rankingKey}:day:{date}},
+ * which expire {@value #HOUR_BUCKET_TTL_HOURS} hours and {@value #DAY_BUCKET_TTL_DAYS} days
+ * after their last write. Absolute scores ({@link #addOrUpdate}) only affect the all-time
+ * ranking, and buckets are never sharded. {@link #rollUpClosedDays} folds each closed day into
+ * {@code ranking:{rankingKey}:week:{yyyy-Www}} and {@code ranking:{rankingKey}:month:{yyyy-MM}}
+ * with ZUNIONSTORE and advances a per-ranking watermark, in one script per day, so every day
+ * is added exactly once. The day bucket is incremented by a script that also increments the
+ * week and month rollups when the day is already behind the watermark, so deltas flushed
+ * after their day was rolled up still reach the week and month views. A week or month view
+ * is its rollup plus the days after the watermark; when such open days exist the union is
+ * materialized in a {@code ...:live} key that is reused for {@value #LIVE_VIEW_TTL_MILLIS} ms.
+ * Ranks around a member are read with ZREVRANK and ZREVRANGE on the view inside the same
+ * script, so only the requested window is transferred. Rankings that received increments are
+ * listed in {@code ranking:config:rankings}.</p>
  */
 @Component
-public class RedisTransactionRankingAdapter implements TransactionRankingPort {
+public class RedisTransactionRankingAdapter implements TransactionRankingPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTransactionRankingAdapter.class);
 
     private static final String KEY_PREFIX = "ranking:";
+    private static final String SHARD_CONFIG_KEY = KEY_PREFIX + "config:shards";
+    private static final String RANKINGS_KEY = KEY_PREFIX + "config:rankings";
+
+    static final long SHARD_CONFIG_TTL_MILLIS = 5_000;
+    static final int MAX_LAYOUT_ATTEMPTS = 3;
+    static final int MAX_PENDING_MEMBERS = 10_000;
+    static final int ACCUMULATOR_STRIPES = 16;
+    static final long HOUR_BUCKET_TTL_HOURS = 48;
+    static final long DAY_BUCKET_TTL_DAYS = 40;
+    static final long WEEK_ROLLUP_TTL_DAYS = 15 * 7;
+    static final long MONTH_ROLLUP_TTL_DAYS = 400;
+    static final long LIVE_VIEW_TTL_MILLIS = 1_000;
+    static final int INCREMENT_COMMANDS = 4;
+
+    /**
+     * KEYS[1] = watermark, KEYS[2] = day bucket, KEYS[3] = week rollup, KEYS[4] = month rollup;
+     * ARGV[1] = day, ARGV[2] = week TTL, ARGV[3] = month TTL (seconds). Returns the number of
+     * members of the day, or -1 if the day is not after the watermark. ISO dates compare
+     * correctly as strings.
+     */
+    private static final DefaultRedisScript<Long> ROLL_UP_DAY_SCRIPT = new DefaultRedisScript<>(
+            "local watermark = redis.call('GET', KEYS[1])\n" +
+            "if watermark and ARGV[1] <= watermark then return -1 end\n" +
+            "local members = redis.call('ZCARD', KEYS[2])\n" +
+            "if members > 0 then\n" +
+            "  redis.call('ZUNIONSTORE', KEYS[3], 2, KEYS[3], KEYS[2])\n" +
+            "  redis.call('EXPIRE', KEYS[3], ARGV[2])\n" +
+            "  redis.call('ZUNIONSTORE', KEYS[4], 2, KEYS[4], KEYS[2])\n" +
+            "  redis.call('EXPIRE', KEYS[4], ARGV[3])\n" +
+            "end\n" +
+            "redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "return members",
+            Long.class);
+
+    /**
+     * KEYS[1] = day bucket, KEYS[2] = watermark, KEYS[3] = week rollup, KEYS[4] = month rollup;
+     * ARGV[1] = delta, ARGV[2] = member, ARGV[3] = day, ARGV[4] = day TTL, ARGV[5] = week TTL,
+     * ARGV[6] = month TTL (seconds). Increments the day bucket and, if the day has already
+     * been rolled up, the week and month rollups too. Atomic with {@link #ROLL_UP_DAY_SCRIPT},
+     * so a late increment reaches the rollups exactly once either way. Returns 1 if the
+     * rollups were incremented.
+     */
+    private static final DefaultRedisScript<Long> DAY_INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZINCRBY', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4])\n" +
+            "local watermark = redis.call('GET', KEYS[2])\n" +
+            "if not watermark or ARGV[3] > watermark then return 0 end\n" +
+            "redis.call('ZINCRBY', KEYS[3], ARGV[1], ARGV[2])\n" +
+            "redis.call('EXPIRE', KEYS[3], ARGV[5])\n" +
+            "redis.call('ZINCRBY', KEYS[4], ARGV[1], ARGV[2])\n" +
+            "redis.call('EXPIRE', KEYS[4], ARGV[6])\n" +
+            "return 1",
+            Long.class);
+
+    private static final byte[] DAY_INCREMENT_SCRIPT_BYTES =
+            DAY_INCREMENT_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * KEYS[1] = view (bucket, rollup or all-time key), KEYS[2] = live union, KEYS[3] = watermark,
+     * KEYS[4..] = day buckets of the period; ARGV[1] = start, ARGV[2] = stop,
+     * ARGV[3] = live TTL (ms), ARGV[4] = member ('' for a top-N read), ARGV[5] = radius,
+     * ARGV[6..] = the days, in the same order as KEYS[4..]. Returns the first rank (0-based)
+     * followed by member/score pairs, or an empty reply if the member is not ranked.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> PERIOD_VIEW_SCRIPT = new DefaultRedisScript<>(
+            "local view = KEYS[1]\n" +
+            "if #KEYS > 3 then\n" +
+            "  local watermark = redis.call('GET', KEYS[3])\n" +
+            "  local open = {}\n" +
+            "  for i = 4, #KEYS do\n" +
+            "    if not watermark or ARGV[i + 2] > watermark then open[#open + 1] = KEYS[i] end\n" +
+            "  end\n" +
+            "  if #open > 0 then\n" +
+            "    view = KEYS[2]\n" +
+            "    if redis.call('EXISTS', view) == 0 then\n" +
+            "      redis.call('ZUNIONSTORE', view, #open + 1, KEYS[1], unpack(open))\n" +
+            "      redis.call('PEXPIRE', view, ARGV[3])\n" +
+            "    end\n" +
+            "  end\n" +
+            "end\n" +
+            "local start, stop = tonumber(ARGV[1]), tonumber(ARGV[2])\n" +
+            "if ARGV[4] ~= '' then\n" +
+            "  local rank = redis.call('ZREVRANK', view, ARGV[4])\n" +
+            "  if not rank then return {} end\n" +
+            "  start = math.max(0, rank - tonumber(ARGV[5]))\n" +
+            "  stop = rank + tonumber(ARGV[5])\n" +
+            "end\n" +
+            "local result = redis.call('ZREVRANGE', view, start, stop, 'WITHSCORES')\n" +
+            "table.insert(result, 1, start)\n" +
+            "return result",
+            List.class);
+
+    /**
+     * KEYS[1] = shard config hash; ARGV[1] = rankingKey, ARGV[2] = new shard count,
+     * ARGV[3] = single key, ARGV[4] = shard key prefix. Returns 0 without changing
+     * anything if the ranking has members under its current layout.
+     */
+    private static final DefaultRedisScript<Long> SET_SHARD_COUNT_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '1')\n" +
+            "if current == 1 then\n" +
+            "  if redis.call('ZCARD', ARGV[3]) > 0 then return 0 end\n" +
+            "else\n" +
+            "  for i = 0, current - 1 do\n" +
+            "    if redis.call('ZCARD', ARGV[4] .. i) > 0 then return 0 end\n" +
+            "  end\n" +
+            "end\n" +
+            "if tonumber(ARGV[2]) == 1 then\n" +
+            "  redis.call('HDEL', KEYS[1], ARGV[1])\n" +
+            "else\n" +
+            "  redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = shard config hash, KEYS[2] = key the member maps to under the expected layout;
+     * ARGV[1] = rankingKey, ARGV[2] = expected shard count, ARGV[3] = ZADD, ZINCRBY or ZREM,
+     * ARGV[4] = score or delta (unused for ZREM), ARGV[5] = member. Returns the command's
+     * reply as a string, or nil without writing if the configured shard count differs.
+     */
+    private static final DefaultRedisScript<String> LAYOUT_CHECKED_WRITE_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '1') ~= tonumber(ARGV[2]) then return false end\n" +
+            "if ARGV[3] == 'ZREM' then return tostring(redis.call('ZREM', KEYS[2], ARGV[5])) end\n" +
+            "return tostring(redis.call(ARGV[3], KEYS[2], ARGV[4], ARGV[5]))",
+            String.class);
+
+    private static final byte[] LAYOUT_CHECKED_WRITE_SCRIPT_BYTES =
+            LAYOUT_CHECKED_WRITE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * KEYS[1] = shard; ARGV[1] = score, ARGV[2] = member, ARGV[3] = '1' for reverse order.
+     * Returns how many members of the shard sort ahead of (score, member): ZCOUNT bounds
+     * the members tied on the score, and a binary search over their ranks (ZRANGE i i)
+     * finds where the member would fall among them. Members are compared byte by byte,
+     * as Redis orders them; Lua's string comparison depends on the server locale.
+     */
+    private static final DefaultRedisScript<Long> COUNT_AHEAD_SCRIPT = new DefaultRedisScript<>(
+            "local function less(a, b)\n" +
+            "  for i = 1, math.min(#a, #b) do\n" +
+            "    local x, y = string.byte(a, i), string.byte(b, i)\n" +
+            "    if x ~= y then return x < y end\n" +
+            "  end\n" +
+            "  return #a < #b\n" +
+            "end\n" +
+            "local lo = redis.call('ZCOUNT', KEYS[1], '-inf', '(' .. ARGV[1])\n" +
+            "local hi = redis.call('ZCOUNT', KEYS[1], '-inf', ARGV[1])\n" +
+            "local a, b = lo, hi\n" +
+            "while a < b do\n" +
+            "  local mid = math.floor((a + b) / 2)\n" +
+            "  if less(redis.call('ZRANGE', KEYS[1], mid, mid)[1], ARGV[2]) then a = mid + 1 else b = mid end\n" +
+            "end\n" +
+            "if ARGV[3] ~= '1' then return a end\n" +
+            "b = hi\n" +
+            "while a < b do\n" +
+            "  local mid = math.floor((a + b) / 2)\n" +
+            "  if less(ARGV[2], redis.call('ZRANGE', KEYS[1], mid, mid)[1]) then b = mid else a = mid + 1 end\n" +
+            "end\n" +
+            "return redis.call('ZCARD', KEYS[1]) - a",
+            Long.class);
+
+    private static final byte[] COUNT_AHEAD_SCRIPT_BYTES =
+            COUNT_AHEAD_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    /** Orders members as Redis does within one key: by their bytes, unsigned. */
+    static final Comparator<String> REDIS_MEMBER_ORDER =
+            (a, b) -> Arrays.compareUnsigned(bytes(a), bytes(b));
+
+    /** Highest score first; equal scores by member, descending, as ZREVRANGE orders them. */
+    private static final Comparator<ZSetOperations.TypedTuple<String>> BY_SCORE_DESC =
+            Comparator.comparing((ZSetOperations.TypedTuple<String> tuple) -> tuple.getScore())
+                    .thenComparing(ZSetOperations.TypedTuple::getValue, REDIS_MEMBER_ORDER)
+                    .reversed();
 
     private final StringRedisTemplate redisTemplate;
+    private final ConcurrentHashMap<String, CachedShardCount> shardCounts = new ConcurrentHashMap<>();
+    private final Set<String> registeredRankings = ConcurrentHashMap.newKeySet();
+    private final ScoreDeltaAccumulator pendingDeltas = new ScoreDeltaAccumulator(ACCUMULATOR_STRIPES);
+    /** Skipped all-time increments whose buckets were written; only touched under the flusher's lock. */
+    private final Map<ScoreDeltaAccumulator.RankingMember, Double> unsentAllTime = new HashMap<>();
+    private final AtomicLong flushedIncrements = new AtomicLong();
+    private final BackgroundFlusher flusher;
 
-    public RedisTransactionRankingAdapter(StringRedisTemplate redisTemplate) {
+    public RedisTransactionRankingAdapter(StringRedisTemplate redisTemplate,
+                                          @Value("${banking.ranking.max-staleness-ms:100}") long maxStalenessMillis) {
         this.redisTemplate = redisTemplate;
+        this.flusher = new BackgroundFlusher("ranking-score-flusher", maxStalenessMillis,
+                this::drainAndSend, () -> pendingDeltas.pending() + unsentAllTime.size());
     }
 
     @Override
     public void addOrUpdate(String rankingKey, String memberId, double score) {
-        String fullKey = buildKey(rankingKey);
-        redisTemplate.opsForZSet().add(fullKey, memberId, score);
+        writeChecked(rankingKey, memberId, "ZADD", String.valueOf(score));
     }
 
+    /**
+     * Increments the all-time score and the current hour and day buckets in one pipeline.
+     */
     @Override
     public double incrementScore(String rankingKey, String memberId, double delta) {
-        String fullKey = buildKey(rankingKey);
-        Double result = redisTemplate.opsForZSet().incrementScore(fullKey, memberId, delta);
-        return result != null ? result : 0.0;
+        long epochHour = currentEpochHour();
+        int shards = getShardCount(rankingKey);
+        byte[] fullKey = bytes(buildKey(rankingKey, memberId, shards));
+        registerRanking(rankingKey);
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writeIncrement(connection, fullKey, shards, rankingKey, memberId, epochHour, delta);
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+        Object result = replies.getFirst();
+        if (result == null) {
+            // the layout changed since it was cached; the buckets are not sharded
+            result = writeChecked(rankingKey, memberId, "ZINCRBY", String.valueOf(delta));
+        }
+        return Double.parseDouble(String.valueOf(result));
+    }
+
+    @Override
+    public void incrementScoreBuffered(String rankingKey, String memberId, double delta) {
+        flusher.ensureOpen();
+        pendingDeltas.add(rankingKey, memberId, currentEpochHour(), delta);
+        flusher.buffered(pendingDeltas.pending() >= MAX_PENDING_MEMBERS);
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    /**
+     * Stops accepting buffered increments and flushes everything still pending.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.close();
+        int stranded = pendingDeltas.pending() + unsentAllTime.size();
+        if (stranded > 0) {
+            log.warn("{} buffered score increments were not written before shutdown", stranded);
+        }
+    }
+
+    /**
+     * Number of (ranking, member, hour) increments sent by flushes so far.
+     */
+    long flushedIncrements() {
+        return flushedIncrements.get();
     }
 
     @Override
     public Optional<Double> getScore(String rankingKey, String memberId) {
-        String fullKey = buildKey(rankingKey);
+        String fullKey = buildKey(rankingKey, memberId);
         Double score = redisTemplate.opsForZSet().score(fullKey, memberId);
         return Optional.ofNullable(score);
     }
 
     @Override
     public Optional<Long> getRank(String rankingKey, String memberId) {
-        String fullKey = buildKey(rankingKey);
-        Long rank = redisTemplate.opsForZSet().rank(fullKey, memberId);
-        return Optional.ofNullable(rank);
+        int shards = getShardCount(rankingKey);
+        if (shards == 1) {
+            Long rank = redisTemplate.opsForZSet().rank(buildKey(rankingKey), memberId);
+            return Optional.ofNullable(rank);
+        }
+        return shardedRank(rankingKey, shards, memberId, false);
     }
 
     @Override
     public Optional<Long> getReverseRank(String rankingKey, String memberId) {
-        String fullKey = buildKey(rankingKey);
-        Long rank = redisTemplate.opsForZSet().reverseRank(fullKey, memberId);
-        return Optional.ofNullable(rank);
+        int shards = getShardCount(rankingKey);
+        if (shards == 1) {
+            Long rank = redisTemplate.opsForZSet().reverseRank(buildKey(rankingKey), memberId);
+            return Optional.ofNullable(rank);
+        }
+        return shardedRank(rankingKey, shards, memberId, true);
     }
 
     @Override
     public List<RankEntry> getTopN(String rankingKey, int n) {
+        int shards = getShardCount(rankingKey);
+        if (shards > 1) {
+            return mergeTopN(rankingKey, shards, n);
+        }
         String fullKey = buildKey(rankingKey);
         Set<ZSetOperations.TypedTuple<String>> tuples =
                 redisTemplate.opsForZSet().reverseRangeWithScores(fullKey, 0, n - 1L);
@@ -90,8 +406,73 @@ public class RedisTransactionRankingAdapter implements TransactionRankingPort {
         return entries;
     }
 
+    @Override
+    public List<RankEntry> getTopN(String rankingKey, RankingPeriod period, Instant at, int n) {
+        if (period == RankingPeriod.ALL_TIME) {
+            return getTopN(rankingKey, n);
+        }
+        return periodView(rankingKey, period, at, 0, n - 1L, "", 0);
+    }
+
+    /**
+     * For the all-time period this reads the single ranking key, so it is not available for
+     * sharded rankings.
+     */
+    @Override
+    public List<RankEntry> getRanksAround(String rankingKey, RankingPeriod period, Instant at,
+                                          String memberId, int radius) {
+        if (period == RankingPeriod.ALL_TIME && getShardCount(rankingKey) > 1) {
+            throw new IllegalStateException(
+                    "Ranks around a member are not available for sharded ranking " + rankingKey);
+        }
+        return periodView(rankingKey, period, at, 0, 0, memberId, radius);
+    }
+
+    @Override
+    public Set<String> findRankings() {
+        Set<String> rankings = redisTemplate.opsForSet().members(RANKINGS_KEY);
+        return rankings != null ? rankings : Set.of();
+    }
+
+    /**
+     * Rolls up the days after the watermark (or the last {@value #DAY_BUCKET_TTL_DAYS} days
+     * if there is none yet), oldest first.
+     */
+    @Override
+    public int rollUpClosedDays(String rankingKey, LocalDate firstOpenDay) {
+        String watermark = redisTemplate.opsForValue().get(watermarkKey(rankingKey));
+        LocalDate day = watermark != null
+                ? LocalDate.parse(watermark).plusDays(1)
+                : firstOpenDay.minusDays(DAY_BUCKET_TTL_DAYS);
+        String weekTtl = String.valueOf(Duration.ofDays(WEEK_ROLLUP_TTL_DAYS).toSeconds());
+        String monthTtl = String.valueOf(Duration.ofDays(MONTH_ROLLUP_TTL_DAYS).toSeconds());
+        int rolledUp = 0;
+        for (; day.isBefore(firstOpenDay); day = day.plusDays(1)) {
+            Long members = redisTemplate.execute(ROLL_UP_DAY_SCRIPT, List.of(
+                            watermarkKey(rankingKey),
+                            periodKey(rankingKey, RankingPeriod.DAY, day.toString()),
+                            periodKey(rankingKey, RankingPeriod.WEEK, RankingPeriod.weekId(day)),
+                            periodKey(rankingKey, RankingPeriod.MONTH, day.toString().substring(0, 7))),
+                    day.toString(), weekTtl, monthTtl);
+            if (members != null && members >= 0) {
+                rolledUp++;
+            }
+        }
+        return rolledUp;
+    }
+
     @Override
     public long count(String rankingKey) {
+        int shards = getShardCount(rankingKey);
+        if (shards > 1) {
+            return sum(redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int shard = 0; shard < shards; shard++) {
+                    connection.zSetCommands().zCard(bytes(shardKey(rankingKey, shard)));
+                }
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            }));
+        }
         String fullKey = buildKey(rankingKey);
         Long size = redisTemplate.opsForZSet().zCard(fullKey);
         return size != null ? size : 0L;
@@ -99,6 +480,16 @@ public class RedisTransactionRankingAdapter implements TransactionRankingPort {
 
     @Override
     public long countByScoreRange(String rankingKey, double min, double max) {
+        int shards = getShardCount(rankingKey);
+        if (shards > 1) {
+            return sum(redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int shard = 0; shard < shards; shard++) {
+                    connection.zSetCommands().zCount(bytes(shardKey(rankingKey, shard)), min, max);
+                }
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            }));
+        }
         String fullKey = buildKey(rankingKey);
         Long count = redisTemplate.opsForZSet().count(fullKey, min, max);
         return count != null ? count : 0L;
@@ -106,11 +497,327 @@ public class RedisTransactionRankingAdapter implements TransactionRankingPort {
 
     @Override
     public void remove(String rankingKey, String memberId) {
-        String fullKey = buildKey(rankingKey);
-        redisTemplate.opsForZSet().remove(fullKey, memberId);
+        writeChecked(rankingKey, memberId, "ZREM", "");
+    }
+
+    @Override
+    public int getShardCount(String rankingKey) {
+        CachedShardCount cached = shardCounts.get(rankingKey);
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.shards();
+        }
+        Object value = redisTemplate.opsForHash().get(SHARD_CONFIG_KEY, rankingKey);
+        int shards = value != null ? Integer.parseInt(value.toString()) : 1;
+        shardCounts.put(rankingKey, new CachedShardCount(shards,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHARD_CONFIG_TTL_MILLIS)));
+        return shards;
+    }
+
+    @Override
+    public boolean setShardCount(String rankingKey, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1, got: " + shards);
+        }
+        Long changed = redisTemplate.execute(SET_SHARD_COUNT_SCRIPT, List.of(SHARD_CONFIG_KEY),
+                rankingKey, String.valueOf(shards), KEY_PREFIX + rankingKey, KEY_PREFIX + rankingKey + ":shard:");
+        shardCounts.remove(rankingKey);
+        return changed != null && changed == 1L;
+    }
+
+    /**
+     * Pipelines ZREVRANGE 0..n-1 WITHSCORES on every shard and merges the sorted lists
+     * with a priority queue holding the head of each list.
+     */
+    @SuppressWarnings("unchecked")
+    private List<RankEntry> mergeTopN(String rankingKey, int shards, int n) {
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int shard = 0; shard < shards; shard++) {
+                connection.zSetCommands().zRevRangeWithScores(bytes(shardKey(rankingKey, shard)), 0, n - 1L);
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+
+        PriorityQueue<ShardCursor> heads = new PriorityQueue<>(shards,
+                (a, b) -> BY_SCORE_DESC.compare(a.head, b.head));
+        for (Object reply : replies) {
+            Iterator<ZSetOperations.TypedTuple<String>> tuples =
+                    ((Collection<ZSetOperations.TypedTuple<String>>) reply).iterator();
+            if (tuples.hasNext()) {
+                heads.add(new ShardCursor(tuples));
+            }
+        }
+
+        List<RankEntry> entries = new ArrayList<>(n);
+        while (entries.size() < n && !heads.isEmpty()) {
+            ShardCursor cursor = heads.poll();
+            entries.add(new RankEntry(cursor.head.getValue(), cursor.head.getScore(), entries.size() + 1L));
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Rank across shards: the member's rank within its own shard, plus, for every other
+     * shard, the members {@link #COUNT_AHEAD_SCRIPT} counts ahead of it. One reply per shard.
+     */
+    private Optional<Long> shardedRank(String rankingKey, int shards, String memberId, boolean reverse) {
+        int own = shardOf(memberId, shards);
+        Double score = redisTemplate.opsForZSet().score(shardKey(rankingKey, own), memberId);
+        if (score == null) {
+            return Optional.empty();
+        }
+        byte[] member = bytes(memberId);
+        byte[] scoreArg = bytes(Double.toString(score));
+        byte[] reverseArg = bytes(reverse ? "1" : "0");
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int shard = 0; shard < shards; shard++) {
+                byte[] key = bytes(shardKey(rankingKey, shard));
+                if (shard == own) {
+                    if (reverse) {
+                        connection.zSetCommands().zRevRank(key, member);
+                    } else {
+                        connection.zSetCommands().zRank(key, member);
+                    }
+                } else {
+                    connection.scriptingCommands().eval(COUNT_AHEAD_SCRIPT_BYTES, ReturnType.INTEGER, 1,
+                            key, scoreArg, member, reverseArg);
+                }
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+
+        if (replies.get(own) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(sum(replies));
+    }
+
+    /**
+     * Drains the accumulator and sends the merged increments in one pipeline; runs under
+     * the flusher's lock. Only a failed pipeline puts deltas back into the accumulator;
+     * all-time writes skipped by a layout change go to {@link #unsentAllTime}.
+     */
+    private void drainAndSend() {
+        sendUnsentAllTime();
+        Map<ScoreDeltaAccumulator.RankingMember, Double> deltas = pendingDeltas.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object> replies;
+        try {
+            // resolve the (possibly sharded) keys before opening the pipeline
+            List<Integer> layouts = new ArrayList<>(deltas.size());
+            List<byte[]> keys = new ArrayList<>(deltas.size());
+            deltas.keySet().forEach(key -> {
+                registerRanking(key.rankingKey());
+                int shards = getShardCount(key.rankingKey());
+                layouts.add(shards);
+                keys.add(bytes(buildKey(key.rankingKey(), key.memberId(), shards)));
+            });
+            replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                Iterator<Integer> shardCounts = layouts.iterator();
+                Iterator<byte[]> fullKeys = keys.iterator();
+                deltas.forEach((key, delta) -> writeIncrement(connection, fullKeys.next(),
+                        shardCounts.next(), key.rankingKey(), key.memberId(), key.epochHour(), delta));
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            });
+        } catch (RuntimeException e) {
+            pendingDeltas.restore(deltas);
+            throw e;
+        }
+        int reply = 0;
+        for (Map.Entry<ScoreDeltaAccumulator.RankingMember, Double> entry : deltas.entrySet()) {
+            if (replies.get(reply) == null) {
+                // only the all-time write was skipped; the buckets must not be written again
+                unsentAllTime.merge(entry.getKey(), entry.getValue(), Double::sum);
+            }
+            reply += INCREMENT_COMMANDS;
+        }
+        flushedIncrements.addAndGet(deltas.size());
+        log.debug("Flushed score increments for {} members", deltas.size());
+        sendUnsentAllTime();
+    }
+
+    /**
+     * Retries the skipped all-time writes alone with the current layout; an entry is
+     * removed once written, so a failure keeps the rest for the next flush.
+     */
+    private void sendUnsentAllTime() {
+        Iterator<Map.Entry<ScoreDeltaAccumulator.RankingMember, Double>> unsent = unsentAllTime.entrySet().iterator();
+        while (unsent.hasNext()) {
+            Map.Entry<ScoreDeltaAccumulator.RankingMember, Double> entry = unsent.next();
+            writeChecked(entry.getKey().rankingKey(), entry.getKey().memberId(),
+                    "ZINCRBY", String.valueOf(entry.getValue()));
+            unsent.remove();
+        }
+    }
+
+    /**
+     * Queues the {@value #INCREMENT_COMMANDS} commands of one increment: the layout-checked
+     * ZINCRBY of the all-time key (first, nil if the layout changed), ZINCRBY and EXPIRE of
+     * the hour bucket, and {@link #DAY_INCREMENT_SCRIPT}.
+     */
+    private void writeIncrement(RedisConnection connection, byte[] allTimeKey, int shards, String rankingKey,
+                                String memberId, long epochHour, double delta) {
+        byte[] member = bytes(memberId);
+        byte[] deltaArg = bytes(String.valueOf(delta));
+        Instant hour = Instant.ofEpochSecond(TimeUnit.HOURS.toSeconds(epochHour));
+        LocalDate day = LocalDate.ofInstant(hour, ZoneOffset.UTC);
+        byte[] hourKey = bytes(periodKey(rankingKey, RankingPeriod.HOUR, RankingPeriod.HOUR.bucketId(hour)));
+        connection.scriptingCommands().eval(LAYOUT_CHECKED_WRITE_SCRIPT_BYTES, ReturnType.VALUE, 2,
+                bytes(SHARD_CONFIG_KEY), allTimeKey, bytes(rankingKey), bytes(String.valueOf(shards)),
+                bytes("ZINCRBY"), deltaArg, member);
+        connection.zSetCommands().zIncrBy(hourKey, delta, member);
+        connection.keyCommands().expire(hourKey, TimeUnit.HOURS.toSeconds(HOUR_BUCKET_TTL_HOURS));
+        connection.scriptingCommands().eval(DAY_INCREMENT_SCRIPT_BYTES, ReturnType.INTEGER, 4,
+                bytes(periodKey(rankingKey, RankingPeriod.DAY, day.toString())),
+                bytes(watermarkKey(rankingKey)),
+                bytes(periodKey(rankingKey, RankingPeriod.WEEK, RankingPeriod.weekId(day))),
+                bytes(periodKey(rankingKey, RankingPeriod.MONTH, day.toString().substring(0, 7))),
+                deltaArg, member, bytes(day.toString()),
+                bytes(String.valueOf(TimeUnit.DAYS.toSeconds(DAY_BUCKET_TTL_DAYS))),
+                bytes(String.valueOf(TimeUnit.DAYS.toSeconds(WEEK_ROLLUP_TTL_DAYS))),
+                bytes(String.valueOf(TimeUnit.DAYS.toSeconds(MONTH_ROLLUP_TTL_DAYS))));
+    }
+
+    /**
+     * Runs {@link #PERIOD_VIEW_SCRIPT} for a top-N ({@code memberId} empty) or around-member
+     * read and converts the reply to 1-based rank entries.
+     */
+    @SuppressWarnings("unchecked")
+    private List<RankEntry> periodView(String rankingKey, RankingPeriod period, Instant at,
+                                       long start, long stop, String memberId, int radius) {
+        String viewKey = period == RankingPeriod.ALL_TIME
+                ? buildKey(rankingKey)
+                : periodKey(rankingKey, period, period.bucketId(at));
+        List<String> keys = new ArrayList<>(List.of(viewKey, viewKey + ":live", watermarkKey(rankingKey)));
+        List<String> args = new ArrayList<>(List.of(String.valueOf(start), String.valueOf(stop),
+                String.valueOf(LIVE_VIEW_TTL_MILLIS), memberId, String.valueOf(radius)));
+        for (LocalDate day : period.daysUpTo(LocalDate.ofInstant(at, ZoneOffset.UTC))) {
+            keys.add(periodKey(rankingKey, RankingPeriod.DAY, day.toString()));
+            args.add(day.toString());
+        }
+
+        List<Object> reply = redisTemplate.execute(PERIOD_VIEW_SCRIPT, keys, args.toArray());
+        if (reply == null || reply.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long rank = ((Number) reply.getFirst()).longValue() + 1;
+        List<RankEntry> entries = new ArrayList<>(reply.size() / 2);
+        for (int i = 1; i + 1 < reply.size(); i += 2) {
+            entries.add(new RankEntry((String) reply.get(i), Double.parseDouble((String) reply.get(i + 1)), rank++));
+        }
+        return entries;
+    }
+
+    /**
+     * Runs {@link #LAYOUT_CHECKED_WRITE_SCRIPT} against the key of the cached layout,
+     * dropping the cache and retrying while the configured layout differs.
+     */
+    private String writeChecked(String rankingKey, String memberId, String command, String value) {
+        for (int attempt = 1; ; attempt++) {
+            int shards = getShardCount(rankingKey);
+            String result = redisTemplate.execute(LAYOUT_CHECKED_WRITE_SCRIPT,
+                    List.of(SHARD_CONFIG_KEY, buildKey(rankingKey, memberId, shards)),
+                    rankingKey, String.valueOf(shards), command, value, memberId);
+            if (result != null) {
+                return result;
+            }
+            shardCounts.remove(rankingKey);
+            if (attempt == MAX_LAYOUT_ATTEMPTS) {
+                throw new IllegalStateException("Shard layout of ranking " + rankingKey
+                        + " kept changing during " + command + " of " + memberId);
+            }
+        }
+    }
+
+    private void registerRanking(String rankingKey) {
+        if (registeredRankings.add(rankingKey)) {
+            try {
+                redisTemplate.opsForSet().add(RANKINGS_KEY, rankingKey);
+            } catch (RuntimeException e) {
+                registeredRankings.remove(rankingKey);
+                throw e;
+            }
+        }
+    }
+
+    private String periodKey(String rankingKey, RankingPeriod period, String bucketId) {
+        return KEY_PREFIX + rankingKey + ":" + period.name().toLowerCase() + ":" + bucketId;
+    }
+
+    private String watermarkKey(String rankingKey) {
+        return KEY_PREFIX + rankingKey + ":rollup:watermark";
+    }
+
+    private static long currentEpochHour() {
+        return TimeUnit.MILLISECONDS.toHours(System.currentTimeMillis());
     }
 
     private String buildKey(String rankingKey) {
         return KEY_PREFIX + rankingKey;
     }
+
+    /**
+     * Key holding the member under the cached layout: the single ranking key, or the
+     * member's shard.
+     */
+    private String buildKey(String rankingKey, String memberId) {
+        return buildKey(rankingKey, memberId, getShardCount(rankingKey));
+    }
+
+    private String buildKey(String rankingKey, String memberId, int shards) {
+        return shards == 1 ? buildKey(rankingKey) : shardKey(rankingKey, shardOf(memberId, shards));
+    }
+
+    private String shardKey(String rankingKey, int shard) {
+        return KEY_PREFIX + rankingKey + ":shard:" + shard;
+    }
+
+    static int shardOf(String memberId, int shards) {
+        return Math.floorMod(memberId.hashCode(), shards);
+    }
+
+    private static long sum(List<Object> counts) {
+        long total = 0;
+        for (Object count : counts) {
+            total += count != null ? ((Number) count).longValue() : 0L;
+        }
+        return total;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record CachedShardCount(int shards, long expiresAtNanos) {
+    }
+
+    /**
+     * Iterator over one shard's top list, exposing its current element.
+     */
+    private static final class ShardCursor {
+
+        private final Iterator<ZSetOperations.TypedTuple<String>> remaining;
+        private ZSetOperations.TypedTuple<String> head;
+
+        ShardCursor(Iterator<ZSetOperations.TypedTuple<String>> remaining) {
+            this.remaining = remaining;
+            this.head = remaining.next();
+        }
+
+        boolean advance() {
+            if (!remaining.hasNext()) {
+                return false;
+            }
+            head = remaining.next();
+            return true;
+        }
+    }
 }
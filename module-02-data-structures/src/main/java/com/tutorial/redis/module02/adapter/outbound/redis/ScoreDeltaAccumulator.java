@@ -0,0 +1,119 @@
+package com.tutorial.redis.module02.adapter.outbound.redis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges score increments per (ranking, member, hour) in memory until they are drained.
+ * The hour (epoch hours, UTC) is when the increment was made, so the time buckets it is
+ * written to do not depend on when it is flushed.
+ *
+ * <p>The deltas live in {@code stripes} concurrent maps; a thread adds to the stripe
+ * chosen by its thread ID, so concurrent increments of one hot member are spread over
+ * several cells instead of contending on one. A cell is a double stored in an
+ * {@link AtomicLong} and updated with a CAS loop, so adding never blocks.</p>
+ *
+ * <p>Draining swaps every cell to a retired marker with {@code getAndSet}, which takes
+ * its value atomically, and then unlinks it. A thread that finds a retired cell retries
+ * with a fresh one, so no increment is lost between draining and adding.</p>
+ */
+final class ScoreDeltaAccumulator {
+
+    /** A NaN payload no sum of finite deltas produces. */
+    private static final long RETIRED = 0x7ff8_dead_0000_0001L;
+    private static final long ZERO = Double.doubleToRawLongBits(0.0);
+
+    private final List<ConcurrentHashMap<RankingMember, Cell>> stripes;
+    private final int mask;
+
+    ScoreDeltaAccumulator(int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two, got: " + stripes);
+        }
+        this.stripes = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes.add(new ConcurrentHashMap<>());
+        }
+        this.mask = stripes - 1;
+    }
+
+    void add(String rankingKey, String memberId, long epochHour, double delta) {
+        if (!Double.isFinite(delta)) {
+            throw new IllegalArgumentException("delta must be finite, got: " + delta);
+        }
+        ConcurrentHashMap<RankingMember, Cell> stripe = stripes.get((int) (Thread.currentThread().threadId() & mask));
+        RankingMember key = new RankingMember(rankingKey, memberId, epochHour);
+        while (true) {
+            Cell cell = stripe.get(key);
+            if (cell == null) {
+                cell = stripe.computeIfAbsent(key, k -> new Cell());
+            }
+            if (cell.add(delta)) {
+                return;
+            }
+            stripe.remove(key, cell);
+        }
+    }
+
+    /**
+     * Approximate number of pending cells.
+     */
+    int pending() {
+        int pending = 0;
+        for (ConcurrentHashMap<RankingMember, Cell> stripe : stripes) {
+            pending += stripe.size();
+        }
+        return pending;
+    }
+
+    /**
+     * Takes every pending delta, summed across stripes. Zero sums are left out.
+     */
+    Map<RankingMember, Double> drain() {
+        Map<RankingMember, Double> deltas = new HashMap<>();
+        for (ConcurrentHashMap<RankingMember, Cell> stripe : stripes) {
+            for (Map.Entry<RankingMember, Cell> entry : stripe.entrySet()) {
+                double delta = Double.longBitsToDouble(entry.getValue().bits.getAndSet(RETIRED));
+                stripe.remove(entry.getKey(), entry.getValue());
+                deltas.merge(entry.getKey(), delta, Double::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0.0);
+        return deltas;
+    }
+
+    /**
+     * Adds drained deltas back, e.g. after a failed flush.
+     */
+    void restore(Map<RankingMember, Double> deltas) {
+        deltas.forEach((key, delta) -> add(key.rankingKey(), key.memberId(), key.epochHour(), delta));
+    }
+
+    record RankingMember(String rankingKey, String memberId, long epochHour) {
+    }
+
+    private static final class Cell {
+
+        private final AtomicLong bits = new AtomicLong(ZERO);
+
+        /**
+         * Returns false if the cell was retired by a drain.
+         */
+        boolean add(double delta) {
+            while (true) {
+                long current = bits.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                long updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta);
+                if (bits.compareAndSet(current, updated)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
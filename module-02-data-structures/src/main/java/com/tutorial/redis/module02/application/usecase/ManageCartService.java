@@ -12,11 +12,19 @@ import java.util.Optional;
  * Application service implementing shopping cart management use cases.
  *
  * <p>Delegates to {@link ShoppingCartPort} for Redis Hash operations.
- * Demonstrates Redis HSET, HGET, HDEL, HGETALL for cart management.</p>
+ * Demonstrates Redis HSET, HGET, HINCRBY, HDEL, HGETALL for cart management.</p>
+ *
+ * <p>{@link #sweepAbandonedCarts} removes carts idle for {@value #ABANDONED_AFTER_MS} ms in
+ * batches of {@value #SWEEP_BATCH_SIZE}, at most {@value #MAX_SWEEP_BATCHES} batches per
+ * call, so one sweep never blocks Redis for long; a backlog is worked off by later sweeps.</p>
  */
 @Service
 public class ManageCartService implements ManageCartUseCase {
 
+    static final long ABANDONED_AFTER_MS = 24 * 60 * 60 * 1_000L;
+    static final int SWEEP_BATCH_SIZE = 100;
+    static final int MAX_SWEEP_BATCHES = 10;
+
     private final ShoppingCartPort shoppingCartPort;
 
     public ManageCartService(ShoppingCartPort shoppingCartPort) {
@@ -38,6 +46,11 @@ public class ManageCartService implements ManageCartUseCase {
         shoppingCartPort.updateItemQuantity(customerId, productId, newQuantity);
     }
 
+    @Override
+    public Optional<Integer> changeQuantity(String customerId, String productId, int delta) {
+        return shoppingCartPort.incrementItemQuantity(customerId, productId, delta);
+    }
+
     @Override
     public Optional<ShoppingCart> getCart(String customerId) {
         return shoppingCartPort.getCart(customerId);
@@ -47,4 +60,18 @@ public class ManageCartService implements ManageCartUseCase {
     public void clearCart(String customerId) {
         shoppingCartPort.deleteCart(customerId);
     }
+
+    @Override
+    public int sweepAbandonedCarts(long nowMillis) {
+        long idleBefore = nowMillis - ABANDONED_AFTER_MS;
+        int removed = 0;
+        for (int batch = 0; batch < MAX_SWEEP_BATCHES; batch++) {
+            int swept = shoppingCartPort.removeAbandonedCarts(idleBefore, SWEEP_BATCH_SIZE);
+            removed += swept;
+            if (swept < SWEEP_BATCH_SIZE) {
+                break;
+            }
+        }
+        return removed;
+    }
 }
@@ -1,10 +1,15 @@
 package com.tutorial.redis.module02.application.usecase;
 
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 import com.tutorial.redis.module02.domain.port.inbound.ManageRankingUseCase;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionRankingPort;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,10 +18,30 @@ import java.util.Optional;
  *
  * <p>Delegates to {@link TransactionRankingPort} for Redis Sorted Set operations.
  * Demonstrates ZADD, ZINCRBY, ZREVRANGEBYSCORE for leaderboard management.</p>
+ *
+ * <p>A ranking that receives too many writes for one key can be switched to sharded mode
+ * with {@link #configureSharding}; the port then spreads its members over several sorted
+ * sets, and the leaderboard and rank lookups below are unchanged.</p>
+ *
+ * <p>{@link #addToScoreBuffered} buffers increments in the port, so a burst of updates to
+ * a few hot members costs one ZINCRBY per member per flush instead of one round trip each;
+ * {@link #addToScore} writes immediately and returns the new score.</p>
+ *
+ * <p>Increments also feed hourly and daily leaderboards; weekly and monthly ones are
+ * maintained by {@link #rollUpClosedDays}, which only rolls up a day
+ * {@value #ROLLUP_GRACE_MINUTES} minutes after it ended so that buffered increments made
+ * just before midnight are usually included; increments of a day that arrive after its
+ * rollup are added to the week and month rollups by the port.</p>
+ *
+ * <p>{@link #getRanksAround} returns at most {@value #MAX_RANKS_AROUND_RADIUS} neighbours
+ * on each side, whatever radius is requested.</p>
  */
 @Service
 public class ManageRankingService implements ManageRankingUseCase {
 
+    static final long ROLLUP_GRACE_MINUTES = 5;
+    static final int MAX_RANKS_AROUND_RADIUS = 100;
+
     private final TransactionRankingPort transactionRankingPort;
 
     public ManageRankingService(TransactionRankingPort transactionRankingPort) {
@@ -33,11 +58,42 @@ public class ManageRankingService implements ManageRankingUseCase {
         return transactionRankingPort.incrementScore(rankingKey, memberId, delta);
     }
 
+    @Override
+    public void addToScoreBuffered(String rankingKey, String memberId, double delta) {
+        transactionRankingPort.incrementScoreBuffered(rankingKey, memberId, delta);
+    }
+
     @Override
     public List<RankEntry> getLeaderboard(String rankingKey, int topN) {
         return transactionRankingPort.getTopN(rankingKey, topN);
     }
 
+    @Override
+    public List<RankEntry> getLeaderboard(String rankingKey, RankingPeriod period, Instant at, int topN) {
+        return transactionRankingPort.getTopN(rankingKey, period, at, topN);
+    }
+
+    @Override
+    public List<RankEntry> getRanksAround(String rankingKey, String memberId, RankingPeriod period,
+                                          Instant at, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative, got: " + radius);
+        }
+        return transactionRankingPort.getRanksAround(rankingKey, period, at, memberId,
+                Math.min(radius, MAX_RANKS_AROUND_RADIUS));
+    }
+
+    @Override
+    public int rollUpClosedDays(Instant now) {
+        LocalDate firstOpenDay = LocalDate.ofInstant(
+                now.minus(Duration.ofMinutes(ROLLUP_GRACE_MINUTES)), ZoneOffset.UTC);
+        int rolledUp = 0;
+        for (String rankingKey : transactionRankingPort.findRankings()) {
+            rolledUp += transactionRankingPort.rollUpClosedDays(rankingKey, firstOpenDay);
+        }
+        return rolledUp;
+    }
+
     @Override
     public Optional<RankEntry> getMemberRank(String rankingKey, String memberId) {
         Optional<Long> reverseRank = transactionRankingPort.getReverseRank(rankingKey, memberId);
@@ -50,4 +106,12 @@ public class ManageRankingService implements ManageRankingUseCase {
         }
         return Optional.empty();
     }
+
+    @Override
+    public void configureSharding(String rankingKey, int shards) {
+        if (!transactionRankingPort.setShardCount(rankingKey, shards)) {
+            throw new IllegalStateException(
+                    "Ranking %s has members; its shard count can only change while it is empty".formatted(rankingKey));
+        }
+    }
 }
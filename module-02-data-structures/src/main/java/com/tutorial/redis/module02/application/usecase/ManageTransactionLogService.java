@@ -2,42 +2,153 @@ package com.tutorial.redis.module02.application.usecase;
 
 import com.tutorial.redis.module02.domain.model.Transaction;
 import com.tutorial.redis.module02.domain.port.inbound.ManageTransactionLogUseCase;
+import com.tutorial.redis.module02.domain.port.outbound.TransactionArchivePort;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionLogPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Application service implementing transaction log management use cases.
  *
  * <p>Delegates to {@link TransactionLogPort} for Redis List operations.
- * Demonstrates the CAPPED COLLECTION pattern: after each insert, the list
- * is trimmed to {@code MAX_LOG_SIZE} to prevent unbounded growth.</p>
+ * Demonstrates the CAPPED COLLECTION pattern: once the list holds
+ * {@code MAX_LOG_SIZE + ARCHIVE_BATCH_SIZE} entries, everything beyond the newest
+ * {@value #MAX_LOG_SIZE} is moved to {@link TransactionArchivePort}, and
+ * {@link #getRecentTransactions} continues into the archive when a caller asks for more
+ * than the Redis list holds. Each push also trims the list to a hard cap of
+ * {@code MAX_LOG_SIZE + ARCHIVE_BATCH_SIZE + HARD_CAP_SLACK} entries, so an account whose
+ * archiving keeps failing cannot grow its list without bound; the adapter logs a warning
+ * when the cap drops entries that may not be archived.</p>
+ *
+ * <p>An entry leaves Redis only after it is durable in the archive: the overflow is
+ * claimed (read, not removed), archived, whose write forces the block and its index
+ * record to disk, and only then trimmed from the list. If archiving fails, the claim is
+ * released and the entries stay in the list; the next push past the threshold tries
+ * again. A crash or an expired claim between archiving and trimming leaves entries in
+ * both stores; the next attempt skips those already at the end of this instance's
+ * archive, so they are not archived twice.</p>
+ *
+ * <p>The claim is a lease in Redis ({@value #ARCHIVE_CLAIM_LEASE_SECONDS} s), so across all
+ * instances one archiver at a time moves an account's entries out and batches reach the
+ * archive in the order they left the log. The archive itself is local to the instance
+ * that moved the entries.</p>
  */
 @Service
 public class ManageTransactionLogService implements ManageTransactionLogUseCase {
 
+    private static final Logger log = LoggerFactory.getLogger(ManageTransactionLogService.class);
+
     static final int MAX_LOG_SIZE = 100;
+    static final int ARCHIVE_BATCH_SIZE = 50;
+    static final int HARD_CAP_SLACK = 50;
+    static final int HARD_CAP = MAX_LOG_SIZE + ARCHIVE_BATCH_SIZE + HARD_CAP_SLACK;
+    static final long ARCHIVE_CLAIM_LEASE_SECONDS = 30;
 
     private final TransactionLogPort transactionLogPort;
+    private final TransactionArchivePort transactionArchivePort;
 
-    public ManageTransactionLogService(TransactionLogPort transactionLogPort) {
+    public ManageTransactionLogService(TransactionLogPort transactionLogPort,
+                                       TransactionArchivePort transactionArchivePort) {
         this.transactionLogPort = transactionLogPort;
+        this.transactionArchivePort = transactionArchivePort;
     }
 
     @Override
     public void recordTransaction(String accountId, Transaction transaction) {
-        transactionLogPort.addTransaction(accountId, transaction);
-        transactionLogPort.trimToSize(accountId, MAX_LOG_SIZE);
+        long size = transactionLogPort.addTransaction(accountId, transaction, HARD_CAP);
+        if (size >= MAX_LOG_SIZE + ARCHIVE_BATCH_SIZE) {
+            archiveOverflow(accountId);
+        }
+    }
+
+    /**
+     * Claims, archives and then trims the entries beyond {@link #MAX_LOG_SIZE}. Does nothing
+     * if another caller holds the claim; that caller moves the entries out.
+     */
+    private void archiveOverflow(String accountId) {
+        String owner = UUID.randomUUID().toString();
+        List<Transaction> claimed = transactionLogPort.claimOverflow(
+                accountId, MAX_LOG_SIZE, owner, Duration.ofSeconds(ARCHIVE_CLAIM_LEASE_SECONDS));
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            transactionArchivePort.archive(accountId, notYetArchived(accountId, claimed));
+        } catch (RuntimeException e) {
+            log.warn("Archiving {} transactions of account {} failed, keeping them in the log",
+                    claimed.size(), accountId, e);
+            transactionLogPort.releaseClaim(accountId, owner);
+            return;
+        }
+        if (!transactionLogPort.trimClaimed(accountId, claimed.size(), owner)) {
+            log.warn("Archive claim on account {} expired before trimming; the {} archived transactions "
+                    + "stay in the log until the next attempt", accountId, claimed.size());
+        }
+    }
+
+    /**
+     * Drops the oldest claimed entries up to the newest archived one: an earlier attempt
+     * archived them but did not get to trim them.
+     */
+    private List<Transaction> notYetArchived(String accountId, List<Transaction> oldestFirst) {
+        List<Transaction> newestArchived = transactionArchivePort.readNewest(accountId, 0, 1);
+        if (newestArchived.isEmpty()) {
+            return oldestFirst;
+        }
+        String lastArchivedId = newestArchived.getFirst().getTransactionId();
+        for (int i = oldestFirst.size() - 1; i >= 0; i--) {
+            if (oldestFirst.get(i).getTransactionId().equals(lastArchivedId)) {
+                return oldestFirst.subList(i + 1, oldestFirst.size());
+            }
+        }
+        return oldestFirst;
     }
 
+    /**
+     * Reads the Redis list, then pages through the archive until {@code count} entries are
+     * found. A batch archived between the reads shows up in both; such entries are skipped
+     * and the archive is read further instead.
+     */
     @Override
     public List<Transaction> getRecentTransactions(String accountId, int count) {
-        return transactionLogPort.getRecentTransactions(accountId, count);
+        List<Transaction> recent = transactionLogPort.getRecentTransactions(accountId, count);
+        if (recent.size() >= count) {
+            return recent;
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<Transaction> result = new ArrayList<>(count);
+        for (Transaction transaction : recent) {
+            seen.add(transaction.getTransactionId());
+            result.add(transaction);
+        }
+        long skip = 0;
+        while (result.size() < count) {
+            int wanted = count - result.size();
+            List<Transaction> archived = transactionArchivePort.readNewest(accountId, skip, wanted);
+            for (Transaction transaction : archived) {
+                if (seen.add(transaction.getTransactionId())) {
+                    result.add(transaction);
+                }
+            }
+            if (archived.size() < wanted) {
+                break;
+            }
+            skip += archived.size();
+        }
+        return result;
     }
 
     @Override
     public long getTransactionCount(String accountId) {
-        return transactionLogPort.getTransactionCount(accountId);
+        return transactionLogPort.getTransactionCount(accountId) + transactionArchivePort.count(accountId);
     }
 }
@@ -0,0 +1,59 @@
+package com.tutorial.redis.module02.domain.model;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Time window a leaderboard covers. Maps to one Redis Sorted Set per window
+ * (hour and day buckets, week and month rollups) next to the all-time ranking.
+ * Windows are aligned to UTC; weeks are ISO weeks (Monday to Sunday).
+ */
+public enum RankingPeriod {
+
+    HOUR, DAY, WEEK, MONTH, ALL_TIME;
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH");
+
+    /**
+     * Identifier of the window containing {@code at}, e.g. {@code 2026-02-20T13},
+     * {@code 2026-02-20}, {@code 2026-W08} or {@code 2026-02}; null for {@link #ALL_TIME}.
+     */
+    public String bucketId(Instant at) {
+        LocalDateTime time = LocalDateTime.ofInstant(at, ZoneOffset.UTC);
+        LocalDate day = time.toLocalDate();
+        return switch (this) {
+            case HOUR -> HOUR_FORMAT.format(time);
+            case DAY -> day.toString();
+            case WEEK -> weekId(day);
+            case MONTH -> day.toString().substring(0, 7);
+            case ALL_TIME -> null;
+        };
+    }
+
+    /**
+     * Days of the week or month containing {@code day}, up to and including {@code day};
+     * empty for the other periods.
+     */
+    public List<LocalDate> daysUpTo(LocalDate day) {
+        return switch (this) {
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .datesUntil(day.plusDays(1)).toList();
+            case MONTH -> day.withDayOfMonth(1).datesUntil(day.plusDays(1)).toList();
+            default -> List.of();
+        };
+    }
+
+    /**
+     * ISO week identifier of a day, e.g. {@code 2026-W08}.
+     */
+    public static String weekId(LocalDate day) {
+        return "%d-W%02d".formatted(day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
@@ -16,7 +16,21 @@ public interface ManageCartUseCase {
 
     void updateQuantity(String customerId, String productId, int newQuantity);
 
+    /**
+     * Atomically adds {@code delta} to an item's quantity.
+     *
+     * @return the new quantity, or empty if the item is not in the cart
+     */
+    Optional<Integer> changeQuantity(String customerId, String productId, int delta);
+
     Optional<ShoppingCart> getCart(String customerId);
 
     void clearCart(String customerId);
+
+    /**
+     * Removes carts that have not been changed for a while, in bounded batches.
+     *
+     * @return the number of carts removed
+     */
+    int sweepAbandonedCarts(long nowMillis);
 }
@@ -1,7 +1,9 @@
 package com.tutorial.redis.module02.domain.port.inbound;
 
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,9 +14,50 @@ public interface ManageRankingUseCase {
 
     void submitScore(String rankingKey, String memberId, double score);
 
+    /**
+     * Adds to a member's score right away.
+     *
+     * @return the member's new all-time score
+     */
     double addToScore(String rankingKey, String memberId, double delta);
 
+    /**
+     * Adds to a member's score without waiting for Redis. Increments are merged in memory and
+     * written in batches, so they show up in leaderboards and ranks after a short delay (at
+     * most ~100 ms).
+     */
+    void addToScoreBuffered(String rankingKey, String memberId, double delta);
+
     List<RankEntry> getLeaderboard(String rankingKey, int topN);
 
+    /**
+     * Leaderboard of the hour, day, week or month (UTC) containing {@code at}, built from
+     * increments only; {@link RankingPeriod#ALL_TIME} is the same as {@link #getLeaderboard(String, int)}.
+     */
+    List<RankEntry> getLeaderboard(String rankingKey, RankingPeriod period, Instant at, int topN);
+
     Optional<RankEntry> getMemberRank(String rankingKey, String memberId);
+
+    /**
+     * The member's entry with up to {@code radius} (at most 100) neighbours on each side;
+     * empty if the member is not ranked in the period.
+     */
+    List<RankEntry> getRanksAround(String rankingKey, String memberId, RankingPeriod period,
+                                   Instant at, int radius);
+
+    /**
+     * Folds the day buckets of every ranking that closed before {@code now} (minus a grace
+     * period for late flushes) into the week and month rollups.
+     *
+     * @return the number of (ranking, day) buckets rolled up
+     */
+    int rollUpClosedDays(Instant now);
+
+    /**
+     * Switches a ranking between a single sorted set ({@code shards == 1}) and a sharded
+     * leaderboard. The other operations work the same in both modes.
+     *
+     * @throws IllegalStateException if the ranking already has members
+     */
+    void configureSharding(String rankingKey, int shards);
 }
@@ -11,7 +11,14 @@ public interface ManageTransactionLogUseCase {
 
     void recordTransaction(String accountId, Transaction transaction);
 
+    /**
+     * Newest {@code count} transactions; entries older than the Redis log are read from the
+     * archive.
+     */
     List<Transaction> getRecentTransactions(String accountId, int count);
 
+    /**
+     * Number of transactions in the Redis log and the archive.
+     */
     long getTransactionCount(String accountId);
 }
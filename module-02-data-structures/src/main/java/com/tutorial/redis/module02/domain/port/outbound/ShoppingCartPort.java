@@ -7,17 +7,40 @@ import java.util.Optional;
 
 /**
  * Outbound port for shopping cart operations.
- * Uses Redis Hash structure (field = productId, value = serialized CartItem).
- * Implemented by Redis adapter in the infrastructure layer.
+ * Uses Redis Hash structure (field = productId, value = quantity; item details in a
+ * separate hash). Implemented by Redis adapter in the infrastructure layer.
+ *
+ * <p>The {@link com.tutorial.redis.module02.domain.service.CartService} limits are
+ * enforced atomically with each write.</p>
  */
 public interface ShoppingCartPort {
 
+    /**
+     * Adds an item, or replaces the quantity and details of one already in the cart.
+     *
+     * @throws IllegalStateException    if the item is new and the cart is full
+     * @throws IllegalArgumentException if the quantity is out of range
+     */
     void addItem(String customerId, CartItem item);
 
     void removeItem(String customerId, String productId);
 
+    /**
+     * Sets the quantity of an item in the cart; does nothing if the item is not in the cart.
+     *
+     * @throws IllegalArgumentException if the quantity is out of range
+     */
     void updateItemQuantity(String customerId, String productId, int quantity);
 
+    /**
+     * Adds {@code delta} (may be negative) to an item's quantity.
+     *
+     * @return the new quantity, or empty if the item is not in the cart
+     * @throws IllegalArgumentException if the new quantity would be out of range; the
+     *                                  quantity is left unchanged
+     */
+    Optional<Integer> incrementItemQuantity(String customerId, String productId, int delta);
+
     Optional<CartItem> getItem(String customerId, String productId);
 
     Optional<ShoppingCart> getCart(String customerId);
@@ -25,4 +48,13 @@ public interface ShoppingCartPort {
     boolean cartExists(String customerId);
 
     void deleteCart(String customerId);
+
+    /**
+     * Removes up to {@code limit} carts whose last mutation was at or before
+     * {@code idleBeforeMillis}, least recently active first, publishing each non-empty
+     * one for re-engagement before deleting it.
+     *
+     * @return the number of carts removed
+     */
+    int removeAbandonedCarts(long idleBeforeMillis, int limit);
 }
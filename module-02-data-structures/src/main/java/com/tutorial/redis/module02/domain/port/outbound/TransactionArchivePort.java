@@ -0,0 +1,26 @@
+package com.tutorial.redis.module02.domain.port.outbound;
+
+import com.tutorial.redis.module02.domain.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Outbound port for the cold archive of transactions trimmed from the transaction log.
+ * Entries are kept in archive order, which is the order they left the log (oldest first).
+ * Implemented by a local segment-file adapter.
+ */
+public interface TransactionArchivePort {
+
+    /**
+     * Appends transactions, oldest first, after everything archived for the account so far.
+     */
+    void archive(String accountId, List<Transaction> oldestFirst);
+
+    /**
+     * Reads up to {@code count} archived transactions, newest first, after skipping the
+     * {@code skip} newest ones.
+     */
+    List<Transaction> readNewest(String accountId, long skip, int count);
+
+    long count(String accountId);
+}
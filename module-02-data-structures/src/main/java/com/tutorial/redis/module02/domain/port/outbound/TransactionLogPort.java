@@ -2,6 +2,7 @@ package com.tutorial.redis.module02.domain.port.outbound;
 
 import com.tutorial.redis.module02.domain.model.Transaction;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -11,11 +12,42 @@ import java.util.List;
  */
 public interface TransactionLogPort {
 
-    void addTransaction(String accountId, Transaction transaction);
+    /**
+     * Pushes a transaction to the newest end of the log and, in the same atomic step,
+     * drops the oldest entries beyond {@code hardCap}. The cap is a safety net for when
+     * archiving falls behind: dropped entries may not have been archived, and dropping any
+     * revokes the archive claim, so a claim taken before the drop trims nothing.
+     *
+     * @return the number of entries in the log after the push, at most {@code hardCap}
+     */
+    long addTransaction(String accountId, Transaction transaction, int hardCap);
 
-    List<Transaction> getRecentTransactions(String accountId, int count);
+    /**
+     * Claims every entry beyond the newest {@code maxSize} for archiving, without removing
+     * anything. The claim is a lease on the account's log held by {@code owner}; while it
+     * is held, other callers claim nothing, so one archiver at a time moves entries out.
+     *
+     * @return the claimed transactions, oldest first; empty if the log holds at most
+     *         {@code maxSize} entries or another owner holds the claim
+     * @throws IllegalStateException if a claimed entry is not a transaction; the claim is
+     *                               then released and the log left unchanged
+     */
+    List<Transaction> claimOverflow(String accountId, int maxSize, String owner, Duration lease);
+
+    /**
+     * Removes the {@code count} oldest entries and releases the claim, in one atomic step,
+     * provided {@code owner} still holds the claim.
+     *
+     * @return false if the claim expired or was taken over; the log is then unchanged
+     */
+    boolean trimClaimed(String accountId, int count, String owner);
 
-    void trimToSize(String accountId, int maxSize);
+    /**
+     * Releases the claim if {@code owner} still holds it, leaving the log unchanged.
+     */
+    void releaseClaim(String accountId, String owner);
+
+    List<Transaction> getRecentTransactions(String accountId, int count);
 
     long getTransactionCount(String accountId);
 }
@@ -1,9 +1,13 @@
 package com.tutorial.redis.module02.domain.port.outbound;
 
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Outbound port for ranking / leaderboard operations.
@@ -12,10 +16,29 @@ import java.util.Optional;
  */
 public interface TransactionRankingPort {
 
+    /**
+     * Sets the all-time score; time buckets are only fed by increments.
+     */
     void addOrUpdate(String rankingKey, String memberId, double score);
 
+    /**
+     * Adds to the all-time score and to the current hour and day buckets.
+     *
+     * @return the new all-time score
+     */
     double incrementScore(String rankingKey, String memberId, double delta);
 
+    /**
+     * Buffers an increment; increments of the same member are merged and written with
+     * the next flush, within a bounded delay.
+     */
+    void incrementScoreBuffered(String rankingKey, String memberId, double delta);
+
+    /**
+     * Writes all buffered increments to Redis.
+     */
+    void flush();
+
     Optional<Double> getScore(String rankingKey, String memberId);
 
     Optional<Long> getRank(String rankingKey, String memberId);
@@ -24,9 +47,47 @@ public interface TransactionRankingPort {
 
     List<RankEntry> getTopN(String rankingKey, int n);
 
+    /**
+     * Top {@code n} of the period containing {@code at} (UTC). Week and month views include
+     * the days not rolled up yet.
+     */
+    List<RankEntry> getTopN(String rankingKey, RankingPeriod period, Instant at, int n);
+
+    /**
+     * The member and up to {@code radius} entries above and below it in the period
+     * containing {@code at}; empty if the member has no score in that period.
+     */
+    List<RankEntry> getRanksAround(String rankingKey, RankingPeriod period, Instant at,
+                                   String memberId, int radius);
+
+    /**
+     * Adds every day bucket before {@code firstOpenDay} that was not rolled up yet to its
+     * week and month rollups.
+     *
+     * @return the number of days rolled up
+     */
+    int rollUpClosedDays(String rankingKey, LocalDate firstOpenDay);
+
+    /**
+     * Rankings that have received increments.
+     */
+    Set<String> findRankings();
+
     long count(String rankingKey);
 
     long countByScoreRange(String rankingKey, double min, double max);
 
     void remove(String rankingKey, String memberId);
+
+    /**
+     * Number of sorted sets the ranking's members are spread over; 1 means a single key.
+     */
+    int getShardCount(String rankingKey);
+
+    /**
+     * Changes the number of shards of an empty ranking.
+     *
+     * @return false if the ranking has members, in which case nothing is changed
+     */
+    boolean setShardCount(String rankingKey, int shards);
 }
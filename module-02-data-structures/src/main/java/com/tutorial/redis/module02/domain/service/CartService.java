@@ -8,11 +8,14 @@ import java.math.BigDecimal;
 /**
  * Domain service for shopping cart business rules.
  * Pure domain logic — zero framework dependency.
+ *
+ * <p>The limits are public so the Redis cart adapter can enforce the same rules inside
+ * its scripts, atomically with the write.</p>
  */
 public class CartService {
 
-    static final int MAX_CART_ITEMS = 50;
-    static final int MAX_ITEM_QUANTITY = 99;
+    public static final int MAX_CART_ITEMS = 50;
+    public static final int MAX_ITEM_QUANTITY = 99;
 
     /**
      * Validates that a quantity is within the allowed range.
@@ -3,6 +3,7 @@ package com.tutorial.redis.module02.infrastructure.config;
 import com.tutorial.redis.common.config.RedisConfig;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Module-02 configuration that imports the common Redis configuration.
@@ -10,8 +11,12 @@ import org.springframework.context.annotation.Import;
  * <p>Ensures that {@link RedisConfig} (providing RedisTemplate with
  * Jackson2JsonRedisSerializer and NON_FINAL default typing) is available
  * for all adapters in this module.</p>
+ *
+ * <p>Enables {@code @Scheduled} methods, which run the ranking rollup and the
+ * abandoned cart sweep.</p>
  */
 @Configuration
 @Import(RedisConfig.class)
+@EnableScheduling
 public class Module02Config {
 }
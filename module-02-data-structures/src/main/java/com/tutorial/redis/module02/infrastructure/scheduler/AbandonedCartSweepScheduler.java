@@ -0,0 +1,40 @@
+package com.tutorial.redis.module02.infrastructure.scheduler;
+
+import com.tutorial.redis.module02.domain.port.inbound.ManageCartUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically removes abandoned shopping carts.
+ *
+ * <p>Calls {@link ManageCartUseCase#sweepAbandonedCarts(long)} every
+ * {@code ecommerce.cart.sweep-interval-ms} ms (default 30,000) on Spring's task scheduler.
+ * Running several application instances is safe: each batch is popped and deleted by
+ * one Lua script, so a cart is published and removed only once.</p>
+ */
+@Component
+public class AbandonedCartSweepScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweepScheduler.class);
+
+    private final ManageCartUseCase manageCartUseCase;
+
+    public AbandonedCartSweepScheduler(ManageCartUseCase manageCartUseCase) {
+        this.manageCartUseCase = manageCartUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.cart.sweep-interval-ms:30000}",
+            initialDelayString = "${ecommerce.cart.sweep-interval-ms:30000}")
+    public void sweepAbandonedCarts() {
+        try {
+            int removed = manageCartUseCase.sweepAbandonedCarts(System.currentTimeMillis());
+            if (removed > 0) {
+                log.info("Removed {} abandoned carts", removed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Abandoned cart sweep failed, retrying at the next run", e);
+        }
+    }
+}
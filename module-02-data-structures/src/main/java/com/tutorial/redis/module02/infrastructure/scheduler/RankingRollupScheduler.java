@@ -0,0 +1,43 @@
+package com.tutorial.redis.module02.infrastructure.scheduler;
+
+import com.tutorial.redis.module02.domain.port.inbound.ManageRankingUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Periodically rolls closed daily ranking buckets up into the weekly and monthly rankings.
+ *
+ * <p>Calls {@link ManageRankingUseCase#rollUpClosedDays(Instant)} every
+ * {@code banking.ranking.rollup-interval-ms} ms (default 60,000) on Spring's task
+ * scheduler. Most runs find nothing to do; running several application instances is
+ * safe because each day is rolled up by an atomic Lua script that advances the
+ * ranking's watermark, so it is added only once.</p>
+ */
+@Component
+public class RankingRollupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RankingRollupScheduler.class);
+
+    private final ManageRankingUseCase manageRankingUseCase;
+
+    public RankingRollupScheduler(ManageRankingUseCase manageRankingUseCase) {
+        this.manageRankingUseCase = manageRankingUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.ranking.rollup-interval-ms:60000}",
+            initialDelayString = "${banking.ranking.rollup-interval-ms:60000}")
+    public void rollUpClosedDays() {
+        try {
+            int rolledUp = manageRankingUseCase.rollUpClosedDays(Instant.now());
+            if (rolledUp > 0) {
+                log.info("Rolled up {} daily ranking buckets", rolledUp);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ranking rollup failed, retrying at the next run", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tutorial.redis.module02.adapter.outbound.file;
+
+import com.tutorial.redis.module02.domain.model.Transaction;
+import com.tutorial.redis.module02.domain.model.Transaction.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 交易封存 Adapter 單元測試
+ * 驗證 SegmentFileTransactionArchiveAdapter 以壓縮區段檔與稀疏索引封存交易，並以記憶體映射分頁讀取。
+ * 層級：Adapter（外部端口實作）
+ */
+@DisplayName("SegmentFileTransactionArchiveAdapter 單元測試")
+class SegmentFileTransactionArchiveAdapterTest {
+
+    @TempDir
+    private Path directory;
+
+    private List<Transaction> createTransactions(int from, int to) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            transactions.add(new Transaction("TX-%03d".formatted(i), "ACC-001", new BigDecimal(i + ".50"),
+                    TransactionType.DEPOSIT, Instant.ofEpochSecond(1_700_000_000L + i, 123), i % 2 == 0 ? null : "note " + i));
+        }
+        return transactions;
+    }
+
+    // 驗證跨多個區塊的分頁讀取依新到舊排序，略過 skip 筆後回傳 count 筆且欄位完整還原
+    @Test
+    @DisplayName("readNewest_AcrossBlocks_ReturnsNewestFirst — 跨區塊分頁讀取最新封存交易")
+    void readNewest_AcrossBlocks_ReturnsNewestFirst() {
+        SegmentFileTransactionArchiveAdapter adapter = new SegmentFileTransactionArchiveAdapter(directory);
+        adapter.archive("ACC-001", createTransactions(0, 10));
+        adapter.archive("ACC-001", createTransactions(10, 20));
+        adapter.archive("ACC-001", createTransactions(20, 30));
+
+        List<Transaction> page = adapter.readNewest("ACC-001", 5, 12);
+
+        assertThat(adapter.count("ACC-001")).isEqualTo(30);
+        assertThat(page).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-024", "TX-023", "TX-022", "TX-021", "TX-020", "TX-019",
+                        "TX-018", "TX-017", "TX-016", "TX-015", "TX-014", "TX-013");
+        assertThat(page.getFirst().getAmount()).isEqualByComparingTo("24.50");
+        assertThat(page.getFirst().getTimestamp()).isEqualTo(Instant.ofEpochSecond(1_700_000_024L, 123));
+        assertThat(page.getFirst().getDescription()).isNull();
+        assertThat(page.get(1).getDescription()).isEqualTo("note 23");
+        assertThat(adapter.readNewest("ACC-001", 28, 10)).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-001", "TX-000");
+        assertThat(adapter.readNewest("ACC-001", 30, 10)).isEmpty();
+    }
+
+    // 驗證重新建立 Adapter 時由磁碟上的稀疏索引還原封存內容，並可繼續附加
+    @Test
+    @DisplayName("archive_AfterReopen_ContinuesFromIndex — 重新開啟後由索引還原並續寫")
+    void archive_AfterReopen_ContinuesFromIndex() throws Exception {
+        new SegmentFileTransactionArchiveAdapter(directory).archive("ACC-001", createTransactions(0, 10));
+
+        SegmentFileTransactionArchiveAdapter reopened = new SegmentFileTransactionArchiveAdapter(directory);
+        reopened.archive("ACC-001", createTransactions(10, 15));
+
+        assertThat(reopened.count("ACC-001")).isEqualTo(15);
+        assertThat(reopened.readNewest("ACC-001", 0, 7)).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-014", "TX-013", "TX-012", "TX-011", "TX-010", "TX-009", "TX-008");
+        try (var files = Files.list(directory.resolve("ACC-001"))) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.endsWith(".seg"))
+                    .anyMatch(name -> name.endsWith(".idx"));
+        }
+        assertThat(reopened.count("ACC-002")).isZero();
+    }
+
+    // 驗證映射的區段數量有上限，超過時釋放最久未讀的映射，之後仍可重新映射讀取
+    @Test
+    @DisplayName("readNewest_ManySegments_KeepsMappingsBounded — 區段映射數量受上限控制")
+    void readNewest_ManySegments_KeepsMappingsBounded() {
+        SegmentFileTransactionArchiveAdapter adapter = new SegmentFileTransactionArchiveAdapter(directory);
+        int accounts = SegmentFileTransactionArchiveAdapter.MAX_MAPPED_SEGMENTS + 10;
+        for (int i = 0; i < accounts; i++) {
+            adapter.archive("ACC-" + i, createTransactions(0, 3));
+            assertThat(adapter.readNewest("ACC-" + i, 0, 1)).extracting(Transaction::getTransactionId)
+                    .containsExactly("TX-002");
+        }
+
+        assertThat(adapter.mappedSegmentCount()).isEqualTo(SegmentFileTransactionArchiveAdapter.MAX_MAPPED_SEGMENTS);
+        assertThat(adapter.readNewest("ACC-0", 0, 3)).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-002", "TX-001", "TX-000");
+    }
+}
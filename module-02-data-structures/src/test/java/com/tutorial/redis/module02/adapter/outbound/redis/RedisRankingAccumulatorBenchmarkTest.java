@@ -0,0 +1,102 @@
+package com.tutorial.redis.module02.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分數增量合併效能量測
+ * 以 Zipf 分佈（s = 1.1，100,000 名成員）產生 500,000 次加分，比較逐筆 ZINCRBY 與記憶體合併後
+ * 管線化 ZINCRBY 的 Redis 指令數（INFO stats 的 total_commands_processed）與耗時，並驗證合併後總分不變。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 層級：Adapter（外部端口效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("分數增量合併效能量測")
+class RedisRankingAccumulatorBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisRankingAccumulatorBenchmarkTest.class);
+
+    private static final int MEMBERS = 100_000;
+    private static final int UPDATES = 500_000;
+    private static final double ZIPF_EXPONENT = 1.1;
+
+    @Autowired
+    private RedisTransactionRankingAdapter adapter;
+
+    // 比較逐筆寫入與合併寫入在 Zipf 熱點分佈下的 Redis 指令數與每秒更新數
+    @Test
+    @DisplayName("incrementScoreBuffered_ZipfianWorkload_ReducesRedisCommands — Zipf 熱點下減少 Redis 指令")
+    void incrementScoreBuffered_ZipfianWorkload_ReducesRedisCommands() {
+        int[] members = zipfianSample(new Random(42));
+
+        long commandsBefore = commandsProcessed();
+        long start = System.nanoTime();
+        for (int member : members) {
+            adapter.incrementScore("direct", "member-" + member, 1);
+        }
+        double directSeconds = (System.nanoTime() - start) / 1e9;
+        long directCommands = commandsProcessed() - commandsBefore - 1;
+
+        commandsBefore = commandsProcessed();
+        start = System.nanoTime();
+        for (int member : members) {
+            adapter.incrementScoreBuffered("buffered", "member-" + member, 1);
+        }
+        adapter.flush();
+        double bufferedSeconds = (System.nanoTime() - start) / 1e9;
+        long bufferedCommands = commandsProcessed() - commandsBefore - 1;
+
+        report.line("%,d Zipf(s=%.1f) increments over %,d members", UPDATES, ZIPF_EXPONENT, MEMBERS);
+        report.line("  direct ZINCRBY:   %,9d Redis commands, %,10.0f updates/s",
+                directCommands, UPDATES / directSeconds);
+        report.line("  merged + flushed: %,9d Redis commands, %,10.0f updates/s (%.1fx fewer commands)",
+                bufferedCommands, UPDATES / bufferedSeconds, (double) directCommands / bufferedCommands);
+
+        assertThat(totalScore("buffered")).isEqualTo(totalScore("direct")).isEqualTo(UPDATES);
+        assertThat(bufferedCommands).isLessThan(directCommands);
+    }
+
+    /**
+     * Draws member indexes with probability proportional to 1 / rank^s.
+     */
+    private int[] zipfianSample(Random random) {
+        double[] cumulative = new double[MEMBERS];
+        double sum = 0;
+        for (int rank = 1; rank <= MEMBERS; rank++) {
+            sum += 1 / Math.pow(rank, ZIPF_EXPONENT);
+            cumulative[rank - 1] = sum;
+        }
+        int[] sample = new int[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            sample[i] = index >= 0 ? index : Math.min(-index - 1, MEMBERS - 1);
+        }
+        return sample;
+    }
+
+    /**
+     * Redis's command counter; the INFO call itself counts as one command.
+     */
+    private long commandsProcessed() {
+        Properties stats = stringRedisTemplate.execute(
+                (RedisCallback<Properties>) connection -> connection.serverCommands().info("stats"));
+        return Long.parseLong(stats.getProperty("total_commands_processed"));
+    }
+
+    private double totalScore(String rankingKey) {
+        return stringRedisTemplate.opsForZSet().rangeWithScores("ranking:" + rankingKey, 0, -1).stream()
+                .mapToDouble(tuple -> tuple.getScore())
+                .sum();
+    }
+}
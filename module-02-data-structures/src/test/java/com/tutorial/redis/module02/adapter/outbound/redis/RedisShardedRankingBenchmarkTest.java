@@ -0,0 +1,87 @@
+package com.tutorial.redis.module02.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.port.outbound.TransactionRankingPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分片排行榜效能量測
+ * 在 1、4、16 個分片下量測 8 個執行緒並行 ZINCRBY 的寫入吞吐量與 Top 100 查詢延遲。
+ * 單一 Redis 節點上分片不會提高伺服器處理能力，此處量測的是分片帶來的額外成本；
+ * 叢集中各分片落在不同節點時，寫入才會分散。僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 層級：Adapter（外部端口效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("分片排行榜效能量測")
+class RedisShardedRankingBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisShardedRankingBenchmarkTest.class);
+
+    private static final int MEMBERS = 50_000;
+    private static final int WRITES = 200_000;
+    private static final int WRITERS = 8;
+    private static final int TOP_N = 100;
+    private static final int QUERY_RUNS = 200;
+
+    @Autowired
+    private TransactionRankingPort rankingPort;
+
+    // 比較不同分片數下的寫入吞吐量與 Top N 合併查詢延遲
+    @Test
+    @DisplayName("shardedRanking_1_4_16Shards_ComparesThroughputAndTopNLatency — 分片數與效能比較")
+    void shardedRanking_1_4_16Shards_ComparesThroughputAndTopNLatency() throws Exception {
+        report.line("%,d ZINCRBY over %,d members from %d threads, top %d", WRITES, MEMBERS, WRITERS, TOP_N);
+        for (int shards : new int[]{1, 4, 16}) {
+            String rankingKey = "bench-" + shards;
+            rankingPort.setShardCount(rankingKey, shards);
+
+            long start = System.nanoTime();
+            try (ExecutorService writers = Executors.newFixedThreadPool(WRITERS)) {
+                List<Future<?>> done = new ArrayList<>();
+                for (int w = 0; w < WRITERS; w++) {
+                    done.add(writers.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < WRITES / WRITERS; i++) {
+                            rankingPort.incrementScore(rankingKey, "member-" + random.nextInt(MEMBERS), random.nextInt(100));
+                        }
+                    }));
+                }
+                for (Future<?> future : done) {
+                    future.get();
+                }
+            }
+            double writesPerSecond = WRITES / ((System.nanoTime() - start) / 1e9);
+
+            List<RankEntry> top = null;
+            start = System.nanoTime();
+            for (int run = 0; run < QUERY_RUNS; run++) {
+                top = rankingPort.getTopN(rankingKey, TOP_N);
+            }
+            double topMicros = (System.nanoTime() - start) / 1e3 / QUERY_RUNS;
+
+            start = System.nanoTime();
+            for (int run = 0; run < QUERY_RUNS; run++) {
+                rankingPort.getReverseRank(rankingKey, "member-" + run);
+            }
+            double rankMicros = (System.nanoTime() - start) / 1e3 / QUERY_RUNS;
+
+            report.line("  %2d shards: %,10.0f writes/s, top %d %,8.1f µs, reverse rank %,8.1f µs",
+                    shards, writesPerSecond, TOP_N, topMicros, rankMicros);
+            assertThat(top).hasSize(TOP_N);
+        }
+    }
+}
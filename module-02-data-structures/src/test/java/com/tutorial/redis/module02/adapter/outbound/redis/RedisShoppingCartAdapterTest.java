@@ -4,19 +4,28 @@ import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module02.domain.model.CartItem;
 import com.tutorial.redis.module02.domain.model.ShoppingCart;
 import com.tutorial.redis.module02.domain.port.outbound.ShoppingCartPort;
+import com.tutorial.redis.module02.domain.service.CartService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * 購物車 Adapter 整合測試
- * 驗證使用 Redis Hash（HSET/HGET/HDEL/HGETALL）實作購物車的 CRUD 操作。
+ * 驗證使用 Redis Hash（HSET/HGET/HINCRBY/HDEL/HGETALL）與 Lua 腳本實作購物車的 CRUD 操作。
  * 層級：Adapter（外部端口實作）
  */
 @DisplayName("RedisShoppingCartAdapter 整合測試")
@@ -125,4 +134,145 @@ class RedisShoppingCartAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(keys).isNotNull().hasSize(1);
         assertThat(keys.iterator().next()).isEqualTo("ecommerce:cart:CUST-KEY-001");
     }
+
+    // 驗證多個執行緒同時以 HINCRBY 調整數量不會遺失更新，且數量以 HASH 數值欄位儲存
+    @Test
+    @DisplayName("incrementItemQuantity_WhenConcurrent_AppliesEveryDelta — 並行調整數量不遺失更新")
+    void incrementItemQuantity_WhenConcurrent_AppliesEveryDelta() throws Exception {
+        shoppingCartPort.addItem("CUST-007", createCartItem("P-001", "Redis Book", "29.99", 1));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(executor.submit(() -> shoppingCartPort.incrementItemQuantity("CUST-007", "P-001", 2)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(shoppingCartPort.getItem("CUST-007", "P-001")).map(CartItem::getQuantity).contains(81);
+        assertThat(stringRedisTemplate.opsForHash().get("ecommerce:cart:CUST-007", "P-001")).isEqualTo("81");
+        assertThat(shoppingCartPort.incrementItemQuantity("CUST-007", "P-404", 1)).isEmpty();
+    }
+
+    // 驗證腳本在伺服器端拒絕超出範圍的數量，數量保持不變
+    @Test
+    @DisplayName("incrementItemQuantity_WhenOutOfRange_RejectsAndKeepsQuantity — 超出範圍時拒絕且不變更")
+    void incrementItemQuantity_WhenOutOfRange_RejectsAndKeepsQuantity() {
+        shoppingCartPort.addItem("CUST-008", createCartItem("P-001", "Redis Book", "29.99", 98));
+
+        assertThatThrownBy(() -> shoppingCartPort.incrementItemQuantity("CUST-008", "P-001", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shoppingCartPort.incrementItemQuantity("CUST-008", "P-001", -98))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(shoppingCartPort.getItem("CUST-008", "P-001")).map(CartItem::getQuantity).contains(98);
+    }
+
+    // 驗證購物車已達品項上限時新增新商品被拒絕，但既有商品仍可更新
+    @Test
+    @DisplayName("addItem_WhenCartFull_RejectsNewItem — 購物車已滿時拒絕新增商品")
+    void addItem_WhenCartFull_RejectsNewItem() {
+        for (int i = 0; i < CartService.MAX_CART_ITEMS; i++) {
+            shoppingCartPort.addItem("CUST-009", createCartItem("P-" + i, "Item " + i, "1.00", 1));
+        }
+
+        assertThatThrownBy(() -> shoppingCartPort.addItem("CUST-009", createCartItem("P-NEW", "New", "1.00", 1)))
+                .isInstanceOf(IllegalStateException.class);
+        shoppingCartPort.addItem("CUST-009", createCartItem("P-0", "Item 0", "1.00", 5));
+
+        assertThat(shoppingCartPort.getCart("CUST-009")).get()
+                .satisfies(cart -> assertThat(cart.itemCount()).isEqualTo(CartService.MAX_CART_ITEMS))
+                .satisfies(cart -> assertThat(cart.getItem("P-0")).map(CartItem::getQuantity).contains(5));
+    }
+
+    // 驗證清掃只移除閒置超過期限的購物車，並將其內容寫入放棄購物車 Stream；活動中的購物車不受影響
+    @Test
+    @DisplayName("removeAbandonedCarts_WhenIdle_PublishesAndDeletes — 清掃閒置購物車並發布至 Stream")
+    void removeAbandonedCarts_WhenIdle_PublishesAndDeletes() {
+        shoppingCartPort.addItem("CUST-IDLE", createCartItem("P-001", "Redis Book", "29.99", 2));
+        shoppingCartPort.addItem("CUST-ACTIVE", createCartItem("P-002", "Spring Guide", "39.99", 1));
+        stringRedisTemplate.opsForZSet().add("ecommerce:cart-index:activity", "CUST-IDLE", 1_000);
+
+        int removed = shoppingCartPort.removeAbandonedCarts(System.currentTimeMillis() - 60_000, 10);
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(shoppingCartPort.cartExists("CUST-IDLE")).isFalse();
+        assertThat(stringRedisTemplate.hasKey("ecommerce:cart:CUST-IDLE:meta")).isFalse();
+        assertThat(shoppingCartPort.cartExists("CUST-ACTIVE")).isTrue();
+        assertThat(stringRedisTemplate.opsForZSet().score("ecommerce:cart-index:activity", "CUST-IDLE")).isNull();
+        List<MapRecord<String, Object, Object>> events = stringRedisTemplate.opsForStream()
+                .range("ecommerce:cart-events:abandoned", Range.unbounded());
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().getValue())
+                .containsEntry("customerId", "CUST-IDLE")
+                .containsEntry("qty:P-001", "2")
+                .containsEntry("name:P-001", "Redis Book");
+        assertThat(shoppingCartPort.removeAbandonedCarts(System.currentTimeMillis() - 60_000, 10)).isZero();
+    }
+
+    // 驗證舊格式（每個欄位存一筆 JSON CartItem）的購物車可被讀取，並在讀取時轉換為目前的格式
+    @Test
+    @DisplayName("getCart_WhenLegacyJsonItems_ConvertsToCurrentLayout — 讀取舊版 JSON 購物車並轉換格式")
+    void getCart_WhenLegacyJsonItems_ConvertsToCurrentLayout() {
+        // Arrange
+        stringRedisTemplate.opsForHash().put("ecommerce:cart:CUST-LEGACY", "P-001",
+                "[\"com.tutorial.redis.module02.domain.model.CartItem\",{\"productId\":\"P-001\","
+                        + "\"productName\":\"Redis Book\",\"unitPrice\":[\"java.math.BigDecimal\",29.99],"
+                        + "\"quantity\":2}]");
+        stringRedisTemplate.opsForHash().put("ecommerce:cart:CUST-LEGACY", "P-002",
+                "{\"productId\":\"P-002\",\"productName\":\"Spring Guide\",\"unitPrice\":39.99,\"quantity\":1}");
+
+        // Act
+        Optional<ShoppingCart> cart = shoppingCartPort.getCart("CUST-LEGACY");
+
+        // Assert
+        assertThat(cart).get().satisfies(c -> {
+            assertThat(c.itemCount()).isEqualTo(2);
+            assertThat(c.getItem("P-001")).map(CartItem::getQuantity).contains(2);
+            assertThat(c.getItem("P-001")).map(CartItem::getUnitPrice)
+                    .hasValueSatisfying(price -> assertThat(price).isEqualByComparingTo("29.99"));
+        });
+        assertThat(stringRedisTemplate.opsForHash().get("ecommerce:cart:CUST-LEGACY", "P-001")).isEqualTo("2");
+        assertThat(stringRedisTemplate.opsForHash().get("ecommerce:cart:CUST-LEGACY:meta", "name:P-002"))
+                .isEqualTo("Spring Guide");
+        assertThat(shoppingCartPort.getItem("CUST-LEGACY", "P-002")).map(CartItem::getQuantity).contains(1);
+    }
+
+    // 驗證對舊格式商品遞增數量時，先轉換購物車格式再遞增，而非在 Lua 腳本中出錯
+    @Test
+    @DisplayName("incrementItemQuantity_WhenLegacyJsonItem_ConvertsAndIncrements — 舊版 JSON 商品可遞增數量")
+    void incrementItemQuantity_WhenLegacyJsonItem_ConvertsAndIncrements() {
+        // Arrange
+        stringRedisTemplate.opsForHash().put("ecommerce:cart:CUST-LEGACY2", "P-001",
+                "{\"productId\":\"P-001\",\"productName\":\"Redis Book\",\"unitPrice\":29.99,\"quantity\":2}");
+
+        // Act
+        Optional<Integer> quantity = shoppingCartPort.incrementItemQuantity("CUST-LEGACY2", "P-001", 3);
+
+        // Assert
+        assertThat(quantity).contains(5);
+        assertThat(shoppingCartPort.getItem("CUST-LEGACY2", "P-001")).get()
+                .satisfies(item -> assertThat(item.getProductName()).isEqualTo("Redis Book"))
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(5));
+    }
+
+    // 驗證索引建立前既有的購物車（活動 Sorted Set 中無分數）在首次讀取時被補入索引，之後可被清掃
+    @Test
+    @DisplayName("getCart_WhenCartNotIndexed_AddsToActivityIndex — 未被索引的購物車讀取後補入活動索引")
+    void getCart_WhenCartNotIndexed_AddsToActivityIndex() {
+        // Arrange
+        shoppingCartPort.addItem("CUST-OLD", createCartItem("P-001", "Redis Book", "29.99", 1));
+        stringRedisTemplate.opsForZSet().remove("ecommerce:cart-index:activity", "CUST-OLD");
+
+        // Act
+        Optional<ShoppingCart> cart = shoppingCartPort.getCart("CUST-OLD");
+
+        // Assert
+        assertThat(cart).isPresent();
+        assertThat(stringRedisTemplate.opsForZSet().score("ecommerce:cart-index:activity", "CUST-OLD")).isNotNull();
+        assertThat(shoppingCartPort.removeAbandonedCarts(System.currentTimeMillis() + 1_000, 10)).isEqualTo(1);
+        assertThat(shoppingCartPort.cartExists("CUST-OLD")).isFalse();
+    }
 }
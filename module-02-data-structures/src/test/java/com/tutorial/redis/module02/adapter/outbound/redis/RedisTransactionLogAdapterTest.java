@@ -9,20 +9,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * 交易記錄 Adapter 整合測試
- * 驗證使用 Redis List（LPUSH/LRANGE/LTRIM/LLEN）實作交易日誌的 Capped Collection。
+ * 驗證使用 Redis List（LPUSH/LRANGE/LTRIM/LLEN）與 Lua 腳本實作交易日誌的 Capped Collection。
  * 層級：Adapter（外部端口實作）
  */
 @DisplayName("RedisTransactionLogAdapter 整合測試")
 class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
 
+    private static final int LOG_CAP = 1_000;
+
     @Autowired
     private TransactionLogPort transactionLogPort;
 
@@ -40,9 +44,9 @@ class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
         Transaction tx2 = createTransaction("TX-002", accountId, TransactionType.WITHDRAWAL);
         Transaction tx3 = createTransaction("TX-003", accountId, TransactionType.TRANSFER);
 
-        transactionLogPort.addTransaction(accountId, tx1);
-        transactionLogPort.addTransaction(accountId, tx2);
-        transactionLogPort.addTransaction(accountId, tx3);
+        transactionLogPort.addTransaction(accountId, tx1, LOG_CAP);
+        transactionLogPort.addTransaction(accountId, tx2, LOG_CAP);
+        transactionLogPort.addTransaction(accountId, tx3, LOG_CAP);
 
         List<Transaction> recent = transactionLogPort.getRecentTransactions(accountId, 3);
         assertThat(recent).hasSize(3);
@@ -58,7 +62,7 @@ class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
         String accountId = "ACC-002";
         for (int i = 1; i <= 5; i++) {
             transactionLogPort.addTransaction(accountId,
-                    createTransaction("TX-" + i, accountId, TransactionType.DEPOSIT));
+                    createTransaction("TX-" + i, accountId, TransactionType.DEPOSIT), LOG_CAP);
         }
 
         List<Transaction> recent = transactionLogPort.getRecentTransactions(accountId, 3);
@@ -69,23 +73,26 @@ class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(recent.get(2).getTransactionId()).isEqualTo("TX-3");
     }
 
-    // 驗證 LTRIM 裁剪列表至指定大小，僅保留最近的交易記錄
+    // 驗證推入超過硬上限時在同一腳本中以 LTRIM 丟棄最舊交易，並撤銷封存認領，避免認領者裁掉未讀取的交易
     @Test
-    @DisplayName("trimToSize_WhenExceedsMax_KeepsOnlyRecent — 裁剪至指定大小")
-    void trimToSize_WhenExceedsMax_KeepsOnlyRecent() {
+    @DisplayName("addTransaction_BeyondHardCap_DropsOldestAndRevokesClaim — 超過硬上限時丟棄最舊並撤銷認領")
+    void addTransaction_BeyondHardCap_DropsOldestAndRevokesClaim() {
         String accountId = "ACC-003";
-        for (int i = 1; i <= 5; i++) {
+        for (int i = 1; i <= 3; i++) {
             transactionLogPort.addTransaction(accountId,
-                    createTransaction("TX-" + i, accountId, TransactionType.DEPOSIT));
+                    createTransaction("TX-" + i, accountId, TransactionType.DEPOSIT), 3);
         }
+        List<Transaction> claimed = transactionLogPort.claimOverflow(accountId, 2, "owner-1", Duration.ofSeconds(30));
+        assertThat(claimed).extracting(Transaction::getTransactionId).containsExactly("TX-1");
 
-        transactionLogPort.trimToSize(accountId, 3);
+        long size = transactionLogPort.addTransaction(accountId,
+                createTransaction("TX-4", accountId, TransactionType.DEPOSIT), 3);
 
+        assertThat(size).isEqualTo(3);
+        assertThat(transactionLogPort.getRecentTransactions(accountId, 5))
+                .extracting(Transaction::getTransactionId).containsExactly("TX-4", "TX-3", "TX-2");
+        assertThat(transactionLogPort.trimClaimed(accountId, claimed.size(), "owner-1")).isFalse();
         assertThat(transactionLogPort.getTransactionCount(accountId)).isEqualTo(3);
-        List<Transaction> remaining = transactionLogPort.getRecentTransactions(accountId, 5);
-        assertThat(remaining).hasSize(3);
-        assertThat(remaining.get(0).getTransactionId()).isEqualTo("TX-5");
-        assertThat(remaining.get(2).getTransactionId()).isEqualTo("TX-3");
     }
 
     // 驗證 LLEN 回傳列表中的交易筆數
@@ -94,9 +101,9 @@ class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
     void getTransactionCount_ReturnsCorrectCount() {
         String accountId = "ACC-004";
         transactionLogPort.addTransaction(accountId,
-                createTransaction("TX-001", accountId, TransactionType.DEPOSIT));
+                createTransaction("TX-001", accountId, TransactionType.DEPOSIT), LOG_CAP);
         transactionLogPort.addTransaction(accountId,
-                createTransaction("TX-002", accountId, TransactionType.WITHDRAWAL));
+                createTransaction("TX-002", accountId, TransactionType.WITHDRAWAL), LOG_CAP);
 
         long count = transactionLogPort.getTransactionCount(accountId);
 
@@ -118,10 +125,69 @@ class RedisTransactionLogAdapterTest extends AbstractRedisIntegrationTest {
     void key_FollowsNamingConvention() {
         String accountId = "ACC-KEY-001";
         transactionLogPort.addTransaction(accountId,
-                createTransaction("TX-001", accountId, TransactionType.DEPOSIT));
+                createTransaction("TX-001", accountId, TransactionType.DEPOSIT), LOG_CAP);
 
         Set<String> keys = stringRedisTemplate.keys("banking:txlog:" + accountId);
         assertThat(keys).isNotNull().hasSize(1);
         assertThat(keys.iterator().next()).isEqualTo("banking:txlog:ACC-KEY-001");
     }
+
+    // 驗證認領只讀取超出上限的交易（由舊到新）而不移除，裁剪後列表回到上限
+    @Test
+    @DisplayName("claimOverflow_ThenTrimClaimed_RemovesOnlyAfterTrim — 認領不移除，裁剪後才移除")
+    void claimOverflow_ThenTrimClaimed_RemovesOnlyAfterTrim() {
+        String accountId = "ACC-CAP";
+        for (int i = 1; i <= 8; i++) {
+            transactionLogPort.addTransaction(accountId,
+                    createTransaction("TX-%02d".formatted(i), accountId, TransactionType.DEPOSIT), LOG_CAP);
+        }
+
+        List<Transaction> claimed = transactionLogPort.claimOverflow(accountId, 5, "owner-1", Duration.ofSeconds(30));
+
+        assertThat(claimed).extracting(Transaction::getTransactionId).containsExactly("TX-01", "TX-02", "TX-03");
+        assertThat(transactionLogPort.getTransactionCount(accountId)).isEqualTo(8);
+
+        transactionLogPort.addTransaction(accountId,
+                createTransaction("TX-09", accountId, TransactionType.DEPOSIT), LOG_CAP);
+        assertThat(transactionLogPort.trimClaimed(accountId, claimed.size(), "owner-1")).isTrue();
+        assertThat(transactionLogPort.getRecentTransactions(accountId, 10)).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-09", "TX-08", "TX-07", "TX-06", "TX-05", "TX-04");
+    }
+
+    // 驗證認領期間其他認領者取得空清單且無法裁剪；釋放後可重新認領
+    @Test
+    @DisplayName("claimOverflow_WhileClaimed_ExcludesOtherOwners — 認領期間排除其他認領者")
+    void claimOverflow_WhileClaimed_ExcludesOtherOwners() {
+        String accountId = "ACC-CLAIM";
+        for (int i = 1; i <= 3; i++) {
+            transactionLogPort.addTransaction(accountId,
+                    createTransaction("TX-%02d".formatted(i), accountId, TransactionType.DEPOSIT), LOG_CAP);
+        }
+        assertThat(transactionLogPort.claimOverflow(accountId, 1, "owner-1", Duration.ofSeconds(30))).hasSize(2);
+
+        assertThat(transactionLogPort.claimOverflow(accountId, 1, "owner-2", Duration.ofSeconds(30))).isEmpty();
+        assertThat(transactionLogPort.trimClaimed(accountId, 2, "owner-2")).isFalse();
+        assertThat(transactionLogPort.getTransactionCount(accountId)).isEqualTo(3);
+
+        transactionLogPort.releaseClaim(accountId, "owner-1");
+        assertThat(transactionLogPort.claimOverflow(accountId, 1, "owner-2", Duration.ofSeconds(30))).hasSize(2);
+    }
+
+    // 驗證被認領的元素不是交易時拒絕並拋出例外，列表不變且認領被釋放
+    @Test
+    @DisplayName("claimOverflow_WhenValueIsNotTransaction_RejectsAndKeepsIt — 非交易元素不被靜默丟棄")
+    void claimOverflow_WhenValueIsNotTransaction_RejectsAndKeepsIt() {
+        String accountId = "ACC-BAD";
+        stringRedisTemplate.opsForList().rightPush("banking:txlog:" + accountId, "\"legacy entry\"");
+        transactionLogPort.addTransaction(accountId,
+                createTransaction("TX-01", accountId, TransactionType.DEPOSIT), LOG_CAP);
+
+        assertThatThrownBy(() -> transactionLogPort.claimOverflow(accountId, 1, "owner-1", Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(stringRedisTemplate.opsForList().range("banking:txlog:" + accountId, 0, -1))
+                .hasSize(2)
+                .last().isEqualTo("\"legacy entry\"");
+        assertThat(stringRedisTemplate.hasKey("banking:txlog:" + accountId + ":archiving")).isFalse();
+    }
 }
@@ -2,11 +2,15 @@ package com.tutorial.redis.module02.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionRankingPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -147,4 +151,214 @@ class RedisTransactionRankingAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(keys).isNotNull().hasSize(1);
         assertThat(keys.iterator().next()).isEqualTo("ranking:my-rank");
     }
+
+    // 驗證分片模式下 Top N 由各分片前 N 名合併而成，排名與單一 Sorted Set 相同
+    @Test
+    @DisplayName("getTopN_WhenSharded_MergesShardsInScoreOrder — 分片模式合併各分片 Top N")
+    void getTopN_WhenSharded_MergesShardsInScoreOrder() {
+        assertThat(rankingPort.setShardCount("sharded", 4)).isTrue();
+        for (int i = 0; i < 40; i++) {
+            rankingPort.addOrUpdate("sharded", "user-" + i, i * 10.0);
+            rankingPort.addOrUpdate(RANKING_KEY, "user-" + i, i * 10.0);
+        }
+
+        List<RankEntry> sharded = rankingPort.getTopN("sharded", 5);
+
+        assertThat(stringRedisTemplate.keys("ranking:sharded:shard:*")).hasSize(4);
+        assertThat(sharded).extracting(RankEntry::getMemberId)
+                .containsExactly("user-39", "user-38", "user-37", "user-36", "user-35");
+        assertThat(sharded).extracting(RankEntry::getRank).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(rankingPort.count("sharded")).isEqualTo(40);
+        assertThat(rankingPort.countByScoreRange("sharded", 100.0, 190.0)).isEqualTo(10);
+    }
+
+    // 驗證分片模式以各分片 ZCOUNT 加總計算排名，同分時依成員字典序，結果與 ZREVRANK/ZRANK 一致
+    @Test
+    @DisplayName("getReverseRank_WhenSharded_MatchesSingleKeyRank — 分片排名與單一鍵一致")
+    void getReverseRank_WhenSharded_MatchesSingleKeyRank() {
+        rankingPort.setShardCount("sharded", 4);
+        for (int i = 0; i < 30; i++) {
+            double score = (i % 7) * 100.0;
+            rankingPort.addOrUpdate("sharded", "member-" + i, score);
+            rankingPort.addOrUpdate(RANKING_KEY, "member-" + i, score);
+        }
+
+        for (int i = 0; i < 30; i++) {
+            String member = "member-" + i;
+            assertThat(rankingPort.getReverseRank("sharded", member))
+                    .isEqualTo(rankingPort.getReverseRank(RANKING_KEY, member));
+            assertThat(rankingPort.getRank("sharded", member))
+                    .isEqualTo(rankingPort.getRank(RANKING_KEY, member));
+        }
+        assertThat(rankingPort.getReverseRank("sharded", "missing")).isEmpty();
+    }
+
+    // 驗證同分成員的跨分片排名依 UTF-8 位元組序（Redis 的排序方式），而非 Java 字串的 UTF-16 序
+    @Test
+    @DisplayName("getRank_WhenShardedTiesNeedByteOrder_MatchesSingleKeyRank — 同分依位元組序排名")
+    void getRank_WhenShardedTiesNeedByteOrder_MatchesSingleKeyRank() {
+        rankingPort.setShardCount("sharded", 4);
+        List<String> members = List.of("a", "z", "\u00e9", "\uff61", "\ud83d\ude00", "\ud83d\ude01", "m-1", "m-2");
+        for (String member : members) {
+            rankingPort.addOrUpdate("sharded", member, 50.0);
+            rankingPort.addOrUpdate(RANKING_KEY, member, 50.0);
+        }
+
+        for (String member : members) {
+            assertThat(rankingPort.getRank("sharded", member))
+                    .isEqualTo(rankingPort.getRank(RANKING_KEY, member));
+            assertThat(rankingPort.getReverseRank("sharded", member))
+                    .isEqualTo(rankingPort.getReverseRank(RANKING_KEY, member));
+        }
+        assertThat(rankingPort.getTopN("sharded", members.size()))
+                .extracting(RankEntry::getMemberId)
+                .containsExactlyElementsOf(rankingPort.getTopN(RANKING_KEY, members.size()).stream()
+                        .map(RankEntry::getMemberId).toList());
+    }
+
+    // 驗證快取的分片數過期前若配置已被其他實例變更，寫入腳本會偵測不一致並改寫入新配置的分片鍵
+    @Test
+    @DisplayName("addOrUpdate_WhenCachedShardCountIsStale_WritesToCurrentLayout — 快取過期前依新配置寫入")
+    void addOrUpdate_WhenCachedShardCountIsStale_WritesToCurrentLayout() {
+        assertThat(rankingPort.getShardCount("stale")).isEqualTo(1);
+        // 模擬另一個實例在此實例快取期間變更分片數
+        stringRedisTemplate.opsForHash().put("ranking:config:shards", "stale", "4");
+
+        rankingPort.addOrUpdate("stale", "user-001", 10.0);
+        rankingPort.incrementScore("stale", "user-002", 5.0);
+
+        assertThat(stringRedisTemplate.hasKey("ranking:stale")).isFalse();
+        assertThat(stringRedisTemplate.keys("ranking:stale:shard:*")).isNotEmpty();
+        assertThat(rankingPort.getShardCount("stale")).isEqualTo(4);
+        assertThat(rankingPort.count("stale")).isEqualTo(2);
+    }
+
+    // 驗證已有成員的排行榜不可變更分片數，避免成員散落於舊配置的鍵中
+    @Test
+    @DisplayName("setShardCount_WhenRankingHasMembers_ReturnsFalse — 非空排行榜不可變更分片數")
+    void setShardCount_WhenRankingHasMembers_ReturnsFalse() {
+        rankingPort.addOrUpdate(RANKING_KEY, "user-001", 10.0);
+
+        boolean changed = rankingPort.setShardCount(RANKING_KEY, 4);
+
+        assertThat(changed).isFalse();
+        assertThat(rankingPort.getShardCount(RANKING_KEY)).isEqualTo(1);
+        assertThat(rankingPort.getScore(RANKING_KEY, "user-001")).contains(10.0);
+    }
+
+    // 驗證緩衝增量在 flush 前不寫入 Redis，flush 後合併為單一 ZINCRBY 並累加至原分數
+    @Test
+    @DisplayName("incrementScoreBuffered_WhenFlushed_AppliesMergedDelta — flush 後套用合併增量")
+    void incrementScoreBuffered_WhenFlushed_AppliesMergedDelta() {
+        rankingPort.addOrUpdate(RANKING_KEY, "hot-user", 100.0);
+        for (int i = 0; i < 1_000; i++) {
+            rankingPort.incrementScoreBuffered(RANKING_KEY, "hot-user", 0.5);
+        }
+        rankingPort.incrementScoreBuffered(RANKING_KEY, "new-user", 7.0);
+
+        rankingPort.flush();
+
+        assertThat(rankingPort.getScore(RANKING_KEY, "hot-user")).contains(600.0);
+        assertThat(rankingPort.getScore(RANKING_KEY, "new-user")).contains(7.0);
+    }
+
+    // 驗證 flush 時分片配置已變更，只重送被略過的總榜寫入，小時與日分桶不會重複累加
+    @Test
+    @DisplayName("incrementScoreBuffered_WhenCachedShardCountIsStale_WritesBucketsOnce — 配置變更時分桶只寫入一次")
+    void incrementScoreBuffered_WhenCachedShardCountIsStale_WritesBucketsOnce() {
+        assertThat(rankingPort.getShardCount("stale")).isEqualTo(1);
+        // 模擬另一個實例在此實例快取期間變更分片數
+        stringRedisTemplate.opsForHash().put("ranking:config:shards", "stale", "4");
+
+        rankingPort.incrementScoreBuffered("stale", "user-001", 5.0);
+        rankingPort.flush();
+
+        Instant now = Instant.now();
+        assertThat(stringRedisTemplate.hasKey("ranking:stale")).isFalse();
+        assertThat(rankingPort.getScore("stale", "user-001")).contains(5.0);
+        assertThat(rankingPort.getTopN("stale", RankingPeriod.DAY, now, 10))
+                .extracting(RankEntry::getScore).containsExactly(5.0);
+        assertThat(rankingPort.getTopN("stale", RankingPeriod.HOUR, now, 10))
+                .extracting(RankEntry::getScore).containsExactly(5.0);
+    }
+
+    // 驗證 ZINCRBY 同時寫入當日的小時與日分桶，分桶設有過期時間，且絕對分數（ZADD）不影響分桶
+    @Test
+    @DisplayName("incrementScore_WhenCalled_WritesHourAndDayBuckets — 增量同時寫入小時與日分桶")
+    void incrementScore_WhenCalled_WritesHourAndDayBuckets() {
+        rankingPort.addOrUpdate(RANKING_KEY, "alice", 1_000.0);
+        rankingPort.incrementScore(RANKING_KEY, "alice", 10.0);
+        rankingPort.incrementScore(RANKING_KEY, "bob", 30.0);
+        Instant now = Instant.now();
+
+        List<RankEntry> today = rankingPort.getTopN(RANKING_KEY, RankingPeriod.DAY, now, 10);
+
+        assertThat(today).extracting(RankEntry::getMemberId).containsExactly("bob", "alice");
+        assertThat(today).extracting(RankEntry::getScore).containsExactly(30.0, 10.0);
+        assertThat(rankingPort.getTopN(RANKING_KEY, RankingPeriod.HOUR, now, 10)).hasSize(2);
+        String dayKey = "ranking:" + RANKING_KEY + ":day:" + RankingPeriod.DAY.bucketId(now);
+        assertThat(stringRedisTemplate.getExpire(dayKey)).isPositive();
+        assertThat(rankingPort.findRankings()).contains(RANKING_KEY);
+    }
+
+    // 驗證已結束的日分桶以 ZUNIONSTORE 併入週/月彙總且只併入一次，週排行包含尚未彙總的當日分桶
+    @Test
+    @DisplayName("rollUpClosedDays_WhenDayClosed_MergesIntoWeekOnce — 已結束的日分桶只併入週彙總一次")
+    void rollUpClosedDays_WhenDayClosed_MergesIntoWeekOnce() {
+        LocalDate today = LocalDate.of(2026, 3, 11);
+        LocalDate yesterday = today.minusDays(1);
+        stringRedisTemplate.opsForZSet().add("ranking:" + RANKING_KEY + ":day:" + yesterday, "alice", 40.0);
+        stringRedisTemplate.opsForZSet().add("ranking:" + RANKING_KEY + ":day:" + yesterday, "bob", 10.0);
+        stringRedisTemplate.opsForZSet().add("ranking:" + RANKING_KEY + ":day:" + today, "bob", 50.0);
+
+        int first = rankingPort.rollUpClosedDays(RANKING_KEY, today);
+        int second = rankingPort.rollUpClosedDays(RANKING_KEY, today);
+
+        assertThat(first).isEqualTo((int) RedisTransactionRankingAdapter.DAY_BUCKET_TTL_DAYS);
+        assertThat(second).isZero();
+        Instant noon = today.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        List<RankEntry> week = rankingPort.getTopN(RANKING_KEY, RankingPeriod.WEEK, noon, 10);
+        assertThat(week).extracting(RankEntry::getMemberId).containsExactly("bob", "alice");
+        assertThat(week).extracting(RankEntry::getScore).containsExactly(60.0, 40.0);
+        assertThat(stringRedisTemplate.opsForZSet().score("ranking:" + RANKING_KEY + ":month:2026-03", "alice"))
+                .isEqualTo(40.0);
+    }
+
+    // 驗證日分桶已彙總後才寫入的增量（例如延遲 flush）會直接加到週/月彙總，不會遺失
+    @Test
+    @DisplayName("incrementScore_AfterDayRolledUp_ReachesWeekAndMonth — 彙總後的遲到增量仍計入週/月")
+    void incrementScore_AfterDayRolledUp_ReachesWeekAndMonth() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        rankingPort.incrementScore(RANKING_KEY, "alice", 10.0);
+        rankingPort.rollUpClosedDays(RANKING_KEY, today.plusDays(1));
+
+        rankingPort.incrementScore(RANKING_KEY, "alice", 5.0);
+
+        assertThat(stringRedisTemplate.opsForZSet().score(
+                "ranking:" + RANKING_KEY + ":month:" + today.toString().substring(0, 7), "alice"))
+                .isEqualTo(15.0);
+        assertThat(rankingPort.getTopN(RANKING_KEY, RankingPeriod.WEEK, Instant.now(), 10))
+                .extracting(RankEntry::getScore).containsExactly(15.0);
+        assertThat(stringRedisTemplate.opsForZSet().score(
+                "ranking:" + RANKING_KEY + ":day:" + today, "alice")).isEqualTo(15.0);
+    }
+
+    // 驗證「我的前後名次」只回傳成員上下 radius 名的視窗，名次為 1 起算
+    @Test
+    @DisplayName("getRanksAround_WhenMemberRanked_ReturnsWindow — 回傳成員前後名次視窗")
+    void getRanksAround_WhenMemberRanked_ReturnsWindow() {
+        for (int i = 1; i <= 20; i++) {
+            rankingPort.incrementScore(RANKING_KEY, "member-" + i, i);
+        }
+        Instant now = Instant.now();
+
+        List<RankEntry> around = rankingPort.getRanksAround(RANKING_KEY, RankingPeriod.DAY, now, "member-10", 2);
+        List<RankEntry> top = rankingPort.getRanksAround(RANKING_KEY, RankingPeriod.ALL_TIME, now, "member-20", 2);
+
+        assertThat(around).extracting(RankEntry::getMemberId)
+                .containsExactly("member-12", "member-11", "member-10", "member-9", "member-8");
+        assertThat(around).extracting(RankEntry::getRank).containsExactly(9L, 10L, 11L, 12L, 13L);
+        assertThat(top).extracting(RankEntry::getRank).containsExactly(1L, 2L, 3L);
+        assertThat(rankingPort.getRanksAround(RANKING_KEY, RankingPeriod.DAY, now, "missing", 2)).isEmpty();
+    }
 }
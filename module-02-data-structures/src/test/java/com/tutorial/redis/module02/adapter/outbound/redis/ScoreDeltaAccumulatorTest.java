@@ -0,0 +1,76 @@
+package com.tutorial.redis.module02.adapter.outbound.redis;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分數增量累加器單元測試
+ * 驗證 ScoreDeltaAccumulator 合併同一成員的增量，且在並行累加與清空交錯時不遺失任何增量。
+ * 層級：Adapter（外部端口實作的記憶體緩衝）
+ */
+@DisplayName("ScoreDeltaAccumulator 單元測試")
+class ScoreDeltaAccumulatorTest {
+
+    // 驗證同一排行榜、成員與小時的多次增量合併為一筆，不同排行榜或小時分開計算
+    @Test
+    @DisplayName("drain_MergesDeltasPerRankingAndMember — 依排行榜、成員與小時合併增量")
+    void drain_MergesDeltasPerRankingAndMember() {
+        ScoreDeltaAccumulator accumulator = new ScoreDeltaAccumulator(4);
+        accumulator.add("daily", "alice", 100, 10);
+        accumulator.add("daily", "alice", 100, 5);
+        accumulator.add("daily", "alice", 101, 2);
+        accumulator.add("weekly", "alice", 100, 1);
+        accumulator.add("daily", "bob", 100, 3);
+        accumulator.add("daily", "bob", 100, -3);
+
+        Map<ScoreDeltaAccumulator.RankingMember, Double> deltas = accumulator.drain();
+
+        assertThat(deltas).containsOnly(
+                Map.entry(new ScoreDeltaAccumulator.RankingMember("daily", "alice", 100), 15.0),
+                Map.entry(new ScoreDeltaAccumulator.RankingMember("daily", "alice", 101), 2.0),
+                Map.entry(new ScoreDeltaAccumulator.RankingMember("weekly", "alice", 100), 1.0));
+        assertThat(accumulator.drain()).isEmpty();
+    }
+
+    // 驗證多執行緒並行累加熱門成員、同時反覆清空時，清空結果加總等於全部增量
+    @Test
+    @DisplayName("drain_WhileAddingConcurrently_LosesNoDelta — 並行累加與清空不遺失增量")
+    void drain_WhileAddingConcurrently_LosesNoDelta() throws Exception {
+        ScoreDeltaAccumulator accumulator = new ScoreDeltaAccumulator(8);
+        int threads = 8;
+        int addsPerThread = 50_000;
+        double[] drained = new double[1];
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads + 1)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < addsPerThread; i++) {
+                        accumulator.add("hot", "member-" + (i % 3), 0, 1);
+                    }
+                }));
+            }
+            Future<?> drainer = executor.submit(() -> {
+                while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                    accumulator.drain().values().forEach(delta -> drained[0] += delta);
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            drainer.get();
+        }
+        accumulator.drain().values().forEach(delta -> drained[0] += delta);
+
+        assertThat(drained[0]).isEqualTo((double) threads * addsPerThread);
+    }
+}
@@ -15,6 +15,7 @@ import java.util.LinkedHashMap;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,6 +54,17 @@ class ManageCartServiceTest {
         verify(shoppingCartPort).removeItem("CUST-001", "P-001");
     }
 
+    // 驗證調整數量時委派至 Port 的 incrementItemQuantity（HINCRBY），並回傳新數量
+    @Test
+    @DisplayName("changeQuantity_DelegatesToPort — 委派至 Port 的 incrementItemQuantity 方法")
+    void changeQuantity_DelegatesToPort() {
+        when(shoppingCartPort.incrementItemQuantity("CUST-001", "P-001", 2)).thenReturn(Optional.of(3));
+
+        Optional<Integer> result = service.changeQuantity("CUST-001", "P-001", 2);
+
+        assertThat(result).contains(3);
+    }
+
     // 驗證取得購物車時正確委派至 Port 的 getCart，並回傳結果
     @Test
     @DisplayName("getCart_DelegatesToPort — 委派至 Port 的 getCart 方法")
@@ -75,4 +87,19 @@ class ManageCartServiceTest {
 
         verify(shoppingCartPort).deleteCart("CUST-001");
     }
+
+    // 驗證清掃時以批次呼叫 Port，批次未滿即停止，並以閒置期限計算截止時間
+    @Test
+    @DisplayName("sweepAbandonedCarts_StopsAfterPartialBatch — 批次未滿時停止清掃")
+    void sweepAbandonedCarts_StopsAfterPartialBatch() {
+        long now = 1_700_000_000_000L;
+        long idleBefore = now - ManageCartService.ABANDONED_AFTER_MS;
+        when(shoppingCartPort.removeAbandonedCarts(idleBefore, ManageCartService.SWEEP_BATCH_SIZE))
+                .thenReturn(ManageCartService.SWEEP_BATCH_SIZE, 7);
+
+        int removed = service.sweepAbandonedCarts(now);
+
+        assertThat(removed).isEqualTo(ManageCartService.SWEEP_BATCH_SIZE + 7);
+        verify(shoppingCartPort, times(2)).removeAbandonedCarts(idleBefore, ManageCartService.SWEEP_BATCH_SIZE);
+    }
 }
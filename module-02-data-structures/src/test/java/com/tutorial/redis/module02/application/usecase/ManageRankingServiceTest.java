@@ -1,6 +1,7 @@
 package com.tutorial.redis.module02.application.usecase;
 
 import com.tutorial.redis.module02.domain.model.RankEntry;
+import com.tutorial.redis.module02.domain.model.RankingPeriod;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionRankingPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,10 +10,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +45,26 @@ class ManageRankingServiceTest {
         verify(transactionRankingPort).addOrUpdate("leaderboard", "user-001", 100.0);
     }
 
+    // 驗證立即增加分數時委派至 Port 的 incrementScore，並回傳新分數
+    @Test
+    @DisplayName("addToScore_DelegatesToPort — 委派至 Port 的 incrementScore 並回傳新分數")
+    void addToScore_DelegatesToPort() {
+        when(transactionRankingPort.incrementScore("leaderboard", "user-001", 5.0)).thenReturn(105.0);
+
+        double score = service.addToScore("leaderboard", "user-001", 5.0);
+
+        assertThat(score).isEqualTo(105.0);
+    }
+
+    // 驗證緩衝增加分數時委派至 Port 的緩衝累加，而非逐筆 ZINCRBY
+    @Test
+    @DisplayName("addToScoreBuffered_BuffersIncrementInPort — 委派至 Port 的 incrementScoreBuffered 方法")
+    void addToScoreBuffered_BuffersIncrementInPort() {
+        service.addToScoreBuffered("leaderboard", "user-001", 5.0);
+
+        verify(transactionRankingPort).incrementScoreBuffered("leaderboard", "user-001", 5.0);
+    }
+
     // 驗證取得排行榜時正確委派至 Port 的 getTopN，並回傳排序結果
     @Test
     @DisplayName("getLeaderboard_DelegatesToPort — 委派至 Port 的 getTopN 方法")
@@ -73,4 +98,48 @@ class ManageRankingServiceTest {
         assertThat(result.get().getScore()).isEqualTo(500.0);
         assertThat(result.get().getRank()).isEqualTo(1); // 0-based reverseRank + 1 = display rank
     }
+
+    // 驗證排行榜已有成員而無法切換分片模式時拋出 IllegalStateException
+    @Test
+    @DisplayName("configureSharding_WhenRankingNotEmpty_Throws — 非空排行榜切換模式時拋出例外")
+    void configureSharding_WhenRankingNotEmpty_Throws() {
+        when(transactionRankingPort.setShardCount("leaderboard", 16)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.configureSharding("leaderboard", 16))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("leaderboard");
+    }
+
+    // 驗證彙總時以寬限期後的日期作為第一個未結束日，並對每個排行榜呼叫 Port 的 rollUpClosedDays
+    @Test
+    @DisplayName("rollUpClosedDays_WithinGracePeriod_KeepsPreviousDayOpen — 午夜後寬限期內不彙總前一日")
+    void rollUpClosedDays_WithinGracePeriod_KeepsPreviousDayOpen() {
+        when(transactionRankingPort.findRankings()).thenReturn(Set.of("daily", "sales"));
+        when(transactionRankingPort.rollUpClosedDays("daily", LocalDate.of(2026, 3, 10))).thenReturn(1);
+        when(transactionRankingPort.rollUpClosedDays("sales", LocalDate.of(2026, 3, 10))).thenReturn(2);
+
+        int rolledUp = service.rollUpClosedDays(Instant.parse("2026-03-11T00:02:00Z"));
+
+        assertThat(rolledUp).isEqualTo(3);
+    }
+
+    // 驗證查詢前後名次時 radius 不可為負數
+    @Test
+    @DisplayName("getRanksAround_WhenRadiusNegative_ThrowsException — radius 為負數時拋出例外")
+    void getRanksAround_WhenRadiusNegative_ThrowsException() {
+        assertThatThrownBy(() -> service.getRanksAround("leaderboard", "user-001", RankingPeriod.DAY, Instant.now(), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // 驗證 radius 超過上限時以上限查詢，避免一次讀取過大的名次視窗
+    @Test
+    @DisplayName("getRanksAround_WhenRadiusTooLarge_CapsRadius — radius 超過上限時截斷")
+    void getRanksAround_WhenRadiusTooLarge_CapsRadius() {
+        Instant at = Instant.now();
+
+        service.getRanksAround("leaderboard", "user-001", RankingPeriod.DAY, at, 1_000_000);
+
+        verify(transactionRankingPort).getRanksAround("leaderboard", RankingPeriod.DAY, at, "user-001",
+                ManageRankingService.MAX_RANKS_AROUND_RADIUS);
+    }
 }
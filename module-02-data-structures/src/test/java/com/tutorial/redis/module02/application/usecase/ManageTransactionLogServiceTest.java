@@ -2,26 +2,39 @@ package com.tutorial.redis.module02.application.usecase;
 
 import com.tutorial.redis.module02.domain.model.Transaction;
 import com.tutorial.redis.module02.domain.model.Transaction.TransactionType;
+import com.tutorial.redis.module02.domain.port.outbound.TransactionArchivePort;
 import com.tutorial.redis.module02.domain.port.outbound.TransactionLogPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
  * 交易記錄管理 Use Case 單元測試
  * 驗證 ManageTransactionLogService 正確委派操作至 TransactionLogPort（Redis List）。
- * 包含 LPUSH 新增交易與 LTRIM 裁剪日誌的組合邏輯。
+ * 包含超出上限的交易先封存至 TransactionArchivePort、成功後才從日誌裁剪的組合邏輯。
  * 層級：Application（Use Case 業務邏輯）
  */
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +44,9 @@ class ManageTransactionLogServiceTest {
     @Mock
     private TransactionLogPort transactionLogPort;
 
+    @Mock
+    private TransactionArchivePort transactionArchivePort;
+
     @InjectMocks
     private ManageTransactionLogService service;
 
@@ -39,16 +55,93 @@ class ManageTransactionLogServiceTest {
                 TransactionType.DEPOSIT, Instant.now(), "Test");
     }
 
-    // 驗證記錄交易時依序呼叫 addTransaction（LPUSH）與 trimToSize（LTRIM）
+    // 驗證記錄交易時只推入列表，未達上限加批次大小時不認領、不存取封存
     @Test
-    @DisplayName("recordTransaction_AddsAndTrims — 新增交易後裁剪至 MAX_LOG_SIZE")
-    void recordTransaction_AddsAndTrims() {
+    @DisplayName("recordTransaction_BelowThreshold_OnlyPushes — 未達門檻時只推入")
+    void recordTransaction_BelowThreshold_OnlyPushes() {
         Transaction tx = createTransaction("TX-001");
+        when(transactionLogPort.addTransaction("ACC-001", tx, ManageTransactionLogService.HARD_CAP)).thenReturn(1L);
 
         service.recordTransaction("ACC-001", tx);
 
-        verify(transactionLogPort).addTransaction("ACC-001", tx);
-        verify(transactionLogPort).trimToSize("ACC-001", ManageTransactionLogService.MAX_LOG_SIZE);
+        verify(transactionLogPort, never()).claimOverflow(eq("ACC-001"), anyInt(), anyString(), any());
+        verifyNoInteractions(transactionArchivePort);
+    }
+
+    // 驗證超出部分先封存，封存成功後才以同一認領者從列表裁剪
+    @Test
+    @DisplayName("recordTransaction_AtThreshold_ArchivesBeforeTrimming — 先封存再裁剪")
+    void recordTransaction_AtThreshold_ArchivesBeforeTrimming() {
+        Transaction tx = createTransaction("TX-150");
+        List<Transaction> overflow = List.of(createTransaction("TX-001"), createTransaction("TX-002"));
+        stubOverflow(tx, overflow);
+        when(transactionArchivePort.readNewest("ACC-001", 0, 1)).thenReturn(List.of());
+        when(transactionLogPort.trimClaimed(eq("ACC-001"), eq(2), anyString())).thenReturn(true);
+
+        service.recordTransaction("ACC-001", tx);
+
+        InOrder inOrder = inOrder(transactionArchivePort, transactionLogPort);
+        inOrder.verify(transactionArchivePort).archive("ACC-001", overflow);
+        inOrder.verify(transactionLogPort).trimClaimed(eq("ACC-001"), eq(2), anyString());
+    }
+
+    // 驗證封存失敗時不裁剪、釋放認領，交易留在 Redis 列表中等待下次重試
+    @Test
+    @DisplayName("recordTransaction_WhenArchiveFails_KeepsOverflowInLog — 封存失敗時不裁剪並釋放認領")
+    void recordTransaction_WhenArchiveFails_KeepsOverflowInLog() {
+        Transaction tx = createTransaction("TX-150");
+        List<Transaction> overflow = List.of(createTransaction("TX-001"), createTransaction("TX-002"));
+        stubOverflow(tx, overflow);
+        when(transactionArchivePort.readNewest("ACC-001", 0, 1)).thenReturn(List.of());
+        doThrow(new UncheckedIOException(new IOException("disk full")))
+                .when(transactionArchivePort).archive("ACC-001", overflow);
+
+        service.recordTransaction("ACC-001", tx);
+
+        verify(transactionLogPort, never()).trimClaimed(anyString(), anyInt(), anyString());
+        verify(transactionLogPort).releaseClaim(eq("ACC-001"), anyString());
+    }
+
+    // 驗證前次已封存但尚未裁剪（例如當機）的交易不會重複封存，只封存其後的交易，裁剪仍涵蓋整批
+    @Test
+    @DisplayName("recordTransaction_AfterArchivedButUntrimmed_SkipsArchivedPrefix — 略過已封存的部分")
+    void recordTransaction_AfterArchivedButUntrimmed_SkipsArchivedPrefix() {
+        Transaction tx = createTransaction("TX-150");
+        List<Transaction> overflow = List.of(createTransaction("TX-001"), createTransaction("TX-002"),
+                createTransaction("TX-003"));
+        stubOverflow(tx, overflow);
+        when(transactionArchivePort.readNewest("ACC-001", 0, 1)).thenReturn(List.of(createTransaction("TX-002")));
+        when(transactionLogPort.trimClaimed(eq("ACC-001"), eq(3), anyString())).thenReturn(true);
+
+        service.recordTransaction("ACC-001", tx);
+
+        verify(transactionArchivePort).archive("ACC-001", overflow.subList(2, 3));
+        verify(transactionLogPort).trimClaimed(eq("ACC-001"), eq(3), anyString());
+    }
+
+    private void stubOverflow(Transaction tx, List<Transaction> overflow) {
+        when(transactionLogPort.addTransaction("ACC-001", tx, ManageTransactionLogService.HARD_CAP)).thenReturn(
+                (long) ManageTransactionLogService.MAX_LOG_SIZE + ManageTransactionLogService.ARCHIVE_BATCH_SIZE);
+        when(transactionLogPort.claimOverflow(eq("ACC-001"), eq(ManageTransactionLogService.MAX_LOG_SIZE),
+                anyString(), eq(Duration.ofSeconds(ManageTransactionLogService.ARCHIVE_CLAIM_LEASE_SECONDS))))
+                .thenReturn(overflow);
+    }
+
+    // 驗證要求筆數超過 Redis 列表時，接續讀取封存；兩邊重複的交易略過後繼續往舊讀，仍回傳足量筆數
+    @Test
+    @DisplayName("getRecentTransactions_BeyondHotLog_ContinuesIntoArchive — 超出熱資料時接續讀取封存")
+    void getRecentTransactions_BeyondHotLog_ContinuesIntoArchive() {
+        when(transactionLogPort.getRecentTransactions("ACC-001", 4))
+                .thenReturn(List.of(createTransaction("TX-004"), createTransaction("TX-003")));
+        when(transactionArchivePort.readNewest("ACC-001", 0, 2))
+                .thenReturn(List.of(createTransaction("TX-003"), createTransaction("TX-002")));
+        when(transactionArchivePort.readNewest("ACC-001", 2, 1))
+                .thenReturn(List.of(createTransaction("TX-001")));
+
+        List<Transaction> result = service.getRecentTransactions("ACC-001", 4);
+
+        assertThat(result).extracting(Transaction::getTransactionId)
+                .containsExactly("TX-004", "TX-003", "TX-002", "TX-001");
     }
 
     // 驗證取得最近交易時正確委派至 Port 的 getRecentTransactions
@@ -66,15 +159,16 @@ class ManageTransactionLogServiceTest {
         verify(transactionLogPort).getRecentTransactions("ACC-001", 10);
     }
 
-    // 驗證查詢交易筆數時正確委派至 Port 的 getTransactionCount
+    // 驗證查詢交易筆數時合計 Redis 列表與封存的筆數
     @Test
     @DisplayName("getTransactionCount_DelegatesToPort — 委派至 Port 的 getTransactionCount 方法")
     void getTransactionCount_DelegatesToPort() {
         when(transactionLogPort.getTransactionCount("ACC-001")).thenReturn(42L);
+        when(transactionArchivePort.count("ACC-001")).thenReturn(100L);
 
         long count = service.getTransactionCount("ACC-001");
 
-        assertThat(count).isEqualTo(42);
+        assertThat(count).isEqualTo(142);
         verify(transactionLogPort).getTransactionCount("ACC-001");
     }
 }
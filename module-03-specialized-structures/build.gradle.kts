@@ -5,6 +5,7 @@ plugins {
 dependencies {
     implementation(projects.common)
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.roaringbitmap)
 
     testImplementation(projects.common)
     testImplementation(testFixtures(projects.common))
@@ -1,8 +1,10 @@
 package com.tutorial.redis.module03.adapter.inbound.rest;
 
 import com.tutorial.redis.module03.application.dto.UserActivityResponse;
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
 import com.tutorial.redis.module03.domain.model.UserActivity;
 import com.tutorial.redis.module03.domain.port.inbound.TrackActivityUseCase;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,13 +13,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
  * REST controller for user activity tracking.
  *
  * <p>Demonstrates Redis Bitmap operations (SETBIT, GETBIT, BITCOUNT)
- * through daily activity recording and monthly activity summary endpoints.</p>
+ * through daily activity recording and monthly activity summary endpoints, plus
+ * DAU/WAU/MAU and retention statistics computed with BITOP over per-day bitmaps.</p>
  */
 @RestController
 @RequestMapping("/api/v1/activity")
@@ -63,4 +67,52 @@ public class ActivityController {
         UserActivity activity = trackActivityUseCase.getMonthlyActivity(userId, yearMonth, totalDays);
         return ResponseEntity.ok(UserActivityResponse.from(activity));
     }
+
+    @GetMapping("/{userId}/{yearMonth}/range")
+    public ResponseEntity<Map<String, Object>> countActiveDaysInRange(
+            @PathVariable String userId,
+            @PathVariable String yearMonth,
+            @RequestParam int fromDay,
+            @RequestParam int toDay) {
+        long activeDays = trackActivityUseCase.countActiveDaysInRange(userId, yearMonth, fromDay, toDay);
+        return ResponseEntity.ok(Map.of(
+                "userId", userId,
+                "yearMonth", yearMonth,
+                "fromDay", fromDay,
+                "toDay", toDay,
+                "activeDays", activeDays));
+    }
+
+    @GetMapping("/stats/dau")
+    public ResponseEntity<Map<String, Object>> countDailyActiveUsers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        long users = trackActivityUseCase.countDailyActiveUsers(date);
+        return ResponseEntity.ok(Map.of("date", date.toString(), "activeUsers", users));
+    }
+
+    @GetMapping("/stats/wau")
+    public ResponseEntity<Map<String, Object>> countWeeklyActiveUsers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate lastDay) {
+        long users = trackActivityUseCase.countWeeklyActiveUsers(lastDay);
+        return ResponseEntity.ok(Map.of("lastDay", lastDay.toString(), "activeUsers", users));
+    }
+
+    @GetMapping("/stats/mau")
+    public ResponseEntity<Map<String, Object>> countMonthlyActiveUsers(@RequestParam String yearMonth) {
+        long users = trackActivityUseCase.countMonthlyActiveUsers(yearMonth);
+        return ResponseEntity.ok(Map.of("yearMonth", yearMonth, "activeUsers", users));
+    }
+
+    @GetMapping("/stats/retention")
+    public ResponseEntity<Map<String, Object>> getRetention(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cohortDay,
+            @RequestParam int afterDays) {
+        RetentionCohort cohort = trackActivityUseCase.getRetention(cohortDay, afterDays);
+        return ResponseEntity.ok(Map.of(
+                "cohortDay", cohortDay.toString(),
+                "afterDays", afterDays,
+                "cohortSize", cohort.getCohortSize(),
+                "retainedUsers", cohort.getRetainedUsers(),
+                "retentionRate", cohort.retentionRate()));
+    }
 }
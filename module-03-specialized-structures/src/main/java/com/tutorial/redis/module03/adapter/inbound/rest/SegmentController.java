@@ -0,0 +1,90 @@
+package com.tutorial.redis.module03.adapter.inbound.rest;
+
+import com.tutorial.redis.module03.domain.model.SegmentExpression;
+import com.tutorial.redis.module03.domain.port.inbound.AudienceSegmentUseCase;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for audience segments.
+ *
+ * <p>Demonstrates Roaring bitmap segments persisted in Redis: maintaining segment
+ * members, materializing activity segments from the per-day Bitmaps, and evaluating
+ * audience queries such as "active last 7 days AND tag:vip AND NOT churned".</p>
+ */
+@RestController
+@RequestMapping("/api/v1/segments")
+public class SegmentController {
+
+    private final AudienceSegmentUseCase audienceSegmentUseCase;
+
+    public SegmentController(AudienceSegmentUseCase audienceSegmentUseCase) {
+        this.audienceSegmentUseCase = audienceSegmentUseCase;
+    }
+
+    @PostMapping("/{name}/members")
+    public ResponseEntity<Map<String, Object>> addMembers(
+            @PathVariable String name,
+            @RequestBody List<String> userIds) {
+        audienceSegmentUseCase.addUsersToSegment(name, userIds);
+        return ResponseEntity.ok(Map.of("segment", name, "added", userIds.size()));
+    }
+
+    @PostMapping("/{name}/members/remove")
+    public ResponseEntity<Map<String, Object>> removeMembers(
+            @PathVariable String name,
+            @RequestBody List<String> userIds) {
+        audienceSegmentUseCase.removeUsersFromSegment(name, userIds);
+        return ResponseEntity.ok(Map.of("segment", name, "removed", userIds.size()));
+    }
+
+    @PostMapping("/{name}/materialize")
+    public ResponseEntity<Map<String, Object>> materializeActiveSegment(
+            @PathVariable String name,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        long members = audienceSegmentUseCase.materializeActiveSegment(name, from, to);
+        return ResponseEntity.ok(Map.of("segment", name, "members", members));
+    }
+
+    /**
+     * Evaluates {@code include[0] AND include[1] ... AND active(activeFrom..activeTo)
+     * AND NOT exclude[0] ...}; at least one condition is required.
+     */
+    @GetMapping("/audience")
+    public ResponseEntity<Map<String, Object>> findAudience(
+            @RequestParam(required = false) List<String> include,
+            @RequestParam(required = false) List<String> exclude,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate activeFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate activeTo,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<SegmentExpression> operands = new ArrayList<>();
+        if (include != null) {
+            include.forEach(name -> operands.add(SegmentExpression.segment(name)));
+        }
+        if (activeFrom != null) {
+            operands.add(SegmentExpression.activeBetween(activeFrom, activeTo != null ? activeTo : activeFrom));
+        }
+        if (exclude != null) {
+            exclude.forEach(name -> operands.add(SegmentExpression.not(SegmentExpression.segment(name))));
+        }
+        SegmentExpression expression = SegmentExpression.and(operands.toArray(new SegmentExpression[0]));
+
+        return ResponseEntity.ok(Map.of(
+                "expression", expression.toString(),
+                "count", audienceSegmentUseCase.countAudience(expression),
+                "users", audienceSegmentUseCase.findAudience(expression, limit)));
+    }
+}
@@ -0,0 +1,233 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
+
+import java.util.Arrays;
+
+/**
+ * Immutable in-process compressed block of time series samples in the Gorilla format
+ * (Pelkonen et al., "Gorilla: A Fast, Scalable, In-Memory Time Series Database").
+ *
+ * <ul>
+ *   <li>Timestamps: the first one raw, then delta-of-delta with a variable-length
+ *       prefix code — a fixed reporting interval costs one bit per sample</li>
+ *   <li>Values: the first one raw, then the XOR with the previous value, storing
+ *       only its meaningful bits — an unchanged value costs one bit per sample</li>
+ * </ul>
+ *
+ * <p>Used by {@link RedisTimeSeriesAdapter} to keep recently queried ranges in memory at
+ * a fraction of the size of the decoded columns. Encoding is lossless, including NaN
+ * payloads and negative zero.</p>
+ */
+final class GorillaBlock {
+
+    private static final GorillaBlock EMPTY = new GorillaBlock(new long[0], 0, 0);
+
+    private final long[] words;
+    private final int bitLength;
+    private final int count;
+
+    private GorillaBlock(long[] words, int bitLength, int count) {
+        this.words = words;
+        this.bitLength = bitLength;
+        this.count = count;
+    }
+
+    static GorillaBlock encode(TimeSeriesColumns columns) {
+        int count = columns.size();
+        if (count == 0) {
+            return EMPTY;
+        }
+        BitWriter out = new BitWriter(count);
+        long prevTimestamp = columns.getTimestamp(0);
+        long prevBits = Double.doubleToRawLongBits(columns.getValue(0));
+        out.write(prevTimestamp, 64);
+        out.write(prevBits, 64);
+
+        long prevDelta = 0;
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long timestamp = columns.getTimestamp(i);
+            long delta = timestamp - prevTimestamp;
+            writeDeltaOfDelta(out, delta - prevDelta);
+            prevDelta = delta;
+            prevTimestamp = timestamp;
+
+            long bits = Double.doubleToRawLongBits(columns.getValue(i));
+            long xor = bits ^ prevBits;
+            if (xor == 0) {
+                out.write(0, 1);
+            } else {
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // Meaningful bits fit the previous window: control bits '10'
+                    out.write(0b10, 2);
+                    out.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    // New window: control bits '11', 5 bits leading zeros, 6 bits length (64 stored as 0)
+                    int meaningful = 64 - leading - trailing;
+                    out.write(0b11, 2);
+                    out.write(leading, 5);
+                    out.write(meaningful & 63, 6);
+                    out.write(xor >>> trailing, meaningful);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            prevBits = bits;
+        }
+        return new GorillaBlock(out.toWords(), out.bitLength(), count);
+    }
+
+    TimeSeriesColumns decode() {
+        if (count == 0) {
+            return TimeSeriesColumns.empty();
+        }
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        BitReader in = new BitReader(words);
+        timestamps[0] = in.read(64);
+        long bits = in.read(64);
+        values[0] = Double.longBitsToDouble(bits);
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            timestamps[i] = timestamps[i - 1] + delta;
+
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    leading = (int) in.read(5);
+                    int meaningful = (int) in.read(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    trailing = 64 - leading - meaningful;
+                }
+                bits ^= in.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(bits);
+        }
+        return new TimeSeriesColumns(timestamps, values, count);
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Size of the encoded bit stream in bytes.
+     */
+    int compressedBytes() {
+        return (bitLength + 7) >>> 3;
+    }
+
+    /**
+     * Prefix code from the Gorilla paper, widened to 64 bits for the fallback case:
+     * '0' = 0, '10' + 7 bits, '110' + 9 bits, '1110' + 12 bits, '1111' + 64 bits.
+     */
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        if (dod == 0) {
+            out.write(0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+            out.write(0b10, 2);
+            out.write(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+            out.write(0b110, 3);
+            out.write(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+            out.write(0b1110, 4);
+            out.write(dod + 2047, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (in.read(1) == 0) return 0;
+        if (in.read(1) == 0) return in.read(7) - 63;
+        if (in.read(1) == 0) return in.read(9) - 255;
+        if (in.read(1) == 0) return in.read(12) - 2047;
+        return in.read(64);
+    }
+
+    /**
+     * Appends bit fields most-significant bit first into a growing {@code long[]}.
+     */
+    private static final class BitWriter {
+
+        private long[] words;
+        private int position;
+
+        BitWriter(int expectedSamples) {
+            // ~2 bytes per sample is typical for regular sensor data
+            this.words = new long[Math.max(4, expectedSamples / 4)];
+        }
+
+        void write(long value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int index = position >>> 6;
+            if (index + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            int free = 64 - (position & 63);
+            if (bits <= free) {
+                words[index] |= value << (free - bits);
+            } else {
+                int spill = bits - free;
+                words[index] |= value >>> spill;
+                words[index + 1] |= value << (64 - spill);
+            }
+            position += bits;
+        }
+
+        int bitLength() {
+            return position;
+        }
+
+        long[] toWords() {
+            return Arrays.copyOf(words, (position + 63) >>> 6);
+        }
+    }
+
+    private static final class BitReader {
+
+        private final long[] words;
+        private int position;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int bits) {
+            if (bits == 0) {
+                return 0;
+            }
+            int index = position >>> 6;
+            int free = 64 - (position & 63);
+            long result;
+            if (bits <= free) {
+                result = words[index] >>> (free - bits);
+                if (bits < 64) {
+                    result &= (1L << bits) - 1;
+                }
+            } else {
+                int spill = bits - free;
+                long high = words[index] & ((1L << free) - 1);
+                result = (high << spill) | (words[index + 1] >>> (64 - spill));
+            }
+            position += bits;
+            return result;
+        }
+    }
+}
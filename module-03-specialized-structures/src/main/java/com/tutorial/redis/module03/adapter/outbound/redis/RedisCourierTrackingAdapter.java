@@ -0,0 +1,370 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.flush.BackgroundFlusher;
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.model.GeofenceEvent;
+import com.tutorial.redis.module03.domain.port.outbound.CourierTrackingPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Range;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.data.redis.domain.geo.Metrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis adapter for courier tracking and geofencing.
+ *
+ * <p>Couriers are kept in a Geo set next to a Sorted Set of last-seen timestamps.
+ * Geofences are circles: their centers live in a second Geo set and their radii in a
+ * Hash. Every position report is applied by a Lua script that moves the courier,
+ * finds the fences containing the new position with one {@code GEOSEARCH} (bounded by
+ * the largest registered radius, then filtered by each fence's own radius) and diffs
+ * them against the set of fences the courier was inside. Only the difference is written
+ * and appended to the event stream as ENTER/EXIT events, so the cost of an update depends
+ * on the fences near the courier, not on the number of fences registered. Reports older
+ * than the courier's last-seen timestamp are ignored, which keeps late deliveries from
+ * moving a courier backwards.</p>
+ *
+ * <p>Batched ingestion: {@link #recordPositions} applies up to
+ * {@value #MAX_BATCH_SIZE} reports per script call and sends all calls of a batch in one
+ * pipeline. {@link #recordPositionBuffered} keeps only the newest report per courier in
+ * memory; a {@link BackgroundFlusher} writes them every {@value #FLUSH_INTERVAL_MILLIS} ms, or as
+ * soon as {@value #MAX_BATCH_SIZE} couriers are pending. If a flush fails the reports are
+ * put back (unless a newer one arrived meanwhile) and retried on the next interval;
+ * remaining reports are flushed on shutdown.</p>
+ *
+ * <p>The batch script declares every key it touches; the stale-courier script derives
+ * the per-courier fence keys from the last-seen set, so it assumes a single Redis node,
+ * as does the rest of this module.</p>
+ *
+ * <p>Keys: {@code delivery:courier:positions} (GEO), {@code delivery:courier:last-seen}
+ * (ZSET), {@code delivery:courier:fences:{courierId}} (SET),
+ * {@code delivery:geofence:centers} (GEO), {@code delivery:geofence:radius} (HASH),
+ * {@code delivery:geofence:max-radius}, {@code delivery:geofence:events} (STREAM,
+ * about {@value #EVENT_STREAM_MAXLEN} entries)</p>
+ */
+@Component
+public class RedisCourierTrackingAdapter implements CourierTrackingPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCourierTrackingAdapter.class);
+
+    private static final String POSITIONS_KEY = "delivery:courier:positions";
+    private static final String LAST_SEEN_KEY = "delivery:courier:last-seen";
+    private static final String FENCES_KEY_PREFIX = "delivery:courier:fences:";
+    private static final String CENTERS_KEY = "delivery:geofence:centers";
+    private static final String RADIUS_KEY = "delivery:geofence:radius";
+    private static final String MAX_RADIUS_KEY = "delivery:geofence:max-radius";
+    private static final String EVENTS_KEY = "delivery:geofence:events";
+
+    static final int MAX_BATCH_SIZE = 500;
+    static final long FLUSH_INTERVAL_MILLIS = 50;
+    static final int EVENT_STREAM_MAXLEN = 100_000;
+
+    /**
+     * KEYS[1] = positions, KEYS[2] = last-seen, KEYS[3] = fence centers,
+     * KEYS[4] = fence radii, KEYS[5] = max radius, KEYS[6] = event stream,
+     * KEYS[6 + i] = fence set of the i-th courier;
+     * ARGV[1] = stream MAXLEN, then courierId, longitude, latitude, timestamp per courier.
+     * ENTER events follow the GEOSEARCH order (nearest fence first). Returns the number
+     * of events emitted.
+     */
+    private static final DefaultRedisScript<Long> TRACK_SCRIPT = new DefaultRedisScript<>(
+            "local maxRadius = redis.call('GET', KEYS[5])\n" +
+            "local events = 0\n" +
+            "for i = 1, (#ARGV - 1) / 4 do\n" +
+            "  local base = 2 + (i - 1) * 4\n" +
+            "  local courier, lon, lat, ts = ARGV[base], ARGV[base + 1], ARGV[base + 2], ARGV[base + 3]\n" +
+            "  local seen = redis.call('ZSCORE', KEYS[2], courier)\n" +
+            "  if not seen or tonumber(seen) <= tonumber(ts) then\n" +
+            "    redis.call('GEOADD', KEYS[1], lon, lat, courier)\n" +
+            "    redis.call('ZADD', KEYS[2], ts, courier)\n" +
+            "    local inside, order = {}, {}\n" +
+            "    if maxRadius then\n" +
+            "      local hits = redis.call('GEOSEARCH', KEYS[3], 'FROMLONLAT', lon, lat,\n" +
+            "        'BYRADIUS', maxRadius, 'm', 'ASC', 'WITHDIST')\n" +
+            "      for _, hit in ipairs(hits) do\n" +
+            "        local radius = redis.call('HGET', KEYS[4], hit[1])\n" +
+            "        if radius and tonumber(hit[2]) <= tonumber(radius) then\n" +
+            "          inside[hit[1]] = true\n" +
+            "          order[#order + 1] = hit[1]\n" +
+            "        end\n" +
+            "      end\n" +
+            "    end\n" +
+            "    local fences = KEYS[6 + i]\n" +
+            "    for _, fence in ipairs(redis.call('SMEMBERS', fences)) do\n" +
+            "      if inside[fence] then\n" +
+            "        inside[fence] = nil\n" +
+            "      else\n" +
+            "        redis.call('SREM', fences, fence)\n" +
+            "        redis.call('XADD', KEYS[6], 'MAXLEN', '~', ARGV[1], '*',\n" +
+            "          'courier', courier, 'fence', fence, 'type', 'EXIT', 'ts', ts)\n" +
+            "        events = events + 1\n" +
+            "      end\n" +
+            "    end\n" +
+            "    for _, fence in ipairs(order) do\n" +
+            "      if inside[fence] then\n" +
+            "        redis.call('SADD', fences, fence)\n" +
+            "        redis.call('XADD', KEYS[6], 'MAXLEN', '~', ARGV[1], '*',\n" +
+            "          'courier', courier, 'fence', fence, 'type', 'ENTER', 'ts', ts)\n" +
+            "        events = events + 1\n" +
+            "      end\n" +
+            "    end\n" +
+            "  end\n" +
+            "end\n" +
+            "return events",
+            Long.class);
+
+    /**
+     * KEYS[1] = fence centers, KEYS[2] = fence radii, KEYS[3] = max radius;
+     * ARGV[1] = longitude, ARGV[2] = latitude, ARGV[3] = fenceId, ARGV[4] = radius in meters.
+     * The max radius only grows; it bounds the GEOSEARCH of the tracking script.
+     */
+    private static final DefaultRedisScript<Long> REGISTER_FENCE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('GEOADD', KEYS[1], ARGV[1], ARGV[2], ARGV[3])\n" +
+            "redis.call('HSET', KEYS[2], ARGV[3], ARGV[4])\n" +
+            "local current = redis.call('GET', KEYS[3])\n" +
+            "if not current or tonumber(current) < tonumber(ARGV[4]) then\n" +
+            "  redis.call('SET', KEYS[3], ARGV[4])\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = fence centers, KEYS[2] = fence radii; ARGV[1] = fenceId.
+     */
+    private static final DefaultRedisScript<Long> REMOVE_FENCE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HDEL', KEYS[2], ARGV[1])\n" +
+            "return redis.call('ZREM', KEYS[1], ARGV[1])",
+            Long.class);
+
+    /**
+     * KEYS[1] = positions, KEYS[2] = last-seen, KEYS[3] = event stream;
+     * ARGV[1] = cutoff (exclusive), ARGV[2] = limit, ARGV[3] = stream MAXLEN,
+     * ARGV[4] = fence set key prefix. EXIT events carry the courier's last-seen timestamp.
+     * Returns the number of couriers removed.
+     */
+    private static final DefaultRedisScript<Long> REMOVE_STALE_SCRIPT = new DefaultRedisScript<>(
+            "local stale = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[1],\n" +
+            "  'WITHSCORES', 'LIMIT', 0, ARGV[2])\n" +
+            "for i = 1, #stale, 2 do\n" +
+            "  local courier, ts = stale[i], stale[i + 1]\n" +
+            "  local fences = ARGV[4] .. courier\n" +
+            "  for _, fence in ipairs(redis.call('SMEMBERS', fences)) do\n" +
+            "    redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[3], '*',\n" +
+            "      'courier', courier, 'fence', fence, 'type', 'EXIT', 'ts', ts)\n" +
+            "  end\n" +
+            "  redis.call('DEL', fences)\n" +
+            "  redis.call('ZREM', KEYS[1], courier)\n" +
+            "  redis.call('ZREM', KEYS[2], courier)\n" +
+            "end\n" +
+            "return #stale / 2",
+            Long.class);
+
+    private static final byte[] TRACK_SCRIPT_BYTES = TRACK_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConcurrentHashMap<String, CourierPosition> pendingPositions = new ConcurrentHashMap<>();
+    private final BackgroundFlusher flusher;
+
+    public RedisCourierTrackingAdapter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.flusher = new BackgroundFlusher("courier-position-flusher", FLUSH_INTERVAL_MILLIS,
+                this::drainAndRecord, pendingPositions::size);
+    }
+
+    @Override
+    public void registerGeofence(Geofence geofence) {
+        log.debug("Registering geofence {}", geofence);
+        redisTemplate.execute(REGISTER_FENCE_SCRIPT, List.of(CENTERS_KEY, RADIUS_KEY, MAX_RADIUS_KEY),
+                String.valueOf(geofence.getLongitude()), String.valueOf(geofence.getLatitude()),
+                geofence.getFenceId(), String.valueOf(geofence.getRadiusMeters()));
+    }
+
+    @Override
+    public boolean removeGeofence(String fenceId) {
+        Long removed = redisTemplate.execute(REMOVE_FENCE_SCRIPT, List.of(CENTERS_KEY, RADIUS_KEY), fenceId);
+        return removed != null && removed == 1L;
+    }
+
+    /**
+     * Splits the reports into script calls of at most {@value #MAX_BATCH_SIZE} couriers
+     * and sends them in one pipeline. Calls are applied in order, so a later report of the
+     * same courier in the list wins.
+     */
+    @Override
+    public int recordPositions(List<CourierPosition> positions) {
+        if (positions.isEmpty()) {
+            return 0;
+        }
+        byte[] maxlen = String.valueOf(EVENT_STREAM_MAXLEN).getBytes(StandardCharsets.UTF_8);
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < positions.size(); from += MAX_BATCH_SIZE) {
+                List<CourierPosition> batch = positions.subList(from, Math.min(from + MAX_BATCH_SIZE, positions.size()));
+                int numKeys = 6 + batch.size();
+                byte[][] keysAndArgs = new byte[numKeys + 1 + batch.size() * 4][];
+                keysAndArgs[0] = bytes(POSITIONS_KEY);
+                keysAndArgs[1] = bytes(LAST_SEEN_KEY);
+                keysAndArgs[2] = bytes(CENTERS_KEY);
+                keysAndArgs[3] = bytes(RADIUS_KEY);
+                keysAndArgs[4] = bytes(MAX_RADIUS_KEY);
+                keysAndArgs[5] = bytes(EVENTS_KEY);
+                keysAndArgs[numKeys] = maxlen;
+                for (int i = 0; i < batch.size(); i++) {
+                    CourierPosition position = batch.get(i);
+                    keysAndArgs[6 + i] = bytes(FENCES_KEY_PREFIX + position.getCourierId());
+                    int arg = numKeys + 1 + i * 4;
+                    keysAndArgs[arg] = bytes(position.getCourierId());
+                    keysAndArgs[arg + 1] = bytes(String.valueOf(position.getLongitude()));
+                    keysAndArgs[arg + 2] = bytes(String.valueOf(position.getLatitude()));
+                    keysAndArgs[arg + 3] = bytes(String.valueOf(position.getTimestampMillis()));
+                }
+                connection.scriptingCommands().eval(TRACK_SCRIPT_BYTES, ReturnType.INTEGER, numKeys, keysAndArgs);
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+        flusher.recordSent();
+        int events = 0;
+        for (Object reply : replies) {
+            events += ((Number) reply).intValue();
+        }
+        return events;
+    }
+
+    @Override
+    public void recordPositionBuffered(CourierPosition position) {
+        flusher.ensureOpen();
+        pendingPositions.merge(position.getCourierId(), position, RedisCourierTrackingAdapter::newer);
+        flusher.buffered(pendingPositions.size() >= MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public List<String> findCouriersNearby(double longitude, double latitude, double radiusMeters, int count) {
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisTemplate.opsForGeo().search(
+                POSITIONS_KEY,
+                GeoReference.fromCoordinate(longitude, latitude),
+                new Distance(radiusMeters, Metrics.METERS),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().sortAscending().limit(count));
+        if (results == null) {
+            return Collections.emptyList();
+        }
+        List<String> couriers = new ArrayList<>(results.getContent().size());
+        results.getContent().forEach(result -> couriers.add(result.getContent().getName()));
+        return couriers;
+    }
+
+    @Override
+    public Set<String> getCurrentFences(String courierId) {
+        Set<String> fences = redisTemplate.opsForSet().members(FENCES_KEY_PREFIX + courierId);
+        return fences != null ? fences : Set.of();
+    }
+
+    @Override
+    public int removeStaleCouriers(long seenBeforeMillis, int limit) {
+        Long removed = redisTemplate.execute(REMOVE_STALE_SCRIPT, List.of(POSITIONS_KEY, LAST_SEEN_KEY, EVENTS_KEY),
+                String.valueOf(seenBeforeMillis), String.valueOf(limit),
+                String.valueOf(EVENT_STREAM_MAXLEN), FENCES_KEY_PREFIX);
+        return removed != null ? removed.intValue() : 0;
+    }
+
+    /**
+     * Reads with an inclusive XRANGE from {@code afterEventId} and drops that entry itself.
+     */
+    @Override
+    public List<GeofenceEvent> readEvents(String afterEventId, int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().range(EVENTS_KEY,
+                Range.of(Range.Bound.inclusive(afterEventId), Range.Bound.unbounded()),
+                Limit.limit().count(count + 1));
+        if (records == null) {
+            return Collections.emptyList();
+        }
+        List<GeofenceEvent> events = new ArrayList<>(count);
+        for (MapRecord<String, Object, Object> record : records) {
+            String id = record.getId().getValue();
+            if (id.equals(afterEventId)) {
+                continue;
+            }
+            if (events.size() == count) {
+                break;
+            }
+            Map<Object, Object> fields = record.getValue();
+            events.add(new GeofenceEvent(id, (String) fields.get("courier"), (String) fields.get("fence"),
+                    GeofenceEvent.Type.valueOf((String) fields.get("type")),
+                    Long.parseLong((String) fields.get("ts"))));
+        }
+        return events;
+    }
+
+    /**
+     * Stops accepting reports and flushes everything still buffered.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.close();
+    }
+
+    /**
+     * Pipelines sent so far by {@link #recordPositions} and by flushes.
+     */
+    long flushedPipelines() {
+        return flusher.sentBatches();
+    }
+
+    /**
+     * Drains the newest report per courier; runs under the flusher's lock. Failed reports
+     * are put back unless a newer one arrived meanwhile.
+     */
+    private void drainAndRecord() {
+        List<CourierPosition> batch = new ArrayList<>(pendingPositions.size());
+        for (String courierId : pendingPositions.keySet()) {
+            CourierPosition position = pendingPositions.remove(courierId);
+            if (position != null) {
+                batch.add(position);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            int events = recordPositions(batch);
+            log.debug("Flushed {} courier positions, {} geofence events", batch.size(), events);
+        } catch (RuntimeException e) {
+            for (CourierPosition position : batch) {
+                pendingPositions.merge(position.getCourierId(), position, RedisCourierTrackingAdapter::newer);
+            }
+            throw e;
+        }
+    }
+
+    private static CourierPosition newer(CourierPosition current, CourierPosition candidate) {
+        return candidate.getTimestampMillis() >= current.getTimestampMillis() ? candidate : current;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -4,17 +4,22 @@ import com.tutorial.redis.common.config.RedisKeyConvention;
 import com.tutorial.redis.module03.domain.model.GeoSearchResult;
 import com.tutorial.redis.module03.domain.model.StoreLocation;
 import com.tutorial.redis.module03.domain.port.outbound.GeoLocationPort;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
 import org.springframework.data.geo.GeoResults;
 import org.springframework.data.redis.domain.geo.Metrics;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.domain.geo.GeoReference;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +30,13 @@ import java.util.Optional;
  * <p>Stores all store locations in a single Geo key using {@code opsForGeo()}.
  * Store metadata (name) is stored separately in a Redis Hash per store.</p>
  *
+ * <p>Round trips are independent of the number of stores involved: searches use
+ * {@code GEOSEARCH ... WITHCOORD WITHDIST}, so coordinates and distances arrive with the
+ * members, and the names of the whole result page are fetched with one pipeline of
+ * {@code HGET}s. Bulk registration sends a single multi-member {@code GEOADD} and the
+ * metadata writes in one pipeline. A search therefore costs two round trips and a bulk
+ * registration one.</p>
+ *
  * <p>Geo key: {@code ecommerce:store:locations}</p>
  * <p>Metadata key pattern: {@code ecommerce:store:meta:{storeId}}</p>
  */
@@ -51,24 +63,59 @@ public class RedisGeoLocationAdapter implements GeoLocationPort {
         redisTemplate.opsForHash().put(metaKey, "name", location.getName());
     }
 
+    /**
+     * Registers all locations in one pipeline: one multi-member GEOADD followed by the
+     * metadata HSETs.
+     */
     @Override
     public void addLocations(List<StoreLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        Map<Object, Point> points = new LinkedHashMap<>();
         for (StoreLocation location : locations) {
-            addLocation(location);
+            points.put(location.getStoreId(), new Point(location.getLongitude(), location.getLatitude()));
         }
+
+        redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForGeo().add(GEO_KEY, points);
+                for (StoreLocation location : locations) {
+                    operations.opsForHash().put(buildMetaKey(location.getStoreId()), "name", location.getName());
+                }
+                // SessionCallback must return null when used with executePipelined
+                return null;
+            }
+        });
     }
 
+    /**
+     * Reads the position (GEOPOS) and the name (HGET) in one pipeline.
+     */
     @Override
     public Optional<StoreLocation> getPosition(String storeId) {
-        List<Point> positions = redisTemplate.opsForGeo().position(GEO_KEY, storeId);
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForGeo().position(GEO_KEY, storeId);
+                operations.opsForHash().get(buildMetaKey(storeId), "name");
+                // SessionCallback must return null when used with executePipelined
+                return null;
+            }
+        });
+
+        List<?> positions = (List<?>) replies.get(0);
         if (positions == null || positions.isEmpty() || positions.get(0) == null) {
             return Optional.empty();
         }
 
-        Point point = positions.get(0);
-        String name = getStoreName(storeId);
-
-        return Optional.of(new StoreLocation(storeId, name, point.getX(), point.getY()));
+        Point point = (Point) positions.get(0);
+        Object name = replies.get(1);
+        return Optional.of(new StoreLocation(storeId, name != null ? name.toString() : storeId,
+                point.getX(), point.getY()));
     }
 
     @Override
@@ -91,6 +138,7 @@ public class RedisGeoLocationAdapter implements GeoLocationPort {
         RedisGeoCommands.GeoSearchCommandArgs args = RedisGeoCommands.GeoSearchCommandArgs
                 .newGeoSearchArgs()
                 .includeDistance()
+                .includeCoordinates()
                 .limit(count);
 
         GeoResults<RedisGeoCommands.GeoLocation<Object>> results = redisTemplate.opsForGeo().search(
@@ -111,6 +159,7 @@ public class RedisGeoLocationAdapter implements GeoLocationPort {
         RedisGeoCommands.GeoSearchCommandArgs args = RedisGeoCommands.GeoSearchCommandArgs
                 .newGeoSearchArgs()
                 .includeDistance()
+                .includeCoordinates()
                 .limit(count);
 
         GeoResults<RedisGeoCommands.GeoLocation<Object>> results = redisTemplate.opsForGeo().search(
@@ -122,36 +171,43 @@ public class RedisGeoLocationAdapter implements GeoLocationPort {
         return toGeoSearchResults(results, unit);
     }
 
+    /**
+     * Builds the results from the coordinates and distances returned by GEOSEARCH and the
+     * names fetched for the whole page in one pipeline. Stores without metadata are named
+     * after their ID.
+     */
     private List<GeoSearchResult> toGeoSearchResults(
             GeoResults<RedisGeoCommands.GeoLocation<Object>> results, String unit) {
-        if (results == null) {
+        if (results == null || results.getContent().isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<GeoSearchResult> searchResults = new ArrayList<>();
-        for (var geoResult : results) {
-            String memberId = geoResult.getContent().getName().toString();
-            double dist = geoResult.getDistance().getValue();
-            String name = getStoreName(memberId);
-
-            Optional<StoreLocation> position = getPosition(memberId);
-            if (position.isPresent()) {
-                StoreLocation location = position.get();
-                searchResults.add(new GeoSearchResult(location, dist, unit));
-            } else {
-                StoreLocation location = new StoreLocation(memberId, name, 0, 0);
-                searchResults.add(new GeoSearchResult(location, dist, unit));
+        List<GeoResult<RedisGeoCommands.GeoLocation<Object>>> page = results.getContent();
+        List<Object> names = redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (var geoResult : page) {
+                    operations.opsForHash().get(buildMetaKey(geoResult.getContent().getName().toString()), "name");
+                }
+                // SessionCallback must return null when used with executePipelined
+                return null;
             }
+        });
+
+        List<GeoSearchResult> searchResults = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            RedisGeoCommands.GeoLocation<Object> member = page.get(i).getContent();
+            String memberId = member.getName().toString();
+            Object name = names.get(i);
+            Point point = member.getPoint();
+            StoreLocation location = new StoreLocation(memberId, name != null ? name.toString() : memberId,
+                    point.getX(), point.getY());
+            searchResults.add(new GeoSearchResult(location, page.get(i).getDistance().getValue(), unit));
         }
         return searchResults;
     }
 
-    private String getStoreName(String storeId) {
-        String metaKey = buildMetaKey(storeId);
-        Object name = redisTemplate.opsForHash().get(metaKey, "name");
-        return name != null ? name.toString() : storeId;
-    }
-
     private String buildMetaKey(String storeId) {
         return RedisKeyConvention.buildKey(SERVICE, ENTITY, "meta") + ":" + storeId;
     }
@@ -0,0 +1,208 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.config.RedisKeyConvention;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+import com.tutorial.redis.module03.domain.port.outbound.SegmentStorePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis adapter storing audience segments as serialized {@link RoaringBitmap}s.
+ *
+ * <p>The serialized bitmap is split into chunks of at most {@value #CHUNK_BYTES} bytes,
+ * each a binary String written and read in one pipeline, so no single command moves a
+ * multi-megabyte value. A metadata Hash points at the current version:</p>
+ * <ol>
+ *   <li>{@code HINCRBY seq} allocates a new version</li>
+ *   <li>the chunks of that version are written (pipelined {@code SET})</li>
+ *   <li>a Lua script switches the metadata to the new version unless a newer one has
+ *       already been committed, and returns the previous version</li>
+ *   <li>the previous version's chunks get a {@value #STALE_CHUNK_TTL_SECONDS} s TTL,
+ *       so readers that fetched the old metadata can still finish</li>
+ * </ol>
+ *
+ * <p>Decoded bitmaps are cached in-process per segment together with their version.
+ * A load costs one {@code HMGET} of the metadata; the chunks are only transferred
+ * when the version changed.</p>
+ *
+ * <p>Key patterns:</p>
+ * <ul>
+ *   <li>{@code banking:segment:{name}} — metadata (HASH: seq, version, chunks, cardinality, bytes)</li>
+ *   <li>{@code banking:segment:{name}:{version}:{chunk}} — serialized bitmap chunk (STRING)</li>
+ * </ul>
+ */
+@Component
+public class RedisSegmentStoreAdapter implements SegmentStorePort {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSegmentStoreAdapter.class);
+
+    private static final String SERVICE = "banking";
+    private static final String ENTITY = "segment";
+
+    static final int CHUNK_BYTES = 512 * 1024;
+    static final long STALE_CHUNK_TTL_SECONDS = 60;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    /**
+     * KEYS[1] = metadata. ARGV[1] = version, ARGV[2] = chunks, ARGV[3] = cardinality,
+     * ARGV[4] = bytes. Returns {previous version, previous chunks}, or {-1, 0} if a
+     * newer version is already committed.
+     */
+    private static final DefaultRedisScript<List> COMMIT_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')\n" +
+            "if current > tonumber(ARGV[1]) then return {-1, 0} end\n" +
+            "local chunks = tonumber(redis.call('HGET', KEYS[1], 'chunks') or '0')\n" +
+            "redis.call('HSET', KEYS[1], 'version', ARGV[1], 'chunks', ARGV[2], " +
+            "'cardinality', ARGV[3], 'bytes', ARGV[4])\n" +
+            "return {current, chunks}",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, CachedSegment> cache = new ConcurrentHashMap<>();
+
+    public RedisSegmentStoreAdapter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void save(String name, RoaringBitmap members) {
+        byte[] data = members.serialize();
+        int chunks = Math.max(1, (data.length + CHUNK_BYTES - 1) / CHUNK_BYTES);
+        String metaKey = buildMetaKey(name);
+        long version = redisTemplate.opsForHash().increment(metaKey, "seq", 1);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < chunks; i++) {
+                byte[] chunk = Arrays.copyOfRange(data, i * CHUNK_BYTES, Math.min(data.length, (i + 1) * CHUNK_BYTES));
+                connection.stringCommands().set(chunkKey(name, version, i), chunk);
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+
+        List<Object> previous = redisTemplate.execute(COMMIT_SCRIPT, List.of(metaKey),
+                String.valueOf(version), String.valueOf(chunks),
+                String.valueOf(members.cardinality()), String.valueOf(data.length));
+        long previousVersion = ((Number) previous.get(0)).longValue();
+        if (previousVersion < 0) {
+            // A concurrent save committed a newer version; ours is already obsolete
+            expireChunks(name, version, chunks);
+            log.debug("Segment {} version {} superseded before commit", name, version);
+            return;
+        }
+        if (previousVersion > 0) {
+            expireChunks(name, previousVersion, ((Number) previous.get(1)).intValue());
+        }
+        cache.put(name, new CachedSegment(version, members));
+        log.debug("Saved segment {} v{}: {} members, {} bytes in {} chunks",
+                name, version, members.cardinality(), data.length, chunks);
+    }
+
+    @Override
+    public Optional<RoaringBitmap> load(String name) {
+        for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+            List<Object> meta = redisTemplate.opsForHash()
+                    .multiGet(buildMetaKey(name), List.<Object>of("version", "chunks"));
+            if (meta.get(0) == null) {
+                cache.remove(name);
+                return Optional.empty();
+            }
+            long version = Long.parseLong((String) meta.get(0));
+            int chunks = Integer.parseInt((String) meta.get(1));
+
+            CachedSegment cached = cache.get(name);
+            if (cached != null && cached.version() == version) {
+                return Optional.of(cached.members());
+            }
+
+            byte[] data = readChunks(name, version, chunks);
+            if (data != null) {
+                RoaringBitmap members = RoaringBitmap.deserialize(data);
+                cache.put(name, new CachedSegment(version, members));
+                log.debug("Loaded segment {} v{}: {} bytes", name, version, data.length);
+                return Optional.of(members);
+            }
+            // The version was replaced and its chunks expired while we were reading; retry
+        }
+        throw new IllegalStateException("Segment " + name + " kept changing while being read");
+    }
+
+    @Override
+    public boolean delete(String name) {
+        String metaKey = buildMetaKey(name);
+        List<Object> meta = redisTemplate.opsForHash().multiGet(metaKey, List.<Object>of("version", "chunks"));
+        cache.remove(name);
+        if (meta.get(0) == null) {
+            redisTemplate.delete(metaKey);
+            return false;
+        }
+        long version = Long.parseLong((String) meta.get(0));
+        int chunks = Integer.parseInt((String) meta.get(1));
+        List<String> keys = new ArrayList<>(chunks + 1);
+        keys.add(metaKey);
+        for (int i = 0; i < chunks; i++) {
+            keys.add(buildChunkKey(name, version, i));
+        }
+        redisTemplate.delete(keys);
+        return true;
+    }
+
+    private byte[] readChunks(String name, long version, int chunks) {
+        List<Object> parts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < chunks; i++) {
+                connection.stringCommands().get(chunkKey(name, version, i));
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        }, RedisSerializer.byteArray());
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (Object part : parts) {
+            if (part == null) {
+                return null;
+            }
+            data.writeBytes((byte[]) part);
+        }
+        return data.toByteArray();
+    }
+
+    private void expireChunks(String name, long version, int chunks) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < chunks; i++) {
+                connection.keyCommands().expire(chunkKey(name, version, i), STALE_CHUNK_TTL_SECONDS);
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+    }
+
+    private byte[] chunkKey(String name, long version, int chunk) {
+        return buildChunkKey(name, version, chunk).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String buildChunkKey(String name, long version, int chunk) {
+        return buildMetaKey(name) + ":" + version + ":" + chunk;
+    }
+
+    private String buildMetaKey(String name) {
+        return RedisKeyConvention.buildKey(SERVICE, ENTITY, name);
+    }
+
+    private record CachedSegment(long version, RoaringBitmap members) {
+    }
+}
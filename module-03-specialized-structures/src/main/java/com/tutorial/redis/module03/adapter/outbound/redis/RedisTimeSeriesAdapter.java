@@ -1,30 +1,80 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
+import com.tutorial.redis.common.flush.BackgroundFlusher;
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeries;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
 import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
+import com.tutorial.redis.module03.domain.model.TimeSeriesSample;
 import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis adapter for time series operations using Redis TimeSeries module commands.
  *
  * <p>Uses Lua scripts to invoke TimeSeries module commands
- * (TS.CREATE, TS.ADD, TS.RANGE, TS.GET).</p>
+ * (TS.CREATE, TS.CREATERULE, TS.ADD, TS.MADD, TS.RANGE, TS.MRANGE, TS.GET).</p>
  *
- * <p>Key pattern: {@code ts:{key}}</p>
+ * <p>Buffered ingestion: {@link #addBuffered} only enqueues the sample. A
+ * {@link BackgroundFlusher} writes queued samples with one {@code TS.MADD} per
+ * {@value #MAX_BATCH_SIZE} samples, every {@value #LINGER_MILLIS} ms or as soon as a full
+ * batch is queued. Thousands of devices reporting one point each thus cost a handful of
+ * round trips instead of one per point. When the queue ({@value #QUEUE_CAPACITY} samples)
+ * is full, callers block. A batch that fails is kept and sent again before any later
+ * sample, so samples of a series reach Redis in the order they were buffered.
+ * {@code TS.MADD} does not create series, so they must exist (see {@link #create});
+ * samples for missing series are reported by the command and logged, not retried.
+ * Remaining samples are flushed on shutdown.</p>
+ *
+ * <p>Columnar range reads: {@link #streamRange} pages through a range with
+ * {@code TS.RANGE ... COUNT} so that only one page of driver objects is alive at a time,
+ * and decodes each page into primitive columns ({@link TimeSeriesColumns}).
+ * {@link #rangeColumns} collects the pages and keeps the result as a Gorilla-compressed
+ * {@link GorillaBlock} in a small LRU cache ({@value #RANGE_CACHE_ENTRIES} ranges,
+ * {@value #RANGE_CACHE_TTL_MILLIS} ms TTL), so dashboards re-reading the same window are
+ * served from memory. Writes through this adapter evict the cached ranges of the series;
+ * writes by other clients become visible once the TTL expires.</p>
+ *
+ * <p>{@code TS.MADD} and {@code TS.MRANGE} span many keys, so these paths assume a
+ * single Redis node, as does the rest of this module.</p>
+ *
+ * <p>Key pattern: {@code ts:{key}}; compaction series: {@code ts:{key}:{aggregation}:{bucketMs}}</p>
  */
 @Component
-public class RedisTimeSeriesAdapter implements TimeSeriesPort {
+public class RedisTimeSeriesAdapter implements TimeSeriesPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTimeSeriesAdapter.class);
 
     private static final String KEY_PREFIX = "ts";
 
+    static final int MAX_BATCH_SIZE = 1_000;
+    static final long LINGER_MILLIS = 50;
+    static final int QUEUE_CAPACITY = 100_000;
+
+    static final int RANGE_PAGE_SIZE = 10_000;
+    static final int RANGE_CACHE_ENTRIES = 64;
+    static final long RANGE_CACHE_TTL_MILLIS = 5_000;
+
     private static final DefaultRedisScript<Long> TS_CREATE_SIMPLE =
             new DefaultRedisScript<>("redis.call('TS.CREATE', KEYS[1], 'RETENTION', ARGV[1]); return 1", Long.class);
 
@@ -37,13 +87,78 @@ public class RedisTimeSeriesAdapter implements TimeSeriesPort {
     private static final DefaultRedisScript<List> TS_RANGE =
             new DefaultRedisScript<>("return redis.call('TS.RANGE', KEYS[1], ARGV[1], ARGV[2])", List.class);
 
+    private static final DefaultRedisScript<List> TS_RANGE_PAGE = new DefaultRedisScript<>(
+            "return redis.call('TS.RANGE', KEYS[1], ARGV[1], ARGV[2], 'COUNT', ARGV[3])", List.class);
+
     private static final DefaultRedisScript<List> TS_GET =
             new DefaultRedisScript<>("return redis.call('TS.GET', KEYS[1])", List.class);
 
+    /**
+     * KEYS = one series key per sample, ARGV = (timestamp, value) per sample.
+     * Returns the number of samples rejected by TS.MADD (e.g. missing series).
+     */
+    private static final DefaultRedisScript<Long> TS_MADD = new DefaultRedisScript<>(
+            "local args = {}\n" +
+            "for i = 1, #KEYS do\n" +
+            "  args[#args + 1] = KEYS[i]\n" +
+            "  args[#args + 1] = ARGV[i * 2 - 1]\n" +
+            "  args[#args + 1] = ARGV[i * 2]\n" +
+            "end\n" +
+            "local failed = 0\n" +
+            "for _, r in ipairs(redis.call('TS.MADD', unpack(args))) do\n" +
+            "  if type(r) == 'table' and r.err then failed = failed + 1 end\n" +
+            "end\n" +
+            "return failed",
+            Long.class);
+
+    /**
+     * KEYS[1] = source, KEYS[2] = destination. ARGV[1] = destination retention,
+     * ARGV[2] = aggregation, ARGV[3] = bucket duration, ARGV[4..] = destination labels.
+     */
+    private static final DefaultRedisScript<Long> TS_CREATE_RULE = new DefaultRedisScript<>(
+            "local labels = {}\n" +
+            "for i = 4, #ARGV do labels[#labels + 1] = ARGV[i] end\n" +
+            "redis.call('TS.CREATE', KEYS[2], 'RETENTION', ARGV[1], 'LABELS', unpack(labels))\n" +
+            "redis.call('TS.CREATERULE', KEYS[1], KEYS[2], 'AGGREGATION', ARGV[2], ARGV[3])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * ARGV[1] = from, ARGV[2] = to, ARGV[3] = aggregation ('' = none),
+     * ARGV[4] = bucket duration, ARGV[5..] = label filters.
+     */
+    private static final DefaultRedisScript<List> TS_MRANGE = new DefaultRedisScript<>(
+            "local args = {ARGV[1], ARGV[2]}\n" +
+            "if ARGV[3] ~= '' then\n" +
+            "  args[#args + 1] = 'AGGREGATION'\n" +
+            "  args[#args + 1] = ARGV[3]\n" +
+            "  args[#args + 1] = ARGV[4]\n" +
+            "end\n" +
+            "args[#args + 1] = 'FILTER'\n" +
+            "for i = 5, #ARGV do args[#args + 1] = ARGV[i] end\n" +
+            "return redis.call('TS.MRANGE', unpack(args))",
+            List.class);
+
     private final StringRedisTemplate redisTemplate;
+    private final BlockingQueue<TimeSeriesSample> buffer = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    /** Batch taken from the buffer but not yet written; only touched under the flusher's lock. */
+    private final List<TimeSeriesSample> unsent = new ArrayList<>(MAX_BATCH_SIZE);
+    private final BackgroundFlusher flusher;
+
+    /**
+     * Access-ordered LRU of compressed ranges, keyed by {@code tsKey|from|to}. Guarded by itself.
+     */
+    private final Map<String, CachedRange> rangeCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedRange> eldest) {
+            return size() > RANGE_CACHE_ENTRIES;
+        }
+    };
 
     public RedisTimeSeriesAdapter(StringRedisTemplate redisTemplate) {
         this.redisTemplate = redisTemplate;
+        this.flusher = new BackgroundFlusher("ts-ingest-flusher", LINGER_MILLIS,
+                this::drainAndSend, () -> buffer.size() + unsent.size());
     }
 
     @Override
@@ -67,7 +182,33 @@ public class RedisTimeSeriesAdapter implements TimeSeriesPort {
                 args.add(entry.getKey());
                 args.add(entry.getValue());
             }
-            redisTemplate.execute(script, List.of(tsKey), args.toArray(new String[0]));
+            redisTemplate.execute(script, List.of(tsKey), (Object[]) args.toArray(new String[0]));
+        }
+        evictCachedRanges(Set.of(tsKey));
+    }
+
+    /**
+     * Creates the series, then for every rule creates the destination series and
+     * links it with {@code TS.CREATERULE} (one script per rule).
+     */
+    @Override
+    public void create(String key, long retentionMs, Map<String, String> labels, List<CompactionRule> rules) {
+        create(key, retentionMs, labels);
+        for (CompactionRule rule : rules) {
+            Map<String, String> destinationLabels = new LinkedHashMap<>(labels == null ? Map.of() : labels);
+            destinationLabels.put("aggregation", rule.getAggregation().toCommandArgument());
+            destinationLabels.put("bucket", String.valueOf(rule.getBucketDurationMs()));
+
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(rule.getRetentionMs()));
+            args.add(rule.getAggregation().toCommandArgument());
+            args.add(String.valueOf(rule.getBucketDurationMs()));
+            destinationLabels.forEach((label, value) -> {
+                args.add(label);
+                args.add(value);
+            });
+            redisTemplate.execute(TS_CREATE_RULE, List.of(buildKey(key), buildKey(rule.destinationKey(key))),
+                    (Object[]) args.toArray(new String[0]));
         }
     }
 
@@ -76,12 +217,100 @@ public class RedisTimeSeriesAdapter implements TimeSeriesPort {
         String tsKey = buildKey(key);
         redisTemplate.execute(TS_ADD, List.of(tsKey),
                 String.valueOf(timestamp), String.valueOf(value));
+        evictCachedRanges(Set.of(tsKey));
     }
 
     @Override
     public void addAutoTimestamp(String key, double value) {
         String tsKey = buildKey(key);
         redisTemplate.execute(TS_ADD_AUTO, List.of(tsKey), String.valueOf(value));
+        evictCachedRanges(Set.of(tsKey));
+    }
+
+    /**
+     * Writes all samples with a single {@code TS.MADD} script call.
+     */
+    @Override
+    public void addAll(List<TimeSeriesSample> samples) {
+        if (samples == null || samples.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(samples.size());
+        String[] args = new String[samples.size() * 2];
+        for (int i = 0; i < samples.size(); i++) {
+            TimeSeriesSample sample = samples.get(i);
+            keys.add(buildKey(sample.getKey()));
+            args[i * 2] = String.valueOf(sample.getTimestamp());
+            args[i * 2 + 1] = String.valueOf(sample.getValue());
+        }
+        Long failed = redisTemplate.execute(TS_MADD, keys, (Object[]) args);
+        evictCachedRanges(new HashSet<>(keys));
+        if (failed != null && failed > 0) {
+            log.warn("TS.MADD rejected {} of {} samples", failed, samples.size());
+        }
+    }
+
+    @Override
+    public void addBuffered(String key, long timestamp, double value) {
+        flusher.ensureOpen();
+        try {
+            buffer.put(new TimeSeriesSample(key, timestamp, value));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while buffering sample for " + key, e);
+        }
+        flusher.buffered(buffer.size() >= MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Writes everything queued so far, after any batch the flusher is already sending.
+     */
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    /**
+     * Stops accepting samples and flushes everything still queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.close();
+        int stranded = buffer.size() + unsent.size();
+        if (stranded > 0) {
+            log.warn("{} buffered samples were not written before shutdown", stranded);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<TimeSeries> multiRange(long fromTimestamp, long toTimestamp, List<String> filters,
+                                       TimeSeriesAggregation aggregation, long bucketMs) {
+        if (filters == null || filters.isEmpty()) {
+            throw new IllegalArgumentException("At least one label filter is required");
+        }
+        List<String> args = new ArrayList<>(4 + filters.size());
+        args.add(String.valueOf(fromTimestamp));
+        args.add(String.valueOf(toTimestamp));
+        args.add(aggregation == null ? "" : aggregation.toCommandArgument());
+        args.add(String.valueOf(bucketMs));
+        args.addAll(filters);
+
+        List<Object> result = redisTemplate.execute(TS_MRANGE, List.of(), (Object[]) args.toArray(new String[0]));
+        if (result == null || result.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String prefix = KEY_PREFIX + ":";
+        List<TimeSeries> series = new ArrayList<>(result.size());
+        for (Object entry : result) {
+            if (entry instanceof List<?> reply && reply.size() >= 3) {
+                String tsKey = reply.get(0).toString();
+                String key = tsKey.startsWith(prefix) ? tsKey.substring(prefix.length()) : tsKey;
+                series.add(new TimeSeries(key, parsePoints((List<Object>) reply.get(2))));
+            }
+        }
+        return series;
     }
 
     @SuppressWarnings("unchecked")
@@ -94,16 +323,71 @@ public class RedisTimeSeriesAdapter implements TimeSeriesPort {
         if (result == null || result.isEmpty()) {
             return Collections.emptyList();
         }
+        return parsePoints(result);
+    }
 
-        List<TimeSeriesDataPoint> points = new ArrayList<>(result.size());
-        for (Object entry : result) {
-            if (entry instanceof List<?> pair && pair.size() >= 2) {
-                long ts = parseLong(pair.get(0));
-                double val = parseDouble(pair.get(1));
-                points.add(new TimeSeriesDataPoint(ts, val));
+    /**
+     * Returns the range as primitive columns, from the compressed range cache when the
+     * same range was read recently, otherwise via {@link #streamRange}.
+     */
+    @Override
+    public TimeSeriesColumns rangeColumns(String key, long fromTimestamp, long toTimestamp) {
+        String tsKey = buildKey(key);
+        String cacheKey = tsKey + "|" + fromTimestamp + "|" + toTimestamp;
+        CachedRange cached;
+        synchronized (rangeCache) {
+            cached = rangeCache.get(cacheKey);
+        }
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            log.debug("Range cache hit for {} ({} samples)", cacheKey, cached.block().count());
+            return cached.block().decode();
+        }
+
+        ColumnCollector collector = new ColumnCollector();
+        streamRange(key, fromTimestamp, toTimestamp, RANGE_PAGE_SIZE, collector);
+        TimeSeriesColumns columns = collector.toColumns();
+
+        GorillaBlock block = GorillaBlock.encode(columns);
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RANGE_CACHE_TTL_MILLIS);
+        synchronized (rangeCache) {
+            rangeCache.put(cacheKey, new CachedRange(tsKey, block, expiresAt));
+        }
+        log.debug("Cached range {}: {} samples in {} bytes", cacheKey, block.count(), block.compressedBytes());
+        return columns;
+    }
+
+    /**
+     * Reads the range page by page with {@code TS.RANGE ... COUNT pageSize}, starting each
+     * page one millisecond after the last timestamp of the previous one (timestamps within
+     * a series are unique).
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public long streamRange(String key, long fromTimestamp, long toTimestamp, int pageSize,
+                            Consumer<TimeSeriesColumns> pageConsumer) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be greater than 0, got: " + pageSize);
+        }
+        String tsKey = buildKey(key);
+        String to = String.valueOf(toTimestamp);
+        String count = String.valueOf(pageSize);
+        long next = fromTimestamp;
+        long total = 0;
+        while (next <= toTimestamp) {
+            List<Object> page = redisTemplate.execute(TS_RANGE_PAGE, List.of(tsKey),
+                    String.valueOf(next), to, count);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            TimeSeriesColumns columns = parseColumns(page);
+            pageConsumer.accept(columns);
+            total += columns.size();
+            if (page.size() < pageSize || columns.isEmpty()) {
+                break;
             }
+            next = columns.getTimestamp(columns.size() - 1) + 1;
         }
-        return points;
+        return total;
     }
 
     @SuppressWarnings("unchecked")
@@ -121,6 +405,96 @@ public class RedisTimeSeriesAdapter implements TimeSeriesPort {
         return Optional.of(new TimeSeriesDataPoint(ts, val));
     }
 
+    private List<TimeSeriesDataPoint> parsePoints(List<Object> samples) {
+        List<TimeSeriesDataPoint> points = new ArrayList<>(samples.size());
+        for (Object entry : samples) {
+            if (entry instanceof List<?> pair && pair.size() >= 2) {
+                long ts = parseLong(pair.get(0));
+                double val = parseDouble(pair.get(1));
+                points.add(new TimeSeriesDataPoint(ts, val));
+            }
+        }
+        return points;
+    }
+
+    private TimeSeriesColumns parseColumns(List<Object> samples) {
+        long[] timestamps = new long[samples.size()];
+        double[] values = new double[samples.size()];
+        int size = 0;
+        for (Object entry : samples) {
+            if (entry instanceof List<?> pair && pair.size() >= 2) {
+                timestamps[size] = parseLong(pair.get(0));
+                values[size] = parseDouble(pair.get(1));
+                size++;
+            }
+        }
+        return new TimeSeriesColumns(timestamps, values, size);
+    }
+
+    private void evictCachedRanges(Set<String> tsKeys) {
+        synchronized (rangeCache) {
+            if (!rangeCache.isEmpty()) {
+                rangeCache.values().removeIf(cached -> tsKeys.contains(cached.tsKey()));
+            }
+        }
+    }
+
+    private record CachedRange(String tsKey, GorillaBlock block, long expiresAtNanos) {
+    }
+
+    /**
+     * Appends pages into growing primitive arrays.
+     */
+    private static final class ColumnCollector implements Consumer<TimeSeriesColumns> {
+
+        private long[] timestamps = new long[0];
+        private double[] values = new double[0];
+        private int size;
+
+        @Override
+        public void accept(TimeSeriesColumns page) {
+            int required = size + page.size();
+            if (required > timestamps.length) {
+                int capacity = Math.max(required, timestamps.length * 2);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int i = 0; i < page.size(); i++) {
+                timestamps[size + i] = page.getTimestamp(i);
+                values[size + i] = page.getValue(i);
+            }
+            size = required;
+        }
+
+        TimeSeriesColumns toColumns() {
+            return size == 0 ? TimeSeriesColumns.empty() : new TimeSeriesColumns(timestamps, values, size);
+        }
+    }
+
+    /**
+     * Sends the samples queued when the flush started, {@value #MAX_BATCH_SIZE} per
+     * {@code TS.MADD}; runs under the flusher's lock. A failed batch stays in
+     * {@link #unsent} and is sent first by the next flush.
+     */
+    private void drainAndSend() {
+        int remaining = buffer.size();
+        while (true) {
+            if (unsent.isEmpty()) {
+                if (remaining <= 0) {
+                    return;
+                }
+                remaining -= buffer.drainTo(unsent, Math.min(remaining, MAX_BATCH_SIZE));
+                if (unsent.isEmpty()) {
+                    return;
+                }
+            }
+            addAll(unsent);
+            flusher.recordSent();
+            log.debug("Flushed {} buffered samples", unsent.size());
+            unsent.clear();
+        }
+    }
+
     private long parseLong(Object raw) {
         if (raw instanceof Long l) return l;
         if (raw instanceof Number n) return n.longValue();
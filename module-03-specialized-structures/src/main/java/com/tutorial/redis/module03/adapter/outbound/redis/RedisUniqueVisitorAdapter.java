@@ -1,10 +1,24 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
+import com.tutorial.redis.module03.domain.model.VisitPeriod;
 import com.tutorial.redis.module03.domain.port.outbound.UniqueVisitorPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Redis adapter for unique visitor counting using HyperLogLog operations.
@@ -12,15 +26,121 @@ import java.util.List;
  * <p>Uses {@link StringRedisTemplate} with {@code opsForHyperLogLog()} for
  * probabilistic cardinality estimation with very low memory usage.</p>
  *
- * <p>Key pattern: {@code analytics:uv:{pageId}:{period}}</p>
+ * <p>Week and month rollups: visits to a day period are recorded by a Lua script that
+ * also remembers which pages were visited on which day. Once a day has closed,
+ * {@link #rollUpDay} merges the day sketch of each of those pages into the week and
+ * month sketches (PFMERGE) and advances a global watermark, all in one script, so a
+ * day is merged exactly once. Visits recorded for a day at or before the watermark are
+ * added to the rollups directly. {@link #countRolledUpVisitors} then answers with one
+ * multi-key PFCOUNT over the rollup plus the days after the watermark — PFCOUNT unions
+ * its inputs internally, so no temporary key is written.</p>
+ *
+ * <p>Counts are cached in a small LRU ({@value #COUNT_CACHE_ENTRIES} entries,
+ * {@value #COUNT_CACHE_TTL_MILLIS} ms TTL). A visit that modifies a day sketch evicts
+ * the cached counts of that page; writes by other clients become visible once the TTL
+ * expires.</p>
+ *
+ * <p>The rollup script derives the page keys from the visited-pages set instead of
+ * declaring them, so it assumes a single Redis node, as does the rest of this module.</p>
+ *
+ * <p>Key pattern: {@code analytics:uv:{pageId}:{period}}; rollup sketches use
+ * {@code analytics:uv:{pageId}:{period}:rollup}, so they never mix with visitors added
+ * directly to a week or month period; rollup bookkeeping:
+ * {@code analytics:uv-rollup:pages:{day}} (SET),
+ * {@code analytics:uv-rollup:days} (ZSET scored by epoch day),
+ * {@code analytics:uv-rollup:watermark} (last rolled-up day)</p>
+ *
+ * <p>Earlier versions counted a week by PFMERGE into
+ * {@code analytics:uv:{pageId}:weekly-merge}, which was never expired.
+ * {@link #deleteLegacyMergeKeys} removes those sketches once and records that in
+ * {@code analytics:uv-rollup:legacy-merge-deleted}.</p>
  */
 @Component
 public class RedisUniqueVisitorAdapter implements UniqueVisitorPort {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisUniqueVisitorAdapter.class);
+
     private static final String KEY_PREFIX = "analytics:uv";
+    private static final String ROLLUP_PREFIX = "analytics:uv-rollup";
+    private static final String DAYS_KEY = ROLLUP_PREFIX + ":days";
+    private static final String WATERMARK_KEY = ROLLUP_PREFIX + ":watermark";
+    private static final String ROLLUP_SUFFIX = ":rollup";
+    private static final String LEGACY_MERGE_PATTERN = KEY_PREFIX + ":*:weekly-merge";
+    private static final String LEGACY_MERGE_DELETED_KEY = ROLLUP_PREFIX + ":legacy-merge-deleted";
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private static final Pattern DAY_PERIOD = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    static final int COUNT_CACHE_ENTRIES = 1_024;
+    static final long COUNT_CACHE_TTL_MILLIS = 5_000;
+
+    /**
+     * KEYS[1] = day sketch, KEYS[2] = visited-pages set, KEYS[3] = days ZSET,
+     * KEYS[4] = watermark, KEYS[5] = week rollup, KEYS[6] = month rollup;
+     * ARGV[1] = visitor, ARGV[2] = pageId, ARGV[3] = day, ARGV[4] = epoch day.
+     * ISO dates compare correctly as strings.
+     */
+    private static final DefaultRedisScript<Long> RECORD_DAY_SCRIPT = new DefaultRedisScript<>(
+            "local changed = redis.call('PFADD', KEYS[1], ARGV[1])\n" +
+            "local watermark = redis.call('GET', KEYS[4])\n" +
+            "if watermark and ARGV[3] <= watermark then\n" +
+            "  redis.call('PFADD', KEYS[5], ARGV[1])\n" +
+            "  redis.call('PFADD', KEYS[6], ARGV[1])\n" +
+            "else\n" +
+            "  redis.call('SADD', KEYS[2], ARGV[2])\n" +
+            "  redis.call('ZADD', KEYS[3], ARGV[4], ARGV[3])\n" +
+            "end\n" +
+            "return changed",
+            Long.class);
+
+    /**
+     * KEYS[1] = watermark, KEYS[2] = visited-pages set; ARGV[1] = day, ARGV[2] = week,
+     * ARGV[3] = month, ARGV[4] = key prefix, ARGV[5] = rollup suffix. Returns the number of pages merged,
+     * or -1 if the day is not after the watermark.
+     */
+    private static final DefaultRedisScript<Long> ROLL_UP_DAY_SCRIPT = new DefaultRedisScript<>(
+            "local watermark = redis.call('GET', KEYS[1])\n" +
+            "if watermark and ARGV[1] <= watermark then return -1 end\n" +
+            "local pages = redis.call('SMEMBERS', KEYS[2])\n" +
+            "for _, page in ipairs(pages) do\n" +
+            "  local base = ARGV[4] .. page .. ':'\n" +
+            "  redis.call('PFMERGE', base .. ARGV[2] .. ARGV[5], base .. ARGV[1])\n" +
+            "  redis.call('PFMERGE', base .. ARGV[3] .. ARGV[5], base .. ARGV[1])\n" +
+            "end\n" +
+            "redis.call('DEL', KEYS[2])\n" +
+            "redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "return #pages",
+            Long.class);
+
+    /**
+     * KEYS[1] = watermark, KEYS[2] = rollup sketch, KEYS[3..] = day sketches;
+     * ARGV = the days, in the same order. Counts the rollup together with the days
+     * after the watermark in a single PFCOUNT.
+     */
+    private static final DefaultRedisScript<Long> COUNT_ROLLED_UP_SCRIPT = new DefaultRedisScript<>(
+            "local watermark = redis.call('GET', KEYS[1])\n" +
+            "local keys = {}\n" +
+            "if watermark then keys[1] = KEYS[2] end\n" +
+            "for i = 1, #ARGV do\n" +
+            "  if not watermark or ARGV[i] > watermark then keys[#keys + 1] = KEYS[i + 2] end\n" +
+            "end\n" +
+            "if #keys == 0 then return 0 end\n" +
+            "return redis.call('PFCOUNT', unpack(keys))",
+            Long.class);
 
     private final StringRedisTemplate redisTemplate;
 
+    /**
+     * Access-ordered LRU of counts, keyed by {@code pageId|rollupPeriod|firstDay|lastDay}.
+     * Guarded by itself.
+     */
+    private final Map<String, CachedCount> countCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+            return size() > COUNT_CACHE_ENTRIES;
+        }
+    };
+
     public RedisUniqueVisitorAdapter(StringRedisTemplate redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
@@ -28,8 +148,22 @@ public class RedisUniqueVisitorAdapter implements UniqueVisitorPort {
     @Override
     public boolean addVisitor(String pageId, String period, String visitorId) {
         String key = buildKey(pageId, period);
-        Long result = redisTemplate.opsForHyperLogLog().add(key, visitorId);
-        return result != null && result > 0;
+        Long result;
+        if (DAY_PERIOD.matcher(period).matches()) {
+            LocalDate day = LocalDate.parse(period);
+            result = redisTemplate.execute(RECORD_DAY_SCRIPT,
+                    List.of(key, pagesKey(day), DAYS_KEY, WATERMARK_KEY,
+                            rollupKey(pageId, VisitPeriod.week(day)),
+                            rollupKey(pageId, VisitPeriod.month(YearMonth.from(day)))),
+                    visitorId, pageId, period, String.valueOf(day.toEpochDay()));
+        } else {
+            result = redisTemplate.opsForHyperLogLog().add(key, visitorId);
+        }
+        boolean modified = result != null && result > 0;
+        if (modified) {
+            evictCachedCounts(pageId);
+        }
+        return modified;
     }
 
     @Override
@@ -40,19 +174,119 @@ public class RedisUniqueVisitorAdapter implements UniqueVisitorPort {
     }
 
     @Override
-    public long countMergedVisitors(String destKey, List<String> sourceKeys) {
-        if (sourceKeys == null || sourceKeys.isEmpty()) {
+    public long countRolledUpVisitors(String pageId, String rollupPeriod, List<LocalDate> days) {
+        if (days.isEmpty()) {
+            Long count = redisTemplate.opsForHyperLogLog().size(rollupKey(pageId, rollupPeriod));
+            return count != null ? count : 0L;
+        }
+        String cacheKey = pageId + "|" + rollupPeriod + "|" + days.getFirst() + "|" + days.getLast();
+        CachedCount cached;
+        synchronized (countCache) {
+            cached = countCache.get(cacheKey);
+        }
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return cached.count();
+        }
+
+        List<String> keys = new ArrayList<>(days.size() + 2);
+        keys.add(WATERMARK_KEY);
+        keys.add(rollupKey(pageId, rollupPeriod));
+        String[] dayArgs = new String[days.size()];
+        for (int i = 0; i < days.size(); i++) {
+            dayArgs[i] = VisitPeriod.day(days.get(i));
+            keys.add(buildKey(pageId, dayArgs[i]));
+        }
+        Long result = redisTemplate.execute(COUNT_ROLLED_UP_SCRIPT, keys, (Object[]) dayArgs);
+        long count = result != null ? result : 0L;
+
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COUNT_CACHE_TTL_MILLIS);
+        synchronized (countCache) {
+            countCache.put(cacheKey, new CachedCount(pageId, count, expiresAt));
+        }
+        log.debug("Counted {} unique visitors for {} {}", count, pageId, rollupPeriod);
+        return count;
+    }
+
+    @Override
+    public List<LocalDate> findDaysPendingRollup(LocalDate before) {
+        String watermark = redisTemplate.opsForValue().get(WATERMARK_KEY);
+        double min = watermark != null
+                ? LocalDate.parse(watermark).toEpochDay() + 1
+                : Double.NEGATIVE_INFINITY;
+        Set<String> days = redisTemplate.opsForZSet()
+                .rangeByScore(DAYS_KEY, min, before.toEpochDay() - 1);
+        if (days == null || days.isEmpty()) {
+            return List.of();
+        }
+        return days.stream().map(LocalDate::parse).toList();
+    }
+
+    @Override
+    public int rollUpDay(LocalDate day) {
+        Long pages = redisTemplate.execute(ROLL_UP_DAY_SCRIPT,
+                List.of(WATERMARK_KEY, pagesKey(day)),
+                VisitPeriod.day(day), VisitPeriod.week(day),
+                VisitPeriod.month(YearMonth.from(day)), KEY_PREFIX + ":", ROLLUP_SUFFIX);
+        int merged = pages != null ? pages.intValue() : -1;
+        log.debug("Rolled up {}: {} pages", day, merged);
+        return merged;
+    }
+
+    /**
+     * Scans for the legacy weekly-merge sketches and unlinks them in batches of
+     * {@value #DELETE_BATCH_SIZE}; a no-op once the marker key is set.
+     */
+    @Override
+    public long deleteLegacyMergeKeys() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(LEGACY_MERGE_DELETED_KEY))) {
+            return 0L;
+        }
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_MERGE_PATTERN).count(DELETE_BATCH_SIZE).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == DELETE_BATCH_SIZE) {
+                    deleted += unlink(batch);
+                }
+            }
+        }
+        deleted += unlink(batch);
+        redisTemplate.opsForValue().set(LEGACY_MERGE_DELETED_KEY, String.valueOf(deleted));
+        log.info("Deleted {} legacy weekly-merge visitor sketches", deleted);
+        return deleted;
+    }
+
+    private long unlink(List<String> keys) {
+        if (keys.isEmpty()) {
             return 0L;
         }
+        Long unlinked = redisTemplate.unlink(keys);
+        keys.clear();
+        return unlinked != null ? unlinked : 0L;
+    }
 
-        String[] sources = sourceKeys.toArray(new String[0]);
-        redisTemplate.opsForHyperLogLog().union(destKey, sources);
+    private void evictCachedCounts(String pageId) {
+        synchronized (countCache) {
+            if (!countCache.isEmpty()) {
+                countCache.values().removeIf(cached -> cached.pageId().equals(pageId));
+            }
+        }
+    }
 
-        Long count = redisTemplate.opsForHyperLogLog().size(destKey);
-        return count != null ? count : 0L;
+    private String pagesKey(LocalDate day) {
+        return ROLLUP_PREFIX + ":pages:" + day;
     }
 
     private String buildKey(String pageId, String period) {
         return KEY_PREFIX + ":" + pageId + ":" + period;
     }
+
+    private String rollupKey(String pageId, String period) {
+        return buildKey(pageId, period) + ROLLUP_SUFFIX;
+    }
+
+    private record CachedCount(String pageId, long count, long expiresAtNanos) {
+    }
 }
@@ -1,27 +1,140 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
 import com.tutorial.redis.common.config.RedisKeyConvention;
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
 import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * Redis adapter for user activity tracking using Bitmap operations.
  *
- * <p>Uses {@link StringRedisTemplate} with {@code opsForValue().setBit()} / {@code getBit()}
- * for per-day activity tracking, and {@code RedisCallback} for BITCOUNT operations.</p>
+ * <p>Activity is stored in two layouts, written together by one Lua script:</p>
+ * <ul>
+ *   <li>User-major: one bitmap per user and month, bit offset = day of month − 1.
+ *       Answers per-user questions; day ranges are counted with bit-precise
+ *       {@code BITCOUNT ... BIT} (Redis 7+) in a single round trip.</li>
+ *   <li>Day-major: one bitmap per calendar day, bit offset = the user's dense numeric
+ *       index. Answers population questions server-side: DAU is one {@code BITCOUNT},
+ *       WAU/MAU are {@code BITOP OR} + {@code BITCOUNT}, retention is
+ *       {@code BITOP AND} of the cohort day with the return day(s). 10M users cost
+ *       1.25 MB per day.</li>
+ * </ul>
+ *
+ * <p>User indexes are assigned on first activity (or on first use by a segment) from a
+ * counter and kept in a Hash plus a reverse Hash, inside the same script that sets the
+ * bits, so concurrent first writes cannot hand out the same offset twice. Multi-day
+ * aggregations write to a scratch key that the script deletes before returning, so no
+ * temporary key is ever visible. These scripts span several keys and assume a single
+ * Redis node, as does the rest of this module.</p>
  *
- * <p>Key pattern: {@code banking:activity:{userId}:{yearMonth}}</p>
+ * <p>Cut-over: earlier versions wrote only the user-major layout, and the day-major
+ * bitmaps are not rebuilt from it, because the user indexes they are keyed by did not
+ * exist then. Population counts (DAU/WAU/MAU, retention, segments) therefore cover the
+ * days recorded since the upgrade; a week or month that spans the upgrade day is
+ * under-counted until it lies entirely after it. Per-user queries read the user-major
+ * layout and are unaffected.</p>
  *
- * <p>Each bit in the bitmap represents a day of the month.
- * Bit offset 0 = day 1, bit offset 1 = day 2, etc.</p>
+ * <p>Key patterns:</p>
+ * <ul>
+ *   <li>{@code banking:activity:{userId}:{yearMonth}} — user-major bitmap</li>
+ *   <li>{@code banking:activity-day:{yyyyMMdd}} — day-major bitmap</li>
+ *   <li>{@code banking:activity-user:index} (HASH userId → index),
+ *       {@code banking:activity-user:ids} (HASH index → userId), {@code banking:activity-user:seq}</li>
+ * </ul>
  */
 @Component
 public class RedisUserActivityAdapter implements UserActivityPort {
 
     private static final String SERVICE = "banking";
     private static final String ENTITY = "activity";
+    private static final String DAY_ENTITY = "activity-day";
+    private static final String USER_INDEX_KEY = RedisKeyConvention.buildKey(SERVICE, "activity-user", "index");
+    private static final String USER_IDS_KEY = RedisKeyConvention.buildKey(SERVICE, "activity-user", "ids");
+    private static final String USER_SEQUENCE_KEY = RedisKeyConvention.buildKey(SERVICE, "activity-user", "seq");
+    private static final String SCRATCH_KEY_PREFIX = RedisKeyConvention.buildKey(SERVICE, "activity-tmp", "");
+
+    private static final DateTimeFormatter YEAR_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * KEYS[1] = user-major key, KEYS[2] = day-major key, KEYS[3] = index Hash,
+     * KEYS[4] = sequence, KEYS[5] = reverse Hash.
+     * ARGV[1] = userId, ARGV[2] = day offset in the user-major bitmap.
+     * Returns the user's index.
+     */
+    private static final DefaultRedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "local index = redis.call('HGET', KEYS[3], ARGV[1])\n" +
+            "if not index then\n" +
+            "  index = redis.call('INCR', KEYS[4]) - 1\n" +
+            "  redis.call('HSET', KEYS[3], ARGV[1], index)\n" +
+            "  redis.call('HSET', KEYS[5], index, ARGV[1])\n" +
+            "end\n" +
+            "redis.call('SETBIT', KEYS[1], ARGV[2], 1)\n" +
+            "redis.call('SETBIT', KEYS[2], index, 1)\n" +
+            "return tonumber(index)",
+            Long.class);
+
+    /**
+     * KEYS[1] = index Hash, KEYS[2] = sequence, KEYS[3] = reverse Hash; ARGV = userIds.
+     * Returns the index of every userId, assigning new ones as needed.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RESOLVE_INDEXES_SCRIPT = new DefaultRedisScript<>(
+            "local result = {}\n" +
+            "for i, userId in ipairs(ARGV) do\n" +
+            "  local index = redis.call('HGET', KEYS[1], userId)\n" +
+            "  if not index then\n" +
+            "    index = redis.call('INCR', KEYS[2]) - 1\n" +
+            "    redis.call('HSET', KEYS[1], userId, index)\n" +
+            "    redis.call('HSET', KEYS[3], index, userId)\n" +
+            "  end\n" +
+            "  result[i] = tonumber(index)\n" +
+            "end\n" +
+            "return result",
+            List.class);
+
+    private static final DefaultRedisScript<Long> BITCOUNT_BIT_RANGE_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('BITCOUNT', KEYS[1], ARGV[1], ARGV[2], 'BIT')",
+            Long.class);
+
+    /**
+     * KEYS[1] = scratch key, KEYS[2..] = day keys. OR of all days, counted and discarded.
+     */
+    private static final DefaultRedisScript<Long> COUNT_UNION_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('BITOP', 'OR', KEYS[1], unpack(KEYS, 2))\n" +
+            "local count = redis.call('BITCOUNT', KEYS[1])\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "return count",
+            Long.class);
+
+    /**
+     * KEYS[1] = scratch key, KEYS[2] = cohort day key, KEYS[3] = return day key.
+     * Returns {cohort size, retained users}, both read in the same atomic step so
+     * retained never exceeds the cohort.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> COUNT_COHORT_SCRIPT = new DefaultRedisScript<>(
+            "local cohort = redis.call('BITCOUNT', KEYS[2])\n" +
+            "redis.call('BITOP', 'AND', KEYS[1], KEYS[2], KEYS[3])\n" +
+            "local retained = redis.call('BITCOUNT', KEYS[1])\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "return {cohort, retained}",
+            List.class);
 
     private final StringRedisTemplate redisTemplate;
 
@@ -29,10 +142,16 @@ public class RedisUserActivityAdapter implements UserActivityPort {
         this.redisTemplate = redisTemplate;
     }
 
+    /**
+     * Sets the user's bit in both layouts, assigning the user index on first activity,
+     * in one Lua round trip.
+     */
     @Override
     public void recordActivity(String userId, String yearMonth, int dayOfMonth) {
-        String key = buildKey(userId, yearMonth);
-        redisTemplate.opsForValue().setBit(key, dayOfMonth - 1, true);
+        LocalDate day = YearMonth.parse(yearMonth, YEAR_MONTH_FORMAT).atDay(dayOfMonth);
+        redisTemplate.execute(RECORD_SCRIPT,
+                List.of(buildKey(userId, yearMonth), buildDayKey(day), USER_INDEX_KEY, USER_SEQUENCE_KEY, USER_IDS_KEY),
+                userId, String.valueOf(dayOfMonth - 1));
     }
 
     @Override
@@ -50,23 +169,118 @@ public class RedisUserActivityAdapter implements UserActivityPort {
         return count != null ? count : 0L;
     }
 
+    /**
+     * Counts the days with {@code BITCOUNT key start end BIT}, whose range is in bits
+     * rather than bytes, so any day range is one round trip.
+     */
     @Override
     public long countActiveDaysInRange(String userId, String yearMonth, int fromDay, int toDay) {
-        String key = buildKey(userId, yearMonth);
-        // NOTE: Redis BITCOUNT range operates on byte boundaries, not bit boundaries.
-        // For bit-level precision, we iterate with GETBIT for each day in the range.
-        // This is acceptable for monthly bitmaps (max 31 days).
-        long count = 0;
-        for (int day = fromDay; day <= toDay; day++) {
-            Boolean active = redisTemplate.opsForValue().getBit(key, day - 1);
-            if (Boolean.TRUE.equals(active)) {
-                count++;
+        if (fromDay > toDay) {
+            return 0L;
+        }
+        Long count = redisTemplate.execute(BITCOUNT_BIT_RANGE_SCRIPT, List.of(buildKey(userId, yearMonth)),
+                String.valueOf(fromDay - 1), String.valueOf(toDay - 1));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * One day is a plain {@code BITCOUNT}; several days are OR-ed server-side first.
+     */
+    @Override
+    public long countActiveUsers(List<LocalDate> days) {
+        if (days.isEmpty()) {
+            return 0L;
+        }
+        Long count;
+        if (days.size() == 1) {
+            String key = buildDayKey(days.getFirst());
+            count = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.stringCommands().bitCount(key.getBytes()));
+        } else {
+            List<String> keys = new ArrayList<>(days.size() + 1);
+            keys.add(newScratchKey());
+            days.forEach(day -> keys.add(buildDayKey(day)));
+            count = redisTemplate.execute(COUNT_UNION_SCRIPT, keys);
+        }
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Counts the cohort and ANDs it with the return day in one script.
+     */
+    @Override
+    public RetentionCohort countCohortAndRetained(LocalDate cohortDay, int afterDays) {
+        List<String> keys = List.of(newScratchKey(), buildDayKey(cohortDay),
+                buildDayKey(cohortDay.plusDays(afterDays)));
+        List<?> counts = redisTemplate.execute(COUNT_COHORT_SCRIPT, keys);
+        if (counts == null || counts.size() < 2) {
+            return new RetentionCohort(cohortDay, afterDays, 0L, 0L);
+        }
+        return new RetentionCohort(cohortDay, afterDays,
+                ((Number) counts.get(0)).longValue(), ((Number) counts.get(1)).longValue());
+    }
+
+    /**
+     * Reads the whole day bitmap with one {@code GET} and converts it client-side.
+     */
+    @Override
+    public RoaringBitmap getActiveUsers(LocalDate day) {
+        byte[] key = buildDayKey(day).getBytes(StandardCharsets.UTF_8);
+        byte[] bitmap = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(key));
+        return RoaringBitmap.fromRedisBitmap(bitmap);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, Integer> resolveUserIndexes(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> ids = List.copyOf(userIds);
+        List<Object> indexes = redisTemplate.execute(RESOLVE_INDEXES_SCRIPT,
+                List.of(USER_INDEX_KEY, USER_SEQUENCE_KEY, USER_IDS_KEY), ids.toArray());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            result.put(ids.get(i), ((Number) indexes.get(i)).intValue());
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> findUserIds(int[] userIndexes) {
+        if (userIndexes.length == 0) {
+            return List.of();
+        }
+        List<Object> fields = new ArrayList<>(userIndexes.length);
+        for (int index : userIndexes) {
+            fields.add(String.valueOf(index));
+        }
+        List<Object> values = redisTemplate.opsForHash().multiGet(USER_IDS_KEY, fields);
+        List<String> userIds = new ArrayList<>(userIndexes.length);
+        for (Object value : values) {
+            if (value != null) {
+                userIds.add((String) value);
             }
         }
-        return count;
+        return userIds;
+    }
+
+    @Override
+    public int countKnownUsers() {
+        String sequence = redisTemplate.opsForValue().get(USER_SEQUENCE_KEY);
+        return sequence == null ? 0 : Integer.parseInt(sequence);
     }
 
     private String buildKey(String userId, String yearMonth) {
         return RedisKeyConvention.buildKey(SERVICE, ENTITY, userId) + ":" + yearMonth;
     }
+
+    private String buildDayKey(LocalDate day) {
+        return RedisKeyConvention.buildKey(SERVICE, DAY_ENTITY, day.format(DAY_FORMAT));
+    }
+
+    private String newScratchKey() {
+        return SCRATCH_KEY_PREFIX + UUID.randomUUID();
+    }
 }
@@ -0,0 +1,127 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+import com.tutorial.redis.module03.domain.model.SegmentExpression;
+import com.tutorial.redis.module03.domain.port.inbound.AudienceSegmentUseCase;
+import com.tutorial.redis.module03.domain.port.outbound.SegmentStorePort;
+import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Application service implementing audience segment use cases.
+ *
+ * <p>Segments are sets of user indexes — the same indexes used as bit offsets by the
+ * per-day activity bitmaps of {@link UserActivityPort} — kept as Roaring bitmaps by
+ * {@link SegmentStorePort}. Expressions are evaluated in-process: stored segments come
+ * from the adapter's decoded-bitmap cache, activity leaves are read from the day bitmaps,
+ * and AND / OR / AND-NOT run container by container on the compressed form.</p>
+ *
+ * <p>Segment updates are read-modify-write of the whole bitmap and assume one writer
+ * per segment (e.g. the batch job that maintains it).</p>
+ */
+@Service
+public class AudienceSegmentService implements AudienceSegmentUseCase {
+
+    private final SegmentStorePort segmentStorePort;
+    private final UserActivityPort userActivityPort;
+
+    public AudienceSegmentService(SegmentStorePort segmentStorePort, UserActivityPort userActivityPort) {
+        this.segmentStorePort = segmentStorePort;
+        this.userActivityPort = userActivityPort;
+    }
+
+    @Override
+    public void addUsersToSegment(String segmentName, Collection<String> userIds) {
+        RoaringBitmap added = toBitmap(userIds);
+        RoaringBitmap current = segmentStorePort.load(segmentName).orElse(RoaringBitmap.empty());
+        segmentStorePort.save(segmentName, current.or(added));
+    }
+
+    @Override
+    public void removeUsersFromSegment(String segmentName, Collection<String> userIds) {
+        segmentStorePort.load(segmentName).ifPresent(current ->
+                segmentStorePort.save(segmentName, current.andNot(toBitmap(userIds))));
+    }
+
+    @Override
+    public long materializeActiveSegment(String segmentName, LocalDate from, LocalDate to) {
+        RoaringBitmap active = evaluate(SegmentExpression.activeBetween(from, to));
+        segmentStorePort.save(segmentName, active);
+        return active.cardinality();
+    }
+
+    @Override
+    public long countAudience(SegmentExpression expression) {
+        return evaluate(expression).cardinality();
+    }
+
+    @Override
+    public List<String> findAudience(SegmentExpression expression, int limit) {
+        return userActivityPort.findUserIds(evaluate(expression).toArray(limit));
+    }
+
+    private RoaringBitmap evaluate(SegmentExpression expression) {
+        return switch (expression.getKind()) {
+            case SEGMENT -> segmentStorePort.load(expression.getSegmentName()).orElse(RoaringBitmap.empty());
+            case ACTIVE -> {
+                RoaringBitmap active = RoaringBitmap.empty();
+                for (LocalDate day = expression.getFrom(); !day.isAfter(expression.getTo()); day = day.plusDays(1)) {
+                    active = active.or(userActivityPort.getActiveUsers(day));
+                }
+                yield active;
+            }
+            case OR -> {
+                RoaringBitmap union = RoaringBitmap.empty();
+                for (SegmentExpression operand : expression.getOperands()) {
+                    union = union.or(evaluate(operand));
+                }
+                yield union;
+            }
+            case NOT -> allKnownUsers().andNot(evaluate(expression.getOperands().getFirst()));
+            case AND -> evaluateAnd(expression.getOperands());
+        };
+    }
+
+    /**
+     * Intersects the positive operands first, stopping as soon as the result is empty,
+     * then subtracts the negated ones — so "A AND NOT B" never builds the complement of B.
+     */
+    private RoaringBitmap evaluateAnd(List<SegmentExpression> operands) {
+        List<SegmentExpression> excluded = new ArrayList<>();
+        RoaringBitmap result = null;
+        for (SegmentExpression operand : operands) {
+            if (operand.getKind() == SegmentExpression.Kind.NOT) {
+                excluded.add(operand.getOperands().getFirst());
+                continue;
+            }
+            result = result == null ? evaluate(operand) : result.and(evaluate(operand));
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        if (result == null) {
+            result = allKnownUsers();
+        }
+        for (SegmentExpression operand : excluded) {
+            result = result.andNot(evaluate(operand));
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap allKnownUsers() {
+        return RoaringBitmap.range(0, userActivityPort.countKnownUsers());
+    }
+
+    private RoaringBitmap toBitmap(Collection<String> userIds) {
+        return RoaringBitmap.of(userActivityPort.resolveUserIndexes(userIds).values().stream()
+                .mapToInt(Integer::intValue).toArray());
+    }
+}
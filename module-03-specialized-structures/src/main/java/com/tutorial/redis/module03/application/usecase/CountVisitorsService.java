@@ -1,21 +1,31 @@
 package com.tutorial.redis.module03.application.usecase;
 
+import com.tutorial.redis.module03.domain.model.VisitPeriod;
 import com.tutorial.redis.module03.domain.port.inbound.CountVisitorsUseCase;
 import com.tutorial.redis.module03.domain.port.outbound.UniqueVisitorPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.YearMonth;
 
 /**
  * Application service implementing unique visitor counting use cases.
  *
  * <p>Delegates to {@link UniqueVisitorPort} for Redis HyperLogLog operations.
- * Demonstrates PFADD, PFCOUNT, and PFMERGE for probabilistic cardinality estimation.</p>
+ * Demonstrates PFADD, PFCOUNT, and PFMERGE for probabilistic cardinality estimation.
+ * Weekly and monthly counts read rollups that are maintained incrementally as days
+ * close (see {@link #rollUpClosedDays}), instead of merging up to 31 day sketches
+ * on every request.</p>
  */
 @Service
 public class CountVisitorsService implements CountVisitorsUseCase {
 
+    private static final Logger log = LoggerFactory.getLogger(CountVisitorsService.class);
+
     private final UniqueVisitorPort uniqueVisitorPort;
+    private volatile boolean legacyMergeKeysDeleted;
 
     public CountVisitorsService(UniqueVisitorPort uniqueVisitorPort) {
         this.uniqueVisitorPort = uniqueVisitorPort;
@@ -32,8 +42,34 @@ public class CountVisitorsService implements CountVisitorsUseCase {
     }
 
     @Override
-    public long getWeeklyUniqueVisitors(String pageId, List<String> dailyKeys) {
-        String destKey = "analytics:uv:" + pageId + ":weekly-merge";
-        return uniqueVisitorPort.countMergedVisitors(destKey, dailyKeys);
+    public long getWeeklyUniqueVisitors(String pageId, LocalDate dayInWeek) {
+        return uniqueVisitorPort.countRolledUpVisitors(
+                pageId, VisitPeriod.week(dayInWeek), VisitPeriod.daysOfWeek(dayInWeek));
+    }
+
+    @Override
+    public long getMonthlyUniqueVisitors(String pageId, YearMonth month) {
+        return uniqueVisitorPort.countRolledUpVisitors(
+                pageId, VisitPeriod.month(month), VisitPeriod.daysOfMonth(month));
+    }
+
+    /**
+     * Also deletes the legacy weekly-merge sketches on the first run.
+     */
+    @Override
+    public int rollUpClosedDays(LocalDate today) {
+        if (!legacyMergeKeysDeleted) {
+            uniqueVisitorPort.deleteLegacyMergeKeys();
+            legacyMergeKeysDeleted = true;
+        }
+        int rolledUp = 0;
+        for (LocalDate day : uniqueVisitorPort.findDaysPendingRollup(today)) {
+            int pages = uniqueVisitorPort.rollUpDay(day);
+            if (pages >= 0) {
+                rolledUp++;
+                log.info("Rolled up unique visitors of {} for {} pages", day, pages);
+            }
+        }
+        return rolledUp;
     }
 }
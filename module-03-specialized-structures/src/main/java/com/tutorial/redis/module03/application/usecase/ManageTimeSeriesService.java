@@ -1,5 +1,9 @@
 package com.tutorial.redis.module03.application.usecase;
 
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeries;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
 import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
 import com.tutorial.redis.module03.domain.port.inbound.ManageTimeSeriesUseCase;
 import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
@@ -12,7 +16,10 @@ import java.util.Map;
  * Application service implementing time series management use cases.
  *
  * <p>Delegates to {@link TimeSeriesPort} for Redis TimeSeries module operations.
- * Demonstrates TS.CREATE, TS.ADD, and TS.RANGE for time-based data management.</p>
+ * Demonstrates TS.CREATE, TS.ADD, and TS.RANGE for time-based data management,
+ * plus compaction rules (TS.CREATERULE), buffered multi-series ingestion (TS.MADD)
+ * label-filtered aggregated reads (TS.MRANGE) and paged columnar range reads
+ * (TS.RANGE with COUNT) backed by a compressed in-process range cache.</p>
  */
 @Service
 public class ManageTimeSeriesService implements ManageTimeSeriesUseCase {
@@ -28,6 +35,12 @@ public class ManageTimeSeriesService implements ManageTimeSeriesUseCase {
         timeSeriesPort.create(key, retentionMs, Map.of());
     }
 
+    @Override
+    public void createTimeSeries(String key, long retentionMs, Map<String, String> labels,
+                                 List<CompactionRule> rules) {
+        timeSeriesPort.create(key, retentionMs, labels, rules);
+    }
+
     @Override
     public void addDataPoint(String key, long timestamp, double value) {
         timeSeriesPort.add(key, timestamp, value);
@@ -37,4 +50,25 @@ public class ManageTimeSeriesService implements ManageTimeSeriesUseCase {
     public List<TimeSeriesDataPoint> queryRange(String key, long from, long to) {
         return timeSeriesPort.range(key, from, to);
     }
+
+    @Override
+    public TimeSeriesColumns queryRangeColumns(String key, long from, long to) {
+        return timeSeriesPort.rangeColumns(key, from, to);
+    }
+
+    @Override
+    public void ingestDataPoint(String key, long timestamp, double value) {
+        timeSeriesPort.addBuffered(key, timestamp, value);
+    }
+
+    @Override
+    public void flushIngestion() {
+        timeSeriesPort.flush();
+    }
+
+    @Override
+    public List<TimeSeries> queryByLabels(List<String> filters, long from, long to,
+                                          TimeSeriesAggregation aggregation, long bucketMs) {
+        return timeSeriesPort.multiRange(from, to, filters, aggregation, bucketMs);
+    }
 }
@@ -1,19 +1,32 @@
 package com.tutorial.redis.module03.application.usecase;
 
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
 import com.tutorial.redis.module03.domain.model.UserActivity;
 import com.tutorial.redis.module03.domain.port.inbound.TrackActivityUseCase;
 import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Application service implementing user activity tracking use cases.
  *
  * <p>Delegates to {@link UserActivityPort} for Redis Bitmap operations.
- * Demonstrates SETBIT, GETBIT, and BITCOUNT for daily activity tracking.</p>
+ * Demonstrates SETBIT, GETBIT, and BITCOUNT for daily activity tracking. Each recorded
+ * activity lands in both the per-user monthly bitmap and the per-day bitmap in one
+ * round trip, so DAU/WAU/MAU and retention cohorts are computed server-side with
+ * BITOP OR/AND + BITCOUNT instead of scanning per-user keys.</p>
  */
 @Service
 public class TrackActivityService implements TrackActivityUseCase {
 
+    private static final int WEEK_DAYS = 7;
+    private static final DateTimeFormatter YEAR_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
     private final UserActivityPort userActivityPort;
 
     public TrackActivityService(UserActivityPort userActivityPort) {
@@ -35,4 +48,38 @@ public class TrackActivityService implements TrackActivityUseCase {
         long activeDays = userActivityPort.countActiveDays(userId, yearMonth);
         return new UserActivity(userId, yearMonth, (int) activeDays, totalDaysInMonth);
     }
+
+    @Override
+    public long countActiveDaysInRange(String userId, String yearMonth, int fromDay, int toDay) {
+        return userActivityPort.countActiveDaysInRange(userId, yearMonth, fromDay, toDay);
+    }
+
+    @Override
+    public long countDailyActiveUsers(LocalDate day) {
+        return userActivityPort.countActiveUsers(List.of(day));
+    }
+
+    @Override
+    public long countWeeklyActiveUsers(LocalDate lastDay) {
+        return userActivityPort.countActiveUsers(daysBetween(lastDay.minusDays(WEEK_DAYS - 1), lastDay));
+    }
+
+    @Override
+    public long countMonthlyActiveUsers(String yearMonth) {
+        YearMonth month = YearMonth.parse(yearMonth, YEAR_MONTH_FORMAT);
+        return userActivityPort.countActiveUsers(daysBetween(month.atDay(1), month.atEndOfMonth()));
+    }
+
+    @Override
+    public RetentionCohort getRetention(LocalDate cohortDay, int afterDays) {
+        return userActivityPort.countCohortAndRetained(cohortDay, afterDays);
+    }
+
+    private static List<LocalDate> daysBetween(LocalDate first, LocalDate last) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
 }
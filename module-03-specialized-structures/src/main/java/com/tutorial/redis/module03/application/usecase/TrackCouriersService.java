@@ -0,0 +1,79 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.model.GeofenceEvent;
+import com.tutorial.redis.module03.domain.port.inbound.TrackCouriersUseCase;
+import com.tutorial.redis.module03.domain.port.outbound.CourierTrackingPort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Application service implementing courier tracking use cases.
+ *
+ * <p>Delegates to {@link CourierTrackingPort}. Single reports are buffered and written in
+ * batches; geofence ENTER/EXIT events are computed in Redis as each position is applied
+ * and appended to a stream. Couriers silent for {@value #STALE_AFTER_MS} ms are removed
+ * in batches of {@value #EXPIRY_BATCH_SIZE}.</p>
+ */
+@Service
+public class TrackCouriersService implements TrackCouriersUseCase {
+
+    static final long STALE_AFTER_MS = 300_000;
+    static final int EXPIRY_BATCH_SIZE = 1_000;
+
+    private final CourierTrackingPort courierTrackingPort;
+
+    public TrackCouriersService(CourierTrackingPort courierTrackingPort) {
+        this.courierTrackingPort = courierTrackingPort;
+    }
+
+    @Override
+    public void registerGeofence(Geofence geofence) {
+        courierTrackingPort.registerGeofence(geofence);
+    }
+
+    @Override
+    public boolean removeGeofence(String fenceId) {
+        return courierTrackingPort.removeGeofence(fenceId);
+    }
+
+    @Override
+    public void reportPosition(CourierPosition position) {
+        courierTrackingPort.recordPositionBuffered(position);
+    }
+
+    @Override
+    public int reportPositions(List<CourierPosition> positions) {
+        return courierTrackingPort.recordPositions(positions);
+    }
+
+    @Override
+    public List<String> findCouriersNearby(double longitude, double latitude, double radiusMeters, int maxResults) {
+        return courierTrackingPort.findCouriersNearby(longitude, latitude, radiusMeters, maxResults);
+    }
+
+    @Override
+    public Set<String> getCurrentFences(String courierId) {
+        return courierTrackingPort.getCurrentFences(courierId);
+    }
+
+    @Override
+    public int expireStaleCouriers(long nowMillis) {
+        long cutoff = nowMillis - STALE_AFTER_MS;
+        int total = 0;
+        int removed;
+        do {
+            removed = courierTrackingPort.removeStaleCouriers(cutoff, EXPIRY_BATCH_SIZE);
+            total += removed;
+        } while (removed == EXPIRY_BATCH_SIZE);
+        return total;
+    }
+
+    @Override
+    public List<GeofenceEvent> readGeofenceEvents(String afterEventId, int count) {
+        return courierTrackingPort.readEvents(afterEventId, count);
+    }
+}
@@ -0,0 +1,64 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.Objects;
+
+/**
+ * Downsampling rule attached to a time series at creation time (TS.CREATERULE).
+ * Every closed bucket of the source series is aggregated into a destination
+ * series named {@code {sourceKey}:{aggregation}:{bucketDurationMs}}.
+ * Immutable value object — all fields are final.
+ */
+public class CompactionRule {
+
+    private final TimeSeriesAggregation aggregation;
+    private final long bucketDurationMs;
+    private final long retentionMs;
+
+    /**
+     * @param aggregation      aggregation applied to each bucket
+     * @param bucketDurationMs bucket width in milliseconds
+     * @param retentionMs      retention of the destination series (0 = no retention)
+     */
+    public CompactionRule(TimeSeriesAggregation aggregation, long bucketDurationMs, long retentionMs) {
+        Objects.requireNonNull(aggregation, "aggregation must not be null");
+        if (bucketDurationMs <= 0) {
+            throw new IllegalArgumentException("bucketDurationMs must be greater than 0, got: " + bucketDurationMs);
+        }
+        if (retentionMs < 0) {
+            throw new IllegalArgumentException("retentionMs must not be negative, got: " + retentionMs);
+        }
+        this.aggregation = aggregation;
+        this.bucketDurationMs = bucketDurationMs;
+        this.retentionMs = retentionMs;
+    }
+
+    public TimeSeriesAggregation getAggregation() { return aggregation; }
+    public long getBucketDurationMs() { return bucketDurationMs; }
+    public long getRetentionMs() { return retentionMs; }
+
+    /**
+     * Returns the key of the compacted series for the given source series key.
+     */
+    public String destinationKey(String sourceKey) {
+        return sourceKey + ":" + aggregation.toCommandArgument() + ":" + bucketDurationMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactionRule that)) return false;
+        return bucketDurationMs == that.bucketDurationMs && retentionMs == that.retentionMs
+                && aggregation == that.aggregation;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(aggregation, bucketDurationMs, retentionMs);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactionRule{aggregation=%s, bucketDurationMs=%d, retentionMs=%d}".formatted(
+                aggregation, bucketDurationMs, retentionMs);
+    }
+}
@@ -0,0 +1,59 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.Objects;
+
+/**
+ * A position report of a moving courier.
+ * Maps to Redis Geospatial structure (GEOADD) plus a last-seen Sorted Set score.
+ * Immutable value object — all fields are final.
+ */
+public class CourierPosition {
+
+    /** Highest latitude Redis can index (Web Mercator limit). */
+    static final double MAX_LATITUDE = 85.05112878;
+
+    private final String courierId;
+    private final double longitude;
+    private final double latitude;
+    private final long timestampMillis;
+
+    public CourierPosition(String courierId, double longitude, double latitude, long timestampMillis) {
+        this.courierId = Objects.requireNonNull(courierId, "courierId must not be null");
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("longitude must be between -180 and 180, got: " + longitude);
+        }
+        if (latitude < -MAX_LATITUDE || latitude > MAX_LATITUDE) {
+            throw new IllegalArgumentException(
+                    "latitude must be between -%s and %s, got: %s".formatted(MAX_LATITUDE, MAX_LATITUDE, latitude));
+        }
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public String getCourierId() { return courierId; }
+    public double getLongitude() { return longitude; }
+    public double getLatitude() { return latitude; }
+    public long getTimestampMillis() { return timestampMillis; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CourierPosition that)) return false;
+        return Double.compare(longitude, that.longitude) == 0
+                && Double.compare(latitude, that.latitude) == 0
+                && timestampMillis == that.timestampMillis
+                && courierId.equals(that.courierId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(courierId, longitude, latitude, timestampMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "CourierPosition{courierId='%s', longitude=%.6f, latitude=%.6f, timestampMillis=%d}".formatted(
+                courierId, longitude, latitude, timestampMillis);
+    }
+}
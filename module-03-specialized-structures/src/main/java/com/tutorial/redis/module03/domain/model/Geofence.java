@@ -0,0 +1,55 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.Objects;
+
+/**
+ * A circular geofence: a center point and a radius in meters.
+ * Maps to Redis Geospatial structure (fence centers) plus a Hash of radii.
+ * Immutable value object — all fields are final.
+ */
+public class Geofence {
+
+    private final String fenceId;
+    private final double longitude;
+    private final double latitude;
+    private final double radiusMeters;
+
+    public Geofence(String fenceId, double longitude, double latitude, double radiusMeters) {
+        this.fenceId = Objects.requireNonNull(fenceId, "fenceId must not be null");
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("longitude must be between -180 and 180, got: " + longitude);
+        }
+        if (latitude < -CourierPosition.MAX_LATITUDE || latitude > CourierPosition.MAX_LATITUDE) {
+            throw new IllegalArgumentException("latitude is outside the indexable range, got: " + latitude);
+        }
+        if (radiusMeters <= 0) {
+            throw new IllegalArgumentException("radiusMeters must be greater than 0, got: " + radiusMeters);
+        }
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.radiusMeters = radiusMeters;
+    }
+
+    public String getFenceId() { return fenceId; }
+    public double getLongitude() { return longitude; }
+    public double getLatitude() { return latitude; }
+    public double getRadiusMeters() { return radiusMeters; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Geofence that)) return false;
+        return fenceId.equals(that.fenceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fenceId);
+    }
+
+    @Override
+    public String toString() {
+        return "Geofence{fenceId='%s', longitude=%.6f, latitude=%.6f, radiusMeters=%.1f}".formatted(
+                fenceId, longitude, latitude, radiusMeters);
+    }
+}
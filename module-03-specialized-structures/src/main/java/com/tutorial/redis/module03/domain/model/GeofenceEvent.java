@@ -0,0 +1,55 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.Objects;
+
+/**
+ * A courier entering or leaving a geofence.
+ * Read from the geofence event Redis Stream; {@code eventId} is the stream entry ID.
+ * Immutable value object — all fields are final.
+ */
+public class GeofenceEvent {
+
+    public enum Type { ENTER, EXIT }
+
+    private final String eventId;
+    private final String courierId;
+    private final String fenceId;
+    private final Type type;
+    private final long timestampMillis;
+
+    public GeofenceEvent(String eventId, String courierId, String fenceId, Type type, long timestampMillis) {
+        this.eventId = Objects.requireNonNull(eventId, "eventId must not be null");
+        this.courierId = Objects.requireNonNull(courierId, "courierId must not be null");
+        this.fenceId = Objects.requireNonNull(fenceId, "fenceId must not be null");
+        this.type = Objects.requireNonNull(type, "type must not be null");
+        this.timestampMillis = timestampMillis;
+    }
+
+    public String getEventId() { return eventId; }
+    public String getCourierId() { return courierId; }
+    public String getFenceId() { return fenceId; }
+    public Type getType() { return type; }
+
+    /**
+     * Time of the position report that caused the event.
+     */
+    public long getTimestampMillis() { return timestampMillis; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GeofenceEvent that)) return false;
+        return eventId.equals(that.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventId);
+    }
+
+    @Override
+    public String toString() {
+        return "GeofenceEvent{eventId='%s', courierId='%s', fenceId='%s', type=%s, timestampMillis=%d}".formatted(
+                eventId, courierId, fenceId, type, timestampMillis);
+    }
+}
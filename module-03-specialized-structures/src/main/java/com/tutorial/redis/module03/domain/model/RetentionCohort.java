@@ -0,0 +1,68 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * N-day retention of the users active on a cohort day: how many of them were active
+ * again {@code afterDays} days later.
+ * Computed from day-major Redis Bitmaps (BITOP AND + BITCOUNT).
+ * Immutable value object — all fields are final.
+ */
+public class RetentionCohort {
+
+    private final LocalDate cohortDay;
+    private final int afterDays;
+    private final long cohortSize;
+    private final long retainedUsers;
+
+    public RetentionCohort(LocalDate cohortDay, int afterDays, long cohortSize, long retainedUsers) {
+        this.cohortDay = Objects.requireNonNull(cohortDay, "cohortDay must not be null");
+        if (afterDays <= 0) {
+            throw new IllegalArgumentException("afterDays must be greater than 0, got: " + afterDays);
+        }
+        if (cohortSize < 0 || retainedUsers < 0) {
+            throw new IllegalArgumentException("user counts must not be negative");
+        }
+        if (retainedUsers > cohortSize) {
+            throw new IllegalArgumentException(
+                    "retainedUsers (%d) must not exceed cohortSize (%d)".formatted(retainedUsers, cohortSize));
+        }
+        this.afterDays = afterDays;
+        this.cohortSize = cohortSize;
+        this.retainedUsers = retainedUsers;
+    }
+
+    public LocalDate getCohortDay() { return cohortDay; }
+    public int getAfterDays() { return afterDays; }
+    public long getCohortSize() { return cohortSize; }
+    public long getRetainedUsers() { return retainedUsers; }
+
+    /**
+     * Calculates the retention rate as a ratio of retained users to the cohort size.
+     *
+     * @return retention rate between 0.0 and 1.0, or 0.0 for an empty cohort
+     */
+    public double retentionRate() {
+        return cohortSize == 0 ? 0.0 : retainedUsers / (double) cohortSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RetentionCohort that)) return false;
+        return afterDays == that.afterDays && cohortSize == that.cohortSize
+                && retainedUsers == that.retainedUsers && cohortDay.equals(that.cohortDay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cohortDay, afterDays, cohortSize, retainedUsers);
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionCohort{cohortDay=%s, afterDays=%d, cohortSize=%d, retained=%d, rate=%.2f}".formatted(
+                cohortDay, afterDays, cohortSize, retainedUsers, retentionRate());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tutorial.redis.module03.domain.model;
+
+import org.roaringbitmap.RoaringBitmapWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative {@code int} values in the Roaring layout
+ * (Chambi, Lemire et al., "Better bitmap performance with Roaring bitmaps").
+ *
+ * <p>Backed by {@code org.roaringbitmap.RoaringBitmap}: values are split by their
+ * high 16 bits into chunks of 65,536, each stored as a sorted array (up to 4,096
+ * values), a bitmap or a run container, whichever is smaller. A 1%-dense segment of
+ * 10M users therefore takes ~200 KB instead of the 1.25 MB of a raw Redis bitmap,
+ * and AND / OR / AND-NOT never decompress to a flat bitmap.</p>
+ *
+ * <p>{@link #serialize()} writes the portable Roaring format shared by the Java, C,
+ * Go and other Roaring implementations.</p>
+ *
+ * <p>Immutable value object: every operation returns a new instance.</p>
+ */
+public class RoaringBitmap {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap(new org.roaringbitmap.RoaringBitmap());
+
+    /** Never modified after construction. */
+    private final org.roaringbitmap.RoaringBitmap bitmap;
+
+    private RoaringBitmap(org.roaringbitmap.RoaringBitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    public static RoaringBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a bitmap from values in any order; duplicates are ignored.
+     */
+    public static RoaringBitmap of(int... values) {
+        for (int value : values) {
+            if (value < 0) {
+                throw new IllegalArgumentException("values must not be negative, got: " + value);
+            }
+        }
+        return new RoaringBitmap(org.roaringbitmap.RoaringBitmap.bitmapOf(values));
+    }
+
+    /**
+     * Creates a bitmap holding every value in {@code [fromInclusive, toExclusive)}.
+     */
+    public static RoaringBitmap range(int fromInclusive, int toExclusive) {
+        if (fromInclusive < 0 || toExclusive < fromInclusive) {
+            throw new IllegalArgumentException("invalid range [%d, %d)".formatted(fromInclusive, toExclusive));
+        }
+        if (fromInclusive == toExclusive) {
+            return EMPTY;
+        }
+        return new RoaringBitmap(org.roaringbitmap.RoaringBitmap.bitmapOfRange(fromInclusive, toExclusive));
+    }
+
+    /**
+     * Converts a raw Redis bitmap (as returned by {@code GET} on a key written with
+     * {@code SETBIT}) — bit {@code n} is the most significant bit of byte {@code n / 8}.
+     */
+    public static RoaringBitmap fromRedisBitmap(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        RoaringBitmapWriter<org.roaringbitmap.RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+        for (int i = 0; i < bytes.length; i++) {
+            int bits = bytes[i] & 0xFF;
+            while (bits != 0) {
+                // Redis numbers bits from the MSB of each byte, so the highest set bit comes first
+                int msb = Integer.numberOfLeadingZeros(bits) - 24;
+                writer.add(i * 8 + msb);
+                bits &= ~(0x80 >>> msb);
+            }
+        }
+        return new RoaringBitmap(writer.get());
+    }
+
+    /**
+     * Restores a bitmap written by {@link #serialize()}.
+     *
+     * @throws IllegalArgumentException if {@code data} is not a portable Roaring bitmap
+     *                                  of non-negative values
+     */
+    public static RoaringBitmap deserialize(byte[] data) {
+        org.roaringbitmap.RoaringBitmap bitmap = new org.roaringbitmap.RoaringBitmap();
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(data));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid serialized Roaring bitmap", e);
+        }
+        if (!bitmap.isEmpty() && bitmap.last() < 0) {
+            throw new IllegalArgumentException("Serialized Roaring bitmap holds values above Integer.MAX_VALUE");
+        }
+        return new RoaringBitmap(bitmap);
+    }
+
+    /**
+     * Serializes the bitmap in the portable Roaring format.
+     */
+    public byte[] serialize() {
+        ByteBuffer out = ByteBuffer.allocate(serializedSizeInBytes());
+        bitmap.serialize(out);
+        return out.array();
+    }
+
+    public int serializedSizeInBytes() {
+        return bitmap.serializedSizeInBytes();
+    }
+
+    public long cardinality() {
+        return bitmap.getLongCardinality();
+    }
+
+    public boolean isEmpty() {
+        return bitmap.isEmpty();
+    }
+
+    public boolean contains(int value) {
+        return value >= 0 && bitmap.contains(value);
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        return new RoaringBitmap(org.roaringbitmap.RoaringBitmap.and(bitmap, other.bitmap));
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        return new RoaringBitmap(org.roaringbitmap.RoaringBitmap.or(bitmap, other.bitmap));
+    }
+
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        return new RoaringBitmap(org.roaringbitmap.RoaringBitmap.andNot(bitmap, other.bitmap));
+    }
+
+    /**
+     * Visits every value in ascending order.
+     */
+    public void forEach(IntConsumer consumer) {
+        bitmap.forEach((org.roaringbitmap.IntConsumer) consumer::accept);
+    }
+
+    /**
+     * Returns the smallest {@code limit} values in ascending order.
+     */
+    public int[] toArray(int limit) {
+        return bitmap.limit(limit).toArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RoaringBitmap that)) return false;
+        return bitmap.equals(that.bitmap);
+    }
+
+    @Override
+    public int hashCode() {
+        return bitmap.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringBitmap{cardinality=%d, bytes=%d}".formatted(cardinality(), serializedSizeInBytes());
+    }
+}
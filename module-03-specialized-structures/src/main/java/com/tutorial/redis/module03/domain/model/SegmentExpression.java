@@ -0,0 +1,110 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Boolean audience expression over user sets, e.g.
+ * {@code active(2026-02-01..2026-02-07) AND segment(tag:vip) AND NOT segment(churned)}.
+ *
+ * <p>Leaves are either a stored segment or the users active during a day range; inner
+ * nodes combine them with AND, OR and NOT. NOT inside an AND is evaluated as AND-NOT;
+ * elsewhere it is the complement within all known users.</p>
+ *
+ * Immutable value object — all fields are final.
+ */
+public class SegmentExpression {
+
+    public enum Kind { SEGMENT, ACTIVE, AND, OR, NOT }
+
+    private final Kind kind;
+    private final String segmentName;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<SegmentExpression> operands;
+
+    private SegmentExpression(Kind kind, String segmentName, LocalDate from, LocalDate to,
+                              List<SegmentExpression> operands) {
+        this.kind = kind;
+        this.segmentName = segmentName;
+        this.from = from;
+        this.to = to;
+        this.operands = operands;
+    }
+
+    /**
+     * Members of a stored segment.
+     */
+    public static SegmentExpression segment(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        if (name.isBlank()) {
+            throw new IllegalArgumentException("segment name must not be blank");
+        }
+        return new SegmentExpression(Kind.SEGMENT, name, null, null, List.of());
+    }
+
+    /**
+     * Users active on at least one day in {@code [from, to]}.
+     */
+    public static SegmentExpression activeBetween(LocalDate from, LocalDate to) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to (%s) must not be before from (%s)".formatted(to, from));
+        }
+        return new SegmentExpression(Kind.ACTIVE, null, from, to, List.of());
+    }
+
+    public static SegmentExpression and(SegmentExpression... operands) {
+        return combine(Kind.AND, operands);
+    }
+
+    public static SegmentExpression or(SegmentExpression... operands) {
+        return combine(Kind.OR, operands);
+    }
+
+    public static SegmentExpression not(SegmentExpression operand) {
+        Objects.requireNonNull(operand, "operand must not be null");
+        return new SegmentExpression(Kind.NOT, null, null, null, List.of(operand));
+    }
+
+    private static SegmentExpression combine(Kind kind, SegmentExpression... operands) {
+        if (operands.length == 0) {
+            throw new IllegalArgumentException(kind + " requires at least one operand");
+        }
+        return new SegmentExpression(kind, null, null, null, List.of(operands));
+    }
+
+    public Kind getKind() { return kind; }
+    public String getSegmentName() { return segmentName; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public List<SegmentExpression> getOperands() { return operands; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SegmentExpression that)) return false;
+        return kind == that.kind && Objects.equals(segmentName, that.segmentName)
+                && Objects.equals(from, that.from) && Objects.equals(to, that.to)
+                && operands.equals(that.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, segmentName, from, to, operands);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case SEGMENT -> "segment(%s)".formatted(segmentName);
+            case ACTIVE -> "active(%s..%s)".formatted(from, to);
+            case NOT -> "NOT " + operands.getFirst();
+            case AND, OR -> operands.stream().map(SegmentExpression::toString)
+                    .collect(Collectors.joining(" " + kind + " ", "(", ")"));
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.tutorial.redis.module03.domain.model;
+
+/**
+ * Aggregation functions supported by Redis TimeSeries compaction rules
+ * ({@code TS.CREATERULE ... AGGREGATION}) and aggregated range queries
+ * ({@code TS.MRANGE ... AGGREGATION}).
+ */
+public enum TimeSeriesAggregation {
+    AVG, SUM, MIN, MAX, COUNT, FIRST, LAST, RANGE;
+
+    /**
+     * Returns the aggregator name as used by the TS.* commands.
+     */
+    public String toCommandArgument() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,108 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Column-oriented block of time series samples: timestamps and values are held in
+ * primitive {@code long[]} / {@code double[]} arrays instead of one
+ * {@link TimeSeriesDataPoint} object per sample, so wide range reads allocate two
+ * arrays rather than millions of small objects.
+ *
+ * <p>The arrays are owned by this instance and never exposed; use the indexed
+ * accessors in hot loops, or the copying accessors when an array is needed.</p>
+ */
+public class TimeSeriesColumns {
+
+    private static final TimeSeriesColumns EMPTY = new TimeSeriesColumns(new long[0], new double[0], 0);
+
+    private final long[] timestamps;
+    private final double[] values;
+    private final int size;
+
+    /**
+     * Wraps the first {@code size} entries of the given arrays without copying them;
+     * callers hand over ownership and must not modify the arrays afterwards.
+     */
+    public TimeSeriesColumns(long[] timestamps, double[] values, int size) {
+        Objects.requireNonNull(timestamps, "timestamps must not be null");
+        Objects.requireNonNull(values, "values must not be null");
+        if (size < 0 || size > timestamps.length || size > values.length) {
+            throw new IllegalArgumentException("size must be within both arrays, got: " + size);
+        }
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = size;
+    }
+
+    public static TimeSeriesColumns empty() {
+        return EMPTY;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[Objects.checkIndex(index, size)];
+    }
+
+    public double getValue(int index) {
+        return values[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Returns a copy of the timestamp column.
+     */
+    public long[] toTimestampArray() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    /**
+     * Returns a copy of the value column.
+     */
+    public double[] toValueArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Materializes the columns as data point objects, for callers that need the row form.
+     */
+    public List<TimeSeriesDataPoint> toDataPoints() {
+        List<TimeSeriesDataPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new TimeSeriesDataPoint(timestamps[i], values[i]));
+        }
+        return points;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimeSeriesColumns that)) return false;
+        return size == that.size
+                && Arrays.equals(timestamps, 0, size, that.timestamps, 0, size)
+                && Arrays.equals(values, 0, size, that.values, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Integer.hashCode(size);
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Long.hashCode(timestamps[i]);
+            result = 31 * result + Double.hashCode(values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return size == 0
+                ? "TimeSeriesColumns{size=0}"
+                : "TimeSeriesColumns{size=%d, from=%d, to=%d}".formatted(size, timestamps[0], timestamps[size - 1]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.util.Objects;
+
+/**
+ * A data point addressed to a specific time series key, used for
+ * multi-series batch ingestion (TS.MADD).
+ * Immutable value object — all fields are final.
+ */
+public class TimeSeriesSample {
+
+    private final String key;
+    private final long timestamp;
+    private final double value;
+
+    public TimeSeriesSample(String key, long timestamp, double value) {
+        this.key = Objects.requireNonNull(key, "key must not be null");
+        if (timestamp <= 0) {
+            throw new IllegalArgumentException("timestamp must be greater than 0, got: " + timestamp);
+        }
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    public String getKey() { return key; }
+    public long getTimestamp() { return timestamp; }
+    public double getValue() { return value; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimeSeriesSample that)) return false;
+        return timestamp == that.timestamp && Double.compare(that.value, value) == 0 && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, timestamp, value);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSeriesSample{key='%s', timestamp=%d, value=%.4f}".formatted(key, timestamp, value);
+    }
+}
@@ -0,0 +1,43 @@
+package com.tutorial.redis.module03.domain.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+/**
+ * Period identifiers used in unique visitor keys: days ({@code 2026-02-20}),
+ * ISO weeks ({@code 2026-W08}) and months ({@code 2026-02}).
+ * A day is rolled up into the ISO week and the calendar month that contain it.
+ */
+public final class VisitPeriod {
+
+    private VisitPeriod() {
+    }
+
+    public static String day(LocalDate day) {
+        return day.toString();
+    }
+
+    public static String week(LocalDate day) {
+        return "%d-W%02d".formatted(
+                day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    public static String month(YearMonth month) {
+        return month.toString();
+    }
+
+    /**
+     * Returns the seven days (Monday to Sunday) of the ISO week containing the given day.
+     */
+    public static List<LocalDate> daysOfWeek(LocalDate day) {
+        LocalDate monday = day.with(DayOfWeek.MONDAY);
+        return monday.datesUntil(monday.plusDays(7)).toList();
+    }
+
+    public static List<LocalDate> daysOfMonth(YearMonth month) {
+        return month.atDay(1).datesUntil(month.atEndOfMonth().plusDays(1)).toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.tutorial.redis.module03.domain.port.inbound;
+
+import com.tutorial.redis.module03.domain.model.SegmentExpression;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inbound port: build audience segments and evaluate boolean audience queries
+ * over them, using compressed Roaring bitmaps persisted in Redis.
+ */
+public interface AudienceSegmentUseCase {
+
+    /**
+     * Adds users to a stored segment, creating it if needed.
+     *
+     * @param segmentName the segment name, e.g. {@code tag:vip}
+     * @param userIds     the users to add
+     */
+    void addUsersToSegment(String segmentName, Collection<String> userIds);
+
+    /**
+     * Removes users from a stored segment.
+     *
+     * @param segmentName the segment name
+     * @param userIds     the users to remove
+     */
+    void removeUsersFromSegment(String segmentName, Collection<String> userIds);
+
+    /**
+     * Stores the users active during a day range as a segment, so that frequent
+     * queries such as "active last 7 days" do not re-read every day bitmap.
+     *
+     * @param segmentName the segment name
+     * @param from        first day (inclusive)
+     * @param to          last day (inclusive)
+     * @return the number of users in the segment
+     */
+    long materializeActiveSegment(String segmentName, LocalDate from, LocalDate to);
+
+    /**
+     * Counts the users matching an audience expression.
+     *
+     * @param expression the audience expression
+     * @return the number of matching users
+     */
+    long countAudience(SegmentExpression expression);
+
+    /**
+     * Returns matching users, in user-index order.
+     *
+     * @param expression the audience expression
+     * @param limit      maximum number of users to return
+     * @return the identifiers of the matching users
+     */
+    List<String> findAudience(SegmentExpression expression, int limit);
+}
@@ -1,6 +1,7 @@
 package com.tutorial.redis.module03.domain.port.inbound;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.YearMonth;
 
 /**
  * Inbound port: count unique visitors using Redis HyperLogLog structure.
@@ -26,12 +27,32 @@ public interface CountVisitorsUseCase {
     long getDailyUniqueVisitors(String pageId, String date);
 
     /**
-     * Gets the estimated number of unique visitors across multiple daily keys (e.g., a week).
-     * Uses PFMERGE to combine daily HyperLogLogs.
+     * Gets the estimated number of unique visitors for a page in the ISO week containing
+     * the given day. Reads the precomputed week rollup plus the days not yet rolled up,
+     * without merging into a temporary key.
      *
      * @param pageId    the page identifier
-     * @param dailyKeys the list of daily keys to merge
-     * @return the estimated unique visitor count across the merged period
+     * @param dayInWeek any day of the week
+     * @return the estimated unique visitor count across the week
      */
-    long getWeeklyUniqueVisitors(String pageId, List<String> dailyKeys);
+    long getWeeklyUniqueVisitors(String pageId, LocalDate dayInWeek);
+
+    /**
+     * Gets the estimated number of unique visitors for a page in a calendar month.
+     * Reads the precomputed month rollup plus the days not yet rolled up.
+     *
+     * @param pageId the page identifier
+     * @param month  the month
+     * @return the estimated unique visitor count across the month
+     */
+    long getMonthlyUniqueVisitors(String pageId, YearMonth month);
+
+    /**
+     * Rolls every closed day (before {@code today}) with recorded visits into its week
+     * and month rollups, oldest first.
+     *
+     * @param today the first day that is still open
+     * @return the number of days rolled up
+     */
+    int rollUpClosedDays(LocalDate today);
 }
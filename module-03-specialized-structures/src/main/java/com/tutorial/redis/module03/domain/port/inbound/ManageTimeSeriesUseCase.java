@@ -1,8 +1,13 @@
 package com.tutorial.redis.module03.domain.port.inbound;
 
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeries;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
 import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Inbound port: manage time series data using Redis TimeSeries module.
@@ -17,6 +22,16 @@ public interface ManageTimeSeriesUseCase {
      */
     void createTimeSeries(String key, long retentionMs);
 
+    /**
+     * Creates a new labelled time series with compaction rules attached.
+     *
+     * @param key         the time series key
+     * @param retentionMs data retention period in milliseconds (0 = no retention)
+     * @param labels      metadata labels used by label queries
+     * @param rules       downsampling rules, each writing to its own compacted series
+     */
+    void createTimeSeries(String key, long retentionMs, Map<String, String> labels, List<CompactionRule> rules);
+
     /**
      * Adds a data point to a time series.
      *
@@ -26,6 +41,21 @@ public interface ManageTimeSeriesUseCase {
      */
     void addDataPoint(String key, long timestamp, double value);
 
+    /**
+     * Ingests a data point through the buffered TS.MADD path; the point becomes
+     * visible once its batch is flushed (batch size or linger time).
+     *
+     * @param key       the time series key
+     * @param timestamp epoch timestamp in milliseconds
+     * @param value     the data point value
+     */
+    void ingestDataPoint(String key, long timestamp, double value);
+
+    /**
+     * Writes all buffered data points before returning.
+     */
+    void flushIngestion();
+
     /**
      * Queries data points within a time range.
      *
@@ -35,4 +65,28 @@ public interface ManageTimeSeriesUseCase {
      * @return list of data points within the range, ordered by timestamp ascending
      */
     List<TimeSeriesDataPoint> queryRange(String key, long from, long to);
+
+    /**
+     * Queries data points within a time range as primitive timestamp/value columns,
+     * for wide ranges where one object per sample would be too costly.
+     *
+     * @param key  the time series key
+     * @param from start timestamp in milliseconds (inclusive)
+     * @param to   end timestamp in milliseconds (inclusive)
+     * @return the samples within the range, ordered by timestamp ascending
+     */
+    TimeSeriesColumns queryRangeColumns(String key, long from, long to);
+
+    /**
+     * Queries all series whose labels match the filters, aggregated into buckets.
+     *
+     * @param filters     label filters, e.g. {@code type=temperature}
+     * @param from        start timestamp in milliseconds (inclusive)
+     * @param to          end timestamp in milliseconds (inclusive)
+     * @param aggregation aggregation to apply, or null for raw samples
+     * @param bucketMs    bucket width in milliseconds
+     * @return one time series per matching key
+     */
+    List<TimeSeries> queryByLabels(List<String> filters, long from, long to,
+                                   TimeSeriesAggregation aggregation, long bucketMs);
 }
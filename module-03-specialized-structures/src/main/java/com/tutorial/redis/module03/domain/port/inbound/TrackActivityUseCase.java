@@ -1,7 +1,10 @@
 package com.tutorial.redis.module03.domain.port.inbound;
 
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
 import com.tutorial.redis.module03.domain.model.UserActivity;
 
+import java.time.LocalDate;
+
 /**
  * Inbound port: track user daily activity using Redis Bitmap structure.
  */
@@ -35,4 +38,49 @@ public interface TrackActivityUseCase {
      * @return the user's activity summary for the month
      */
     UserActivity getMonthlyActivity(String userId, String yearMonth, int totalDaysInMonth);
+
+    /**
+     * Counts the days a user was active within a day range of a month.
+     *
+     * @param userId    the user identifier
+     * @param yearMonth the year-month string (format "YYYYMM")
+     * @param fromDay   start day (1-based, inclusive)
+     * @param toDay     end day (1-based, inclusive)
+     * @return the number of active days within the range
+     */
+    long countActiveDaysInRange(String userId, String yearMonth, int fromDay, int toDay);
+
+    /**
+     * Counts the distinct users active on a day (DAU).
+     *
+     * @param day the calendar day
+     * @return the number of active users
+     */
+    long countDailyActiveUsers(LocalDate day);
+
+    /**
+     * Counts the distinct users active during the 7 days ending on the given day (WAU).
+     *
+     * @param lastDay the last day of the 7-day window (inclusive)
+     * @return the number of active users
+     */
+    long countWeeklyActiveUsers(LocalDate lastDay);
+
+    /**
+     * Counts the distinct users active during a calendar month (MAU).
+     *
+     * @param yearMonth the year-month string (format "YYYYMM")
+     * @return the number of active users
+     */
+    long countMonthlyActiveUsers(String yearMonth);
+
+    /**
+     * Computes N-day retention: of the users active on the cohort day, how many were
+     * active again exactly {@code afterDays} days later.
+     *
+     * @param cohortDay the day defining the cohort
+     * @param afterDays the number of days until the return day
+     * @return the cohort size, retained users and retention rate
+     */
+    RetentionCohort getRetention(LocalDate cohortDay, int afterDays);
 }
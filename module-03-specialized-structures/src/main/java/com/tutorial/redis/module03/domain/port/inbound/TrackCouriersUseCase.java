@@ -0,0 +1,67 @@
+package com.tutorial.redis.module03.domain.port.inbound;
+
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.model.GeofenceEvent;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inbound port: track courier positions and geofence crossings using Redis Geospatial
+ * structure and Streams.
+ */
+public interface TrackCouriersUseCase {
+
+    /**
+     * Registers or replaces a geofence.
+     */
+    void registerGeofence(Geofence geofence);
+
+    /**
+     * Removes a geofence.
+     *
+     * @return true if the geofence existed
+     */
+    boolean removeGeofence(String fenceId);
+
+    /**
+     * Accepts a position report; it is written with the next batch, within a few
+     * tens of milliseconds.
+     */
+    void reportPosition(CourierPosition position);
+
+    /**
+     * Writes a batch of position reports immediately.
+     *
+     * @return the number of geofence events emitted
+     */
+    int reportPositions(List<CourierPosition> positions);
+
+    /**
+     * Finds couriers near a coordinate, nearest first.
+     *
+     * @param radiusMeters search radius in meters
+     * @param maxResults   maximum number of couriers to return
+     */
+    List<String> findCouriersNearby(double longitude, double latitude, double radiusMeters, int maxResults);
+
+    /**
+     * Returns the IDs of the geofences the courier is currently inside.
+     */
+    Set<String> getCurrentFences(String courierId);
+
+    /**
+     * Removes every courier that has not reported a position for the stale period,
+     * emitting EXIT events for the geofences they were inside.
+     *
+     * @param nowMillis the current time
+     * @return the number of couriers removed
+     */
+    int expireStaleCouriers(long nowMillis);
+
+    /**
+     * Reads geofence events that follow the given event ID ({@code "0-0"} for the oldest).
+     */
+    List<GeofenceEvent> readGeofenceEvents(String afterEventId, int count);
+}
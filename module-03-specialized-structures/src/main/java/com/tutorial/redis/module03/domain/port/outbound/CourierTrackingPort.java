@@ -0,0 +1,72 @@
+package com.tutorial.redis.module03.domain.port.outbound;
+
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.model.GeofenceEvent;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outbound port for tracking moving couriers and the geofences they enter and leave.
+ * Uses Redis Geospatial structure (GEOADD / GEOSEARCH), a Sorted Set of last-seen
+ * timestamps and a Stream of geofence events.
+ * Implemented by Redis adapter in the infrastructure layer.
+ */
+public interface CourierTrackingPort {
+
+    /**
+     * Registers or replaces a circular geofence.
+     */
+    void registerGeofence(Geofence geofence);
+
+    /**
+     * Removes a geofence. Couriers still inside it get an EXIT event on their next update.
+     *
+     * @return true if the geofence existed
+     */
+    boolean removeGeofence(String fenceId);
+
+    /**
+     * Applies position reports immediately and emits the resulting geofence events.
+     * A report older than the courier's last-seen timestamp is ignored.
+     *
+     * @return number of geofence events emitted
+     */
+    int recordPositions(List<CourierPosition> positions);
+
+    /**
+     * Buffers a position report; only the newest report per courier is kept until the
+     * next flush.
+     */
+    void recordPositionBuffered(CourierPosition position);
+
+    /**
+     * Writes all buffered position reports to Redis.
+     */
+    void flush();
+
+    /**
+     * Finds couriers near a coordinate (GEOSEARCH), nearest first.
+     */
+    List<String> findCouriersNearby(double longitude, double latitude, double radiusMeters, int count);
+
+    /**
+     * Returns the IDs of the geofences the courier is currently inside.
+     */
+    Set<String> getCurrentFences(String courierId);
+
+    /**
+     * Removes up to {@code limit} couriers last seen before the given time, emitting an
+     * EXIT event for every geofence they were inside.
+     *
+     * @return number of couriers removed
+     */
+    int removeStaleCouriers(long seenBeforeMillis, int limit);
+
+    /**
+     * Reads geofence events that follow the given event ID ({@code "0-0"} to read from the
+     * beginning), oldest first.
+     */
+    List<GeofenceEvent> readEvents(String afterEventId, int count);
+}
@@ -0,0 +1,38 @@
+package com.tutorial.redis.module03.domain.port.outbound;
+
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+
+import java.util.Optional;
+
+/**
+ * Outbound port for named audience segments — sets of user indexes stored as
+ * serialized Roaring bitmaps (chunked Redis Strings).
+ * Implemented by Redis adapter in the infrastructure layer.
+ */
+public interface SegmentStorePort {
+
+    /**
+     * Replaces the members of a segment. Readers see either the old or the new
+     * members, never a mix.
+     *
+     * @param name    the segment name, e.g. {@code tag:vip}
+     * @param members the user indexes in the segment
+     */
+    void save(String name, RoaringBitmap members);
+
+    /**
+     * Loads a segment, from the in-process cache when it has not changed since the last load.
+     *
+     * @param name the segment name
+     * @return the segment members, or empty if the segment does not exist
+     */
+    Optional<RoaringBitmap> load(String name);
+
+    /**
+     * Deletes a segment.
+     *
+     * @param name the segment name
+     * @return true if the segment existed
+     */
+    boolean delete(String name);
+}
@@ -1,14 +1,21 @@
 package com.tutorial.redis.module03.domain.port.outbound;
 
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeries;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
 import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
+import com.tutorial.redis.module03.domain.model.TimeSeriesSample;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Outbound port for time series operations.
- * Uses Redis TimeSeries module commands (TS.CREATE / TS.ADD / TS.RANGE / TS.GET).
+ * Uses Redis TimeSeries module commands (TS.CREATE / TS.CREATERULE / TS.ADD / TS.MADD /
+ * TS.RANGE / TS.MRANGE / TS.GET).
  * Implemented by Redis adapter in the infrastructure layer.
  */
 public interface TimeSeriesPort {
@@ -22,6 +29,18 @@ public interface TimeSeriesPort {
      */
     void create(String key, long retentionMs, Map<String, String> labels);
 
+    /**
+     * Creates a new time series together with its compaction rules (TS.CREATE + TS.CREATERULE).
+     * Each rule's destination series is created with the source labels plus
+     * {@code aggregation} and {@code bucket} labels, so it can be selected by label queries.
+     *
+     * @param key         the time series key
+     * @param retentionMs data retention period in milliseconds (0 = no retention)
+     * @param labels      metadata labels for the time series
+     * @param rules       compaction rules to attach
+     */
+    void create(String key, long retentionMs, Map<String, String> labels, List<CompactionRule> rules);
+
     /**
      * Adds a data point with an explicit timestamp (TS.ADD).
      *
@@ -39,6 +58,28 @@ public interface TimeSeriesPort {
      */
     void addAutoTimestamp(String key, double value);
 
+    /**
+     * Adds data points to any number of existing series in one round trip (TS.MADD).
+     *
+     * @param samples the samples to add
+     */
+    void addAll(List<TimeSeriesSample> samples);
+
+    /**
+     * Queues a data point for buffered ingestion. Buffered samples are written with
+     * TS.MADD once a batch fills up or the linger time elapses, whichever comes first.
+     *
+     * @param key       the time series key
+     * @param timestamp epoch timestamp in milliseconds
+     * @param value     the data point value
+     */
+    void addBuffered(String key, long timestamp, double value);
+
+    /**
+     * Writes all currently buffered samples before returning.
+     */
+    void flush();
+
     /**
      * Retrieves data points within a time range (TS.RANGE).
      *
@@ -49,6 +90,31 @@ public interface TimeSeriesPort {
      */
     List<TimeSeriesDataPoint> range(String key, long fromTimestamp, long toTimestamp);
 
+    /**
+     * Retrieves data points within a time range as primitive columns, without creating
+     * one object per sample. Recently read ranges may be served from an in-process cache.
+     *
+     * @param key           the time series key
+     * @param fromTimestamp start timestamp in milliseconds (inclusive)
+     * @param toTimestamp   end timestamp in milliseconds (inclusive)
+     * @return the samples within the range, ordered by timestamp ascending
+     */
+    TimeSeriesColumns rangeColumns(String key, long fromTimestamp, long toTimestamp);
+
+    /**
+     * Streams a time range page by page (TS.RANGE with COUNT), handing each page to the
+     * consumer as primitive columns. Only one page is held in memory at a time.
+     *
+     * @param key           the time series key
+     * @param fromTimestamp start timestamp in milliseconds (inclusive)
+     * @param toTimestamp   end timestamp in milliseconds (inclusive)
+     * @param pageSize      maximum number of samples per page
+     * @param pageConsumer  receives each page, in timestamp order
+     * @return the total number of samples streamed
+     */
+    long streamRange(String key, long fromTimestamp, long toTimestamp, int pageSize,
+                     Consumer<TimeSeriesColumns> pageConsumer);
+
     /**
      * Retrieves the latest data point (TS.GET).
      *
@@ -56,4 +122,18 @@ public interface TimeSeriesPort {
      * @return the latest data point, or empty if the time series has no data
      */
     Optional<TimeSeriesDataPoint> getLatest(String key);
+
+    /**
+     * Queries every series matching the label filters within a time range (TS.MRANGE),
+     * optionally aggregated into buckets.
+     *
+     * @param fromTimestamp start timestamp in milliseconds (inclusive)
+     * @param toTimestamp   end timestamp in milliseconds (inclusive)
+     * @param filters       label filters such as {@code sensor=temp-01} or {@code region=(north,south)}
+     * @param aggregation   aggregation to apply, or null for raw samples
+     * @param bucketMs      bucket width in milliseconds (ignored without aggregation)
+     * @return one time series per matching key
+     */
+    List<TimeSeries> multiRange(long fromTimestamp, long toTimestamp, List<String> filters,
+                                TimeSeriesAggregation aggregation, long bucketMs);
 }
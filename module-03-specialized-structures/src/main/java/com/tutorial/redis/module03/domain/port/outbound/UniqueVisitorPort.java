@@ -1,5 +1,6 @@
 package com.tutorial.redis.module03.domain.port.outbound;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -11,6 +12,8 @@ public interface UniqueVisitorPort {
 
     /**
      * Adds a visitor to the HyperLogLog for a page and period (PFADD).
+     * When the period is a day that has already been rolled up, the visitor is also
+     * added to the week and month rollups of that day.
      *
      * @param pageId    the page identifier
      * @param period    the time period (e.g., "2026-02-20", "2026-W08", "2026-02")
@@ -29,11 +32,44 @@ public interface UniqueVisitorPort {
     long countVisitors(String pageId, String period);
 
     /**
-     * Merges multiple HyperLogLog source keys into a destination and returns the count (PFMERGE + PFCOUNT).
+     * Counts the unique visitors of a week or month without writing any key: a single
+     * multi-key PFCOUNT over the rollup and the days not yet rolled up into it.
+     * Recently computed counts may be served from an in-process cache. Rollups are kept
+     * apart from visitors added directly to a week or month period.
      *
-     * @param destKey    the destination key for the merged HyperLogLog
-     * @param sourceKeys the list of source keys to merge
-     * @return the estimated unique visitor count of the merged set
+     * <p>With no {@code days}, counts the rollup alone.</p>
+     *
+     * @param pageId       the page identifier
+     * @param rollupPeriod the week or month period (e.g., "2026-W08", "2026-02")
+     * @param days         the days that make up the period
+     * @return the estimated unique visitor count across the period
+     */
+    long countRolledUpVisitors(String pageId, String rollupPeriod, List<LocalDate> days);
+
+    /**
+     * Returns the days with recorded visits that have not been rolled up yet and lie
+     * strictly before the given day, in ascending order.
+     *
+     * @param before the first day that is still open
+     * @return the closed days awaiting rollup
+     */
+    List<LocalDate> findDaysPendingRollup(LocalDate before);
+
+    /**
+     * Merges the day HyperLogLog of every page visited on the given day into its week and
+     * month rollups (PFMERGE) and marks the day as rolled up. Days must be rolled up in
+     * ascending order; a day that has already been rolled up is skipped.
+     *
+     * @param day the closed day
+     * @return the number of pages rolled up, or -1 if the day had already been rolled up
+     */
+    int rollUpDay(LocalDate day);
+
+    /**
+     * Deletes the merge destination sketches that earlier versions wrote for weekly
+     * counts and never expired. Runs once; later calls return 0.
+     *
+     * @return the number of sketches deleted
      */
-    long countMergedVisitors(String destKey, List<String> sourceKeys);
+    long deleteLegacyMergeKeys();
 }
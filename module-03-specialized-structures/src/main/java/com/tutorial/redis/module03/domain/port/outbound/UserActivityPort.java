@@ -1,14 +1,24 @@
 package com.tutorial.redis.module03.domain.port.outbound;
 
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Outbound port for user activity tracking operations.
- * Uses Redis Bitmap structure (SETBIT / GETBIT / BITCOUNT).
+ * Uses Redis Bitmap structure (SETBIT / GETBIT / BITCOUNT / BITOP), with a per-user
+ * monthly layout for individual history and a per-day layout for population counts.
  * Implemented by Redis adapter in the infrastructure layer.
  */
 public interface UserActivityPort {
 
     /**
-     * Records that a user was active on a given day (SETBIT).
+     * Records that a user was active on a given day (SETBIT), in both the per-user
+     * monthly bitmap and the per-day bitmap of all users.
      *
      * @param userId     the user identifier
      * @param yearMonth  the year-month string (format "YYYYMM")
@@ -36,7 +46,7 @@ public interface UserActivityPort {
     long countActiveDays(String userId, String yearMonth);
 
     /**
-     * Counts the number of active days within a day range in a month (BITCOUNT with range).
+     * Counts the number of active days within a day range in a month (BITCOUNT with a bit range).
      *
      * @param userId    the user identifier
      * @param yearMonth the year-month string (format "YYYYMM")
@@ -45,4 +55,58 @@ public interface UserActivityPort {
      * @return the number of active days within the range
      */
     long countActiveDaysInRange(String userId, String yearMonth, int fromDay, int toDay);
+
+    /**
+     * Counts the distinct users active on at least one of the given days
+     * (BITCOUNT for one day, BITOP OR + BITCOUNT for several) — DAU, WAU or MAU
+     * depending on the days passed.
+     *
+     * @param days the calendar days to include
+     * @return the number of distinct active users
+     */
+    long countActiveUsers(List<LocalDate> days);
+
+    /**
+     * Counts the users active on the cohort day and those of them active again
+     * {@code afterDays} days later, in one atomic step, so the two counts are consistent
+     * with each other (BITCOUNT + BITOP AND + BITCOUNT).
+     *
+     * @param cohortDay the day defining the cohort
+     * @param afterDays the number of days after the cohort day on which a return counts
+     * @return the cohort with its retained users
+     */
+    RetentionCohort countCohortAndRetained(LocalDate cohortDay, int afterDays);
+
+    /**
+     * Returns the users active on a day as a compressed bitmap of user indexes (GET of
+     * the day bitmap, converted client-side).
+     *
+     * @param day the calendar day
+     * @return the indexes of the active users
+     */
+    RoaringBitmap getActiveUsers(LocalDate day);
+
+    /**
+     * Returns the dense numeric index of each user, assigning indexes to users seen
+     * for the first time. The index is the user's bit offset in the per-day bitmaps.
+     *
+     * @param userIds the user identifiers
+     * @return userId → index, in the order given
+     */
+    Map<String, Integer> resolveUserIndexes(Collection<String> userIds);
+
+    /**
+     * Maps user indexes back to user identifiers (HMGET); unknown indexes are skipped.
+     *
+     * @param userIndexes the user indexes
+     * @return the user identifiers, in the order given
+     */
+    List<String> findUserIds(int[] userIndexes);
+
+    /**
+     * Returns how many user indexes have been assigned; indexes run from 0 to this value − 1.
+     *
+     * @return the number of known users
+     */
+    int countKnownUsers();
 }
@@ -3,6 +3,7 @@ package com.tutorial.redis.module03.infrastructure.config;
 import com.tutorial.redis.common.config.RedisConfig;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Module-03 configuration that imports the common Redis configuration.
@@ -14,8 +15,12 @@ import org.springframework.context.annotation.Import;
  * <p>This module uses both {@code RedisTemplate<String, Object>} (for Geo operations)
  * and {@code StringRedisTemplate} (for Bitmap, HyperLogLog, and module commands).
  * Module commands (BF.*, CF.*, TS.*) require Redis Stack (redis/redis-stack image).</p>
+ *
+ * <p>Enables {@code @Scheduled} methods, which run the visitor rollup and the
+ * stale courier expiry.</p>
  */
 @Configuration
 @Import(RedisConfig.class)
+@EnableScheduling
 public class Module03Config {
 }
@@ -0,0 +1,40 @@
+package com.tutorial.redis.module03.infrastructure.scheduler;
+
+import com.tutorial.redis.module03.domain.port.inbound.TrackCouriersUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically removes couriers that stopped reporting positions.
+ *
+ * <p>Calls {@link TrackCouriersUseCase#expireStaleCouriers(long)} every
+ * {@code couriers.expiry-interval-ms} ms (default 10,000) on Spring's task scheduler.
+ * Running several application instances is safe: each batch is removed by an atomic
+ * Lua script, so a courier is removed, and its EXIT events emitted, only once.</p>
+ */
+@Component
+public class CourierExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CourierExpiryScheduler.class);
+
+    private final TrackCouriersUseCase trackCouriersUseCase;
+
+    public CourierExpiryScheduler(TrackCouriersUseCase trackCouriersUseCase) {
+        this.trackCouriersUseCase = trackCouriersUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${couriers.expiry-interval-ms:10000}",
+            initialDelayString = "${couriers.expiry-interval-ms:10000}")
+    public void expireStaleCouriers() {
+        try {
+            int removed = trackCouriersUseCase.expireStaleCouriers(System.currentTimeMillis());
+            if (removed > 0) {
+                log.debug("Removed {} stale couriers", removed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Courier expiry failed, retrying at the next run", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.tutorial.redis.module03.infrastructure.scheduler;
+
+import com.tutorial.redis.module03.domain.port.inbound.CountVisitorsUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Periodically rolls closed days of unique visitor data into week and month rollups.
+ *
+ * <p>Calls {@link CountVisitorsUseCase#rollUpClosedDays(LocalDate)} every
+ * {@code visitors.rollup-interval-ms} ms (default 60,000) on Spring's task
+ * scheduler, with the current date in the system time zone as the first open day.
+ * Running several application instances is safe: each day is rolled up by an
+ * atomic Lua script guarded by a watermark, so it is merged exactly once.</p>
+ */
+@Component
+public class VisitorRollupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorRollupScheduler.class);
+
+    private final CountVisitorsUseCase countVisitorsUseCase;
+
+    public VisitorRollupScheduler(CountVisitorsUseCase countVisitorsUseCase) {
+        this.countVisitorsUseCase = countVisitorsUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${visitors.rollup-interval-ms:60000}",
+            initialDelayString = "${visitors.rollup-interval-ms:60000}")
+    public void rollUpClosedDays() {
+        try {
+            int days = countVisitorsUseCase.rollUpClosedDays(LocalDate.now());
+            if (days > 0) {
+                log.debug("Rolled up {} closed days", days);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Visitor rollup failed, retrying at the next run", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GorillaBlock 壓縮區塊單元測試
+ * 驗證 delta-of-delta 時間戳與 XOR 數值編碼可無損還原，並確認規律資料的壓縮率
+ * 此區塊用於 RedisTimeSeriesAdapter 的區間查詢快取，屬於 Adapter 層（外部輸出端）
+ */
+@DisplayName("GorillaBlock 壓縮區塊測試")
+class GorillaBlockTest {
+
+    // 驗證固定間隔、緩慢變化的感測資料可無損還原，且每點平均小於 2 bytes（未壓縮為 16 bytes）
+    @Test
+    @DisplayName("encode_RegularSeries_RoundTripsAndCompresses — 規律時序無損還原且每點小於 2 bytes")
+    void encode_RegularSeries_RoundTripsAndCompresses() {
+        int count = 10_000;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 1_000L;
+            values[i] = 20.0 + (i / 100) * 0.5;
+        }
+        TimeSeriesColumns columns = new TimeSeriesColumns(timestamps, values, count);
+
+        GorillaBlock block = GorillaBlock.encode(columns);
+
+        assertThat(block.decode()).isEqualTo(columns);
+        assertThat(block.compressedBytes()).isLessThan(count * 2);
+    }
+
+    // 驗證不規則間隔（含大跳躍）與隨機數值、NaN、負零、極值皆可無損還原
+    @Test
+    @DisplayName("encode_IrregularSeries_RoundTripsExactly — 不規則間隔與特殊數值無損還原")
+    void encode_IrregularSeries_RoundTripsExactly() {
+        Random random = new Random(42);
+        int count = 5_000;
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        long timestamp = 1L;
+        for (int i = 0; i < count; i++) {
+            timestamp += i % 500 == 0 ? 86_400_000L : 1 + random.nextInt(5_000);
+            timestamps[i] = timestamp;
+            values[i] = random.nextGaussian() * 1_000;
+        }
+        values[10] = Double.NaN;
+        values[11] = -0.0;
+        values[12] = Double.MAX_VALUE;
+        values[13] = -Double.MIN_VALUE;
+        TimeSeriesColumns columns = new TimeSeriesColumns(timestamps, values, count);
+
+        TimeSeriesColumns decoded = GorillaBlock.encode(columns).decode();
+
+        assertThat(decoded.toTimestampArray()).containsExactly(timestamps);
+        for (int i = 0; i < count; i++) {
+            assertThat(Double.doubleToRawLongBits(decoded.getValue(i)))
+                    .isEqualTo(Double.doubleToRawLongBits(values[i]));
+        }
+    }
+
+    // 驗證空區塊與單點區塊可正確還原
+    @Test
+    @DisplayName("encode_EmptyAndSingleSample_RoundTrips — 空資料與單一資料點可還原")
+    void encode_EmptyAndSingleSample_RoundTrips() {
+        TimeSeriesColumns single = new TimeSeriesColumns(new long[]{5L}, new double[]{1.5}, 1);
+
+        assertThat(GorillaBlock.encode(TimeSeriesColumns.empty()).decode().isEmpty()).isTrue();
+        assertThat(GorillaBlock.encode(single).decode()).isEqualTo(single);
+    }
+}
@@ -0,0 +1,84 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.model.GeofenceEvent;
+import com.tutorial.redis.module03.domain.port.outbound.CourierTrackingPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Redis 外送員追蹤配接器整合測試
+ * 驗證 CourierTrackingPort 以 Lua 腳本批次寫入位置、增量計算地理圍欄進出事件並寫入 Stream
+ * 涵蓋進出事件、過期外送員清除與亂序回報略過，屬於 Adapter 層（外部輸出端）
+ */
+@DisplayName("RedisCourierTrackingAdapter 整合測試")
+class RedisCourierTrackingAdapterTest extends AbstractRedisModuleIntegrationTest {
+
+    @Autowired
+    private CourierTrackingPort courierTrackingPort;
+
+    // 驗證外送員進入圍欄產生 ENTER，離開後產生 EXIT，圍欄內移動不重複產生事件
+    @Test
+    @DisplayName("recordPositions_CrossingGeofence_EmitsEnterAndExit — 跨越圍欄產生進出事件")
+    void recordPositions_CrossingGeofence_EmitsEnterAndExit() {
+        courierTrackingPort.registerGeofence(new Geofence("FENCE-101", 121.5654, 25.0330, 500));
+        courierTrackingPort.registerGeofence(new Geofence("FENCE-TMS", 121.5170, 25.0478, 300));
+
+        courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5000, 25.0000, 1_000)));
+        int entered = courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5650, 25.0332, 2_000)));
+        int moved = courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5660, 25.0328, 3_000)));
+        assertThat(courierTrackingPort.getCurrentFences("C-1")).containsExactly("FENCE-101");
+        int exited = courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5171, 25.0477, 4_000)));
+
+        assertThat(entered).isEqualTo(1);
+        assertThat(moved).isZero();
+        assertThat(exited).isEqualTo(2);
+        assertThat(courierTrackingPort.readEvents("0-0", 10))
+                .extracting(GeofenceEvent::getFenceId, GeofenceEvent::getType, GeofenceEvent::getTimestampMillis)
+                .containsExactly(
+                        tuple("FENCE-101", GeofenceEvent.Type.ENTER, 2_000L),
+                        tuple("FENCE-101", GeofenceEvent.Type.EXIT, 4_000L),
+                        tuple("FENCE-TMS", GeofenceEvent.Type.ENTER, 4_000L));
+    }
+
+    // 驗證比最後回報時間更舊的位置會被略過，不移動外送員也不產生事件
+    @Test
+    @DisplayName("recordPositions_WhenReportIsOutOfOrder_IgnoresIt — 略過亂序的舊回報")
+    void recordPositions_WhenReportIsOutOfOrder_IgnoresIt() {
+        courierTrackingPort.registerGeofence(new Geofence("FENCE-101", 121.5654, 25.0330, 500));
+        courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5000, 25.0000, 5_000)));
+
+        int events = courierTrackingPort.recordPositions(List.of(new CourierPosition("C-1", 121.5654, 25.0330, 4_000)));
+
+        assertThat(events).isZero();
+        assertThat(courierTrackingPort.getCurrentFences("C-1")).isEmpty();
+        assertThat(courierTrackingPort.findCouriersNearby(121.5654, 25.0330, 1_000, 10)).isEmpty();
+    }
+
+    // 驗證清除過期外送員時移除位置與最後回報時間，並為其所在圍欄產生 EXIT 事件
+    @Test
+    @DisplayName("removeStaleCouriers_RemovesCourierAndEmitsExit — 清除過期外送員並產生離開事件")
+    void removeStaleCouriers_RemovesCourierAndEmitsExit() {
+        courierTrackingPort.registerGeofence(new Geofence("FENCE-101", 121.5654, 25.0330, 500));
+        courierTrackingPort.recordPositions(List.of(
+                new CourierPosition("C-STALE", 121.5654, 25.0330, 1_000),
+                new CourierPosition("C-ACTIVE", 121.5655, 25.0331, 9_000)));
+
+        int removed = courierTrackingPort.removeStaleCouriers(5_000, 100);
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(courierTrackingPort.findCouriersNearby(121.5654, 25.0330, 1_000, 10)).containsExactly("C-ACTIVE");
+        assertThat(courierTrackingPort.getCurrentFences("C-STALE")).isEmpty();
+        assertThat(courierTrackingPort.readEvents("0-0", 10))
+                .extracting(GeofenceEvent::getCourierId, GeofenceEvent::getType)
+                .endsWith(tuple("C-STALE", GeofenceEvent.Type.EXIT));
+    }
+}
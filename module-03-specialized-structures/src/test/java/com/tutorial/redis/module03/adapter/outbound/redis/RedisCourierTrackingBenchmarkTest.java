@@ -0,0 +1,98 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module03.domain.model.CourierPosition;
+import com.tutorial.redis.module03.domain.model.Geofence;
+import com.tutorial.redis.module03.domain.port.outbound.CourierTrackingPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測外送員位置持續寫入吞吐量與地理圍欄事件延遲：
+ * 10,000 名外送員在 500 個圍欄的範圍內移動，以每批 5,000 筆的管線化 Lua 呼叫寫入；
+ * 事件延遲為位置回報時間至 XREAD 收到對應 ENTER/EXIT 事件的時間（經由緩衝寫入路徑）。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisCourierTrackingAdapter 寫入與事件延遲效能量測")
+class RedisCourierTrackingBenchmarkTest extends AbstractRedisModuleIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisCourierTrackingBenchmarkTest.class);
+
+    private static final int COURIERS = 10_000;
+    private static final int FENCES = 500;
+    private static final int UPDATES = 200_000;
+    private static final int BATCH = 5_000;
+    private static final int LATENCY_SAMPLES = 200;
+    private static final String EVENTS_KEY = "delivery:geofence:events";
+
+    @Autowired
+    private CourierTrackingPort courierTrackingPort;
+
+    // 量測持續寫入的每秒更新數，以及緩衝寫入後事件送達的延遲分佈
+    @Test
+    @DisplayName("recordPositions_SustainedLoad_ReportsThroughputAndEventLatency — 吞吐量與事件延遲")
+    void recordPositions_SustainedLoad_ReportsThroughputAndEventLatency() {
+        Random random = new Random(42);
+        for (int i = 0; i < FENCES; i++) {
+            courierTrackingPort.registerGeofence(new Geofence("FENCE-" + i,
+                    121.45 + random.nextDouble() * 0.2, 24.95 + random.nextDouble() * 0.2, 200 + random.nextInt(300)));
+        }
+
+        long timestamp = 1;
+        int events = 0;
+        long start = System.nanoTime();
+        for (int sent = 0; sent < UPDATES; sent += BATCH) {
+            List<CourierPosition> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                batch.add(new CourierPosition("C-" + random.nextInt(COURIERS),
+                        121.45 + random.nextDouble() * 0.2, 24.95 + random.nextDouble() * 0.2, timestamp++));
+            }
+            events += courierTrackingPort.recordPositions(batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        courierTrackingPort.registerGeofence(new Geofence("FENCE-LATENCY", 0.0, 0.0, 100));
+        String lastId = stringRedisTemplate.opsForStream()
+                .reverseRange(EVENTS_KEY, Range.unbounded(), Limit.limit().count(1)).getFirst().getId().getValue();
+        long[] latencies = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            double longitude = i % 2 == 0 ? 0.0 : 1.0;
+            long reportedAt = System.currentTimeMillis();
+            courierTrackingPort.recordPositionBuffered(new CourierPosition("C-LATENCY", longitude, 0.0, reportedAt));
+            @SuppressWarnings("unchecked")
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                    StreamReadOptions.empty().block(Duration.ofSeconds(2)).count(1),
+                    StreamOffset.create(EVENTS_KEY, ReadOffset.from(lastId)));
+            assertThat(records).hasSize(1);
+            latencies[i] = System.currentTimeMillis() - reportedAt;
+            lastId = records.getFirst().getId().getValue();
+        }
+        Arrays.sort(latencies);
+
+        report.line("%,d updates of %,d couriers against %,d geofences", UPDATES, COURIERS, FENCES);
+        report.line("  sustained: %,12.0f updates/s (%,d geofence events)", UPDATES / seconds, events);
+        report.line("  event latency (buffered report -> XREAD): p50 %d ms, p99 %d ms, max %d ms",
+                latencies[LATENCY_SAMPLES / 2], latencies[LATENCY_SAMPLES * 99 / 100], latencies[LATENCY_SAMPLES - 1]);
+
+        assertThat(events).isPositive();
+    }
+}
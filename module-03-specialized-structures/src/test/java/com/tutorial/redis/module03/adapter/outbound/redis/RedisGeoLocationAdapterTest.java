@@ -115,4 +115,27 @@ class RedisGeoLocationAdapterTest extends AbstractRedisModuleIntegrationTest {
         assertThat(results).isNotEmpty();
         assertThat(results.size()).isGreaterThanOrEqualTo(1);
     }
+
+    // 驗證搜尋結果直接帶回座標（WITHCOORD）與名稱，與逐筆 GEOPOS 查詢結果一致
+    @Test
+    @DisplayName("searchNearby_ReturnsCoordinatesAndNames — 搜尋結果含座標與名稱且與 GEOPOS 一致")
+    void searchNearby_ReturnsCoordinatesAndNames() {
+        List<StoreLocation> locations = List.of(
+                new StoreLocation("STORE-001", "Taipei 101", 121.5654, 25.0330),
+                new StoreLocation("STORE-002", "Taipei Main Station", 121.5170, 25.0478),
+                new StoreLocation("STORE-003", "Zhongxiao Dunhua", 121.5513, 25.0417)
+        );
+        geoLocationPort.addLocations(locations);
+
+        List<GeoSearchResult> results = geoLocationPort.searchNearby(121.54, 25.04, 10, "km", 10);
+
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(r -> r.getStoreLocation().getName())
+                .containsExactlyInAnyOrder("Taipei 101", "Taipei Main Station", "Zhongxiao Dunhua");
+        for (GeoSearchResult result : results) {
+            StoreLocation position = geoLocationPort.getPosition(result.getStoreLocation().getStoreId()).orElseThrow();
+            assertThat(result.getStoreLocation()).usingRecursiveComparison().isEqualTo(position);
+        }
+        assertThat(results).extracting(GeoSearchResult::getDistance).isSorted();
+    }
 }
@@ -0,0 +1,104 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module03.domain.model.GeoSearchResult;
+import com.tutorial.redis.module03.domain.model.StoreLocation;
+import com.tutorial.redis.module03.domain.port.outbound.GeoLocationPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.data.redis.domain.geo.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測 5,000 間門市中取回最近 50 間的搜尋延遲與批次註冊耗時：
+ * 改版前為 GEOSEARCH 後每筆結果再查 HGET 名稱與 GEOPOS 座標（逐筆往返），
+ * 改版後為 GEOSEARCH WITHCOORD WITHDIST 加上一次管線化的名稱查詢。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisGeoLocationAdapter 搜尋效能量測")
+class RedisGeoSearchBenchmarkTest extends AbstractRedisModuleIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisGeoSearchBenchmarkTest.class);
+
+    private static final int STORES = 5_000;
+    private static final int RESULTS = 50;
+    private static final int QUERY_RUNS = 200;
+    private static final String GEO_KEY = "ecommerce:store:locations";
+
+    @Autowired
+    private GeoLocationPort geoLocationPort;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    // 比較逐筆補查與 WITHCOORD + 管線化名稱查詢的 50 筆搜尋延遲
+    @Test
+    @DisplayName("searchNearby_50Results_ComparesLatency — 逐筆補查與單次往返搜尋延遲比較")
+    void searchNearby_50Results_ComparesLatency() {
+        Random random = new Random(42);
+        List<StoreLocation> stores = new ArrayList<>(STORES);
+        for (int i = 0; i < STORES; i++) {
+            stores.add(new StoreLocation("STORE-" + i, "Store " + i,
+                    121.45 + random.nextDouble() * 0.2, 24.95 + random.nextDouble() * 0.2));
+        }
+        long start = System.nanoTime();
+        geoLocationPort.addLocations(stores);
+        double registerMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        List<StoreLocation> before = null;
+        for (int run = 0; run < QUERY_RUNS; run++) {
+            before = searchWithPerResultLookups();
+        }
+        double beforeMicros = (System.nanoTime() - start) / 1e3 / QUERY_RUNS;
+
+        start = System.nanoTime();
+        List<GeoSearchResult> after = null;
+        for (int run = 0; run < QUERY_RUNS; run++) {
+            after = geoLocationPort.searchNearby(121.55, 25.05, 50, "km", RESULTS);
+        }
+        double afterMicros = (System.nanoTime() - start) / 1e3 / QUERY_RUNS;
+
+        report.line("%,d stores registered in one pipeline: %.1f ms", STORES, registerMillis);
+        report.line("nearest %d of %,d stores", RESULTS, STORES);
+        report.line("  before  GEOSEARCH + HGET/GEOPOS per result: %,10.1f µs/query", beforeMicros);
+        report.line("  after   WITHCOORD + pipelined names:        %,10.1f µs/query", afterMicros);
+
+        assertThat(after).extracting(GeoSearchResult::getStoreLocation)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(before);
+    }
+
+    /**
+     * The previous read path: one GEOSEARCH, then an HGET and a GEOPOS for every result.
+     */
+    private List<StoreLocation> searchWithPerResultLookups() {
+        GeoResults<RedisGeoCommands.GeoLocation<Object>> results = redisTemplate.opsForGeo().search(GEO_KEY,
+                GeoReference.fromCoordinate(121.55, 25.05), new Distance(50, Metrics.KILOMETERS),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().includeDistance().limit(RESULTS));
+        List<StoreLocation> locations = new ArrayList<>(RESULTS);
+        for (var result : results) {
+            String storeId = result.getContent().getName().toString();
+            Object name = redisTemplate.opsForHash().get("ecommerce:store:meta:" + storeId, "name");
+            Point point = redisTemplate.opsForGeo().position(GEO_KEY, storeId).getFirst();
+            locations.add(new StoreLocation(storeId, name.toString(), point.getX(), point.getY()));
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module03.application.usecase.AudienceSegmentService;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+import com.tutorial.redis.module03.domain.model.SegmentExpression;
+import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測 10,000,000 位使用者規模下三個分群（活躍 30%、VIP 1%、流失 5%）的記憶體用量與查詢延遲：
+ * 改版前為原始 Redis Bitmap（每個分群固定 1.25 MB）並以 BITOP 在伺服器端計算，
+ * 改版後為分塊儲存的 Roaring Bitmap，在程序內計算「活躍 AND VIP AND NOT 流失」（冷讀取與快取命中）。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("Roaring 分群引擎效能量測")
+class RedisSegmentBenchmarkTest extends AbstractRedisModuleIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisSegmentBenchmarkTest.class);
+
+    private static final int USERS = 10_000_000;
+    private static final int QUERY_RUNS = 20;
+
+    private static final DefaultRedisScript<Long> RAW_QUERY_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('BITOP', 'NOT', KEYS[4], KEYS[3])\n" +
+            "redis.call('BITOP', 'AND', KEYS[4], KEYS[1], KEYS[2], KEYS[4])\n" +
+            "local count = redis.call('BITCOUNT', KEYS[4])\n" +
+            "redis.call('DEL', KEYS[4])\n" +
+            "return count",
+            Long.class);
+
+    @Autowired
+    private UserActivityPort userActivityPort;
+
+    // 比較原始 Bitmap 與 Roaring Bitmap 的記憶體用量與查詢延遲
+    @Test
+    @DisplayName("segments_10MUsers_ComparesMemoryAndLatency — 原始 Bitmap 與 Roaring 分群比較")
+    void segments_10MUsers_ComparesMemoryAndLatency() {
+        Random random = new Random(42);
+        int[] active = sample(random, 0.30);
+        int[] vip = sample(random, 0.01);
+        int[] churned = sample(random, 0.05);
+
+        RedisSegmentStoreAdapter store = new RedisSegmentStoreAdapter(stringRedisTemplate);
+        store.save("active:7d", RoaringBitmap.of(active));
+        store.save("tag:vip", RoaringBitmap.of(vip));
+        store.save("churned", RoaringBitmap.of(churned));
+        writeRaw("bench:raw:active", active);
+        writeRaw("bench:raw:vip", vip);
+        writeRaw("bench:raw:churned", churned);
+
+        report.line("%,d users", USERS);
+        printMemory("active:7d", "bench:raw:active");
+        printMemory("tag:vip", "bench:raw:vip");
+        printMemory("churned", "bench:raw:churned");
+
+        List<String> rawKeys = List.of("bench:raw:active", "bench:raw:vip", "bench:raw:churned", "bench:raw:tmp");
+        long start = System.nanoTime();
+        long rawCount = 0;
+        for (int i = 0; i < QUERY_RUNS; i++) {
+            rawCount = stringRedisTemplate.execute(RAW_QUERY_SCRIPT, rawKeys);
+        }
+        double rawMillis = (System.nanoTime() - start) / 1e6 / QUERY_RUNS;
+
+        SegmentExpression query = SegmentExpression.and(
+                SegmentExpression.segment("active:7d"),
+                SegmentExpression.segment("tag:vip"),
+                SegmentExpression.not(SegmentExpression.segment("churned")));
+
+        start = System.nanoTime();
+        long coldCount = new AudienceSegmentService(new RedisSegmentStoreAdapter(stringRedisTemplate), userActivityPort)
+                .countAudience(query);
+        double coldMillis = (System.nanoTime() - start) / 1e6;
+
+        AudienceSegmentService warm = new AudienceSegmentService(store, userActivityPort);
+        start = System.nanoTime();
+        long warmCount = 0;
+        for (int i = 0; i < QUERY_RUNS; i++) {
+            warmCount = warm.countAudience(query);
+        }
+        double warmMillis = (System.nanoTime() - start) / 1e6 / QUERY_RUNS;
+
+        report.line("  active AND vip AND NOT churned = %,d users", warmCount);
+        report.line("  before  BITOP on raw bitmaps (server): %8.2f ms", rawMillis);
+        report.line("  after   Roaring, cold load + eval:     %8.2f ms", coldMillis);
+        report.line("  after   Roaring, cached bitmaps:       %8.2f ms", warmMillis);
+
+        assertThat(coldCount).isEqualTo(rawCount);
+        assertThat(warmCount).isEqualTo(rawCount);
+    }
+
+    private static int[] sample(Random random, double density) {
+        return IntStream.range(0, USERS).filter(i -> random.nextDouble() < density).toArray();
+    }
+
+    private void writeRaw(String key, int[] members) {
+        byte[] bitmap = new byte[(USERS + 7) / 8];
+        for (int member : members) {
+            bitmap[member >>> 3] |= (byte) (0x80 >>> (member & 7));
+        }
+        stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.stringCommands().set(key.getBytes(StandardCharsets.UTF_8), bitmap));
+    }
+
+    private void printMemory(String segment, String rawKey) {
+        Set<String> segmentKeys = stringRedisTemplate.keys("banking:segment:" + segment + "*");
+        long roaringBytes = segmentKeys.stream().mapToLong(this::memoryUsage).sum();
+        report.line("  %-10s raw bitmap: %,10d B   roaring: %,10d B", segment, memoryUsage(rawKey), roaringBytes);
+    }
+
+    private long memoryUsage(String key) {
+        Long bytes = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                (Long) connection.execute("MEMORY",
+                        "USAGE".getBytes(StandardCharsets.UTF_8),
+                        key.getBytes(StandardCharsets.UTF_8)));
+        return bytes != null ? bytes : -1L;
+    }
+}
@@ -0,0 +1,61 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+import com.tutorial.redis.module03.domain.port.outbound.SegmentStorePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roaring 分群儲存配接器整合測試
+ * 驗證 SegmentStorePort 以分塊 String 儲存序列化 Roaring Bitmap 的正確性
+ * 涵蓋大型分群分塊寫入與讀回、版本切換後讀到新內容與刪除，屬於 Adapter 層（外部輸出端）
+ */
+@DisplayName("RedisSegmentStoreAdapter 整合測試")
+class RedisSegmentStoreAdapterTest extends AbstractRedisModuleIntegrationTest {
+
+    @Autowired
+    private SegmentStorePort segmentStorePort;
+
+    // 驗證序列化超過單塊上限的分群會分成多個 chunk 寫入，讀回內容一致
+    @Test
+    @DisplayName("save_LargeSegment_SplitsIntoChunksAndLoadsBack — 大型分群分塊寫入並完整讀回")
+    void save_LargeSegment_SplitsIntoChunksAndLoadsBack() {
+        // 偶數 ID 無法以 run 容器壓縮，序列化後約 600 KB
+        RoaringBitmap members = RoaringBitmap.of(IntStream.range(0, 2_500_000).map(i -> i * 2).toArray());
+
+        segmentStorePort.save("active:30d", members);
+
+        assertThat(members.serializedSizeInBytes()).isGreaterThan(RedisSegmentStoreAdapter.CHUNK_BYTES);
+        assertThat(stringRedisTemplate.opsForHash().get("banking:segment:active:30d", "chunks")).isEqualTo("2");
+        assertThat(segmentStorePort.load("active:30d")).contains(members);
+    }
+
+    // 驗證覆寫分群後讀到新版本內容，且舊版本 chunk 被設定過期時間
+    @Test
+    @DisplayName("save_Overwrite_LoadsNewVersionAndExpiresOldChunks — 覆寫後讀到新內容且舊 chunk 將過期")
+    void save_Overwrite_LoadsNewVersionAndExpiresOldChunks() {
+        segmentStorePort.save("tag:vip", RoaringBitmap.of(1, 2, 3));
+        segmentStorePort.save("tag:vip", RoaringBitmap.of(2, 3, 4));
+
+        assertThat(segmentStorePort.load("tag:vip")).contains(RoaringBitmap.of(2, 3, 4));
+        assertThat(stringRedisTemplate.getExpire("banking:segment:tag:vip:1:0")).isPositive();
+        assertThat(stringRedisTemplate.getExpire("banking:segment:tag:vip:2:0")).isEqualTo(-1L);
+    }
+
+    // 驗證刪除分群後讀取回傳空值，且不存在的分群刪除回傳 false
+    @Test
+    @DisplayName("delete_RemovesSegment — 刪除後無法讀取")
+    void delete_RemovesSegment() {
+        segmentStorePort.save("churned", RoaringBitmap.of(9));
+
+        assertThat(segmentStorePort.delete("churned")).isTrue();
+        assertThat(segmentStorePort.load("churned")).isEmpty();
+        assertThat(segmentStorePort.delete("churned")).isFalse();
+    }
+}
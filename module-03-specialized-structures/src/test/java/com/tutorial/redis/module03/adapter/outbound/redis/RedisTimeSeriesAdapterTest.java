@@ -1,12 +1,18 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeries;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
 import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
+import com.tutorial.redis.module03.domain.model.TimeSeriesSample;
 import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,8 +21,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Redis TimeSeries 配接器整合測試
- * 驗證 TimeSeriesPort 透過 Redis TimeSeries（TS.CREATE/TS.ADD/TS.RANGE/TS.GET）命令的實作正確性
- * 涵蓋時序建立、資料點新增、區間查詢與最新值取得，屬於 Adapter 層（外部輸出端）
+ * 驗證 TimeSeriesPort 透過 Redis TimeSeries（TS.CREATE/TS.ADD/TS.MADD/TS.RANGE/TS.MRANGE/TS.GET）命令的實作正確性
+ * 涵蓋時序建立、壓縮規則、資料點新增與緩衝批次寫入、區間與標籤查詢、分頁欄式查詢與壓縮快取、最新值取得，屬於 Adapter 層（外部輸出端）
  */
 @DisplayName("RedisTimeSeriesAdapter 整合測試")
 class RedisTimeSeriesAdapterTest extends AbstractRedisModuleIntegrationTest {
@@ -109,4 +115,115 @@ class RedisTimeSeriesAdapterTest extends AbstractRedisModuleIntegrationTest {
         assertThat(results.get(4).getTimestamp()).isEqualTo(BASE_TIMESTAMP + 7000);
         assertThat(results.get(4).getValue()).isEqualTo(27.0);
     }
+
+    // 驗證 TS.MADD 一次寫入多條時序的資料點
+    @Test
+    @DisplayName("addAll_WritesSamplesAcrossSeries — TS.MADD 一次寫入兩條時序")
+    void addAll_WritesSamplesAcrossSeries() {
+        timeSeriesPort.create("device:1", 0, Map.of("type", "power"));
+        timeSeriesPort.create("device:2", 0, Map.of("type", "power"));
+
+        timeSeriesPort.addAll(List.of(
+                new TimeSeriesSample("device:1", BASE_TIMESTAMP, 1.0),
+                new TimeSeriesSample("device:2", BASE_TIMESTAMP, 2.0),
+                new TimeSeriesSample("device:1", BASE_TIMESTAMP + 1000, 3.0)));
+
+        assertThat(timeSeriesPort.range("device:1", 0, Long.MAX_VALUE)).hasSize(2);
+        assertThat(timeSeriesPort.getLatest("device:2")).get()
+                .extracting(TimeSeriesDataPoint::getValue).isEqualTo(2.0);
+    }
+
+    // 驗證緩衝寫入的資料點在 flush 後全部可查詢
+    @Test
+    @DisplayName("addBuffered_AndFlush_AllSamplesVisible — 緩衝寫入 2,500 點，flush 後全部可查詢")
+    void addBuffered_AndFlush_AllSamplesVisible() {
+        timeSeriesPort.create(TS_KEY, 0, Map.of("sensor", "temp-01"));
+
+        for (int i = 0; i < 2_500; i++) {
+            timeSeriesPort.addBuffered(TS_KEY, BASE_TIMESTAMP + i, i);
+        }
+        timeSeriesPort.flush();
+
+        List<TimeSeriesDataPoint> results = timeSeriesPort.range(TS_KEY, 0, Long.MAX_VALUE);
+        assertThat(results).hasSize(2_500);
+        assertThat(results.get(2_499).getValue()).isEqualTo(2_499.0);
+    }
+
+    // 驗證建立時附加的壓縮規則（TS.CREATERULE）會把已結束的 bucket 彙總寫入目的時序
+    @Test
+    @DisplayName("create_WithCompactionRule_AggregatesClosedBuckets — AVG 2 秒 bucket 規則產生彙總資料")
+    void create_WithCompactionRule_AggregatesClosedBuckets() {
+        CompactionRule rule = new CompactionRule(TimeSeriesAggregation.AVG, 2000, 0);
+        timeSeriesPort.create(TS_KEY, 0, Map.of("sensor", "temp-01"), List.of(rule));
+
+        for (int i = 0; i < 5; i++) {
+            timeSeriesPort.add(TS_KEY, BASE_TIMESTAMP + i * 1000, 20.0 + i * 2);
+        }
+
+        // bucket [1000000, 1002000) → avg(20, 22) = 21；[1002000, 1004000) → avg(24, 26) = 25；最後一個 bucket 尚未結束
+        List<TimeSeriesDataPoint> compacted = timeSeriesPort.range(rule.destinationKey(TS_KEY), 0, Long.MAX_VALUE);
+        assertThat(compacted).extracting(TimeSeriesDataPoint::getValue).containsExactly(21.0, 25.0);
+    }
+
+    // 驗證 TS.MRANGE 依標籤篩選多條時序並套用彙總
+    @Test
+    @DisplayName("multiRange_FiltersByLabelAndAggregates — 依標籤查詢兩條時序並取每 2 秒最大值")
+    void multiRange_FiltersByLabelAndAggregates() {
+        timeSeriesPort.create("room:a", 0, Map.of("type", "temperature", "floor", "1"));
+        timeSeriesPort.create("room:b", 0, Map.of("type", "temperature", "floor", "2"));
+        timeSeriesPort.create("room:c", 0, Map.of("type", "humidity", "floor", "1"));
+        for (int i = 0; i < 4; i++) {
+            timeSeriesPort.addAll(List.of(
+                    new TimeSeriesSample("room:a", BASE_TIMESTAMP + i * 1000, 20.0 + i),
+                    new TimeSeriesSample("room:b", BASE_TIMESTAMP + i * 1000, 30.0 + i),
+                    new TimeSeriesSample("room:c", BASE_TIMESTAMP + i * 1000, 50.0 + i)));
+        }
+
+        List<TimeSeries> series = timeSeriesPort.multiRange(0, Long.MAX_VALUE,
+                List.of("type=temperature"), TimeSeriesAggregation.MAX, 2000);
+
+        assertThat(series).extracting(TimeSeries::getKey).containsExactlyInAnyOrder("room:a", "room:b");
+        TimeSeries roomA = series.stream().filter(s -> s.getKey().equals("room:a")).findFirst().orElseThrow();
+        assertThat(roomA.getDataPoints()).extracting(TimeSeriesDataPoint::getValue).containsExactly(21.0, 23.0);
+    }
+
+    // 驗證以 COUNT 分頁串流讀取時，每頁不超過 pageSize，且各頁依序銜接不重複不遺漏
+    @Test
+    @DisplayName("streamRange_PagesWithCount_CoversWholeRange — 2,500 點以每頁 1,000 點分 3 頁讀取")
+    void streamRange_PagesWithCount_CoversWholeRange() {
+        timeSeriesPort.create(TS_KEY, 0, Map.of("sensor", "temp-01"));
+        List<TimeSeriesSample> samples = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            samples.add(new TimeSeriesSample(TS_KEY, BASE_TIMESTAMP + i * 10L, i));
+        }
+        timeSeriesPort.addAll(samples);
+
+        List<TimeSeriesColumns> pages = new ArrayList<>();
+        long total = timeSeriesPort.streamRange(TS_KEY, 0, Long.MAX_VALUE, 1_000, pages::add);
+
+        assertThat(total).isEqualTo(2_500);
+        assertThat(pages).extracting(TimeSeriesColumns::size).containsExactly(1_000, 1_000, 500);
+        assertThat(pages.get(1).getTimestamp(0)).isEqualTo(BASE_TIMESTAMP + 10_000);
+        assertThat(pages.get(2).getValue(499)).isEqualTo(2_499.0);
+    }
+
+    // 驗證欄式查詢與 TS.RANGE 物件查詢結果一致；再次查詢由壓縮快取提供，新增資料後快取失效
+    @Test
+    @DisplayName("rangeColumns_MatchesRangeAndRefreshesAfterWrite — 欄式查詢結果一致且寫入後不回傳舊資料")
+    void rangeColumns_MatchesRangeAndRefreshesAfterWrite() {
+        timeSeriesPort.create(TS_KEY, 0, Map.of("sensor", "temp-01"));
+        for (int i = 0; i < 5; i++) {
+            timeSeriesPort.add(TS_KEY, BASE_TIMESTAMP + i * 1000, 20.5 + i);
+        }
+
+        TimeSeriesColumns first = timeSeriesPort.rangeColumns(TS_KEY, 0, Long.MAX_VALUE);
+        TimeSeriesColumns cached = timeSeriesPort.rangeColumns(TS_KEY, 0, Long.MAX_VALUE);
+        timeSeriesPort.add(TS_KEY, BASE_TIMESTAMP + 5000, 99.0);
+        TimeSeriesColumns afterWrite = timeSeriesPort.rangeColumns(TS_KEY, 0, Long.MAX_VALUE);
+
+        assertThat(first.toDataPoints()).isEqualTo(timeSeriesPort.range(TS_KEY, 0, BASE_TIMESTAMP + 4000));
+        assertThat(cached).isEqualTo(first);
+        assertThat(afterWrite.size()).isEqualTo(6);
+        assertThat(afterWrite.getValue(5)).isEqualTo(99.0);
+    }
 }
@@ -0,0 +1,68 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測 1,000 台裝置各回報 100 個資料點（共 100,000 點）時的寫入吞吐量（points/sec）：
+ * 改版前為每點一次 TS.ADD（每點一次 RTT），改版後為緩衝後以 TS.MADD 批次寫入。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisTimeSeriesAdapter 寫入效能量測")
+class RedisTimeSeriesIngestBenchmarkTest extends AbstractRedisModuleIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisTimeSeriesIngestBenchmarkTest.class);
+
+    private static final int DEVICES = 1_000;
+    private static final int POINTS_PER_DEVICE = 100;
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+
+    @Autowired
+    private TimeSeriesPort timeSeriesPort;
+
+    // 比較逐點 TS.ADD 與緩衝 TS.MADD 的每秒寫入點數
+    @Test
+    @DisplayName("ingest_100kPoints_ComparesThroughput — 逐點 TS.ADD 與緩衝 TS.MADD 吞吐量比較")
+    void ingest_100kPoints_ComparesThroughput() {
+        for (int d = 0; d < DEVICES; d++) {
+            timeSeriesPort.create("single:" + d, 0, Map.of("mode", "single"));
+            timeSeriesPort.create("batched:" + d, 0, Map.of("mode", "batched"));
+        }
+        int total = DEVICES * POINTS_PER_DEVICE;
+
+        long start = System.nanoTime();
+        for (int p = 0; p < POINTS_PER_DEVICE; p++) {
+            for (int d = 0; d < DEVICES; d++) {
+                timeSeriesPort.add("single:" + d, BASE_TIMESTAMP + p, p);
+            }
+        }
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        for (int p = 0; p < POINTS_PER_DEVICE; p++) {
+            for (int d = 0; d < DEVICES; d++) {
+                timeSeriesPort.addBuffered("batched:" + d, BASE_TIMESTAMP + p, p);
+            }
+        }
+        timeSeriesPort.flush();
+        double batchedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report.line("%d devices x %d points = %d points", DEVICES, POINTS_PER_DEVICE, total);
+        report.line("  before  TS.ADD per point:  %,10.0f points/sec", total / singleSeconds);
+        report.line("  after   buffered TS.MADD:  %,10.0f points/sec", total / batchedSeconds);
+
+        assertThat(timeSeriesPort.range("batched:" + (DEVICES - 1), 0, Long.MAX_VALUE))
+                .hasSize(POINTS_PER_DEVICE);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tutorial.redis.module03.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
+import com.tutorial.redis.module03.domain.model.TimeSeriesDataPoint;
+import com.tutorial.redis.module03.domain.model.TimeSeriesSample;
+import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測讀取 1,000,000 點區間時每百萬點的記憶體配置量與查詢延遲：
+ * 改版前為 TS.RANGE 一次取回並建立 List&lt;TimeSeriesDataPoint&gt;，
+ * 改版後為 COUNT 分頁解碼為 long[]/double[] 欄位，以及命中 Gorilla 壓縮快取的重複查詢。
+ * 配置量以 com.sun.management.ThreadMXBean 的執行緒配置位元組計算（僅含呼叫端執行緒）。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisTimeSeriesAdapter 區間查詢效能量測")
+class RedisTimeSeriesRangeBenchmarkTest extends AbstractRedisModuleIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisTimeSeriesRangeBenchmarkTest.class);
+
+    private static final String KEY = "bench:range";
+    private static final int POINTS = 1_000_000;
+    private static final int WRITE_BATCH = 10_000;
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+
+    @Autowired
+    private TimeSeriesPort timeSeriesPort;
+
+    // 比較物件清單、分頁欄式與壓縮快取三種讀法的配置量與延遲
+    @Test
+    @DisplayName("range_1MPoints_ComparesAllocationAndLatency — 三種區間讀法的配置量與延遲比較")
+    void range_1MPoints_ComparesAllocationAndLatency() {
+        timeSeriesPort.create(KEY, 0, Map.of("bench", "range"));
+        List<TimeSeriesSample> batch = new ArrayList<>(WRITE_BATCH);
+        for (int i = 0; i < POINTS; i++) {
+            batch.add(new TimeSeriesSample(KEY, BASE_TIMESTAMP + i * 1_000L, 20.0 + (i % 600) * 0.01));
+            if (batch.size() == WRITE_BATCH) {
+                timeSeriesPort.addAll(batch);
+                batch.clear();
+            }
+        }
+
+        // 預熱
+        timeSeriesPort.range(KEY, 0, Long.MAX_VALUE);
+        timeSeriesPort.streamRange(KEY, 0, Long.MAX_VALUE, 10_000, page -> { });
+
+        Measurement boxed = measure(() -> timeSeriesPort.range(KEY, 0, Long.MAX_VALUE).size());
+        Measurement paged = measure(() -> timeSeriesPort.streamRange(KEY, 0, Long.MAX_VALUE, 10_000, page -> { }));
+        Measurement columns = measure(() -> timeSeriesPort.rangeColumns(KEY, 0, Long.MAX_VALUE).size());
+        Measurement cached = measure(() -> timeSeriesPort.rangeColumns(KEY, 0, Long.MAX_VALUE).size());
+
+        report.line("%,d points in range", POINTS);
+        report.line("  before  TS.RANGE -> List<TimeSeriesDataPoint>: %8.1f MB/M points %8.1f ms", boxed.mb(), boxed.millis());
+        report.line("  after   paged COUNT stream (page discarded):   %8.1f MB/M points %8.1f ms", paged.mb(), paged.millis());
+        report.line("  after   rangeColumns (cold, fills cache):      %8.1f MB/M points %8.1f ms", columns.mb(), columns.millis());
+        report.line("  after   rangeColumns (Gorilla cache hit):      %8.1f MB/M points %8.1f ms", cached.mb(), cached.millis());
+
+        TimeSeriesColumns result = timeSeriesPort.rangeColumns(KEY, 0, Long.MAX_VALUE);
+        List<TimeSeriesDataPoint> tail = timeSeriesPort.range(KEY, BASE_TIMESTAMP + (POINTS - 1) * 1_000L, Long.MAX_VALUE);
+        assertThat(result.size()).isEqualTo(POINTS);
+        assertThat(result.getValue(POINTS - 1)).isEqualTo(tail.getFirst().getValue());
+    }
+
+    private Measurement measure(Supplier<Number> query) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long points = query.get().longValue();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(points).isEqualTo(POINTS);
+        return new Measurement(allocated / 1e6 * 1_000_000 / points, elapsed / 1e6);
+    }
+
+    private record Measurement(double mb, double millis) {
+    }
+}
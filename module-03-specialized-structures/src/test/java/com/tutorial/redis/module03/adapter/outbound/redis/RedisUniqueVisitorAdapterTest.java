@@ -1,11 +1,13 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.module03.domain.model.VisitPeriod;
 import com.tutorial.redis.module03.domain.port.outbound.UniqueVisitorPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -13,7 +15,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 /**
  * Redis HyperLogLog 配接器整合測試
  * 驗證 UniqueVisitorPort 透過 Redis HyperLogLog（PFADD/PFCOUNT/PFMERGE）命令的實作正確性
- * 涵蓋新增訪客、近似計數與多日合併計算，屬於 Adapter 層（外部輸出端）
+ * 涵蓋新增訪客、近似計數、多日合併計算與週／月預先彙總，屬於 Adapter 層（外部輸出端）
  */
 @DisplayName("RedisUniqueVisitorAdapter 整合測試")
 class RedisUniqueVisitorAdapterTest extends AbstractRedisModuleIntegrationTest {
@@ -57,36 +59,98 @@ class RedisUniqueVisitorAdapterTest extends AbstractRedisModuleIntegrationTest {
         assertThat(count).isBetween(90L, 110L);
     }
 
-    // 驗證 PFMERGE 合併兩天的 HyperLogLog 後，去重計數接近 90（含重疊訪客）
+    // 驗證舊版週計數留下的 weekly-merge 暫存 HyperLogLog 只會被清除一次，其他鍵不受影響
     @Test
-    @DisplayName("countMergedVisitors_WhenMultiplePeriods_ReturnsMergedCount — 合併多日計數約 90")
-    void countMergedVisitors_WhenMultiplePeriods_ReturnsMergedCount() {
-        // Day 1: 50 unique visitors (visitor-001 to visitor-050)
+    @DisplayName("deleteLegacyMergeKeys_DeletesOnce — 清除舊版 weekly-merge 鍵，第二次呼叫不再掃描")
+    void deleteLegacyMergeKeys_DeletesOnce() {
+        stringRedisTemplate.opsForHyperLogLog().add("analytics:uv:page-a:weekly-merge", "visitor-1");
+        stringRedisTemplate.opsForHyperLogLog().add("analytics:uv:page-b:weekly-merge", "visitor-2");
+        uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-20", "visitor-3");
+
+        long deleted = uniqueVisitorPort.deleteLegacyMergeKeys();
+        stringRedisTemplate.opsForHyperLogLog().add("analytics:uv:page-c:weekly-merge", "visitor-4");
+        long deletedAgain = uniqueVisitorPort.deleteLegacyMergeKeys();
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(deletedAgain).isZero();
+        assertThat(stringRedisTemplate.hasKey("analytics:uv:page-a:weekly-merge")).isFalse();
+        assertThat(uniqueVisitorPort.countVisitors(PAGE_ID, "2026-02-20")).isEqualTo(1);
+    }
+
+    // 驗證尚無訪客時 PFCOUNT 回傳 0
+    @Test
+    @DisplayName("countVisitors_WhenEmpty_ReturnsZero — 無訪客時計數為零")
+    void countVisitors_WhenEmpty_ReturnsZero() {
+        long count = uniqueVisitorPort.countVisitors(PAGE_ID, "2026-02-20");
+
+        assertThat(count).isZero();
+    }
+
+    // 驗證已結束的日期彙總進週與月 HyperLogLog 後，多鍵 PFCOUNT 不產生暫存鍵且計數約 90
+    @Test
+    @DisplayName("rollUpDay_WhenDaysClosed_WeeklyCountUsesRollup — 日期結束後以週彙總計數")
+    void rollUpDay_WhenDaysClosed_WeeklyCountUsesRollup() {
         for (int i = 1; i <= 50; i++) {
-            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-20", "visitor-" + String.format("%03d", i));
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-16", "visitor-" + String.format("%03d", i));
         }
-        // Day 2: 50 unique visitors (visitor-041 to visitor-090), 10 overlap with day 1
         for (int i = 41; i <= 90; i++) {
-            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-21", "visitor-" + String.format("%03d", i));
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-17", "visitor-" + String.format("%03d", i));
+        }
+
+        List<LocalDate> pending = uniqueVisitorPort.findDaysPendingRollup(LocalDate.of(2026, 2, 18));
+        assertThat(pending).containsExactly(LocalDate.of(2026, 2, 16), LocalDate.of(2026, 2, 17));
+        assertThat(uniqueVisitorPort.rollUpDay(LocalDate.of(2026, 2, 16))).isEqualTo(1);
+        assertThat(uniqueVisitorPort.rollUpDay(LocalDate.of(2026, 2, 17))).isEqualTo(1);
+        assertThat(uniqueVisitorPort.rollUpDay(LocalDate.of(2026, 2, 16))).isEqualTo(-1);
+        assertThat(uniqueVisitorPort.findDaysPendingRollup(LocalDate.of(2026, 2, 18))).isEmpty();
+
+        long weekly = uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-W08",
+                VisitPeriod.daysOfWeek(LocalDate.of(2026, 2, 16)));
+
+        assertThat(weekly).isBetween(80L, 100L);
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-W08", List.of())).isBetween(80L, 100L);
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-02", List.of())).isBetween(80L, 100L);
+        assertThat(stringRedisTemplate.keys("analytics:uv:" + PAGE_ID + ":*"))
+                .containsExactlyInAnyOrder(
+                        "analytics:uv:" + PAGE_ID + ":2026-02-16",
+                        "analytics:uv:" + PAGE_ID + ":2026-02-17",
+                        "analytics:uv:" + PAGE_ID + ":2026-W08:rollup",
+                        "analytics:uv:" + PAGE_ID + ":2026-02:rollup");
+    }
+
+    // 驗證已彙總日期的補寫訪客直接寫入週彙總，且會讓快取的計數失效
+    @Test
+    @DisplayName("addVisitor_AfterRollup_UpdatesRollupAndEvictsCache — 補寫訪客更新彙總並清除快取")
+    void addVisitor_AfterRollup_UpdatesRollupAndEvictsCache() {
+        for (int i = 1; i <= 10; i++) {
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-16", "visitor-" + i);
         }
+        uniqueVisitorPort.rollUpDay(LocalDate.of(2026, 2, 16));
+        List<LocalDate> week = VisitPeriod.daysOfWeek(LocalDate.of(2026, 2, 16));
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-W08", week)).isBetween(9L, 11L);
 
-        String destKey = "analytics:uv:" + PAGE_ID + ":merged";
-        List<String> sourceKeys = List.of(
-                "analytics:uv:" + PAGE_ID + ":2026-02-20",
-                "analytics:uv:" + PAGE_ID + ":2026-02-21"
-        );
-        long mergedCount = uniqueVisitorPort.countMergedVisitors(destKey, sourceKeys);
+        for (int i = 11; i <= 50; i++) {
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-16", "visitor-" + i);
+        }
 
-        // 90 unique visitors total (50 + 50 - 10 overlap), allow HLL approximation margin
-        assertThat(mergedCount).isBetween(80L, 100L);
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-W08", week)).isBetween(45L, 55L);
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-W08", List.of())).isBetween(45L, 55L);
     }
 
-    // 驗證尚無訪客時 PFCOUNT 回傳 0
+    // 驗證直接寫入月份期間的訪客與月彙總分開存放，互不覆寫
     @Test
-    @DisplayName("countVisitors_WhenEmpty_ReturnsZero — 無訪客時計數為零")
-    void countVisitors_WhenEmpty_ReturnsZero() {
-        long count = uniqueVisitorPort.countVisitors(PAGE_ID, "2026-02-20");
+    @DisplayName("rollUpDay_DirectMonthWrites_KeptApartFromRollup — 月份直接寫入與月彙總互不影響")
+    void rollUpDay_DirectMonthWrites_KeptApartFromRollup() {
+        for (int i = 1; i <= 10; i++) {
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02-16", "visitor-" + i);
+        }
+        for (int i = 100; i < 130; i++) {
+            uniqueVisitorPort.addVisitor(PAGE_ID, "2026-02", "direct-" + i);
+        }
 
-        assertThat(count).isZero();
+        uniqueVisitorPort.rollUpDay(LocalDate.of(2026, 2, 16));
+
+        assertThat(uniqueVisitorPort.countVisitors(PAGE_ID, "2026-02")).isBetween(28L, 32L);
+        assertThat(uniqueVisitorPort.countRolledUpVisitors(PAGE_ID, "2026-02", List.of())).isBetween(9L, 11L);
     }
 }
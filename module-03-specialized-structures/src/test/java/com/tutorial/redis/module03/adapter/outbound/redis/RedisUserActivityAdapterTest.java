@@ -1,17 +1,23 @@
 package com.tutorial.redis.module03.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisModuleIntegrationTest;
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
 import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Redis Bitmap 配接器整合測試
- * 驗證 UserActivityPort 透過 Redis Bitmap（SETBIT/GETBIT/BITCOUNT）命令的實作正確性
- * 涵蓋記錄活躍日、查詢單日活躍狀態與統計活躍天數，屬於 Adapter 層（外部輸出端）
+ * 驗證 UserActivityPort 透過 Redis Bitmap（SETBIT/GETBIT/BITCOUNT/BITOP）命令的實作正確性
+ * 涵蓋記錄活躍日、查詢單日活躍狀態、統計活躍天數（含位元區間）、以日為主的 DAU/MAU/留存統計與使用者索引對應，屬於 Adapter 層（外部輸出端）
  */
 @DisplayName("RedisUserActivityAdapter 整合測試")
 class RedisUserActivityAdapterTest extends AbstractRedisModuleIntegrationTest {
@@ -79,4 +85,79 @@ class RedisUserActivityAdapterTest extends AbstractRedisModuleIntegrationTest {
 
         assertThat(count).isZero();
     }
+
+    // 驗證 BITCOUNT BIT 以位元為單位計數：第 7~16 天跨越位元組邊界，只計入第 8、9 天
+    @Test
+    @DisplayName("countActiveDaysInRange_AcrossByteBoundary_CountsExactDays — 跨位元組邊界的日期區間精確計數")
+    void countActiveDaysInRange_AcrossByteBoundary_CountsExactDays() {
+        for (int day : new int[]{6, 8, 9, 17}) {
+            userActivityPort.recordActivity(USER_ID, YEAR_MONTH, day);
+        }
+
+        long count = userActivityPort.countActiveDaysInRange(USER_ID, YEAR_MONTH, 7, 16);
+
+        assertThat(count).isEqualTo(2);
+    }
+
+    // 驗證以日為主的 Bitmap：單日 BITCOUNT 為 DAU，多日 BITOP OR 後去重計數
+    @Test
+    @DisplayName("countActiveUsers_SingleAndMultipleDays_CountsDistinctUsers — 單日與多日不重複活躍人數")
+    void countActiveUsers_SingleAndMultipleDays_CountsDistinctUsers() {
+        userActivityPort.recordActivity("USER-001", YEAR_MONTH, 1);
+        userActivityPort.recordActivity("USER-002", YEAR_MONTH, 1);
+        userActivityPort.recordActivity("USER-002", YEAR_MONTH, 2);
+        userActivityPort.recordActivity("USER-003", YEAR_MONTH, 2);
+
+        long day1 = userActivityPort.countActiveUsers(List.of(LocalDate.of(2026, 2, 1)));
+        long bothDays = userActivityPort.countActiveUsers(
+                List.of(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 2)));
+
+        assertThat(day1).isEqualTo(2);
+        assertThat(bothDays).isEqualTo(3);
+        assertThat(stringRedisTemplate.keys("banking:activity-tmp:*")).isEmpty();
+    }
+
+    // 驗證群組人數與留存人數於同一腳本中讀取，兩者一致
+    @Test
+    @DisplayName("countCohortAndRetained_ReturnsBothCounts — 一次取得群組人數與留存人數")
+    void countCohortAndRetained_ReturnsBothCounts() {
+        userActivityPort.recordActivity("USER-001", YEAR_MONTH, 1);
+        userActivityPort.recordActivity("USER-002", YEAR_MONTH, 1);
+        userActivityPort.recordActivity("USER-002", YEAR_MONTH, 8);
+        userActivityPort.recordActivity("USER-003", YEAR_MONTH, 8);
+
+        RetentionCohort cohort = userActivityPort.countCohortAndRetained(LocalDate.of(2026, 2, 1), 7);
+
+        assertThat(cohort.getCohortSize()).isEqualTo(2L);
+        assertThat(cohort.getRetainedUsers()).isEqualTo(1L);
+        assertThat(cohort.getAfterDays()).isEqualTo(7);
+        assertThat(stringRedisTemplate.keys("banking:activity-tmp:*")).isEmpty();
+    }
+
+    // 驗證單日 Bitmap 轉為 Roaring Bitmap 後，內容為當日活躍使用者的索引
+    @Test
+    @DisplayName("getActiveUsers_ReturnsIndexesOfActiveUsers — 當日活躍使用者索引轉為 Roaring Bitmap")
+    void getActiveUsers_ReturnsIndexesOfActiveUsers() {
+        userActivityPort.recordActivity("USER-001", YEAR_MONTH, 1);
+        userActivityPort.recordActivity("USER-002", YEAR_MONTH, 2);
+        userActivityPort.recordActivity("USER-003", YEAR_MONTH, 1);
+
+        RoaringBitmap day1 = userActivityPort.getActiveUsers(LocalDate.of(2026, 2, 1));
+
+        Map<String, Integer> indexes = userActivityPort.resolveUserIndexes(List.of("USER-001", "USER-003"));
+        assertThat(day1).isEqualTo(RoaringBitmap.of(indexes.get("USER-001"), indexes.get("USER-003")));
+        assertThat(userActivityPort.findUserIds(day1.toArray(10))).containsExactly("USER-001", "USER-003");
+    }
+
+    // 驗證未曾活躍的使用者也會被分配新索引，且已知使用者數隨之增加
+    @Test
+    @DisplayName("resolveUserIndexes_AssignsNewIndexes — 新使用者取得遞增索引")
+    void resolveUserIndexes_AssignsNewIndexes() {
+        userActivityPort.recordActivity("USER-001", YEAR_MONTH, 1);
+
+        Map<String, Integer> indexes = userActivityPort.resolveUserIndexes(List.of("USER-001", "USER-NEW"));
+
+        assertThat(indexes).containsEntry("USER-001", 0).containsEntry("USER-NEW", 1);
+        assertThat(userActivityPort.countKnownUsers()).isEqualTo(2);
+    }
 }
@@ -0,0 +1,87 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.model.RoaringBitmap;
+import com.tutorial.redis.module03.domain.model.SegmentExpression;
+import com.tutorial.redis.module03.domain.port.outbound.SegmentStorePort;
+import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 受眾分群服務單元測試
+ * 驗證 AudienceSegmentService 在程序內以 Roaring Bitmap 計算 AND/OR/NOT 運算式，並正確更新分群成員
+ * 使用 Mockito 隔離 SegmentStorePort 與 UserActivityPort，屬於 Application 層（使用案例）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AudienceSegmentService 單元測試")
+class AudienceSegmentServiceTest {
+
+    @Mock
+    private SegmentStorePort segmentStorePort;
+
+    @Mock
+    private UserActivityPort userActivityPort;
+
+    @InjectMocks
+    private AudienceSegmentService service;
+
+    // 驗證「近兩日活躍 AND vip AND NOT churned」：活躍 {1,2,3,4} ∩ vip {2,3,4} − churned {3} = {2,4}
+    @Test
+    @DisplayName("countAudience_ActiveAndVipNotChurned_ReturnsIntersection — 活躍且 VIP 且未流失")
+    void countAudience_ActiveAndVipNotChurned_ReturnsIntersection() {
+        LocalDate day1 = LocalDate.of(2026, 2, 1);
+        LocalDate day2 = LocalDate.of(2026, 2, 2);
+        when(userActivityPort.getActiveUsers(day1)).thenReturn(RoaringBitmap.of(1, 2));
+        when(userActivityPort.getActiveUsers(day2)).thenReturn(RoaringBitmap.of(3, 4));
+        when(segmentStorePort.load("tag:vip")).thenReturn(Optional.of(RoaringBitmap.of(2, 3, 4, 9)));
+        when(segmentStorePort.load("churned")).thenReturn(Optional.of(RoaringBitmap.of(3)));
+        when(userActivityPort.findUserIds(new int[]{2, 4})).thenReturn(List.of("USER-2", "USER-4"));
+
+        SegmentExpression expression = SegmentExpression.and(
+                SegmentExpression.activeBetween(day1, day2),
+                SegmentExpression.segment("tag:vip"),
+                SegmentExpression.not(SegmentExpression.segment("churned")));
+
+        assertThat(service.countAudience(expression)).isEqualTo(2);
+        assertThat(service.findAudience(expression, 10)).containsExactly("USER-2", "USER-4");
+        verify(userActivityPort, never()).countKnownUsers();
+    }
+
+    // 驗證單獨的 NOT 以所有已知使用者（索引 0~4）為全集取補集
+    @Test
+    @DisplayName("countAudience_TopLevelNot_UsesAllKnownUsers — 最外層 NOT 以全部使用者取補集")
+    void countAudience_TopLevelNot_UsesAllKnownUsers() {
+        when(userActivityPort.countKnownUsers()).thenReturn(5);
+        when(segmentStorePort.load("tag:vip")).thenReturn(Optional.of(RoaringBitmap.of(0, 4)));
+
+        long count = service.countAudience(SegmentExpression.not(SegmentExpression.segment("tag:vip")));
+
+        assertThat(count).isEqualTo(3);
+    }
+
+    // 驗證新增成員時將使用者 ID 轉為索引，與既有成員聯集後儲存
+    @Test
+    @DisplayName("addUsersToSegment_MergesWithExistingMembers — 新成員與既有成員聯集後儲存")
+    void addUsersToSegment_MergesWithExistingMembers() {
+        when(userActivityPort.resolveUserIndexes(List.of("USER-7"))).thenReturn(Map.of("USER-7", 7));
+        when(segmentStorePort.load("tag:vip")).thenReturn(Optional.of(RoaringBitmap.of(1)));
+
+        service.addUsersToSegment("tag:vip", List.of("USER-7"));
+
+        verify(segmentStorePort).save("tag:vip", RoaringBitmap.of(1, 7));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.port.outbound.UniqueVisitorPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 不重複訪客服務單元測試
+ * 驗證 CountVisitorsService 以預先彙總的週／月 HyperLogLog 計數，並依序彙總已結束的日期
+ * 使用 Mockito 隔離外部依賴，屬於 Application 層（使用案例）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CountVisitorsService 單元測試")
+class CountVisitorsServiceTest {
+
+    @Mock
+    private UniqueVisitorPort uniqueVisitorPort;
+
+    @InjectMocks
+    private CountVisitorsService service;
+
+    // 驗證週計數以 ISO 週期與該週週一至週日七天委派至 countRolledUpVisitors
+    @Test
+    @DisplayName("getWeeklyUniqueVisitors_UsesIsoWeekRollup — 以 ISO 週彙總計數")
+    void getWeeklyUniqueVisitors_UsesIsoWeekRollup() {
+        List<LocalDate> week = LocalDate.of(2026, 2, 16).datesUntil(LocalDate.of(2026, 2, 23)).toList();
+        when(uniqueVisitorPort.countRolledUpVisitors("page-home", "2026-W08", week)).thenReturn(90L);
+
+        long count = service.getWeeklyUniqueVisitors("page-home", LocalDate.of(2026, 2, 20));
+
+        assertThat(count).isEqualTo(90L);
+    }
+
+    // 驗證彙總已結束日期時依序處理，已被其他實例彙總的日期（回傳 -1）不計入
+    @Test
+    @DisplayName("rollUpClosedDays_SkipsDaysAlreadyRolledUp — 略過已彙總的日期")
+    void rollUpClosedDays_SkipsDaysAlreadyRolledUp() {
+        LocalDate today = LocalDate.of(2026, 2, 20);
+        LocalDate day1 = LocalDate.of(2026, 2, 18);
+        LocalDate day2 = LocalDate.of(2026, 2, 19);
+        when(uniqueVisitorPort.findDaysPendingRollup(today)).thenReturn(List.of(day1, day2));
+        when(uniqueVisitorPort.rollUpDay(day1)).thenReturn(-1);
+        when(uniqueVisitorPort.rollUpDay(day2)).thenReturn(3);
+
+        int rolledUp = service.rollUpClosedDays(today);
+
+        assertThat(rolledUp).isEqualTo(1);
+        verify(uniqueVisitorPort).rollUpDay(day2);
+        verify(uniqueVisitorPort).deleteLegacyMergeKeys();
+    }
+}
@@ -0,0 +1,78 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.model.CompactionRule;
+import com.tutorial.redis.module03.domain.model.TimeSeriesAggregation;
+import com.tutorial.redis.module03.domain.model.TimeSeriesColumns;
+import com.tutorial.redis.module03.domain.port.outbound.TimeSeriesPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 時序管理服務單元測試
+ * 驗證 ManageTimeSeriesService 正確委派壓縮規則建立、緩衝寫入、欄式區間查詢與標籤查詢至 TimeSeriesPort
+ * 使用 Mockito 隔離外部依賴，屬於 Application 層（使用案例）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ManageTimeSeriesService 單元測試")
+class ManageTimeSeriesServiceTest {
+
+    @Mock
+    private TimeSeriesPort timeSeriesPort;
+
+    @InjectMocks
+    private ManageTimeSeriesService service;
+
+    // 驗證建立附帶壓縮規則的時序時，標籤與規則一併委派至 TimeSeriesPort.create
+    @Test
+    @DisplayName("createTimeSeries_WithRules_DelegatesToPort — 委派至 Port 的 create（含規則）方法")
+    void createTimeSeries_WithRules_DelegatesToPort() {
+        List<CompactionRule> rules = List.of(new CompactionRule(TimeSeriesAggregation.AVG, 60_000, 0));
+
+        service.createTimeSeries("cpu", 0, Map.of("host", "web-1"), rules);
+
+        verify(timeSeriesPort).create("cpu", 0, Map.of("host", "web-1"), rules);
+    }
+
+    // 驗證緩衝寫入與 flush 分別委派至 addBuffered 與 flush
+    @Test
+    @DisplayName("ingestDataPoint_UsesBufferedPath — 委派至 Port 的 addBuffered 與 flush 方法")
+    void ingestDataPoint_UsesBufferedPath() {
+        service.ingestDataPoint("cpu", 1_000L, 0.75);
+        service.flushIngestion();
+
+        verify(timeSeriesPort).addBuffered("cpu", 1_000L, 0.75);
+        verify(timeSeriesPort).flush();
+    }
+
+    // 驗證標籤查詢委派至 TimeSeriesPort.multiRange 並帶入彙總參數
+    @Test
+    @DisplayName("queryByLabels_DelegatesToMultiRange — 委派至 Port 的 multiRange 方法")
+    void queryByLabels_DelegatesToMultiRange() {
+        service.queryByLabels(List.of("host=web-1"), 0, 10_000, TimeSeriesAggregation.MAX, 1_000);
+
+        verify(timeSeriesPort).multiRange(0, 10_000, List.of("host=web-1"), TimeSeriesAggregation.MAX, 1_000);
+    }
+
+    // 驗證欄式區間查詢委派至 TimeSeriesPort.rangeColumns 並原樣回傳
+    @Test
+    @DisplayName("queryRangeColumns_DelegatesToRangeColumns — 委派至 Port 的 rangeColumns 方法")
+    void queryRangeColumns_DelegatesToRangeColumns() {
+        TimeSeriesColumns columns = new TimeSeriesColumns(new long[]{1_000L, 2_000L}, new double[]{0.5, 0.75}, 2);
+        when(timeSeriesPort.rangeColumns("cpu", 0, 10_000)).thenReturn(columns);
+
+        TimeSeriesColumns result = service.queryRangeColumns("cpu", 0, 10_000);
+
+        assertThat(result).isSameAs(columns);
+    }
+}
@@ -1,5 +1,6 @@
 package com.tutorial.redis.module03.application.usecase;
 
+import com.tutorial.redis.module03.domain.model.RetentionCohort;
 import com.tutorial.redis.module03.domain.model.UserActivity;
 import com.tutorial.redis.module03.domain.port.outbound.UserActivityPort;
 import org.junit.jupiter.api.DisplayName;
@@ -9,13 +10,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * 活動追蹤服務單元測試
- * 驗證 TrackActivityService 正確委派 Bitmap 相關操作至 UserActivityPort
+ * 驗證 TrackActivityService 正確委派 Bitmap 相關操作至 UserActivityPort，並正確組出 WAU/MAU 日期與留存結果
  * 使用 Mockito 隔離外部依賴，屬於 Application 層（使用案例）
  */
 @ExtendWith(MockitoExtension.class)
@@ -63,4 +67,34 @@ class TrackActivityServiceTest {
         assertThat(activity.getTotalDays()).isEqualTo(31);
         verify(userActivityPort).countActiveDays("USER-001", "202601");
     }
+
+    // 驗證 WAU 以截止日往前共 7 天的日期清單查詢 countActiveUsers
+    @Test
+    @DisplayName("countWeeklyActiveUsers_QueriesSevenDays — 以連續 7 天查詢不重複活躍人數")
+    void countWeeklyActiveUsers_QueriesSevenDays() {
+        LocalDate lastDay = LocalDate.of(2026, 3, 2);
+        List<LocalDate> week = List.of(
+                LocalDate.of(2026, 2, 24), LocalDate.of(2026, 2, 25), LocalDate.of(2026, 2, 26),
+                LocalDate.of(2026, 2, 27), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 1), lastDay);
+        when(userActivityPort.countActiveUsers(week)).thenReturn(42L);
+
+        long users = service.countWeeklyActiveUsers(lastDay);
+
+        assertThat(users).isEqualTo(42L);
+    }
+
+    // 驗證留存查詢：以群組日人數為分母、N 天後的交集人數為分子
+    @Test
+    @DisplayName("getRetention_BuildsCohortWithRate — 建構 RetentionCohort 並計算留存率")
+    void getRetention_BuildsCohortWithRate() {
+        LocalDate cohortDay = LocalDate.of(2026, 2, 1);
+        when(userActivityPort.countCohortAndRetained(cohortDay, 7))
+                .thenReturn(new RetentionCohort(cohortDay, 7, 200L, 50L));
+
+        RetentionCohort cohort = service.getRetention(cohortDay, 7);
+
+        assertThat(cohort.getCohortSize()).isEqualTo(200L);
+        assertThat(cohort.getRetainedUsers()).isEqualTo(50L);
+        assertThat(cohort.retentionRate()).isEqualTo(0.25);
+    }
 }
@@ -0,0 +1,45 @@
+package com.tutorial.redis.module03.application.usecase;
+
+import com.tutorial.redis.module03.domain.port.outbound.CourierTrackingPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 外送員追蹤服務單元測試
+ * 驗證 TrackCouriersService 以最後回報時間推算過期門檻，並分批清除過期外送員
+ * 使用 Mockito 隔離外部依賴，屬於 Application 層（使用案例）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrackCouriersService 單元測試")
+class TrackCouriersServiceTest {
+
+    @Mock
+    private CourierTrackingPort courierTrackingPort;
+
+    @InjectMocks
+    private TrackCouriersService service;
+
+    // 驗證批次清除直到某批少於批次大小為止，並回傳清除總數
+    @Test
+    @DisplayName("expireStaleCouriers_RemovesInBatchesUntilDrained — 分批清除直到清空")
+    void expireStaleCouriers_RemovesInBatchesUntilDrained() {
+        long now = 1_000_000;
+        long cutoff = now - TrackCouriersService.STALE_AFTER_MS;
+        when(courierTrackingPort.removeStaleCouriers(cutoff, TrackCouriersService.EXPIRY_BATCH_SIZE))
+                .thenReturn(TrackCouriersService.EXPIRY_BATCH_SIZE, 7);
+
+        int removed = service.expireStaleCouriers(now);
+
+        assertThat(removed).isEqualTo(TrackCouriersService.EXPIRY_BATCH_SIZE + 7);
+        verify(courierTrackingPort, times(2)).removeStaleCouriers(cutoff, TrackCouriersService.EXPIRY_BATCH_SIZE);
+    }
+}
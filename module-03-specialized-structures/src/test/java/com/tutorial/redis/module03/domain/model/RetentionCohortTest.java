@@ -0,0 +1,36 @@
+package com.tutorial.redis.module03.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RetentionCohort 領域模型單元測試
+ * 驗證留存群組物件的建構檢查與留存率計算
+ * 此模型用於以日為主的 Bitmap 留存分析，屬於 Domain 層（領域模型）
+ */
+@DisplayName("RetentionCohort 領域模型測試")
+class RetentionCohortTest {
+
+    // 驗證留存率計算：200 人中 50 人回訪 = 0.25；空群組留存率為 0
+    @Test
+    @DisplayName("retentionRate_ReturnsRatioOrZeroForEmptyCohort — 留存率計算與空群組")
+    void retentionRate_ReturnsRatioOrZeroForEmptyCohort() {
+        LocalDate day = LocalDate.of(2026, 2, 1);
+
+        assertThat(new RetentionCohort(day, 7, 200, 50).retentionRate()).isEqualTo(0.25);
+        assertThat(new RetentionCohort(day, 7, 0, 0).retentionRate()).isZero();
+    }
+
+    // 驗證留存人數超過群組人數時拋出 IllegalArgumentException
+    @Test
+    @DisplayName("constructor_WhenRetainedExceedsCohort_ThrowsException — 留存人數不可大於群組人數")
+    void constructor_WhenRetainedExceedsCohort_ThrowsException() {
+        assertThatThrownBy(() -> new RetentionCohort(LocalDate.of(2026, 2, 1), 1, 10, 11))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
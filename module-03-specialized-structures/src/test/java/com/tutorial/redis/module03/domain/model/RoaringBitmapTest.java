@@ -0,0 +1,172 @@
+package com.tutorial.redis.module03.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RoaringBitmap 領域模型單元測試
+ * 以 java.util.BitSet 為對照，驗證陣列容器與點陣容器混合時 AND/OR/AND-NOT、序列化與 Redis Bitmap 轉換的正確性
+ * 序列化格式以 RoaringBitmap 函式庫的 portable 格式（buffer 實作）交叉驗證
+ * 此模型用於受眾分群（Segment）引擎，屬於 Domain 層（領域模型）
+ */
+@DisplayName("RoaringBitmap 領域模型測試")
+class RoaringBitmapTest {
+
+    private static final int UNIVERSE = 1_000_000;
+    private static final int ARRAY_MAX_CARDINALITY = 4_096;
+    private static final int NO_RUN_CONTAINER_COOKIE = 12_346;
+
+    // 驗證稀疏（陣列容器）與稠密（點陣容器）資料的集合運算結果與 BitSet 一致
+    @Test
+    @DisplayName("setOperations_MatchBitSetReference — AND/OR/AND-NOT 結果與 BitSet 一致")
+    void setOperations_MatchBitSetReference() {
+        Random random = new Random(7);
+        BitSet sparse = randomBits(random, 0.01);
+        BitSet dense = randomBits(random, 0.4);
+        RoaringBitmap a = toRoaring(sparse);
+        RoaringBitmap b = toRoaring(dense);
+
+        BitSet and = (BitSet) sparse.clone();
+        and.and(dense);
+        BitSet or = (BitSet) sparse.clone();
+        or.or(dense);
+        BitSet andNot = (BitSet) dense.clone();
+        andNot.andNot(sparse);
+
+        assertThat(a.and(b)).isEqualTo(toRoaring(and));
+        assertThat(a.or(b)).isEqualTo(toRoaring(or));
+        assertThat(b.andNot(a)).isEqualTo(toRoaring(andNot));
+        assertThat(b.andNot(a).cardinality()).isEqualTo(andNot.cardinality());
+        assertThat(a.contains(sparse.nextSetBit(0))).isTrue();
+        assertThat(a.contains(sparse.nextClearBit(0))).isFalse();
+    }
+
+    // 驗證序列化後還原結果相同，且 1% 稀疏資料比原始 Bitmap（UNIVERSE / 8 bytes）小
+    @Test
+    @DisplayName("serialize_RoundTripsAndIsSmallerThanRawBitmap — 序列化可還原且稀疏資料更省空間")
+    void serialize_RoundTripsAndIsSmallerThanRawBitmap() {
+        RoaringBitmap bitmap = toRoaring(randomBits(new Random(11), 0.01)).or(RoaringBitmap.range(500_000, 600_000));
+
+        byte[] data = bitmap.serialize();
+
+        assertThat(RoaringBitmap.deserialize(data)).isEqualTo(bitmap);
+        assertThat(data.length).isEqualTo(bitmap.serializedSizeInBytes());
+        assertThat(toRoaring(randomBits(new Random(11), 0.01)).serializedSizeInBytes()).isLessThan(UNIVERSE / 8);
+    }
+
+    // 驗證各種密度、run 容器與接近 Integer.MAX_VALUE 的值，序列化後可由函式庫的 buffer 實作讀取，反之亦然
+    @Test
+    @DisplayName("serialize_RoundTripsThroughReferenceImplementation — 與函式庫 portable 格式雙向相容")
+    void serialize_RoundTripsThroughReferenceImplementation() {
+        Random random = new Random(13);
+        List<RoaringBitmap> bitmaps = List.of(
+                RoaringBitmap.empty(),
+                RoaringBitmap.of(0),
+                RoaringBitmap.of(Integer.MAX_VALUE, 65_535, 65_536),
+                toRoaring(randomBits(random, 0.001)),
+                toRoaring(randomBits(random, 0.05)),
+                toRoaring(randomBits(random, 0.9)),
+                RoaringBitmap.range(1, 300_000).andNot(RoaringBitmap.of(70_000, 140_000)));
+
+        for (RoaringBitmap bitmap : bitmaps) {
+            int[] values = bitmap.toArray(Integer.MAX_VALUE);
+            byte[] data = bitmap.serialize();
+
+            ImmutableRoaringBitmap reference = new ImmutableRoaringBitmap(ByteBuffer.wrap(data));
+            assertThat(reference.toArray()).containsExactly(values);
+
+            MutableRoaringBitmap written = MutableRoaringBitmap.bitmapOf(values);
+            ByteBuffer referenceData = ByteBuffer.allocate(written.serializedSizeInBytes());
+            written.serialize(referenceData);
+            assertThat(RoaringBitmap.deserialize(referenceData.array())).isEqualTo(bitmap);
+            assertThat(RoaringBitmap.deserialize(data).toArray(Integer.MAX_VALUE)).containsExactly(values);
+        }
+    }
+
+    // 驗證單一 chunk 在 4096 筆邊界前後：≤ 4096 筆為陣列容器（每筆 2 bytes），超過即為固定 8 KB 點陣容器
+    @Test
+    @DisplayName("serialize_AtArrayContainerBoundary_UsesExpectedContainer — 4096 筆邊界的容器格式正確")
+    void serialize_AtArrayContainerBoundary_UsesExpectedContainer() {
+        for (int cardinality : new int[]{ARRAY_MAX_CARDINALITY - 1, ARRAY_MAX_CARDINALITY, ARRAY_MAX_CARDINALITY + 1}) {
+            // 間隔 3 的值無法以 run 容器壓縮
+            int[] values = IntStream.range(0, cardinality).map(i -> 65_536 + i * 3).toArray();
+            RoaringBitmap bitmap = RoaringBitmap.of(values);
+
+            ByteBuffer data = ByteBuffer.wrap(bitmap.serialize()).order(ByteOrder.LITTLE_ENDIAN);
+
+            // cookie、container 數、key/cardinality-1、offset 各 4 bytes，接著為容器內容
+            int payload = cardinality <= ARRAY_MAX_CARDINALITY ? cardinality * 2 : 8_192;
+            assertThat(data.getInt(0)).isEqualTo(NO_RUN_CONTAINER_COOKIE);
+            assertThat(data.getInt(4)).isEqualTo(1);
+            assertThat(data.getShort(8)).isEqualTo((short) 1);
+            assertThat(data.getShort(10) & 0xFFFF).isEqualTo(cardinality - 1);
+            assertThat(data.capacity()).isEqualTo(16 + payload);
+            assertThat(RoaringBitmap.deserialize(data.array()).toArray(Integer.MAX_VALUE)).containsExactly(values);
+        }
+    }
+
+    // 驗證損毀的序列化資料以 IllegalArgumentException 回報
+    @Test
+    @DisplayName("deserialize_WhenDataCorrupt_ThrowsException — 資料損毀時拋出例外")
+    void deserialize_WhenDataCorrupt_ThrowsException() {
+        byte[] data = RoaringBitmap.of(1, 2, 3).serialize();
+        data[0] = 0;
+
+        assertThatThrownBy(() -> RoaringBitmap.deserialize(data))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoaringBitmap.deserialize(new byte[]{1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // 驗證 Redis Bitmap（每個位元組以最高位元為第 0 位）轉換後與 SETBIT 位移一致
+    @Test
+    @DisplayName("fromRedisBitmap_UsesRedisBitOrder — 依 Redis 位元順序轉換")
+    void fromRedisBitmap_UsesRedisBitOrder() {
+        byte[] redisBitmap = new byte[9_000];
+        redisBitmap[0] = (byte) 0b1000_0001;   // offset 0 與 7
+        redisBitmap[8_192] = (byte) 0b0100_0000; // offset 65537（第二個容器）
+
+        RoaringBitmap bitmap = RoaringBitmap.fromRedisBitmap(redisBitmap);
+
+        assertThat(bitmap.toArray(10)).containsExactly(0, 7, 65_537);
+    }
+
+    // 驗證 range 與 of 建構、toArray 上限與空集合行為
+    @Test
+    @DisplayName("range_AndOf_BuildExpectedValues — range 與 of 建構出預期集合")
+    void range_AndOf_BuildExpectedValues() {
+        RoaringBitmap range = RoaringBitmap.range(65_530, 65_540);
+
+        assertThat(range.toArray(100)).containsExactly(65_530, 65_531, 65_532, 65_533, 65_534,
+                65_535, 65_536, 65_537, 65_538, 65_539);
+        assertThat(RoaringBitmap.of(5, 3, 3, 1).toArray(2)).containsExactly(1, 3);
+        assertThat(RoaringBitmap.range(0, 200_000).cardinality()).isEqualTo(200_000);
+        assertThat(RoaringBitmap.of().isEmpty()).isTrue();
+    }
+
+    private static BitSet randomBits(Random random, double density) {
+        BitSet bits = new BitSet(UNIVERSE);
+        for (int i = 0; i < UNIVERSE; i++) {
+            if (random.nextDouble() < density) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static RoaringBitmap toRoaring(BitSet bits) {
+        return RoaringBitmap.of(bits.stream().toArray());
+    }
+}
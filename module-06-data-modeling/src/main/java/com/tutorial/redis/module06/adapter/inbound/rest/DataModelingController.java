@@ -2,37 +2,48 @@ package com.tutorial.redis.module06.adapter.inbound.rest;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 import com.tutorial.redis.module06.domain.port.inbound.ManageAccountUseCase;
+import com.tutorial.redis.module06.domain.port.inbound.ManageOrderHashUseCase;
 import com.tutorial.redis.module06.domain.port.inbound.ManageOrderUseCase;
 import com.tutorial.redis.module06.domain.port.inbound.QueryExchangeRateUseCase;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 /**
  * REST controller exposing endpoints for demonstrating Redis data modeling patterns:
  * <ul>
- *   <li>Account management using the Hash-per-entity pattern with Set secondary indexes</li>
- *   <li>Order management using the JSON String pattern with Set and Sorted Set indexes</li>
- *   <li>Exchange rate time-series using the Sorted Set pattern</li>
+ *   <li>Account management using the Hash-per-entity pattern with Set, range and prefix secondary indexes</li>
+ *   <li>Order management using the JSON String pattern with Sorted Set indexes</li>
+ *   <li>Order management using the field-level Hash pattern with partial updates</li>
+ *   <li>Exchange rate time-series using the Sorted Set pattern with OHLC downsampling</li>
  * </ul>
  */
 @RestController
 @RequestMapping("/api/v1/data-modeling")
 public class DataModelingController {
 
+    static final int MAX_PAGE_SIZE = 1_000;
+
     private final ManageAccountUseCase manageAccountUseCase;
     private final ManageOrderUseCase manageOrderUseCase;
+    private final ManageOrderHashUseCase manageOrderHashUseCase;
     private final QueryExchangeRateUseCase queryExchangeRateUseCase;
 
     public DataModelingController(ManageAccountUseCase manageAccountUseCase,
                                   ManageOrderUseCase manageOrderUseCase,
+                                  ManageOrderHashUseCase manageOrderHashUseCase,
                                   QueryExchangeRateUseCase queryExchangeRateUseCase) {
         this.manageAccountUseCase = manageAccountUseCase;
         this.manageOrderUseCase = manageOrderUseCase;
+        this.manageOrderHashUseCase = manageOrderHashUseCase;
         this.queryExchangeRateUseCase = queryExchangeRateUseCase;
     }
 
@@ -93,11 +104,45 @@ public class DataModelingController {
         return ResponseEntity.ok(accounts);
     }
 
+    /**
+     * Multi-criteria account search; all supplied parameters are combined with AND,
+     * e.g. {@code ?currency=TWD&status=ACTIVE&minBalance=1000}. Balance bounds are
+     * inclusive and answered from the {@code idx:account:balance} Sorted Set; the
+     * holder prefix uses the lexicographic index.
+     */
+    @GetMapping("/accounts/search")
+    public ResponseEntity<List<AccountAggregate>> searchAccounts(@RequestParam(required = false) String currency,
+                                                                 @RequestParam(required = false) String status,
+                                                                 @RequestParam(required = false) Double minBalance,
+                                                                 @RequestParam(required = false) Double maxBalance,
+                                                                 @RequestParam(required = false) String holderPrefix,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
+        List<QueryPredicate> predicates = new ArrayList<>();
+        if (currency != null) {
+            predicates.add(QueryPredicate.eq("currency", currency));
+        }
+        if (status != null) {
+            predicates.add(QueryPredicate.eq("status", status));
+        }
+        if (minBalance != null || maxBalance != null) {
+            predicates.add(QueryPredicate.between("balance",
+                    minBalance != null ? minBalance : Double.NEGATIVE_INFINITY,
+                    maxBalance != null ? maxBalance : Double.POSITIVE_INFINITY));
+        }
+        if (holderPrefix != null) {
+            predicates.add(QueryPredicate.prefix("holderName", holderPrefix));
+        }
+        if (predicates.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(manageAccountUseCase.searchAccounts(predicates, limit));
+    }
+
     // ===================== Order Endpoints =====================
 
     /**
      * Creates a new order stored as a JSON String with secondary indexes
-     * on customerId (Set) and createdAt (Sorted Set).
+     * on customerId and createdAt (both Sorted Sets).
      */
     @PostMapping("/orders")
     public ResponseEntity<Map<String, String>> createOrder(@RequestBody Order order) {
@@ -131,26 +176,137 @@ public class DataModelingController {
     }
 
     /**
-     * Finds all orders placed by a given customer using the
-     * Set-based secondary index {@code idx:order:customer:{customerId}}.
+     * Finds one page of a customer's orders, newest first, using the
+     * Sorted Set secondary index {@code idx:order:customer:{customerId}}.
+     * Negative paging parameters are rejected; {@code limit} is capped at
+     * {@value #MAX_PAGE_SIZE}.
      */
     @GetMapping("/orders/customer/{customerId}")
-    public ResponseEntity<List<Order>> findOrdersByCustomer(@PathVariable String customerId) {
-        List<Order> orders = manageOrderUseCase.findOrdersByCustomer(customerId);
+    public ResponseEntity<List<Order>> findOrdersByCustomer(@PathVariable String customerId,
+                                                            @RequestParam(defaultValue = "0") int offset,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        if (offset < 0 || limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Order> orders = manageOrderUseCase.findOrdersByCustomer(customerId, offset,
+                Math.min(limit, MAX_PAGE_SIZE));
         return ResponseEntity.ok(orders);
     }
 
     /**
-     * Finds orders created within the given epoch-millisecond range using the
-     * Sorted Set time index {@code idx:order:created} via {@code ZRANGEBYSCORE}.
+     * Returns the number of orders placed by a given customer via {@code ZCARD}.
+     */
+    @GetMapping("/orders/customer/{customerId}/count")
+    public ResponseEntity<Map<String, Object>> countOrdersByCustomer(@PathVariable String customerId) {
+        long count = manageOrderUseCase.countOrdersByCustomer(customerId);
+        return ResponseEntity.ok(Map.of(
+                "customerId", customerId,
+                "count", count
+        ));
+    }
+
+    /**
+     * Finds one page of orders created within the given epoch-millisecond range using
+     * the Sorted Set time index {@code idx:order:created} via {@code ZRANGEBYSCORE ... LIMIT}.
+     * Negative paging parameters are rejected; {@code limit} is capped at
+     * {@value #MAX_PAGE_SIZE}.
      */
     @GetMapping("/orders/time-range")
     public ResponseEntity<List<Order>> findOrdersByTimeRange(@RequestParam long from,
-                                                             @RequestParam long to) {
-        List<Order> orders = manageOrderUseCase.findOrdersByTimeRange(from, to);
+                                                             @RequestParam long to,
+                                                             @RequestParam(defaultValue = "0") int offset,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        if (offset < 0 || limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Order> orders = manageOrderUseCase.findOrdersByTimeRange(from, to, offset,
+                Math.min(limit, MAX_PAGE_SIZE));
         return ResponseEntity.ok(orders);
     }
 
+    // ===================== Hash Order Endpoints =====================
+
+    /**
+     * Creates an order stored as a single Hash with one field per header value
+     * and one compact field per line item.
+     */
+    @PostMapping("/hash-orders")
+    public ResponseEntity<Map<String, String>> createHashOrder(@RequestBody Order order) {
+        manageOrderHashUseCase.createOrder(order);
+        return ResponseEntity.ok(Map.of(
+                "status", "created",
+                "orderId", order.getOrderId()
+        ));
+    }
+
+    /**
+     * Retrieves a Hash-encoded order. With {@code fields}, only those Hash fields are
+     * read ({@code HMGET}) and returned as a map; otherwise the full aggregate is returned.
+     */
+    @GetMapping("/hash-orders/{orderId}")
+    public ResponseEntity<?> getHashOrder(@PathVariable String orderId,
+                                          @RequestParam(required = false) List<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            Map<String, String> projection = manageOrderHashUseCase.getOrderFields(orderId, fields);
+            return projection.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(projection);
+        }
+        return manageOrderHashUseCase.getOrder(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves only the order-level fields of a Hash-encoded order, without its items.
+     */
+    @GetMapping("/hash-orders/{orderId}/header")
+    public ResponseEntity<OrderHeader> getHashOrderHeader(@PathVariable String orderId) {
+        return manageOrderHashUseCase.getOrderHeader(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Updates only the status field of a Hash-encoded order.
+     */
+    @PatchMapping("/hash-orders/{orderId}/status")
+    public ResponseEntity<Map<String, String>> updateHashOrderStatus(@PathVariable String orderId,
+                                                                     @RequestParam String status) {
+        if (!manageOrderHashUseCase.updateOrderStatus(orderId, status)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "orderId", orderId,
+                "status", status
+        ));
+    }
+
+    /**
+     * Updates a line item's quantity and returns the recalculated order total.
+     */
+    @PatchMapping("/hash-orders/{orderId}/items/{productId}")
+    public ResponseEntity<Map<String, Object>> updateHashOrderItemQuantity(@PathVariable String orderId,
+                                                                           @PathVariable String productId,
+                                                                           @RequestParam int quantity) {
+        return manageOrderHashUseCase.updateItemQuantity(orderId, productId, quantity)
+                .map(total -> ResponseEntity.ok(Map.<String, Object>of(
+                        "orderId", orderId,
+                        "productId", productId,
+                        "totalAmount", total)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Deletes a Hash-encoded order.
+     */
+    @DeleteMapping("/hash-orders/{orderId}")
+    public ResponseEntity<Map<String, String>> deleteHashOrder(@PathVariable String orderId) {
+        manageOrderHashUseCase.deleteOrder(orderId);
+        return ResponseEntity.ok(Map.of(
+                "status", "deleted",
+                "orderId", orderId
+        ));
+    }
+
     // ===================== Exchange Rate Endpoints =====================
 
     /**
@@ -180,6 +336,20 @@ public class DataModelingController {
         return ResponseEntity.ok(snapshots);
     }
 
+    /**
+     * Queries downsampled OHLC bars for a currency pair. The resolution (minute, hour
+     * or day) is chosen so that the range is covered and at most {@code maxPoints}
+     * bars are returned.
+     */
+    @GetMapping("/rates/{currencyPair}/bars")
+    public ResponseEntity<List<OhlcBar>> queryBars(
+            @PathVariable String currencyPair,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "500") int maxPoints) {
+        return ResponseEntity.ok(queryExchangeRateUseCase.queryBars(currencyPair, from, to, maxPoints));
+    }
+
     /**
      * Retrieves the latest (most recent) exchange rate for a currency pair
      * using {@code ZREVRANGEBYSCORE} with a limit of 1.
@@ -1,6 +1,7 @@
 package com.tutorial.redis.module06.adapter.outbound.redis;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 import com.tutorial.redis.module06.domain.port.outbound.AccountDaoPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,13 +16,25 @@ import java.util.*;
  * Each account is stored as a Redis Hash with individual fields (holderName, balance,
  * currency, createdAt, status), enabling partial reads and atomic field updates.
  *
- * <p>Secondary indexes are maintained as Redis Sets for currency and status lookups.</p>
+ * <p>Secondary indexes are maintained by a {@link RedisHashIndexEngine}: Sets for
+ * currency and status, a Sorted Set for balance ranges and a lexicographic Sorted Set
+ * for holder name prefixes. Index maintenance runs in the same Lua script as the Hash
+ * write, so changing an account's status or balance never leaves stale index entries.
+ * Multi-criteria queries such as {@code currency = TWD AND status = ACTIVE AND balance > 1000}
+ * are planned smallest-index-first and hydrated with pipelined {@code HGETALL}.</p>
+ *
+ * <p>Accounts saved before the balance and holder name indexes existed only appear in the
+ * currency and status Sets. The engine backfills them on the first {@code findByCriteria}
+ * that finds {@code idx:account:__schema} missing, see {@link RedisHashIndexEngine#backfill()}.</p>
  *
  * <h3>Key Schema</h3>
  * <ul>
  *   <li>Entity: {@code banking:account:{accountId}} (HASH)</li>
  *   <li>Currency index: {@code idx:account:currency:{currency}} (SET of accountIds)</li>
  *   <li>Status index: {@code idx:account:status:{status}} (SET of accountIds)</li>
+ *   <li>Balance index: {@code idx:account:balance} (ZSET, score = balance)</li>
+ *   <li>Holder name index: {@code idx:account:holderName:lex} (ZSET, member = {@code name\0accountId})</li>
+ *   <li>Index layout marker: {@code idx:account:__schema} (STRING)</li>
  * </ul>
  */
 @Component
@@ -30,25 +43,30 @@ public class RedisAccountDaoAdapter implements AccountDaoPort {
     private static final Logger log = LoggerFactory.getLogger(RedisAccountDaoAdapter.class);
 
     private static final String ENTITY_PREFIX = "banking:account:";
-    private static final String CURRENCY_INDEX_PREFIX = "idx:account:currency:";
-    private static final String STATUS_INDEX_PREFIX = "idx:account:status:";
+    private static final String INDEX_PREFIX = "idx:account:";
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedisHashIndexEngine indexEngine;
 
     public RedisAccountDaoAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+
+        Map<String, RedisHashIndexEngine.IndexType> indexes = new LinkedHashMap<>();
+        indexes.put("currency", RedisHashIndexEngine.IndexType.SET);
+        indexes.put("status", RedisHashIndexEngine.IndexType.SET);
+        indexes.put("balance", RedisHashIndexEngine.IndexType.SORTED);
+        indexes.put("holderName", RedisHashIndexEngine.IndexType.LEX);
+        this.indexEngine = new RedisHashIndexEngine(stringRedisTemplate, ENTITY_PREFIX, INDEX_PREFIX, indexes);
     }
 
     /**
-     * Saves an account as a Redis Hash and adds its ID to the currency and status
-     * secondary index Sets. Uses {@code HSET} for the entity and {@code SADD}
-     * for the indexes.
+     * Saves an account as a Redis Hash and re-indexes it atomically: entries for the
+     * previously stored currency, status, balance and holder name are removed before
+     * the new values are indexed.
      */
     @Override
     public void save(AccountAggregate account) {
-        String key = ENTITY_PREFIX + account.getAccountId();
-
-        Map<String, String> fields = new HashMap<>();
+        Map<String, String> fields = new LinkedHashMap<>();
         fields.put("accountId", account.getAccountId());
         fields.put("holderName", account.getHolderName());
         fields.put("balance", String.valueOf(account.getBalance()));
@@ -56,16 +74,10 @@ public class RedisAccountDaoAdapter implements AccountDaoPort {
         fields.put("createdAt", account.getCreatedAt().toString());
         fields.put("status", account.getStatus());
 
-        stringRedisTemplate.opsForHash().putAll(key, fields);
-
-        String currencyIndexKey = CURRENCY_INDEX_PREFIX + account.getCurrency();
-        stringRedisTemplate.opsForSet().add(currencyIndexKey, account.getAccountId());
+        indexEngine.save(account.getAccountId(), fields);
 
-        String statusIndexKey = STATUS_INDEX_PREFIX + account.getStatus();
-        stringRedisTemplate.opsForSet().add(statusIndexKey, account.getAccountId());
-
-        log.debug("Saved account {} as Hash with currency index [{}] and status index [{}]",
-                account.getAccountId(), currencyIndexKey, statusIndexKey);
+        log.debug("Saved account {} as Hash with currency [{}], status [{}] and balance [{}] indexes",
+                account.getAccountId(), account.getCurrency(), account.getStatus(), account.getBalance());
     }
 
     /**
@@ -88,81 +100,62 @@ public class RedisAccountDaoAdapter implements AccountDaoPort {
     }
 
     /**
-     * Deletes an account by first reading it to determine its currency and status
-     * (for index cleanup), then removing the account ID from both secondary index
-     * Sets, and finally deleting the entity Hash key.
+     * Deletes the entity Hash and removes the account from every secondary index
+     * in a single Lua script.
      */
     @Override
     public void delete(String accountId) {
-        String key = ENTITY_PREFIX + accountId;
-
-        // Read account first to determine index keys for cleanup
-        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
-        if (!entries.isEmpty()) {
-            String currency = (String) entries.get("currency");
-            String status = (String) entries.get("status");
-
-            // Remove from secondary indexes
-            if (currency != null) {
-                stringRedisTemplate.opsForSet().remove(CURRENCY_INDEX_PREFIX + currency, accountId);
-            }
-            if (status != null) {
-                stringRedisTemplate.opsForSet().remove(STATUS_INDEX_PREFIX + status, accountId);
-            }
-        }
-
-        stringRedisTemplate.delete(key);
+        indexEngine.delete(accountId);
         log.debug("Deleted account {}", accountId);
     }
 
     /**
-     * Finds all accounts denominated in the given currency by reading the
-     * {@code idx:account:currency:{currency}} Set, then fetching each account
-     * by its ID via {@code HGETALL}.
+     * Finds all accounts denominated in the given currency via the
+     * {@code idx:account:currency:{currency}} Set, hydrated with pipelined {@code HGETALL}.
      */
     @Override
     public List<AccountAggregate> findByCurrency(String currency) {
-        String indexKey = CURRENCY_INDEX_PREFIX + currency;
-        Set<String> accountIds = stringRedisTemplate.opsForSet().members(indexKey);
-
-        if (accountIds == null || accountIds.isEmpty()) {
-            log.debug("No accounts found for currency {}", currency);
-            return List.of();
-        }
-
-        List<AccountAggregate> accounts = new ArrayList<>();
-        for (String accountId : accountIds) {
-            findById(accountId).ifPresent(accounts::add);
-        }
-
-        log.debug("Found {} accounts for currency {}", accounts.size(), currency);
-        return accounts;
+        return findByCriteria(List.of(QueryPredicate.eq("currency", currency)), 0);
     }
 
     /**
-     * Finds all accounts with the given status by reading the
-     * {@code idx:account:status:{status}} Set, then fetching each account
-     * by its ID via {@code HGETALL}.
+     * Finds all accounts with the given status via the
+     * {@code idx:account:status:{status}} Set, hydrated with pipelined {@code HGETALL}.
      */
     @Override
     public List<AccountAggregate> findByStatus(String status) {
-        String indexKey = STATUS_INDEX_PREFIX + status;
-        Set<String> accountIds = stringRedisTemplate.opsForSet().members(indexKey);
+        return findByCriteria(List.of(QueryPredicate.eq("status", status)), 0);
+    }
 
-        if (accountIds == null || accountIds.isEmpty()) {
-            log.debug("No accounts found for status {}", status);
+    /**
+     * Evaluates the AND-combined predicates against the secondary indexes, most
+     * selective index first, then hydrates the matching accounts in pipelined batches.
+     */
+    @Override
+    public List<AccountAggregate> findByCriteria(List<QueryPredicate> predicates, int limit) {
+        List<String> accountIds = indexEngine.findIds(predicates, limit);
+        if (accountIds.isEmpty()) {
+            log.debug("No accounts found for {}", predicates);
             return List.of();
         }
 
-        List<AccountAggregate> accounts = new ArrayList<>();
-        for (String accountId : accountIds) {
-            findById(accountId).ifPresent(accounts::add);
-        }
+        List<AccountAggregate> accounts = indexEngine.hydrate(accountIds).stream()
+                .map(this::mapToAccount)
+                .toList();
 
-        log.debug("Found {} accounts for status {}", accounts.size(), status);
+        log.debug("Found {} accounts for {}", accounts.size(), predicates);
         return accounts;
     }
 
+    /**
+     * Counts the accounts matching the AND-combined predicates without hydrating them;
+     * pure equality queries use {@code SINTERCARD}.
+     */
+    @Override
+    public long countByCriteria(List<QueryPredicate> predicates) {
+        return indexEngine.count(predicates);
+    }
+
     /**
      * Reconstructs an {@link AccountAggregate} from a Redis Hash entry map.
      */
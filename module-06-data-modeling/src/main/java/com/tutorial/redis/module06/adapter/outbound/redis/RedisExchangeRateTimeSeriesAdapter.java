@@ -1,11 +1,14 @@
 package com.tutorial.redis.module06.adapter.outbound.redis;
 
+import com.tutorial.redis.module06.domain.model.BucketResolution;
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 import com.tutorial.redis.module06.domain.port.outbound.ExchangeRateTimeSeriesPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -18,9 +21,28 @@ import java.util.*;
  * <p>Member format: {@code "{rate}:{timestamp}"} (e.g., "31.5:1708000000000").
  * This format ensures uniqueness even if the same rate occurs at different timestamps.</p>
  *
+ * <p>Every tick is also folded into per-minute, per-hour and per-day OHLC bars by the
+ * same Lua script that adds it, so downsampled reads never scan raw ticks. The script
+ * then trims with {@code ZREMRANGEBYSCORE}, keeping each Sorted Set bounded:</p>
+ * <ul>
+ *   <li>Raw ticks older than {@value #RAW_RETENTION_MILLIS} ms by the Redis server clock
+ *       ({@code TIME}) are removed, so one tick with a future timestamp cannot wipe the
+ *       raw history. A tick that is already older than that when it arrives only
+ *       updates its bars; duplicates are detected within the raw window only.</li>
+ *   <li>Bars older than their {@link BucketResolution#getRetentionMillis() resolution's
+ *       retention}, measured back from the newest tick of the pair, are removed. Bars keep
+ *       the tick-time reference so history can be loaded, and so
+ *       {@link BucketResolution#select} can predict which bars exist.</li>
+ * </ul>
+ *
+ * <p>Late ticks still update their bars (open/close are chosen by timestamp, not
+ * arrival order).</p>
+ *
  * <h3>Key Schema</h3>
  * <ul>
  *   <li>{@code rate:{currencyPair}} (ZSET, score=timestamp, member="{rate}:{timestamp}")</li>
+ *   <li>{@code rate:ohlc:{currencyPair}:{resolution}} (ZSET, score=bucket start,
+ *       member="{bucketStart}|{open}|{high}|{low}|{close}|{count}|{openTs}|{closeTs}")</li>
  * </ul>
  */
 @Component
@@ -29,6 +51,50 @@ public class RedisExchangeRateTimeSeriesAdapter implements ExchangeRateTimeSerie
     private static final Logger log = LoggerFactory.getLogger(RedisExchangeRateTimeSeriesAdapter.class);
 
     private static final String KEY_PREFIX = "rate:";
+    private static final String OHLC_KEY_PREFIX = "rate:ohlc:";
+
+    static final long RAW_RETENTION_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * KEYS[1] = raw tick set, KEYS[2..] = bar sets (one per resolution).
+     * ARGV[1] = raw member, ARGV[2] = timestamp, ARGV[3] = rate, ARGV[4] = raw retention,
+     * then (bucket width, retention or -1) per bar set. Returns 0 for a duplicate tick.
+     * Raw retention is measured from {@code TIME}, bar retention from the newest tick.
+     */
+    private static final DefaultRedisScript<Long> ADD_TICK_SCRIPT = new DefaultRedisScript<>(
+            "local ts = tonumber(ARGV[2])\n" +
+            "local rate = tonumber(ARGV[3])\n" +
+            "if redis.call('ZADD', KEYS[1], ts, ARGV[1]) == 0 then return 0 end\n" +
+            "local newest = redis.call('ZREVRANGE', KEYS[1], 0, 0, 'WITHSCORES')\n" +
+            "local latest = math.max(ts, tonumber(newest[2]))\n" +
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. string.format('%d', now - tonumber(ARGV[4])))\n" +
+            "for i = 2, #KEYS do\n" +
+            "  local width = tonumber(ARGV[1 + i * 2])\n" +
+            "  local retention = tonumber(ARGV[2 + i * 2])\n" +
+            "  local bucket = ts - (ts % width)\n" +
+            "  local o, h, l, c, n, ot, ct = ARGV[3], ARGV[3], ARGV[3], ARGV[3], 1, ts, ts\n" +
+            "  local existing = redis.call('ZRANGEBYSCORE', KEYS[i], bucket, bucket)\n" +
+            "  if existing[1] then\n" +
+            "    local f = {}\n" +
+            "    for part in string.gmatch(existing[1], '[^|]+') do f[#f + 1] = part end\n" +
+            "    o, h, l, c = f[2], f[3], f[4], f[5]\n" +
+            "    n, ot, ct = tonumber(f[6]) + 1, tonumber(f[7]), tonumber(f[8])\n" +
+            "    if ts < ot then o, ot = ARGV[3], ts end\n" +
+            "    if ts >= ct then c, ct = ARGV[3], ts end\n" +
+            "    if rate > tonumber(h) then h = ARGV[3] end\n" +
+            "    if rate < tonumber(l) then l = ARGV[3] end\n" +
+            "    redis.call('ZREM', KEYS[i], existing[1])\n" +
+            "  end\n" +
+            "  redis.call('ZADD', KEYS[i], bucket, string.format('%d', bucket) .. '|' .. o .. '|' .. h .. '|' .. l\n" +
+            "      .. '|' .. c .. '|' .. string.format('%d', n) .. '|' .. string.format('%d', ot) .. '|' .. string.format('%d', ct))\n" +
+            "  if retention >= 0 then\n" +
+            "    redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', '(' .. string.format('%d', latest - retention))\n" +
+            "  end\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
 
     private final StringRedisTemplate stringRedisTemplate;
 
@@ -39,14 +105,29 @@ public class RedisExchangeRateTimeSeriesAdapter implements ExchangeRateTimeSerie
     /**
      * Adds an exchange rate snapshot to the time series using {@code ZADD}.
      * The score is the snapshot's timestamp (epoch millis) and the member
-     * is formatted as "{rate}:{timestamp}" for uniqueness.
+     * is formatted as "{rate}:{timestamp}" for uniqueness. In the same script
+     * the tick is folded into the minute/hour/day bars and retention is applied.
+     * A duplicate tick (same rate and timestamp) is ignored.
      */
     @Override
     public void addSnapshot(ExchangeRateSnapshot snapshot) {
-        String key = KEY_PREFIX + snapshot.getCurrencyPair();
+        String pair = snapshot.getCurrencyPair();
         String member = snapshot.getRate() + ":" + snapshot.getTimestamp();
 
-        stringRedisTemplate.opsForZSet().add(key, member, snapshot.getTimestamp());
+        List<String> keys = new ArrayList<>();
+        keys.add(KEY_PREFIX + pair);
+        List<String> args = new ArrayList<>();
+        args.add(member);
+        args.add(String.valueOf(snapshot.getTimestamp()));
+        args.add(String.valueOf(snapshot.getRate()));
+        args.add(String.valueOf(RAW_RETENTION_MILLIS));
+        for (BucketResolution resolution : BucketResolution.values()) {
+            keys.add(barKey(pair, resolution));
+            args.add(String.valueOf(resolution.getBucketMillis()));
+            args.add(String.valueOf(resolution.isRetainedForever() ? -1L : resolution.getRetentionMillis()));
+        }
+
+        stringRedisTemplate.execute(ADD_TICK_SCRIPT, keys, args.toArray());
 
         log.debug("Added rate snapshot for {} at {}: {} (member={})",
                 snapshot.getCurrencyPair(), snapshot.getTimestamp(), snapshot.getRate(), member);
@@ -111,6 +192,60 @@ public class RedisExchangeRateTimeSeriesAdapter implements ExchangeRateTimeSerie
         return Optional.ofNullable(snapshot);
     }
 
+    /**
+     * Retrieves the OHLC bars of one resolution whose bucket overlaps the given
+     * epoch-millisecond range, oldest first, using {@code ZRANGEBYSCORE} on the bar set.
+     */
+    @Override
+    public List<OhlcBar> getBars(String currencyPair, BucketResolution resolution, long fromEpoch, long toEpoch) {
+        Set<String> members = stringRedisTemplate.opsForZSet().rangeByScore(
+                barKey(currencyPair, resolution), resolution.bucketStart(fromEpoch), toEpoch);
+
+        if (members == null || members.isEmpty()) {
+            log.debug("No {} bars found for {} in range [{}, {}]", resolution, currencyPair, fromEpoch, toEpoch);
+            return List.of();
+        }
+
+        List<OhlcBar> bars = new ArrayList<>(members.size());
+        for (String member : members) {
+            OhlcBar bar = parseBar(currencyPair, resolution, member);
+            if (bar != null) {
+                bars.add(bar);
+            }
+        }
+
+        log.debug("Found {} {} bars for {} in range [{}, {}]",
+                bars.size(), resolution, currencyPair, fromEpoch, toEpoch);
+        return bars;
+    }
+
+    private static String barKey(String currencyPair, BucketResolution resolution) {
+        return OHLC_KEY_PREFIX + currencyPair + ":" + resolution.name().toLowerCase();
+    }
+
+    /**
+     * Parses a bar member "{bucketStart}|{open}|{high}|{low}|{close}|{count}|{openTs}|{closeTs}".
+     */
+    private OhlcBar parseBar(String currencyPair, BucketResolution resolution, String member) {
+        String[] parts = member.split("\\|");
+        if (parts.length < 6) {
+            log.warn("Invalid bar member format: {}", member);
+            return null;
+        }
+        try {
+            return new OhlcBar(currencyPair, resolution,
+                    Long.parseLong(parts[0]),
+                    Double.parseDouble(parts[1]),
+                    Double.parseDouble(parts[2]),
+                    Double.parseDouble(parts[3]),
+                    Double.parseDouble(parts[4]),
+                    Long.parseLong(parts[5]));
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse bar member '{}': {}", member, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Parses a Sorted Set member string in the format "{rate}:{timestamp}"
      * back into an {@link ExchangeRateSnapshot}.
@@ -0,0 +1,489 @@
+package com.tutorial.redis.module06.adapter.outbound.redis;
+
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Multi-criteria secondary index engine for Hash-per-entity DAOs.
+ *
+ * <p>Each indexed Hash field is declared with an {@link IndexType}; the engine keeps
+ * the corresponding index structures consistent with the entity Hash through Lua
+ * scripts, so a field change (e.g. status ACTIVE → FROZEN) moves the entity between
+ * index entries atomically instead of leaving stale members behind.</p>
+ *
+ * <h3>Index Key Schema</h3>
+ * <ul>
+ *   <li>{@link IndexType#SET}: {@code {indexPrefix}{field}:{value}} (SET of ids) — equality</li>
+ *   <li>{@link IndexType#SORTED}: {@code {indexPrefix}{field}} (ZSET, score = numeric value) — range</li>
+ *   <li>{@link IndexType#LEX}: {@code {indexPrefix}{field}:lex} (ZSET, score 0,
+ *       member = {@code value\0id}) — prefix</li>
+ * </ul>
+ *
+ * <h3>Query Planning</h3>
+ * <ol>
+ *   <li>One {@code SCARD} / {@code ZCOUNT} / {@code ZLEXCOUNT} round trip estimates how many
+ *       ids each predicate matches; any zero estimate short-circuits to an empty result.</li>
+ *   <li>Predicates are ordered by ascending estimate. If the most selective predicate is an
+ *       equality, all equality Sets are intersected with {@code SINTER}; otherwise the
+ *       smallest range/prefix drives the candidate list.</li>
+ *   <li>Remaining predicates filter the candidates server-side, most selective first,
+ *       with {@code SMISMEMBER} (equality), {@code ZMSCORE} (range) or a Hash field
+ *       prefix check — no temporary keys are created.</li>
+ *   <li>Matching ids are hydrated with pipelined {@code HGETALL} in batches of
+ *       {@value #HYDRATE_BATCH_SIZE}.</li>
+ * </ol>
+ *
+ * <h3>Backfill</h3>
+ * <p>The index layout in effect is recorded under {@code {indexPrefix}__schema}. When the
+ * query planner finds it missing or different — entities were written before an index was
+ * declared, e.g. accounts saved when only the currency and status Sets existed — every
+ * entity Hash is re-indexed with {@code SCAN} before the query runs. Equality-only counts
+ * skip the check, as they only read the SET indexes.</p>
+ *
+ * <p>Index keys are derived inside the scripts, so this engine targets a standalone Redis
+ * (or a cluster where all keys share one hash tag via the prefixes).</p>
+ */
+public class RedisHashIndexEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisHashIndexEngine.class);
+
+    /**
+     * Kind of secondary index maintained for a Hash field.
+     */
+    public enum IndexType {
+        /** One SET per distinct value — equality lookups. */
+        SET,
+        /** One ZSET scored by the numeric field value — range lookups. */
+        SORTED,
+        /** One ZSET of {@code value\0id} members at score 0 — prefix lookups. */
+        LEX
+    }
+
+    static final int HYDRATE_BATCH_SIZE = 500;
+
+    static final String SCHEMA_KEY_SUFFIX = "__schema";
+
+    /**
+     * Shared index maintenance helpers. ARGV[1] = id, ARGV[2] = index prefix,
+     * ARGV[3] = number of index specs, followed by (field, type) pairs.
+     */
+    private static final String INDEX_FUNCTIONS =
+            "local id = ARGV[1]\n" +
+            "local indexPrefix = ARGV[2]\n" +
+            "local specCount = tonumber(ARGV[3])\n" +
+            "local specs = {}\n" +
+            "for i = 1, specCount do\n" +
+            "  specs[i] = {field = ARGV[2 + i * 2], type = ARGV[3 + i * 2]}\n" +
+            "end\n" +
+            "local function unindex(spec, value)\n" +
+            "  if not value then return end\n" +
+            "  if spec.type == 'SET' then redis.call('SREM', indexPrefix .. spec.field .. ':' .. value, id)\n" +
+            "  elseif spec.type == 'SORTED' then redis.call('ZREM', indexPrefix .. spec.field, id)\n" +
+            "  else redis.call('ZREM', indexPrefix .. spec.field .. ':lex', value .. '\\0' .. id) end\n" +
+            "end\n" +
+            "local function index(spec, value)\n" +
+            "  if not value then return end\n" +
+            "  if spec.type == 'SET' then redis.call('SADD', indexPrefix .. spec.field .. ':' .. value, id)\n" +
+            "  elseif spec.type == 'SORTED' then redis.call('ZADD', indexPrefix .. spec.field, value, id)\n" +
+            "  else redis.call('ZADD', indexPrefix .. spec.field .. ':lex', 0, value .. '\\0' .. id) end\n" +
+            "end\n" +
+            "for _, spec in ipairs(specs) do unindex(spec, redis.call('HGET', KEYS[1], spec.field)) end\n";
+
+    /**
+     * Removes the old index entries, writes the Hash fields (ARGV after the specs) and
+     * indexes the resulting values.
+     */
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            INDEX_FUNCTIONS +
+            "local fields = {}\n" +
+            "for i = 4 + specCount * 2, #ARGV do fields[#fields + 1] = ARGV[i] end\n" +
+            "redis.call('HSET', KEYS[1], unpack(fields))\n" +
+            "for _, spec in ipairs(specs) do index(spec, redis.call('HGET', KEYS[1], spec.field)) end\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * Removes the index entries and deletes the entity Hash.
+     */
+    private static final DefaultRedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>(
+            INDEX_FUNCTIONS +
+            "return redis.call('DEL', KEYS[1])",
+            Long.class);
+
+    /**
+     * Indexes an entity Hash written before its current index layout. Removing the
+     * entries for the current values first makes it safe to run more than once.
+     */
+    private static final DefaultRedisScript<Long> REINDEX_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('TYPE', KEYS[1]).ok ~= 'hash' then return 0 end\n" +
+            INDEX_FUNCTIONS +
+            "for _, spec in ipairs(specs) do index(spec, redis.call('HGET', KEYS[1], spec.field)) end\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS = one index key per predicate, then the schema key; ARGV = (op, a, b) triples,
+     * then the expected schema. Returns 1 if the schema key matches (0 if the indexes need
+     * a backfill) followed by the estimated match count of each predicate.
+     */
+    private static final DefaultRedisScript<List> ESTIMATE_SCRIPT = new DefaultRedisScript<>(
+            "local counts = {redis.call('GET', KEYS[#KEYS]) == ARGV[#ARGV] and 1 or 0}\n" +
+            "for i = 1, #KEYS - 1 do\n" +
+            "  local op = ARGV[i * 3 - 2]\n" +
+            "  local a = ARGV[i * 3 - 1]\n" +
+            "  if op == 'EQ' then counts[i + 1] = redis.call('SCARD', KEYS[i])\n" +
+            "  elseif op == 'RANGE' then counts[i + 1] = redis.call('ZCOUNT', KEYS[i], a, ARGV[i * 3])\n" +
+            "  else counts[i + 1] = redis.call('ZLEXCOUNT', KEYS[i], '[' .. a, '(' .. a .. '\\255') end\n" +
+            "end\n" +
+            "return counts",
+            List.class);
+
+    /**
+     * KEYS = one index key per predicate, ordered most selective first.
+     * ARGV[1] = limit (0 = unlimited), ARGV[2] = entity prefix, then (op, a, b, field)
+     * groups. Returns the ids matching every predicate.
+     */
+    private static final DefaultRedisScript<List> QUERY_SCRIPT = new DefaultRedisScript<>(
+            "local limit = tonumber(ARGV[1])\n" +
+            "local entityPrefix = ARGV[2]\n" +
+            "local preds = {}\n" +
+            "for i = 1, #KEYS do\n" +
+            "  local base = 3 + (i - 1) * 4\n" +
+            "  preds[i] = {key = KEYS[i], op = ARGV[base], a = ARGV[base + 1], b = ARGV[base + 2], field = ARGV[base + 3]}\n" +
+            "end\n" +
+            "local function bound(s)\n" +
+            "  if s == '-inf' then return -math.huge, false end\n" +
+            "  if s == '+inf' then return math.huge, false end\n" +
+            "  if string.sub(s, 1, 1) == '(' then return tonumber(string.sub(s, 2)), true end\n" +
+            "  return tonumber(s), false\n" +
+            "end\n" +
+            "local function chunked(cmd, key, ids)\n" +
+            "  local out = {}\n" +
+            "  for i = 1, #ids, 1000 do\n" +
+            "    local chunk = {}\n" +
+            "    for j = i, math.min(i + 999, #ids) do chunk[#chunk + 1] = ids[j] end\n" +
+            "    local res = redis.call(cmd, key, unpack(chunk))\n" +
+            "    for j = 1, #chunk do out[#out + 1] = res[j] end\n" +
+            "  end\n" +
+            "  return out\n" +
+            "end\n" +
+            "local first = preds[1]\n" +
+            "local candidates\n" +
+            "if first.op == 'EQ' then\n" +
+            "  local eqKeys = {}\n" +
+            "  for _, p in ipairs(preds) do if p.op == 'EQ' then eqKeys[#eqKeys + 1] = p.key end end\n" +
+            "  candidates = redis.call('SINTER', unpack(eqKeys))\n" +
+            "elseif first.op == 'RANGE' then\n" +
+            "  candidates = redis.call('ZRANGEBYSCORE', first.key, first.a, first.b)\n" +
+            "else\n" +
+            "  candidates = {}\n" +
+            "  for _, m in ipairs(redis.call('ZRANGEBYLEX', first.key, '[' .. first.a, '(' .. first.a .. '\\255')) do\n" +
+            "    candidates[#candidates + 1] = string.sub(m, string.find(m, '\\0', 1, true) + 1)\n" +
+            "  end\n" +
+            "end\n" +
+            "for i = 2, #preds do\n" +
+            "  if #candidates == 0 then break end\n" +
+            "  local p = preds[i]\n" +
+            "  local kept = {}\n" +
+            "  if p.op == 'EQ' then\n" +
+            "    if first.op == 'EQ' then kept = candidates else\n" +
+            "      local flags = chunked('SMISMEMBER', p.key, candidates)\n" +
+            "      for j, c in ipairs(candidates) do if flags[j] == 1 then kept[#kept + 1] = c end end\n" +
+            "    end\n" +
+            "  elseif p.op == 'RANGE' then\n" +
+            "    local lo, loEx = bound(p.a)\n" +
+            "    local hi, hiEx = bound(p.b)\n" +
+            "    local scores = chunked('ZMSCORE', p.key, candidates)\n" +
+            "    for j, c in ipairs(candidates) do\n" +
+            "      local s = scores[j] and tonumber(scores[j])\n" +
+            "      if s and (s > lo or (not loEx and s == lo)) and (s < hi or (not hiEx and s == hi)) then\n" +
+            "        kept[#kept + 1] = c\n" +
+            "      end\n" +
+            "    end\n" +
+            "  else\n" +
+            "    for _, c in ipairs(candidates) do\n" +
+            "      local v = redis.call('HGET', entityPrefix .. c, p.field)\n" +
+            "      if v and string.sub(v, 1, #p.a) == p.a then kept[#kept + 1] = c end\n" +
+            "    end\n" +
+            "  end\n" +
+            "  candidates = kept\n" +
+            "end\n" +
+            "if limit > 0 and #candidates > limit then\n" +
+            "  local limited = {}\n" +
+            "  for i = 1, limit do limited[i] = candidates[i] end\n" +
+            "  return limited\n" +
+            "end\n" +
+            "return candidates",
+            List.class);
+
+    private static final DefaultRedisScript<Long> INTERSECT_CARD_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('SINTERCARD', #KEYS, unpack(KEYS))",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String entityPrefix;
+    private final String indexPrefix;
+    private final Map<String, IndexType> indexes;
+    private final List<String> indexSpecArgs;
+    private final String schemaKey;
+    private final String schema;
+
+    /**
+     * @param entityPrefix key prefix of the entity Hashes, e.g. {@code banking:account:}
+     * @param indexPrefix  key prefix of the index structures, e.g. {@code idx:account:}
+     * @param indexes      indexed Hash fields and their index types
+     */
+    public RedisHashIndexEngine(StringRedisTemplate stringRedisTemplate, String entityPrefix,
+                                String indexPrefix, Map<String, IndexType> indexes) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.entityPrefix = Objects.requireNonNull(entityPrefix, "entityPrefix must not be null");
+        this.indexPrefix = Objects.requireNonNull(indexPrefix, "indexPrefix must not be null");
+        this.indexes = Collections.unmodifiableMap(new LinkedHashMap<>(indexes));
+
+        List<String> specArgs = new ArrayList<>();
+        specArgs.add(String.valueOf(indexes.size()));
+        this.indexes.forEach((field, type) -> {
+            specArgs.add(field);
+            specArgs.add(type.name());
+        });
+        this.indexSpecArgs = List.copyOf(specArgs);
+        this.schemaKey = indexPrefix + SCHEMA_KEY_SUFFIX;
+        this.schema = String.join(",", specArgs.subList(1, specArgs.size()));
+    }
+
+    /**
+     * Writes the Hash fields of the entity and re-indexes it, atomically.
+     */
+    public void save(String id, Map<String, String> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        List<String> args = new ArrayList<>(3 + indexSpecArgs.size() + fields.size() * 2);
+        args.add(id);
+        args.add(indexPrefix);
+        args.addAll(indexSpecArgs);
+        fields.forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        stringRedisTemplate.execute(SAVE_SCRIPT, List.of(entityPrefix + id), args.toArray());
+    }
+
+    /**
+     * Deletes the entity Hash and all of its index entries, atomically.
+     *
+     * @return true if the entity existed
+     */
+    public boolean delete(String id) {
+        List<String> args = new ArrayList<>(2 + indexSpecArgs.size());
+        args.add(id);
+        args.add(indexPrefix);
+        args.addAll(indexSpecArgs);
+        Long deleted = stringRedisTemplate.execute(DELETE_SCRIPT, List.of(entityPrefix + id), args.toArray());
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * Returns the ids matching every predicate (AND semantics), in no particular order.
+     *
+     * @param limit maximum number of ids to return; 0 or negative means unlimited
+     */
+    public List<String> findIds(List<QueryPredicate> predicates, int limit) {
+        List<QueryPredicate> plan = plan(predicates);
+        if (plan.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> keys = new ArrayList<>(plan.size());
+        List<String> args = new ArrayList<>(2 + plan.size() * 4);
+        args.add(String.valueOf(Math.max(limit, 0)));
+        args.add(entityPrefix);
+        for (QueryPredicate predicate : plan) {
+            keys.add(indexKey(predicate));
+            args.add(predicate.getOperator().name());
+            args.add(firstArg(predicate));
+            args.add(secondArg(predicate));
+            args.add(predicate.getField());
+        }
+
+        List<?> result = stringRedisTemplate.execute(QUERY_SCRIPT, keys, args.toArray());
+        List<String> ids = new ArrayList<>(result == null ? 0 : result.size());
+        if (result != null) {
+            result.forEach(id -> ids.add(String.valueOf(id)));
+        }
+        log.debug("Query {} matched {} ids", plan, ids.size());
+        return ids;
+    }
+
+    /**
+     * Counts the entities matching every predicate. Pure equality queries are answered
+     * with {@code SINTERCARD} without transferring any ids.
+     */
+    public long count(List<QueryPredicate> predicates) {
+        validate(predicates);
+        boolean equalityOnly = predicates.stream()
+                .allMatch(p -> p.getOperator() == QueryPredicate.Operator.EQ);
+        if (equalityOnly) {
+            List<String> keys = predicates.stream().map(this::indexKey).toList();
+            Long count = stringRedisTemplate.execute(INTERSECT_CARD_SCRIPT, keys);
+            return count != null ? count : 0L;
+        }
+        return findIds(predicates, 0).size();
+    }
+
+    /**
+     * Orders the predicates by ascending estimated match count, so the most selective
+     * one drives the query. Returns an empty plan when any predicate matches nothing.
+     */
+    List<QueryPredicate> plan(List<QueryPredicate> predicates) {
+        validate(predicates);
+
+        List<String> keys = new ArrayList<>(predicates.size() + 1);
+        List<String> args = new ArrayList<>(predicates.size() * 3 + 1);
+        for (QueryPredicate predicate : predicates) {
+            keys.add(indexKey(predicate));
+            args.add(predicate.getOperator().name());
+            args.add(firstArg(predicate));
+            args.add(secondArg(predicate));
+        }
+        keys.add(schemaKey);
+        args.add(schema);
+
+        List<?> counts = stringRedisTemplate.execute(ESTIMATE_SCRIPT, keys, args.toArray());
+        if (counts != null && !counts.isEmpty() && ((Number) counts.get(0)).longValue() == 0) {
+            backfill();
+            counts = stringRedisTemplate.execute(ESTIMATE_SCRIPT, keys, args.toArray());
+        }
+        if (counts == null || counts.size() != predicates.size() + 1) {
+            return List.of();
+        }
+
+        Map<QueryPredicate, Long> estimates = new IdentityHashMap<>();
+        for (int i = 0; i < predicates.size(); i++) {
+            long estimate = ((Number) counts.get(i + 1)).longValue();
+            if (estimate == 0) {
+                log.debug("Predicate [{}] matches nothing; skipping query", predicates.get(i));
+                return List.of();
+            }
+            estimates.put(predicates.get(i), estimate);
+        }
+
+        List<QueryPredicate> ordered = new ArrayList<>(predicates);
+        ordered.sort(Comparator.comparingLong(estimates::get));
+        return ordered;
+    }
+
+    /**
+     * Re-indexes every entity Hash under the entity prefix and records the current index
+     * layout, so entities saved before an index was declared become visible to it. Safe to
+     * run concurrently with writes and with other backfills: each entity is re-indexed
+     * atomically from its current field values.
+     *
+     * @return the number of entities re-indexed
+     */
+    public long backfill() {
+        long reindexed = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(entityPrefix + "*").count(HYDRATE_BATCH_SIZE).build();
+        try (Cursor<String> keys = stringRedisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                List<String> args = new ArrayList<>(2 + indexSpecArgs.size());
+                args.add(key.substring(entityPrefix.length()));
+                args.add(indexPrefix);
+                args.addAll(indexSpecArgs);
+                Long result = stringRedisTemplate.execute(REINDEX_SCRIPT, List.of(key), args.toArray());
+                if (result != null && result == 1L) {
+                    reindexed++;
+                }
+            }
+        }
+        stringRedisTemplate.opsForValue().set(schemaKey, schema);
+        log.info("Backfilled indexes [{}] for {} entities under {}", schema, reindexed, entityPrefix);
+        return reindexed;
+    }
+
+    /**
+     * Loads the entity Hashes for the given ids with pipelined {@code HGETALL},
+     * {@value #HYDRATE_BATCH_SIZE} ids per round trip. Ids whose Hash no longer
+     * exists are skipped.
+     */
+    public List<Map<Object, Object>> hydrate(List<String> ids) {
+        List<Map<Object, Object>> entities = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += HYDRATE_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + HYDRATE_BATCH_SIZE, ids.size()));
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                hGetAll(connection, batch);
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            });
+            for (Object result : results) {
+                if (result instanceof Map<?, ?> map && !map.isEmpty()) {
+                    @SuppressWarnings("unchecked")
+                    Map<Object, Object> entries = (Map<Object, Object>) map;
+                    entities.add(entries);
+                }
+            }
+        }
+        return entities;
+    }
+
+    private void hGetAll(RedisConnection connection, List<String> batch) {
+        for (String id : batch) {
+            connection.hashCommands().hGetAll((entityPrefix + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void validate(List<QueryPredicate> predicates) {
+        if (predicates == null || predicates.isEmpty()) {
+            throw new IllegalArgumentException("At least one predicate is required");
+        }
+        for (QueryPredicate predicate : predicates) {
+            IndexType type = indexes.get(predicate.getField());
+            IndexType required = switch (predicate.getOperator()) {
+                case EQ -> IndexType.SET;
+                case RANGE -> IndexType.SORTED;
+                case PREFIX -> IndexType.LEX;
+            };
+            if (type != required) {
+                throw new IllegalArgumentException("Field '%s' has no %s index for predicate [%s]"
+                        .formatted(predicate.getField(), required, predicate));
+            }
+        }
+    }
+
+    private String indexKey(QueryPredicate predicate) {
+        return switch (predicate.getOperator()) {
+            case EQ -> indexPrefix + predicate.getField() + ":" + predicate.getValue();
+            case RANGE -> indexPrefix + predicate.getField();
+            case PREFIX -> indexPrefix + predicate.getField() + ":lex";
+        };
+    }
+
+    private static String firstArg(QueryPredicate predicate) {
+        return predicate.getOperator() == QueryPredicate.Operator.RANGE
+                ? bound(predicate.getMin(), predicate.isMinExclusive())
+                : predicate.getValue();
+    }
+
+    private static String secondArg(QueryPredicate predicate) {
+        return predicate.getOperator() == QueryPredicate.Operator.RANGE
+                ? bound(predicate.getMax(), predicate.isMaxExclusive())
+                : "";
+    }
+
+    private static String bound(double value, boolean exclusive) {
+        if (value == Double.NEGATIVE_INFINITY) return "-inf";
+        if (value == Double.POSITIVE_INFINITY) return "+inf";
+        return (exclusive ? "(" : "") + value;
+    }
+}
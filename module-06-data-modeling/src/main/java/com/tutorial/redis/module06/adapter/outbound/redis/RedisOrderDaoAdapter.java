@@ -4,10 +4,17 @@ import com.tutorial.redis.module06.domain.model.Order;
 import com.tutorial.redis.module06.domain.port.outbound.OrderDaoPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -15,16 +22,33 @@ import java.util.*;
  * Each order is stored as a single Redis String whose value is the Jackson-serialized
  * JSON of the {@link Order} object (via the Jackson-configured {@code RedisTemplate}).
  *
- * <p>Secondary indexes are maintained separately using {@code StringRedisTemplate}:</p>
+ * <p>Secondary indexes are maintained alongside the entity:</p>
  * <ul>
- *   <li>Customer index (SET): enables lookup by customerId</li>
+ *   <li>Customer index (SORTED SET, score = createdAt): enables newest-first,
+ *       paged order history per customer</li>
  *   <li>Time index (SORTED SET): enables range queries by createdAt epoch millis</li>
  * </ul>
  *
+ * <p>Writes are atomic and cost one round-trip: {@code save} and {@code delete}
+ * run as Lua scripts that update the entity and every index together. The
+ * scripts read the previously stored JSON ({@code cjson}) to find the old
+ * customer, so re-assigning an order or deleting it never leaves a stale
+ * index entry. Because that customer index key is derived inside the script,
+ * the scripts assume a single Redis node (as does the rest of this module).</p>
+ *
+ * <p>Customer indexes written by earlier versions are plain SETs. They are
+ * converted lazily: an operation that hits one fails with {@code WRONGTYPE},
+ * converts the index to a ZSET scored by each order's {@code createdAt}, and is
+ * retried once.</p>
+ *
+ * <p>Reads avoid N+1 lookups: index queries return order IDs, which are then
+ * hydrated with {@code MGET} in chunks of {@value #MGET_CHUNK_SIZE} keys, all
+ * chunks sent in a single pipeline.</p>
+ *
  * <h3>Key Schema</h3>
  * <ul>
  *   <li>Entity: {@code ecommerce:order:{orderId}} (STRING with JSON value)</li>
- *   <li>Customer index: {@code idx:order:customer:{customerId}} (SET of orderIds)</li>
+ *   <li>Customer index: {@code idx:order:customer:{customerId}} (ZSET, score=createdAt epoch millis, member=orderId)</li>
  *   <li>Time index: {@code idx:order:created} (ZSET, score=createdAt epoch millis, member=orderId)</li>
  * </ul>
  */
@@ -37,6 +61,60 @@ public class RedisOrderDaoAdapter implements OrderDaoPort {
     private static final String CUSTOMER_INDEX_PREFIX = "idx:order:customer:";
     private static final String TIME_INDEX_KEY = "idx:order:created";
 
+    static final int MGET_CHUNK_SIZE = 500;
+
+    /**
+     * Lua helper extracting {@code customerId} from a stored order JSON. Handles both
+     * the default-typing wrapper array {@code ["...Order", {...}]} and a plain object.
+     */
+    private static final String CUSTOMER_OF_FUNCTION =
+            "local function customerOf(raw)\n" +
+            "    if not raw then return nil end\n" +
+            "    local ok, decoded = pcall(cjson.decode, raw)\n" +
+            "    if not ok or type(decoded) ~= 'table' then return nil end\n" +
+            "    if type(decoded[2]) == 'table' then decoded = decoded[2] end\n" +
+            "    return decoded['customerId']\n" +
+            "end\n";
+
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            CUSTOMER_OF_FUNCTION +
+            "local old = customerOf(redis.call('GET', KEYS[1]))\n" +
+            "if old and old ~= ARGV[5] then\n" +
+            "    redis.call('ZREM', ARGV[4] .. old, ARGV[2])\n" +
+            "end\n" +
+            "redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[2])\n" +
+            "redis.call('ZADD', KEYS[3], ARGV[3], ARGV[2])\n" +
+            "return 1",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>(
+            CUSTOMER_OF_FUNCTION +
+            "local customer = customerOf(redis.call('GET', KEYS[1]))\n" +
+            "if customer then\n" +
+            "    redis.call('ZREM', ARGV[2] .. customer, ARGV[1])\n" +
+            "end\n" +
+            "redis.call('ZREM', KEYS[2], ARGV[1])\n" +
+            "return redis.call('DEL', KEYS[1])",
+            Long.class);
+
+    /**
+     * KEYS[1] = customer index, KEYS[2] = its ZSET replacement. Swaps in the replacement
+     * only if the index is still a legacy SET (another caller may have converted it).
+     */
+    private static final DefaultRedisScript<Long> REPLACE_LEGACY_INDEX_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('TYPE', KEYS[1]).ok ~= 'set' then\n" +
+            "    redis.call('DEL', KEYS[2])\n" +
+            "    return 0\n" +
+            "end\n" +
+            "if redis.call('EXISTS', KEYS[2]) == 1 then\n" +
+            "    redis.call('RENAME', KEYS[2], KEYS[1])\n" +
+            "else\n" +
+            "    redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
 
@@ -47,31 +125,36 @@ public class RedisOrderDaoAdapter implements OrderDaoPort {
     }
 
     /**
-     * Saves an order as a JSON String in Redis and adds the orderId to the customer
-     * Set index and the time-based Sorted Set index.
-     * Uses {@code RedisTemplate<String, Object>} for the entity (JSON serialization)
-     * and {@code StringRedisTemplate} for the secondary indexes.
+     * Saves an order as a JSON String and adds the orderId to the customer and
+     * time Sorted Set indexes, atomically in one Lua script round-trip.
+     * The JSON is produced by the Jackson serializer of {@code RedisTemplate<String, Object>}
+     * so {@link #findById(String)} can deserialize it as before.
      */
     @Override
     public void save(Order order) {
-        String key = ENTITY_PREFIX + order.getOrderId();
-
-        // Store order as JSON String via Jackson-configured RedisTemplate
-        redisTemplate.opsForValue().set(key, order);
-
-        // Add to customer index (SET)
-        String customerIndexKey = CUSTOMER_INDEX_PREFIX + order.getCustomerId();
-        stringRedisTemplate.opsForSet().add(customerIndexKey, order.getOrderId());
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] json = serializer.serialize(order);
+        String score = String.valueOf(order.getCreatedAt().toEpochMilli());
 
-        // Add to time index (SORTED SET with createdAt as score)
-        stringRedisTemplate.opsForZSet().add(
-                TIME_INDEX_KEY,
-                order.getOrderId(),
-                order.getCreatedAt().toEpochMilli()
-        );
+        List<String> keys = List.of(ENTITY_PREFIX + order.getOrderId(),
+                CUSTOMER_INDEX_PREFIX + order.getCustomerId(),
+                TIME_INDEX_KEY);
+        try {
+            stringRedisTemplate.execute(SAVE_SCRIPT, keys, new String(json, StandardCharsets.UTF_8),
+                    order.getOrderId(), score, CUSTOMER_INDEX_PREFIX, order.getCustomerId());
+        } catch (DataAccessException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            findById(order.getOrderId()).ifPresent(old -> migrateLegacyCustomerIndex(old.getCustomerId()));
+            migrateLegacyCustomerIndex(order.getCustomerId());
+            stringRedisTemplate.execute(SAVE_SCRIPT, keys, new String(json, StandardCharsets.UTF_8),
+                    order.getOrderId(), score, CUSTOMER_INDEX_PREFIX, order.getCustomerId());
+        }
 
-        log.debug("Saved order {} with customer index [{}] and time index score [{}]",
-                order.getOrderId(), customerIndexKey, order.getCreatedAt().toEpochMilli());
+        log.debug("Saved order {} with customer index and time index score [{}]",
+                order.getOrderId(), score);
     }
 
     /**
@@ -94,76 +177,192 @@ public class RedisOrderDaoAdapter implements OrderDaoPort {
     }
 
     /**
-     * Deletes an order by first reading it to determine the customerId (for index
-     * cleanup), then removing the orderId from both secondary indexes, and finally
-     * deleting the entity key.
+     * Deletes an order and removes it from both secondary indexes in one Lua
+     * script; the script reads the stored JSON to locate the customer index.
      */
     @Override
     public void delete(String orderId) {
-        String key = ENTITY_PREFIX + orderId;
-
-        // Read order first to determine customer index key for cleanup
-        Object value = redisTemplate.opsForValue().get(key);
-        if (value != null) {
-            Order order = (Order) value;
-            String customerIndexKey = CUSTOMER_INDEX_PREFIX + order.getCustomerId();
-            stringRedisTemplate.opsForSet().remove(customerIndexKey, orderId);
+        List<String> keys = List.of(ENTITY_PREFIX + orderId, TIME_INDEX_KEY);
+        try {
+            stringRedisTemplate.execute(DELETE_SCRIPT, keys, orderId, CUSTOMER_INDEX_PREFIX);
+        } catch (DataAccessException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            findById(orderId).ifPresent(order -> migrateLegacyCustomerIndex(order.getCustomerId()));
+            stringRedisTemplate.execute(DELETE_SCRIPT, keys, orderId, CUSTOMER_INDEX_PREFIX);
         }
-
-        // Remove from time index
-        stringRedisTemplate.opsForZSet().remove(TIME_INDEX_KEY, orderId);
-
-        // Delete entity
-        redisTemplate.delete(key);
         log.debug("Deleted order {}", orderId);
     }
 
     /**
-     * Finds all orders for a given customer by reading the
-     * {@code idx:order:customer:{customerId}} Set, then fetching each order
-     * by its ID.
+     * Finds all orders for a given customer, newest first, by reading the
+     * {@code idx:order:customer:{customerId}} Sorted Set with {@code ZREVRANGE}
+     * and hydrating the IDs with pipelined {@code MGET}s.
      */
     @Override
     public List<Order> findByCustomerId(String customerId) {
+        return findByCustomerId(customerId, 0, -1);
+    }
+
+    /**
+     * Finds one page of a customer's orders, newest first, via
+     * {@code ZREVRANGE start stop} (O(log N + limit)) and a single {@code MGET}.
+     * A negative {@code limit} returns all orders from {@code offset} onwards; a
+     * {@code limit} of 0 returns none.
+     */
+    @Override
+    public List<Order> findByCustomerId(String customerId, int offset, int limit) {
+        if (limit == 0) {
+            return List.of();
+        }
         String indexKey = CUSTOMER_INDEX_PREFIX + customerId;
-        Set<String> orderIds = stringRedisTemplate.opsForSet().members(indexKey);
+        long end = limit < 0 ? -1 : (long) offset + limit - 1;
+        Set<String> orderIds;
+        try {
+            orderIds = stringRedisTemplate.opsForZSet().reverseRange(indexKey, offset, end);
+        } catch (DataAccessException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            migrateLegacyCustomerIndex(customerId);
+            orderIds = stringRedisTemplate.opsForZSet().reverseRange(indexKey, offset, end);
+        }
 
         if (orderIds == null || orderIds.isEmpty()) {
             log.debug("No orders found for customer {}", customerId);
             return List.of();
         }
 
-        List<Order> orders = new ArrayList<>();
-        for (String orderId : orderIds) {
-            findById(orderId).ifPresent(orders::add);
-        }
-
+        List<Order> orders = hydrate(orderIds);
         log.debug("Found {} orders for customer {}", orders.size(), customerId);
         return orders;
     }
 
+    /**
+     * Counts a customer's orders via {@code ZCARD} on the customer index.
+     */
+    @Override
+    public long countByCustomerId(String customerId) {
+        Long count;
+        try {
+            count = stringRedisTemplate.opsForZSet().zCard(CUSTOMER_INDEX_PREFIX + customerId);
+        } catch (DataAccessException e) {
+            if (!isWrongType(e)) {
+                throw e;
+            }
+            migrateLegacyCustomerIndex(customerId);
+            count = stringRedisTemplate.opsForZSet().zCard(CUSTOMER_INDEX_PREFIX + customerId);
+        }
+        return count != null ? count : 0L;
+    }
+
     /**
      * Finds orders created within the given epoch-millisecond range by querying
      * the {@code idx:order:created} Sorted Set with {@code ZRANGEBYSCORE},
-     * then fetching each order by its ID.
+     * then hydrating the IDs with pipelined {@code MGET}s.
      */
     @Override
     public List<Order> findByCreatedAtRange(long fromEpoch, long toEpoch) {
         Set<String> orderIds = stringRedisTemplate.opsForZSet().rangeByScore(
                 TIME_INDEX_KEY, fromEpoch, toEpoch
         );
+        return hydrateRange(orderIds, fromEpoch, toEpoch);
+    }
 
+    /**
+     * Finds one page of orders created within the given epoch-millisecond range
+     * via {@code ZRANGEBYSCORE ... LIMIT offset limit}, oldest first.
+     */
+    @Override
+    public List<Order> findByCreatedAtRange(long fromEpoch, long toEpoch, int offset, int limit) {
+        Set<String> orderIds = stringRedisTemplate.opsForZSet().rangeByScore(
+                TIME_INDEX_KEY, fromEpoch, toEpoch, offset, limit
+        );
+        return hydrateRange(orderIds, fromEpoch, toEpoch);
+    }
+
+    private List<Order> hydrateRange(Set<String> orderIds, long fromEpoch, long toEpoch) {
         if (orderIds == null || orderIds.isEmpty()) {
             log.debug("No orders found in time range [{}, {}]", fromEpoch, toEpoch);
             return List.of();
         }
 
-        List<Order> orders = new ArrayList<>();
+        List<Order> orders = hydrate(orderIds);
+        log.debug("Found {} orders in time range [{}, {}]", orders.size(), fromEpoch, toEpoch);
+        return orders;
+    }
+
+    /**
+     * Converts a customer index stored as a plain SET by earlier versions into the
+     * Sorted Set layout: the orders are loaded, written with their {@code createdAt}
+     * as score to a temporary key, and swapped in. Members whose order no longer
+     * exists, or now belongs to another customer, are dropped.
+     */
+    private void migrateLegacyCustomerIndex(String customerId) {
+        String indexKey = CUSTOMER_INDEX_PREFIX + customerId;
+        if (stringRedisTemplate.type(indexKey) != DataType.SET) {
+            return;
+        }
+        Set<String> orderIds = stringRedisTemplate.opsForSet().members(indexKey);
+        String migratingKey = indexKey + ":migrating";
+        stringRedisTemplate.delete(migratingKey);
+        Set<ZSetOperations.TypedTuple<String>> entries = new HashSet<>();
+        if (orderIds != null && !orderIds.isEmpty()) {
+            for (Order order : hydrate(orderIds)) {
+                if (customerId.equals(order.getCustomerId())) {
+                    entries.add(ZSetOperations.TypedTuple.of(order.getOrderId(),
+                            (double) order.getCreatedAt().toEpochMilli()));
+                }
+            }
+        }
+        if (!entries.isEmpty()) {
+            stringRedisTemplate.opsForZSet().add(migratingKey, entries);
+        }
+        Long replaced = stringRedisTemplate.execute(REPLACE_LEGACY_INDEX_SCRIPT, List.of(indexKey, migratingKey));
+        if (replaced != null && replaced == 1L) {
+            log.info("Converted legacy customer index {} to a Sorted Set with {} orders", indexKey, entries.size());
+        }
+    }
+
+    private static boolean isWrongType(DataAccessException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("WRONGTYPE")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads orders for the given IDs, preserving the iteration order of the IDs.
+     * IDs are split into chunks of {@value #MGET_CHUNK_SIZE}; each chunk becomes one
+     * {@code MGET} and all chunks are sent in a single pipeline. IDs whose entity
+     * key no longer exists are skipped.
+     */
+    private List<Order> hydrate(Collection<String> orderIds) {
+        List<byte[]> keys = new ArrayList<>(orderIds.size());
         for (String orderId : orderIds) {
-            findById(orderId).ifPresent(orders::add);
+            keys.add((ENTITY_PREFIX + orderId).getBytes(StandardCharsets.UTF_8));
         }
 
-        log.debug("Found {} orders in time range [{}, {}]", orders.size(), fromEpoch, toEpoch);
+        List<Object> chunks = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < keys.size(); from += MGET_CHUNK_SIZE) {
+                List<byte[]> chunk = keys.subList(from, Math.min(from + MGET_CHUNK_SIZE, keys.size()));
+                connection.stringCommands().mGet(chunk.toArray(new byte[0][]));
+            }
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+
+        List<Order> orders = new ArrayList<>(keys.size());
+        for (Object chunk : chunks) {
+            for (Object value : (List<?>) chunk) {
+                if (value != null) {
+                    orders.add((Order) value);
+                }
+            }
+        }
         return orders;
     }
 }
@@ -0,0 +1,249 @@
+package com.tutorial.redis.module06.adapter.outbound.redis;
+
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+import com.tutorial.redis.module06.domain.model.OrderItem;
+import com.tutorial.redis.module06.domain.port.outbound.OrderHashStorePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Redis adapter storing an {@link Order} aggregate as a single Redis Hash with
+ * field-level access, as an alternative to the JSON String layout of
+ * {@link RedisOrderDaoAdapter}.
+ *
+ * <p>Header fields are plain Hash fields; each line item is one more field whose
+ * value is a compact {@code position|quantity|unitPrice|productName} string. Small
+ * orders therefore stay in the memory-efficient listpack encoding, and there is no
+ * polymorphic type metadata or repeated property names as in the JSON document.</p>
+ *
+ * <ul>
+ *   <li>Status changes are a single {@code HSET} — no read/deserialize/rewrite cycle</li>
+ *   <li>Quantity changes rewrite one item field and adjust {@code totalAmount} with
+ *       {@code HINCRBYFLOAT} in one Lua script</li>
+ *   <li>Header and projection reads use {@code HMGET} and never transfer the items</li>
+ * </ul>
+ *
+ * <h3>Key Schema</h3>
+ * <ul>
+ *   <li>Entity: {@code ecommerce:order-hash:{orderId}} (HASH)</li>
+ *   <li>Header fields: orderId, customerId, totalAmount, status, createdAt (epoch millis), itemCount</li>
+ *   <li>Item fields: {@code item:{productId}} → {@code position|quantity|unitPrice|productName}</li>
+ * </ul>
+ *
+ * <p>Items are keyed by product, so an order may list each product only once;
+ * {@link #save(Order)} rejects an order that repeats a product id.</p>
+ *
+ * <p>{@code createdAt} is stored with millisecond precision, the same precision
+ * used by the order time index.</p>
+ */
+@Component
+public class RedisOrderHashAdapter implements OrderHashStorePort {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOrderHashAdapter.class);
+
+    private static final String ENTITY_PREFIX = "ecommerce:order-hash:";
+    static final String ITEM_FIELD_PREFIX = "item:";
+    private static final String ITEM_SEPARATOR = "|";
+
+    private static final List<String> HEADER_FIELDS =
+            List.of("orderId", "customerId", "totalAmount", "status", "createdAt", "itemCount");
+
+    /**
+     * Replaces the whole Hash: DEL followed by one HSET of all fields.
+     */
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1])\n" +
+            "return redis.call('HSET', KEYS[1], unpack(ARGV))",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> UPDATE_STATUS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], 'status', ARGV[1])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * ARGV[1] = item field, ARGV[2] = new quantity. Rewrites the quantity segment of the
+     * item value and adds {@code (new - old) * unitPrice} to totalAmount.
+     * Returns the new total, or nil if the item does not exist.
+     */
+    private static final DefaultRedisScript<String> UPDATE_ITEM_QUANTITY_SCRIPT = new DefaultRedisScript<>(
+            "local item = redis.call('HGET', KEYS[1], ARGV[1])\n" +
+            "if not item then return false end\n" +
+            "local s1 = string.find(item, '|', 1, true)\n" +
+            "local s2 = string.find(item, '|', s1 + 1, true)\n" +
+            "local s3 = string.find(item, '|', s2 + 1, true)\n" +
+            "local oldQuantity = tonumber(string.sub(item, s1 + 1, s2 - 1))\n" +
+            "local unitPrice = tonumber(string.sub(item, s2 + 1, s3 - 1))\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], string.sub(item, 1, s1) .. ARGV[2] .. string.sub(item, s2))\n" +
+            "local delta = (tonumber(ARGV[2]) - oldQuantity) * unitPrice\n" +
+            "return redis.call('HINCRBYFLOAT', KEYS[1], 'totalAmount', string.format('%.17g', delta))",
+            String.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public RedisOrderHashAdapter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * Replaces the order Hash with the header and item fields in one Lua round trip.
+     *
+     * @throws IllegalArgumentException if two items share a product id
+     */
+    @Override
+    public void save(Order order) {
+        List<OrderItem> items = order.getItems();
+        Set<String> productIds = new HashSet<>(items.size() * 2);
+        for (OrderItem item : items) {
+            if (!productIds.add(item.getProductId())) {
+                throw new IllegalArgumentException("Order %s lists product %s more than once"
+                        .formatted(order.getOrderId(), item.getProductId()));
+            }
+        }
+
+        List<String> args = new ArrayList<>(HEADER_FIELDS.size() * 2 + order.itemCount() * 2);
+        args.add("orderId");
+        args.add(order.getOrderId());
+        args.add("customerId");
+        args.add(order.getCustomerId());
+        args.add("totalAmount");
+        args.add(String.valueOf(order.getTotalAmount()));
+        args.add("status");
+        args.add(order.getStatus());
+        args.add("createdAt");
+        args.add(String.valueOf(order.getCreatedAt().toEpochMilli()));
+        args.add("itemCount");
+        args.add(String.valueOf(order.itemCount()));
+
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            args.add(ITEM_FIELD_PREFIX + item.getProductId());
+            args.add(i + ITEM_SEPARATOR + item.getQuantity() + ITEM_SEPARATOR
+                    + item.getUnitPrice() + ITEM_SEPARATOR + item.getProductName());
+        }
+
+        stringRedisTemplate.execute(SAVE_SCRIPT, List.of(ENTITY_PREFIX + order.getOrderId()), args.toArray());
+        log.debug("Saved order {} as Hash with {} item fields", order.getOrderId(), items.size());
+    }
+
+    /**
+     * Reads the whole Hash with {@code HGETALL} and rebuilds the aggregate,
+     * restoring the original item order from the position prefix.
+     */
+    @Override
+    public Optional<Order> findById(String orderId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(ENTITY_PREFIX + orderId);
+        if (entries.isEmpty()) {
+            log.debug("Order {} not found", orderId);
+            return Optional.empty();
+        }
+
+        SortedMap<Integer, OrderItem> items = new TreeMap<>();
+        entries.forEach((field, value) -> {
+            String name = (String) field;
+            if (name.startsWith(ITEM_FIELD_PREFIX)) {
+                String[] parts = ((String) value).split("\\|", 4);
+                items.put(Integer.parseInt(parts[0]), new OrderItem(
+                        name.substring(ITEM_FIELD_PREFIX.length()),
+                        parts[3],
+                        Integer.parseInt(parts[1]),
+                        Double.parseDouble(parts[2])));
+            }
+        });
+
+        Order order = new Order(
+                (String) entries.get("orderId"),
+                (String) entries.get("customerId"),
+                Double.parseDouble((String) entries.get("totalAmount")),
+                (String) entries.get("status"),
+                new ArrayList<>(items.values()),
+                Instant.ofEpochMilli(Long.parseLong((String) entries.get("createdAt"))));
+        log.debug("Found order {} with {} items", orderId, items.size());
+        return Optional.of(order);
+    }
+
+    /**
+     * Reads only the header fields with {@code HMGET}; the item fields are never transferred.
+     */
+    @Override
+    public Optional<OrderHeader> findHeader(String orderId) {
+        List<Object> values = stringRedisTemplate.opsForHash()
+                .multiGet(ENTITY_PREFIX + orderId, new ArrayList<>(HEADER_FIELDS));
+        if (values == null || values.getFirst() == null) {
+            log.debug("Order {} not found", orderId);
+            return Optional.empty();
+        }
+
+        return Optional.of(new OrderHeader(
+                (String) values.get(0),
+                (String) values.get(1),
+                Double.parseDouble((String) values.get(2)),
+                (String) values.get(3),
+                Instant.ofEpochMilli(Long.parseLong((String) values.get(4))),
+                Integer.parseInt((String) values.get(5))));
+    }
+
+    /**
+     * Projection read via {@code HMGET}. Item fields can be requested as
+     * {@code item:{productId}} and are returned in their encoded form.
+     */
+    @Override
+    public Map<String, String> findFields(String orderId, List<String> fields) {
+        if (fields.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> values = stringRedisTemplate.opsForHash()
+                .multiGet(ENTITY_PREFIX + orderId, new ArrayList<>(fields));
+
+        Map<String, String> projection = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = values != null ? values.get(i) : null;
+            if (value != null) {
+                projection.put(fields.get(i), (String) value);
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Updates the status field with a single {@code HSET}, guarded so that a missing
+     * order is not recreated as a partial Hash.
+     */
+    @Override
+    public boolean updateStatus(String orderId, String status) {
+        Long updated = stringRedisTemplate.execute(UPDATE_STATUS_SCRIPT,
+                List.of(ENTITY_PREFIX + orderId), status);
+        boolean found = updated != null && updated == 1L;
+        log.debug("Updated status of order {} to {}: {}", orderId, status, found);
+        return found;
+    }
+
+    @Override
+    public Optional<Double> updateItemQuantity(String orderId, String productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be greater than 0");
+        }
+        String total = stringRedisTemplate.execute(UPDATE_ITEM_QUANTITY_SCRIPT,
+                List.of(ENTITY_PREFIX + orderId), ITEM_FIELD_PREFIX + productId, String.valueOf(quantity));
+        if (total == null) {
+            log.debug("Item {} not found in order {}", productId, orderId);
+            return Optional.empty();
+        }
+        log.debug("Updated item {} of order {} to quantity {}; new total {}", productId, orderId, quantity, total);
+        return Optional.of(Double.parseDouble(total));
+    }
+
+    @Override
+    public void delete(String orderId) {
+        stringRedisTemplate.delete(ENTITY_PREFIX + orderId);
+        log.debug("Deleted order {}", orderId);
+    }
+}
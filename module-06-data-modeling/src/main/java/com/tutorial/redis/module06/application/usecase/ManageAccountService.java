@@ -1,6 +1,7 @@
 package com.tutorial.redis.module06.application.usecase;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 import com.tutorial.redis.module06.domain.port.inbound.ManageAccountUseCase;
 import com.tutorial.redis.module06.domain.port.outbound.AccountDaoPort;
 import org.slf4j.Logger;
@@ -55,4 +56,16 @@ public class ManageAccountService implements ManageAccountUseCase {
         log.debug("Finding accounts by status {}", status);
         return accountDaoPort.findByStatus(status);
     }
+
+    @Override
+    public List<AccountAggregate> searchAccounts(List<QueryPredicate> predicates, int limit) {
+        log.debug("Searching accounts by {} (limit {})", predicates, limit);
+        return accountDaoPort.findByCriteria(predicates, limit);
+    }
+
+    @Override
+    public long countAccounts(List<QueryPredicate> predicates) {
+        log.debug("Counting accounts by {}", predicates);
+        return accountDaoPort.countByCriteria(predicates);
+    }
 }
@@ -0,0 +1,71 @@
+package com.tutorial.redis.module06.application.usecase;
+
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+import com.tutorial.redis.module06.domain.port.inbound.ManageOrderHashUseCase;
+import com.tutorial.redis.module06.domain.port.outbound.OrderHashStorePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Application service for orders stored in the field-level Hash layout.
+ * Delegates to the {@link OrderHashStorePort} outbound port.
+ */
+@Service
+public class ManageOrderHashService implements ManageOrderHashUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(ManageOrderHashService.class);
+
+    private final OrderHashStorePort orderHashStorePort;
+
+    public ManageOrderHashService(OrderHashStorePort orderHashStorePort) {
+        this.orderHashStorePort = orderHashStorePort;
+    }
+
+    @Override
+    public void createOrder(Order order) {
+        log.debug("Creating hash order {}", order.getOrderId());
+        orderHashStorePort.save(order);
+    }
+
+    @Override
+    public Optional<Order> getOrder(String orderId) {
+        log.debug("Retrieving hash order {}", orderId);
+        return orderHashStorePort.findById(orderId);
+    }
+
+    @Override
+    public Optional<OrderHeader> getOrderHeader(String orderId) {
+        log.debug("Retrieving header of hash order {}", orderId);
+        return orderHashStorePort.findHeader(orderId);
+    }
+
+    @Override
+    public Map<String, String> getOrderFields(String orderId, List<String> fields) {
+        log.debug("Retrieving fields {} of hash order {}", fields, orderId);
+        return orderHashStorePort.findFields(orderId, fields);
+    }
+
+    @Override
+    public boolean updateOrderStatus(String orderId, String status) {
+        log.debug("Updating status of hash order {} to {}", orderId, status);
+        return orderHashStorePort.updateStatus(orderId, status);
+    }
+
+    @Override
+    public Optional<Double> updateItemQuantity(String orderId, String productId, int quantity) {
+        log.debug("Updating item {} of hash order {} to quantity {}", productId, orderId, quantity);
+        return orderHashStorePort.updateItemQuantity(orderId, productId, quantity);
+    }
+
+    @Override
+    public void deleteOrder(String orderId) {
+        log.debug("Deleting hash order {}", orderId);
+        orderHashStorePort.delete(orderId);
+    }
+}
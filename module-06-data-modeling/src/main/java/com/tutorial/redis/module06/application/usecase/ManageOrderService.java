@@ -50,9 +50,27 @@ public class ManageOrderService implements ManageOrderUseCase {
         return orderDaoPort.findByCustomerId(customerId);
     }
 
+    @Override
+    public List<Order> findOrdersByCustomer(String customerId, int offset, int limit) {
+        log.debug("Finding orders for customer {} (offset={}, limit={})", customerId, offset, limit);
+        return orderDaoPort.findByCustomerId(customerId, offset, limit);
+    }
+
+    @Override
+    public long countOrdersByCustomer(String customerId) {
+        return orderDaoPort.countByCustomerId(customerId);
+    }
+
     @Override
     public List<Order> findOrdersByTimeRange(long fromEpoch, long toEpoch) {
         log.debug("Finding orders in time range [{}, {}]", fromEpoch, toEpoch);
         return orderDaoPort.findByCreatedAtRange(fromEpoch, toEpoch);
     }
+
+    @Override
+    public List<Order> findOrdersByTimeRange(long fromEpoch, long toEpoch, int offset, int limit) {
+        log.debug("Finding orders in time range [{}, {}] (offset={}, limit={})",
+                fromEpoch, toEpoch, offset, limit);
+        return orderDaoPort.findByCreatedAtRange(fromEpoch, toEpoch, offset, limit);
+    }
 }
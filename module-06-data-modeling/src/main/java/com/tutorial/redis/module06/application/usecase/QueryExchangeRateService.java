@@ -1,6 +1,8 @@
 package com.tutorial.redis.module06.application.usecase;
 
+import com.tutorial.redis.module06.domain.model.BucketResolution;
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 import com.tutorial.redis.module06.domain.port.inbound.QueryExchangeRateUseCase;
 import com.tutorial.redis.module06.domain.port.outbound.ExchangeRateTimeSeriesPort;
 import org.slf4j.Logger;
@@ -14,6 +16,11 @@ import java.util.Optional;
  * Application service for recording and querying exchange rate time-series data.
  * Delegates all operations to the {@link ExchangeRateTimeSeriesPort} outbound port
  * which models the data using Redis Sorted Sets.
+ *
+ * <p>Bar queries pick the resolution with {@link BucketResolution#select}, measuring
+ * retention from the newest tick of the pair (the same reference the adapter uses
+ * when trimming), so a chart of a year of data reads a few hundred daily bars
+ * instead of millions of raw ticks.</p>
  */
 @Service
 public class QueryExchangeRateService implements QueryExchangeRateUseCase {
@@ -43,4 +50,15 @@ public class QueryExchangeRateService implements QueryExchangeRateUseCase {
         log.debug("Retrieving latest rate for {}", currencyPair);
         return exchangeRateTimeSeriesPort.getLatestSnapshot(currencyPair);
     }
+
+    @Override
+    public List<OhlcBar> queryBars(String currencyPair, long fromEpoch, long toEpoch, int maxPoints) {
+        long newest = exchangeRateTimeSeriesPort.getLatestSnapshot(currencyPair)
+                .map(ExchangeRateSnapshot::getTimestamp)
+                .orElse(toEpoch);
+        BucketResolution resolution = BucketResolution.select(fromEpoch, toEpoch, maxPoints, newest);
+        log.debug("Querying {} bars for {} in range [{}, {}] (max {} points)",
+                resolution, currencyPair, fromEpoch, toEpoch, maxPoints);
+        return exchangeRateTimeSeriesPort.getBars(currencyPair, resolution, fromEpoch, toEpoch);
+    }
 }
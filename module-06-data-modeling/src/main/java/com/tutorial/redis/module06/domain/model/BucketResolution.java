@@ -0,0 +1,66 @@
+package com.tutorial.redis.module06.domain.model;
+
+/**
+ * Downsampling resolutions for exchange rate OHLC bars, ordered finest first.
+ *
+ * <p>Each resolution has a bucket width and a retention window measured back
+ * from the newest tick of the currency pair; bars older than the retention are
+ * trimmed. Daily bars are kept indefinitely. Raw ticks follow their own retention,
+ * see the time-series adapter.</p>
+ */
+public enum BucketResolution {
+
+    MINUTE(60_000L, 7L * 24 * 60 * 60 * 1000),
+    HOUR(60L * 60 * 1000, 90L * 24 * 60 * 60 * 1000),
+    DAY(24L * 60 * 60 * 1000, Long.MAX_VALUE);
+
+    private final long bucketMillis;
+    private final long retentionMillis;
+
+    BucketResolution(long bucketMillis, long retentionMillis) {
+        this.bucketMillis = bucketMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    public long getBucketMillis() { return bucketMillis; }
+    public long getRetentionMillis() { return retentionMillis; }
+
+    public boolean isRetainedForever() {
+        return retentionMillis == Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the start (epoch millis, UTC aligned) of the bucket containing the timestamp.
+     */
+    public long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, bucketMillis) * bucketMillis;
+    }
+
+    /**
+     * Number of buckets of this resolution touched by the range [fromEpoch, toEpoch].
+     */
+    public long bucketCount(long fromEpoch, long toEpoch) {
+        return (bucketStart(toEpoch) - bucketStart(fromEpoch)) / bucketMillis + 1;
+    }
+
+    /**
+     * Coarsens from {@link #MINUTE} until a resolution still has bars for the whole range
+     * (relative to {@code newestEpoch}, the newest tick of the series) and returns at
+     * most {@code maxPoints} bars. The result is the finest resolution that satisfies
+     * both; going coarser than that would only discard detail, since {@link #DAY}
+     * satisfies any range once the budget covers its days. Falls back to {@link #DAY}.
+     */
+    public static BucketResolution select(long fromEpoch, long toEpoch, int maxPoints, long newestEpoch) {
+        if (maxPoints <= 0) {
+            throw new IllegalArgumentException("maxPoints must be greater than 0");
+        }
+        for (BucketResolution resolution : values()) {
+            boolean retained = resolution.isRetainedForever()
+                    || fromEpoch >= newestEpoch - resolution.retentionMillis;
+            if (retained && resolution.bucketCount(fromEpoch, toEpoch) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return DAY;
+    }
+}
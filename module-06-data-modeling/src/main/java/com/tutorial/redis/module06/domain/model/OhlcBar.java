@@ -0,0 +1,61 @@
+package com.tutorial.redis.module06.domain.model;
+
+import java.util.Objects;
+
+/**
+ * An open/high/low/close bar summarizing all exchange rate ticks of one
+ * currency pair within one time bucket.
+ *
+ * Key schema: {@code rate:ohlc:{currencyPair}:{resolution}} (Sorted Set, score = bucket start)
+ */
+public class OhlcBar {
+
+    private final String currencyPair;
+    private final BucketResolution resolution;
+    private final long bucketStart;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long tickCount;
+
+    public OhlcBar(String currencyPair, BucketResolution resolution, long bucketStart,
+                   double open, double high, double low, double close, long tickCount) {
+        this.currencyPair = Objects.requireNonNull(currencyPair, "currencyPair must not be null");
+        this.resolution = Objects.requireNonNull(resolution, "resolution must not be null");
+        this.bucketStart = bucketStart;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.tickCount = tickCount;
+    }
+
+    public String getCurrencyPair() { return currencyPair; }
+    public BucketResolution getResolution() { return resolution; }
+    public long getBucketStart() { return bucketStart; }
+    public double getOpen() { return open; }
+    public double getHigh() { return high; }
+    public double getLow() { return low; }
+    public double getClose() { return close; }
+    public long getTickCount() { return tickCount; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OhlcBar that)) return false;
+        return bucketStart == that.bucketStart && currencyPair.equals(that.currencyPair)
+                && resolution == that.resolution;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currencyPair, resolution, bucketStart);
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcBar{currencyPair='%s', resolution=%s, bucketStart=%d, o=%.6f, h=%.6f, l=%.6f, c=%.6f, ticks=%d}"
+                .formatted(currencyPair, resolution, bucketStart, open, high, low, close, tickCount);
+    }
+}
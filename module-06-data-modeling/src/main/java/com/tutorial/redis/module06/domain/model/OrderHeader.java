@@ -0,0 +1,54 @@
+package com.tutorial.redis.module06.domain.model;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Read-only projection of an {@link Order} without its line items.
+ * Returned by header reads that fetch only the order-level fields,
+ * e.g. for order lists and status checks that never look at the items.
+ */
+public class OrderHeader {
+
+    private final String orderId;
+    private final String customerId;
+    private final double totalAmount;
+    private final String status;
+    private final Instant createdAt;
+    private final int itemCount;
+
+    public OrderHeader(String orderId, String customerId, double totalAmount, String status,
+                       Instant createdAt, int itemCount) {
+        this.orderId = Objects.requireNonNull(orderId, "orderId must not be null");
+        this.customerId = Objects.requireNonNull(customerId, "customerId must not be null");
+        this.totalAmount = totalAmount;
+        this.status = Objects.requireNonNull(status, "status must not be null");
+        this.createdAt = Objects.requireNonNull(createdAt, "createdAt must not be null");
+        this.itemCount = itemCount;
+    }
+
+    public String getOrderId() { return orderId; }
+    public String getCustomerId() { return customerId; }
+    public double getTotalAmount() { return totalAmount; }
+    public String getStatus() { return status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public int getItemCount() { return itemCount; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OrderHeader that)) return false;
+        return orderId.equals(that.orderId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderHeader{orderId='%s', customerId='%s', totalAmount=%.2f, status='%s', items=%d}".formatted(
+                orderId, customerId, totalAmount, status, itemCount);
+    }
+}
@@ -0,0 +1,138 @@
+package com.tutorial.redis.module06.domain.model;
+
+import java.util.Objects;
+
+/**
+ * A single criterion of a multi-criteria secondary index query.
+ * Predicates are combined with AND semantics, e.g.
+ * {@code currency = TWD AND status = ACTIVE AND balance > 1000}.
+ *
+ * <ul>
+ *   <li>{@link Operator#EQ} — exact match on a Set-indexed field</li>
+ *   <li>{@link Operator#RANGE} — numeric range on a Sorted-Set-indexed field,
+ *       each bound inclusive or exclusive, infinite when open</li>
+ *   <li>{@link Operator#PREFIX} — lexicographic prefix match on a lex-indexed field</li>
+ * </ul>
+ *
+ * Immutable value object — created via the static factory methods.
+ */
+public class QueryPredicate {
+
+    public enum Operator { EQ, RANGE, PREFIX }
+
+    private final String field;
+    private final Operator operator;
+    private final String value;
+    private final double min;
+    private final boolean minExclusive;
+    private final double max;
+    private final boolean maxExclusive;
+
+    private QueryPredicate(String field, Operator operator, String value,
+                           double min, boolean minExclusive, double max, boolean maxExclusive) {
+        this.field = Objects.requireNonNull(field, "field must not be null");
+        this.operator = operator;
+        this.value = value;
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max");
+        }
+        this.min = min;
+        this.minExclusive = minExclusive;
+        this.max = max;
+        this.maxExclusive = maxExclusive;
+    }
+
+    /**
+     * {@code field = value}
+     */
+    public static QueryPredicate eq(String field, String value) {
+        Objects.requireNonNull(value, "value must not be null");
+        return new QueryPredicate(field, Operator.EQ, value,
+                Double.NEGATIVE_INFINITY, false, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * {@code field} starts with {@code prefix}.
+     */
+    public static QueryPredicate prefix(String field, String prefix) {
+        Objects.requireNonNull(prefix, "prefix must not be null");
+        return new QueryPredicate(field, Operator.PREFIX, prefix,
+                Double.NEGATIVE_INFINITY, false, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * {@code min <= field <= max}
+     */
+    public static QueryPredicate between(String field, double min, double max) {
+        return new QueryPredicate(field, Operator.RANGE, null, min, false, max, false);
+    }
+
+    /**
+     * {@code field > min}
+     */
+    public static QueryPredicate greaterThan(String field, double min) {
+        return new QueryPredicate(field, Operator.RANGE, null, min, true, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * {@code field >= min}
+     */
+    public static QueryPredicate atLeast(String field, double min) {
+        return new QueryPredicate(field, Operator.RANGE, null, min, false, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * {@code field < max}
+     */
+    public static QueryPredicate lessThan(String field, double max) {
+        return new QueryPredicate(field, Operator.RANGE, null, Double.NEGATIVE_INFINITY, false, max, true);
+    }
+
+    /**
+     * {@code field <= max}
+     */
+    public static QueryPredicate atMost(String field, double max) {
+        return new QueryPredicate(field, Operator.RANGE, null, Double.NEGATIVE_INFINITY, false, max, false);
+    }
+
+    public String getField() { return field; }
+    public Operator getOperator() { return operator; }
+    public String getValue() { return value; }
+    public double getMin() { return min; }
+    public boolean isMinExclusive() { return minExclusive; }
+    public double getMax() { return max; }
+    public boolean isMaxExclusive() { return maxExclusive; }
+
+    /**
+     * Returns true if the given numeric value satisfies this RANGE predicate.
+     */
+    public boolean matches(double candidate) {
+        boolean aboveMin = minExclusive ? candidate > min : candidate >= min;
+        boolean belowMax = maxExclusive ? candidate < max : candidate <= max;
+        return aboveMin && belowMax;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QueryPredicate that)) return false;
+        return field.equals(that.field) && operator == that.operator && Objects.equals(value, that.value)
+                && Double.compare(min, that.min) == 0 && minExclusive == that.minExclusive
+                && Double.compare(max, that.max) == 0 && maxExclusive == that.maxExclusive;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, operator, value, min, minExclusive, max, maxExclusive);
+    }
+
+    @Override
+    public String toString() {
+        return switch (operator) {
+            case EQ -> "%s = %s".formatted(field, value);
+            case PREFIX -> "%s starts with %s".formatted(field, value);
+            case RANGE -> "%s in %s%s, %s%s".formatted(field,
+                    minExclusive ? "(" : "[", min, max, maxExclusive ? ")" : "]");
+        };
+    }
+}
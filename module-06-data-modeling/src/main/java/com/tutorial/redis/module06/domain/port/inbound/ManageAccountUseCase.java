@@ -1,14 +1,15 @@
 package com.tutorial.redis.module06.domain.port.inbound;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Inbound port: manage accounts using the DAO pattern with Redis.
- * Supports CRUD operations and secondary-index-based queries
- * by currency and status.
+ * Supports CRUD operations, secondary-index-based queries
+ * by currency and status, and multi-criteria searches.
  */
 public interface ManageAccountUseCase {
 
@@ -27,4 +28,17 @@ public interface ManageAccountUseCase {
      * Finds all accounts with the given status (ACTIVE, FROZEN, CLOSED).
      */
     List<AccountAggregate> findAccountsByStatus(String status);
+
+    /**
+     * Finds accounts matching all of the given predicates,
+     * e.g. currency = TWD AND status = ACTIVE AND balance > 1000.
+     *
+     * @param limit maximum number of accounts to return; 0 means unlimited
+     */
+    List<AccountAggregate> searchAccounts(List<QueryPredicate> predicates, int limit);
+
+    /**
+     * Counts accounts matching all of the given predicates.
+     */
+    long countAccounts(List<QueryPredicate> predicates);
 }
@@ -0,0 +1,44 @@
+package com.tutorial.redis.module06.domain.port.inbound;
+
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inbound port: manage orders stored in the field-level Hash layout.
+ * Supports partial updates (status, item quantity with total adjustment)
+ * and projection reads that fetch only the requested fields.
+ */
+public interface ManageOrderHashUseCase {
+
+    void createOrder(Order order);
+
+    Optional<Order> getOrder(String orderId);
+
+    /**
+     * Returns the order-level fields without the line items.
+     */
+    Optional<OrderHeader> getOrderHeader(String orderId);
+
+    /**
+     * Returns only the requested fields of the order.
+     */
+    Map<String, String> getOrderFields(String orderId, List<String> fields);
+
+    /**
+     * Changes the order status without rewriting the rest of the aggregate.
+     *
+     * @return false if the order does not exist
+     */
+    boolean updateOrderStatus(String orderId, String status);
+
+    /**
+     * Changes a line item's quantity and returns the recalculated order total.
+     */
+    Optional<Double> updateItemQuantity(String orderId, String productId, int quantity);
+
+    void deleteOrder(String orderId);
+}
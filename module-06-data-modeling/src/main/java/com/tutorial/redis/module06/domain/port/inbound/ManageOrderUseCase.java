@@ -7,7 +7,7 @@ import java.util.Optional;
 
 /**
  * Inbound port: manage orders using the DAO pattern with Redis.
- * Supports CRUD operations, secondary-index lookup by customer,
+ * Supports CRUD operations, paged secondary-index lookup by customer,
  * and time-range queries via Sorted Set index.
  */
 public interface ManageOrderUseCase {
@@ -19,12 +19,27 @@ public interface ManageOrderUseCase {
     void deleteOrder(String orderId);
 
     /**
-     * Finds all orders placed by a given customer.
+     * Finds all orders placed by a given customer, newest first.
      */
     List<Order> findOrdersByCustomer(String customerId);
 
+    /**
+     * Finds one page of a customer's order history, newest first.
+     */
+    List<Order> findOrdersByCustomer(String customerId, int offset, int limit);
+
+    /**
+     * Returns the number of orders placed by the given customer.
+     */
+    long countOrdersByCustomer(String customerId);
+
     /**
      * Finds orders created within the given epoch-millisecond range.
      */
     List<Order> findOrdersByTimeRange(long fromEpoch, long toEpoch);
+
+    /**
+     * Finds one page of orders created within the given epoch-millisecond range.
+     */
+    List<Order> findOrdersByTimeRange(long fromEpoch, long toEpoch, int offset, int limit);
 }
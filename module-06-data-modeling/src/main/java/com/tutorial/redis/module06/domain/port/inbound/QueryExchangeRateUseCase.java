@@ -1,6 +1,7 @@
 package com.tutorial.redis.module06.domain.port.inbound;
 
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,4 +28,10 @@ public interface QueryExchangeRateUseCase {
      * Retrieves the latest (most recent) exchange rate for a currency pair.
      */
     Optional<ExchangeRateSnapshot> getLatestRate(String currencyPair);
+
+    /**
+     * Queries downsampled OHLC bars for a currency pair, choosing the finest
+     * resolution that still covers the range and returns at most {@code maxPoints} bars.
+     */
+    List<OhlcBar> queryBars(String currencyPair, long fromEpoch, long toEpoch, int maxPoints);
 }
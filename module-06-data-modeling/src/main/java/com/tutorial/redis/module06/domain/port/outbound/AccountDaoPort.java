@@ -1,6 +1,7 @@
 package com.tutorial.redis.module06.domain.port.outbound;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +17,8 @@ import java.util.Optional;
  * Secondary indexes:
  * - Set-based index by currency for {@link #findByCurrency(String)}
  * - Set-based index by status for {@link #findByStatus(String)}
+ * - Multi-criteria (AND) queries over equality, range and prefix indexes
+ *   for {@link #findByCriteria(List, int)}
  */
 public interface AccountDaoPort {
 
@@ -34,4 +37,16 @@ public interface AccountDaoPort {
      * Finds all accounts with the given status using a Set-based secondary index.
      */
     List<AccountAggregate> findByStatus(String status);
+
+    /**
+     * Finds the accounts matching all of the given predicates.
+     *
+     * @param limit maximum number of accounts to return; 0 means unlimited
+     */
+    List<AccountAggregate> findByCriteria(List<QueryPredicate> predicates, int limit);
+
+    /**
+     * Counts the accounts matching all of the given predicates.
+     */
+    long countByCriteria(List<QueryPredicate> predicates);
 }
@@ -1,6 +1,8 @@
 package com.tutorial.redis.module06.domain.port.outbound;
 
+import com.tutorial.redis.module06.domain.model.BucketResolution;
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,12 +13,16 @@ import java.util.Optional;
  * is the epoch-millisecond timestamp, enabling range queries via ZRANGEBYSCORE.
  *
  * Key schema: {@code exchange-service:rate:{currencyPair}}
+ *
+ * Implementations also maintain downsampled OHLC bars per {@link BucketResolution}
+ * and trim raw ticks and bars according to a retention policy.
  */
 public interface ExchangeRateTimeSeriesPort {
 
     /**
      * Adds an exchange rate snapshot to the time series.
      * The snapshot's timestamp is used as the Sorted Set score.
+     * The snapshot is also folded into the OHLC bar of every resolution.
      */
     void addSnapshot(ExchangeRateSnapshot snapshot);
 
@@ -31,4 +37,10 @@ public interface ExchangeRateTimeSeriesPort {
      * using ZREVRANGEBYSCORE with a limit of 1.
      */
     Optional<ExchangeRateSnapshot> getLatestSnapshot(String currencyPair);
+
+    /**
+     * Retrieves the OHLC bars of the given resolution overlapping the
+     * epoch-millisecond range (inclusive), oldest first.
+     */
+    List<OhlcBar> getBars(String currencyPair, BucketResolution resolution, long fromEpoch, long toEpoch);
 }
@@ -10,25 +10,53 @@ import java.util.Optional;
  * Provides full CRUD plus secondary-index-based lookups.
  *
  * Secondary indexes:
- * - Set-based index by customerId for {@link #findByCustomerId(String)}
- * - Sorted Set time index (score = epoch millis) for {@link #findByCreatedAtRange(long, long)}
+ * - Sorted Set index by customerId (score = createdAt) for {@link #findByCustomerId(String, int, int)}
+ * - Sorted Set time index (score = epoch millis) for {@link #findByCreatedAtRange(long, long, int, int)}
  */
 public interface OrderDaoPort {
 
+    /**
+     * Saves the order and updates all secondary indexes atomically.
+     */
     void save(Order order);
 
     Optional<Order> findById(String orderId);
 
+    /**
+     * Deletes the order and removes it from all secondary indexes atomically.
+     */
     void delete(String orderId);
 
     /**
-     * Finds all orders for a given customer using a Set-based secondary index.
+     * Finds all orders for a given customer, newest first.
      */
     List<Order> findByCustomerId(String customerId);
 
+    /**
+     * Finds one page of a customer's order history, newest first.
+     *
+     * @param offset number of most recent orders to skip
+     * @param limit  maximum number of orders to return
+     */
+    List<Order> findByCustomerId(String customerId, int offset, int limit);
+
+    /**
+     * Returns the number of orders placed by the given customer.
+     */
+    long countByCustomerId(String customerId);
+
     /**
      * Finds orders created within the given epoch-millisecond range
-     * using a Sorted Set time index (ZRANGEBYSCORE).
+     * using a Sorted Set time index (ZRANGEBYSCORE), oldest first.
      */
     List<Order> findByCreatedAtRange(long fromEpoch, long toEpoch);
+
+    /**
+     * Finds one page of orders created within the given epoch-millisecond range
+     * (ZRANGEBYSCORE ... LIMIT), oldest first.
+     *
+     * @param offset number of matching orders to skip
+     * @param limit  maximum number of orders to return
+     */
+    List<Order> findByCreatedAtRange(long fromEpoch, long toEpoch, int offset, int limit);
 }
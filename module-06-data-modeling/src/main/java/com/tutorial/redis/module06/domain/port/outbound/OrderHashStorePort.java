@@ -0,0 +1,55 @@
+package com.tutorial.redis.module06.domain.port.outbound;
+
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Outbound port for the field-level Order storage layout.
+ *
+ * Unlike {@link OrderDaoPort}, which stores each order as one JSON document,
+ * implementations keep the header fields and the line items individually
+ * addressable, so a status change or a quantity change touches only the
+ * affected fields and readers can fetch just the fields they need.
+ */
+public interface OrderHashStorePort {
+
+    /**
+     * Stores the order, replacing any previous version.
+     *
+     * @throws IllegalArgumentException if the order lists the same product more than once
+     */
+    void save(Order order);
+
+    Optional<Order> findById(String orderId);
+
+    /**
+     * Reads only the order-level fields, skipping the line items.
+     */
+    Optional<OrderHeader> findHeader(String orderId);
+
+    /**
+     * Reads only the requested fields; fields that do not exist are omitted.
+     */
+    Map<String, String> findFields(String orderId, List<String> fields);
+
+    /**
+     * Updates the status field in place.
+     *
+     * @return false if the order does not exist
+     */
+    boolean updateStatus(String orderId, String status);
+
+    /**
+     * Changes one line item's quantity and adjusts the order total by the
+     * resulting difference, atomically.
+     *
+     * @return the new order total, or empty if the order or item does not exist
+     */
+    Optional<Double> updateItemQuantity(String orderId, String productId, int quantity);
+
+    void delete(String orderId);
+}
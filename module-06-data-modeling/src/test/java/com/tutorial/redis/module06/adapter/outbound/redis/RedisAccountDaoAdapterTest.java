@@ -2,15 +2,18 @@ package com.tutorial.redis.module06.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * 測試 RedisAccountDaoAdapter 的 Redis 持久化整合行為。
@@ -140,4 +143,119 @@ class RedisAccountDaoAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(frozenAccounts).hasSize(1);
         assertThat(frozenAccounts.getFirst().getAccountId()).isEqualTo("acct-f1");
     }
+
+    // 驗證多條件查詢（幣別 AND 狀態 AND 餘額區間）只回傳同時符合所有條件的帳戶
+    @Test
+    @DisplayName("findByCriteria_CombinedPredicates_ReturnsIntersection — TWD AND ACTIVE AND balance > 1000，應只回傳交集")
+    void findByCriteria_CombinedPredicates_ReturnsIntersection() {
+        // Arrange
+        adapter.save(new AccountAggregate("acct-m1", "Alice", 5000.00, "TWD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-m2", "Bob", 1000.00, "TWD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-m3", "Carol", 8000.00, "TWD", Instant.now(), "FROZEN"));
+        adapter.save(new AccountAggregate("acct-m4", "David", 9000.00, "USD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-m5", "Eve", 1500.00, "TWD", Instant.now(), "ACTIVE"));
+
+        // Act
+        List<AccountAggregate> result = adapter.findByCriteria(List.of(
+                QueryPredicate.eq("currency", "TWD"),
+                QueryPredicate.eq("status", "ACTIVE"),
+                QueryPredicate.greaterThan("balance", 1000)), 0);
+
+        // Assert — acct-m2 的餘額剛好 1000，不符合「大於」條件
+        assertThat(result).extracting(AccountAggregate::getAccountId)
+                .containsExactlyInAnyOrder("acct-m1", "acct-m5");
+        assertThat(adapter.countByCriteria(List.of(
+                QueryPredicate.eq("currency", "TWD"),
+                QueryPredicate.eq("status", "ACTIVE")))).isEqualTo(3);
+    }
+
+    // 驗證以區間條件為最小集合時，仍可用等值與前綴條件過濾，並套用筆數上限
+    @Test
+    @DisplayName("findByCriteria_RangeAndPrefix_FiltersAndLimits — 區間 + 前綴 + 等值混合查詢應正確過濾與限制筆數")
+    void findByCriteria_RangeAndPrefix_FiltersAndLimits() {
+        // Arrange
+        adapter.save(new AccountAggregate("acct-p1", "Wang Xiao", 100.00, "TWD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-p2", "Wang Da", 200.00, "TWD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-p3", "Lin Mei", 150.00, "TWD", Instant.now(), "ACTIVE"));
+        adapter.save(new AccountAggregate("acct-p4", "Wang Er", 9999.00, "TWD", Instant.now(), "ACTIVE"));
+
+        // Act
+        List<AccountAggregate> wangs = adapter.findByCriteria(List.of(
+                QueryPredicate.eq("currency", "TWD"),
+                QueryPredicate.between("balance", 100, 500),
+                QueryPredicate.prefix("holderName", "Wang")), 0);
+        List<AccountAggregate> limited = adapter.findByCriteria(List.of(
+                QueryPredicate.prefix("holderName", "Wang")), 2);
+
+        // Assert
+        assertThat(wangs).extracting(AccountAggregate::getAccountId)
+                .containsExactlyInAnyOrder("acct-p1", "acct-p2");
+        assertThat(limited).hasSize(2);
+    }
+
+    // 驗證更新帳戶狀態與餘額時，舊的索引項目會在同一個 Lua 腳本中移除，不留下過期索引
+    @Test
+    @DisplayName("save_WhenFieldsChange_MovesIndexEntries — 狀態與餘額變更後，舊索引應被清除")
+    void save_WhenFieldsChange_MovesIndexEntries() {
+        // Arrange
+        adapter.save(new AccountAggregate("acct-u1", "Alice", 5000.00, "TWD", Instant.now(), "ACTIVE"));
+
+        // Act
+        adapter.save(new AccountAggregate("acct-u1", "Alicia", 10.00, "TWD", Instant.now(), "FROZEN"));
+
+        // Assert
+        assertThat(adapter.findByStatus("ACTIVE")).isEmpty();
+        assertThat(adapter.findByStatus("FROZEN")).extracting(AccountAggregate::getAccountId)
+                .containsExactly("acct-u1");
+        assertThat(adapter.findByCriteria(List.of(QueryPredicate.atLeast("balance", 1000)), 0)).isEmpty();
+        assertThat(adapter.findByCriteria(List.of(QueryPredicate.prefix("holderName", "Alice")), 0)).isEmpty();
+        assertThat(stringRedisTemplate.opsForZSet().zCard("idx:account:holderName:lex")).isEqualTo(1);
+        assertThat(stringRedisTemplate.opsForZSet().score("idx:account:balance", "acct-u1")).isEqualTo(10.0);
+    }
+
+    // 驗證舊版只有幣別與狀態 Set 索引的帳戶，在第一次查詢時會被補建餘額與姓名索引
+    @Test
+    @DisplayName("findByCriteria_LegacyAccounts_BackfillsIndexes — 舊版帳戶缺少餘額與姓名索引，查詢前應自動補建")
+    void findByCriteria_LegacyAccounts_BackfillsIndexes() {
+        // Arrange — 模擬舊版寫入：Hash 加上幣別與狀態 Set，沒有餘額 ZSET 與姓名 lex 索引
+        stringRedisTemplate.opsForHash().putAll("banking:account:acct-l1", Map.of(
+                "accountId", "acct-l1", "holderName", "Wang Legacy", "balance", "2500.0",
+                "currency", "TWD", "createdAt", "2024-01-01T00:00:00Z", "status", "ACTIVE"));
+        stringRedisTemplate.opsForSet().add("idx:account:currency:TWD", "acct-l1");
+        stringRedisTemplate.opsForSet().add("idx:account:status:ACTIVE", "acct-l1");
+        adapter.save(new AccountAggregate("acct-n1", "Wang New", 3000.00, "TWD", Instant.now(), "ACTIVE"));
+
+        // Act
+        List<AccountAggregate> rich = adapter.findByCriteria(List.of(
+                QueryPredicate.eq("currency", "TWD"),
+                QueryPredicate.atLeast("balance", 2000)), 0);
+        List<AccountAggregate> wangs = adapter.findByCriteria(List.of(
+                QueryPredicate.prefix("holderName", "Wang")), 0);
+
+        // Assert
+        assertThat(rich).extracting(AccountAggregate::getAccountId)
+                .containsExactlyInAnyOrder("acct-l1", "acct-n1");
+        assertThat(wangs).extracting(AccountAggregate::getAccountId)
+                .containsExactlyInAnyOrder("acct-l1", "acct-n1");
+        assertThat(stringRedisTemplate.opsForSet().size("idx:account:currency:TWD")).isEqualTo(2);
+        assertThat(stringRedisTemplate.hasKey("idx:account:__schema")).isTrue();
+    }
+
+    // 驗證任一條件沒有符合項目時直接回傳空結果；對未建立索引的欄位查詢則拋出例外
+    @Test
+    @DisplayName("findByCriteria_EmptyOrUnindexed — 無符合條件回傳空集合，未索引欄位應拋出 IllegalArgumentException")
+    void findByCriteria_EmptyOrUnindexed() {
+        // Arrange
+        adapter.save(new AccountAggregate("acct-e1", "Alice", 5000.00, "TWD", Instant.now(), "ACTIVE"));
+
+        // Act & Assert
+        assertThat(adapter.findByCriteria(List.of(
+                QueryPredicate.eq("currency", "JPY"),
+                QueryPredicate.eq("status", "ACTIVE")), 0)).isEmpty();
+        assertThat(adapter.countByCriteria(List.of(QueryPredicate.greaterThan("balance", 5000)))).isZero();
+        assertThatThrownBy(() -> adapter.findByCriteria(List.of(QueryPredicate.eq("createdAt", "x")), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> adapter.findByCriteria(List.of(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -1,7 +1,9 @@
 package com.tutorial.redis.module06.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module06.domain.model.BucketResolution;
 import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.model.OhlcBar;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,33 +21,42 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("RedisExchangeRateTimeSeriesAdapter 整合測試")
 class RedisExchangeRateTimeSeriesAdapterTest extends AbstractRedisIntegrationTest {
 
+    private static final long HOUR = BucketResolution.HOUR.getBucketMillis();
+    private static final long DAY = BucketResolution.DAY.getBucketMillis();
+
     @Autowired
     private RedisExchangeRateTimeSeriesAdapter adapter;
 
+    // 原始 tick 依 Redis 伺服器時間保留 24 小時，測試時間戳以上一個整點為基準
+    private static long recentHour() {
+        return BucketResolution.HOUR.bucketStart(System.currentTimeMillis()) - HOUR;
+    }
+
     // 驗證新增多筆快照後，以 ZRANGEBYSCORE 做時間範圍查詢回傳正確結果
     @Test
     @DisplayName("addAndQuery_ReturnsSnapshotsInRange — 新增 5 筆快照，查詢 1500~3500 應回傳 2 筆")
     void addAndQuery_ReturnsSnapshotsInRange() {
         // Arrange
         String pair = "USD/TWD";
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.10, 1000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.20, 2000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.30, 3000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.40, 4000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.50, 5000));
+        long base = recentHour();
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.10, base + 1000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.20, base + 2000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.30, base + 3000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.40, base + 4000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.50, base + 5000));
 
         // Act
-        List<ExchangeRateSnapshot> result = adapter.getSnapshots(pair, 1500, 3500);
+        List<ExchangeRateSnapshot> result = adapter.getSnapshots(pair, base + 1500, base + 3500);
 
         // Assert
         assertThat(result).hasSize(2);
-        assertThat(result.get(0).getTimestamp()).isEqualTo(2000);
+        assertThat(result.get(0).getTimestamp()).isEqualTo(base + 2000);
         assertThat(result.get(0).getRate()).isEqualTo(31.20);
-        assertThat(result.get(1).getTimestamp()).isEqualTo(3000);
+        assertThat(result.get(1).getTimestamp()).isEqualTo(base + 3000);
         assertThat(result.get(1).getRate()).isEqualTo(31.30);
 
         // Verify all snapshots are retrievable
-        List<ExchangeRateSnapshot> all = adapter.getSnapshots(pair, 0, 10000);
+        List<ExchangeRateSnapshot> all = adapter.getSnapshots(pair, base, base + 10000);
         assertThat(all).hasSize(5);
     }
 
@@ -55,16 +66,17 @@ class RedisExchangeRateTimeSeriesAdapterTest extends AbstractRedisIntegrationTes
     void getLatestSnapshot_ReturnsLatest() {
         // Arrange
         String pair = "EUR/USD";
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0850, 1000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0870, 2000));
-        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0900, 3000));
+        long base = recentHour();
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0850, base + 1000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0870, base + 2000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.0900, base + 3000));
 
         // Act
         Optional<ExchangeRateSnapshot> latest = adapter.getLatestSnapshot(pair);
 
         // Assert
         assertThat(latest).isPresent();
-        assertThat(latest.get().getTimestamp()).isEqualTo(3000);
+        assertThat(latest.get().getTimestamp()).isEqualTo(base + 3000);
         assertThat(latest.get().getRate()).isEqualTo(1.0900);
         assertThat(latest.get().getCurrencyPair()).isEqualTo("EUR/USD");
     }
@@ -79,4 +91,66 @@ class RedisExchangeRateTimeSeriesAdapterTest extends AbstractRedisIntegrationTes
         // Assert
         assertThat(result).isEmpty();
     }
+
+    // 驗證每筆 tick 會同步彙總為分鐘 / 小時 K 棒；亂序到達的 tick 以時間戳決定開盤與收盤，重複 tick 不重複計數
+    @Test
+    @DisplayName("addSnapshot_FoldsTicksIntoOhlcBars — 4 筆 tick（含亂序與重複）應產生正確的分鐘與小時 OHLC")
+    void addSnapshot_FoldsTicksIntoOhlcBars() {
+        // Arrange
+        String pair = "USD/TWD";
+        long base = recentHour();
+
+        // Act
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.0, base + 1_000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.5, base + 30_000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 30.8, base + 10_000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.2, base + 61_000));
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 31.2, base + 61_000));
+
+        List<OhlcBar> minutes = adapter.getBars(pair, BucketResolution.MINUTE, base, base + 120_000);
+        List<OhlcBar> hours = adapter.getBars(pair, BucketResolution.HOUR, base + 5_000, base + 120_000);
+
+        // Assert
+        assertThat(minutes).hasSize(2);
+        OhlcBar first = minutes.getFirst();
+        assertThat(first.getBucketStart()).isEqualTo(base);
+        assertThat(first.getOpen()).isEqualTo(31.0);
+        assertThat(first.getHigh()).isEqualTo(31.5);
+        assertThat(first.getLow()).isEqualTo(30.8);
+        assertThat(first.getClose()).isEqualTo(31.5);
+        assertThat(first.getTickCount()).isEqualTo(3);
+        assertThat(minutes.get(1).getTickCount()).isEqualTo(1);
+
+        assertThat(hours).hasSize(1);
+        assertThat(hours.getFirst().getOpen()).isEqualTo(31.0);
+        assertThat(hours.getFirst().getClose()).isEqualTo(31.2);
+        assertThat(hours.getFirst().getTickCount()).isEqualTo(4);
+    }
+
+    // 驗證保留策略：原始 tick 依伺服器時間超過 24 小時即被裁剪，分鐘 K 棒保留 7 天（以最新 tick 起算），日 K 棒永久保留
+    @Test
+    @DisplayName("addSnapshot_AppliesRetention — 逾 24 小時的 tick 只進 K 棒；新 tick 推進時間後，過期分鐘 K 棒應被裁剪")
+    void addSnapshot_AppliesRetention() {
+        // Arrange
+        String pair = "EUR/USD";
+        long now = recentHour();
+        long old = BucketResolution.DAY.bucketStart(now) - 8 * DAY;
+
+        // Act — 8 天前的 tick
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.08, old));
+
+        // Assert — 原始 tick 依伺服器時間已過期，只留下 K 棒
+        assertThat(adapter.getSnapshots(pair, old, old)).isEmpty();
+        assertThat(adapter.getBars(pair, BucketResolution.MINUTE, old, old)).hasSize(1);
+
+        // Act — 最新的 tick
+        adapter.addSnapshot(new ExchangeRateSnapshot(pair, 1.10, now));
+
+        // Assert
+        assertThat(adapter.getBars(pair, BucketResolution.MINUTE, old, old)).isEmpty();
+        assertThat(adapter.getBars(pair, BucketResolution.HOUR, old, old)).hasSize(1);
+        assertThat(adapter.getBars(pair, BucketResolution.DAY, old, now)).hasSize(2);
+        assertThat(adapter.getLatestSnapshot(pair)).get()
+                .extracting(ExchangeRateSnapshot::getRate).isEqualTo(1.10);
+    }
 }
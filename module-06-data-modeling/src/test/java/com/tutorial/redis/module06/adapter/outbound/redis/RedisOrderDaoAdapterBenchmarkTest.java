@@ -0,0 +1,84 @@
+package com.tutorial.redis.module06.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測單一客戶擁有 10,000 筆訂單時的查詢延遲（改版前後比較）。
+ * 改版前：讀取索引後逐筆 findById（N+1，每筆一次 RTT）；
+ * 改版後：索引查詢 + Pipeline MGET 批次載入，以及每頁 50 筆的分頁查詢。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisOrderDaoAdapter 效能量測")
+class RedisOrderDaoAdapterBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisOrderDaoAdapterBenchmarkTest.class);
+
+    private static final int ORDER_COUNT = 10_000;
+    private static final int ITERATIONS = 5;
+    private static final String CUSTOMER_ID = "cust-bench";
+
+    @Autowired
+    private RedisOrderDaoAdapter adapter;
+
+    // 比較 N+1 逐筆載入、Pipeline MGET 全量載入與分頁查詢的延遲中位數
+    @Test
+    @DisplayName("findByCustomerId_10kOrders_ComparesLatency — 10k 筆訂單的 N+1 與 MGET 延遲比較")
+    void findByCustomerId_10kOrders_ComparesLatency() {
+        List<OrderItem> items = List.of(
+                new OrderItem("prod-A", "Keyboard", 2, 49.99),
+                new OrderItem("prod-B", "Mouse", 1, 29.99));
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            adapter.save(new Order("ord-bench-" + i, CUSTOMER_ID, 129.97, "PENDING", items,
+                    Instant.ofEpochMilli(1700000000000L + i)));
+        }
+
+        long nPlusOne = medianMillis(() -> {
+            Set<String> ids = stringRedisTemplate.opsForZSet()
+                    .reverseRange("idx:order:customer:" + CUSTOMER_ID, 0, -1);
+            List<Order> orders = new ArrayList<>();
+            for (String id : ids) {
+                adapter.findById(id).ifPresent(orders::add);
+            }
+            return orders;
+        });
+        long pipelined = medianMillis(() -> adapter.findByCustomerId(CUSTOMER_ID));
+        long firstPage = medianMillis(() -> adapter.findByCustomerId(CUSTOMER_ID, 0, 50));
+        long deepPage = medianMillis(() -> adapter.findByCustomerId(CUSTOMER_ID, 9_000, 50));
+
+        report.line("customer with %d orders (median of %d runs)", ORDER_COUNT, ITERATIONS);
+        report.line("  before  N+1 findById:        %d ms", nPlusOne);
+        report.line("  after   pipelined MGET (all): %d ms", pipelined);
+        report.line("  after   page offset=0 (50):   %d ms", firstPage);
+        report.line("  after   page offset=9000 (50): %d ms", deepPage);
+    }
+
+    private long medianMillis(Supplier<List<Order>> query) {
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<Order> result = query.get();
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+            assertThat(result).isNotEmpty();
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
@@ -6,8 +6,10 @@ import com.tutorial.redis.module06.domain.model.OrderItem;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.DataType;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +17,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * 測試 RedisOrderDaoAdapter 的訂單 Redis 持久化整合行為。
- * 驗證訂單以 JSON String 模式（內嵌 OrderItem）儲存，搭配客戶 ID 的 Set 二級索引及建立時間的 Sorted Set 時間索引。
+ * 驗證訂單以 JSON String 模式（內嵌 OrderItem）儲存，搭配客戶 ID 的 Sorted Set 二級索引及建立時間的 Sorted Set 時間索引，
+ * 並驗證分頁查詢與 Pipeline MGET 批次載入，以及舊版 SET 客戶索引的自動轉換。
  * 屬於 Adapter 層（外部介面卡），示範嵌入式（embedded）反正規化與多種二級索引的資料建模。
  */
 @DisplayName("RedisOrderDaoAdapter 整合測試")
@@ -141,4 +144,102 @@ class RedisOrderDaoAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(result.getFirst().getOrderId()).isEqualTo("ord-t2");
         assertThat(result.getFirst().getCreatedAt()).isEqualTo(Instant.ofEpochMilli(2000));
     }
+
+    // 驗證客戶訂單依建立時間由新到舊分頁，offset/limit 取得正確區段
+    @Test
+    @DisplayName("findByCustomerId_Paged_ReturnsNewestFirst — 5 筆訂單以 offset=1, limit=2 查詢，應回傳第 2、3 新的訂單")
+    void findByCustomerId_Paged_ReturnsNewestFirst() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("prod-1", "Widget", 1, 10.00));
+        for (int i = 1; i <= 5; i++) {
+            adapter.save(new Order("ord-p" + i, "cust-page", 10.00 * i, "PENDING", items,
+                    Instant.ofEpochMilli(1700000000000L + i * 1000L)));
+        }
+
+        // Act
+        List<Order> page = adapter.findByCustomerId("cust-page", 1, 2);
+
+        // Assert
+        assertThat(page).extracting(Order::getOrderId).containsExactly("ord-p4", "ord-p3");
+        assertThat(adapter.countByCustomerId("cust-page")).isEqualTo(5);
+    }
+
+    // 驗證超過單一 MGET 區塊大小的訂單數量仍能完整且依序載入
+    @Test
+    @DisplayName("findByCreatedAtRange_AcrossMgetChunks_ReturnsAllInOrder — 超過 MGET 區塊大小時應完整依序回傳")
+    void findByCreatedAtRange_AcrossMgetChunks_ReturnsAllInOrder() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("prod-1", "Widget", 1, 10.00));
+        int total = RedisOrderDaoAdapter.MGET_CHUNK_SIZE + 20;
+        List<String> expectedIds = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            String orderId = "ord-chunk-%04d".formatted(i);
+            expectedIds.add(orderId);
+            adapter.save(new Order(orderId, "cust-chunk", 10.00, "PENDING", items,
+                    Instant.ofEpochMilli(10_000L + i)));
+        }
+
+        // Act
+        List<Order> all = adapter.findByCreatedAtRange(0, Long.MAX_VALUE);
+        List<Order> page = adapter.findByCreatedAtRange(0, Long.MAX_VALUE, 10, 5);
+
+        // Assert
+        assertThat(all).extracting(Order::getOrderId).containsExactlyElementsOf(expectedIds);
+        assertThat(page).extracting(Order::getOrderId).containsExactlyElementsOf(expectedIds.subList(10, 15));
+    }
+
+    // 驗證訂單改換客戶後重新儲存，舊客戶索引中的訂單 ID 會被原子移除
+    @Test
+    @DisplayName("save_WhenCustomerChanges_MovesCustomerIndexEntry — 改換客戶後舊客戶索引不應殘留該訂單")
+    void save_WhenCustomerChanges_MovesCustomerIndexEntry() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("prod-1", "Widget", 1, 10.00));
+        Instant createdAt = Instant.ofEpochMilli(1700000000000L);
+        adapter.save(new Order("ord-move", "cust-old", 10.00, "PENDING", items, createdAt));
+
+        // Act
+        adapter.save(new Order("ord-move", "cust-new", 10.00, "PENDING", items, createdAt));
+
+        // Assert
+        assertThat(adapter.findByCustomerId("cust-old")).isEmpty();
+        assertThat(adapter.findByCustomerId("cust-new")).extracting(Order::getOrderId)
+                .containsExactly("ord-move");
+    }
+
+    // 驗證 limit=0 時不回傳任何訂單，而非整個訂單歷史
+    @Test
+    @DisplayName("findByCustomerId_ZeroLimit_ReturnsEmpty — limit=0 應回傳空清單")
+    void findByCustomerId_ZeroLimit_ReturnsEmpty() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("prod-1", "Widget", 1, 10.00));
+        adapter.save(new Order("ord-zero", "cust-zero", 10.00, "PENDING", items, Instant.ofEpochMilli(1000L)));
+
+        // Act
+        List<Order> page = adapter.findByCustomerId("cust-zero", 0, 0);
+
+        // Assert
+        assertThat(page).isEmpty();
+    }
+
+    // 驗證舊版以 SET 儲存的客戶索引在首次存取時轉為 Sorted Set，之後讀寫皆正常
+    @Test
+    @DisplayName("findByCustomerId_LegacySetIndex_ConvertedToSortedSet — 舊版 SET 索引應自動轉換")
+    void findByCustomerId_LegacySetIndex_ConvertedToSortedSet() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("prod-1", "Widget", 1, 10.00));
+        adapter.save(new Order("ord-legacy-1", "cust-legacy", 10.00, "PENDING", items, Instant.ofEpochMilli(1000L)));
+        adapter.save(new Order("ord-legacy-2", "cust-legacy", 20.00, "PENDING", items, Instant.ofEpochMilli(2000L)));
+        stringRedisTemplate.delete("idx:order:customer:cust-legacy");
+        stringRedisTemplate.opsForSet().add("idx:order:customer:cust-legacy", "ord-legacy-1", "ord-legacy-2");
+
+        // Act
+        List<Order> orders = adapter.findByCustomerId("cust-legacy");
+        adapter.save(new Order("ord-legacy-3", "cust-legacy", 30.00, "PENDING", items, Instant.ofEpochMilli(3000L)));
+
+        // Assert
+        assertThat(orders).extracting(Order::getOrderId).containsExactly("ord-legacy-2", "ord-legacy-1");
+        assertThat(adapter.countByCustomerId("cust-legacy")).isEqualTo(3);
+        assertThat(stringRedisTemplate.type("idx:order:customer:cust-legacy"))
+                .isEqualTo(DataType.ZSET);
+    }
 }
@@ -0,0 +1,97 @@
+package com.tutorial.redis.module06.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 比較訂單以 JSON String（RedisOrderDaoAdapter）與欄位層級 Hash（RedisOrderHashAdapter）
+ * 兩種佈局儲存時的記憶體用量（MEMORY USAGE）與操作延遲：
+ * 完整讀取、表頭讀取、狀態更新（JSON 需讀取 → 反序列化 → 重寫整份文件）。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisOrderHashAdapter 效能量測")
+class RedisOrderHashAdapterBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisOrderHashAdapterBenchmarkTest.class);
+
+    private static final int ORDER_COUNT = 2_000;
+    private static final int ITEMS_PER_ORDER = 8;
+
+    @Autowired
+    private RedisOrderDaoAdapter jsonAdapter;
+
+    @Autowired
+    private RedisOrderHashAdapter hashAdapter;
+
+    // 比較兩種佈局的每筆訂單記憶體用量，以及讀取與局部更新的平均延遲
+    @Test
+    @DisplayName("jsonVsHash_ComparesMemoryAndLatency — JSON 與 Hash 佈局的記憶體與延遲比較")
+    void jsonVsHash_ComparesMemoryAndLatency() {
+        List<Order> orders = new ArrayList<>(ORDER_COUNT);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                items.add(new OrderItem("prod-" + j, "Product " + j, j + 1, 10.0 + j));
+            }
+            orders.add(new Order("ord-bench-" + i, "cust-" + (i % 50), 999.0, "PENDING", items,
+                    Instant.ofEpochMilli(1700000000000L + i)));
+        }
+        orders.forEach(jsonAdapter::save);
+        orders.forEach(hashAdapter::save);
+
+        long jsonBytes = memoryUsage("ecommerce:order:ord-bench-0");
+        long hashBytes = memoryUsage("ecommerce:order-hash:ord-bench-0");
+
+        double jsonRead = averageMicros(i -> jsonAdapter.findById("ord-bench-" + i).orElseThrow());
+        double hashRead = averageMicros(i -> hashAdapter.findById("ord-bench-" + i).orElseThrow());
+        double hashHeader = averageMicros(i -> hashAdapter.findHeader("ord-bench-" + i).orElseThrow());
+        double jsonStatus = averageMicros(i -> {
+            Order current = jsonAdapter.findById("ord-bench-" + i).orElseThrow();
+            jsonAdapter.save(new Order(current.getOrderId(), current.getCustomerId(), current.getTotalAmount(),
+                    "SHIPPED", current.getItems(), current.getCreatedAt()));
+            return current;
+        });
+        double hashStatus = averageMicros(i -> hashAdapter.updateStatus("ord-bench-" + i, "SHIPPED"));
+
+        report.line("order with %d items, %d orders per run", ITEMS_PER_ORDER, ORDER_COUNT);
+        report.line("  memory        JSON: %5d B   Hash: %5d B", jsonBytes, hashBytes);
+        report.line("  full read     JSON: %7.1f us  Hash: %7.1f us", jsonRead, hashRead);
+        report.line("  header read                    Hash: %7.1f us", hashHeader);
+        report.line("  status update JSON: %7.1f us  Hash: %7.1f us", jsonStatus, hashStatus);
+
+        assertThat(hashAdapter.findById("ord-bench-0").orElseThrow().getStatus()).isEqualTo("SHIPPED");
+    }
+
+    private long memoryUsage(String key) {
+        Long bytes = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                (Long) connection.execute("MEMORY",
+                        "USAGE".getBytes(StandardCharsets.UTF_8),
+                        key.getBytes(StandardCharsets.UTF_8)));
+        return bytes != null ? bytes : -1L;
+    }
+
+    private double averageMicros(IntFunction<Object> operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            assertThat(operation.apply(i)).isNotNull();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ORDER_COUNT;
+    }
+}
@@ -0,0 +1,161 @@
+package com.tutorial.redis.module06.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module06.domain.model.Order;
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+import com.tutorial.redis.module06.domain.model.OrderItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 測試 RedisOrderHashAdapter 的 Redis 持久化整合行為。
+ * 驗證訂單以單一 Hash（表頭欄位 + 每個品項一個精簡欄位）儲存、
+ * 欄位層級的局部更新（狀態、數量與總額）以及只讀取所需欄位的投影查詢。
+ * 所屬層級：Adapter 層（外部介面卡）
+ */
+@DisplayName("RedisOrderHashAdapter 整合測試")
+class RedisOrderHashAdapterTest extends AbstractRedisIntegrationTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-06-15T10:30:00.123Z");
+
+    @Autowired
+    private RedisOrderHashAdapter adapter;
+
+    private Order sampleOrder() {
+        return new Order("ord-h1", "cust-1", 129.97, "PENDING", List.of(
+                new OrderItem("prod-A", "Keyboard | Mechanical", 2, 49.99),
+                new OrderItem("prod-B", "Mouse", 1, 29.99)),
+                CREATED_AT);
+    }
+
+    // 驗證訂單存成 Hash 後可完整還原，包含品項順序與含分隔字元的商品名稱
+    @Test
+    @DisplayName("save_AndFindById_RestoresAggregate — 儲存後以 ID 查詢，應還原完整訂單與品項順序")
+    void save_AndFindById_RestoresAggregate() {
+        // Arrange
+        adapter.save(sampleOrder());
+
+        // Act
+        Optional<Order> found = adapter.findById("ord-h1");
+
+        // Assert
+        assertThat(found).isPresent();
+        Order order = found.get();
+        assertThat(order.getCustomerId()).isEqualTo("cust-1");
+        assertThat(order.getTotalAmount()).isEqualTo(129.97);
+        assertThat(order.getStatus()).isEqualTo("PENDING");
+        assertThat(order.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(order.getItems()).extracting(OrderItem::getProductId).containsExactly("prod-A", "prod-B");
+        assertThat(order.getItems().getFirst().getProductName()).isEqualTo("Keyboard | Mechanical");
+        assertThat(order.getItems().getFirst().getQuantity()).isEqualTo(2);
+        assertThat(stringRedisTemplate.opsForHash().get("ecommerce:order-hash:ord-h1", "item:prod-B"))
+                .isEqualTo("1|1|29.99|Mouse");
+    }
+
+    // 驗證更新狀態只改動 status 欄位，其餘欄位不變；不存在的訂單不會被建立
+    @Test
+    @DisplayName("updateStatus_ChangesOnlyStatusField — 更新狀態只改 status 欄位，不存在的訂單回傳 false")
+    void updateStatus_ChangesOnlyStatusField() {
+        // Arrange
+        adapter.save(sampleOrder());
+
+        // Act
+        boolean updated = adapter.updateStatus("ord-h1", "SHIPPED");
+        boolean missing = adapter.updateStatus("ord-missing", "SHIPPED");
+
+        // Assert
+        assertThat(updated).isTrue();
+        assertThat(missing).isFalse();
+        assertThat(stringRedisTemplate.hasKey("ecommerce:order-hash:ord-missing")).isFalse();
+        Order order = adapter.findById("ord-h1").orElseThrow();
+        assertThat(order.getStatus()).isEqualTo("SHIPPED");
+        assertThat(order.getTotalAmount()).isEqualTo(129.97);
+        assertThat(order.itemCount()).isEqualTo(2);
+    }
+
+    // 驗證修改品項數量時，同一個 Lua 腳本依差額調整訂單總額
+    @Test
+    @DisplayName("updateItemQuantity_AdjustsTotal — 數量 2→5 時總額應增加 3 × 49.99")
+    void updateItemQuantity_AdjustsTotal() {
+        // Arrange
+        adapter.save(sampleOrder());
+
+        // Act
+        Optional<Double> total = adapter.updateItemQuantity("ord-h1", "prod-A", 5);
+        Optional<Double> missingItem = adapter.updateItemQuantity("ord-h1", "prod-Z", 1);
+
+        // Assert
+        assertThat(total).isPresent();
+        assertThat(total.get()).isCloseTo(129.97 + 3 * 49.99, within(1e-9));
+        assertThat(missingItem).isEmpty();
+        Order order = adapter.findById("ord-h1").orElseThrow();
+        assertThat(order.getItems().getFirst().getQuantity()).isEqualTo(5);
+        assertThat(order.getItems().getFirst().getProductName()).isEqualTo("Keyboard | Mechanical");
+        assertThat(order.getTotalAmount()).isCloseTo(279.94, within(1e-9));
+    }
+
+    // 驗證表頭與投影查詢只回傳要求的欄位，不讀取品項
+    @Test
+    @DisplayName("findHeaderAndFields_ReturnProjection — 表頭查詢不含品項，投影查詢只回傳存在的欄位")
+    void findHeaderAndFields_ReturnProjection() {
+        // Arrange
+        adapter.save(sampleOrder());
+
+        // Act
+        Optional<OrderHeader> header = adapter.findHeader("ord-h1");
+        Map<String, String> fields = adapter.findFields("ord-h1", List.of("status", "totalAmount", "unknown"));
+
+        // Assert
+        assertThat(header).isPresent();
+        assertThat(header.get().getItemCount()).isEqualTo(2);
+        assertThat(header.get().getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(fields).containsOnly(Map.entry("status", "PENDING"), Map.entry("totalAmount", "129.97"));
+        assertThat(adapter.findHeader("ord-missing")).isEmpty();
+    }
+
+    // 驗證重新儲存訂單會整體覆蓋，移除的品項不會殘留；刪除後查無資料
+    @Test
+    @DisplayName("save_ReplacesItems_AndDeleteRemoves — 重新儲存應移除舊品項，刪除後查無訂單")
+    void save_ReplacesItems_AndDeleteRemoves() {
+        // Arrange
+        adapter.save(sampleOrder());
+
+        // Act
+        adapter.save(new Order("ord-h1", "cust-1", 29.99, "PENDING",
+                List.of(new OrderItem("prod-B", "Mouse", 1, 29.99)), CREATED_AT));
+
+        // Assert
+        assertThat(adapter.findById("ord-h1").orElseThrow().getItems())
+                .extracting(OrderItem::getProductId).containsExactly("prod-B");
+
+        adapter.delete("ord-h1");
+        assertThat(adapter.findById("ord-h1")).isEmpty();
+    }
+
+    // 驗證同一商品出現兩次的訂單會被拒絕，避免品項欄位互相覆蓋而 itemCount 與實際品項不符
+    @Test
+    @DisplayName("save_DuplicateProduct_Rejected — 同一商品重複出現時應拋出 IllegalArgumentException 且不寫入")
+    void save_DuplicateProduct_Rejected() {
+        // Arrange
+        Order order = new Order("ord-dup", "cust-1", 99.98, "PENDING", List.of(
+                new OrderItem("prod-A", "Keyboard", 1, 49.99),
+                new OrderItem("prod-A", "Keyboard", 1, 49.99)),
+                CREATED_AT);
+
+        // Act & Assert
+        assertThatThrownBy(() -> adapter.save(order))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("prod-A");
+        assertThat(adapter.findById("ord-dup")).isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package com.tutorial.redis.module06.application.usecase;
 
 import com.tutorial.redis.module06.domain.model.AccountAggregate;
+import com.tutorial.redis.module06.domain.model.QueryPredicate;
 import com.tutorial.redis.module06.domain.port.outbound.AccountDaoPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -87,4 +88,25 @@ class ManageAccountServiceTest {
                 .containsOnly("USD");
         verify(accountDaoPort, times(1)).findByCurrency("USD");
     }
+
+    // 驗證多條件查詢時，Service 將條件與筆數上限原封不動委派給 AccountDaoPort.findByCriteria
+    @Test
+    @DisplayName("searchAccounts_DelegatesToPort — 多條件查詢應委派給 AccountDaoPort.findByCriteria")
+    void searchAccounts_DelegatesToPort() {
+        // Arrange
+        List<QueryPredicate> predicates = List.of(
+                QueryPredicate.eq("currency", "TWD"),
+                QueryPredicate.eq("status", "ACTIVE"),
+                QueryPredicate.greaterThan("balance", 1000));
+        List<AccountAggregate> expected = List.of(
+                new AccountAggregate("acct-s1", "Alice", 5000.00, "TWD", Instant.now(), "ACTIVE"));
+        when(accountDaoPort.findByCriteria(predicates, 50)).thenReturn(expected);
+
+        // Act
+        List<AccountAggregate> result = service.searchAccounts(predicates, 50);
+
+        // Assert
+        assertThat(result).isEqualTo(expected);
+        verify(accountDaoPort, times(1)).findByCriteria(predicates, 50);
+    }
 }
@@ -0,0 +1,63 @@
+package com.tutorial.redis.module06.application.usecase;
+
+import com.tutorial.redis.module06.domain.model.OrderHeader;
+import com.tutorial.redis.module06.domain.port.outbound.OrderHashStorePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 測試 ManageOrderHashService 的應用層業務邏輯。
+ * 使用 Mockito 模擬 OrderHashStorePort，驗證局部更新與表頭查詢正確委派給 Port 介面。
+ * 所屬層級：Application 層（用例層）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ManageOrderHashService 單元測試")
+class ManageOrderHashServiceTest {
+
+    @Mock
+    private OrderHashStorePort orderHashStorePort;
+
+    @InjectMocks
+    private ManageOrderHashService service;
+
+    // 驗證更新狀態時，Service 委派 OrderHashStorePort.updateStatus 並回傳結果
+    @Test
+    @DisplayName("updateOrderStatus_DelegatesToPort — 更新狀態應委派給 OrderHashStorePort.updateStatus")
+    void updateOrderStatus_DelegatesToPort() {
+        // Arrange
+        when(orderHashStorePort.updateStatus("ord-1", "SHIPPED")).thenReturn(true);
+
+        // Act
+        boolean result = service.updateOrderStatus("ord-1", "SHIPPED");
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(orderHashStorePort, times(1)).updateStatus("ord-1", "SHIPPED");
+    }
+
+    // 驗證查詢表頭時，Service 委派 OrderHashStorePort.findHeader 並回傳投影結果
+    @Test
+    @DisplayName("getOrderHeader_DelegatesToPort — 查詢表頭應委派給 OrderHashStorePort.findHeader")
+    void getOrderHeader_DelegatesToPort() {
+        // Arrange
+        OrderHeader header = new OrderHeader("ord-1", "cust-1", 99.0, "PENDING", Instant.now(), 3);
+        when(orderHashStorePort.findHeader("ord-1")).thenReturn(Optional.of(header));
+
+        // Act
+        Optional<OrderHeader> result = service.getOrderHeader("ord-1");
+
+        // Assert
+        assertThat(result).contains(header);
+        verify(orderHashStorePort, times(1)).findHeader("ord-1");
+    }
+}
@@ -88,4 +88,23 @@ class ManageOrderServiceTest {
         assertThat(result.getFirst().getOrderId()).isEqualTo("ord-t1");
         verify(orderDaoPort, times(1)).findByCreatedAtRange(1500, 2500);
     }
+
+    // 驗證分頁查詢客戶訂單時，Service 將 offset/limit 原樣委派給 OrderDaoPort
+    @Test
+    @DisplayName("findByCustomerPaged_DelegatesToPort — 分頁查詢應委派給 OrderDaoPort.findByCustomerId(offset, limit)")
+    void findByCustomerPaged_DelegatesToPort() {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("p1", "Widget", 1, 10.00));
+        List<Order> expected = List.of(
+                new Order("ord-ca3", "cust-A", 30.00, "PENDING", items, Instant.now())
+        );
+        when(orderDaoPort.findByCustomerId("cust-A", 20, 10)).thenReturn(expected);
+
+        // Act
+        List<Order> result = service.findOrdersByCustomer("cust-A", 20, 10);
+
+        // Assert
+        assertThat(result).isEqualTo(expected);
+        verify(orderDaoPort, times(1)).findByCustomerId("cust-A", 20, 10);
+    }
 }
@@ -0,0 +1,91 @@
+package com.tutorial.redis.module06.application.usecase;
+
+import com.tutorial.redis.module06.domain.model.BucketResolution;
+import com.tutorial.redis.module06.domain.model.ExchangeRateSnapshot;
+import com.tutorial.redis.module06.domain.port.outbound.ExchangeRateTimeSeriesPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * 測試 QueryExchangeRateService 的 K 棒解析度選擇邏輯。
+ * 使用 Mockito 模擬 ExchangeRateTimeSeriesPort，驗證 Service 依查詢範圍、點數上限
+ * 與各解析度的保留期間，選出仍能涵蓋範圍的最細解析度。
+ * 所屬層級：Application 層（用例層）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryExchangeRateService 單元測試")
+class QueryExchangeRateServiceTest {
+
+    private static final String PAIR = "USD/TWD";
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    @Mock
+    private ExchangeRateTimeSeriesPort exchangeRateTimeSeriesPort;
+
+    @InjectMocks
+    private QueryExchangeRateService service;
+
+    // 驗證最近 2 小時、上限 500 點時，分鐘 K 棒（約 121 點）即可滿足，選擇 MINUTE
+    @Test
+    @DisplayName("queryBars_ShortRange_UsesMinuteBars — 2 小時範圍、500 點上限應選擇分鐘 K 棒")
+    void queryBars_ShortRange_UsesMinuteBars() {
+        // Arrange
+        when(exchangeRateTimeSeriesPort.getLatestSnapshot(PAIR))
+                .thenReturn(Optional.of(new ExchangeRateSnapshot(PAIR, 31.5, NOW)));
+        when(exchangeRateTimeSeriesPort.getBars(PAIR, BucketResolution.MINUTE, NOW - 2 * HOUR, NOW))
+                .thenReturn(List.of());
+
+        // Act
+        service.queryBars(PAIR, NOW - 2 * HOUR, NOW, 500);
+
+        // Assert
+        verify(exchangeRateTimeSeriesPort).getBars(PAIR, BucketResolution.MINUTE, NOW - 2 * HOUR, NOW);
+    }
+
+    // 驗證 3 天範圍時分鐘 K 棒超過點數上限（約 4,321 點），改用小時 K 棒
+    @Test
+    @DisplayName("queryBars_OverBudget_CoarsensToHour — 3 天範圍超過 500 點上限應改用小時 K 棒")
+    void queryBars_OverBudget_CoarsensToHour() {
+        // Arrange
+        when(exchangeRateTimeSeriesPort.getLatestSnapshot(PAIR))
+                .thenReturn(Optional.of(new ExchangeRateSnapshot(PAIR, 31.5, NOW)));
+        when(exchangeRateTimeSeriesPort.getBars(PAIR, BucketResolution.HOUR, NOW - 3 * DAY, NOW))
+                .thenReturn(List.of());
+
+        // Act
+        service.queryBars(PAIR, NOW - 3 * DAY, NOW, 500);
+
+        // Assert
+        verify(exchangeRateTimeSeriesPort).getBars(PAIR, BucketResolution.HOUR, NOW - 3 * DAY, NOW);
+    }
+
+    // 驗證起點早於小時 K 棒保留期間（90 天）時，即使點數足夠也必須改用日 K 棒
+    @Test
+    @DisplayName("queryBars_BeyondRetention_UsesDayBars — 一年前的範圍超出小時保留期間應改用日 K 棒")
+    void queryBars_BeyondRetention_UsesDayBars() {
+        // Arrange
+        long from = NOW - 365 * DAY;
+        long to = from + 10 * DAY;
+        when(exchangeRateTimeSeriesPort.getLatestSnapshot(PAIR))
+                .thenReturn(Optional.of(new ExchangeRateSnapshot(PAIR, 31.5, NOW)));
+        when(exchangeRateTimeSeriesPort.getBars(PAIR, BucketResolution.DAY, from, to))
+                .thenReturn(List.of());
+
+        // Act
+        service.queryBars(PAIR, from, to, 10_000);
+
+        // Assert
+        verify(exchangeRateTimeSeriesPort).getBars(PAIR, BucketResolution.DAY, from, to);
+    }
+}
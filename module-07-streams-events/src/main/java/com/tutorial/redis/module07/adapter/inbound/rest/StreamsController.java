@@ -3,22 +3,26 @@ package com.tutorial.redis.module07.adapter.inbound.rest;
 import com.tutorial.redis.module07.domain.model.AccountEvent;
 import com.tutorial.redis.module07.domain.model.AccountState;
 import com.tutorial.redis.module07.domain.model.PendingMessage;
+import com.tutorial.redis.module07.domain.model.PubSubStats;
 import com.tutorial.redis.module07.domain.model.StreamMessage;
 import com.tutorial.redis.module07.domain.port.inbound.ConsumeStreamUseCase;
 import com.tutorial.redis.module07.domain.port.inbound.EventSourcingUseCase;
 import com.tutorial.redis.module07.domain.port.inbound.ManageStreamUseCase;
 import com.tutorial.redis.module07.domain.port.inbound.PublishMessageUseCase;
+import com.tutorial.redis.module07.domain.port.inbound.ScheduleMessageUseCase;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 /**
  * REST controller exposing endpoints for Redis Streams and event-driven patterns:
  * <ul>
- *   <li>Pub/Sub message publishing</li>
+ *   <li>Pub/Sub message publishing (classic and sharded) and statistics</li>
  *   <li>Stream message management (add, read, trim)</li>
+ *   <li>Delayed delivery into streams (schedule, cancel, pending count)</li>
  *   <li>Consumer group operations (create, consume, acknowledge, pending)</li>
  *   <li>Event sourcing (append events, replay state, get event history)</li>
  * </ul>
@@ -31,37 +35,70 @@ public class StreamsController {
     private final ManageStreamUseCase manageStreamUseCase;
     private final ConsumeStreamUseCase consumeStreamUseCase;
     private final EventSourcingUseCase eventSourcingUseCase;
+    private final ScheduleMessageUseCase scheduleMessageUseCase;
 
     public StreamsController(PublishMessageUseCase publishMessageUseCase,
                              ManageStreamUseCase manageStreamUseCase,
                              ConsumeStreamUseCase consumeStreamUseCase,
-                             EventSourcingUseCase eventSourcingUseCase) {
+                             EventSourcingUseCase eventSourcingUseCase,
+                             ScheduleMessageUseCase scheduleMessageUseCase) {
         this.publishMessageUseCase = publishMessageUseCase;
         this.manageStreamUseCase = manageStreamUseCase;
         this.consumeStreamUseCase = consumeStreamUseCase;
         this.eventSourcingUseCase = eventSourcingUseCase;
+        this.scheduleMessageUseCase = scheduleMessageUseCase;
     }
 
     // ===================== Pub/Sub Endpoints =====================
 
     /**
-     * Publishes a fire-and-forget message to a Redis Pub/Sub channel.
+     * Publishes a message to a Redis Pub/Sub channel.
      *
      * @param channel the channel name
      * @param message the message payload
-     * @return confirmation with channel and message details
+     * @return confirmation with channel, message and receiver count
      */
     @PostMapping("/publish")
     public ResponseEntity<Map<String, String>> publish(@RequestParam String channel,
                                                         @RequestParam String message) {
-        publishMessageUseCase.publish(channel, message);
+        long receivers = publishMessageUseCase.publish(channel, message);
         return ResponseEntity.ok(Map.of(
                 "status", "published",
                 "channel", channel,
-                "message", message
+                "message", message,
+                "receivers", String.valueOf(receivers)
         ));
     }
 
+    /**
+     * Publishes a message to a sharded Pub/Sub channel via SPUBLISH.
+     *
+     * @param channel the sharded channel name
+     * @param message the message payload
+     * @return confirmation with channel, message and receiver count
+     */
+    @PostMapping("/publish/sharded")
+    public ResponseEntity<Map<String, String>> publishSharded(@RequestParam String channel,
+                                                               @RequestParam String message) {
+        long receivers = publishMessageUseCase.publishSharded(channel, message);
+        return ResponseEntity.ok(Map.of(
+                "status", "published",
+                "channel", channel,
+                "message", message,
+                "receivers", String.valueOf(receivers)
+        ));
+    }
+
+    /**
+     * Returns Pub/Sub published/delivered counts and rates and the dropped counts.
+     *
+     * @return the current Pub/Sub statistics
+     */
+    @GetMapping("/publish/stats")
+    public ResponseEntity<PubSubStats> getPubSubStats() {
+        return ResponseEntity.ok(publishMessageUseCase.getStats());
+    }
+
     // ===================== Stream Message Endpoints =====================
 
     /**
@@ -99,6 +136,62 @@ public class StreamsController {
         return ResponseEntity.ok(messages);
     }
 
+    // ===================== Delayed Delivery Endpoints =====================
+
+    /**
+     * Schedules a message for delivery to the specified stream at a given time.
+     *
+     * @param streamKey the target stream key
+     * @param deliverAt the delivery time as an ISO-8601 instant
+     * @param fields    the field-value pairs for the message body
+     * @return the generated schedule ID
+     */
+    @PostMapping("/delayed/{streamKey}")
+    public ResponseEntity<Map<String, String>> scheduleMessage(@PathVariable String streamKey,
+                                                                @RequestParam Instant deliverAt,
+                                                                @RequestBody Map<String, String> fields) {
+        String scheduleId = scheduleMessageUseCase.scheduleMessage(streamKey, fields, deliverAt);
+        return ResponseEntity.ok(Map.of(
+                "status", "scheduled",
+                "streamKey", streamKey,
+                "scheduleId", scheduleId,
+                "deliverAt", deliverAt.toString()
+        ));
+    }
+
+    /**
+     * Cancels a scheduled message that has not yet been delivered.
+     *
+     * @param streamKey  the target stream key
+     * @param scheduleId the schedule ID
+     * @return whether the message was cancelled
+     */
+    @DeleteMapping("/delayed/{streamKey}/{scheduleId}")
+    public ResponseEntity<Map<String, Object>> cancelScheduledMessage(@PathVariable String streamKey,
+                                                                       @PathVariable String scheduleId) {
+        boolean cancelled = scheduleMessageUseCase.cancelScheduledMessage(streamKey, scheduleId);
+        return ResponseEntity.ok(Map.of(
+                "streamKey", streamKey,
+                "scheduleId", scheduleId,
+                "cancelled", cancelled
+        ));
+    }
+
+    /**
+     * Returns the number of messages waiting for delivery to the specified stream.
+     *
+     * @param streamKey the target stream key
+     * @return the pending message count
+     */
+    @GetMapping("/delayed/{streamKey}/count")
+    public ResponseEntity<Map<String, Object>> countPendingMessages(@PathVariable String streamKey) {
+        long pending = scheduleMessageUseCase.countPendingMessages(streamKey);
+        return ResponseEntity.ok(Map.of(
+                "streamKey", streamKey,
+                "pending", pending
+        ));
+    }
+
     // ===================== Consumer Group Endpoints =====================
 
     /**
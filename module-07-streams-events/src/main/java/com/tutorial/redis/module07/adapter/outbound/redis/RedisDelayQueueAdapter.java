@@ -0,0 +1,208 @@
+package com.tutorial.redis.module07.adapter.outbound.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutorial.redis.module07.domain.model.ScheduledMessage;
+import com.tutorial.redis.module07.domain.port.outbound.DelayQueuePort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis delay queue adapter that delivers scheduled messages into Redis Streams.
+ *
+ * <p>Implements {@link DelayQueuePort} with one sorted set and one hash per
+ * target stream, plus a registry set of streams with pending messages:</p>
+ * <ul>
+ *   <li>{@code delay:{streamKey}} — sorted set, member = schedule ID,
+ *       score = delivery time in epoch milliseconds</li>
+ *   <li>{@code delay:{streamKey}:payload} — hash, schedule ID → fields encoded as a
+ *       JSON array {@code [name, value, ...]}, which keeps their order</li>
+ *   <li>{@code delay:streams} — set of target stream keys with pending messages</li>
+ * </ul>
+ *
+ * <p>The {@code {streamKey}} hash tag places the delay queue keys in the same
+ * cluster slot as the target stream itself, so the scripts only touch keys of
+ * one slot and stay valid on Redis Cluster. A stream key containing braces
+ * would bring its own hash tag, which the outer braces cannot reproduce, so such
+ * keys are rejected with {@link IllegalArgumentException}. The registry lives in
+ * another slot and is therefore updated with separate commands: a stream is added
+ * after its message is queued, and removed only after its queue was seen empty,
+ * with a re-check that adds it back if a message arrived in between.</p>
+ *
+ * <p>Due messages are released by a Lua script that reads a batch with
+ * {@code ZRANGEBYSCORE ... LIMIT}, appends each entry to the stream via
+ * {@code XADD} and removes it from the queue — all in one atomic step. Concurrent
+ * scheduler instances therefore never deliver the same message twice.
+ * Delivered entries carry two extra fields, {@code scheduleId} and
+ * {@code scheduledAt}, which are reserved ({@link ScheduledMessage} rejects
+ * payloads that use them).</p>
+ */
+@Component
+public class RedisDelayQueueAdapter implements DelayQueuePort {
+
+    private static final String KEY_PREFIX = "delay:";
+    private static final String PAYLOAD_SUFFIX = ":payload";
+    private static final String REGISTRY_KEY = "delay:streams";
+
+    private static final DefaultRedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[3])\n" +
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])\n" +
+            "return 1",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], " +
+            "'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[2]))\n" +
+            "local ids = {}\n" +
+            "for i = 1, #due, 2 do\n" +
+            "    local id = due[i]\n" +
+            "    ids[#ids + 1] = id\n" +
+            "    local raw = redis.call('HGET', KEYS[2], id)\n" +
+            "    if raw then\n" +
+            "        local args = cjson.decode(raw)\n" +
+            "        args[#args + 1] = 'scheduleId'\n" +
+            "        args[#args + 1] = id\n" +
+            "        args[#args + 1] = 'scheduledAt'\n" +
+            "        args[#args + 1] = due[i + 1]\n" +
+            "        redis.call('XADD', KEYS[3], '*', unpack(args))\n" +
+            "    end\n" +
+            "end\n" +
+            "if #ids > 0 then\n" +
+            "    redis.call('ZREM', KEYS[1], unpack(ids))\n" +
+            "    redis.call('HDEL', KEYS[2], unpack(ids))\n" +
+            "end\n" +
+            "return #ids",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> CANCEL_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('ZREM', KEYS[1], ARGV[1])\n" +
+            "redis.call('HDEL', KEYS[2], ARGV[1])\n" +
+            "return removed",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisDelayQueueAdapter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Stores the message payload and its delivery time in one atomic script
+     * ({@code HSET} + {@code ZADD}), then registers the stream ({@code SADD}).
+     *
+     * @param message the scheduled message
+     */
+    @Override
+    public void schedule(ScheduledMessage message) {
+        String streamKey = message.getStreamKey();
+        stringRedisTemplate.execute(SCHEDULE_SCRIPT,
+                List.of(queueKey(streamKey), payloadKey(streamKey)),
+                message.getScheduleId(),
+                String.valueOf(message.getDeliverAt().toEpochMilli()),
+                encodePayload(message));
+        stringRedisTemplate.opsForSet().add(REGISTRY_KEY, streamKey);
+    }
+
+    /**
+     * Removes a pending message from the queue ({@code ZREM} + {@code HDEL}).
+     *
+     * @param streamKey  the target stream key
+     * @param scheduleId the schedule ID
+     * @return true if the message was still pending
+     */
+    @Override
+    public boolean cancel(String streamKey, String scheduleId) {
+        Long removed = stringRedisTemplate.execute(CANCEL_SCRIPT,
+                List.of(queueKey(streamKey), payloadKey(streamKey)),
+                scheduleId);
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * Moves a batch of due messages into the target stream with a single Lua script.
+     * A partial batch means the due messages are drained; the stream is then
+     * unregistered if nothing is pending any more.
+     *
+     * @param streamKey the target stream key
+     * @param now       the reference time for due messages
+     * @param batchSize the maximum number of messages to move
+     * @return the number of messages moved into the stream
+     */
+    @Override
+    public int releaseDue(String streamKey, Instant now, int batchSize) {
+        Long moved = stringRedisTemplate.execute(RELEASE_SCRIPT,
+                List.of(queueKey(streamKey), payloadKey(streamKey), streamKey),
+                String.valueOf(now.toEpochMilli()),
+                String.valueOf(batchSize));
+        int count = moved != null ? moved.intValue() : 0;
+        if (count < batchSize && countPending(streamKey) == 0) {
+            stringRedisTemplate.opsForSet().remove(REGISTRY_KEY, streamKey);
+            if (countPending(streamKey) > 0) {
+                stringRedisTemplate.opsForSet().add(REGISTRY_KEY, streamKey);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the target streams with pending messages via {@code SMEMBERS}.
+     *
+     * @return the set of target stream keys
+     */
+    @Override
+    public Set<String> findStreamsWithPending() {
+        Set<String> streams = stringRedisTemplate.opsForSet().members(REGISTRY_KEY);
+        return streams != null ? streams : Collections.emptySet();
+    }
+
+    /**
+     * Returns the number of pending messages via {@code ZCARD}.
+     *
+     * @param streamKey the target stream key
+     * @return the pending message count
+     */
+    @Override
+    public long countPending(String streamKey) {
+        Long size = stringRedisTemplate.opsForZSet().zCard(queueKey(streamKey));
+        return size != null ? size : 0L;
+    }
+
+    private String encodePayload(ScheduledMessage message) {
+        try {
+            List<String> fields = new ArrayList<>(message.getPayload().size() * 2);
+            message.getPayload().forEach((name, value) -> {
+                fields.add(name);
+                fields.add(value);
+            });
+            return objectMapper.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(
+                    "Failed to encode payload for scheduled message: " + message.getScheduleId(), e);
+        }
+    }
+
+    private String queueKey(String streamKey) {
+        return KEY_PREFIX + hashTag(streamKey);
+    }
+
+    private String payloadKey(String streamKey) {
+        return KEY_PREFIX + hashTag(streamKey) + PAYLOAD_SUFFIX;
+    }
+
+    private static String hashTag(String streamKey) {
+        if (streamKey.indexOf('{') >= 0 || streamKey.indexOf('}') >= 0) {
+            throw new IllegalArgumentException(
+                    "Delay queue stream keys must not contain '{' or '}': " + streamKey);
+        }
+        return "{" + streamKey + "}";
+    }
+}
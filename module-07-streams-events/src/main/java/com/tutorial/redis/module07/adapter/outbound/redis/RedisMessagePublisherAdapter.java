@@ -1,34 +1,220 @@
 package com.tutorial.redis.module07.adapter.outbound.redis;
 
+import com.tutorial.redis.module07.domain.model.PubSubMessage;
 import com.tutorial.redis.module07.domain.port.outbound.MessagePublisherPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Redis Pub/Sub adapter for fire-and-forget message publishing.
+ * Redis Pub/Sub adapter for message publishing.
  *
- * <p>Implements {@link MessagePublisherPort} using {@link StringRedisTemplate#convertAndSend}
- * which maps directly to the Redis {@code PUBLISH} command. Messages are delivered
+ * <p>Implements {@link MessagePublisherPort} with {@code PUBLISH} for classic
+ * channels and {@code SPUBLISH} for sharded channels. Messages are delivered
  * to all currently subscribed clients on the specified channel; there is no
  * persistence or delivery guarantee.</p>
+ *
+ * <p>{@link #publish} and {@link #publishSharded} coalesce concurrent callers:
+ * each call enqueues its message into a bounded queue and waits while a single
+ * flusher thread sends everything queued so far (up to {@value #MAX_BATCH_SIZE}
+ * messages) in one pipelined round-trip. Under light load each message is sent
+ * on its own with no added delay; under heavy load calls share large pipelines.
+ * Every caller still gets its own receiver count, or the Redis error of its
+ * pipeline. When the queue is full, callers block until space is available.
+ * Messages are sent in enqueue order, preserving per-channel ordering.</p>
+ *
+ * <p>Once {@link #destroy()} has begun, new messages are rejected. A message
+ * queued concurrently with shutdown, after the flusher has exited, is sent by
+ * its caller instead. Messages that fail to send or are rejected are counted in
+ * {@link #getDroppedCount()}.</p>
  */
 @Component
-public class RedisMessagePublisherAdapter implements MessagePublisherPort {
+public class RedisMessagePublisherAdapter implements MessagePublisherPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisMessagePublisherAdapter.class);
+
+    static final int MAX_BATCH_SIZE = 256;
+    static final int QUEUE_CAPACITY = 10_000;
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final BlockingQueue<PendingPublish> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean running = true;
 
     public RedisMessagePublisherAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.flusher = Thread.ofVirtual().name("pubsub-publisher").start(this::flushLoop);
     }
 
     /**
-     * Publishes a message to the specified Pub/Sub channel via {@code PUBLISH}.
+     * Publishes a message to the specified Pub/Sub channel ({@code PUBLISH}).
      *
      * @param channel the Pub/Sub channel name
      * @param message the message payload to publish
+     * @return the number of clients that received the message
+     */
+    @Override
+    public long publish(String channel, String message) {
+        return send(new PubSubMessage(channel, message, false));
+    }
+
+    /**
+     * Publishes a message to the specified sharded Pub/Sub channel ({@code SPUBLISH}).
+     *
+     * @param shardChannel the sharded channel name
+     * @param message      the message payload to publish
+     * @return the number of clients that received the message
+     */
+    @Override
+    public long publishSharded(String shardChannel, String message) {
+        return send(new PubSubMessage(shardChannel, message, true));
+    }
+
+    /**
+     * Sends the given messages synchronously in a single pipeline.
+     *
+     * @param messages the messages to publish, in order
+     */
+    @Override
+    public void publishAll(List<PubSubMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        sendPipelined(messages);
+    }
+
+    @Override
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * Returns the number of messages that were not published, because their
+     * pipeline failed or the publisher had shut down.
      */
     @Override
-    public void publish(String channel, String message) {
-        stringRedisTemplate.convertAndSend(channel, message);
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Stops accepting new messages and sends everything still queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private long send(PubSubMessage message) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            throw new IllegalStateException("Publisher has been shut down");
+        }
+        PendingPublish pending = new PendingPublish(message, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCount.incrementAndGet();
+            throw new IllegalStateException("Interrupted while queueing message for " + message.getChannel(), e);
+        }
+        if (!running && queue.remove(pending)) {
+            // The flusher may already have exited; send it here instead of leaving it queued
+            sendBatch(List.of(pending));
+        }
+        return await(pending);
+    }
+
+    private long await(PendingPublish pending) {
+        try {
+            return pending.receivers().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing to " + pending.message().getChannel(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Publishing to " + pending.message().getChannel() + " failed", e.getCause());
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingPublish> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPublish first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                sendBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingPublish> batch) {
+        List<PubSubMessage> messages = new ArrayList<>(batch.size());
+        batch.forEach(pending -> messages.add(pending.message()));
+        List<Object> results;
+        try {
+            results = sendPipelined(messages);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish batch of {} messages", batch.size(), e);
+            batch.forEach(pending -> pending.receivers().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Object receivers = i < results.size() ? results.get(i) : null;
+            batch.get(i).receivers().complete(receivers instanceof Number n ? n.longValue() : 0L);
+        }
+    }
+
+    private List<Object> sendPipelined(List<PubSubMessage> messages) {
+        List<Object> results;
+        try {
+            results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (PubSubMessage message : messages) {
+                    byte[] channel = message.getChannel().getBytes(StandardCharsets.UTF_8);
+                    byte[] payload = message.getPayload().getBytes(StandardCharsets.UTF_8);
+                    if (message.isSharded()) {
+                        connection.execute("SPUBLISH", channel, payload);
+                    } else {
+                        connection.publish(channel, payload);
+                    }
+                }
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            });
+        } catch (RuntimeException e) {
+            droppedCount.addAndGet(messages.size());
+            throw e;
+        }
+        publishedCount.addAndGet(messages.size());
+        return results;
+    }
+
+    private record PendingPublish(PubSubMessage message, CompletableFuture<Long> receivers) {
     }
 }
@@ -0,0 +1,246 @@
+package com.tutorial.redis.module07.adapter.outbound.redis;
+
+import com.tutorial.redis.module07.domain.port.outbound.MessageSubscriberPort;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Redis Pub/Sub subscriber container with virtual-thread dispatch.
+ *
+ * <p>Implements {@link MessageSubscriberPort} on a dedicated Lettuce Pub/Sub
+ * connection, because Spring Data Redis does not expose {@code SSUBSCRIBE}.
+ * The connection is opened lazily on the first subscription.</p>
+ *
+ * <p>Dispatch model:</p>
+ * <ul>
+ *   <li>The Lettuce I/O thread only enqueues the payload into the channel's
+ *       bounded backlog ({@value #BACKLOG_CAPACITY} messages) and never runs
+ *       handler code</li>
+ *   <li>Each subscribed channel has its own virtual thread that takes messages
+ *       from the backlog and invokes the handler one at a time, so ordering
+ *       is preserved per channel while slow handlers on one channel do not
+ *       delay the others</li>
+ *   <li>A message whose handler throws is logged and counted as failed, not
+ *       as delivered</li>
+ *   <li>When a backlog is full the incoming message is dropped and counted;
+ *       Pub/Sub is fire-and-forget, so shedding load is preferable to letting
+ *       the client output buffer on the server grow until it disconnects us</li>
+ * </ul>
+ */
+@Component
+public class RedisMessageSubscriberAdapter implements MessageSubscriberPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisMessageSubscriberAdapter.class);
+
+    static final int BACKLOG_CAPACITY = 1_000;
+
+    private static final String SHARDED_PREFIX = "s:";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final Map<String, ChannelDispatcher> dispatchers = new ConcurrentHashMap<>();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile StatefulRedisPubSubConnection<String, String> connection;
+
+    public RedisMessageSubscriberAdapter(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Subscribes a handler to the specified channel via {@code SUBSCRIBE}.
+     *
+     * @param channel the channel name
+     * @param handler the message handler
+     */
+    @Override
+    public void subscribe(String channel, Consumer<String> handler) {
+        ChannelDispatcher dispatcher = register(channel, channel, handler);
+        try {
+            connection().sync().subscribe(channel);
+        } catch (RuntimeException e) {
+            unregister(channel, dispatcher);
+            throw e;
+        }
+    }
+
+    /**
+     * Subscribes a handler to the specified sharded channel via {@code SSUBSCRIBE}.
+     *
+     * @param shardChannel the sharded channel name
+     * @param handler      the message handler
+     */
+    @Override
+    public void subscribeSharded(String shardChannel, Consumer<String> handler) {
+        ChannelDispatcher dispatcher = register(SHARDED_PREFIX + shardChannel, shardChannel, handler);
+        try {
+            connection().sync().ssubscribe(shardChannel);
+        } catch (RuntimeException e) {
+            unregister(SHARDED_PREFIX + shardChannel, dispatcher);
+            throw e;
+        }
+    }
+
+    /**
+     * Unsubscribes from the channel and stops its dispatcher thread.
+     * Messages still in the backlog are discarded.
+     *
+     * @param channel the channel name
+     * @param sharded whether the channel was subscribed via {@code SSUBSCRIBE}
+     */
+    @Override
+    public void unsubscribe(String channel, boolean sharded) {
+        ChannelDispatcher dispatcher = dispatchers.remove(sharded ? SHARDED_PREFIX + channel : channel);
+        if (dispatcher == null) {
+            return;
+        }
+        if (sharded) {
+            connection().sync().sunsubscribe(channel);
+        } else {
+            connection().sync().unsubscribe(channel);
+        }
+        dispatcher.stop();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        dispatchers.values().forEach(ChannelDispatcher::stop);
+        dispatchers.clear();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private ChannelDispatcher register(String dispatcherKey, String channel, Consumer<String> handler) {
+        ChannelDispatcher dispatcher = new ChannelDispatcher(channel, handler);
+        if (dispatchers.putIfAbsent(dispatcherKey, dispatcher) != null) {
+            dispatcher.stop();
+            throw new IllegalStateException("Channel already subscribed: " + channel);
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Rolls back {@link #register} when the subscription itself failed.
+     */
+    private void unregister(String dispatcherKey, ChannelDispatcher dispatcher) {
+        dispatchers.remove(dispatcherKey, dispatcher);
+        dispatcher.stop();
+    }
+
+    private StatefulRedisPubSubConnection<String, String> connection() {
+        StatefulRedisPubSubConnection<String, String> current = connection;
+        if (current == null) {
+            synchronized (this) {
+                current = connection;
+                if (current == null) {
+                    current = openConnection();
+                    connection = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private StatefulRedisPubSubConnection<String, String> openConnection() {
+        AbstractRedisClient client = connectionFactory.getRequiredNativeClient();
+        StatefulRedisPubSubConnection<String, String> pubSub = switch (client) {
+            case RedisClusterClient clusterClient -> clusterClient.connectPubSub(StringCodec.UTF8);
+            case RedisClient redisClient -> redisClient.connectPubSub(StringCodec.UTF8);
+            default -> throw new IllegalStateException("Unsupported Redis client: " + client.getClass());
+        };
+        pubSub.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                dispatch(channel, message);
+            }
+
+            @Override
+            public void smessage(String shardChannel, String message) {
+                dispatch(SHARDED_PREFIX + shardChannel, message);
+            }
+        });
+        return pubSub;
+    }
+
+    private void dispatch(String dispatcherKey, String message) {
+        ChannelDispatcher dispatcher = dispatchers.get(dispatcherKey);
+        if (dispatcher == null || !dispatcher.offer(message)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Per-channel bounded backlog drained by a dedicated virtual thread.
+     */
+    private final class ChannelDispatcher {
+
+        private final String channel;
+        private final Consumer<String> handler;
+        private final BlockingQueue<String> backlog = new ArrayBlockingQueue<>(BACKLOG_CAPACITY);
+        private final Thread worker;
+
+        ChannelDispatcher(String channel, Consumer<String> handler) {
+            this.channel = channel;
+            this.handler = handler;
+            this.worker = Thread.ofVirtual().name("pubsub-" + channel).start(this::run);
+        }
+
+        boolean offer(String message) {
+            return backlog.offer(message);
+        }
+
+        void stop() {
+            worker.interrupt();
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                String message;
+                try {
+                    message = backlog.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    handler.accept(message);
+                    deliveredCount.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failedCount.incrementAndGet();
+                    log.warn("Handler for channel {} failed", channel, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tutorial.redis.module07.application.usecase;
+
+import com.tutorial.redis.module07.domain.model.ScheduledMessage;
+import com.tutorial.redis.module07.domain.port.inbound.ScheduleMessageUseCase;
+import com.tutorial.redis.module07.domain.port.outbound.DelayQueuePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Application service for delayed message delivery into Redis Streams.
+ *
+ * <p>Implements the {@link ScheduleMessageUseCase} inbound port by delegating
+ * to the {@link DelayQueuePort} outbound port. Each call to
+ * {@link #releaseDueMessages()} drains due messages stream by stream in
+ * batches of {@value #BATCH_SIZE}; each batch is one atomic server-side step.
+ * At most {@value #MAX_BATCHES_PER_STREAM} batches are moved per stream per
+ * call so that a single backlogged stream cannot starve the others. A stream
+ * whose release fails is logged and skipped, so it does not hold up the rest.</p>
+ */
+@Service
+public class DelayedDeliveryService implements ScheduleMessageUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayedDeliveryService.class);
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_BATCHES_PER_STREAM = 20;
+
+    private final DelayQueuePort delayQueuePort;
+
+    public DelayedDeliveryService(DelayQueuePort delayQueuePort) {
+        this.delayQueuePort = delayQueuePort;
+    }
+
+    /**
+     * Schedules a message for delivery to the given stream at the given time.
+     *
+     * @param streamKey the target stream key
+     * @param fields    the field-value pairs for the stream entry
+     * @param deliverAt the delivery time
+     * @return the generated schedule ID
+     */
+    @Override
+    public String scheduleMessage(String streamKey, Map<String, String> fields, Instant deliverAt) {
+        String scheduleId = UUID.randomUUID().toString();
+        delayQueuePort.schedule(new ScheduledMessage(scheduleId, streamKey, fields, deliverAt));
+        return scheduleId;
+    }
+
+    /**
+     * Cancels a scheduled message that has not yet been delivered.
+     *
+     * @param streamKey  the target stream key
+     * @param scheduleId the schedule ID
+     * @return true if the message was cancelled before delivery
+     */
+    @Override
+    public boolean cancelScheduledMessage(String streamKey, String scheduleId) {
+        return delayQueuePort.cancel(streamKey, scheduleId);
+    }
+
+    /**
+     * Returns the number of messages still waiting for delivery to the given stream.
+     *
+     * @param streamKey the target stream key
+     * @return the pending message count
+     */
+    @Override
+    public long countPendingMessages(String streamKey) {
+        return delayQueuePort.countPending(streamKey);
+    }
+
+    /**
+     * Moves all currently due messages into their target streams.
+     *
+     * @return the total number of messages delivered
+     */
+    @Override
+    public int releaseDueMessages() {
+        Instant now = Instant.now();
+        int total = 0;
+        for (String streamKey : delayQueuePort.findStreamsWithPending()) {
+            try {
+                for (int batch = 0; batch < MAX_BATCHES_PER_STREAM; batch++) {
+                    int moved = delayQueuePort.releaseDue(streamKey, now, BATCH_SIZE);
+                    total += moved;
+                    if (moved < BATCH_SIZE) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Releasing delayed messages into {} failed, skipping it this round", streamKey, e);
+            }
+        }
+        return total;
+    }
+}
@@ -1,24 +1,35 @@
 package com.tutorial.redis.module07.application.usecase;
 
+import com.tutorial.redis.module07.domain.model.PubSubStats;
 import com.tutorial.redis.module07.domain.port.inbound.PublishMessageUseCase;
 import com.tutorial.redis.module07.domain.port.outbound.MessagePublisherPort;
+import com.tutorial.redis.module07.domain.port.outbound.MessageSubscriberPort;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+
 /**
  * Application service for Redis Pub/Sub message publishing.
  *
  * <p>Implements the {@link PublishMessageUseCase} inbound port by delegating
  * to the {@link MessagePublisherPort} outbound port. This thin orchestration
  * layer sits between the REST controller and the Redis adapter, preserving
- * the hexagonal architecture boundary.</p>
+ * the hexagonal architecture boundary. Statistics combine the publisher's
+ * published and dropped counters with the {@link MessageSubscriberPort}
+ * delivery, drop and failure counters.</p>
  */
 @Service
 public class PublishMessageService implements PublishMessageUseCase {
 
     private final MessagePublisherPort messagePublisherPort;
+    private final MessageSubscriberPort messageSubscriberPort;
+    private final Instant startedAt = Instant.now();
 
-    public PublishMessageService(MessagePublisherPort messagePublisherPort) {
+    public PublishMessageService(MessagePublisherPort messagePublisherPort,
+                                 MessageSubscriberPort messageSubscriberPort) {
         this.messagePublisherPort = messagePublisherPort;
+        this.messageSubscriberPort = messageSubscriberPort;
     }
 
     /**
@@ -26,9 +37,38 @@ public class PublishMessageService implements PublishMessageUseCase {
      *
      * @param channel the channel name to publish to
      * @param message the message payload
+     * @return the number of clients that received the message
+     */
+    @Override
+    public long publish(String channel, String message) {
+        return messagePublisherPort.publish(channel, message);
+    }
+
+    /**
+     * Publishes a message to the specified sharded Pub/Sub channel.
+     *
+     * @param shardChannel the sharded channel name to publish to
+     * @param message      the message payload
+     * @return the number of clients that received the message
+     */
+    @Override
+    public long publishSharded(String shardChannel, String message) {
+        return messagePublisherPort.publishSharded(shardChannel, message);
+    }
+
+    /**
+     * Returns the current Pub/Sub publish, delivery, drop and failure counters.
+     *
+     * @return a snapshot of Pub/Sub statistics
      */
     @Override
-    public void publish(String channel, String message) {
-        messagePublisherPort.publish(channel, message);
+    public PubSubStats getStats() {
+        return new PubSubStats(
+                messagePublisherPort.getPublishedCount(),
+                messagePublisherPort.getDroppedCount(),
+                messageSubscriberPort.getDeliveredCount(),
+                messageSubscriberPort.getDroppedCount(),
+                messageSubscriberPort.getFailedCount(),
+                Duration.between(startedAt, Instant.now()));
     }
 }
@@ -0,0 +1,47 @@
+package com.tutorial.redis.module07.domain.model;
+
+import java.util.Objects;
+
+/**
+ * Represents a single Pub/Sub message to be published.
+ *
+ * <p>A message is either a classic Pub/Sub message ({@code PUBLISH}), which is
+ * broadcast to every node of a cluster, or a sharded message ({@code SPUBLISH}),
+ * which is only propagated within the shard owning the channel's hash slot
+ * and therefore scales fan-out with the number of shards.</p>
+ *
+ * Immutable value object — all fields are final.
+ */
+public class PubSubMessage {
+
+    private final String channel;
+    private final String payload;
+    private final boolean sharded;
+
+    public PubSubMessage(String channel, String payload, boolean sharded) {
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        this.payload = Objects.requireNonNull(payload, "payload must not be null");
+        this.sharded = sharded;
+    }
+
+    public String getChannel() { return channel; }
+    public String getPayload() { return payload; }
+    public boolean isSharded() { return sharded; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PubSubMessage that)) return false;
+        return sharded == that.sharded && channel.equals(that.channel) && payload.equals(that.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(channel, payload, sharded);
+    }
+
+    @Override
+    public String toString() {
+        return "PubSubMessage{channel='%s', payload='%s', sharded=%s}".formatted(channel, payload, sharded);
+    }
+}
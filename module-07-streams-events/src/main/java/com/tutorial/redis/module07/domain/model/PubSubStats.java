@@ -0,0 +1,68 @@
+package com.tutorial.redis.module07.domain.model;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Snapshot of Pub/Sub runtime counters.
+ *
+ * <p>Counts are cumulative since application start; rates are averaged over
+ * the same period ({@code uptime}). Publish-dropped messages are those the
+ * publisher could not send, because Redis failed or the publisher had shut down.
+ * Dropped messages are those discarded by the subscriber container because a
+ * channel's bounded backlog was full; failed messages are those whose handler
+ * threw.</p>
+ *
+ * Immutable value object — all fields are final.
+ */
+public class PubSubStats {
+
+    private final long publishedCount;
+    private final long publishDroppedCount;
+    private final long deliveredCount;
+    private final long droppedCount;
+    private final long failedCount;
+    private final Duration uptime;
+
+    public PubSubStats(long publishedCount, long publishDroppedCount, long deliveredCount,
+                       long droppedCount, long failedCount, Duration uptime) {
+        this.publishedCount = publishedCount;
+        this.publishDroppedCount = publishDroppedCount;
+        this.deliveredCount = deliveredCount;
+        this.droppedCount = droppedCount;
+        this.failedCount = failedCount;
+        this.uptime = Objects.requireNonNull(uptime, "uptime must not be null");
+    }
+
+    public long getPublishedCount() { return publishedCount; }
+    public long getPublishDroppedCount() { return publishDroppedCount; }
+    public long getDeliveredCount() { return deliveredCount; }
+    public long getDroppedCount() { return droppedCount; }
+    public long getFailedCount() { return failedCount; }
+    public Duration getUptime() { return uptime; }
+
+    /**
+     * Returns the average number of messages published per second since start.
+     */
+    public double getPublishedPerSecond() {
+        return perSecond(publishedCount);
+    }
+
+    /**
+     * Returns the average number of messages delivered to handlers per second since start.
+     */
+    public double getDeliveredPerSecond() {
+        return perSecond(deliveredCount);
+    }
+
+    private double perSecond(long count) {
+        long millis = uptime.toMillis();
+        return millis > 0 ? count * 1000.0 / millis : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PubSubStats{published=%d, publishDropped=%d, delivered=%d, dropped=%d, failed=%d, uptime=%s}"
+                .formatted(publishedCount, publishDroppedCount, deliveredCount, droppedCount, failedCount, uptime);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tutorial.redis.module07.domain.model;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents a message waiting in a delay queue for delivery to a Redis Stream.
+ *
+ * <p>Scheduled messages are kept in a time-ordered sorted set (score = delivery
+ * time in epoch milliseconds) until they become due, at which point the
+ * scheduler moves them into the target stream via XADD.</p>
+ *
+ * <p>Delivered entries get the fields {@value #SCHEDULE_ID_FIELD} and
+ * {@value #SCHEDULED_AT_FIELD} added; the payload must not use them.</p>
+ *
+ * Immutable value object — all fields are final, payload is defensively copied.
+ */
+public class ScheduledMessage {
+
+    public static final String SCHEDULE_ID_FIELD = "scheduleId";
+    public static final String SCHEDULED_AT_FIELD = "scheduledAt";
+
+    private final String scheduleId;
+    private final String streamKey;
+    private final Map<String, String> payload;
+    private final Instant deliverAt;
+
+    public ScheduledMessage(String scheduleId, String streamKey,
+                            Map<String, String> payload, Instant deliverAt) {
+        this.scheduleId = Objects.requireNonNull(scheduleId, "scheduleId must not be null");
+        this.streamKey = Objects.requireNonNull(streamKey, "streamKey must not be null");
+        Objects.requireNonNull(payload, "payload must not be null");
+        if (payload.isEmpty()) {
+            throw new IllegalArgumentException("payload must not be empty");
+        }
+        if (payload.containsKey(SCHEDULE_ID_FIELD) || payload.containsKey(SCHEDULED_AT_FIELD)) {
+            throw new IllegalArgumentException("payload must not use the reserved fields "
+                    + SCHEDULE_ID_FIELD + " and " + SCHEDULED_AT_FIELD);
+        }
+        this.payload = Collections.unmodifiableMap(new LinkedHashMap<>(payload));
+        this.deliverAt = Objects.requireNonNull(deliverAt, "deliverAt must not be null");
+    }
+
+    public String getScheduleId() { return scheduleId; }
+    public String getStreamKey() { return streamKey; }
+    public Map<String, String> getPayload() { return payload; }
+    public Instant getDeliverAt() { return deliverAt; }
+
+    /**
+     * Returns true if this message should be delivered at or before the given instant.
+     */
+    public boolean isDueAt(Instant now) {
+        return !deliverAt.isAfter(now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScheduledMessage that)) return false;
+        return scheduleId.equals(that.scheduleId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheduleId);
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledMessage{scheduleId='%s', streamKey='%s', payload=%s, deliverAt=%s}".formatted(
+                scheduleId, streamKey, payload, deliverAt);
+    }
+}
@@ -1,8 +1,10 @@
 package com.tutorial.redis.module07.domain.port.inbound;
 
+import com.tutorial.redis.module07.domain.model.PubSubStats;
+
 /**
  * Inbound port: publish messages via Redis Pub/Sub.
- * Fire-and-forget messaging to named channels.
+ * Messaging to named channels, classic or sharded, without persistence.
  */
 public interface PublishMessageUseCase {
 
@@ -11,6 +13,23 @@ public interface PublishMessageUseCase {
      *
      * @param channel the channel name to publish to
      * @param message the message payload
+     * @return the number of clients that received the message
+     */
+    long publish(String channel, String message);
+
+    /**
+     * Publishes a message to the specified sharded Pub/Sub channel.
+     *
+     * @param shardChannel the sharded channel name to publish to
+     * @param message      the message payload
+     * @return the number of clients that received the message
+     */
+    long publishSharded(String shardChannel, String message);
+
+    /**
+     * Returns the current Pub/Sub publish, delivery and drop counters.
+     *
+     * @return a snapshot of Pub/Sub statistics
      */
-    void publish(String channel, String message);
+    PubSubStats getStats();
 }
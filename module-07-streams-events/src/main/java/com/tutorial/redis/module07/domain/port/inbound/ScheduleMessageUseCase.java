@@ -0,0 +1,46 @@
+package com.tutorial.redis.module07.domain.port.inbound;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Inbound port: schedule messages for delayed delivery into Redis Streams.
+ * Supports "deliver at time T" semantics such as payment retries and reservation expiry.
+ */
+public interface ScheduleMessageUseCase {
+
+    /**
+     * Schedules a message for delivery to the given stream at the given time.
+     *
+     * @param streamKey the target stream key
+     * @param fields    the field-value pairs for the stream entry
+     * @param deliverAt the time at which the message becomes visible in the stream
+     * @return the generated schedule ID, usable for cancellation
+     */
+    String scheduleMessage(String streamKey, Map<String, String> fields, Instant deliverAt);
+
+    /**
+     * Cancels a scheduled message that has not yet been delivered.
+     *
+     * @param streamKey  the target stream key
+     * @param scheduleId the schedule ID
+     * @return true if the message was cancelled before delivery
+     */
+    boolean cancelScheduledMessage(String streamKey, String scheduleId);
+
+    /**
+     * Returns the number of messages still waiting for delivery to the given stream.
+     *
+     * @param streamKey the target stream key
+     * @return the pending message count
+     */
+    long countPendingMessages(String streamKey);
+
+    /**
+     * Moves all currently due messages into their target streams.
+     * Invoked periodically by the delay queue scheduler.
+     *
+     * @return the total number of messages delivered
+     */
+    int releaseDueMessages();
+}
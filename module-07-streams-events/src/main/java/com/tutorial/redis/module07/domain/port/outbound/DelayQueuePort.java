@@ -0,0 +1,59 @@
+package com.tutorial.redis.module07.domain.port.outbound;
+
+import com.tutorial.redis.module07.domain.model.ScheduledMessage;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Outbound port for a Redis-backed delay queue feeding Redis Streams.
+ * Scheduled messages wait in a time-ordered sorted set and are moved
+ * into their target stream once due, one atomic server-side step per batch.
+ * Implemented by Redis adapter in the infrastructure layer.
+ */
+public interface DelayQueuePort {
+
+    /**
+     * Stores a message for delivery to its target stream at {@code deliverAt}.
+     *
+     * @param message the scheduled message
+     */
+    void schedule(ScheduledMessage message);
+
+    /**
+     * Cancels a scheduled message that has not yet been delivered.
+     *
+     * @param streamKey  the target stream key
+     * @param scheduleId the schedule ID returned when the message was scheduled
+     * @return true if the message was still pending and has been removed
+     */
+    boolean cancel(String streamKey, String scheduleId);
+
+    /**
+     * Atomically moves up to {@code batchSize} messages due at or before {@code now}
+     * from the delay queue into the target stream (ZRANGEBYSCORE + ZREM + XADD
+     * in one Lua script). Safe to call concurrently from multiple scheduler
+     * instances — each message is delivered exactly once.
+     *
+     * @param streamKey the target stream key
+     * @param now       the reference time for due messages
+     * @param batchSize the maximum number of messages to move
+     * @return the number of messages moved into the stream
+     */
+    int releaseDue(String streamKey, Instant now, int batchSize);
+
+    /**
+     * Returns the target streams that currently have pending delayed messages.
+     *
+     * @return the set of target stream keys
+     */
+    Set<String> findStreamsWithPending();
+
+    /**
+     * Returns the number of messages still waiting for delivery to the given stream.
+     *
+     * @param streamKey the target stream key
+     * @return the pending message count
+     */
+    long countPending(String streamKey);
+}
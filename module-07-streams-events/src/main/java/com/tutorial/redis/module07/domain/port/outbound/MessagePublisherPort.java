@@ -1,18 +1,58 @@
 package com.tutorial.redis.module07.domain.port.outbound;
 
+import com.tutorial.redis.module07.domain.model.PubSubMessage;
+
+import java.util.List;
+
 /**
  * Outbound port for Redis Pub/Sub message publishing.
- * Publishes fire-and-forget messages to a named channel.
+ * Publishes messages to a named channel, either classic (PUBLISH) or sharded
+ * (SPUBLISH). Pub/Sub has no persistence: only clients subscribed at that
+ * moment receive a message.
  * Implemented by Redis adapter in the infrastructure layer.
  */
 public interface MessagePublisherPort {
 
     /**
      * Publishes a message to the specified Pub/Sub channel.
-     * This is a fire-and-forget operation — no delivery guarantee.
+     * Returns once Redis has accepted the message; Redis errors are thrown.
      *
      * @param channel the Pub/Sub channel name
      * @param message the message payload to publish
+     * @return the number of clients that received the message
+     */
+    long publish(String channel, String message);
+
+    /**
+     * Publishes a message to the specified sharded Pub/Sub channel.
+     * Equivalent to Redis SPUBLISH. Returns once Redis has accepted the message;
+     * Redis errors are thrown.
+     *
+     * @param shardChannel the sharded channel name
+     * @param message      the message payload to publish
+     * @return the number of clients that received the message
+     */
+    long publishSharded(String shardChannel, String message);
+
+    /**
+     * Publishes a batch of messages in a single pipelined round-trip.
+     * Returns once all messages have been sent.
+     *
+     * @param messages the messages to publish, in order
+     */
+    void publishAll(List<PubSubMessage> messages);
+
+    /**
+     * Returns the number of messages published since start.
+     *
+     * @return the published message count
+     */
+    long getPublishedCount();
+
+    /**
+     * Returns the number of messages that could not be published since start.
+     *
+     * @return the dropped message count
      */
-    void publish(String channel, String message);
+    long getDroppedCount();
 }
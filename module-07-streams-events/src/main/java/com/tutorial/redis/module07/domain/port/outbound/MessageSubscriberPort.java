@@ -0,0 +1,60 @@
+package com.tutorial.redis.module07.domain.port.outbound;
+
+import java.util.function.Consumer;
+
+/**
+ * Outbound port for Redis Pub/Sub subscriptions.
+ * Registers handlers for classic (SUBSCRIBE) or sharded (SSUBSCRIBE) channels.
+ * Messages of one channel are handed to its handler in publish order;
+ * each channel has a bounded backlog, and messages arriving while it is full are dropped.
+ * Implemented by Redis adapter in the infrastructure layer.
+ */
+public interface MessageSubscriberPort {
+
+    /**
+     * Subscribes a handler to the specified Pub/Sub channel.
+     * Equivalent to Redis SUBSCRIBE.
+     *
+     * @param channel the channel name
+     * @param handler the handler invoked for every received message payload
+     */
+    void subscribe(String channel, Consumer<String> handler);
+
+    /**
+     * Subscribes a handler to the specified sharded Pub/Sub channel.
+     * Equivalent to Redis SSUBSCRIBE.
+     *
+     * @param shardChannel the sharded channel name
+     * @param handler      the handler invoked for every received message payload
+     */
+    void subscribeSharded(String shardChannel, Consumer<String> handler);
+
+    /**
+     * Removes the subscription for the specified channel.
+     *
+     * @param channel the channel name
+     * @param sharded whether the channel was subscribed via SSUBSCRIBE
+     */
+    void unsubscribe(String channel, boolean sharded);
+
+    /**
+     * Returns the number of messages handled successfully since start.
+     *
+     * @return the delivered message count
+     */
+    long getDeliveredCount();
+
+    /**
+     * Returns the number of messages dropped because a channel backlog was full.
+     *
+     * @return the dropped message count
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the number of messages whose handler threw an exception.
+     *
+     * @return the failed message count
+     */
+    long getFailedCount();
+}
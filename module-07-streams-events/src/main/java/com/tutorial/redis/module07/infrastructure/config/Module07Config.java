@@ -5,6 +5,7 @@ import com.tutorial.redis.module07.domain.service.EventReplayService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Module 07 configuration.
@@ -15,9 +16,12 @@ import org.springframework.context.annotation.Import;
  * <p>Registers the {@link EventReplayService} domain service as a Spring bean.
  * The replay service is a pure domain component with no framework dependencies,
  * so it requires explicit bean registration rather than component scanning.</p>
+ *
+ * <p>Enables {@code @Scheduled} methods, which run the delay queue poll.</p>
  */
 @Configuration
 @Import(RedisConfig.class)
+@EnableScheduling
 public class Module07Config {
 
     /**
@@ -0,0 +1,48 @@
+package com.tutorial.redis.module07.infrastructure.scheduler;
+
+import com.tutorial.redis.module07.domain.port.inbound.ScheduleMessageUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically releases due delayed messages into their target streams.
+ *
+ * <p>Polls {@link ScheduleMessageUseCase#releaseDueMessages()} every
+ * {@code streams.delay-queue.poll-interval-ms} ms (default 100) on Spring's task
+ * scheduler. While a poll delivers messages it polls again right away, up to
+ * {@value #MAX_POLLS_PER_RUN} times, so a backlog is drained without waiting for the
+ * poll interval. Running several application instances (each with its own scheduler)
+ * is safe: the release step is an atomic Lua script, so every message is delivered
+ * exactly once.</p>
+ */
+@Component
+public class DelayQueueScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayQueueScheduler.class);
+
+    static final int MAX_POLLS_PER_RUN = 100;
+
+    private final ScheduleMessageUseCase scheduleMessageUseCase;
+
+    public DelayQueueScheduler(ScheduleMessageUseCase scheduleMessageUseCase) {
+        this.scheduleMessageUseCase = scheduleMessageUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${streams.delay-queue.poll-interval-ms:100}",
+            initialDelayString = "${streams.delay-queue.poll-interval-ms:100}")
+    public void releaseDueMessages() {
+        try {
+            for (int poll = 0; poll < MAX_POLLS_PER_RUN; poll++) {
+                int delivered = scheduleMessageUseCase.releaseDueMessages();
+                if (delivered == 0) {
+                    return;
+                }
+                log.debug("Delivered {} delayed messages", delivered);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Delay queue release failed, retrying at the next poll", e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.tutorial.redis.module07.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module07.domain.model.ScheduledMessage;
+import com.tutorial.redis.module07.domain.model.StreamMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 驗證 RedisDelayQueueAdapter 的延遲佇列功能。
+ * 涵蓋排程（ZADD + HSET）、到期批次搬移至 Stream（Lua 腳本內 ZRANGEBYSCORE + XADD + ZREM）、
+ * 取消排程、投遞時保留欄位順序、拒絕含大括號的 Stream key，以及多個排程器同時執行時每則訊息僅投遞一次。
+ * 測試使用一小時後的時間點，避免背景排程器以真實時間提前搬移訊息。
+ * 所屬層級：Adapter 層（outbound Redis 整合測試）
+ */
+@DisplayName("RedisDelayQueueAdapter 整合測試")
+class RedisDelayQueueAdapterTest extends AbstractRedisIntegrationTest {
+
+    @Autowired
+    private RedisDelayQueueAdapter adapter;
+
+    @Autowired
+    private RedisStreamProducerAdapter streamProducer;
+
+    private final Instant base = Instant.now().plus(Duration.ofHours(1));
+
+    // 驗證只有到期的訊息會被搬移到目標 Stream，且附帶 scheduleId 與 scheduledAt 欄位
+    @Test
+    @DisplayName("releaseDue_MovesOnlyDueMessages — 僅搬移到期訊息，未到期訊息保留於佇列")
+    void releaseDue_MovesOnlyDueMessages() {
+        // Arrange
+        String streamKey = "test-delay:due";
+        adapter.schedule(new ScheduledMessage("s-1", streamKey, Map.of("seq", "1"), base));
+        adapter.schedule(new ScheduledMessage("s-2", streamKey, Map.of("seq", "2"), base.plusSeconds(10)));
+        adapter.schedule(new ScheduledMessage("s-3", streamKey, Map.of("seq", "3"), base.plusSeconds(60)));
+
+        // Act
+        int moved = adapter.releaseDue(streamKey, base.plusSeconds(10), 100);
+
+        // Assert
+        assertThat(moved).isEqualTo(2);
+        assertThat(adapter.countPending(streamKey)).isEqualTo(1);
+        List<StreamMessage> delivered = streamProducer.readMessages(streamKey, "0-0", 10);
+        assertThat(delivered).hasSize(2);
+        assertThat(delivered.get(0).getPayload())
+                .containsEntry("seq", "1")
+                .containsEntry("scheduleId", "s-1")
+                .containsEntry("scheduledAt", String.valueOf(base.toEpochMilli()));
+        assertThat(delivered.get(1).getPayload()).containsEntry("seq", "2");
+    }
+
+    // 驗證投遞到 Stream 的欄位維持排程時的順序，保留欄位附加在最後
+    @Test
+    @DisplayName("releaseDue_KeepsFieldOrder — 投遞後欄位順序與排程時相同")
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void releaseDue_KeepsFieldOrder() {
+        // Arrange
+        String streamKey = "test-delay:order";
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("zeta", "1");
+        fields.put("alpha", "2");
+        fields.put("mid", "3");
+        adapter.schedule(new ScheduledMessage("s-1", streamKey, fields, base));
+
+        // Act
+        adapter.releaseDue(streamKey, base, 10);
+
+        // Assert — raw XRANGE reply, so the order is exactly what Redis stored
+        List<String> stored = stringRedisTemplate.execute(new DefaultRedisScript<>(
+                "return redis.call('XRANGE', KEYS[1], '-', '+')[1][2]", List.class), List.of(streamKey));
+        assertThat(stored).containsExactly("zeta", "1", "alpha", "2", "mid", "3",
+                "scheduleId", "s-1", "scheduledAt", String.valueOf(base.toEpochMilli()));
+    }
+
+    // 驗證批次大小限制每次搬移的筆數，佇列清空後 Stream 由註冊集合中移除
+    @Test
+    @DisplayName("releaseDue_RespectsBatchSize — 批次大小限制搬移筆數，清空後自註冊表移除")
+    void releaseDue_RespectsBatchSize() {
+        // Arrange
+        String streamKey = "test-delay:batch";
+        for (int i = 0; i < 5; i++) {
+            adapter.schedule(new ScheduledMessage("s-" + i, streamKey,
+                    Map.of("seq", String.valueOf(i)), base.plusMillis(i)));
+        }
+        assertThat(adapter.findStreamsWithPending()).contains(streamKey);
+
+        // Act
+        int first = adapter.releaseDue(streamKey, base.plusSeconds(1), 3);
+        int second = adapter.releaseDue(streamKey, base.plusSeconds(1), 3);
+
+        // Assert
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(2);
+        assertThat(adapter.countPending(streamKey)).isZero();
+        assertThat(adapter.findStreamsWithPending()).doesNotContain(streamKey);
+    }
+
+    // 驗證取消排程後訊息不會被投遞
+    @Test
+    @DisplayName("cancel_RemovesPendingMessage — 取消後訊息不再投遞，重複取消回傳 false")
+    void cancel_RemovesPendingMessage() {
+        // Arrange
+        String streamKey = "test-delay:cancel";
+        adapter.schedule(new ScheduledMessage("s-1", streamKey, Map.of("seq", "1"), base));
+
+        // Act
+        boolean cancelled = adapter.cancel(streamKey, "s-1");
+        boolean cancelledAgain = adapter.cancel(streamKey, "s-1");
+        int moved = adapter.releaseDue(streamKey, base.plusSeconds(1), 10);
+
+        // Assert
+        assertThat(cancelled).isTrue();
+        assertThat(cancelledAgain).isFalse();
+        assertThat(moved).isZero();
+        assertThat(streamProducer.readMessages(streamKey, "0-0", 10)).isEmpty();
+    }
+
+    // 驗證含大括號的 Stream key 會被拒絕：其自帶的 hash tag 會讓佇列鍵與 Stream 落在不同 slot
+    @Test
+    @DisplayName("schedule_StreamKeyWithBraces_Rejected — 含 {} 的 Stream key 拋出 IllegalArgumentException，不寫入任何鍵")
+    void schedule_StreamKeyWithBraces_Rejected() {
+        // Arrange
+        String streamKey = "test-delay:{tenant-1}:orders";
+        ScheduledMessage message = new ScheduledMessage("s-1", streamKey, Map.of("seq", "1"), base);
+
+        // Act & Assert
+        assertThatThrownBy(() -> adapter.schedule(message))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(streamKey);
+        assertThatThrownBy(() -> adapter.releaseDue(streamKey, base, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> adapter.cancel("test-delay:orders}", "s-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(adapter.findStreamsWithPending()).doesNotContain(streamKey);
+    }
+
+    // 驗證多個排程器同時搬移時，每則訊息恰好投遞一次
+    @Test
+    @DisplayName("releaseDue_ConcurrentSchedulers_DeliverExactlyOnce — 多個排程器並行搬移，訊息不重複不遺漏")
+    void releaseDue_ConcurrentSchedulers_DeliverExactlyOnce() throws Exception {
+        // Arrange
+        String streamKey = "test-delay:concurrent";
+        int total = 1_000;
+        for (int i = 0; i < total; i++) {
+            adapter.schedule(new ScheduledMessage("s-" + i, streamKey,
+                    Map.of("seq", String.valueOf(i)), base.plusMillis(i)));
+        }
+
+        // Act
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int moved = 0;
+                    int batch;
+                    do {
+                        batch = adapter.releaseDue(streamKey, base.plusSeconds(5), 50);
+                        moved += batch;
+                    } while (batch > 0);
+                    return moved;
+                }));
+            }
+        }
+        int movedTotal = 0;
+        for (Future<Integer> result : results) {
+            movedTotal += result.get();
+        }
+
+        // Assert
+        assertThat(movedTotal).isEqualTo(total);
+        List<StreamMessage> delivered = streamProducer.rangeMessages(streamKey, "-", "+");
+        assertThat(delivered).hasSize(total);
+        assertThat(delivered).extracting(m -> m.getPayload().get("scheduleId"))
+                .doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,114 @@
+package com.tutorial.redis.module07.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module07.application.usecase.DelayedDeliveryService;
+import com.tutorial.redis.module07.domain.model.StreamMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 量測延遲佇列在 100,000 筆排程訊息下的投遞時間偏差（skew）與吞吐量。
+ * 排程時間為入列時間加上 0–2 秒的隨機延遲，同時啟動兩個額外的排程器迴圈
+ * （加上背景排程器共三個實例）以驗證多實例並行時不重複投遞。
+ * 偏差 = Stream Message ID 的毫秒時間 − scheduledAt。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬層級：Adapter 層（outbound Redis 效能量測）
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisDelayQueueAdapter 效能量測")
+class RedisDelayQueueBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisDelayQueueBenchmarkTest.class);
+
+    private static final int MESSAGE_COUNT = 100_000;
+    private static final String STREAM_KEY = "bench-delay:stream";
+
+    @Autowired
+    private DelayedDeliveryService delayedDeliveryService;
+
+    @Autowired
+    private RedisStreamProducerAdapter streamProducer;
+
+    // 量測 100k 筆延遲訊息的排程吞吐量、投遞吞吐量與投遞時間偏差分佈
+    @Test
+    @DisplayName("delayQueue_100kMessages_MeasuresSkewAndThroughput — 100k 筆訊息的偏差與吞吐量")
+    void delayQueue_100kMessages_MeasuresSkewAndThroughput() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] schedulers = new Thread[2];
+        for (int i = 0; i < schedulers.length; i++) {
+            schedulers[i] = Thread.ofVirtual().start(() -> {
+                while (running.get()) {
+                    if (delayedDeliveryService.releaseDueMessages() == 0) {
+                        sleepQuietly(10);
+                    }
+                }
+            });
+        }
+
+        long scheduleStart = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                int seq = i;
+                executor.submit(() -> delayedDeliveryService.scheduleMessage(STREAM_KEY,
+                        Map.of("seq", String.valueOf(seq)),
+                        Instant.now().plusMillis(ThreadLocalRandom.current().nextLong(2_000))));
+            }
+        }
+        long scheduleNanos = System.nanoTime() - scheduleStart;
+
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(2));
+        while (stringRedisTemplate.opsForStream().size(STREAM_KEY) < MESSAGE_COUNT
+                && Instant.now().isBefore(deadline)) {
+            sleepQuietly(50);
+        }
+        long totalNanos = System.nanoTime() - scheduleStart;
+        running.set(false);
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+
+        List<StreamMessage> delivered = streamProducer.rangeMessages(STREAM_KEY, "-", "+");
+        assertThat(delivered).hasSize(MESSAGE_COUNT);
+        assertThat(delivered).extracting(m -> m.getPayload().get("scheduleId")).doesNotHaveDuplicates();
+
+        long[] skews = delivered.stream()
+                .mapToLong(m -> m.getTimestamp().toEpochMilli()
+                        - Long.parseLong(m.getPayload().get("scheduledAt")))
+                .sorted()
+                .toArray();
+        report.line("schedule: %d msgs in %d ms (%.0f msgs/s)", MESSAGE_COUNT,
+                scheduleNanos / 1_000_000, MESSAGE_COUNT / (scheduleNanos / 1e9));
+        report.line("end-to-end: %d ms (%.0f msgs/s)",
+                totalNanos / 1_000_000, MESSAGE_COUNT / (totalNanos / 1e9));
+        report.line("skew ms: min=%d p50=%d p99=%d max=%d mean=%.1f",
+                skews[0], percentile(skews, 0.50), percentile(skews, 0.99), skews[skews.length - 1],
+                Arrays.stream(skews).average().orElse(0));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package com.tutorial.redis.module07.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module07.domain.model.PubSubMessage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * 驗證 RedisMessagePublisherAdapter 的 Pub/Sub 發布功能。
  * 測試透過 Redis PUBLISH 命令發送消息至頻道，
- * 並由訂閱者即時接收，展示 fire-and-forget 的訊息傳遞模式。
+ * 並由訂閱者即時接收，發布呼叫回傳接收者數量；
+ * 另涵蓋 Pipeline 批次發布、分片頻道（SPUBLISH）發布，以及關閉後拒絕發布並計入 dropped。
  * 所屬層級：Adapter 層（outbound Redis 整合測試）
  */
 @DisplayName("RedisMessagePublisherAdapter 整合測試")
@@ -23,6 +28,9 @@ class RedisMessagePublisherAdapterTest extends AbstractRedisIntegrationTest {
     @Autowired
     private RedisMessagePublisherAdapter publisherAdapter;
 
+    @Autowired
+    private RedisMessageSubscriberAdapter subscriberAdapter;
+
     // 驗證透過 Pub/Sub 發布消息後，訂閱者能即時收到正確的訊息內容
     @Test
     @DisplayName("publish_SendsMessageToChannel — 發布消息到 Pub/Sub 頻道後，訂閱者應收到正確訊息")
@@ -45,10 +53,88 @@ class RedisMessagePublisherAdapterTest extends AbstractRedisIntegrationTest {
         Thread.sleep(200);
 
         // Act
-        publisherAdapter.publish("test-channel", "hello");
+        long receivers = publisherAdapter.publish("test-channel", "hello");
 
         // Assert
         assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
         assertThat(received.get()).isEqualTo("hello");
+        assertThat(receivers).isEqualTo(1);
+    }
+
+    // 驗證關閉後的發布會被拒絕並計入 dropped，而非靜默遺失
+    @Test
+    @DisplayName("publish_AfterDestroy_RejectedAndCounted — 關閉後發布拋出例外，並計入 dropped 計數")
+    void publish_AfterDestroy_RejectedAndCounted() throws InterruptedException {
+        // Arrange
+        RedisMessagePublisherAdapter publisher = new RedisMessagePublisherAdapter(stringRedisTemplate);
+        assertThat(publisher.publish("test-closed", "before")).isZero();
+
+        // Act
+        publisher.destroy();
+
+        // Assert
+        assertThatThrownBy(() -> publisher.publish("test-closed", "after"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(publisher.getPublishedCount()).isEqualTo(1);
+        assertThat(publisher.getDroppedCount()).isEqualTo(1);
+    }
+
+    // 驗證 publishAll 以單一 Pipeline 發布多則訊息，訂閱者依序收到全部訊息
+    @Test
+    @DisplayName("publishAll_SendsBatchInOrder — 批次發布 3 則訊息，訂閱者應依序收到")
+    void publishAll_SendsBatchInOrder() throws InterruptedException {
+        // Arrange
+        List<String> received = new CopyOnWriteArrayList<>();
+        var latch = new CountDownLatch(3);
+        subscribeInBackground("test-batch", received, latch);
+        long publishedBefore = publisherAdapter.getPublishedCount();
+
+        // Act
+        publisherAdapter.publishAll(List.of(
+                new PubSubMessage("test-batch", "m1", false),
+                new PubSubMessage("test-batch", "m2", false),
+                new PubSubMessage("test-batch", "m3", false)));
+
+        // Assert
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly("m1", "m2", "m3");
+        assertThat(publisherAdapter.getPublishedCount() - publishedBefore).isEqualTo(3);
+    }
+
+    // 驗證分片頻道發布（SPUBLISH）能送達以 SSUBSCRIBE 訂閱的客戶端
+    @Test
+    @DisplayName("publishSharded_DeliversToShardSubscriber — SPUBLISH 發布的訊息應送達分片訂閱者")
+    void publishSharded_DeliversToShardSubscriber() throws InterruptedException {
+        // Arrange
+        var received = new AtomicReference<String>();
+        var latch = new CountDownLatch(1);
+        subscriberAdapter.subscribeSharded("test-shard", message -> {
+            received.set(message);
+            latch.countDown();
+        });
+
+        // Act
+        publisherAdapter.publishSharded("test-shard", "sharded-hello");
+
+        // Assert
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received.get()).isEqualTo("sharded-hello");
+        subscriberAdapter.unsubscribe("test-shard", true);
+    }
+
+    private void subscribeInBackground(String channel, List<String> received, CountDownLatch latch)
+            throws InterruptedException {
+        Thread subscriber = new Thread(() -> {
+            stringRedisTemplate.getConnectionFactory().getConnection()
+                    .subscribe((message, pattern) -> {
+                        received.add(new String(message.getBody()));
+                        latch.countDown();
+                    }, channel.getBytes());
+        });
+        subscriber.setDaemon(true);
+        subscriber.start();
+
+        // Wait for the subscription to be established
+        Thread.sleep(200);
     }
 }
@@ -0,0 +1,122 @@
+package com.tutorial.redis.module07.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module07.domain.model.PubSubMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 驗證 RedisMessageSubscriberAdapter 的訂閱容器功能。
+ * 涵蓋以 Virtual Thread 分派訊息時的單一頻道順序保證，
+ * 頻道 backlog 已滿時丟棄訊息並累計 dropped 次數，以及 handler 失敗時計入 failed 而非 delivered。
+ * 所屬層級：Adapter 層（outbound Redis 整合測試）
+ */
+@DisplayName("RedisMessageSubscriberAdapter 整合測試")
+class RedisMessageSubscriberAdapterTest extends AbstractRedisIntegrationTest {
+
+    @Autowired
+    private RedisMessageSubscriberAdapter subscriberAdapter;
+
+    @Autowired
+    private RedisMessagePublisherAdapter publisherAdapter;
+
+    // 驗證同一頻道的訊息依發布順序交給 handler，且 delivered 計數正確累加
+    @Test
+    @DisplayName("subscribe_PreservesPerChannelOrder — 500 則訊息應依發布順序送達 handler")
+    void subscribe_PreservesPerChannelOrder() throws InterruptedException {
+        // Arrange
+        List<String> received = new CopyOnWriteArrayList<>();
+        var latch = new CountDownLatch(500);
+        subscriberAdapter.subscribe("test-order", message -> {
+            received.add(message);
+            latch.countDown();
+        });
+        long deliveredBefore = subscriberAdapter.getDeliveredCount();
+
+        // Act
+        List<String> expected = IntStream.range(0, 500).mapToObj(String::valueOf).toList();
+        expected.forEach(message -> publisherAdapter.publish("test-order", message));
+
+        // Assert
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactlyElementsOf(expected);
+        assertThat(subscriberAdapter.getDeliveredCount() - deliveredBefore).isEqualTo(500);
+        subscriberAdapter.unsubscribe("test-order", false);
+    }
+
+    // 驗證 handler 阻塞時 backlog 會被填滿，超出容量的訊息被丟棄並計入 dropped
+    @Test
+    @DisplayName("subscribe_FullBacklog_DropsMessages — backlog 已滿時應丟棄訊息並累計 dropped")
+    void subscribe_FullBacklog_DropsMessages() throws InterruptedException {
+        // Arrange
+        var release = new CountDownLatch(1);
+        var firstTaken = new CountDownLatch(1);
+        subscriberAdapter.subscribe("test-backlog", message -> {
+            firstTaken.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long droppedBefore = subscriberAdapter.getDroppedCount();
+        int overflow = 50;
+        int total = 1 + RedisMessageSubscriberAdapter.BACKLOG_CAPACITY + overflow;
+
+        // Act
+        publisherAdapter.publishAll(List.of(new PubSubMessage("test-backlog", "first", false)));
+        assertThat(firstTaken.await(5, TimeUnit.SECONDS)).isTrue();
+        List<PubSubMessage> burst = new ArrayList<>();
+        for (int i = 1; i < total; i++) {
+            burst.add(new PubSubMessage("test-backlog", "m" + i, false));
+        }
+        publisherAdapter.publishAll(burst);
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (subscriberAdapter.getDroppedCount() - droppedBefore < overflow
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(subscriberAdapter.getDroppedCount() - droppedBefore).isEqualTo(overflow);
+        release.countDown();
+        subscriberAdapter.unsubscribe("test-backlog", false);
+    }
+
+    // 驗證 handler 拋出例外的訊息計入 failed，不計入 delivered
+    @Test
+    @DisplayName("subscribe_HandlerThrows_CountsFailed — handler 失敗應計入 failed 而非 delivered")
+    void subscribe_HandlerThrows_CountsFailed() throws InterruptedException {
+        // Arrange
+        var latch = new CountDownLatch(1);
+        subscriberAdapter.subscribe("test-failing", message -> {
+            latch.countDown();
+            throw new IllegalStateException("boom");
+        });
+        long deliveredBefore = subscriberAdapter.getDeliveredCount();
+        long failedBefore = subscriberAdapter.getFailedCount();
+
+        // Act
+        publisherAdapter.publish("test-failing", "payload");
+
+        // Assert
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriberAdapter.getFailedCount() == failedBefore && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriberAdapter.getFailedCount() - failedBefore).isEqualTo(1);
+        assertThat(subscriberAdapter.getDeliveredCount()).isEqualTo(deliveredBefore);
+        subscriberAdapter.unsubscribe("test-failing", false);
+    }
+}
@@ -0,0 +1,125 @@
+package com.tutorial.redis.module07.application.usecase;
+
+import com.tutorial.redis.module07.domain.model.ScheduledMessage;
+import com.tutorial.redis.module07.domain.port.outbound.DelayQueuePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 驗證 DelayedDeliveryService 的延遲投遞應用服務邏輯。
+ * 測試排程時產生 scheduleId 並委派給 DelayQueuePort，
+ * 以及到期搬移時依批次持續搬移直到批次未滿、單一 Stream 失敗不影響其他 Stream。
+ * 所屬層級：Application 層（Use Case 單元測試，使用 Mock 隔離）
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DelayedDeliveryService 單元測試")
+class DelayedDeliveryServiceTest {
+
+    @Mock
+    private DelayQueuePort delayQueuePort;
+
+    @InjectMocks
+    private DelayedDeliveryService service;
+
+    // 驗證排程時產生 scheduleId，並將完整訊息委派給 DelayQueuePort.schedule
+    @Test
+    @DisplayName("scheduleMessage_DelegatesToPort — 排程訊息應產生 scheduleId 並委派給 DelayQueuePort")
+    void scheduleMessage_DelegatesToPort() {
+        // Arrange
+        Instant deliverAt = Instant.parse("2026-01-01T00:00:00Z");
+        Map<String, String> fields = Map.of("type", "payment-retry", "paymentId", "p-1");
+
+        // Act
+        String scheduleId = service.scheduleMessage("payments", fields, deliverAt);
+
+        // Assert
+        ArgumentCaptor<ScheduledMessage> captor = ArgumentCaptor.forClass(ScheduledMessage.class);
+        verify(delayQueuePort).schedule(captor.capture());
+        assertThat(captor.getValue().getScheduleId()).isEqualTo(scheduleId);
+        assertThat(captor.getValue().getStreamKey()).isEqualTo("payments");
+        assertThat(captor.getValue().getPayload()).isEqualTo(fields);
+        assertThat(captor.getValue().getDeliverAt()).isEqualTo(deliverAt);
+    }
+
+    // 驗證到期搬移會對每個 Stream 持續搬移，直到某批次未滿為止
+    @Test
+    @DisplayName("releaseDueMessages_DrainsUntilPartialBatch — 批次已滿時繼續搬移，未滿時停止")
+    void releaseDueMessages_DrainsUntilPartialBatch() {
+        // Arrange
+        when(delayQueuePort.findStreamsWithPending()).thenReturn(Set.of("orders"));
+        when(delayQueuePort.releaseDue(eq("orders"), any(Instant.class), eq(DelayedDeliveryService.BATCH_SIZE)))
+                .thenReturn(DelayedDeliveryService.BATCH_SIZE, 7);
+
+        // Act
+        int delivered = service.releaseDueMessages();
+
+        // Assert
+        assertThat(delivered).isEqualTo(DelayedDeliveryService.BATCH_SIZE + 7);
+        verify(delayQueuePort, times(2))
+                .releaseDue(eq("orders"), any(Instant.class), eq(DelayedDeliveryService.BATCH_SIZE));
+    }
+
+    // 驗證單一 Stream 積壓時，每次最多搬移 MAX_BATCHES_PER_STREAM 個批次
+    @Test
+    @DisplayName("releaseDueMessages_CapsBatchesPerStream — 單一 Stream 每次最多搬移固定批次數")
+    void releaseDueMessages_CapsBatchesPerStream() {
+        // Arrange
+        when(delayQueuePort.findStreamsWithPending()).thenReturn(Set.of("orders"));
+        when(delayQueuePort.releaseDue(eq("orders"), any(Instant.class), anyInt()))
+                .thenReturn(DelayedDeliveryService.BATCH_SIZE);
+
+        // Act
+        int delivered = service.releaseDueMessages();
+
+        // Assert
+        assertThat(delivered).isEqualTo(
+                DelayedDeliveryService.BATCH_SIZE * DelayedDeliveryService.MAX_BATCHES_PER_STREAM);
+        verify(delayQueuePort, times(DelayedDeliveryService.MAX_BATCHES_PER_STREAM))
+                .releaseDue(eq("orders"), any(Instant.class), anyInt());
+    }
+
+    // 驗證 payload 使用保留欄位 scheduleId / scheduledAt 時直接拒絕
+    @Test
+    @DisplayName("scheduleMessage_ReservedField_Rejected — payload 使用保留欄位應被拒絕")
+    void scheduleMessage_ReservedField_Rejected() {
+        // Arrange
+        Map<String, String> fields = Map.of("type", "payment-retry", "scheduledAt", "tomorrow");
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.scheduleMessage("payments", fields, Instant.now()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(delayQueuePort, never()).schedule(any());
+    }
+
+    // 驗證某個 Stream 搬移失敗時記錄並略過，其他 Stream 仍照常搬移
+    @Test
+    @DisplayName("releaseDueMessages_OneStreamFails_OthersStillReleased — 單一 Stream 失敗不影響其他 Stream")
+    void releaseDueMessages_OneStreamFails_OthersStillReleased() {
+        // Arrange
+        when(delayQueuePort.findStreamsWithPending()).thenReturn(Set.of("orders", "payments"));
+        when(delayQueuePort.releaseDue(eq("orders"), any(Instant.class), anyInt()))
+                .thenThrow(new IllegalStateException("CROSSSLOT"));
+        when(delayQueuePort.releaseDue(eq("payments"), any(Instant.class), anyInt())).thenReturn(3);
+
+        // Act
+        int delivered = service.releaseDueMessages();
+
+        // Assert
+        assertThat(delivered).isEqualTo(3);
+    }
+}
@@ -3,11 +3,15 @@ package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.CartPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,6 +21,17 @@ import java.util.Map;
  * in a Redis Hash keyed by the customer ID. The field key is the product
  * ID and the value is the serialized cart item string.</p>
  *
+ * <p>Every mutation also records the time in the sorted set {@code ecommerce:cart-activity}
+ * (member = cart key), in the same pipeline. {@link #removeAbandonedCarts} pops carts idle
+ * since a cutoff, least recently active first, appends each non-empty one to the stream
+ * {@code ecommerce:carts:abandoned} and deletes it in one script, so a sweep costs
+ * O(expired carts · log N) instead of a keyspace scan. The script reads cart keys taken
+ * from the sorted set, which assumes a single Redis node.</p>
+ *
+ * <p>Carts created before the activity index existed have no score in it;
+ * {@link #getAllItems} fetches the score with the items and adds a missing one with
+ * {@code ZADD NX} at the current time, so such a cart becomes sweepable once it is read.</p>
+ *
  * <p>Cart key format: {@code ecommerce:cart:{customerId}}</p>
  */
 @Component
@@ -24,6 +39,30 @@ public class RedisCartAdapter implements CartPort {
 
     private static final Logger log = LoggerFactory.getLogger(RedisCartAdapter.class);
 
+    private static final String ACTIVITY_KEY = "ecommerce:cart-activity";
+    private static final String ABANDONED_STREAM_KEY = "ecommerce:carts:abandoned";
+
+    static final int ABANDONED_STREAM_MAXLEN = 100_000;
+
+    /**
+     * KEYS[1] = activity, KEYS[2] = abandoned stream; ARGV[1] = idle-before (ms),
+     * ARGV[2] = limit, ARGV[3] = stream MAXLEN. Returns the number of carts removed.
+     */
+    private static final DefaultRedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[2])\n" +
+            "for i = 1, #expired, 2 do\n" +
+            "  local items = redis.call('HGETALL', expired[i])\n" +
+            "  if #items > 0 then\n" +
+            "    local entry = {'cartKey', expired[i], 'lastActivity', expired[i + 1]}\n" +
+            "    for _, value in ipairs(items) do entry[#entry + 1] = value end\n" +
+            "    redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[3], '*', unpack(entry))\n" +
+            "  end\n" +
+            "  redis.call('DEL', expired[i])\n" +
+            "  redis.call('ZREM', KEYS[1], expired[i])\n" +
+            "end\n" +
+            "return #expired / 2",
+            Long.class);
+
     private final StringRedisTemplate stringRedisTemplate;
 
     public RedisCartAdapter(StringRedisTemplate stringRedisTemplate) {
@@ -33,27 +72,54 @@ public class RedisCartAdapter implements CartPort {
     @Override
     public void addItem(String cartKey, String productId, String itemJson) {
         log.debug("Adding item {} to cart {}", productId, cartKey);
-        stringRedisTemplate.opsForHash().put(cartKey, productId, itemJson);
+        long now = System.currentTimeMillis();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hSet(bytes(cartKey), bytes(productId), bytes(itemJson));
+            connection.zSetCommands().zAdd(bytes(ACTIVITY_KEY), now, bytes(cartKey));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public Map<String, String> getAllItems(String cartKey) {
         log.debug("Retrieving all items from cart {}", cartKey);
-        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(cartKey);
-        if (entries.isEmpty()) {
+        List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGetAll(bytes(cartKey));
+            connection.zSetCommands().zScore(bytes(ACTIVITY_KEY), bytes(cartKey));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+        Map<String, String> entries = (Map<String, String>) replies.get(0);
+        if (entries == null || entries.isEmpty()) {
             return Collections.emptyMap();
         }
-        Map<String, String> result = new HashMap<>();
-        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
-            result.put((String) entry.getKey(), (String) entry.getValue());
+        if (replies.get(1) == null) {
+            stringRedisTemplate.opsForZSet().addIfAbsent(ACTIVITY_KEY, cartKey, System.currentTimeMillis());
         }
-        return result;
+        return new HashMap<>(entries);
     }
 
     @Override
     public void deleteCart(String cartKey) {
         log.debug("Deleting cart {}", cartKey);
-        stringRedisTemplate.delete(cartKey);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(bytes(cartKey));
+            connection.zSetCommands().zRem(bytes(ACTIVITY_KEY), bytes(cartKey));
+            // RedisCallback must return null when used with executePipelined
+            return null;
+        });
+    }
+
+    @Override
+    public int removeAbandonedCarts(long idleBeforeMillis, int limit) {
+        Long removed = stringRedisTemplate.execute(SWEEP_SCRIPT, List.of(ACTIVITY_KEY, ABANDONED_STREAM_KEY),
+                String.valueOf(idleBeforeMillis), String.valueOf(limit), String.valueOf(ABANDONED_STREAM_MAXLEN));
+        return removed != null ? removed.intValue() : 0;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 }
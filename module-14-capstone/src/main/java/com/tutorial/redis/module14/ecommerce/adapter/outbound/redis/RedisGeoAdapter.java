@@ -1,33 +1,87 @@
 package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoLocation;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.GeoPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.geo.Circle;
+import org.springframework.data.domain.Range;
 import org.springframework.data.geo.Distance;
 import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.Limit;
 import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.domain.geo.GeoReference;
 import org.springframework.data.redis.domain.geo.Metrics;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Redis adapter for geospatial operations.
  *
  * <p>Implements {@link GeoPort} using Redis GEO commands via
  * {@link StringRedisTemplate}. Stores locations with longitude/latitude
- * and supports radius-based queries.</p>
+ * and supports radius-based queries with {@code GEOSEARCH}.</p>
+ *
+ * <p>Change log: adds and removals run in a Lua script that also appends the change,
+ * with a gapless sequence number, to a capped stream. Added locations are logged with the
+ * coordinates Redis actually stored (GEOPOS after GEOADD), so an index built from the
+ * log matches one loaded from the geo set. {@link #refreshIndex} replays the stream from
+ * the index's cursor; a sequence gap (the stream was trimmed past the cursor or reset)
+ * triggers a full reload instead.</p>
+ *
+ * <p>Keys: geo set {@code key}, change stream {@code {key}:changes}
+ * (about {@value #CHANGE_LOG_MAXLEN} entries), sequence {@code {key}:change-seq}. The
+ * hash tag of the change keys is the whole geo set key, so all three hash to the geo
+ * set's slot and the scripts stay valid on a cluster.</p>
  */
 @Component
 public class RedisGeoAdapter implements GeoPort {
 
     private static final Logger log = LoggerFactory.getLogger(RedisGeoAdapter.class);
 
+    static final int CHANGE_LOG_MAXLEN = 10_000;
+    static final int REFRESH_BATCH_SIZE = 1_000;
+    static final int LOAD_BATCH_SIZE = 10_000;
+
+    /** Half the earth's circumference: a radius that covers every location. */
+    private static final double WHOLE_EARTH_KM = 20_037.5;
+
+    /**
+     * KEYS[1] = geo set, KEYS[2] = change stream, KEYS[3] = sequence;
+     * ARGV[1] = longitude, ARGV[2] = latitude, ARGV[3] = member, ARGV[4] = stream MAXLEN.
+     */
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('GEOADD', KEYS[1], ARGV[1], ARGV[2], ARGV[3])\n" +
+            "local pos = redis.call('GEOPOS', KEYS[1], ARGV[3])[1]\n" +
+            "local seq = redis.call('INCR', KEYS[3])\n" +
+            "redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[4], '*', 'seq', seq, 'op', 'add',\n" +
+            "  'member', ARGV[3], 'lon', pos[1], 'lat', pos[2])\n" +
+            "return seq",
+            Long.class);
+
+    /**
+     * KEYS as for {@link #ADD_SCRIPT}; ARGV[1] = member, ARGV[2] = stream MAXLEN.
+     * Returns 0 without logging when the member did not exist.
+     */
+    private static final DefaultRedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return 0 end\n" +
+            "local seq = redis.call('INCR', KEYS[3])\n" +
+            "redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[2], '*', 'seq', seq, 'op', 'remove',\n" +
+            "  'member', ARGV[1])\n" +
+            "return 1",
+            Long.class);
+
     private final StringRedisTemplate stringRedisTemplate;
 
     public RedisGeoAdapter(StringRedisTemplate stringRedisTemplate) {
@@ -37,7 +91,16 @@ public class RedisGeoAdapter implements GeoPort {
     @Override
     public void addLocation(String key, double longitude, double latitude, String member) {
         log.debug("Adding location {} at ({}, {}) to key {}", member, longitude, latitude, key);
-        stringRedisTemplate.opsForGeo().add(key, new Point(longitude, latitude), member);
+        stringRedisTemplate.execute(ADD_SCRIPT, changeKeys(key), String.valueOf(longitude),
+                String.valueOf(latitude), member, String.valueOf(CHANGE_LOG_MAXLEN));
+    }
+
+    @Override
+    public boolean removeLocation(String key, String member) {
+        log.debug("Removing location {} from key {}", member, key);
+        Long removed = stringRedisTemplate.execute(REMOVE_SCRIPT, changeKeys(key),
+                member, String.valueOf(CHANGE_LOG_MAXLEN));
+        return removed != null && removed == 1L;
     }
 
     @Override
@@ -45,11 +108,111 @@ public class RedisGeoAdapter implements GeoPort {
                                    double radiusKm) {
         log.debug("Finding members near ({}, {}) within {} km in key {}",
                 longitude, latitude, radiusKm, key);
+        return search(key, longitude, latitude, radiusKm,
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().sortAscending());
+    }
+
+    @Override
+    public List<String> findNearest(String key, double longitude, double latitude, int count) {
+        log.debug("Finding {} members nearest to ({}, {}) in key {}", count, longitude, latitude, key);
+        return search(key, longitude, latitude, WHOLE_EARTH_KM,
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().sortAscending().limit(count));
+    }
+
+    /**
+     * Reads the change log position first, then all members (ZRANGE) and their positions
+     * (GEOPOS, {@value #LOAD_BATCH_SIZE} members per call). Changes made while loading are
+     * replayed by the next refresh; replaying an add or removal twice is harmless.
+     */
+    @Override
+    public GeoGridIndex loadIndex(String key) {
+        String cursor = "0-0";
+        long sequence = 0;
+        List<MapRecord<String, Object, Object>> last = stringRedisTemplate.opsForStream()
+                .reverseRange(changesKey(key), Range.unbounded(), Limit.limit().count(1));
+        if (last != null && !last.isEmpty()) {
+            cursor = last.getFirst().getId().getValue();
+            sequence = Long.parseLong((String) last.getFirst().getValue().get("seq"));
+        }
+
+        Set<String> members = stringRedisTemplate.opsForZSet().range(key, 0, -1);
+        List<GeoLocation> locations = new ArrayList<>(members == null ? 0 : members.size());
+        if (members != null && !members.isEmpty()) {
+            List<String> all = new ArrayList<>(members);
+            for (int from = 0; from < all.size(); from += LOAD_BATCH_SIZE) {
+                List<String> batch = all.subList(from, Math.min(from + LOAD_BATCH_SIZE, all.size()));
+                List<Point> points = stringRedisTemplate.opsForGeo().position(key, batch.toArray(new String[0]));
+                for (int i = 0; i < batch.size(); i++) {
+                    Point point = points != null ? points.get(i) : null;
+                    if (point != null) {
+                        locations.add(new GeoLocation(batch.get(i), null, point.getX(), point.getY()));
+                    }
+                }
+            }
+        }
+        log.info("Loaded geo index of {} with {} locations at change {}", key, locations.size(), sequence);
+        return GeoGridIndex.build(locations, cursor, sequence);
+    }
+
+    @Override
+    public GeoGridIndex refreshIndex(String key, GeoGridIndex index) {
+        String cursor = index.getChangeCursor();
+        long sequence = index.getChangeSequence();
+        Map<String, GeoLocation> upserted = new LinkedHashMap<>();
+        Set<String> removed = new HashSet<>();
+
+        while (true) {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().range(
+                    changesKey(key),
+                    Range.of(Range.Bound.inclusive(cursor), Range.Bound.unbounded()),
+                    Limit.limit().count(REFRESH_BATCH_SIZE));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            int applied = 0;
+            for (MapRecord<String, Object, Object> record : records) {
+                String id = record.getId().getValue();
+                if (id.equals(cursor)) {
+                    continue;
+                }
+                Map<Object, Object> change = record.getValue();
+                long changeSequence = Long.parseLong((String) change.get("seq"));
+                if (changeSequence != sequence + 1) {
+                    log.info("Change log of {} jumped from {} to {}, reloading", key, sequence, changeSequence);
+                    return loadIndex(key);
+                }
+                String member = (String) change.get("member");
+                if ("add".equals(change.get("op"))) {
+                    removed.remove(member);
+                    upserted.put(member, new GeoLocation(member, null,
+                            Double.parseDouble((String) change.get("lon")),
+                            Double.parseDouble((String) change.get("lat"))));
+                } else {
+                    upserted.remove(member);
+                    removed.add(member);
+                }
+                cursor = id;
+                sequence = changeSequence;
+                applied++;
+            }
+            if (applied == 0 || records.size() < REFRESH_BATCH_SIZE) {
+                break;
+            }
+        }
 
+        if (sequence == index.getChangeSequence()) {
+            return index;
+        }
+        log.debug("Applied {} changes to geo index of {}", sequence - index.getChangeSequence(), key);
+        return index.withChanges(upserted.values(), removed, cursor, sequence);
+    }
+
+    private List<String> search(String key, double longitude, double latitude, double radiusKm,
+                                RedisGeoCommands.GeoSearchCommandArgs args) {
         GeoResults<RedisGeoCommands.GeoLocation<String>> results =
-                stringRedisTemplate.opsForGeo().radius(key,
-                        new Circle(new Point(longitude, latitude),
-                                new Distance(radiusKm, Metrics.KILOMETERS)));
+                stringRedisTemplate.opsForGeo().search(key,
+                        GeoReference.fromCoordinate(longitude, latitude),
+                        new Distance(radiusKm, Metrics.KILOMETERS), args);
 
         if (results == null) {
             return Collections.emptyList();
@@ -60,4 +223,12 @@ public class RedisGeoAdapter implements GeoPort {
                 members.add(geoResult.getContent().getName()));
         return members;
     }
+
+    private List<String> changeKeys(String key) {
+        return List.of(key, changesKey(key), "{" + key + "}:change-seq");
+    }
+
+    private String changesKey(String key) {
+        return "{" + key + "}:changes";
+    }
 }
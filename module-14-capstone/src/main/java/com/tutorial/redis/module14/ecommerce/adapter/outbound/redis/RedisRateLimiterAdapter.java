@@ -1,6 +1,7 @@
 package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.RateLimiterPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,44 +9,126 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Redis adapter for rate limiting using a sliding window counter.
+ * Redis adapter for rate limiting with GCRA and sliding-window-log limiters.
  *
- * <p>Implements {@link RateLimiterPort} using a Lua script that atomically
- * checks and increments a counter with TTL-based expiration. The counter
- * tracks the number of requests in the current window.</p>
+ * <p>Implements {@link RateLimiterPort} with one Lua script that checks a list of rules
+ * (e.g. a global limit and a per-client limit) and charges them only if every rule
+ * admits the request, so a request rejected by one level uses up nothing at another.
+ * Time is read with {@code TIME} inside the script, so nodes with skewed clocks share
+ * one timeline.</p>
  *
- * <p>Lua script behavior:</p>
  * <ul>
- *   <li>If the current count is below the maximum, increment and return
- *       the remaining tokens as a non-negative number string</li>
- *   <li>If the limit is exceeded, return a negative number representing
- *       the TTL in seconds until the window resets</li>
+ *   <li>GCRA: the key holds the theoretical arrival time (TAT, ms). Each token moves it
+ *       {@code window / limit} further; a request is admitted while the TAT stays within
+ *       one window of now. Unlike a fixed-window counter, this does not admit two full
+ *       windows' worth of requests around a window edge.</li>
+ *   <li>Sliding-window log: the key is a sorted set with one entry per admitted token,
+ *       scored by time; entries older than the window are dropped before counting.
+ *       Members are {@code {leaseId}:{n}}, so unused tokens can be removed again.</li>
  * </ul>
+ *
+ * <p>On a cluster, the keys of the rules checked together must share a hash tag (e.g.
+ * {@code ecommerce:ratelimit:{global}:...}); {@code RateLimitService} builds its global
+ * and client keys that way.</p>
  */
 @Component
 public class RedisRateLimiterAdapter implements RateLimiterPort {
 
     private static final Logger log = LoggerFactory.getLogger(RedisRateLimiterAdapter.class);
 
-    private static final DefaultRedisScript<String> RATE_LIMIT_SCRIPT = new DefaultRedisScript<>(
-            "local key = KEYS[1]\n" +
-            "local max = tonumber(ARGV[1])\n" +
-            "local window = tonumber(ARGV[2])\n" +
-            "local current = tonumber(redis.call('GET', key) or '0')\n" +
-            "if current < max then\n" +
-            "    redis.call('INCR', key)\n" +
-            "    if current == 0 then redis.call('EXPIRE', key, window) end\n" +
-            "    return tostring(max - current - 1)\n" +
-            "else\n" +
-            "    local ttl = redis.call('TTL', key)\n" +
-            "    return '-' .. tostring(ttl)\n" +
-            "end",
-            String.class);
+    /**
+     * KEYS = one key per rule; ARGV[1] = permits, ARGV[2] = lease ID, then per rule
+     * algorithm ({@code gcra} or {@code log}), limit, window in ms.
+     * Returns {allowed (1/0), remaining tokens, retry after ms}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + tonumber(t[2]) / 1000\n" +
+            "local permits = tonumber(ARGV[1])\n" +
+            "local remaining = -1\n" +
+            "local retry = 0\n" +
+            "local tats = {}\n" +
+            "for i = 1, #KEYS do\n" +
+            "  local algorithm = ARGV[i * 3]\n" +
+            "  local limit = tonumber(ARGV[i * 3 + 1])\n" +
+            "  local window = tonumber(ARGV[i * 3 + 2])\n" +
+            "  local left = nil\n" +
+            "  if algorithm == 'gcra' then\n" +
+            "    local interval = window / limit\n" +
+            "    local backlog = math.max(tonumber(redis.call('GET', KEYS[i]) or 0) - now, 0) + interval * permits\n" +
+            "    if backlog > window then\n" +
+            "      retry = math.max(retry, backlog - window)\n" +
+            "    else\n" +
+            "      tats[i] = now + backlog\n" +
+            "      left = math.floor((window - backlog) / interval + 1e-9)\n" +
+            "    end\n" +
+            "  else\n" +
+            "    redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', now - window)\n" +
+            "    local used = redis.call('ZCARD', KEYS[i])\n" +
+            "    local excess = used + permits - limit\n" +
+            "    if excess <= 0 then\n" +
+            "      left = -excess\n" +
+            "    elseif permits > limit then\n" +
+            "      retry = math.max(retry, window)\n" +
+            "    else\n" +
+            "      local oldest = redis.call('ZRANGE', KEYS[i], excess - 1, excess - 1, 'WITHSCORES')\n" +
+            "      retry = math.max(retry, tonumber(oldest[2]) + window - now)\n" +
+            "    end\n" +
+            "  end\n" +
+            "  if left ~= nil and (remaining < 0 or left < remaining) then remaining = left end\n" +
+            "end\n" +
+            "if retry > 0 then return {0, 0, math.ceil(retry)} end\n" +
+            "for i = 1, #KEYS do\n" +
+            "  if tats[i] then\n" +
+            "    redis.call('SET', KEYS[i], tostring(tats[i]), 'PX', math.ceil(tats[i] - now))\n" +
+            "  else\n" +
+            "    for n = 1, permits do\n" +
+            "      redis.call('ZADD', KEYS[i], now, ARGV[2] .. ':' .. n)\n" +
+            "    end\n" +
+            "    redis.call('PEXPIRE', KEYS[i], ARGV[i * 3 + 2])\n" +
+            "  end\n" +
+            "end\n" +
+            "return {1, remaining, 0}",
+            List.class);
+
+    /**
+     * KEYS and per-rule ARGV as for {@link #ACQUIRE_SCRIPT}; ARGV[1] = permits taken,
+     * ARGV[2] = lease ID, ARGV[3 + 3 * #KEYS] = unused permits. GCRA moves the TAT back
+     * (never before now); the log removes the lease's last {@code unused} entries.
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + tonumber(t[2]) / 1000\n" +
+            "local permits = tonumber(ARGV[1])\n" +
+            "local unused = tonumber(ARGV[#KEYS * 3 + 3])\n" +
+            "for i = 1, #KEYS do\n" +
+            "  if ARGV[i * 3] == 'gcra' then\n" +
+            "    local tat = tonumber(redis.call('GET', KEYS[i]) or 0)\n" +
+            "    local newTat = tat - tonumber(ARGV[i * 3 + 2]) / tonumber(ARGV[i * 3 + 1]) * unused\n" +
+            "    if newTat > now then\n" +
+            "      redis.call('SET', KEYS[i], tostring(newTat), 'PX', math.ceil(newTat - now))\n" +
+            "    elseif tat > 0 then\n" +
+            "      redis.call('DEL', KEYS[i])\n" +
+            "    end\n" +
+            "  else\n" +
+            "    for n = permits - unused + 1, permits do\n" +
+            "      redis.call('ZREM', KEYS[i], ARGV[2] .. ':' .. n)\n" +
+            "    end\n" +
+            "  end\n" +
+            "end\n" +
+            "return unused",
+            Long.class);
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong acquisitions = new AtomicLong();
 
     public RedisRateLimiterAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
@@ -55,28 +138,58 @@ public class RedisRateLimiterAdapter implements RateLimiterPort {
     public RateLimitResult tryAcquire(String key, int maxTokens, int windowSeconds) {
         log.debug("Trying to acquire rate limit token for key {} (max={}, window={}s)",
                 key, maxTokens, windowSeconds);
+        RateLimitRule rule = new RateLimitRule(key, RateLimitRule.Algorithm.GCRA, maxTokens, windowSeconds * 1000L);
+        return tryAcquire(List.of(rule), 1, nodeId + ":" + acquisitions.incrementAndGet());
+    }
 
-        String result = stringRedisTemplate.execute(RATE_LIMIT_SCRIPT,
-                List.of(key),
-                String.valueOf(maxTokens),
-                String.valueOf(windowSeconds));
+    @Override
+    public RateLimitResult tryAcquire(List<RateLimitRule> rules, int permits, String leaseId) {
+        List<?> reply = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys(rules),
+                arguments(rules, String.valueOf(permits), leaseId).toArray());
 
-        if (result == null) {
-            log.warn("Rate limit script returned null for key {}", key);
+        if (reply == null || reply.size() < 3) {
+            log.warn("Rate limit script returned {} for {}", reply, rules);
             return new RateLimitResult(false, 0, 0);
         }
-
-        if (result.startsWith("-")) {
-            // Request denied — parse TTL from the result
-            long ttlSeconds = Long.parseLong(result.substring(1));
-            long retryAfterMs = ttlSeconds * 1000;
-            log.debug("Rate limit exceeded for key {}, retry after {} ms", key, retryAfterMs);
-            return new RateLimitResult(false, 0, retryAfterMs);
+        boolean allowed = ((Number) reply.get(0)).longValue() == 1L;
+        int remaining = ((Number) reply.get(1)).intValue();
+        long retryAfterMs = ((Number) reply.get(2)).longValue();
+        if (allowed) {
+            log.debug("Rate limit allowed {} permits for {}, remaining tokens: {}", permits, rules, remaining);
         } else {
-            // Request allowed — parse remaining tokens
-            int remaining = Integer.parseInt(result);
-            log.debug("Rate limit allowed for key {}, remaining tokens: {}", key, remaining);
-            return new RateLimitResult(true, remaining, 0);
+            log.debug("Rate limit exceeded for {}, retry after {} ms", rules, retryAfterMs);
+        }
+        return new RateLimitResult(allowed, remaining, retryAfterMs);
+    }
+
+    @Override
+    public void release(List<RateLimitRule> rules, String leaseId, int permits, int unused) {
+        if (unused <= 0) {
+            return;
+        }
+        List<String> arguments = arguments(rules, String.valueOf(permits), leaseId);
+        arguments.add(String.valueOf(Math.min(unused, permits)));
+        stringRedisTemplate.execute(RELEASE_SCRIPT, keys(rules), arguments.toArray());
+        log.debug("Released {} of {} permits of lease {} for {}", unused, permits, leaseId, rules);
+    }
+
+    private List<String> keys(List<RateLimitRule> rules) {
+        List<String> keys = new ArrayList<>(rules.size());
+        for (RateLimitRule rule : rules) {
+            keys.add(rule.getKey());
+        }
+        return keys;
+    }
+
+    private List<String> arguments(List<RateLimitRule> rules, String permits, String leaseId) {
+        List<String> arguments = new ArrayList<>(2 + rules.size() * 3);
+        arguments.add(permits);
+        arguments.add(leaseId);
+        for (RateLimitRule rule : rules) {
+            arguments.add(rule.getAlgorithm() == RateLimitRule.Algorithm.GCRA ? "gcra" : "log");
+            arguments.add(String.valueOf(rule.getLimit()));
+            arguments.add(String.valueOf(rule.getWindowMillis()));
         }
+        return arguments;
     }
 }
@@ -1,29 +1,63 @@
 package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 
+import com.tutorial.redis.common.flush.BackgroundFlusher;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.VisitorCountPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Redis adapter for visitor counting using HyperLogLog.
  *
  * <p>Implements {@link VisitorCountPort} using Redis HyperLogLog commands
  * for approximate unique visitor counting with minimal memory usage.</p>
  *
+ * <p>Buffered recording: {@link #recordVisitBuffered} only adds the visitor to an
+ * in-memory set per page, so repeat views within a flush interval cost nothing.
+ * A {@link BackgroundFlusher} drains the sets every {@value #FLUSH_INTERVAL_MILLIS} ms, or as
+ * soon as {@value #MAX_PENDING_VISITS} distinct visits are pending, and writes them as
+ * multi-element PFADDs (at most {@value #MAX_VISITORS_PER_PFADD} visitors each) in one
+ * pipeline. A set is removed from the map atomically with respect to concurrent adds,
+ * so no visit is lost between draining and sending. If a flush fails the visits are put
+ * back and retried on the next interval; remaining visits are flushed on shutdown.</p>
+ *
+ * <p>{@link #flush(String)} runs under the flusher's lock, so it also waits for an
+ * in-flight flush that may already hold the page's visits — after it returns, every visit
+ * this instance recorded for the page is in Redis.</p>
+ *
  * <p>Key format: {@code ecommerce:visitors:{pageId}}</p>
  */
 @Component
-public class RedisVisitorCountAdapter implements VisitorCountPort {
+public class RedisVisitorCountAdapter implements VisitorCountPort, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(RedisVisitorCountAdapter.class);
     private static final String VISITOR_KEY_PREFIX = "ecommerce:visitors:";
 
+    static final long FLUSH_INTERVAL_MILLIS = 100;
+    static final int MAX_PENDING_VISITS = 50_000;
+    static final int MAX_VISITORS_PER_PFADD = 1_000;
+
     private final StringRedisTemplate stringRedisTemplate;
+    private final ConcurrentHashMap<String, Set<String>> pendingVisits = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final BackgroundFlusher flusher;
 
     public RedisVisitorCountAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.flusher = new BackgroundFlusher("visitor-count-flusher", FLUSH_INTERVAL_MILLIS,
+                this::flushAll, pendingCount::get);
     }
 
     @Override
@@ -32,9 +66,116 @@ public class RedisVisitorCountAdapter implements VisitorCountPort {
         stringRedisTemplate.opsForHyperLogLog().add(VISITOR_KEY_PREFIX + pageId, visitorId);
     }
 
+    @Override
+    public void recordVisitBuffered(String pageId, String visitorId) {
+        flusher.ensureOpen();
+        // the set is only mutated inside compute/merge, which lock the map entry
+        pendingVisits.compute(pageId, (page, visitors) -> {
+            Set<String> set = visitors != null ? visitors : new HashSet<>();
+            if (set.add(visitorId)) {
+                pendingCount.incrementAndGet();
+            }
+            return set;
+        });
+        flusher.buffered(pendingCount.get() >= MAX_PENDING_VISITS);
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
+    @Override
+    public void flush(String pageId) {
+        flusher.runExclusively(() -> {
+            Set<String> visitors = pendingVisits.remove(pageId);
+            if (visitors != null) {
+                send(Map.of(pageId, visitors));
+            }
+        });
+    }
+
     @Override
     public long getUniqueVisitorCount(String pageId) {
         log.debug("Getting unique visitor count for page {}", pageId);
         return stringRedisTemplate.opsForHyperLogLog().size(VISITOR_KEY_PREFIX + pageId);
     }
+
+    /**
+     * Stops accepting visits and flushes everything still buffered.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.close();
+    }
+
+    long flushedPipelines() {
+        return flusher.sentBatches();
+    }
+
+    /**
+     * Drains every page's set; runs under the flusher's lock.
+     */
+    private void flushAll() {
+        Map<String, Set<String>> batch = new HashMap<>();
+        Iterator<String> pages = pendingVisits.keySet().iterator();
+        while (pages.hasNext()) {
+            String pageId = pages.next();
+            Set<String> visitors = pendingVisits.remove(pageId);
+            if (visitors != null) {
+                batch.put(pageId, visitors);
+            }
+        }
+        send(batch);
+    }
+
+    /**
+     * Writes the drained sets as chunked multi-element PFADDs in one pipeline. On failure
+     * the visitors are merged back into the pending sets before the exception propagates.
+     */
+    private void send(Map<String, Set<String>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int visits = batch.values().stream().mapToInt(Set::size).sum();
+        pendingCount.addAndGet(-visits);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                batch.forEach((pageId, visitors) -> {
+                    byte[] key = (VISITOR_KEY_PREFIX + pageId).getBytes(StandardCharsets.UTF_8);
+                    byte[][] chunk = new byte[Math.min(visitors.size(), MAX_VISITORS_PER_PFADD)][];
+                    int filled = 0;
+                    int remaining = visitors.size();
+                    for (String visitorId : visitors) {
+                        chunk[filled++] = visitorId.getBytes(StandardCharsets.UTF_8);
+                        remaining--;
+                        if (filled == chunk.length) {
+                            connection.hyperLogLogCommands().pfAdd(key, chunk);
+                            chunk = new byte[Math.min(remaining, MAX_VISITORS_PER_PFADD)][];
+                            filled = 0;
+                        }
+                    }
+                });
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            });
+            flusher.recordSent();
+            log.debug("Flushed {} visits for {} pages", visits, batch.size());
+        } catch (RuntimeException e) {
+            batch.forEach((pageId, visitors) -> pendingVisits.compute(pageId, (page, current) -> {
+                if (current == null) {
+                    pendingCount.addAndGet(visitors.size());
+                    return visitors;
+                }
+                for (String visitorId : visitors) {
+                    // visits recorded again since the drain are already counted
+                    if (current.add(visitorId)) {
+                        pendingCount.incrementAndGet();
+                    }
+                }
+                return current;
+            }));
+            throw e;
+        }
+    }
 }
@@ -17,6 +17,10 @@ import java.util.Map;
  * <p>Serializes {@link CartItem} instances to a simple string format for
  * storage via the {@link CartPort}, and deserializes them back when
  * retrieving the cart contents.</p>
+ *
+ * <p>{@link #sweepAbandonedCarts} removes carts idle for {@value #ABANDONED_AFTER_MS} ms in
+ * batches of {@value #SWEEP_BATCH_SIZE}, at most {@value #MAX_SWEEP_BATCHES} batches per
+ * call; a larger backlog is worked off by later sweeps.</p>
  */
 @Service
 public class CartService implements CartUseCase {
@@ -24,6 +28,10 @@ public class CartService implements CartUseCase {
     private static final Logger log = LoggerFactory.getLogger(CartService.class);
     private static final String CART_KEY_PREFIX = "ecommerce:cart:";
 
+    static final long ABANDONED_AFTER_MS = 24 * 60 * 60 * 1_000L;
+    static final int SWEEP_BATCH_SIZE = 100;
+    static final int MAX_SWEEP_BATCHES = 10;
+
     private final CartPort cartPort;
 
     public CartService(CartPort cartPort) {
@@ -60,6 +68,23 @@ public class CartService implements CartUseCase {
         cartPort.deleteCart(cartKey);
     }
 
+    @Override
+    public int sweepAbandonedCarts(long nowMillis) {
+        long idleBefore = nowMillis - ABANDONED_AFTER_MS;
+        int removed = 0;
+        for (int batch = 0; batch < MAX_SWEEP_BATCHES; batch++) {
+            int swept = cartPort.removeAbandonedCarts(idleBefore, SWEEP_BATCH_SIZE);
+            removed += swept;
+            if (swept < SWEEP_BATCH_SIZE) {
+                break;
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} abandoned carts", removed);
+        }
+        return removed;
+    }
+
     /**
      * Serializes a CartItem to a simple delimited string.
      * Format: {@code productId|productName|price|quantity}
@@ -1,25 +1,59 @@
 package com.tutorial.redis.module14.ecommerce.application.usecase;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitPolicy;
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
 import com.tutorial.redis.module14.ecommerce.domain.port.inbound.RateLimitUseCase;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.RateLimiterPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Application service implementing rate limiting use cases.
  *
  * <p>Delegates to the {@link RateLimiterPort} for checking whether a
- * client request should be allowed based on a sliding window counter.</p>
+ * client request should be allowed based on GCRA or sliding-window-log limiters.</p>
+ *
+ * <p>Lease mode: the first request of a client takes a single token and leaves an empty
+ * lease behind. A client that calls again before that lease expires is hot; its requests
+ * then take {@code leaseSize} tokens from Redis at once and are served from memory until
+ * the lease is used up or {@value #LEASE_TTL_MILLIS} ms old. Unused tokens are given back
+ * when the lease is replaced, when more than {@value #MAX_TRACKED_LEASES} leases are held
+ * and on shutdown. If Redis cannot grant a whole lease, the request falls back to a single
+ * token, so the last tokens of a window are not stranded on another node.</p>
+ *
+ * <p>A policy with a global limit checks the global and the client rule in one script, so
+ * both keys must live in one cluster slot: the client key is then placed under the
+ * {@code {global}} hash tag ({@code ecommerce:ratelimit:{global}:{clientId}}). Every such
+ * request touches the global key anyway, so this adds no traffic to that slot's node.
+ * Without a global limit, client keys are spread as {@code ecommerce:ratelimit:{clientId}}.</p>
  */
 @Service
-public class RateLimitService implements RateLimitUseCase {
+public class RateLimitService implements RateLimitUseCase, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
     private static final String RATE_LIMIT_KEY_PREFIX = "ecommerce:ratelimit:";
+    private static final String GLOBAL_SLOT_PREFIX = "ecommerce:ratelimit:{global}:";
+    private static final String GLOBAL_KEY = GLOBAL_SLOT_PREFIX + "limit";
+    private static final String LOG_KEY_SUFFIX = ":log";
+
+    static final long LEASE_TTL_MILLIS = 100;
+    static final int MAX_TRACKED_LEASES = 10_000;
 
     private final RateLimiterPort rateLimiterPort;
+    private final ConcurrentHashMap<String, TokenLease> leases = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong leaseIds = new AtomicLong();
 
     public RateLimitService(RateLimiterPort rateLimiterPort) {
         this.rateLimiterPort = rateLimiterPort;
@@ -32,4 +66,145 @@ public class RateLimitService implements RateLimitUseCase {
         String key = RATE_LIMIT_KEY_PREFIX + clientId;
         return rateLimiterPort.tryAcquire(key, maxRequests, windowSeconds);
     }
+
+    @Override
+    public RateLimitResult checkRateLimit(String clientId, RateLimitPolicy policy) {
+        log.debug("Checking rate limit for client {} with {}", clientId, policy);
+        List<RateLimitRule> rules = rules(clientId, policy);
+        if (policy.getLeaseSize() == 0) {
+            return rateLimiterPort.tryAcquire(rules, 1, nextLeaseId());
+        }
+        return acquireLeased(rules, policy.getLeaseSize());
+    }
+
+    /**
+     * Gives every unused leased token back.
+     */
+    @Override
+    public void destroy() {
+        for (Map.Entry<String, TokenLease> entry : leases.entrySet()) {
+            if (leases.remove(entry.getKey(), entry.getValue())) {
+                giveBack(entry.getValue());
+            }
+        }
+    }
+
+    private RateLimitResult acquireLeased(List<RateLimitRule> rules, int leaseSize) {
+        String clientKey = rules.getLast().getKey();
+        long now = System.nanoTime();
+        TokenLease lease = leases.get(clientKey);
+        if (lease != null) {
+            int left = lease.take(now);
+            if (left >= 0) {
+                return new RateLimitResult(true, left, 0);
+            }
+            if (leases.remove(clientKey, lease)) {
+                giveBack(lease);
+            }
+        }
+
+        String leaseId = nextLeaseId();
+        long expiresAt = now + TimeUnit.MILLISECONDS.toNanos(LEASE_TTL_MILLIS);
+        boolean hot = lease != null && !lease.isExpired(now);
+        if (hot) {
+            RateLimitResult granted = rateLimiterPort.tryAcquire(rules, leaseSize, leaseId);
+            if (granted.isAllowed()) {
+                track(clientKey, new TokenLease(rules, leaseId, leaseSize, leaseSize - 1, expiresAt));
+                return new RateLimitResult(true, granted.getRemainingTokens() + leaseSize - 1, 0);
+            }
+        }
+        RateLimitResult result = rateLimiterPort.tryAcquire(rules, 1, leaseId);
+        track(clientKey, new TokenLease(rules, leaseId, 1, 0, expiresAt));
+        return result;
+    }
+
+    private void track(String clientKey, TokenLease lease) {
+        TokenLease replaced = leases.put(clientKey, lease);
+        if (replaced != null) {
+            giveBack(replaced);
+        }
+        if (leases.size() > MAX_TRACKED_LEASES) {
+            long now = System.nanoTime();
+            for (Map.Entry<String, TokenLease> entry : leases.entrySet()) {
+                if (entry.getValue().isExpired(now) && leases.remove(entry.getKey(), entry.getValue())) {
+                    giveBack(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Failing to give tokens back is not fatal: they are freed when the window passes.
+     */
+    private void giveBack(TokenLease lease) {
+        int unused = lease.drain();
+        if (unused == 0) {
+            return;
+        }
+        try {
+            rateLimiterPort.release(lease.rules, lease.leaseId, lease.permits, unused);
+        } catch (RuntimeException e) {
+            log.warn("Failed to give back {} tokens of lease {}", unused, lease.leaseId, e);
+        }
+    }
+
+    private List<RateLimitRule> rules(String clientId, RateLimitPolicy policy) {
+        RateLimitRule.Algorithm algorithm = policy.getAlgorithm();
+        String suffix = algorithm == RateLimitRule.Algorithm.SLIDING_LOG ? LOG_KEY_SUFFIX : "";
+        long windowMillis = TimeUnit.SECONDS.toMillis(policy.getWindowSeconds());
+        if (policy.getGlobalLimit() == 0) {
+            return List.of(new RateLimitRule(RATE_LIMIT_KEY_PREFIX + clientId + suffix,
+                    algorithm, policy.getClientLimit(), windowMillis));
+        }
+        return List.of(new RateLimitRule(GLOBAL_KEY + suffix, algorithm, policy.getGlobalLimit(), windowMillis),
+                new RateLimitRule(GLOBAL_SLOT_PREFIX + clientId + suffix,
+                        algorithm, policy.getClientLimit(), windowMillis));
+    }
+
+    private String nextLeaseId() {
+        return nodeId + ":" + leaseIds.incrementAndGet();
+    }
+
+    private static final class TokenLease {
+
+        private final List<RateLimitRule> rules;
+        private final String leaseId;
+        private final int permits;
+        private final AtomicInteger tokens;
+        private final long expiresAtNanos;
+
+        TokenLease(List<RateLimitRule> rules, String leaseId, int permits, int tokens, long expiresAtNanos) {
+            this.rules = rules;
+            this.leaseId = leaseId;
+            this.permits = permits;
+            this.tokens = new AtomicInteger(tokens);
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+
+        /**
+         * Takes one token; returns the tokens left, or -1 if the lease is used up or expired.
+         */
+        int take(long nowNanos) {
+            if (isExpired(nowNanos)) {
+                return -1;
+            }
+            while (true) {
+                int current = tokens.get();
+                if (current == 0) {
+                    return -1;
+                }
+                if (tokens.compareAndSet(current, current - 1)) {
+                    return current - 1;
+                }
+            }
+        }
+
+        int drain() {
+            return tokens.getAndSet(0);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.tutorial.redis.module14.ecommerce.application.usecase;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
 import com.tutorial.redis.module14.ecommerce.domain.model.GeoLocation;
 import com.tutorial.redis.module14.ecommerce.domain.port.inbound.StoreLocatorUseCase;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.GeoPort;
@@ -7,13 +8,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Application service implementing store locator use cases.
  *
  * <p>Delegates to the {@link GeoPort} for adding store locations and
  * finding nearby stores using Redis GEO commands.</p>
+ *
+ * <p>Store locations change rarely but are read on every page load, so queries are
+ * answered from an in-memory {@link GeoGridIndex} of the store geo set. The index is
+ * refreshed incrementally from the geo change log (see
+ * {@code StoreIndexRefreshScheduler}) and right after this instance changes a store.
+ * Until the index has been loaded, or when it has not been refreshed for
+ * {@value #MAX_INDEX_AGE_MS} ms, queries fall back to Redis.</p>
+ *
+ * <p>Refreshes are serialized, so a slower refresh can never replace the index with one
+ * at an older change sequence. A failed refresh after a store change is only logged: the
+ * change is already in Redis and the next scheduled refresh picks it up.</p>
  */
 @Service
 public class StoreLocatorService implements StoreLocatorUseCase {
@@ -21,7 +35,11 @@ public class StoreLocatorService implements StoreLocatorUseCase {
     private static final Logger log = LoggerFactory.getLogger(StoreLocatorService.class);
     private static final String STORES_GEO_KEY = "ecommerce:stores";
 
+    static final long MAX_INDEX_AGE_MS = 30_000;
+
     private final GeoPort geoPort;
+    private volatile GeoGridIndex storeIndex;
+    private volatile long storeIndexRefreshedAt;
 
     public StoreLocatorService(GeoPort geoPort) {
         this.geoPort = geoPort;
@@ -33,11 +51,92 @@ public class StoreLocatorService implements StoreLocatorUseCase {
                 store.getLongitude(), store.getLatitude());
         geoPort.addLocation(STORES_GEO_KEY, store.getLongitude(),
                 store.getLatitude(), store.getStoreId());
+        refreshLoadedIndex();
+    }
+
+    @Override
+    public boolean removeStore(String storeId) {
+        log.info("Removing store {}", storeId);
+        boolean removed = geoPort.removeLocation(STORES_GEO_KEY, storeId);
+        refreshLoadedIndex();
+        return removed;
     }
 
     @Override
     public List<String> findNearbyStores(double longitude, double latitude, double radiusKm) {
-        log.info("Finding stores near ({}, {}) within {} km", longitude, latitude, radiusKm);
+        log.debug("Finding stores near ({}, {}) within {} km", longitude, latitude, radiusKm);
+        GeoGridIndex index = currentIndex();
+        if (index != null) {
+            return index.withinRadius(longitude, latitude, radiusKm);
+        }
         return geoPort.findNearby(STORES_GEO_KEY, longitude, latitude, radiusKm);
     }
+
+    @Override
+    public List<String> findNearestStores(double longitude, double latitude, int count) {
+        log.debug("Finding {} stores nearest to ({}, {})", count, longitude, latitude);
+        GeoGridIndex index = currentIndex();
+        if (index != null) {
+            return index.nearest(longitude, latitude, count);
+        }
+        return geoPort.findNearest(STORES_GEO_KEY, longitude, latitude, count);
+    }
+
+    /**
+     * Answers from the index in parallel across the common fork-join pool; without a
+     * current index every customer costs one Redis query.
+     */
+    @Override
+    public List<String> findNearestStoreForEach(List<GeoLocation> customers) {
+        log.info("Finding nearest store for {} customers", customers.size());
+        GeoGridIndex index = currentIndex();
+        if (index != null) {
+            return customers.parallelStream()
+                    .map(customer -> firstOrNull(index.nearest(customer.getLongitude(), customer.getLatitude(), 1)))
+                    .toList();
+        }
+        List<String> nearest = new ArrayList<>(customers.size());
+        for (GeoLocation customer : customers) {
+            nearest.add(firstOrNull(geoPort.findNearest(STORES_GEO_KEY,
+                    customer.getLongitude(), customer.getLatitude(), 1)));
+        }
+        return nearest;
+    }
+
+    @Override
+    public synchronized void refreshStoreIndex() {
+        GeoGridIndex index = storeIndex;
+        GeoGridIndex refreshed = index == null
+                ? geoPort.loadIndex(STORES_GEO_KEY)
+                : geoPort.refreshIndex(STORES_GEO_KEY, index);
+        storeIndex = refreshed;
+        storeIndexRefreshedAt = System.nanoTime();
+        if (refreshed != index) {
+            log.debug("Store index now holds {} stores", refreshed.size());
+        }
+    }
+
+    private void refreshLoadedIndex() {
+        if (storeIndex == null) {
+            return;
+        }
+        try {
+            refreshStoreIndex();
+        } catch (RuntimeException e) {
+            log.warn("Store index refresh after a store change failed, the scheduled refresh will retry", e);
+        }
+    }
+
+    private GeoGridIndex currentIndex() {
+        GeoGridIndex index = storeIndex;
+        if (index == null
+                || System.nanoTime() - storeIndexRefreshedAt > TimeUnit.MILLISECONDS.toNanos(MAX_INDEX_AGE_MS)) {
+            return null;
+        }
+        return index;
+    }
+
+    private static String firstOrNull(List<String> members) {
+        return members.isEmpty() ? null : members.getFirst();
+    }
 }
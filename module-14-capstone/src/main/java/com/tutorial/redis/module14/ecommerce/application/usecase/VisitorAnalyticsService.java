@@ -11,6 +11,11 @@ import org.springframework.stereotype.Service;
  * <p>Delegates to the {@link VisitorCountPort} for recording page visits
  * and retrieving unique visitor counts using Redis HyperLogLog.</p>
  *
+ * <p>Page views are the highest-rate write of the capstone, so visits are
+ * buffered and written in batches instead of one PFADD round trip per view.
+ * Counts may therefore lag by one flush interval; callers that need to see
+ * their own writes can ask for the page to be flushed before it is counted.</p>
+ *
  * <p>This service has no inbound port interface as it is a utility
  * service used directly by other components.</p>
  */
@@ -26,12 +31,23 @@ public class VisitorAnalyticsService {
     }
 
     public void recordPageVisit(String pageId, String visitorId) {
-        log.info("Recording visit to page {} by visitor {}", pageId, visitorId);
-        visitorCountPort.recordVisit(pageId, visitorId);
+        log.debug("Recording visit to page {} by visitor {}", pageId, visitorId);
+        visitorCountPort.recordVisitBuffered(pageId, visitorId);
     }
 
     public long getUniqueVisitors(String pageId) {
-        log.info("Getting unique visitor count for page {}", pageId);
+        return getUniqueVisitors(pageId, false);
+    }
+
+    /**
+     * @param flushPending whether to write the page's buffered visits first,
+     *                     so that visits recorded by this instance are counted
+     */
+    public long getUniqueVisitors(String pageId, boolean flushPending) {
+        log.info("Getting unique visitor count for page {} (flush pending: {})", pageId, flushPending);
+        if (flushPending) {
+            visitorCountPort.flush(pageId);
+        }
         return visitorCountPort.getUniqueVisitorCount(pageId);
     }
 }
@@ -0,0 +1,235 @@
+package com.tutorial.redis.module14.ecommerce.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory snapshot of a Redis geo set, indexed by a fixed lat/lon grid.
+ *
+ * <p>Every location is assigned to a {@value #CELL_DEGREES}° cell whose ID is
+ * {@code latRow << 32 | lonColumn}. The locations are kept in primitive arrays sorted by
+ * cell ID, so the cells of one grid row that overlap a query circle form one contiguous
+ * slice found by binary search. Distances use the same haversine formula and earth radius
+ * as Redis, so radius queries return the same members as {@code GEOSEARCH BYRADIUS}.</p>
+ *
+ * <p>k-nearest queries grow the search radius until at least {@code k} locations fall
+ * inside it; all locations within that radius are then ranked, which makes the result
+ * exact.</p>
+ *
+ * <p>{@code changeCursor} and {@code changeSequence} record the position in the change
+ * log the snapshot is up to date with, so it can be refreshed incrementally.</p>
+ */
+public class GeoGridIndex {
+
+    /** Earth radius in km used by Redis GEO commands. */
+    static final double EARTH_RADIUS_KM = 6372.797560856;
+    static final double CELL_DEGREES = 0.1;
+    private static final int LON_COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+    private static final int LAT_ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final double MAX_RADIUS_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private final String[] members;
+    private final double[] longitudes;
+    private final double[] latitudes;
+    private final long[] cellIds;
+    private final String changeCursor;
+    private final long changeSequence;
+
+    private GeoGridIndex(String[] members, double[] longitudes, double[] latitudes, long[] cellIds,
+                         String changeCursor, long changeSequence) {
+        this.members = members;
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        this.cellIds = cellIds;
+        this.changeCursor = changeCursor;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Builds an index of the given locations (keyed by {@link GeoLocation#getStoreId()}).
+     */
+    public static GeoGridIndex build(Collection<GeoLocation> locations, String changeCursor, long changeSequence) {
+        Map<String, GeoLocation> byMember = new HashMap<>(locations.size() * 2);
+        for (GeoLocation location : locations) {
+            byMember.put(location.getStoreId(), location);
+        }
+        return build(byMember, changeCursor, changeSequence);
+    }
+
+    private static GeoGridIndex build(Map<String, GeoLocation> byMember, String changeCursor, long changeSequence) {
+        int size = byMember.size();
+        long[] keys = new long[size];
+        GeoLocation[] ordered = byMember.values().toArray(new GeoLocation[0]);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = cellId(ordered[i].getLongitude(), ordered[i].getLatitude());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        String[] members = new String[size];
+        double[] longitudes = new double[size];
+        double[] latitudes = new double[size];
+        long[] cellIds = new long[size];
+        for (int i = 0; i < size; i++) {
+            GeoLocation location = ordered[order[i]];
+            members[i] = location.getStoreId();
+            longitudes[i] = location.getLongitude();
+            latitudes[i] = location.getLatitude();
+            cellIds[i] = keys[order[i]];
+        }
+        return new GeoGridIndex(members, longitudes, latitudes, cellIds, changeCursor, changeSequence);
+    }
+
+    /**
+     * Returns a new index with the given locations added or moved and the given members removed.
+     */
+    public GeoGridIndex withChanges(Collection<GeoLocation> upserted, Collection<String> removed,
+                                    String changeCursor, long changeSequence) {
+        Map<String, GeoLocation> byMember = new HashMap<>((members.length + upserted.size()) * 2);
+        for (int i = 0; i < members.length; i++) {
+            byMember.put(members[i], new GeoLocation(members[i], null, longitudes[i], latitudes[i]));
+        }
+        for (String member : removed) {
+            byMember.remove(member);
+        }
+        for (GeoLocation location : upserted) {
+            byMember.put(location.getStoreId(), location);
+        }
+        return build(byMember, changeCursor, changeSequence);
+    }
+
+    /**
+     * Returns the members within {@code radiusKm} of the point, nearest first.
+     */
+    public List<String> withinRadius(double longitude, double latitude, double radiusKm) {
+        List<String> result = new ArrayList<>();
+        for (int position : candidatesWithin(longitude, latitude, radiusKm)) {
+            result.add(members[position]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code k} members nearest to the point, nearest first.
+     */
+    public List<String> nearest(double longitude, double latitude, int k) {
+        if (k <= 0 || members.length == 0) {
+            return List.of();
+        }
+        double radiusKm = CELL_DEGREES * 111;
+        while (true) {
+            int[] found = candidatesWithin(longitude, latitude, radiusKm);
+            if (found.length >= k || found.length == members.length || radiusKm >= MAX_RADIUS_KM) {
+                List<String> result = new ArrayList<>(Math.min(k, found.length));
+                for (int i = 0; i < found.length && i < k; i++) {
+                    result.add(members[found[i]]);
+                }
+                return result;
+            }
+            radiusKm = Math.min(radiusKm * 2, MAX_RADIUS_KM);
+        }
+    }
+
+    public int size() { return members.length; }
+    public String getChangeCursor() { return changeCursor; }
+    public long getChangeSequence() { return changeSequence; }
+
+    /**
+     * Scans the cells overlapping the query circle's bounding box and returns the array
+     * positions of the locations inside the circle, nearest first.
+     */
+    private int[] candidatesWithin(double longitude, double latitude, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double dLat = Math.toDegrees(angular);
+        int firstRow = row(Math.max(-90, latitude - dLat));
+        int lastRow = row(Math.min(90, latitude + dLat));
+
+        double dLon;
+        if (angular >= Math.PI / 2 || Math.abs(latitude) + dLat >= 90) {
+            dLon = 180;
+        } else {
+            dLon = Math.toDegrees(Math.asin(Math.min(1, Math.sin(angular) / Math.cos(Math.toRadians(latitude)))));
+        }
+
+        List<double[]> hits = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (dLon >= 180) {
+                scan(row, 0, LON_COLUMNS - 1, longitude, latitude, radiusKm, hits);
+                continue;
+            }
+            int first = (int) Math.floor((longitude - dLon + 180) / CELL_DEGREES);
+            int last = (int) Math.floor((longitude + dLon + 180) / CELL_DEGREES);
+            if (first < 0) {
+                scan(row, first + LON_COLUMNS, LON_COLUMNS - 1, longitude, latitude, radiusKm, hits);
+                scan(row, 0, last, longitude, latitude, radiusKm, hits);
+            } else if (last >= LON_COLUMNS) {
+                scan(row, first, LON_COLUMNS - 1, longitude, latitude, radiusKm, hits);
+                scan(row, 0, last - LON_COLUMNS, longitude, latitude, radiusKm, hits);
+            } else {
+                scan(row, first, last, longitude, latitude, radiusKm, hits);
+            }
+        }
+
+        hits.sort((a, b) -> Double.compare(a[0], b[0]));
+        int[] positions = new int[hits.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (int) hits.get(i)[1];
+        }
+        return positions;
+    }
+
+    private void scan(int row, int firstColumn, int lastColumn, double longitude, double latitude,
+                      double radiusKm, List<double[]> hits) {
+        long from = ((long) row << 32) | firstColumn;
+        long to = ((long) row << 32) | lastColumn;
+        int i = lowerBound(from);
+        while (i < cellIds.length && cellIds[i] <= to) {
+            double distance = distanceKm(longitude, latitude, longitudes[i], latitudes[i]);
+            if (distance <= radiusKm) {
+                hits.add(new double[]{distance, i});
+            }
+            i++;
+        }
+    }
+
+    private int lowerBound(long cellId) {
+        int low = 0;
+        int high = cellIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellIds[mid] < cellId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Haversine distance, as computed by Redis {@code geohashGetDistance}.
+     */
+    static double distanceKm(double lon1, double lat1, double lon2, double lat2) {
+        double lat1r = Math.toRadians(lat1);
+        double lat2r = Math.toRadians(lat2);
+        double u = Math.sin((lat2r - lat1r) / 2);
+        double v = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = u * u + Math.cos(lat1r) * Math.cos(lat2r) * v * v;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private static long cellId(double longitude, double latitude) {
+        int column = (int) Math.floor((longitude + 180) / CELL_DEGREES);
+        return ((long) row(latitude) << 32) | Math.min(Math.max(column, 0), LON_COLUMNS - 1);
+    }
+
+    private static int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.min(Math.max(row, 0), LAT_ROWS - 1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.tutorial.redis.module14.ecommerce.domain.model;
+
+import java.util.Objects;
+
+/**
+ * How a client's requests are limited.
+ *
+ * <p>Every client gets {@code clientLimit} requests per window. A positive
+ * {@code globalLimit} additionally caps all clients together; both levels are checked
+ * and charged in one atomic step, so a request rejected by either level consumes
+ * nothing.</p>
+ *
+ * <p>A positive {@code leaseSize} turns on lease mode for clients that call more than
+ * once per lease period: the node takes {@code leaseSize} tokens from Redis at once and
+ * serves them from memory, returning the unused ones when the lease expires. This trades
+ * a little accuracy (tokens held by one node are unavailable to the others for a moment)
+ * for one Redis round trip per {@code leaseSize} requests.</p>
+ */
+public class RateLimitPolicy {
+
+    private final RateLimitRule.Algorithm algorithm;
+    private final int clientLimit;
+    private final int globalLimit;
+    private final int windowSeconds;
+    private final int leaseSize;
+
+    public RateLimitPolicy(RateLimitRule.Algorithm algorithm, int clientLimit, int globalLimit,
+                           int windowSeconds, int leaseSize) {
+        this.algorithm = Objects.requireNonNull(algorithm, "algorithm must not be null");
+        if (clientLimit <= 0) {
+            throw new IllegalArgumentException("clientLimit must be positive, got: " + clientLimit);
+        }
+        if (globalLimit < 0) {
+            throw new IllegalArgumentException("globalLimit must not be negative, got: " + globalLimit);
+        }
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("windowSeconds must be positive, got: " + windowSeconds);
+        }
+        if (leaseSize < 0 || leaseSize >= clientLimit) {
+            throw new IllegalArgumentException(
+                    "leaseSize must be between 0 and clientLimit - 1, got: " + leaseSize);
+        }
+        this.clientLimit = clientLimit;
+        this.globalLimit = globalLimit;
+        this.windowSeconds = windowSeconds;
+        this.leaseSize = leaseSize;
+    }
+
+    public RateLimitRule.Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getClientLimit() {
+        return clientLimit;
+    }
+
+    /**
+     * Limit shared by all clients, or 0 for none.
+     */
+    public int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * Tokens taken per lease, or 0 when lease mode is off.
+     */
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitPolicy{algorithm=%s, clientLimit=%d, globalLimit=%d, windowSeconds=%d, leaseSize=%d}"
+                .formatted(algorithm, clientLimit, globalLimit, windowSeconds, leaseSize);
+    }
+}
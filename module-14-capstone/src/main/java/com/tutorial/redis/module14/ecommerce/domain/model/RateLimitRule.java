@@ -0,0 +1,58 @@
+package com.tutorial.redis.module14.ecommerce.domain.model;
+
+import java.util.Objects;
+
+/**
+ * One level of a hierarchical rate limit: at most {@code limit} requests per
+ * {@code windowMillis} on the Redis key {@code key}.
+ *
+ * <p>{@link Algorithm#GCRA} keeps a single theoretical arrival time per key and spreads
+ * the limit evenly over the window, allowing a burst of up to {@code limit} requests after
+ * an idle window. {@link Algorithm#SLIDING_LOG} keeps one sorted-set entry per admitted
+ * request and enforces the limit over every window exactly, at the cost of memory
+ * proportional to the limit.</p>
+ */
+public class RateLimitRule {
+
+    public enum Algorithm { GCRA, SLIDING_LOG }
+
+    private final String key;
+    private final Algorithm algorithm;
+    private final int limit;
+    private final long windowMillis;
+
+    public RateLimitRule(String key, Algorithm algorithm, int limit, long windowMillis) {
+        this.key = Objects.requireNonNull(key, "key must not be null");
+        this.algorithm = Objects.requireNonNull(algorithm, "algorithm must not be null");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive, got: " + limit);
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive, got: " + windowMillis);
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitRule{key='%s', algorithm=%s, limit=%d, windowMillis=%d}"
+                .formatted(key, algorithm, limit, windowMillis);
+    }
+}
@@ -8,7 +8,8 @@ import java.util.List;
  * Inbound port for shopping cart operations.
  *
  * <p>Defines the primary use cases for managing a customer's shopping cart,
- * including adding items, retrieving the full cart, and clearing it.</p>
+ * including adding items, retrieving the full cart, and clearing it, plus the
+ * periodic removal of abandoned carts.</p>
  */
 public interface CartUseCase {
 
@@ -17,4 +18,11 @@ public interface CartUseCase {
     List<CartItem> getCart(String customerId);
 
     void clearCart(String customerId);
+
+    /**
+     * Removes carts that have not been changed for a while, in bounded batches.
+     *
+     * @return the number of carts removed
+     */
+    int sweepAbandonedCarts(long nowMillis);
 }
@@ -1,14 +1,21 @@
 package com.tutorial.redis.module14.ecommerce.domain.port.inbound;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitPolicy;
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
 
 /**
  * Inbound port for rate limiting operations.
  *
- * <p>Defines the use case for checking whether a client request should
- * be allowed based on a sliding window rate limiter backed by Redis.</p>
+ * <p>Defines the use cases for checking whether a client request should
+ * be allowed based on GCRA or sliding-window-log rate limiters backed by Redis.</p>
  */
 public interface RateLimitUseCase {
 
     RateLimitResult checkRateLimit(String clientId, int maxRequests, int windowSeconds);
+
+    /**
+     * Checks the client's limit and, if the policy has one, the global limit together;
+     * uses local token leases when the policy enables them.
+     */
+    RateLimitResult checkRateLimit(String clientId, RateLimitPolicy policy);
 }
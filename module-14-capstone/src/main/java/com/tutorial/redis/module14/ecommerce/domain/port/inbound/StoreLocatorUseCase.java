@@ -14,5 +14,21 @@ public interface StoreLocatorUseCase {
 
     void addStore(GeoLocation store);
 
+    boolean removeStore(String storeId);
+
     List<String> findNearbyStores(double longitude, double latitude, double radiusKm);
+
+    List<String> findNearestStores(double longitude, double latitude, int count);
+
+    /**
+     * Finds the nearest store for each customer location.
+     *
+     * @return one store ID per customer, in the same order; null where no store exists
+     */
+    List<String> findNearestStoreForEach(List<GeoLocation> customers);
+
+    /**
+     * Loads or incrementally refreshes the in-memory store index.
+     */
+    void refreshStoreIndex();
 }
@@ -16,4 +16,12 @@ public interface CartPort {
     Map<String, String> getAllItems(String cartKey);
 
     void deleteCart(String cartKey);
+
+    /**
+     * Removes up to {@code limit} carts last changed at or before {@code idleBeforeMillis},
+     * least recently active first, publishing each non-empty cart before deleting it.
+     *
+     * @return the number of carts removed
+     */
+    int removeAbandonedCarts(long idleBeforeMillis, int limit);
 }
@@ -1,16 +1,42 @@
 package com.tutorial.redis.module14.ecommerce.domain.port.outbound;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
+
 import java.util.List;
 
 /**
  * Outbound port for geospatial operations.
  *
  * <p>Abstracts Redis GEO commands for adding locations and finding
- * nearby members within a given radius.</p>
+ * nearby members within a given radius. Every change is also appended to a
+ * change log, so that in-memory {@link GeoGridIndex} snapshots of a geo set can be
+ * kept up to date incrementally.</p>
  */
 public interface GeoPort {
 
     void addLocation(String key, double longitude, double latitude, String member);
 
+    boolean removeLocation(String key, String member);
+
+    /**
+     * Returns the members within the radius, nearest first.
+     */
     List<String> findNearby(String key, double longitude, double latitude, double radiusKm);
+
+    /**
+     * Returns up to {@code count} members nearest to the point, nearest first.
+     */
+    List<String> findNearest(String key, double longitude, double latitude, int count);
+
+    /**
+     * Builds an in-memory index of the whole geo set.
+     */
+    GeoGridIndex loadIndex(String key);
+
+    /**
+     * Applies the changes made since the index was built or last refreshed.
+     * Returns the same instance when nothing changed, and a fully reloaded index when
+     * the change log no longer covers the gap.
+     */
+    GeoGridIndex refreshIndex(String key, GeoGridIndex index);
 }
@@ -1,15 +1,35 @@
 package com.tutorial.redis.module14.ecommerce.domain.port.outbound;
 
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
+
+import java.util.List;
 
 /**
  * Outbound port for rate limiting operations.
  *
- * <p>Abstracts a sliding window counter implemented as a Lua script
+ * <p>Abstracts GCRA and sliding-window-log limiters implemented as a Lua script
  * in Redis, returning whether the request is allowed and relevant
  * token/retry information.</p>
  */
 public interface RateLimiterPort {
 
+    /**
+     * Takes one token from a single GCRA limit of {@code maxTokens} per window.
+     */
     RateLimitResult tryAcquire(String key, int maxTokens, int windowSeconds);
+
+    /**
+     * Takes {@code permits} tokens from every rule atomically: either all rules admit
+     * them and all are charged, or none is charged. The remaining tokens reported are
+     * those of the most exhausted rule; the retry delay is that of the slowest rule.
+     *
+     * @param leaseId unique ID of this acquisition, needed to {@link #release} it
+     */
+    RateLimitResult tryAcquire(List<RateLimitRule> rules, int permits, String leaseId);
+
+    /**
+     * Gives back {@code unused} of the {@code permits} tokens taken under {@code leaseId}.
+     */
+    void release(List<RateLimitRule> rules, String leaseId, int permits, int unused);
 }
@@ -5,10 +5,26 @@ package com.tutorial.redis.module14.ecommerce.domain.port.outbound;
  *
  * <p>Abstracts Redis HyperLogLog commands for recording page visits
  * and retrieving approximate unique visitor counts.</p>
+ *
+ * <p>Visits recorded with {@link #recordVisitBuffered} are deduplicated in memory
+ * and written in periodic batches; they become visible to
+ * {@link #getUniqueVisitorCount} after the next flush.</p>
  */
 public interface VisitorCountPort {
 
     void recordVisit(String pageId, String visitorId);
 
+    void recordVisitBuffered(String pageId, String visitorId);
+
+    /**
+     * Writes all buffered visits before returning.
+     */
+    void flush();
+
+    /**
+     * Writes the buffered visits of one page before returning.
+     */
+    void flush(String pageId);
+
     long getUniqueVisitorCount(String pageId);
 }
@@ -1,14 +1,24 @@
 package com.tutorial.redis.module14.finance.adapter.outbound.redis;
 
+import com.tutorial.redis.common.flush.BackgroundFlusher;
 import com.tutorial.redis.module14.finance.domain.port.outbound.TransactionRankingPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Redis adapter for transaction ranking operations.
@@ -16,18 +26,36 @@ import java.util.Set;
  * <p>Implements {@link TransactionRankingPort} using a Redis sorted set
  * as a leaderboard. Transactions are scored by their amount, allowing
  * efficient retrieval of the highest-value transactions.</p>
+ *
+ * <p>Buffered writes: {@link #addToLeaderboardBuffered} only records the amount in an
+ * in-memory map (the latest amount per transaction wins, matching ZADD). A
+ * {@link BackgroundFlusher} drains the map every {@value #MAX_STALENESS_MILLIS} ms, or as soon as
+ * {@value #MAX_PENDING_TRANSACTIONS} transactions are pending, and writes them as
+ * multi-member ZADDs ({@value #MAX_MEMBERS_PER_ZADD} members each) in one pipeline.
+ * Entries are removed from the map one by one with {@code remove}, so an amount recorded
+ * while draining is either sent now or kept for the next flush. If a flush fails the
+ * amounts are put back unless a newer one arrived; remaining entries are flushed on
+ * shutdown.</p>
  */
 @Component
-public class RedisTransactionRankingAdapter implements TransactionRankingPort {
+public class RedisTransactionRankingAdapter implements TransactionRankingPort, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(RedisTransactionRankingAdapter.class);
 
     private static final String LEADERBOARD_KEY = "finance:tx:leaderboard";
 
+    static final long MAX_STALENESS_MILLIS = 100;
+    static final int MAX_PENDING_TRANSACTIONS = 10_000;
+    static final int MAX_MEMBERS_PER_ZADD = 1_000;
+
     private final StringRedisTemplate stringRedisTemplate;
+    private final ConcurrentHashMap<String, Double> pendingAmounts = new ConcurrentHashMap<>();
+    private final BackgroundFlusher flusher;
 
     public RedisTransactionRankingAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.flusher = new BackgroundFlusher("tx-leaderboard-flusher", MAX_STALENESS_MILLIS,
+                this::drainAndSend, pendingAmounts::size);
     }
 
     @Override
@@ -36,6 +64,18 @@ public class RedisTransactionRankingAdapter implements TransactionRankingPort {
         log.debug("Added transaction {} to leaderboard with amount {}", txId, amount);
     }
 
+    @Override
+    public void addToLeaderboardBuffered(String txId, double amount) {
+        flusher.ensureOpen();
+        pendingAmounts.put(txId, amount);
+        flusher.buffered(pendingAmounts.size() >= MAX_PENDING_TRANSACTIONS);
+    }
+
+    @Override
+    public void flush() {
+        flusher.flush();
+    }
+
     @Override
     public List<String> getTopN(int n) {
         Set<String> result = stringRedisTemplate.opsForZSet()
@@ -43,4 +83,64 @@ public class RedisTransactionRankingAdapter implements TransactionRankingPort {
         log.debug("Retrieved top {} transactions: {}", n, result);
         return result != null ? new ArrayList<>(result) : new ArrayList<>();
     }
+
+    /**
+     * Stops accepting buffered writes and flushes everything still pending.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        flusher.close();
+    }
+
+    long flushedPipelines() {
+        return flusher.sentBatches();
+    }
+
+    /**
+     * Drains the pending amounts; runs under the flusher's lock.
+     */
+    private void drainAndSend() {
+        Map<String, Double> batch = new HashMap<>();
+        for (String txId : pendingAmounts.keySet()) {
+            Double amount = pendingAmounts.remove(txId);
+            if (amount != null) {
+                batch.put(txId, amount);
+            }
+        }
+        send(batch);
+    }
+
+    /**
+     * Writes the drained amounts as chunked multi-member ZADDs in one pipeline. ZADD is
+     * idempotent, so retrying a failed batch is safe; amounts recorded since the drain
+     * take precedence over the failed ones.
+     */
+    private void send(Map<String, Double> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] key = LEADERBOARD_KEY.getBytes(StandardCharsets.UTF_8);
+                Set<Tuple> chunk = new LinkedHashSet<>();
+                for (Map.Entry<String, Double> entry : batch.entrySet()) {
+                    chunk.add(new DefaultTuple(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+                    if (chunk.size() == MAX_MEMBERS_PER_ZADD) {
+                        connection.zSetCommands().zAdd(key, chunk);
+                        chunk = new LinkedHashSet<>();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    connection.zSetCommands().zAdd(key, chunk);
+                }
+                // RedisCallback must return null when used with executePipelined
+                return null;
+            });
+            flusher.recordSent();
+            log.debug("Flushed {} transactions to the leaderboard", batch.size());
+        } catch (RuntimeException e) {
+            batch.forEach(pendingAmounts::putIfAbsent);
+            throw e;
+        }
+    }
 }
@@ -16,6 +16,9 @@ import java.util.List;
  * <p>Coordinates between the {@link TransactionRankingPort} (sorted set
  * leaderboard) and the {@link TransactionSearchPort} (RediSearch index)
  * to record, rank, and search financial transactions.</p>
+ *
+ * <p>Leaderboard writes are buffered and sent in batches, so a recorded transaction
+ * appears in {@link #getTopTransactions} after a short delay (at most ~100 ms).</p>
  */
 @Service
 public class TransactionService implements TransactionUseCase {
@@ -34,7 +37,7 @@ public class TransactionService implements TransactionUseCase {
     @Override
     public void recordTransaction(Transaction tx) {
         log.info("Recording transaction {} (amount={})", tx.getTransactionId(), tx.getAmount());
-        rankingPort.addToLeaderboard(tx.getTransactionId(), tx.getAmount());
+        rankingPort.addToLeaderboardBuffered(tx.getTransactionId(), tx.getAmount());
         searchPort.indexTransaction(tx);
     }
 
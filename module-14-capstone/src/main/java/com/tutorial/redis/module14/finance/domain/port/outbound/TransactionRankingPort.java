@@ -18,6 +18,20 @@ public interface TransactionRankingPort {
      */
     void addToLeaderboard(String txId, double amount);
 
+    /**
+     * Buffers a leaderboard write; buffered writes are sent in batches within a bounded
+     * delay. A later amount for the same transaction replaces an earlier one.
+     *
+     * @param txId   the transaction identifier (member)
+     * @param amount the transaction amount (score)
+     */
+    void addToLeaderboardBuffered(String txId, double amount);
+
+    /**
+     * Writes all buffered leaderboard entries to Redis.
+     */
+    void flush();
+
     /**
      * Retrieves the top N transactions by amount (highest first).
      *
@@ -1,6 +1,7 @@
 package com.tutorial.redis.module14.infrastructure.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Module 14 configuration class.
@@ -8,8 +9,12 @@ import org.springframework.context.annotation.Configuration;
  * <p>Spring Boot auto-configuration handles Redis and web setup.
  * This class exists for any module-specific bean overrides that
  * may be needed in the capstone project.</p>
+ *
+ * <p>Enables {@code @Scheduled} methods, which refresh the store index, sweep
+ * abandoned carts and renew the Snowflake worker ID lease.</p>
  */
 @Configuration
+@EnableScheduling
 public class Module14Config {
     // Spring Boot auto-configuration handles Redis + web
     // This class exists for any module-specific bean overrides
@@ -0,0 +1,37 @@
+package com.tutorial.redis.module14.infrastructure.scheduler;
+
+import com.tutorial.redis.module14.ecommerce.domain.port.inbound.StoreLocatorUseCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory store index of the store locator up to date.
+ *
+ * <p>Loads the index on start and then calls
+ * {@link StoreLocatorUseCase#refreshStoreIndex()} every
+ * {@code ecommerce.store-index.refresh-interval-ms} ms (default 1,000) on Spring's
+ * task scheduler. A refresh with no store changes costs one XRANGE on the change log;
+ * when Redis is unreachable the index ages out and queries fall back to Redis.</p>
+ */
+@Component
+public class StoreIndexRefreshScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreIndexRefreshScheduler.class);
+
+    private final StoreLocatorUseCase storeLocatorUseCase;
+
+    public StoreIndexRefreshScheduler(StoreLocatorUseCase storeLocatorUseCase) {
+        this.storeLocatorUseCase = storeLocatorUseCase;
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.store-index.refresh-interval-ms:1000}")
+    public void refreshStoreIndex() {
+        try {
+            storeLocatorUseCase.refreshStoreIndex();
+        } catch (RuntimeException e) {
+            log.warn("Store index refresh failed, retrying at the next run", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tutorial.redis.module14.infrastructure.scheduler;
+
+import com.tutorial.redis.module14.shared.application.usecase.SnowflakeIdService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps this node's Snowflake worker ID leased.
+ *
+ * <p>Calls {@link SnowflakeIdService#renewWorkerLease()} every
+ * {@code unique-id.worker-heartbeat-interval-ms} ms (default 10,000, a third of the lease
+ * TTL, so one missed heartbeat does not lose the lease) on Spring's task scheduler. On
+ * shutdown the worker ID is released for other nodes.</p>
+ */
+@Component
+public class WorkerIdHeartbeatScheduler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerIdHeartbeatScheduler.class);
+
+    private final SnowflakeIdService snowflakeIdService;
+
+    public WorkerIdHeartbeatScheduler(SnowflakeIdService snowflakeIdService) {
+        this.snowflakeIdService = snowflakeIdService;
+    }
+
+    @Scheduled(fixedDelayString = "${unique-id.worker-heartbeat-interval-ms:10000}",
+            initialDelayString = "${unique-id.worker-heartbeat-interval-ms:10000}")
+    public void renewWorkerLease() {
+        try {
+            snowflakeIdService.renewWorkerLease();
+        } catch (RuntimeException e) {
+            log.warn("Worker ID heartbeat failed, retrying at the next run", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            snowflakeIdService.releaseWorkerId();
+        } catch (RuntimeException e) {
+            log.warn("Releasing the worker ID failed, it expires with its lease", e);
+        }
+    }
+}
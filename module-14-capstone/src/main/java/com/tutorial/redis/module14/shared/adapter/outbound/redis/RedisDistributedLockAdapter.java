@@ -1,12 +1,19 @@
 package com.tutorial.redis.module14.shared.adapter.outbound.redis;
 
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
 import com.tutorial.redis.module14.shared.domain.port.outbound.DistributedLockPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Redis-backed distributed lock adapter.
@@ -14,9 +21,40 @@ import java.util.Collections;
  * <p>Uses {@code SET NX} for atomic lock acquisition and a Lua script
  * for atomic check-and-delete unlock to prevent accidental release
  * by non-owners.</p>
+ *
+ * <p>Read-write locks and semaphores share one layout, with every key of a lock
+ * carrying the lock key as hash tag so they live in one cluster slot:</p>
+ * <ul>
+ *   <li>{@code {key}:holders} — sorted set of {@code w:owner}, {@code r:owner} or
+ *       {@code s:holder}, scored by lease expiry (ms); expired holders are dropped by the
+ *       next acquisition</li>
+ *   <li>{@code {key}:state} — hash with the current {@code writer} and per holder its
+ *       reentrancy {@code count:} and fencing {@code token:}</li>
+ *   <li>{@code {key}:queue} / {@code {key}:waiters} — fair waiters ordered by arrival, and
+ *       their expiry; a waiter that stops retrying drops out after the waiter TTL</li>
+ *   <li>{@code {key}:fence} — the last fencing token, expiring with the longest lease.
+ *       A write lock's token is {@code max(INCR fence, TIME in ms)}, so once the counter
+ *       has expired the next token still exceeds every earlier one (tokens run ahead of
+ *       the clock only by the write locks taken within one millisecond)</li>
+ * </ul>
+ *
+ * <p>A holder can re-enter its lock and take the read lock under its own write lock, but
+ * not upgrade a read lock to the write lock: that would wait for its own read hold to be
+ * released, so it is rejected with an {@link IllegalStateException}. Releasing or renewing
+ * a hold whose lease has run out (by Redis {@code TIME}) does nothing.</p>
+ *
+ * <p>Releases, and fair acquisitions that leave others queued, publish the lock key on
+ * {@value #EVENTS_CHANNEL}, which a {@link RedisKeyNotifier} turns into completed
+ * {@link #watch} futures. Scripts read the time with {@code TIME}, so leases do not
+ * depend on callers' clocks.</p>
  */
 @Component
-public class RedisDistributedLockAdapter implements DistributedLockPort {
+public class RedisDistributedLockAdapter implements DistributedLockPort, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisDistributedLockAdapter.class);
+
+    static final String EVENTS_CHANNEL = "lock:events";
+    static final long WAITER_TTL_MILLIS = 3_000;
 
     private static final String UNLOCK_SCRIPT =
             "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
@@ -25,10 +63,159 @@ public class RedisDistributedLockAdapter implements DistributedLockPort {
             "    return 0 " +
             "end";
 
+    private static final String NOW =
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n";
+
+    /** Sets the holder keys and the fence to expire with the longest lease. */
+    private static final String EXPIRE_WITH_LAST_LEASE =
+            "local last = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')[2]\n" +
+            "redis.call('PEXPIRE', KEYS[1], math.max(tonumber(last) - now, 1))\n" +
+            "redis.call('PEXPIRE', KEYS[2], math.max(tonumber(last) - now, 1))\n" +
+            "redis.call('PEXPIRE', KEYS[5], math.max(tonumber(last) - now, 1))\n";
+
+    static final long UPGRADE_REJECTED = -1;
+
+    /**
+     * KEYS = holders, state, queue, waiters, fence; ARGV[1] = mode ({@code w}, {@code r} or
+     * {@code s}), ARGV[2] = owner, ARGV[3] = lease in ms, ARGV[4] = holder limit (0 for
+     * none), ARGV[5] = fair (1/0), ARGV[6] = waiter TTL in ms, ARGV[7] = events channel,
+     * ARGV[8] = lock key. Returns {acquired (1/0), fencing token, retry after ms}, or
+     * {{@value #UPGRADE_REJECTED}, 0, 0} if the owner asks for the write lock while holding
+     * only the read lock.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            NOW +
+            "local mode, owner = ARGV[1], ARGV[2]\n" +
+            "local member = mode .. ':' .. owner\n" +
+            "local writer = redis.call('HGET', KEYS[2], 'writer')\n" +
+            "for _, m in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now)) do\n" +
+            "  redis.call('HDEL', KEYS[2], 'count:' .. m, 'token:' .. m)\n" +
+            "  if writer and m == 'w:' .. writer then\n" +
+            "    redis.call('HDEL', KEYS[2], 'writer')\n" +
+            "    writer = false\n" +
+            "  end\n" +
+            "end\n" +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)\n" +
+            "for _, w in ipairs(redis.call('ZRANGEBYSCORE', KEYS[4], '-inf', now)) do\n" +
+            "  redis.call('ZREM', KEYS[3], w)\n" +
+            "end\n" +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[4], '-inf', now)\n" +
+            "local held = redis.call('ZSCORE', KEYS[1], member)\n" +
+            "if mode == 'w' and not held and redis.call('ZSCORE', KEYS[1], 'r:' .. owner) then\n" +
+            "  return {-1, 0, 0}\n" +
+            "end\n" +
+            "local free = held ~= false\n" +
+            "if not free then\n" +
+            "  if mode == 'w' then\n" +
+            "    free = redis.call('ZCARD', KEYS[1]) == 0\n" +
+            "  else\n" +
+            "    local limit = tonumber(ARGV[4])\n" +
+            "    free = (not writer or writer == owner)\n" +
+            "      and (limit == 0 or redis.call('ZCARD', KEYS[1]) < limit)\n" +
+            "  end\n" +
+            "  if free and ARGV[5] == '1' then\n" +
+            "    local head = redis.call('ZRANGE', KEYS[3], 0, 0)[1]\n" +
+            "    free = head == nil or head == owner\n" +
+            "  end\n" +
+            "end\n" +
+            "if not free then\n" +
+            "  if ARGV[5] == '1' then\n" +
+            "    if redis.call('ZSCORE', KEYS[3], owner) == false then\n" +
+            "      redis.call('ZADD', KEYS[3], now, owner)\n" +
+            "    end\n" +
+            "    redis.call('ZADD', KEYS[4], now + tonumber(ARGV[6]), owner)\n" +
+            "    redis.call('PEXPIRE', KEYS[3], ARGV[6])\n" +
+            "    redis.call('PEXPIRE', KEYS[4], ARGV[6])\n" +
+            "  end\n" +
+            "  local retry = tonumber(ARGV[6])\n" +
+            "  local first = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')\n" +
+            "  if first[2] then\n" +
+            "    retry = tonumber(first[2]) - now\n" +
+            "  else\n" +
+            "    local head = redis.call('ZRANGE', KEYS[3], 0, 0)[1]\n" +
+            "    if head then retry = tonumber(redis.call('ZSCORE', KEYS[4], head)) - now end\n" +
+            "  end\n" +
+            "  return {0, 0, math.max(retry, 1)}\n" +
+            "end\n" +
+            "local expiry = now + tonumber(ARGV[3])\n" +
+            "if not held or tonumber(held) < expiry then\n" +
+            "  redis.call('ZADD', KEYS[1], expiry, member)\n" +
+            "end\n" +
+            "redis.call('HINCRBY', KEYS[2], 'count:' .. member, 1)\n" +
+            "local token = tonumber(redis.call('HGET', KEYS[2], 'token:' .. member) or 0)\n" +
+            "if not held then\n" +
+            "  if mode == 'w' then\n" +
+            "    token = math.max(redis.call('INCR', KEYS[5]), now)\n" +
+            "    redis.call('SET', KEYS[5], token)\n" +
+            "    redis.call('HSET', KEYS[2], 'writer', owner)\n" +
+            "  elseif mode == 'r' then\n" +
+            "    token = tonumber(redis.call('GET', KEYS[5]) or 0)\n" +
+            "  end\n" +
+            "  redis.call('HSET', KEYS[2], 'token:' .. member, token)\n" +
+            "end\n" +
+            EXPIRE_WITH_LAST_LEASE +
+            "if ARGV[5] == '1' and redis.call('ZREM', KEYS[3], owner) == 1 then\n" +
+            "  redis.call('ZREM', KEYS[4], owner)\n" +
+            "  if redis.call('ZCARD', KEYS[3]) > 0 then redis.call('PUBLISH', ARGV[7], ARGV[8]) end\n" +
+            "end\n" +
+            "return {1, token, 0}",
+            List.class);
+
+    /**
+     * KEYS as for {@link #ACQUIRE_SCRIPT}; ARGV[1] = mode, ARGV[2] = owner,
+     * ARGV[3] = events channel, ARGV[4] = lock key.
+     * Returns the holds left, or -1 if the owner held none or its lease ran out.
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            NOW +
+            "local member = ARGV[1] .. ':' .. ARGV[2]\n" +
+            "local score = redis.call('ZSCORE', KEYS[1], member)\n" +
+            "if score == false or tonumber(score) <= now then return -1 end\n" +
+            "local left = redis.call('HINCRBY', KEYS[2], 'count:' .. member, -1)\n" +
+            "if left > 0 then return left end\n" +
+            "redis.call('ZREM', KEYS[1], member)\n" +
+            "redis.call('HDEL', KEYS[2], 'count:' .. member, 'token:' .. member)\n" +
+            "if ARGV[1] == 'w' then redis.call('HDEL', KEYS[2], 'writer') end\n" +
+            "if redis.call('ZCARD', KEYS[1]) == 0 then redis.call('DEL', KEYS[2]) end\n" +
+            "redis.call('PUBLISH', ARGV[3], ARGV[4])\n" +
+            "return 0",
+            Long.class);
+
+    /**
+     * KEYS as for {@link #ACQUIRE_SCRIPT}; ARGV[1] = mode, ARGV[2] = owner, ARGV[3] = lease in ms.
+     * Returns 0 if the owner's lease already ran out.
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            NOW +
+            "local score = redis.call('ZSCORE', KEYS[1], ARGV[1] .. ':' .. ARGV[2])\n" +
+            "if score == false or tonumber(score) <= now then return 0 end\n" +
+            "local expiry = now + tonumber(ARGV[3])\n" +
+            "if tonumber(score) < expiry then\n" +
+            "  redis.call('ZADD', KEYS[1], expiry, ARGV[1] .. ':' .. ARGV[2])\n" +
+            "end\n" +
+            EXPIRE_WITH_LAST_LEASE +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS as for {@link #ACQUIRE_SCRIPT}; ARGV[1] = waiter, ARGV[2] = events channel,
+     * ARGV[3] = lock key. Announces the change if others are still queued.
+     */
+    private static final DefaultRedisScript<Long> LEAVE_QUEUE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 then return 0 end\n" +
+            "redis.call('ZREM', KEYS[4], ARGV[1])\n" +
+            "if redis.call('ZCARD', KEYS[3]) > 0 then redis.call('PUBLISH', ARGV[2], ARGV[3]) end\n" +
+            "return 1",
+            Long.class);
+
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedisKeyNotifier notifier;
 
     public RedisDistributedLockAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.notifier = new RedisKeyNotifier(stringRedisTemplate, EVENTS_CHANNEL);
     }
 
     @Override
@@ -45,4 +232,82 @@ public class RedisDistributedLockAdapter implements DistributedLockPort {
                 Collections.singletonList(lockKey), lockValue);
         return result != null && result == 1L;
     }
+
+    @Override
+    public LockGrant tryAcquire(String lockKey, LockMode mode, String owner, long leaseMillis, boolean fair) {
+        return acquire(lockKey, mode == LockMode.WRITE ? "w" : "r", owner, leaseMillis, 0, fair);
+    }
+
+    @Override
+    public int release(String lockKey, LockMode mode, String owner) {
+        return (int) release(lockKey, mode == LockMode.WRITE ? "w" : "r", owner);
+    }
+
+    @Override
+    public boolean renew(String lockKey, LockMode mode, String owner, long leaseMillis) {
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, keys(lockKey),
+                mode == LockMode.WRITE ? "w" : "r", owner, String.valueOf(leaseMillis));
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public LockGrant tryAcquirePermit(String semaphoreKey, int permits, String holderId, long leaseMillis,
+                                      boolean fair) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive, got: " + permits);
+        }
+        return acquire(semaphoreKey, "s", holderId, leaseMillis, permits, fair);
+    }
+
+    @Override
+    public boolean releasePermit(String semaphoreKey, String holderId) {
+        return release(semaphoreKey, "s", holderId) == 0;
+    }
+
+    @Override
+    public void leaveQueue(String key, String waiter) {
+        stringRedisTemplate.execute(LEAVE_QUEUE_SCRIPT, keys(key), waiter, EVENTS_CHANNEL, key);
+    }
+
+    @Override
+    public CompletableFuture<Void> watch(String key) {
+        return notifier.watch(key);
+    }
+
+    @Override
+    public void unwatch(String key, CompletableFuture<Void> watch) {
+        notifier.unwatch(key, watch);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        notifier.close();
+    }
+
+    private LockGrant acquire(String key, String mode, String owner, long leaseMillis, int limit, boolean fair) {
+        List<?> reply = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys(key),
+                mode, owner, String.valueOf(leaseMillis), String.valueOf(limit), fair ? "1" : "0",
+                String.valueOf(WAITER_TTL_MILLIS), EVENTS_CHANNEL, key);
+        if (reply == null || reply.size() < 3) {
+            log.warn("Lock script returned {} for {}", reply, key);
+            return LockGrant.denied(WAITER_TTL_MILLIS);
+        }
+        long status = ((Number) reply.get(0)).longValue();
+        if (status == UPGRADE_REJECTED) {
+            throw new IllegalStateException(owner + " holds the read lock of " + key
+                    + " and cannot upgrade it to the write lock");
+        }
+        boolean acquired = status == 1L;
+        return new LockGrant(acquired, ((Number) reply.get(1)).longValue(), ((Number) reply.get(2)).longValue());
+    }
+
+    private long release(String key, String mode, String owner) {
+        Long left = stringRedisTemplate.execute(RELEASE_SCRIPT, keys(key), mode, owner, EVENTS_CHANNEL, key);
+        return left != null ? left : -1;
+    }
+
+    private List<String> keys(String key) {
+        String tag = "{" + key + "}";
+        return List.of(tag + ":holders", tag + ":state", tag + ":queue", tag + ":waiters", tag + ":fence");
+    }
 }
@@ -1,10 +1,23 @@
 package com.tutorial.redis.module14.shared.adapter.outbound.redis;
 
+import com.tutorial.redis.module14.shared.domain.model.IdempotencyRecord;
 import com.tutorial.redis.module14.shared.domain.port.outbound.IdempotencyPort;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * Redis-backed idempotency adapter.
@@ -12,14 +25,81 @@ import java.time.Duration;
  * <p>Uses {@code SET NX} with TTL for atomic check-and-set idempotency
  * guarantees, ensuring that duplicate requests within the TTL window
  * are detected and short-circuited.</p>
+ *
+ * <p>Records are hashes with the fields {@code status}, {@code owner},
+ * {@code leaseUntil} (epoch ms, while in progress), {@code createdAt}, {@code encoding}
+ * and {@code result}. Claiming and finishing run as Lua scripts that read the time with
+ * {@code TIME}, so lease expiry does not depend on the callers' clocks. Results of
+ * {@value #COMPRESSION_THRESHOLD_BYTES} bytes or more are stored deflated and Base64
+ * encoded ({@code encoding = deflate}).</p>
+ *
+ * <p>Finishing a record publishes its key on {@value #EVENTS_CHANNEL}; a
+ * {@link RedisKeyNotifier} turns those messages into completed {@link #watch} futures.</p>
  */
 @Component
-public class RedisIdempotencyAdapter implements IdempotencyPort {
+public class RedisIdempotencyAdapter implements IdempotencyPort, DisposableBean {
+
+    static final String EVENTS_CHANNEL = "idempotency:events";
+    static final int COMPRESSION_THRESHOLD_BYTES = 512;
+
+    /**
+     * KEYS[1] = record; ARGV[1] = owner, ARGV[2] = lease in ms, ARGV[3] = TTL in seconds.
+     * Returns the record's fields (HGETALL) after the call.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> BEGIN_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local status = redis.call('HGET', KEYS[1], 'status')\n" +
+            "if status == 'COMPLETED' or (status == 'IN_PROGRESS'\n" +
+            "    and tonumber(redis.call('HGET', KEYS[1], 'leaseUntil') or 0) > now) then\n" +
+            "  return redis.call('HGETALL', KEYS[1])\n" +
+            "end\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "redis.call('HSET', KEYS[1], 'status', 'IN_PROGRESS', 'owner', ARGV[1],\n" +
+            "  'leaseUntil', tostring(now + tonumber(ARGV[2])), 'createdAt', tostring(now))\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3])\n" +
+            "return redis.call('HGETALL', KEYS[1])",
+            List.class);
+
+    /**
+     * KEYS[1] = record; ARGV[1] = owner, ARGV[2] = lease in ms.
+     * Returns 0 if the record is not in progress under this owner.
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'status') ~= 'IN_PROGRESS'\n" +
+            "    or redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "redis.call('HSET', KEYS[1], 'leaseUntil', tostring(now + tonumber(ARGV[2])))\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS[1] = record; ARGV[1] = owner, ARGV[2] = status, ARGV[3] = encoding,
+     * ARGV[4] = result, ARGV[5] = TTL in seconds, ARGV[6] = events channel.
+     * Returns 0 if the record is not in progress under this owner.
+     */
+    private static final DefaultRedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'status') ~= 'IN_PROGRESS'\n" +
+            "    or redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'status', ARGV[2], 'encoding', ARGV[3], 'result', ARGV[4])\n" +
+            "redis.call('HDEL', KEYS[1], 'leaseUntil')\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[5])\n" +
+            "redis.call('PUBLISH', ARGV[6], KEYS[1])\n" +
+            "return 1",
+            Long.class);
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedisKeyNotifier notifier;
 
     public RedisIdempotencyAdapter(StringRedisTemplate stringRedisTemplate) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.notifier = new RedisKeyNotifier(stringRedisTemplate, EVENTS_CHANNEL);
     }
 
     @Override
@@ -33,4 +113,114 @@ public class RedisIdempotencyAdapter implements IdempotencyPort {
     public String get(String key) {
         return stringRedisTemplate.opsForValue().get(key);
     }
+
+    @Override
+    public IdempotencyRecord begin(String key, String ownerId, long leaseMillis, long ttlSeconds) {
+        List<?> fields = stringRedisTemplate.execute(BEGIN_SCRIPT, List.of(key),
+                ownerId, String.valueOf(leaseMillis), String.valueOf(ttlSeconds));
+        Map<String, String> hash = new HashMap<>();
+        if (fields != null) {
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                hash.put(String.valueOf(fields.get(i)), String.valueOf(fields.get(i + 1)));
+            }
+        }
+        return toRecord(key, hash);
+    }
+
+    @Override
+    public boolean renew(String key, String ownerId, long leaseMillis) {
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(key), ownerId, String.valueOf(leaseMillis));
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public boolean finish(String key, String ownerId, IdempotencyRecord.Status status, String result, long ttlSeconds) {
+        String value = result != null ? result : "";
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        String encoding = "plain";
+        if (raw.length >= COMPRESSION_THRESHOLD_BYTES) {
+            encoding = "deflate";
+            value = Base64.getEncoder().encodeToString(deflate(raw));
+        }
+        Long finished = stringRedisTemplate.execute(FINISH_SCRIPT, List.of(key),
+                ownerId, status.name(), encoding, value, String.valueOf(ttlSeconds), EVENTS_CHANNEL);
+        return finished != null && finished == 1L;
+    }
+
+    @Override
+    public IdempotencyRecord find(String key) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Map<String, String> hash = new HashMap<>();
+        entries.forEach((field, value) -> hash.put((String) field, (String) value));
+        return toRecord(key, hash);
+    }
+
+    @Override
+    public CompletableFuture<Void> watch(String key) {
+        return notifier.watch(key);
+    }
+
+    @Override
+    public void unwatch(String key, CompletableFuture<Void> watch) {
+        notifier.unwatch(key, watch);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        notifier.close();
+    }
+
+    private IdempotencyRecord toRecord(String key, Map<String, String> hash) {
+        String status = hash.get("status");
+        if (status == null) {
+            return null;
+        }
+        String result = hash.get("result");
+        if (result != null && "deflate".equals(hash.get("encoding"))) {
+            result = new String(inflate(Base64.getDecoder().decode(result)), StandardCharsets.UTF_8);
+        }
+        long createdAt = Long.parseLong(hash.getOrDefault("createdAt", "0"));
+        return new IdempotencyRecord(key, IdempotencyRecord.Status.valueOf(status), hash.get("owner"),
+                result, createdAt, 0);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed idempotency result");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed idempotency result", e);
+        } finally {
+            inflater.end();
+        }
+    }
 }
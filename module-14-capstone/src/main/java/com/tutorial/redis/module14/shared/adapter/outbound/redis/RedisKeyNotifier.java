@@ -0,0 +1,93 @@
+package com.tutorial.redis.module14.shared.adapter.outbound.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completes local futures watching a key when that key is published on a Pub/Sub channel.
+ *
+ * <p>Adapters whose scripts {@code PUBLISH} the key they changed own one instance per
+ * channel. It subscribes once, on the first {@link #watch}, with its own listener
+ * container, and each message completes, and forgets, every future watching the published
+ * key. Pub/Sub may drop messages, so watchers should also re-check after a while.</p>
+ */
+final class RedisKeyNotifier implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisKeyNotifier.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String channel;
+    private final ConcurrentHashMap<String, Set<CompletableFuture<Void>>> watchers = new ConcurrentHashMap<>();
+    private RedisMessageListenerContainer listenerContainer;
+
+    RedisKeyNotifier(StringRedisTemplate stringRedisTemplate, String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns a future completed at the next message for {@code key}.
+     */
+    CompletableFuture<Void> watch(String key) {
+        subscribe();
+        CompletableFuture<Void> watch = new CompletableFuture<>();
+        watchers.compute(key, (k, set) -> {
+            Set<CompletableFuture<Void>> watching = set != null ? set : ConcurrentHashMap.newKeySet();
+            watching.add(watch);
+            return watching;
+        });
+        return watch;
+    }
+
+    void unwatch(String key, CompletableFuture<Void> watch) {
+        watchers.computeIfPresent(key, (k, set) -> {
+            set.remove(watch);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Unsubscribes; a later {@link #watch} subscribes again.
+     */
+    @Override
+    public void close() throws Exception {
+        RedisMessageListenerContainer container;
+        synchronized (this) {
+            container = listenerContainer;
+            listenerContainer = null;
+        }
+        if (container != null) {
+            container.destroy();
+        }
+    }
+
+    private synchronized void subscribe() {
+        if (listenerContainer != null) {
+            return;
+        }
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(stringRedisTemplate.getRequiredConnectionFactory());
+        container.addMessageListener((message, pattern) ->
+                notifyWatchers(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainer = container;
+        log.info("Subscribed to {}", channel);
+    }
+
+    private void notifyWatchers(String key) {
+        Set<CompletableFuture<Void>> watching = watchers.remove(key);
+        if (watching != null) {
+            watching.forEach(watch -> watch.complete(null));
+        }
+    }
+}
@@ -1,19 +1,83 @@
 package com.tutorial.redis.module14.shared.adapter.outbound.redis;
 
+import com.tutorial.redis.module14.shared.domain.model.WorkerIdLease;
 import com.tutorial.redis.module14.shared.domain.port.outbound.UniqueIdPort;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Redis-backed unique ID sequence adapter.
  *
  * <p>Uses Redis {@code INCR} for atomic, monotonically increasing
  * sequence number generation, suitable for distributed unique ID
- * composition across multiple application instances.</p>
+ * composition across multiple application instances. {@code INCRBY}
+ * reserves a whole block of numbers in one round trip.</p>
+ *
+ * <p>Snowflake worker IDs are leased with {@code SET NX PX} on
+ * {@code uid:snowflake:worker:{id}} (value = owner). The last timestamp each worker ID
+ * used is kept without expiry in the hash {@code uid:snowflake:last-timestamps}, so the
+ * next holder can start after it. While a lease is held, the same hash also keeps its
+ * expiry ({@code {id}:expires}, Redis {@code TIME} plus the TTL), set on lease and renewal
+ * and removed on release. A holder that crashes never reports its last timestamp, so the
+ * next holder gets the later of the two and starts after the crashed holder's lease
+ * expired, the latest time it could have issued IDs at. The lease script derives the
+ * worker keys itself and therefore assumes a single Redis node.</p>
  */
 @Component
 public class RedisUniqueIdAdapter implements UniqueIdPort {
 
+    private static final String WORKER_KEY_PREFIX = "uid:snowflake:worker:";
+    private static final String LAST_TIMESTAMPS_KEY = "uid:snowflake:last-timestamps";
+
+    /**
+     * KEYS[1] = last-timestamp hash; ARGV[1] = worker key prefix, ARGV[2] = owner,
+     * ARGV[3] = TTL in ms, ARGV[4] = number of worker IDs, ARGV[5] = ID to probe first.
+     * Returns {worker ID, last timestamp or previous lease expiry, whichever is later},
+     * or {-1, 0} if all are taken.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local max = tonumber(ARGV[4])\n" +
+            "for n = 0, max - 1 do\n" +
+            "  local id = (tonumber(ARGV[5]) + n) % max\n" +
+            "  if redis.call('SET', ARGV[1] .. id, ARGV[2], 'NX', 'PX', ARGV[3]) then\n" +
+            "    local last = tonumber(redis.call('HGET', KEYS[1], id) or 0)\n" +
+            "    local expired = tonumber(redis.call('HGET', KEYS[1], id .. ':expires') or 0)\n" +
+            "    redis.call('HSET', KEYS[1], id .. ':expires', now + tonumber(ARGV[3]))\n" +
+            "    return {id, math.max(last, expired)}\n" +
+            "  end\n" +
+            "end\n" +
+            "return {-1, 0}",
+            List.class);
+
+    /**
+     * KEYS[1] = worker key, KEYS[2] = last-timestamp hash; ARGV[1] = owner,
+     * ARGV[2] = TTL in ms (0 releases the lease), ARGV[3] = worker ID, ARGV[4] = last timestamp.
+     * Returns 0 if the lease is not held by the owner.
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end\n" +
+            "local last = tonumber(redis.call('HGET', KEYS[2], ARGV[3]) or 0)\n" +
+            "if tonumber(ARGV[4]) > last then redis.call('HSET', KEYS[2], ARGV[3], ARGV[4]) end\n" +
+            "if ARGV[2] == '0' then\n" +
+            "  redis.call('DEL', KEYS[1])\n" +
+            "  redis.call('HDEL', KEYS[2], ARGV[3] .. ':expires')\n" +
+            "else\n" +
+            "  local t = redis.call('TIME')\n" +
+            "  local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[2])\n" +
+            "  redis.call('HSET', KEYS[2], ARGV[3] .. ':expires', now + tonumber(ARGV[2]))\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
+
     private final StringRedisTemplate stringRedisTemplate;
 
     public RedisUniqueIdAdapter(StringRedisTemplate stringRedisTemplate) {
@@ -25,4 +89,47 @@ public class RedisUniqueIdAdapter implements UniqueIdPort {
         Long result = stringRedisTemplate.opsForValue().increment(counterKey);
         return result != null ? result : 0L;
     }
+
+    @Override
+    public long reserveBlock(String counterKey, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive, got: " + blockSize);
+        }
+        Long result = stringRedisTemplate.opsForValue().increment(counterKey, blockSize);
+        if (result == null) {
+            throw new IllegalStateException("INCRBY returned no value for " + counterKey);
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<WorkerIdLease> leaseWorkerId(String ownerId, int maxWorkers, long ttlMillis) {
+        List<?> reply = stringRedisTemplate.execute(LEASE_SCRIPT, List.of(LAST_TIMESTAMPS_KEY),
+                WORKER_KEY_PREFIX, ownerId, String.valueOf(ttlMillis), String.valueOf(maxWorkers),
+                String.valueOf(ThreadLocalRandom.current().nextInt(maxWorkers)));
+        if (reply == null || reply.size() < 2 || ((Number) reply.get(0)).intValue() < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new WorkerIdLease(((Number) reply.get(0)).intValue(), ((Number) reply.get(1)).longValue()));
+    }
+
+    @Override
+    public boolean renewWorkerId(int workerId, String ownerId, long ttlMillis, long lastTimestamp) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive, got: " + ttlMillis);
+        }
+        return updateLease(workerId, ownerId, ttlMillis, lastTimestamp);
+    }
+
+    @Override
+    public void releaseWorkerId(int workerId, String ownerId, long lastTimestamp) {
+        updateLease(workerId, ownerId, 0, lastTimestamp);
+    }
+
+    private boolean updateLease(int workerId, String ownerId, long ttlMillis, long lastTimestamp) {
+        Long updated = stringRedisTemplate.execute(RENEW_SCRIPT,
+                List.of(WORKER_KEY_PREFIX + workerId, LAST_TIMESTAMPS_KEY),
+                ownerId, String.valueOf(ttlMillis), String.valueOf(workerId), String.valueOf(lastTimestamp));
+        return updated != null && updated == 1L;
+    }
 }
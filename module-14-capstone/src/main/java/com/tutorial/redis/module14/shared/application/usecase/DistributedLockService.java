@@ -1,18 +1,31 @@
 package com.tutorial.redis.module14.shared.application.usecase;
 
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
 import com.tutorial.redis.module14.shared.domain.port.outbound.DistributedLockPort;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 /**
  * Application service for distributed lock management.
  *
  * <p>Provides a higher-level API over the {@link DistributedLockPort},
  * automatically prefixing lock keys with {@code lock:} to namespace
  * them within the Redis keyspace.</p>
+ *
+ * <p>{@link #lock} and {@link #acquirePermit} wait in the lock's FIFO queue instead of
+ * retrying in a loop: a waiter sleeps until a release is announced, re-checking after at
+ * most {@value #WAIT_SLICE_MILLIS} ms (or when the earliest lease expires) in case the
+ * announcement is lost or a holder died. A waiter that times out leaves the queue. Semaphore
+ * keys are prefixed with {@code semaphore:}.</p>
  */
 @Service
 public class DistributedLockService {
 
+    static final long WAIT_SLICE_MILLIS = 1_000;
+
     private final DistributedLockPort distributedLockPort;
 
     public DistributedLockService(DistributedLockPort distributedLockPort) {
@@ -41,4 +54,77 @@ public class DistributedLockService {
     public boolean releaseLock(String resource, String owner) {
         return distributedLockPort.unlock("lock:" + resource, owner);
     }
+
+    /**
+     * Acquires, or re-enters, a read or write lock, waiting in line for up to {@code timeout}.
+     *
+     * @param resource    the resource name to lock
+     * @param owner       the identifier of the lock owner, e.g. a node and thread
+     * @param mode        {@link LockMode#WRITE} for exclusive access
+     * @param leaseMillis how long the lock is held unless renewed
+     * @return the grant with its fencing token, or a denied grant after the timeout
+     * @throws IllegalStateException if {@code owner} holds the read lock and asks for the
+     *         write lock, which would wait for itself
+     */
+    public LockGrant lock(String resource, String owner, LockMode mode, long leaseMillis, Duration timeout) {
+        String lockKey = "lock:" + resource;
+        return await(lockKey, owner, timeout,
+                () -> distributedLockPort.tryAcquire(lockKey, mode, owner, leaseMillis, true));
+    }
+
+    /**
+     * Releases one hold of a read or write lock.
+     *
+     * @return holds the owner still has (0 once fully released), or -1 if it held none or
+     *         its lease already ran out
+     */
+    public int unlock(String resource, String owner, LockMode mode) {
+        return distributedLockPort.release("lock:" + resource, mode, owner);
+    }
+
+    /**
+     * Extends the owner's lease on a read or write lock.
+     *
+     * @return {@code false} if the lease already ran out
+     */
+    public boolean renew(String resource, String owner, LockMode mode, long leaseMillis) {
+        return distributedLockPort.renew("lock:" + resource, mode, owner, leaseMillis);
+    }
+
+    /**
+     * Takes one of {@code permits} permits, waiting in line for up to {@code timeout}; use it
+     * to cap concurrent calls to a downstream service across nodes.
+     *
+     * @param holderId unique per acquisition
+     * @return the grant, or a denied grant after the timeout
+     */
+    public LockGrant acquirePermit(String semaphore, int permits, String holderId, long leaseMillis,
+                                   Duration timeout) {
+        String semaphoreKey = "semaphore:" + semaphore;
+        return await(semaphoreKey, holderId, timeout,
+                () -> distributedLockPort.tryAcquirePermit(semaphoreKey, permits, holderId, leaseMillis, true));
+    }
+
+    /**
+     * Returns a permit taken with {@link #acquirePermit}.
+     */
+    public boolean releasePermit(String semaphore, String holderId) {
+        return distributedLockPort.releasePermit("semaphore:" + semaphore, holderId);
+    }
+
+    private LockGrant await(String key, String waiter, Duration timeout, Supplier<LockGrant> attempt) {
+        LockGrant grant;
+        try {
+            grant = KeyChangeWaiter.awaitResult(distributedLockPort, key, System.nanoTime() + timeout.toNanos(),
+                    WAIT_SLICE_MILLIS, attempt, LockGrant::isAcquired, LockGrant::getRetryAfterMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            distributedLockPort.leaveQueue(key, waiter);
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+        if (!grant.isAcquired()) {
+            distributedLockPort.leaveQueue(key, waiter);
+        }
+        return grant;
+    }
 }
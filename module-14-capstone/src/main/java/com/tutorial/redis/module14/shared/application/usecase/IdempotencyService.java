@@ -1,19 +1,54 @@
 package com.tutorial.redis.module14.shared.application.usecase;
 
+import com.tutorial.redis.module14.shared.domain.model.IdempotencyRecord;
 import com.tutorial.redis.module14.shared.domain.port.outbound.IdempotencyPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
 /**
  * Application service for idempotency management.
  *
  * <p>Provides a higher-level API over the {@link IdempotencyPort},
  * automatically prefixing idempotency keys with {@code idempotency:}
  * to namespace them within the Redis keyspace.</p>
+ *
+ * <p>{@link #execute} runs an operation at most once per key. The first caller claims the
+ * record for {@value #LEASE_MILLIS} ms, renews the lease every
+ * {@value #LEASE_RENEW_INTERVAL_MILLIS} ms from a heartbeat thread while the operation
+ * runs, and stores the response, or the error, when it is done. The heartbeat keeps a slow
+ * operation from being taken over; it cannot help if the node stalls (e.g. a long GC pause)
+ * for longer than the lease, in which case the operation may run twice. A duplicate that
+ * arrives meanwhile waits for the finish notification (re-checking every
+ * {@value #WAIT_SLICE_MILLIS} ms in case it is lost) and gets the stored outcome; if the
+ * first caller dies, its lease runs out and a waiter claims the record. Completed records
+ * are also kept in memory for {@value #LOCAL_CACHE_TTL_MILLIS} ms, so a burst of retries is
+ * answered without Redis.</p>
  */
 @Service
 public class IdempotencyService {
 
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final String RECORD_KEY_PREFIX = "idempotency:record:";
+
+    static final long LEASE_MILLIS = 30_000;
+    static final long LEASE_RENEW_INTERVAL_MILLIS = LEASE_MILLIS / 3;
+    static final long WAIT_SLICE_MILLIS = 1_000;
+    static final long MAX_WAIT_MILLIS = 60_000;
+    static final long LOCAL_CACHE_TTL_MILLIS = 2_000;
+    static final int LOCAL_CACHE_MAX_ENTRIES = 10_000;
+
     private final IdempotencyPort idempotencyPort;
+    private final ConcurrentHashMap<String, CachedRecord> completed = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong attempts = new AtomicLong();
 
     public IdempotencyService(IdempotencyPort idempotencyPort) {
         this.idempotencyPort = idempotencyPort;
@@ -41,4 +76,147 @@ public class IdempotencyService {
     public String getResult(String key) {
         return idempotencyPort.get("idempotency:" + key);
     }
+
+    /**
+     * Runs {@code action} unless it already ran, or is running, for this key.
+     *
+     * @param key        the idempotency key
+     * @param ttlSeconds how long the outcome is kept
+     * @param action     the operation; its return value is the stored response
+     * @return a {@code COMPLETED} record with the response, or the {@code FAILED} record
+     *         of a run this call waited for; if this call's lease ran out before it could
+     *         store its response, the outcome stored by whoever took over, when there is one
+     * @throws RuntimeException whatever {@code action} throws, after recording the failure
+     * @throws IllegalStateException if another caller's run did not finish within
+     *         {@value #MAX_WAIT_MILLIS} ms
+     */
+    public IdempotencyRecord execute(String key, long ttlSeconds, Supplier<String> action) {
+        String recordKey = RECORD_KEY_PREFIX + key;
+        IdempotencyRecord cached = cachedRecord(recordKey);
+        if (cached != null) {
+            return cached;
+        }
+        String ownerId = nodeId + ":" + attempts.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+        AtomicBoolean waited = new AtomicBoolean();
+        IdempotencyRecord record;
+        try {
+            record = KeyChangeWaiter.awaitResult(idempotencyPort, recordKey, deadline, WAIT_SLICE_MILLIS,
+                    () -> attempt(recordKey, ownerId, ttlSeconds, action, waited.getAndSet(true)),
+                    IdempotencyService::isFinished, inProgress -> WAIT_SLICE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the operation of " + recordKey, e);
+        }
+        if (!isFinished(record)) {
+            throw new IllegalStateException("Timed out waiting for the operation of " + recordKey);
+        }
+        return record;
+    }
+
+    /**
+     * After a wait, first reads the outcome the other caller stored; then claims the
+     * record, which succeeds if it failed or its lease ran out, and runs the operation.
+     */
+    private IdempotencyRecord attempt(String recordKey, String ownerId, long ttlSeconds, Supplier<String> action,
+                                      boolean afterWait) {
+        if (afterWait) {
+            IdempotencyRecord outcome = idempotencyPort.find(recordKey);
+            if (outcome != null && outcome.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return remember(outcome);
+            }
+            if (outcome != null && outcome.getStatus() == IdempotencyRecord.Status.FAILED) {
+                return outcome;
+            }
+        }
+        IdempotencyRecord record = idempotencyPort.begin(recordKey, ownerId, LEASE_MILLIS, ttlSeconds);
+        if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            return remember(record);
+        }
+        if (ownerId.equals(record.getOwnerId())) {
+            return run(recordKey, ownerId, ttlSeconds, action);
+        }
+        return record;
+    }
+
+    private static boolean isFinished(IdempotencyRecord record) {
+        return record.getStatus() != IdempotencyRecord.Status.IN_PROGRESS;
+    }
+
+    private IdempotencyRecord run(String recordKey, String ownerId, long ttlSeconds, Supplier<String> action) {
+        String response;
+        Thread heartbeat = Thread.ofVirtual().name("idempotency-heartbeat")
+                .start(() -> renewWhileRunning(recordKey, ownerId));
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            heartbeat.interrupt();
+            try {
+                idempotencyPort.finish(recordKey, ownerId, IdempotencyRecord.Status.FAILED,
+                        String.valueOf(e.getMessage()), ttlSeconds);
+            } catch (RuntimeException finishFailure) {
+                e.addSuppressed(finishFailure);
+            }
+            throw e;
+        } finally {
+            heartbeat.interrupt();
+        }
+        if (!idempotencyPort.finish(recordKey, ownerId, IdempotencyRecord.Status.COMPLETED, response, ttlSeconds)) {
+            log.warn("Lease on {} ran out before the operation finished; it may have run twice", recordKey);
+            IdempotencyRecord stored = idempotencyPort.find(recordKey);
+            if (stored != null && stored.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return remember(stored);
+            }
+            if (stored != null && stored.getStatus() == IdempotencyRecord.Status.FAILED) {
+                return stored;
+            }
+        }
+        return remember(new IdempotencyRecord(recordKey, IdempotencyRecord.Status.COMPLETED, ownerId, response,
+                System.currentTimeMillis(), ttlSeconds));
+    }
+
+    private void renewWhileRunning(String recordKey, String ownerId) {
+        while (true) {
+            try {
+                Thread.sleep(LEASE_RENEW_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (!idempotencyPort.renew(recordKey, ownerId, LEASE_MILLIS)) {
+                    log.warn("Lease on {} was lost while the operation was running", recordKey);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to renew the lease on {}; retrying", recordKey, e);
+            }
+        }
+    }
+
+    private IdempotencyRecord cachedRecord(String recordKey) {
+        CachedRecord cached = completed.get(recordKey);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAtNanos() >= 0) {
+            completed.remove(recordKey, cached);
+            return null;
+        }
+        return cached.record();
+    }
+
+    private IdempotencyRecord remember(IdempotencyRecord record) {
+        long now = System.nanoTime();
+        if (completed.size() >= LOCAL_CACHE_MAX_ENTRIES) {
+            completed.values().removeIf(cached -> now - cached.expiresAtNanos() >= 0);
+        }
+        if (completed.size() < LOCAL_CACHE_MAX_ENTRIES) {
+            completed.put(record.getIdempotencyKey(),
+                    new CachedRecord(record, now + TimeUnit.MILLISECONDS.toNanos(LOCAL_CACHE_TTL_MILLIS)));
+        }
+        return record;
+    }
+
+    private record CachedRecord(IdempotencyRecord record, long expiresAtNanos) {
+    }
 }
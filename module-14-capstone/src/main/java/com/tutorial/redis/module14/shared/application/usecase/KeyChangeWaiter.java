@@ -0,0 +1,57 @@
+package com.tutorial.redis.module14.shared.application.usecase;
+
+import com.tutorial.redis.module14.shared.domain.port.outbound.KeyWatchPort;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Repeats an attempt each time a watched key changes, until it succeeds or a deadline
+ * passes.
+ *
+ * <p>The watch is registered before every attempt, so a change between the attempt and
+ * the wait is not missed. Since notifications may be lost, each wait is also capped by the
+ * attempt's own retry hint and by a fixed slice.</p>
+ */
+final class KeyChangeWaiter {
+
+    private KeyChangeWaiter() {
+    }
+
+    /**
+     * @param deadlineNanos    {@link System#nanoTime()} after which no further wait starts
+     * @param sliceMillis      longest single wait
+     * @param attempt          one try
+     * @param done             whether an attempt's result ends the wait
+     * @param retryAfterMillis how long to wait at most after a result that does not
+     * @return the first result that is {@code done}, or the last one once the deadline passed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static <T> T awaitResult(KeyWatchPort port, String key, long deadlineNanos, long sliceMillis,
+                             Supplier<T> attempt, Predicate<T> done, ToLongFunction<T> retryAfterMillis)
+            throws InterruptedException {
+        while (true) {
+            CompletableFuture<Void> watch = port.watch(key);
+            try {
+                T result = attempt.get();
+                long remaining = deadlineNanos - System.nanoTime();
+                if (done.test(result) || remaining <= 0) {
+                    return result;
+                }
+                long waitMillis = Math.min(Math.max(retryAfterMillis.applyAsLong(result), 1), sliceMillis);
+                try {
+                    watch.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(waitMillis)), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // Try again
+                }
+            } finally {
+                port.unwatch(key, watch);
+            }
+        }
+    }
+}
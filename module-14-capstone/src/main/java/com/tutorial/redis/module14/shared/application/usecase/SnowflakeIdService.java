@@ -0,0 +1,170 @@
+package com.tutorial.redis.module14.shared.application.usecase;
+
+import com.tutorial.redis.module14.shared.domain.model.WorkerIdLease;
+import com.tutorial.redis.module14.shared.domain.port.outbound.UniqueIdPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application service generating Snowflake-style 64-bit IDs without a Redis round trip
+ * per ID.
+ *
+ * <p>Layout: 41 bits of milliseconds since {@value #EPOCH_MILLIS} (2024-01-01 UTC),
+ * {@value #WORKER_ID_BITS} bits of worker ID, {@value #SEQUENCE_BITS} bits of sequence.
+ * The timestamp and sequence are one {@link AtomicLong}; each ID sets it to
+ * {@code max(previous + 1, now << SEQUENCE_BITS)}, so IDs strictly increase on a node
+ * without locks. A sequence overflow or a clock moving backwards borrows from the next
+ * millisecond instead of waiting.</p>
+ *
+ * <p>The worker ID is leased from Redis for {@value #WORKER_LEASE_TTL_MS} ms and renewed
+ * by {@link #renewWorkerLease()}. IDs are only issued while the lease is known to be
+ * valid (renewed less than {@value #WORKER_LEASE_TTL_MS} minus
+ * {@value #LEASE_SAFETY_MARGIN_MS} ms ago); otherwise a worker ID is leased again, which
+ * may be a different one. Starting after the last timestamp the previous holder of a
+ * worker ID recorded keeps IDs unique across holders; if it crashed, that is the expiry of
+ * its lease, after which it issued no IDs.</p>
+ *
+ * <p>The recorded timestamp is only as fresh as the last renewal. If the sequence runs
+ * ahead of the clock past the lease's validity (i.e. an ID's timestamp may lie beyond the
+ * expiry the next holder would start from), the lease is renewed with the current
+ * timestamp before the ID is returned; if that fails, no ID is returned.</p>
+ */
+@Service
+public class SnowflakeIdService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdService.class);
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int WORKER_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_WORKERS = 1 << WORKER_ID_BITS;
+    static final long WORKER_LEASE_TTL_MS = 30_000;
+    static final long LEASE_SAFETY_MARGIN_MS = 5_000;
+
+    private final UniqueIdPort uniqueIdPort;
+    private final String ownerId = UUID.randomUUID().toString();
+    private final AtomicLong state = new AtomicLong();
+    private volatile int workerId = -1;
+    private volatile long leaseValidUntilMillis;
+    /** Latest timestamp a next holder of the worker ID is known to start after. */
+    private volatile long recordedUntilMillis;
+
+    public SnowflakeIdService(UniqueIdPort uniqueIdPort) {
+        this.uniqueIdPort = uniqueIdPort;
+    }
+
+    /**
+     * Returns a new ID, larger than every ID this node returned before.
+     *
+     * @throws IllegalStateException if no worker ID could be leased
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis();
+        int worker = workerId;
+        if (worker < 0 || now >= leaseValidUntilMillis) {
+            worker = leaseWorkerId(now);
+        }
+        long floor = (now - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = state.updateAndGet(previous -> Math.max(previous + 1, floor));
+        if ((next >>> SEQUENCE_BITS) + EPOCH_MILLIS > recordedUntilMillis) {
+            persistAhead(worker);
+        }
+        return (next >>> SEQUENCE_BITS) << (WORKER_ID_BITS + SEQUENCE_BITS)
+                | (long) worker << SEQUENCE_BITS
+                | (next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    /**
+     * Extends the worker ID lease; called periodically by the heartbeat scheduler.
+     * Does nothing if no worker ID is held.
+     */
+    public void renewWorkerLease() {
+        int worker = workerId;
+        if (worker < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastTimestamp();
+        if (uniqueIdPort.renewWorkerId(worker, ownerId, WORKER_LEASE_TTL_MS, last)) {
+            leaseRenewed(now, last);
+        } else {
+            log.warn("Lease of worker ID {} was lost, leasing a new one on the next ID", worker);
+            invalidate(worker);
+        }
+    }
+
+    /**
+     * Gives the worker ID up, e.g. on shutdown.
+     */
+    public void releaseWorkerId() {
+        int worker = workerId;
+        if (worker >= 0) {
+            invalidate(worker);
+            uniqueIdPort.releaseWorkerId(worker, ownerId, lastTimestamp());
+            log.info("Released worker ID {}", worker);
+        }
+    }
+
+    /**
+     * Worker ID currently held, or -1.
+     */
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    private synchronized int leaseWorkerId(long now) {
+        if (workerId >= 0 && now < leaseValidUntilMillis) {
+            return workerId;
+        }
+        WorkerIdLease lease = uniqueIdPort.leaseWorkerId(ownerId, MAX_WORKERS, WORKER_LEASE_TTL_MS)
+                .orElseThrow(() -> new IllegalStateException("All " + MAX_WORKERS + " worker IDs are leased"));
+        // Continue after both this node's IDs (in the next millisecond, since the worker ID
+        // may be smaller) and the previous holder's
+        long floor = Math.max(lease.getLastTimestamp() + 1 - EPOCH_MILLIS, 0) << SEQUENCE_BITS;
+        state.updateAndGet(previous -> Math.max(((previous >>> SEQUENCE_BITS) + 1) << SEQUENCE_BITS, floor));
+        leaseValidUntilMillis = now + WORKER_LEASE_TTL_MS - LEASE_SAFETY_MARGIN_MS;
+        recordedUntilMillis = now + WORKER_LEASE_TTL_MS;
+        workerId = lease.getWorkerId();
+        log.info("Leased worker ID {}", workerId);
+        return workerId;
+    }
+
+    /**
+     * Records a timestamp that ran ahead of the lease validity, so a next holder starts
+     * after it even if this node crashes before the next heartbeat.
+     */
+    private void persistAhead(int worker) {
+        long now = System.currentTimeMillis();
+        long last = lastTimestamp();
+        if (!uniqueIdPort.renewWorkerId(worker, ownerId, WORKER_LEASE_TTL_MS, last)) {
+            invalidate(worker);
+            throw new IllegalStateException("Lease of worker ID " + worker + " was lost");
+        }
+        leaseRenewed(now, last);
+    }
+
+    /**
+     * The lease now expires {@value #WORKER_LEASE_TTL_MS} ms after {@code now} at the
+     * earliest, and {@code last} is recorded for the next holder.
+     */
+    private synchronized void leaseRenewed(long now, long last) {
+        leaseValidUntilMillis = Math.max(leaseValidUntilMillis, now + WORKER_LEASE_TTL_MS - LEASE_SAFETY_MARGIN_MS);
+        recordedUntilMillis = Math.max(recordedUntilMillis, Math.max(now + WORKER_LEASE_TTL_MS, last));
+    }
+
+    private synchronized void invalidate(int worker) {
+        if (workerId == worker) {
+            workerId = -1;
+            leaseValidUntilMillis = 0;
+            recordedUntilMillis = 0;
+        }
+    }
+
+    private long lastTimestamp() {
+        return (state.get() >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+    }
+}
@@ -2,19 +2,53 @@ package com.tutorial.redis.module14.shared.application.usecase;
 
 import com.tutorial.redis.module14.shared.domain.model.UniqueId;
 import com.tutorial.redis.module14.shared.domain.port.outbound.UniqueIdPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Application service for distributed unique ID generation.
  *
  * <p>Combines a Redis-backed atomic counter with the current timestamp
  * and a user-defined prefix to generate globally unique, sortable IDs
  * without coordination between application instances.</p>
+ *
+ * <p>Sequence numbers are leased from the counter in blocks (hi/lo): one {@code INCRBY}
+ * reserves a block, which is then handed out in-process with a lock-free
+ * {@code getAndIncrement}. When {@value #PREFETCH_PERCENT}% of a block is used, the
+ * next one is reserved on a background thread, so callers rarely wait for Redis. A block
+ * that lasted less than {@value #FAST_BLOCK_MILLIS} ms doubles the next block size (up to
+ * {@value #MAX_BLOCK_SIZE}); one that lasted more than {@value #SLOW_BLOCK_MILLIS} ms
+ * halves it (down to {@value #MIN_BLOCK_SIZE}).</p>
+ *
+ * <p>Sequences are unique across nodes and increase within a node; numbers left in a
+ * block when the node stops are skipped, so sequences may have gaps.</p>
  */
 @Service
-public class UniqueIdService {
+public class UniqueIdService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueIdService.class);
+
+    static final int MIN_BLOCK_SIZE = 100;
+    static final int MAX_BLOCK_SIZE = 100_000;
+    static final int PREFETCH_PERCENT = 80;
+    static final long FAST_BLOCK_MILLIS = 1_000;
+    static final long SLOW_BLOCK_MILLIS = 60_000;
 
     private final UniqueIdPort uniqueIdPort;
+    private final ConcurrentHashMap<String, SequenceBuffer> buffers = new ConcurrentHashMap<>();
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("uid-block-prefetch").daemon().factory());
 
     public UniqueIdService(UniqueIdPort uniqueIdPort) {
         this.uniqueIdPort = uniqueIdPort;
@@ -27,8 +61,103 @@ public class UniqueIdService {
      * @return a new {@link UniqueId} with sequence, timestamp, and prefix
      */
     public UniqueId generateId(String prefix) {
-        long sequence = uniqueIdPort.nextSequence("uid:" + prefix);
+        long sequence = buffers.computeIfAbsent("uid:" + prefix, SequenceBuffer::new).next();
         long timestamp = System.currentTimeMillis();
         return new UniqueId(prefix, sequence, timestamp);
     }
+
+    @Override
+    public void destroy() {
+        prefetcher.shutdownNow();
+    }
+
+    private record Block(long first, long last, long prefetchAt, AtomicLong next) {
+
+        static Block of(long last, int size) {
+            long first = last - size + 1;
+            return new Block(first, last, first + size * (long) PREFETCH_PERCENT / 100, new AtomicLong(first));
+        }
+    }
+
+    private final class SequenceBuffer {
+
+        private final String counterKey;
+        private volatile Block current;
+        private volatile CompletableFuture<Block> prefetched;
+        private volatile int blockSize = MIN_BLOCK_SIZE;
+        private volatile long lastReservedNanos;
+
+        SequenceBuffer(String counterKey) {
+            this.counterKey = counterKey;
+        }
+
+        long next() {
+            while (true) {
+                Block block = current;
+                if (block != null) {
+                    long sequence = block.next().getAndIncrement();
+                    if (sequence <= block.last()) {
+                        if (sequence == block.prefetchAt()) {
+                            prefetch();
+                        }
+                        return sequence;
+                    }
+                }
+                advance(block);
+            }
+        }
+
+        private synchronized void prefetch() {
+            if (prefetched == null && !prefetcher.isShutdown()) {
+                try {
+                    prefetched = CompletableFuture.supplyAsync(this::reserve, prefetcher);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Prefetcher stopped, {} will reserve its next block on demand", counterKey);
+                }
+            }
+        }
+
+        /**
+         * Replaces the exhausted block with the prefetched one, or reserves one now if
+         * the prefetch is missing or failed.
+         */
+        private synchronized void advance(Block exhausted) {
+            if (current != exhausted) {
+                return;
+            }
+            Block block = null;
+            CompletableFuture<Block> pending = prefetched;
+            prefetched = null;
+            if (pending != null) {
+                try {
+                    block = pending.join();
+                } catch (CompletionException e) {
+                    log.warn("Prefetching a block of {} failed, reserving one now", counterKey, e.getCause());
+                }
+            }
+            current = block != null ? block : reserve();
+        }
+
+        /**
+         * Runs on the prefetch thread or, holding the buffer's monitor, on a caller
+         * thread; never both at once, since a caller joins a pending prefetch first.
+         */
+        private Block reserve() {
+            long now = System.nanoTime();
+            int size = blockSize;
+            if (lastReservedNanos != 0) {
+                long lastedMillis = TimeUnit.NANOSECONDS.toMillis(now - lastReservedNanos);
+                if (lastedMillis < FAST_BLOCK_MILLIS) {
+                    size = Math.min(size * 2, MAX_BLOCK_SIZE);
+                } else if (lastedMillis > SLOW_BLOCK_MILLIS) {
+                    size = Math.max(size / 2, MIN_BLOCK_SIZE);
+                }
+            }
+            long last = uniqueIdPort.reserveBlock(counterKey, size);
+            blockSize = size;
+            lastReservedNanos = now;
+            log.debug("Reserved block [{}, {}] of {}", last - size + 1, last, counterKey);
+            return Block.of(last, size);
+        }
+    }
 }
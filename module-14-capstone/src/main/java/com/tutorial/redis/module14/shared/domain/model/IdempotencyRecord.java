@@ -5,10 +5,18 @@ package com.tutorial.redis.module14.shared.domain.model;
  *
  * <p>Stores the result of a previously processed operation along with
  * creation timestamp and time-to-live for automatic expiration in Redis.</p>
+ *
+ * <p>A record goes through {@link Status#IN_PROGRESS} (held by {@code ownerId} until its
+ * lease runs out) to {@link Status#COMPLETED}, with the response as {@code result}, or
+ * {@link Status#FAILED}, with the error message as {@code result}.</p>
  */
 public class IdempotencyRecord {
 
+    public enum Status { IN_PROGRESS, COMPLETED, FAILED }
+
     private String idempotencyKey;
+    private Status status = Status.COMPLETED;
+    private String ownerId;
     private String result;
     private long createdAt;
     private long ttlSeconds;
@@ -23,6 +31,13 @@ public class IdempotencyRecord {
         this.ttlSeconds = ttlSeconds;
     }
 
+    public IdempotencyRecord(String idempotencyKey, Status status, String ownerId, String result,
+                             long createdAt, long ttlSeconds) {
+        this(idempotencyKey, result, createdAt, ttlSeconds);
+        this.status = status;
+        this.ownerId = ownerId;
+    }
+
     public String getIdempotencyKey() {
         return idempotencyKey;
     }
@@ -31,6 +46,22 @@ public class IdempotencyRecord {
         this.idempotencyKey = idempotencyKey;
     }
 
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
     public String getResult() {
         return result;
     }
@@ -58,6 +89,7 @@ public class IdempotencyRecord {
     @Override
     public String toString() {
         return "IdempotencyRecord{idempotencyKey='" + idempotencyKey
+                + "', status=" + status + ", ownerId='" + ownerId
                 + "', result='" + result + "', createdAt=" + createdAt
                 + ", ttlSeconds=" + ttlSeconds + '}';
     }
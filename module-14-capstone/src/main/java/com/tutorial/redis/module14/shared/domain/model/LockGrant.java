@@ -0,0 +1,48 @@
+package com.tutorial.redis.module14.shared.domain.model;
+
+/**
+ * Outcome of a lock or semaphore acquisition.
+ *
+ * <p>A granted write lock carries a fencing token that is larger than every token
+ * issued for the same lock before; downstream systems can reject writes carrying an older
+ * token, which makes a holder whose lease silently expired harmless. Re-entering a lock
+ * returns the same token. A read lock carries the token of the latest write lock, and a
+ * semaphore permit carries 0.</p>
+ *
+ * <p>When not granted, {@code retryAfterMillis} is how long until the earliest current
+ * lease expires, a bound on how long to wait if no release is announced.</p>
+ */
+public class LockGrant {
+
+    private final boolean acquired;
+    private final long fencingToken;
+    private final long retryAfterMillis;
+
+    public LockGrant(boolean acquired, long fencingToken, long retryAfterMillis) {
+        this.acquired = acquired;
+        this.fencingToken = fencingToken;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public static LockGrant denied(long retryAfterMillis) {
+        return new LockGrant(false, 0, retryAfterMillis);
+    }
+
+    public boolean isAcquired() {
+        return acquired;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "LockGrant{acquired=%s, fencingToken=%d, retryAfterMillis=%d}"
+                .formatted(acquired, fencingToken, retryAfterMillis);
+    }
+}
@@ -0,0 +1,13 @@
+package com.tutorial.redis.module14.shared.domain.model;
+
+/**
+ * How a distributed lock is held.
+ *
+ * <p>{@link #WRITE} is exclusive and doubles as a plain mutex; {@link #READ} is shared
+ * with other readers but excludes writers. Both are reentrant per owner. A reader cannot
+ * upgrade to writer; a writer may also take the read lock.</p>
+ */
+public enum LockMode {
+    READ,
+    WRITE
+}
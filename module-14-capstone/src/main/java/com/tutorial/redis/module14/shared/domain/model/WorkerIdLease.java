@@ -0,0 +1,37 @@
+package com.tutorial.redis.module14.shared.domain.model;
+
+/**
+ * A Snowflake worker ID leased from Redis.
+ *
+ * <p>{@code lastTimestamp} is the last ID timestamp (epoch ms) a previous holder of the
+ * same worker ID reported or, if that holder's lease expired instead of being released,
+ * the later expiry of that lease; 0 if there was no holder. A new holder must not issue IDs
+ * at or before it, so IDs stay unique even if the previous holder's logical clock ran ahead
+ * of the wall clock.</p>
+ */
+public class WorkerIdLease {
+
+    private final int workerId;
+    private final long lastTimestamp;
+
+    public WorkerIdLease(int workerId, long lastTimestamp) {
+        if (workerId < 0) {
+            throw new IllegalArgumentException("workerId must not be negative, got: " + workerId);
+        }
+        this.workerId = workerId;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerIdLease{workerId=%d, lastTimestamp=%d}".formatted(workerId, lastTimestamp);
+    }
+}
@@ -1,13 +1,22 @@
 package com.tutorial.redis.module14.shared.domain.port.outbound;
 
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
+
 /**
  * Outbound port for distributed lock operations.
  *
  * <p>Provides atomic lock acquisition and release using Redis as the
  * coordination backend. Implementations must guarantee mutual exclusion
  * and support owner-based unlock to prevent accidental release.</p>
+ *
+ * <p>Beyond the plain lock, it offers reentrant read-write locks with fencing tokens and
+ * counting semaphores. Every holder has a lease that must be renewed. A fair acquisition
+ * that fails puts the caller in a FIFO queue; later fair callers cannot overtake it, and
+ * every release is announced to {@link KeyWatchPort#watch watchers}, as is a fair
+ * acquisition that leaves others queued behind.</p>
  */
-public interface DistributedLockPort {
+public interface DistributedLockPort extends KeyWatchPort {
 
     /**
      * Attempts to acquire a distributed lock.
@@ -27,4 +36,47 @@ public interface DistributedLockPort {
      * @return {@code true} if the lock was released, {@code false} otherwise
      */
     boolean unlock(String lockKey, String lockValue);
+
+    /**
+     * Attempts to acquire, or re-enter, a read or write lock.
+     *
+     * @param fair whether to respect, and on failure join, the lock's waiting queue
+     * @throws IllegalStateException if {@code owner} asks for the write lock while holding
+     *         the read lock, which would wait for itself
+     */
+    LockGrant tryAcquire(String lockKey, LockMode mode, String owner, long leaseMillis, boolean fair);
+
+    /**
+     * Releases one hold of a read or write lock.
+     *
+     * @return holds the owner still has (0 once fully released), or -1 if it held none or
+     *         its lease already ran out
+     */
+    int release(String lockKey, LockMode mode, String owner);
+
+    /**
+     * Extends the owner's lease.
+     *
+     * @return {@code false} if the owner no longer holds the lock
+     */
+    boolean renew(String lockKey, LockMode mode, String owner, long leaseMillis);
+
+    /**
+     * Attempts to take one of {@code permits} permits of a counting semaphore.
+     *
+     * @param holderId unique per acquisition
+     */
+    LockGrant tryAcquirePermit(String semaphoreKey, int permits, String holderId, long leaseMillis, boolean fair);
+
+    /**
+     * Returns a permit.
+     *
+     * @return {@code false} if the holder held none
+     */
+    boolean releasePermit(String semaphoreKey, String holderId);
+
+    /**
+     * Removes a waiter that gives up from the queue, so it does not block the others.
+     */
+    void leaveQueue(String key, String waiter);
 }
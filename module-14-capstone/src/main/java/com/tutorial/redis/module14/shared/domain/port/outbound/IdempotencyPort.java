@@ -1,12 +1,18 @@
 package com.tutorial.redis.module14.shared.domain.port.outbound;
 
+import com.tutorial.redis.module14.shared.domain.model.IdempotencyRecord;
+
 /**
  * Outbound port for idempotency operations.
  *
  * <p>Provides set-if-absent semantics backed by Redis to ensure that
- * operations are processed at most once within the specified TTL window.</p>
+ * operations are processed at most once within the specified TTL window,
+ * and records that track an operation from in progress to completed or failed.</p>
+ *
+ * <p>A record's key changes, for {@link KeyWatchPort#watch watchers}, when it is
+ * finished.</p>
  */
-public interface IdempotencyPort {
+public interface IdempotencyPort extends KeyWatchPort {
 
     /**
      * Sets a key-value pair only if the key does not already exist.
@@ -26,4 +32,36 @@ public interface IdempotencyPort {
      * @return the stored value, or {@code null} if not found
      */
     String get(String key);
+
+    /**
+     * Claims the record for {@code ownerId} unless it is completed or held by another
+     * owner whose lease has not run out. A failed record is claimed again.
+     *
+     * @return the record after the call; it is {@code IN_PROGRESS} with
+     *         {@code ownerId} as owner if the claim succeeded
+     */
+    IdempotencyRecord begin(String key, String ownerId, long leaseMillis, long ttlSeconds);
+
+    /**
+     * Extends the lease of a record {@code ownerId} holds in progress.
+     *
+     * @return {@code false} if the record is no longer held by {@code ownerId}
+     */
+    boolean renew(String key, String ownerId, long leaseMillis);
+
+    /**
+     * Stores the outcome if {@code ownerId} still holds the record, and notifies waiters.
+     *
+     * @param status {@code COMPLETED} or {@code FAILED}
+     * @param result the response, or the error message
+     * @return {@code false} if the record is no longer held by {@code ownerId}
+     */
+    boolean finish(String key, String ownerId, IdempotencyRecord.Status status, String result, long ttlSeconds);
+
+    /**
+     * Reads the record.
+     *
+     * @return the record, or {@code null} if not found
+     */
+    IdempotencyRecord find(String key);
 }
@@ -0,0 +1,24 @@
+package com.tutorial.redis.module14.shared.domain.port.outbound;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outbound port for change notifications on a key, so callers can wait for a change
+ * instead of polling.
+ *
+ * <p>Notifications are best effort: a caller must register before reading the state it
+ * waits on, so a change in between is not missed, and re-check after a while in case a
+ * notification is lost.</p>
+ */
+public interface KeyWatchPort {
+
+    /**
+     * Returns a future completed at the next change of {@code key}.
+     */
+    CompletableFuture<Void> watch(String key);
+
+    /**
+     * Stops watching, e.g. after a timeout.
+     */
+    void unwatch(String key, CompletableFuture<Void> watch);
+}
@@ -1,10 +1,15 @@
 package com.tutorial.redis.module14.shared.domain.port.outbound;
 
+import com.tutorial.redis.module14.shared.domain.model.WorkerIdLease;
+
+import java.util.Optional;
+
 /**
  * Outbound port for distributed unique ID generation.
  *
  * <p>Provides atomic counter increments via Redis to generate
- * monotonically increasing sequence numbers for unique ID composition.</p>
+ * monotonically increasing sequence numbers for unique ID composition,
+ * and leases of Snowflake worker IDs.</p>
  */
 public interface UniqueIdPort {
 
@@ -15,4 +20,34 @@ public interface UniqueIdPort {
      * @return the next sequence number (monotonically increasing)
      */
     long nextSequence(String counterKey);
+
+    /**
+     * Reserves the next {@code blockSize} sequence numbers of the counter in one step.
+     *
+     * @param counterKey the Redis key for the sequence counter
+     * @param blockSize  how many numbers to reserve
+     * @return the last number of the block; the block is {@code [last - blockSize + 1, last]}
+     */
+    long reserveBlock(String counterKey, int blockSize);
+
+    /**
+     * Leases a worker ID in {@code [0, maxWorkers)} not held by anyone else. The lease
+     * carries the previous holder's last timestamp or, if its lease expired, the later
+     * expiry of that lease.
+     *
+     * @return the lease, or empty if every worker ID is taken
+     */
+    Optional<WorkerIdLease> leaseWorkerId(String ownerId, int maxWorkers, long ttlMillis);
+
+    /**
+     * Extends the lease and records the last timestamp used.
+     *
+     * @return false if the lease has expired or is now held by another owner
+     */
+    boolean renewWorkerId(int workerId, String ownerId, long ttlMillis, long lastTimestamp);
+
+    /**
+     * Gives the worker ID up, recording the last timestamp used for the next holder.
+     */
+    void releaseWorkerId(int workerId, String ownerId, long lastTimestamp);
 }
@@ -4,7 +4,10 @@ import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,4 +60,47 @@ class RedisCartAdapterTest extends AbstractRedisIntegrationTest {
         Map<String, String> items = adapter.getAllItems(cartKey);
         assertThat(items).isEmpty();
     }
+
+    // 驗證閒置超過期限的購物車被移除並發布至 Stream，近期異動的購物車保留
+    @Test
+    @DisplayName("removeAbandonedCarts_WhenIdle_PublishesAndDeletes — 移除閒置購物車並發布至 Stream")
+    void removeAbandonedCarts_WhenIdle_PublishesAndDeletes() {
+        // Arrange
+        adapter.addItem("ecommerce:cart:idle-customer", "p1", "p1|Widget|10.0|2");
+        adapter.addItem("ecommerce:cart:active-customer", "p2", "p2|Gadget|25.5|1");
+        stringRedisTemplate.opsForZSet().add("ecommerce:cart-activity", "ecommerce:cart:idle-customer", 1_000);
+
+        // Act
+        int removed = adapter.removeAbandonedCarts(System.currentTimeMillis() - 60_000, 10);
+
+        // Assert
+        assertThat(removed).isEqualTo(1);
+        assertThat(adapter.getAllItems("ecommerce:cart:idle-customer")).isEmpty();
+        assertThat(adapter.getAllItems("ecommerce:cart:active-customer")).containsKey("p2");
+        List<MapRecord<String, Object, Object>> events = stringRedisTemplate.opsForStream()
+                .range("ecommerce:carts:abandoned", Range.unbounded());
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().getValue())
+                .containsEntry("cartKey", "ecommerce:cart:idle-customer")
+                .containsEntry("p1", "p1|Widget|10.0|2");
+        assertThat(stringRedisTemplate.opsForZSet().size("ecommerce:cart-activity")).isEqualTo(1);
+    }
+
+    // 驗證索引建立前既有的購物車（活動 Sorted Set 中無分數）在首次讀取時被補入索引，之後可被清掃
+    @Test
+    @DisplayName("getAllItems_WhenCartNotIndexed_AddsToActivityIndex — 未被索引的購物車讀取後補入活動索引")
+    void getAllItems_WhenCartNotIndexed_AddsToActivityIndex() {
+        // Arrange
+        stringRedisTemplate.opsForHash().put("ecommerce:cart:old-customer", "p1", "p1|Widget|10.0|2");
+
+        // Act
+        Map<String, String> items = adapter.getAllItems("ecommerce:cart:old-customer");
+
+        // Assert
+        assertThat(items).containsKey("p1");
+        assertThat(stringRedisTemplate.opsForZSet().score("ecommerce:cart-activity", "ecommerce:cart:old-customer"))
+                .isNotNull();
+        assertThat(adapter.removeAbandonedCarts(System.currentTimeMillis() + 1_000, 10)).isEqualTo(1);
+        assertThat(adapter.getAllItems("ecommerce:cart:old-customer")).isEmpty();
+    }
 }
@@ -1,6 +1,7 @@
 package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +13,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 /**
  * RedisGeoAdapter 整合測試類別。
  * 驗證使用 Redis GEO 資料結構進行地理位置新增與附近搜尋功能。
- * 展示 GEOADD/GEORADIUS 在電商門市定位場景的應用。
+ * 展示 GEOADD/GEOSEARCH 在電商門市定位場景的應用，以及以變更串流增量更新程序內索引。
  * 所屬：電商子系統 — adapter 層
  */
 @DisplayName("RedisGeoAdapter 整合測試")
@@ -41,4 +42,46 @@ class RedisGeoAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(nearby).contains("store-taipei-main", "store-101");
         assertThat(nearby).doesNotContain("store-taichung");
     }
+
+    // 驗證 k 近鄰搜尋依距離由近到遠回傳指定數量的門市
+    @Test
+    @DisplayName("findNearest_ReturnsClosestFirst — 最近門市搜尋依距離排序")
+    void findNearest_ReturnsClosestFirst() {
+        // Arrange
+        String key = "ecommerce:stores";
+        adapter.addLocation(key, 121.5170, 25.0478, "store-taipei-main");
+        adapter.addLocation(key, 121.5654, 25.0340, "store-101");
+        adapter.addLocation(key, 120.6736, 24.1477, "store-taichung");
+
+        // Act
+        List<String> nearest = adapter.findNearest(key, 120.7, 24.2, 2);
+
+        // Assert — Taichung first, then the closer of the Taipei stores
+        assertThat(nearest).containsExactly("store-taichung", "store-taipei-main");
+    }
+
+    // 驗證載入索引後，新增與刪除門市可由變更串流增量套用，結果與重新完整載入一致
+    @Test
+    @DisplayName("refreshIndex_AppliesChangesIncrementally — 索引依變更串流增量更新")
+    void refreshIndex_AppliesChangesIncrementally() {
+        // Arrange — index two stores
+        String key = "ecommerce:stores";
+        adapter.addLocation(key, 121.5170, 25.0478, "store-taipei-main");
+        adapter.addLocation(key, 121.5654, 25.0340, "store-101");
+        GeoGridIndex index = adapter.loadIndex(key);
+        assertThat(index.getChangeSequence()).isEqualTo(2);
+
+        // Act — one new store, one removal
+        adapter.addLocation(key, 121.5436, 25.0330, "store-daan");
+        assertThat(adapter.removeLocation(key, "store-101")).isTrue();
+        GeoGridIndex refreshed = adapter.refreshIndex(key, index);
+
+        // Assert
+        assertThat(refreshed.getChangeSequence()).isEqualTo(4);
+        assertThat(refreshed.withinRadius(121.5170, 25.0478, 10.0))
+                .containsExactly("store-taipei-main", "store-daan");
+        assertThat(refreshed.withinRadius(121.5170, 25.0478, 10.0))
+                .containsExactlyElementsOf(adapter.findNearby(key, 121.5170, 25.0478, 10.0));
+        assertThat(adapter.refreshIndex(key, refreshed)).isSameAs(refreshed);
+    }
 }
@@ -0,0 +1,110 @@
+package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoLocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 程序內地理格網索引效能量測類別。
+ * 以 10,000 間門市比較 Redis GEOSEARCH 與本地索引的半徑查詢與最近門市查詢 QPS，
+ * 並量測 100,000 位顧客批次查詢最近門市的逐筆 Redis 與本地平行查詢耗時。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬：電商子系統 — adapter 層
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("程序內地理索引效能量測")
+class RedisGeoIndexBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisGeoIndexBenchmarkTest.class);
+
+    private static final String KEY = "benchmark:stores";
+    private static final int STORES = 10_000;
+    private static final int QUERIES = 5_000;
+    private static final int CUSTOMERS = 100_000;
+
+    @Autowired
+    private RedisGeoAdapter adapter;
+
+    // 比較 Redis 與本地索引的查詢 QPS，以及批次最近門市查詢耗時
+    @Test
+    @DisplayName("queries_LocalVsRemote_ComparesQps — 本地索引與 Redis 查詢 QPS 比較")
+    void queries_LocalVsRemote_ComparesQps() {
+        // Arrange — stores spread over Taiwan
+        Random random = new Random(11);
+        for (int i = 0; i < STORES; i++) {
+            adapter.addLocation(KEY, 120.2 + random.nextDouble() * 1.8, 22.0 + random.nextDouble() * 3.2, "store-" + i);
+        }
+        GeoGridIndex index = adapter.loadIndex(KEY);
+        double[][] points = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = new double[]{120.2 + random.nextDouble() * 1.8, 22.0 + random.nextDouble() * 3.2};
+        }
+
+        // Act — radius 3 km and 5 nearest, remote then local
+        long start = System.nanoTime();
+        for (double[] p : points) {
+            adapter.findNearby(KEY, p[0], p[1], 3.0);
+        }
+        double remoteRadiusQps = QUERIES / ((System.nanoTime() - start) / 1e9);
+        start = System.nanoTime();
+        for (double[] p : points) {
+            index.withinRadius(p[0], p[1], 3.0);
+        }
+        double localRadiusQps = QUERIES / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (double[] p : points) {
+            adapter.findNearest(KEY, p[0], p[1], 5);
+        }
+        double remoteKnnQps = QUERIES / ((System.nanoTime() - start) / 1e9);
+        start = System.nanoTime();
+        for (double[] p : points) {
+            index.nearest(p[0], p[1], 5);
+        }
+        double localKnnQps = QUERIES / ((System.nanoTime() - start) / 1e9);
+
+        // Act — nearest store for 100k customers: sample of remote calls vs parallel local
+        List<GeoLocation> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new GeoLocation("customer-" + i, null,
+                    120.2 + random.nextDouble() * 1.8, 22.0 + random.nextDouble() * 3.2));
+        }
+        start = System.nanoTime();
+        for (GeoLocation customer : customers.subList(0, QUERIES)) {
+            adapter.findNearest(KEY, customer.getLongitude(), customer.getLatitude(), 1);
+        }
+        double remoteBulkSeconds = (System.nanoTime() - start) / 1e9 * CUSTOMERS / QUERIES;
+        start = System.nanoTime();
+        List<String> nearest = customers.parallelStream()
+                .map(c -> index.nearest(c.getLongitude(), c.getLatitude(), 1).getFirst())
+                .toList();
+        double localBulkSeconds = (System.nanoTime() - start) / 1e9;
+
+        report.line("%,d stores, %,d queries", STORES, QUERIES);
+        report.line("  radius 3 km   Redis GEOSEARCH: %,12.0f q/s   local index: %,12.0f q/s",
+                remoteRadiusQps, localRadiusQps);
+        report.line("  5 nearest     Redis GEOSEARCH: %,12.0f q/s   local index: %,12.0f q/s",
+                remoteKnnQps, localKnnQps);
+        report.line("  nearest store for %,d customers: Redis (extrapolated) %6.2f s, local parallel %6.3f s",
+                CUSTOMERS, remoteBulkSeconds, localBulkSeconds);
+
+        // Assert — local answers agree with Redis
+        for (int i = 0; i < 50; i++) {
+            double[] p = points[i];
+            assertThat(index.withinRadius(p[0], p[1], 3.0))
+                    .containsExactlyElementsOf(adapter.findNearby(KEY, p[0], p[1], 3.0));
+        }
+        assertThat(nearest).hasSize(CUSTOMERS);
+    }
+}
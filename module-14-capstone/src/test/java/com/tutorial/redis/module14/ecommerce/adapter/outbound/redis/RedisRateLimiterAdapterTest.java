@@ -2,16 +2,19 @@ package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * RedisRateLimiterAdapter 整合測試類別。
- * 驗證使用 Redis 實作的滑動視窗速率限制器功能。
- * 展示 Redis INCR 搭配 EXPIRE 實現 API 限流的技術。
+ * 驗證使用 Redis 實作的 GCRA 與滑動視窗日誌速率限制器功能。
+ * 展示單一 Lua 腳本原子性檢查多層限制（全域 + 客戶端）與歸還租約權杖的技術。
  * 所屬：電商子系統 — adapter 層
  */
 @DisplayName("RedisRateLimiterAdapter 整合測試")
@@ -52,4 +55,63 @@ class RedisRateLimiterAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(result.getRemainingTokens()).isEqualTo(0);
         assertThat(result.getRetryAfterMs()).isGreaterThan(0);
     }
+
+    // 驗證全域限制拒絕請求時，客戶端層級的限制不應被扣除
+    @Test
+    @DisplayName("tryAcquire_GlobalLimitReached_ClientNotCharged — 全域限制拒絕時不應扣除客戶端額度")
+    void tryAcquire_GlobalLimitReached_ClientNotCharged() {
+        // Arrange — the global limit of 2 is used up by client-a
+        RateLimitRule global = new RateLimitRule("ecommerce:ratelimit:{global}:limit", RateLimitRule.Algorithm.GCRA, 2, 60_000);
+        RateLimitRule clientA = new RateLimitRule("ecommerce:ratelimit:{global}:client-a", RateLimitRule.Algorithm.GCRA, 5, 60_000);
+        RateLimitRule clientB = new RateLimitRule("ecommerce:ratelimit:{global}:client-b", RateLimitRule.Algorithm.GCRA, 5, 60_000);
+        adapter.tryAcquire(List.of(global, clientA), 1, "lease-1");
+        adapter.tryAcquire(List.of(global, clientA), 1, "lease-2");
+
+        // Act
+        RateLimitResult result = adapter.tryAcquire(List.of(global, clientB), 1, "lease-3");
+
+        // Assert
+        assertThat(result.isAllowed()).isFalse();
+        assertThat(result.getRetryAfterMs()).isGreaterThan(0);
+        assertThat(stringRedisTemplate.hasKey("ecommerce:ratelimit:{global}:client-b")).isFalse();
+    }
+
+    // 驗證滑動視窗日誌演算法在視窗內精確限制請求數，並回報最舊記錄到期的等待時間
+    @Test
+    @DisplayName("tryAcquire_SlidingLog_EnforcesLimitWithinWindow — 滑動視窗日誌應精確限制視窗內請求數")
+    void tryAcquire_SlidingLog_EnforcesLimitWithinWindow() {
+        // Arrange
+        RateLimitRule rule = new RateLimitRule("ecommerce:ratelimit:log-client:log", RateLimitRule.Algorithm.SLIDING_LOG, 3, 60_000);
+
+        // Act
+        RateLimitResult first = adapter.tryAcquire(List.of(rule), 1, "lease-1");
+        RateLimitResult second = adapter.tryAcquire(List.of(rule), 2, "lease-2");
+        RateLimitResult denied = adapter.tryAcquire(List.of(rule), 1, "lease-3");
+
+        // Assert
+        assertThat(first.getRemainingTokens()).isEqualTo(2);
+        assertThat(second.isAllowed()).isTrue();
+        assertThat(second.getRemainingTokens()).isEqualTo(0);
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getRetryAfterMs()).isBetween(1L, 60_000L);
+        assertThat(stringRedisTemplate.opsForZSet().zCard(rule.getKey())).isEqualTo(3);
+    }
+
+    // 驗證歸還未使用的租約權杖後，後續請求應可再次取得額度
+    @Test
+    @DisplayName("release_UnusedTokens_AvailableAgain — 歸還未使用的權杖後應可再次取得")
+    void release_UnusedTokens_AvailableAgain() {
+        // Arrange — lease the whole limit
+        RateLimitRule rule = new RateLimitRule("ecommerce:ratelimit:lease-client", RateLimitRule.Algorithm.GCRA, 10, 60_000);
+        assertThat(adapter.tryAcquire(List.of(rule), 10, "lease-1").isAllowed()).isTrue();
+        assertThat(adapter.tryAcquire(List.of(rule), 1, "lease-2").isAllowed()).isFalse();
+
+        // Act
+        adapter.release(List.of(rule), "lease-1", 10, 5);
+        RateLimitResult result = adapter.tryAcquire(List.of(rule), 1, "lease-3");
+
+        // Assert
+        assertThat(result.isAllowed()).isTrue();
+        assertThat(result.getRemainingTokens()).isEqualTo(4);
+    }
 }
@@ -0,0 +1,135 @@
+package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module14.ecommerce.application.usecase.RateLimitService;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitPolicy;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 速率限制器效能與精確度量測類別。
+ * 比較每次請求皆執行 Lua 腳本與本地租約模式的單次請求開銷，
+ * 並以三個節點合計每秒 20,000 次請求量測 GCRA 與滑動視窗日誌實際放行數與理論值的誤差。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬：電商子系統 — adapter 層
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("速率限制器效能與精確度量測")
+class RedisRateLimiterBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisRateLimiterBenchmarkTest.class);
+
+    private static final int REQUESTS = 20_000;
+    private static final int TARGET_RPS = 20_000;
+    private static final int SECONDS = 3;
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 6;
+    private static final int LIMIT_PER_SECOND = 5_000;
+    private static final int LEASE_SIZE = 50;
+
+    @Autowired
+    private RedisRateLimiterAdapter adapter;
+
+    // 比較直接存取 Redis 與本地租約模式的每次請求平均開銷
+    @Test
+    @DisplayName("checkRateLimit_DirectVsLeased_ComparesOverhead — 直接與租約模式的單次請求開銷比較")
+    void checkRateLimit_DirectVsLeased_ComparesOverhead() {
+        // Arrange — a limit high enough that nothing is rejected
+        RateLimitPolicy direct = new RateLimitPolicy(RateLimitRule.Algorithm.GCRA, 1_000_000, 0, 60, 0);
+        RateLimitPolicy leased = new RateLimitPolicy(RateLimitRule.Algorithm.GCRA, 1_000_000, 0, 60, LEASE_SIZE);
+        RateLimitService service = new RateLimitService(adapter);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            service.checkRateLimit("overhead-direct", direct);
+        }
+        double directMicros = (System.nanoTime() - start) / 1e3 / REQUESTS;
+        start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            service.checkRateLimit("overhead-leased", leased);
+        }
+        double leasedMicros = (System.nanoTime() - start) / 1e3 / REQUESTS;
+        service.destroy();
+
+        report.line("%,d requests, one client", REQUESTS);
+        report.line("  one script call per request: %8.2f µs/request", directMicros);
+        report.line("  lease of %d tokens:           %8.2f µs/request", LEASE_SIZE, leasedMicros);
+
+        // Assert
+        assertThat(leasedMicros).isLessThan(directMicros);
+    }
+
+    // 以三個節點合計每秒 20,000 次請求，量測各演算法與模式的實際放行數與理論值誤差
+    @Test
+    @DisplayName("checkRateLimit_At20kRps_MeasuresAccuracy — 每秒 20,000 次請求下的限流精確度")
+    void checkRateLimit_At20kRps_MeasuresAccuracy() throws InterruptedException {
+        report.line("%d nodes, %,d requests/s for %d s, limit %,d/s",
+                NODES, TARGET_RPS, SECONDS, LIMIT_PER_SECOND);
+        for (RateLimitRule.Algorithm algorithm : RateLimitRule.Algorithm.values()) {
+            for (int leaseSize : new int[]{0, LEASE_SIZE}) {
+                // Arrange
+                RateLimitPolicy policy = new RateLimitPolicy(algorithm, LIMIT_PER_SECOND, 0, 1, leaseSize);
+                String client = "accuracy-" + algorithm + "-" + leaseSize;
+
+                // Act
+                long[] counts = drive(client, policy);
+
+                // Assert — GCRA also admits one burst of the limit on top of the rate
+                long expected = (long) LIMIT_PER_SECOND * SECONDS
+                        + (algorithm == RateLimitRule.Algorithm.GCRA ? LIMIT_PER_SECOND : 0);
+                double error = 100.0 * (counts[0] - expected) / expected;
+                report.line("  %-11s lease %3d: offered %,7d (%,6.0f/s), admitted %,7d, expected %,7d, error %+6.2f%%",
+                        algorithm, leaseSize, counts[1], counts[1] / (double) SECONDS, counts[0], expected, error);
+                assertThat(counts[0]).isLessThanOrEqualTo(expected + LIMIT_PER_SECOND / 10);
+            }
+        }
+    }
+
+    /**
+     * Sends paced requests from every node's threads; returns {admitted, offered}.
+     */
+    private long[] drive(String client, RateLimitPolicy policy) throws InterruptedException {
+        AtomicLong admitted = new AtomicLong();
+        AtomicLong offered = new AtomicLong();
+        int threads = NODES * THREADS_PER_NODE;
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) * threads / TARGET_RPS;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        long end = start + TimeUnit.SECONDS.toNanos(SECONDS);
+        List<RateLimitService> nodes = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int n = 0; n < NODES; n++) {
+            RateLimitService node = new RateLimitService(adapter);
+            nodes.add(node);
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                long offset = periodNanos * (n * THREADS_PER_NODE + t) / threads;
+                workers.add(Thread.ofPlatform().start(() -> {
+                    for (long next = start + offset; next < end; next += periodNanos) {
+                        LockSupport.parkNanos(next - System.nanoTime());
+                        offered.incrementAndGet();
+                        if (node.checkRateLimit(client, policy).isAllowed()) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        nodes.forEach(RateLimitService::destroy);
+        return new long[]{admitted.get(), offered.get()};
+    }
+}
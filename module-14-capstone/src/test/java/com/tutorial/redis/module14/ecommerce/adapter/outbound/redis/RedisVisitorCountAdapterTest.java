@@ -36,4 +36,23 @@ class RedisVisitorCountAdapterTest extends AbstractRedisIntegrationTest {
         // Assert — HyperLogLog should report approximately 3 unique visitors
         assertThat(uniqueCount).isEqualTo(3);
     }
+
+    // 驗證緩衝記錄在 flush 前不寫入 Redis，flush 後以批次 PFADD 寫入且重複訪客只計一次
+    @Test
+    @DisplayName("recordVisitBuffered_VisibleAfterFlush — 緩衝訪客於 flush 後才可查得")
+    void recordVisitBuffered_VisibleAfterFlush() {
+        // Arrange — buffer 3 unique visitors on a page that is only flushed explicitly
+        String pageId = "buffered-" + System.nanoTime();
+        adapter.recordVisitBuffered(pageId, "visitor-1");
+        adapter.recordVisitBuffered(pageId, "visitor-2");
+        adapter.recordVisitBuffered(pageId, "visitor-3");
+        adapter.recordVisitBuffered(pageId, "visitor-1"); // duplicate
+
+        // Act — flush-on-read for this page
+        adapter.flush(pageId);
+        long uniqueCount = adapter.getUniqueVisitorCount(pageId);
+
+        // Assert
+        assertThat(uniqueCount).isEqualTo(3);
+    }
 }
@@ -0,0 +1,82 @@
+package com.tutorial.redis.module14.ecommerce.adapter.outbound.redis;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RedisVisitorCountAdapter 寫入效能量測類別。
+ * 以每秒 50,000 次瀏覽（200 個頁面、20,000 位訪客）持續 1 秒，比較每次瀏覽一次 PFADD
+ * 與本地去重緩衝後以管線批次 PFADD 寫入的 Redis 往返次數與耗時。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬：電商子系統 — adapter 層
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("RedisVisitorCountAdapter 寫入效能量測")
+class RedisVisitorCountBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(RedisVisitorCountBenchmarkTest.class);
+
+    private static final int VIEWS_PER_SECOND = 50_000;
+    private static final int PAGES = 200;
+    private static final int VISITORS = 20_000;
+
+    @Autowired
+    private RedisVisitorCountAdapter adapter;
+
+    // 比較逐次 PFADD 與緩衝批次 PFADD 在 50k views/sec 下的往返次數與實際耗時
+    @Test
+    @DisplayName("recordVisits_50kViewsPerSecond_ComparesRoundTrips — 逐次與緩衝寫入往返次數比較")
+    void recordVisits_50kViewsPerSecond_ComparesRoundTrips() {
+        // Arrange — the same pseudo-random views for both runs
+        long seed = ThreadLocalRandom.current().nextLong();
+
+        // Act — one PFADD round trip per view, issued as fast as possible
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        for (int i = 0; i < VIEWS_PER_SECOND; i++) {
+            adapter.recordVisit("direct-" + random.nextInt(PAGES), "visitor-" + random.nextInt(VISITORS));
+        }
+        double directSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Act — buffered, paced at 50k views/sec over one second
+        adapter.flush();
+        long pipelinesBefore = adapter.flushedPipelines();
+        random = new Random(seed);
+        start = System.nanoTime();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / VIEWS_PER_SECOND;
+        for (int i = 0; i < VIEWS_PER_SECOND; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            adapter.recordVisitBuffered("buffered-" + random.nextInt(PAGES), "visitor-" + random.nextInt(VISITORS));
+        }
+        adapter.flush();
+        double bufferedSeconds = (System.nanoTime() - start) / 1e9;
+        long pipelines = adapter.flushedPipelines() - pipelinesBefore;
+
+        report.line("%,d views over %d pages", VIEWS_PER_SECOND, PAGES);
+        report.line("  before  PFADD per view:      %,8d round trips, %6.2f s (unpaced)",
+                VIEWS_PER_SECOND, directSeconds);
+        report.line("  after   buffered PFADD:      %,8d round trips, %6.2f s (paced at %,d/s)",
+                pipelines, bufferedSeconds, VIEWS_PER_SECOND);
+
+        // Assert — both paths produce the same sketches
+        for (int page = 0; page < 5; page++) {
+            assertThat(adapter.getUniqueVisitorCount("buffered-" + page))
+                    .isEqualTo(adapter.getUniqueVisitorCount("direct-" + page));
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -68,4 +69,22 @@ class CartServiceTest {
                 .containsExactlyInAnyOrder("p1", "p2");
         verify(cartPort).getAllItems("ecommerce:cart:customer-1");
     }
+
+    // 驗證清掃放棄購物車時以閒置期限計算截止時間，分批呼叫 CartPort，批次未滿即停止
+    @Test
+    @DisplayName("sweepAbandonedCarts_StopsAfterPartialBatch — 分批清掃，批次未滿時停止")
+    void sweepAbandonedCarts_StopsAfterPartialBatch() {
+        // Arrange
+        long now = 1_700_000_000_000L;
+        long idleBefore = now - CartService.ABANDONED_AFTER_MS;
+        when(cartPort.removeAbandonedCarts(idleBefore, CartService.SWEEP_BATCH_SIZE))
+                .thenReturn(CartService.SWEEP_BATCH_SIZE, 3);
+
+        // Act
+        int removed = cartService.sweepAbandonedCarts(now);
+
+        // Assert
+        assertThat(removed).isEqualTo(CartService.SWEEP_BATCH_SIZE + 3);
+        verify(cartPort, times(2)).removeAbandonedCarts(idleBefore, CartService.SWEEP_BATCH_SIZE);
+    }
 }
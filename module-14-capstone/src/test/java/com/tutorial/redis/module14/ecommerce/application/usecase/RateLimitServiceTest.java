@@ -1,6 +1,8 @@
 package com.tutorial.redis.module14.ecommerce.application.usecase;
 
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitPolicy;
 import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitResult;
+import com.tutorial.redis.module14.ecommerce.domain.model.RateLimitRule;
 import com.tutorial.redis.module14.ecommerce.domain.port.outbound.RateLimiterPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,7 +11,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,4 +57,68 @@ class RateLimitServiceTest {
         assertThat(result.getRemainingTokens()).isEqualTo(9);
         verify(rateLimiterPort).tryAcquire("ecommerce:ratelimit:client-1", 10, 60);
     }
+
+    // 驗證設定全域上限時，全域與客戶端兩層規則應在同一次呼叫中一併檢查
+    @Test
+    @DisplayName("checkRateLimit_WithGlobalLimit_ChecksBothLevelsAtOnce — 全域與客戶端限制應一次檢查")
+    void checkRateLimit_WithGlobalLimit_ChecksBothLevelsAtOnce() {
+        // Arrange
+        RateLimitPolicy policy = new RateLimitPolicy(RateLimitRule.Algorithm.GCRA, 10, 1000, 60, 0);
+        when(rateLimiterPort.tryAcquire(anyList(), eq(1), anyString()))
+                .thenReturn(new RateLimitResult(true, 9, 0));
+
+        // Act
+        RateLimitResult result = rateLimitService.checkRateLimit("client-1", policy);
+
+        // Assert
+        assertThat(result.isAllowed()).isTrue();
+        verify(rateLimiterPort).tryAcquire(argThat((List<RateLimitRule> rules) -> rules.size() == 2
+                        && rules.get(0).getKey().equals("ecommerce:ratelimit:{global}:limit")
+                        && rules.get(0).getLimit() == 1000
+                        && rules.get(1).getKey().equals("ecommerce:ratelimit:{global}:client-1")
+                        && rules.get(1).getLimit() == 10),
+                eq(1), anyString());
+    }
+
+    // 驗證租約模式下，熱門客戶端的後續請求應由本地租約供應，而不必每次存取 Redis
+    @Test
+    @DisplayName("checkRateLimit_HotClient_ServedFromLease — 熱門客戶端應由本地租約供應權杖")
+    void checkRateLimit_HotClient_ServedFromLease() {
+        // Arrange
+        RateLimitPolicy policy = new RateLimitPolicy(RateLimitRule.Algorithm.GCRA, 100, 0, 60, 5);
+        when(rateLimiterPort.tryAcquire(anyList(), eq(1), anyString()))
+                .thenReturn(new RateLimitResult(true, 99, 0));
+        when(rateLimiterPort.tryAcquire(anyList(), eq(5), anyString()))
+                .thenReturn(new RateLimitResult(true, 94, 0));
+
+        // Act — the first request is single, the second leases 5 and the next 4 use the lease
+        for (int i = 0; i < 6; i++) {
+            assertThat(rateLimitService.checkRateLimit("client-1", policy).isAllowed()).isTrue();
+        }
+
+        // Assert
+        verify(rateLimiterPort, times(1)).tryAcquire(anyList(), eq(1), anyString());
+        verify(rateLimiterPort, times(1)).tryAcquire(anyList(), eq(5), anyString());
+    }
+
+    // 驗證服務關閉時，尚未使用的租約權杖應歸還給 Redis
+    @Test
+    @DisplayName("destroy_GivesBackUnusedLeasedTokens — 關閉時應歸還未使用的租約權杖")
+    void destroy_GivesBackUnusedLeasedTokens() {
+        // Arrange — a lease of 5 tokens with one used
+        RateLimitPolicy policy = new RateLimitPolicy(RateLimitRule.Algorithm.SLIDING_LOG, 100, 0, 60, 5);
+        when(rateLimiterPort.tryAcquire(anyList(), eq(1), anyString()))
+                .thenReturn(new RateLimitResult(true, 99, 0));
+        when(rateLimiterPort.tryAcquire(anyList(), eq(5), anyString()))
+                .thenReturn(new RateLimitResult(true, 94, 0));
+        rateLimitService.checkRateLimit("client-1", policy);
+        rateLimitService.checkRateLimit("client-1", policy);
+
+        // Act
+        rateLimitService.destroy();
+
+        // Assert
+        verify(rateLimiterPort).release(anyList(), anyString(), eq(5), eq(4));
+        verify(rateLimiterPort, never()).release(anyList(), anyString(), eq(1), eq(1));
+    }
 }
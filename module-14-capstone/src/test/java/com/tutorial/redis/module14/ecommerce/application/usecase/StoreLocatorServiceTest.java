@@ -0,0 +1,92 @@
+package com.tutorial.redis.module14.ecommerce.application.usecase;
+
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoGridIndex;
+import com.tutorial.redis.module14.ecommerce.domain.model.GeoLocation;
+import com.tutorial.redis.module14.ecommerce.domain.port.outbound.GeoPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * StoreLocatorService 應用層單元測試類別。
+ * 驗證門市定位服務在索引尚未載入時改查 Redis，載入後改由程序內索引回答。
+ * 展示程序內地理索引搭配 Redis 後備查詢的應用層邏輯。
+ * 所屬：電商子系統 — application 層
+ */
+@DisplayName("StoreLocatorService 單元測試")
+@ExtendWith(MockitoExtension.class)
+class StoreLocatorServiceTest {
+
+    @Mock
+    private GeoPort geoPort;
+
+    @InjectMocks
+    private StoreLocatorService storeLocatorService;
+
+    // 驗證尚未載入索引時，附近門市搜尋委派給 GeoPort（Redis GEOSEARCH）
+    @Test
+    @DisplayName("findNearbyStores_WithoutIndex_FallsBackToRedis — 無索引時改查 Redis")
+    void findNearbyStores_WithoutIndex_FallsBackToRedis() {
+        // Arrange
+        when(geoPort.findNearby("ecommerce:stores", 121.5, 25.0, 5.0)).thenReturn(List.of("store-1"));
+
+        // Act
+        List<String> stores = storeLocatorService.findNearbyStores(121.5, 25.0, 5.0);
+
+        // Assert
+        assertThat(stores).containsExactly("store-1");
+    }
+
+    // 驗證載入索引後，批次查詢每位顧客最近門市由本地索引回答，不再呼叫 Redis
+    @Test
+    @DisplayName("findNearestStoreForEach_WithIndex_AnswersLocally — 載入索引後於本地回答")
+    void findNearestStoreForEach_WithIndex_AnswersLocally() {
+        // Arrange
+        when(geoPort.loadIndex("ecommerce:stores")).thenReturn(GeoGridIndex.build(List.of(
+                new GeoLocation("store-taipei", null, 121.5170, 25.0478),
+                new GeoLocation("store-taichung", null, 120.6736, 24.1477)), "0-0", 0));
+        storeLocatorService.refreshStoreIndex();
+
+        // Act
+        List<String> nearest = storeLocatorService.findNearestStoreForEach(List.of(
+                new GeoLocation("customer-1", null, 121.50, 25.03),
+                new GeoLocation("customer-2", null, 120.70, 24.20)));
+
+        // Assert
+        assertThat(nearest).containsExactly("store-taipei", "store-taichung");
+        verify(geoPort, never()).findNearest(anyString(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    // 驗證新增門市寫入 Redis 後，即使隨後的索引刷新失敗也不拋出例外（交由排程刷新補上）
+    @Test
+    @DisplayName("addStore_RefreshFails_StoreStillAdded — 刷新失敗時僅記錄不拋出")
+    void addStore_RefreshFails_StoreStillAdded() {
+        // Arrange
+        when(geoPort.loadIndex("ecommerce:stores")).thenReturn(GeoGridIndex.build(List.of(), "0-0", 0));
+        storeLocatorService.refreshStoreIndex();
+        when(geoPort.refreshIndex(eq("ecommerce:stores"), any()))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        // Act & Assert
+        assertThatCode(() -> storeLocatorService.addStore(
+                new GeoLocation("store-taipei", null, 121.5170, 25.0478)))
+                .doesNotThrowAnyException();
+        verify(geoPort).addLocation("ecommerce:stores", 121.5170, 25.0478, "store-taipei");
+    }
+}
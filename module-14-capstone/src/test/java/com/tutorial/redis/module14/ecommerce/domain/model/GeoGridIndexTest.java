@@ -0,0 +1,99 @@
+package com.tutorial.redis.module14.ecommerce.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GeoGridIndex 領域模型單元測試類別。
+ * 驗證格網空間索引的半徑查詢、k 近鄰查詢與增量更新結果與暴力計算一致，不依賴 Redis。
+ * 展示以排序基本型別陣列實作的程序內地理索引。
+ * 所屬：電商子系統 — domain 層
+ */
+@DisplayName("GeoGridIndex 單元測試")
+class GeoGridIndexTest {
+
+    // 驗證隨機門市的半徑查詢結果與暴力計算相同，且依距離由近到遠排序
+    @Test
+    @DisplayName("withinRadius_MatchesBruteForce — 半徑查詢與暴力計算一致")
+    void withinRadius_MatchesBruteForce() {
+        // Arrange — 2,000 stores spread over northern Taiwan
+        List<GeoLocation> stores = randomStores(2_000, new Random(7));
+        GeoGridIndex index = GeoGridIndex.build(stores, "0-0", 0);
+
+        // Act
+        List<String> found = index.withinRadius(121.5, 25.0, 12.5);
+
+        // Assert
+        assertThat(found).containsExactlyElementsOf(bruteForce(stores, 121.5, 25.0, stores.size(), 12.5));
+    }
+
+    // 驗證 k 近鄰查詢（含跨越經度 ±180 度）與暴力計算的前 k 名相同
+    @Test
+    @DisplayName("nearest_MatchesBruteForceAcrossAntimeridian — k 近鄰查詢（含換日線）與暴力計算一致")
+    void nearest_MatchesBruteForceAcrossAntimeridian() {
+        // Arrange — stores on both sides of the antimeridian
+        List<GeoLocation> stores = List.of(
+                new GeoLocation("east", null, 179.95, 10.0),
+                new GeoLocation("west", null, -179.95, 10.0),
+                new GeoLocation("far", null, 170.0, 10.0),
+                new GeoLocation("taipei", null, 121.5, 25.0));
+        GeoGridIndex index = GeoGridIndex.build(stores, "0-0", 0);
+
+        // Act
+        List<String> nearest = index.nearest(-179.99, 10.0, 3);
+
+        // Assert
+        assertThat(nearest).containsExactly("west", "east", "far");
+        assertThat(index.nearest(-179.99, 10.0, 10)).hasSize(4);
+    }
+
+    // 驗證增量更新可新增、移動與刪除門市，並記錄最新的變更位置
+    @Test
+    @DisplayName("withChanges_AppliesUpsertsAndRemovals — 增量更新新增、移動與刪除門市")
+    void withChanges_AppliesUpsertsAndRemovals() {
+        // Arrange
+        GeoGridIndex index = GeoGridIndex.build(List.of(
+                new GeoLocation("a", null, 121.50, 25.00),
+                new GeoLocation("b", null, 121.51, 25.01)), "1-0", 2);
+
+        // Act — move "a" far away, remove "b", add "c"
+        GeoGridIndex updated = index.withChanges(
+                List.of(new GeoLocation("a", null, 120.67, 24.15), new GeoLocation("c", null, 121.52, 25.02)),
+                Set.of("b"), "5-0", 5);
+
+        // Assert
+        assertThat(updated.size()).isEqualTo(2);
+        assertThat(updated.withinRadius(121.5, 25.0, 5)).containsExactly("c");
+        assertThat(updated.getChangeCursor()).isEqualTo("5-0");
+        assertThat(updated.getChangeSequence()).isEqualTo(5);
+        assertThat(index.withinRadius(121.5, 25.0, 5)).containsExactly("a", "b");
+    }
+
+    private static List<GeoLocation> randomStores(int count, Random random) {
+        List<GeoLocation> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stores.add(new GeoLocation("store-" + i, null,
+                    121.0 + random.nextDouble(), 24.5 + random.nextDouble()));
+        }
+        return stores;
+    }
+
+    private static List<String> bruteForce(List<GeoLocation> stores, double longitude, double latitude,
+                                           int limit, double radiusKm) {
+        return stores.stream()
+                .filter(s -> GeoGridIndex.distanceKm(longitude, latitude, s.getLongitude(), s.getLatitude()) <= radiusKm)
+                .sorted(Comparator.comparingDouble(s ->
+                        GeoGridIndex.distanceKm(longitude, latitude, s.getLongitude(), s.getLatitude())))
+                .limit(limit)
+                .map(GeoLocation::getStoreId)
+                .toList();
+    }
+}
@@ -41,4 +41,22 @@ class RedisTransactionRankingAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(top3.get(1)).isEqualTo("tx-002"); // 5000
         assertThat(top3.get(2)).isEqualTo("tx-003"); // 3000
     }
+
+    // 驗證緩衝寫入在 flush 後全部寫入 Sorted Set，同一交易以最後金額為準
+    @Test
+    @DisplayName("addBufferedAndFlush_WritesLatestAmount — 緩衝寫入經 flush 後以最後金額寫入")
+    void addBufferedAndFlush_WritesLatestAmount() {
+        // Arrange — buffer many transactions, one of them updated twice
+        for (int i = 0; i < 2_500; i++) {
+            adapter.addToLeaderboardBuffered("tx-" + i, i);
+        }
+        adapter.addToLeaderboardBuffered("tx-7", 99_999.0);
+
+        // Act
+        adapter.flush();
+
+        // Assert — every entry written, latest amount wins
+        assertThat(stringRedisTemplate.opsForZSet().zCard("finance:tx:leaderboard")).isEqualTo(2_500);
+        assertThat(adapter.getTopN(2)).containsExactly("tx-7", "tx-2499");
+    }
 }
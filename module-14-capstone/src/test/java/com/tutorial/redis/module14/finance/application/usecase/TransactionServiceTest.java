@@ -47,7 +47,7 @@ class TransactionServiceTest {
         service.recordTransaction(tx);
 
         // Assert — verify both ports were called
-        verify(rankingPort).addToLeaderboard("tx-001", 5000.0);
+        verify(rankingPort).addToLeaderboardBuffered("tx-001", 5000.0);
         verify(searchPort).indexTransaction(tx);
     }
 
@@ -0,0 +1,133 @@
+package com.tutorial.redis.module14.shared;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module14.shared.adapter.outbound.redis.RedisDistributedLockAdapter;
+import com.tutorial.redis.module14.shared.application.usecase.DistributedLockService;
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分散式鎖競爭效能量測類別。
+ * 比較多執行緒競爭同一把鎖時，以 SET NX 迴圈重試（spin）與公平佇列 + Pub/Sub 喚醒兩種方式的
+ * 取得鎖延遲（p50 / p99 / 最大值）、每秒完成的臨界區數與嘗試次數，並確認臨界區互斥。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬：共用分散式模式 — shared 層
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("分散式鎖競爭效能量測")
+class DistributedLockBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(DistributedLockBenchmarkTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS_PER_THREAD = 100;
+    private static final long HOLD_MILLIS = 2;
+    private static final long SPIN_BACKOFF_MILLIS = 1;
+
+    // 比較 spin 重試與公平佇列喚醒在 16 個執行緒競爭下的取得鎖延遲與吞吐量
+    @Test
+    @DisplayName("acquire_SpinVsFairQueue_ComparesLatency — spin 重試與公平佇列喚醒的延遲比較")
+    void acquire_SpinVsFairQueue_ComparesLatency() throws Exception {
+        // Arrange
+        RedisDistributedLockAdapter adapter = new RedisDistributedLockAdapter(stringRedisTemplate);
+        DistributedLockService lockService = new DistributedLockService(adapter);
+        AtomicLong attempts = new AtomicLong();
+
+        // Act
+        Result spin = run("spin", owner -> {
+            while (true) {
+                attempts.incrementAndGet();
+                if (lockService.acquireLock("benchmark-spin", owner, 30)) {
+                    return;
+                }
+                Thread.sleep(SPIN_BACKOFF_MILLIS);
+            }
+        }, owner -> lockService.releaseLock("benchmark-spin", owner));
+        long spinAttempts = attempts.getAndSet(0);
+
+        Result fair = run("fair", owner -> {
+            attempts.incrementAndGet();
+            LockGrant grant = lockService.lock("benchmark-fair", owner, LockMode.WRITE, 30_000,
+                    Duration.ofSeconds(30));
+            assertThat(grant.isAcquired()).isTrue();
+        }, owner -> lockService.unlock("benchmark-fair", owner, LockMode.WRITE));
+        adapter.destroy();
+
+        // Assert
+        report.line("Lock acquisition, %d threads, %d ms hold", THREADS, HOLD_MILLIS);
+        report.line("  spin (SET NX + %d ms sleep): %s, %,d SET NX calls", SPIN_BACKOFF_MILLIS, spin,
+                spinAttempts);
+        report.line("  fair queue + wakeups:       %s", fair);
+        assertThat(spin.overlaps()).isZero();
+        assertThat(fair.overlaps()).isZero();
+    }
+
+    private Result run(String name, Acquire acquire, Release release) throws InterruptedException {
+        long[] latencies = new long[THREADS * ROUNDS_PER_THREAD];
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int worker = t;
+            workers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < ROUNDS_PER_THREAD; i++) {
+                    String owner = name + "-" + worker + "-" + i;
+                    try {
+                        long begin = System.nanoTime();
+                        acquire.acquire(owner);
+                        latencies[worker * ROUNDS_PER_THREAD + i] = System.nanoTime() - begin;
+                        if (inside.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        Thread.sleep(HOLD_MILLIS);
+                        inside.decrementAndGet();
+                        release.release(owner);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double perSecond = latencies.length / ((System.nanoTime() - start) / 1e9);
+        Arrays.sort(latencies);
+        return new Result(latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6,
+                latencies[latencies.length - 1] / 1e6, perSecond, overlaps.get());
+    }
+
+    @FunctionalInterface
+    private interface Acquire {
+        void acquire(String owner) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Release {
+        void release(String owner);
+    }
+
+    private record Result(double p50Millis, double p99Millis, double maxMillis, double perSecond, int overlaps) {
+
+        @Override
+        public String toString() {
+            return "p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  %,8.0f locks/s".formatted(
+                    p50Millis, p99Millis, maxMillis, perSecond);
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.tutorial.redis.module14.shared;
 
 import com.tutorial.redis.module14.shared.application.usecase.DistributedLockService;
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
 import com.tutorial.redis.module14.shared.domain.port.outbound.DistributedLockPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * DistributedLockService 應用層單元測試類別。
- * 驗證分散式鎖服務的取得鎖與釋放鎖邏輯，包含 Key 前綴組裝。
+ * 驗證分散式鎖服務的取得鎖與釋放鎖邏輯，包含 Key 前綴組裝，
+ * 以及公平等待：收到釋放通知後重試、逾時後離開佇列。
  * 展示使用 Redis SET NX EX 實現分散式互斥鎖的應用層封裝。
  * 所屬：共用分散式模式 — shared 層
  */
@@ -27,6 +36,7 @@ class DistributedLockServiceTest {
     void setUp() {
         lockPort = Mockito.mock(DistributedLockPort.class);
         lockService = new DistributedLockService(lockPort);
+        when(lockPort.watch(anyString())).thenReturn(new CompletableFuture<>());
     }
 
     // 驗證取得鎖時，服務層自動加上 lock: 前綴並委派給 DistributedLockPort
@@ -58,4 +68,39 @@ class DistributedLockServiceTest {
         assertThat(result).isTrue();
         verify(lockPort).unlock("lock:resource-1", "owner-1");
     }
+
+    // 驗證鎖被占用時等待釋放通知，收到通知後重試並取得鎖
+    @Test
+    @DisplayName("lock_Held_WaitsForNotificationThenAcquires — 鎖被占用時應等待通知後取得")
+    void lock_Held_WaitsForNotificationThenAcquires() {
+        // Arrange — the release notification has already arrived
+        when(lockPort.watch("lock:resource-1")).thenReturn(CompletableFuture.completedFuture(null));
+        when(lockPort.tryAcquire("lock:resource-1", LockMode.WRITE, "owner-1", 30_000, true))
+                .thenReturn(LockGrant.denied(30_000))
+                .thenReturn(new LockGrant(true, 42, 0));
+
+        // Act
+        LockGrant grant = lockService.lock("resource-1", "owner-1", LockMode.WRITE, 30_000, Duration.ofSeconds(5));
+
+        // Assert
+        assertThat(grant.isAcquired()).isTrue();
+        assertThat(grant.getFencingToken()).isEqualTo(42);
+        verify(lockPort, Mockito.times(2)).unwatch(eq("lock:resource-1"), any());
+    }
+
+    // 驗證等待逾時後回傳未取得的結果，並離開等待佇列以免阻擋後續等待者
+    @Test
+    @DisplayName("acquirePermit_Timeout_LeavesQueue — 等待逾時應離開佇列並回傳未取得")
+    void acquirePermit_Timeout_LeavesQueue() {
+        // Arrange
+        when(lockPort.tryAcquirePermit("semaphore:payment-api", 2, "call-1", 30_000, true))
+                .thenReturn(LockGrant.denied(10));
+
+        // Act
+        LockGrant grant = lockService.acquirePermit("payment-api", 2, "call-1", 30_000, Duration.ofMillis(50));
+
+        // Assert
+        assertThat(grant.isAcquired()).isFalse();
+        verify(lockPort).leaveQueue("semaphore:payment-api", "call-1");
+    }
 }
@@ -1,20 +1,31 @@
 package com.tutorial.redis.module14.shared;
 
 import com.tutorial.redis.module14.shared.application.usecase.IdempotencyService;
+import com.tutorial.redis.module14.shared.domain.model.IdempotencyRecord;
 import com.tutorial.redis.module14.shared.domain.port.outbound.IdempotencyPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * IdempotencyService 應用層單元測試類別。
- * 驗證冪等性服務的檢查並設定與結果查詢邏輯，包含 Key 前綴組裝。
- * 展示使用 Redis SET NX EX 實現操作冪等性保證的應用層封裝。
+ * 驗證冪等性服務的檢查並設定與結果查詢邏輯，包含 Key 前綴組裝，
+ * 以及三態記錄（處理中 / 已完成 / 失敗）的執行、等待通知與本地快取。
+ * 展示使用 Redis SET NX EX 與 Lua 腳本實現操作冪等性保證的應用層封裝。
  * 所屬：共用分散式模式 — shared 層
  */
 @DisplayName("IdempotencyService 單元測試")
@@ -27,6 +38,7 @@ class IdempotencyServiceTest {
     void setUp() {
         idempotencyPort = Mockito.mock(IdempotencyPort.class);
         idempotencyService = new IdempotencyService(idempotencyPort);
+        when(idempotencyPort.watch(anyString())).thenReturn(new CompletableFuture<>());
     }
 
     // 驗證檢查並設定冪等鍵時，自動加上 idempotency: 前綴並委派給 Port
@@ -59,4 +71,114 @@ class IdempotencyServiceTest {
         assertThat(result).isEqualTo("success");
         verify(idempotencyPort).get("idempotency:pay-001");
     }
+
+    // 驗證首次執行時取得處理權、執行操作並以 COMPLETED 狀態儲存回應
+    @Test
+    @DisplayName("execute_FirstCall_RunsAndStoresResponse — 首次執行應執行操作並儲存回應")
+    void execute_FirstCall_RunsAndStoresResponse() {
+        // Arrange
+        claimSucceeds();
+        when(idempotencyPort.finish(eq("idempotency:record:pay-001"), anyString(),
+                eq(IdempotencyRecord.Status.COMPLETED), eq("paid"), eq(3600L))).thenReturn(true);
+
+        // Act
+        IdempotencyRecord record = idempotencyService.execute("pay-001", 3600, () -> "paid");
+
+        // Assert
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(record.getResult()).isEqualTo("paid");
+        verify(idempotencyPort).finish(eq("idempotency:record:pay-001"), anyString(),
+                eq(IdempotencyRecord.Status.COMPLETED), eq("paid"), eq(3600L));
+    }
+
+    // 驗證已完成的操作不再執行，直接回傳儲存的回應，且短時間內重試由本地快取回應
+    @Test
+    @DisplayName("execute_AlreadyCompleted_ReturnsStoredResponseFromCache — 已完成應回傳儲存的回應並使用本地快取")
+    void execute_AlreadyCompleted_ReturnsStoredResponseFromCache() {
+        // Arrange
+        IdempotencyRecord stored = new IdempotencyRecord("idempotency:record:pay-001",
+                IdempotencyRecord.Status.COMPLETED, "node-a:1", "paid", 1L, 0);
+        when(idempotencyPort.begin(eq("idempotency:record:pay-001"), anyString(), anyLong(), anyLong()))
+                .thenReturn(stored);
+
+        // Act
+        IdempotencyRecord first = idempotencyService.execute("pay-001", 3600, () -> {
+            throw new AssertionError("must not run");
+        });
+        IdempotencyRecord retry = idempotencyService.execute("pay-001", 3600, () -> {
+            throw new AssertionError("must not run");
+        });
+
+        // Assert
+        assertThat(first.getResult()).isEqualTo("paid");
+        assertThat(retry.getResult()).isEqualTo("paid");
+        verify(idempotencyPort, times(1)).begin(anyString(), anyString(), anyLong(), anyLong());
+    }
+
+    // 驗證操作拋出例外時記錄為 FAILED 並重新拋出
+    @Test
+    @DisplayName("execute_ActionThrows_RecordsFailure — 操作失敗應記錄 FAILED 並拋出例外")
+    void execute_ActionThrows_RecordsFailure() {
+        // Arrange
+        claimSucceeds();
+
+        // Act & Assert
+        assertThatThrownBy(() -> idempotencyService.execute("pay-001", 3600, () -> {
+            throw new IllegalStateException("card declined");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("card declined");
+        verify(idempotencyPort).finish(eq("idempotency:record:pay-001"), anyString(),
+                eq(IdempotencyRecord.Status.FAILED), eq("card declined"), eq(3600L));
+    }
+
+    // 驗證其他呼叫者處理中時，收到完成通知後回傳其回應而不重複執行
+    @Test
+    @DisplayName("execute_InProgressElsewhere_WaitsForNotification — 處理中時應等待通知並回傳原始回應")
+    void execute_InProgressElsewhere_WaitsForNotification() {
+        // Arrange — the finish notification has already arrived
+        when(idempotencyPort.watch("idempotency:record:pay-001"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(idempotencyPort.begin(eq("idempotency:record:pay-001"), anyString(), anyLong(), anyLong()))
+                .thenReturn(new IdempotencyRecord("idempotency:record:pay-001",
+                        IdempotencyRecord.Status.IN_PROGRESS, "other-node:7", null, 1L, 0));
+        when(idempotencyPort.find("idempotency:record:pay-001"))
+                .thenReturn(new IdempotencyRecord("idempotency:record:pay-001",
+                        IdempotencyRecord.Status.COMPLETED, "other-node:7", "paid", 1L, 0));
+
+        // Act
+        IdempotencyRecord record = idempotencyService.execute("pay-001", 3600, () -> {
+            throw new AssertionError("must not run");
+        });
+
+        // Assert
+        assertThat(record.getResult()).isEqualTo("paid");
+        verify(idempotencyPort, never()).finish(anyString(), anyString(), eq(IdempotencyRecord.Status.COMPLETED),
+                anyString(), anyLong());
+        verify(idempotencyPort, times(2)).unwatch(eq("idempotency:record:pay-001"), any());
+    }
+
+    // 驗證租約過期後完成儲存失敗時，回傳接手者已儲存的結果，而非自己未被儲存的回應
+    @Test
+    @DisplayName("execute_LeaseLostBeforeFinish_ReturnsStoredOutcome — 租約遺失時應回傳已儲存的結果")
+    void execute_LeaseLostBeforeFinish_ReturnsStoredOutcome() {
+        // Arrange
+        claimSucceeds();
+        when(idempotencyPort.finish(eq("idempotency:record:pay-001"), anyString(),
+                eq(IdempotencyRecord.Status.COMPLETED), eq("paid-again"), eq(3600L))).thenReturn(false);
+        when(idempotencyPort.find("idempotency:record:pay-001"))
+                .thenReturn(new IdempotencyRecord("idempotency:record:pay-001",
+                        IdempotencyRecord.Status.COMPLETED, "other-node:7", "paid", 1L, 0));
+
+        // Act
+        IdempotencyRecord record = idempotencyService.execute("pay-001", 3600, () -> "paid-again");
+
+        // Assert
+        assertThat(record.getResult()).isEqualTo("paid");
+        assertThat(record.getOwnerId()).isEqualTo("other-node:7");
+    }
+
+    private void claimSucceeds() {
+        when(idempotencyPort.begin(eq("idempotency:record:pay-001"), anyString(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> new IdempotencyRecord(invocation.getArgument(0),
+                        IdempotencyRecord.Status.IN_PROGRESS, invocation.getArgument(1), null, 1L, 0));
+    }
 }
@@ -2,16 +2,24 @@ package com.tutorial.redis.module14.shared;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module14.shared.adapter.outbound.redis.RedisDistributedLockAdapter;
+import com.tutorial.redis.module14.shared.domain.model.LockGrant;
+import com.tutorial.redis.module14.shared.domain.model.LockMode;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * RedisDistributedLockAdapter 整合測試類別。
- * 驗證使用 Redis SET NX EX 實作分散式鎖的取得、釋放與互斥功能。
- * 展示 Redis 原子性操作與 Lua 腳本在分散式鎖場景的應用。
+ * 驗證使用 Redis SET NX EX 實作分散式鎖的取得、釋放與互斥功能，
+ * 以及可重入讀寫鎖、遞增 fencing token、計數信號量與公平等待佇列。
+ * 展示 Redis 原子性操作、Lua 腳本與 Pub/Sub 喚醒在分散式鎖場景的應用。
  * 所屬：共用分散式模式 — shared 層
  */
 @DisplayName("RedisDistributedLockAdapter 整合測試")
@@ -24,6 +32,11 @@ class RedisDistributedLockAdapterTest extends AbstractRedisIntegrationTest {
         lockAdapter = new RedisDistributedLockAdapter(stringRedisTemplate);
     }
 
+    @AfterEach
+    void tearDownAdapter() throws Exception {
+        lockAdapter.destroy();
+    }
+
     // 驗證正常流程：取得鎖成功後，由同一擁有者釋放鎖也應成功
     @Test
     @DisplayName("tryLockAndUnlock_WorksCorrectly — 取得鎖後釋放應成功")
@@ -68,4 +81,139 @@ class RedisDistributedLockAdapterTest extends AbstractRedisIntegrationTest {
         // Assert
         assertThat(released).isFalse();
     }
+
+    // 驗證同一擁有者可重入寫鎖並取得相同 token，完全釋放後再取得的 token 應遞增
+    @Test
+    @DisplayName("tryAcquire_Reentrant_KeepsTokenAndNextWriterGetsLarger — 可重入且 fencing token 應遞增")
+    void tryAcquire_Reentrant_KeepsTokenAndNextWriterGetsLarger() {
+        // Arrange
+        LockGrant first = lockAdapter.tryAcquire("lock:order-1", LockMode.WRITE, "owner-1", 30_000, false);
+
+        // Act
+        LockGrant reentered = lockAdapter.tryAcquire("lock:order-1", LockMode.WRITE, "owner-1", 30_000, false);
+        int holdsAfterFirstRelease = lockAdapter.release("lock:order-1", LockMode.WRITE, "owner-1");
+        LockGrant blocked = lockAdapter.tryAcquire("lock:order-1", LockMode.WRITE, "owner-2", 30_000, false);
+        int holdsAfterSecondRelease = lockAdapter.release("lock:order-1", LockMode.WRITE, "owner-1");
+        LockGrant next = lockAdapter.tryAcquire("lock:order-1", LockMode.WRITE, "owner-2", 30_000, false);
+
+        // Assert
+        assertThat(first.isAcquired()).isTrue();
+        assertThat(reentered.getFencingToken()).isEqualTo(first.getFencingToken());
+        assertThat(holdsAfterFirstRelease).isEqualTo(1);
+        assertThat(blocked.isAcquired()).isFalse();
+        assertThat(blocked.getRetryAfterMillis()).isPositive();
+        assertThat(holdsAfterSecondRelease).isZero();
+        assertThat(next.isAcquired()).isTrue();
+        assertThat(next.getFencingToken()).isGreaterThan(first.getFencingToken());
+    }
+
+    // 驗證讀鎖可由多位讀者共享，寫鎖需等所有讀者釋放後才能取得
+    @Test
+    @DisplayName("tryAcquire_ReadersShare_WriterWaitsForAll — 讀鎖可共享，寫鎖需等待讀者全部釋放")
+    void tryAcquire_ReadersShare_WriterWaitsForAll() {
+        // Arrange
+        LockGrant reader1 = lockAdapter.tryAcquire("lock:catalog", LockMode.READ, "reader-1", 30_000, false);
+        LockGrant reader2 = lockAdapter.tryAcquire("lock:catalog", LockMode.READ, "reader-2", 30_000, false);
+
+        // Act
+        LockGrant writerWhileReading = lockAdapter.tryAcquire("lock:catalog", LockMode.WRITE, "writer", 30_000, false);
+        lockAdapter.release("lock:catalog", LockMode.READ, "reader-1");
+        lockAdapter.release("lock:catalog", LockMode.READ, "reader-2");
+        LockGrant writer = lockAdapter.tryAcquire("lock:catalog", LockMode.WRITE, "writer", 30_000, false);
+        LockGrant readerWhileWriting = lockAdapter.tryAcquire("lock:catalog", LockMode.READ, "reader-3", 30_000, false);
+
+        // Assert
+        assertThat(reader1.isAcquired()).isTrue();
+        assertThat(reader2.isAcquired()).isTrue();
+        assertThat(writerWhileReading.isAcquired()).isFalse();
+        assertThat(writer.isAcquired()).isTrue();
+        assertThat(readerWhileWriting.isAcquired()).isFalse();
+    }
+
+    // 驗證計數信號量最多發出指定數量的許可，歸還後可再取得
+    @Test
+    @DisplayName("tryAcquirePermit_LimitReached_DeniedUntilReleased — 許可用盡時應拒絕，歸還後可再取得")
+    void tryAcquirePermit_LimitReached_DeniedUntilReleased() {
+        // Arrange
+        lockAdapter.tryAcquirePermit("semaphore:payment-api", 2, "call-1", 30_000, false);
+        lockAdapter.tryAcquirePermit("semaphore:payment-api", 2, "call-2", 30_000, false);
+
+        // Act
+        LockGrant third = lockAdapter.tryAcquirePermit("semaphore:payment-api", 2, "call-3", 30_000, false);
+        boolean released = lockAdapter.releasePermit("semaphore:payment-api", "call-1");
+        LockGrant retried = lockAdapter.tryAcquirePermit("semaphore:payment-api", 2, "call-3", 30_000, false);
+
+        // Assert
+        assertThat(third.isAcquired()).isFalse();
+        assertThat(released).isTrue();
+        assertThat(retried.isAcquired()).isTrue();
+    }
+
+    // 驗證公平模式下排隊者不會被後來者插隊，釋放後由佇列首位取得並通知等待者
+    @Test
+    @DisplayName("tryAcquire_Fair_QueueHeadGoesFirstAndIsNotified — 公平佇列不可插隊且釋放時應通知")
+    void tryAcquire_Fair_QueueHeadGoesFirstAndIsNotified() throws Exception {
+        // Arrange
+        lockAdapter.tryAcquire("lock:stock", LockMode.WRITE, "holder", 30_000, true);
+        LockGrant queued = lockAdapter.tryAcquire("lock:stock", LockMode.WRITE, "waiter-1", 30_000, true);
+        CompletableFuture<Void> watch = lockAdapter.watch("lock:stock");
+
+        // Act
+        lockAdapter.release("lock:stock", LockMode.WRITE, "holder");
+        watch.get(5, TimeUnit.SECONDS);
+        LockGrant latecomer = lockAdapter.tryAcquire("lock:stock", LockMode.WRITE, "waiter-2", 30_000, true);
+        LockGrant head = lockAdapter.tryAcquire("lock:stock", LockMode.WRITE, "waiter-1", 30_000, true);
+
+        // Assert
+        assertThat(queued.isAcquired()).isFalse();
+        assertThat(latecomer.isAcquired()).isFalse();
+        assertThat(head.isAcquired()).isTrue();
+    }
+
+    // 驗證 fencing 計數器隨租約過期，且過期後新發出的 token 仍大於先前所有 token
+    @Test
+    @DisplayName("tryAcquire_FenceExpired_TokenStillLarger — fencing 計數器過期後 token 仍應遞增")
+    void tryAcquire_FenceExpired_TokenStillLarger() throws InterruptedException {
+        // Arrange
+        LockGrant first = lockAdapter.tryAcquire("lock:invoice", LockMode.WRITE, "owner-1", 30_000, false);
+        Long fenceTtl = stringRedisTemplate.getExpire("{lock:invoice}:fence", TimeUnit.MILLISECONDS);
+        lockAdapter.release("lock:invoice", LockMode.WRITE, "owner-1");
+        stringRedisTemplate.delete("{lock:invoice}:fence");
+        Thread.sleep(5);
+
+        // Act
+        LockGrant next = lockAdapter.tryAcquire("lock:invoice", LockMode.WRITE, "owner-2", 30_000, false);
+
+        // Assert
+        assertThat(fenceTtl).isPositive();
+        assertThat(next.getFencingToken()).isGreaterThan(first.getFencingToken());
+    }
+
+    // 驗證持有讀鎖的擁有者要求寫鎖（升級）時立即拒絕，而非等待自己釋放讀鎖
+    @Test
+    @DisplayName("tryAcquire_ReadToWriteUpgrade_Rejected — 讀鎖升級為寫鎖應被拒絕")
+    void tryAcquire_ReadToWriteUpgrade_Rejected() {
+        // Arrange
+        lockAdapter.tryAcquire("lock:report", LockMode.READ, "owner-1", 30_000, false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> lockAdapter.tryAcquire("lock:report", LockMode.WRITE, "owner-1", 30_000, true))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(stringRedisTemplate.opsForZSet().size("{lock:report}:queue")).isZero();
+    }
+
+    // 驗證租約已過期的持有者無法釋放鎖（即使其記錄尚未被清除）
+    @Test
+    @DisplayName("release_LeaseExpired_ReturnsMinusOne — 租約過期後釋放應回傳 -1")
+    void release_LeaseExpired_ReturnsMinusOne() {
+        // Arrange
+        lockAdapter.tryAcquire("lock:ledger", LockMode.WRITE, "owner-1", 1_000, false);
+        stringRedisTemplate.opsForZSet().add("{lock:ledger}:holders", "w:owner-1", 1);
+
+        // Act
+        int left = lockAdapter.release("lock:ledger", LockMode.WRITE, "owner-1");
+
+        // Assert
+        assertThat(left).isEqualTo(-1);
+    }
 }
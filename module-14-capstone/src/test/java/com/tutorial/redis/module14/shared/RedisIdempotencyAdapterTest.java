@@ -2,16 +2,21 @@ package com.tutorial.redis.module14.shared;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module14.shared.adapter.outbound.redis.RedisIdempotencyAdapter;
+import com.tutorial.redis.module14.shared.domain.model.IdempotencyRecord;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * RedisIdempotencyAdapter 整合測試類別。
- * 驗證使用 Redis SET NX EX 實作冪等性保證的功能。
- * 展示 Redis 原子性 SET NX 搭配 TTL 防止重複操作的技術。
+ * 驗證使用 Redis SET NX EX 實作冪等性保證的功能，以及以 Lua 腳本管理的三態冪等記錄。
+ * 展示 Redis 原子性 SET NX 搭配 TTL、Hash 記錄租約與 Pub/Sub 完成通知防止重複操作的技術。
  * 所屬：共用分散式模式 — shared 層
  */
 @DisplayName("RedisIdempotencyAdapter 整合測試")
@@ -24,6 +29,11 @@ class RedisIdempotencyAdapterTest extends AbstractRedisIntegrationTest {
         idempotencyAdapter = new RedisIdempotencyAdapter(stringRedisTemplate);
     }
 
+    @AfterEach
+    void tearDownAdapter() throws Exception {
+        idempotencyAdapter.destroy();
+    }
+
     // 驗證首次設定冪等鍵時應回傳 true（表示設定成功）
     @Test
     @DisplayName("setIfAbsent_FirstTime_ReturnsTrue — 首次設定應回傳 true")
@@ -73,4 +83,96 @@ class RedisIdempotencyAdapterTest extends AbstractRedisIntegrationTest {
         // Assert
         assertThat(value).isNull();
     }
+
+    // 驗證第一位呼叫者取得處理權，第二位呼叫者看到處理中的記錄與原持有者
+    @Test
+    @DisplayName("begin_SecondCaller_SeesInProgress — 第二位呼叫者應看到處理中的記錄")
+    void begin_SecondCaller_SeesInProgress() {
+        // Act
+        IdempotencyRecord first = idempotencyAdapter.begin("idempotency:record:order-1", "owner-a", 30_000, 60);
+        IdempotencyRecord second = idempotencyAdapter.begin("idempotency:record:order-1", "owner-b", 30_000, 60);
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(IdempotencyRecord.Status.IN_PROGRESS);
+        assertThat(first.getOwnerId()).isEqualTo("owner-a");
+        assertThat(second.getStatus()).isEqualTo(IdempotencyRecord.Status.IN_PROGRESS);
+        assertThat(second.getOwnerId()).isEqualTo("owner-a");
+    }
+
+    // 驗證持有者的租約過期後，其他呼叫者可接手處理
+    @Test
+    @DisplayName("begin_LeaseExpired_TakenOver — 租約過期後應可由其他呼叫者接手")
+    void begin_LeaseExpired_TakenOver() throws InterruptedException {
+        // Arrange
+        idempotencyAdapter.begin("idempotency:record:order-2", "owner-a", 1, 60);
+        Thread.sleep(20);
+
+        // Act
+        IdempotencyRecord record = idempotencyAdapter.begin("idempotency:record:order-2", "owner-b", 30_000, 60);
+
+        // Assert
+        assertThat(record.getOwnerId()).isEqualTo("owner-b");
+        assertThat(idempotencyAdapter.finish("idempotency:record:order-2", "owner-a",
+                IdempotencyRecord.Status.COMPLETED, "late", 60)).isFalse();
+    }
+
+    // 驗證持有者續約後租約延長，其他呼叫者無法接手；非持有者不可續約
+    @Test
+    @DisplayName("renew_ByOwner_KeepsRecordFromBeingTakenOver — 持有者續約後不應被接手")
+    void renew_ByOwner_KeepsRecordFromBeingTakenOver() throws InterruptedException {
+        // Arrange
+        idempotencyAdapter.begin("idempotency:record:order-5", "owner-a", 50, 60);
+
+        // Act
+        boolean renewed = idempotencyAdapter.renew("idempotency:record:order-5", "owner-a", 30_000);
+        boolean renewedByOther = idempotencyAdapter.renew("idempotency:record:order-5", "owner-b", 30_000);
+        Thread.sleep(100);
+        IdempotencyRecord record = idempotencyAdapter.begin("idempotency:record:order-5", "owner-b", 30_000, 60);
+
+        // Assert
+        assertThat(renewed).isTrue();
+        assertThat(renewedByOther).isFalse();
+        assertThat(record.getOwnerId()).isEqualTo("owner-a");
+    }
+
+    // 驗證大型回應以壓縮格式儲存，讀取時還原為原始內容
+    @Test
+    @DisplayName("finish_LargeResult_StoredCompressed — 大型回應應壓縮儲存並可還原")
+    void finish_LargeResult_StoredCompressed() {
+        // Arrange
+        String response = "{\"orderId\":\"order-3\",\"status\":\"PAID\"}".repeat(200);
+        idempotencyAdapter.begin("idempotency:record:order-3", "owner-a", 30_000, 60);
+
+        // Act
+        boolean finished = idempotencyAdapter.finish("idempotency:record:order-3", "owner-a",
+                IdempotencyRecord.Status.COMPLETED, response, 60);
+        IdempotencyRecord record = idempotencyAdapter.find("idempotency:record:order-3");
+
+        // Assert
+        assertThat(finished).isTrue();
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(record.getResult()).isEqualTo(response);
+        assertThat(stringRedisTemplate.opsForHash().get("idempotency:record:order-3", "encoding")).isEqualTo("deflate");
+        assertThat(((String) stringRedisTemplate.opsForHash().get("idempotency:record:order-3", "result")).length())
+                .isLessThan(response.length() / 4);
+    }
+
+    // 驗證完成記錄時透過 Pub/Sub 通知正在等待的呼叫者
+    @Test
+    @DisplayName("finish_NotifiesWatchers — 完成時應通知等待中的呼叫者")
+    void finish_NotifiesWatchers() throws Exception {
+        // Arrange
+        idempotencyAdapter.begin("idempotency:record:order-4", "owner-a", 30_000, 60);
+        CompletableFuture<Void> watch = idempotencyAdapter.watch("idempotency:record:order-4");
+
+        // Act
+        idempotencyAdapter.finish("idempotency:record:order-4", "owner-a", IdempotencyRecord.Status.FAILED,
+                "card declined", 60);
+
+        // Assert
+        watch.get(5, TimeUnit.SECONDS);
+        IdempotencyRecord record = idempotencyAdapter.find("idempotency:record:order-4");
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.FAILED);
+        assertThat(record.getResult()).isEqualTo("card declined");
+    }
 }
@@ -2,16 +2,19 @@ package com.tutorial.redis.module14.shared;
 
 import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
 import com.tutorial.redis.module14.shared.adapter.outbound.redis.RedisUniqueIdAdapter;
+import com.tutorial.redis.module14.shared.domain.model.WorkerIdLease;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * RedisUniqueIdAdapter 整合測試類別。
- * 驗證使用 Redis INCR 命令產生全域唯一遞增序號的功能。
- * 展示 Redis 原子性遞增操作在分散式唯一 ID 生成場景的應用。
+ * 驗證使用 Redis INCR / INCRBY 命令產生全域唯一遞增序號與區段的功能，以及 Snowflake 工作節點 ID 租約。
+ * 展示 Redis 原子性遞增操作與 SET NX PX 租約在分散式唯一 ID 生成場景的應用。
  * 所屬：共用分散式模式 — shared 層
  */
 @DisplayName("RedisUniqueIdAdapter 整合測試")
@@ -55,4 +58,73 @@ class RedisUniqueIdAdapterTest extends AbstractRedisIntegrationTest {
         assertThat(seqB1).isEqualTo(1);
         assertThat(seqA2).isEqualTo(2);
     }
+
+    // 驗證連續保留的序號區段互不重疊，且與單筆 INCR 共用同一計數器
+    @Test
+    @DisplayName("reserveBlock_ReturnsDisjointBlocks — 保留的序號區段應互不重疊")
+    void reserveBlock_ReturnsDisjointBlocks() {
+        // Act
+        long first = uniqueIdAdapter.reserveBlock("block-counter", 100);
+        long second = uniqueIdAdapter.reserveBlock("block-counter", 50);
+        long single = uniqueIdAdapter.nextSequence("block-counter");
+
+        // Assert — blocks [1, 100] and [101, 150], then 151
+        assertThat(first).isEqualTo(100);
+        assertThat(second).isEqualTo(150);
+        assertThat(single).isEqualTo(151);
+    }
+
+    // 驗證兩個節點租用的工作節點 ID 不同，且非持有者無法續約
+    @Test
+    @DisplayName("leaseWorkerId_TwoOwners_GetDifferentIds — 不同節點應取得不同的工作節點 ID")
+    void leaseWorkerId_TwoOwners_GetDifferentIds() {
+        // Act
+        Optional<WorkerIdLease> first = uniqueIdAdapter.leaseWorkerId("node-a", 2, 30_000);
+        Optional<WorkerIdLease> second = uniqueIdAdapter.leaseWorkerId("node-b", 2, 30_000);
+        Optional<WorkerIdLease> third = uniqueIdAdapter.leaseWorkerId("node-c", 2, 30_000);
+
+        // Assert
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(first.get().getWorkerId()).isNotEqualTo(second.get().getWorkerId());
+        assertThat(third).isEmpty();
+        assertThat(uniqueIdAdapter.renewWorkerId(first.get().getWorkerId(), "node-b", 30_000, 0)).isFalse();
+        assertThat(uniqueIdAdapter.renewWorkerId(first.get().getWorkerId(), "node-a", 30_000, 0)).isTrue();
+    }
+
+    // 驗證釋放工作節點 ID 後，下一位持有者可取得前一位記錄的最後時間戳
+    @Test
+    @DisplayName("releaseWorkerId_NextHolderSeesLastTimestamp — 下一位持有者應取得最後時間戳")
+    void releaseWorkerId_NextHolderSeesLastTimestamp() {
+        // Arrange
+        WorkerIdLease lease = uniqueIdAdapter.leaseWorkerId("node-a", 1, 30_000).orElseThrow();
+
+        // Act
+        uniqueIdAdapter.releaseWorkerId(lease.getWorkerId(), "node-a", 1_800_000_000_000L);
+        Optional<WorkerIdLease> next = uniqueIdAdapter.leaseWorkerId("node-b", 1, 30_000);
+
+        // Assert
+        assertThat(lease.getLastTimestamp()).isEqualTo(0);
+        assertThat(next).isPresent();
+        assertThat(next.get().getWorkerId()).isEqualTo(0);
+        assertThat(next.get().getLastTimestamp()).isEqualTo(1_800_000_000_000L);
+    }
+
+    // 驗證前一位持有者未釋放即當機（租約過期）時，下一位持有者取得的時間戳不早於前一份租約的到期時間
+    @Test
+    @DisplayName("leaseWorkerId_PreviousHolderCrashed_StartsAfterItsLeaseExpiry — 前持有者當機時應從其租約到期後開始")
+    void leaseWorkerId_PreviousHolderCrashed_StartsAfterItsLeaseExpiry() {
+        // Arrange
+        long before = System.currentTimeMillis();
+        WorkerIdLease crashed = uniqueIdAdapter.leaseWorkerId("node-a", 1, 30_000).orElseThrow();
+        uniqueIdAdapter.renewWorkerId(crashed.getWorkerId(), "node-a", 30_000, before);
+        stringRedisTemplate.delete("uid:snowflake:worker:" + crashed.getWorkerId());
+
+        // Act
+        Optional<WorkerIdLease> next = uniqueIdAdapter.leaseWorkerId("node-b", 1, 30_000);
+
+        // Assert
+        assertThat(next).isPresent();
+        assertThat(next.get().getLastTimestamp()).isGreaterThanOrEqualTo(before + 30_000 - 1_000);
+    }
 }
@@ -0,0 +1,145 @@
+package com.tutorial.redis.module14.shared;
+
+import com.tutorial.redis.module14.shared.application.usecase.SnowflakeIdService;
+import com.tutorial.redis.module14.shared.domain.model.WorkerIdLease;
+import com.tutorial.redis.module14.shared.domain.port.outbound.UniqueIdPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SnowflakeIdService 應用層單元測試類別。
+ * 驗證 Snowflake 式 ID 的位元配置、單調遞增，以及工作節點 ID 租約的取得與遺失處理。
+ * 展示以 Redis 租用工作節點 ID、心跳續約後於程序內無鎖產生 ID 的方式。
+ * 所屬：共用分散式模式 — shared 層
+ */
+@DisplayName("SnowflakeIdService 單元測試")
+class SnowflakeIdServiceTest {
+
+    private UniqueIdPort uniqueIdPort;
+    private SnowflakeIdService snowflakeIdService;
+
+    @BeforeEach
+    void setUp() {
+        uniqueIdPort = Mockito.mock(UniqueIdPort.class);
+        snowflakeIdService = new SnowflakeIdService(uniqueIdPort);
+    }
+
+    // 驗證產生的 ID 嚴格遞增，且中間位元為租得的工作節點 ID
+    @Test
+    @DisplayName("nextId_StrictlyIncreasingWithWorkerId — ID 應嚴格遞增並包含工作節點 ID")
+    void nextId_StrictlyIncreasingWithWorkerId() {
+        // Arrange
+        when(uniqueIdPort.leaseWorkerId(anyString(), eq(1024), anyLong()))
+                .thenReturn(Optional.of(new WorkerIdLease(7, 0)));
+
+        // Act
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = snowflakeIdService.nextId();
+
+            // Assert
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> 12) & 1023).isEqualTo(7);
+            previous = id;
+        }
+        verify(uniqueIdPort, times(1)).leaseWorkerId(anyString(), anyInt(), anyLong());
+    }
+
+    // 驗證前一位持有者的時間戳領先時，新 ID 的時間戳應在其之後
+    @Test
+    @DisplayName("nextId_PreviousHolderAhead_StartsAfterIt — 應從前一位持有者的時間戳之後開始")
+    void nextId_PreviousHolderAhead_StartsAfterIt() {
+        // Arrange — the previous holder issued IDs one minute into the future
+        long ahead = System.currentTimeMillis() + 60_000;
+        when(uniqueIdPort.leaseWorkerId(anyString(), anyInt(), anyLong()))
+                .thenReturn(Optional.of(new WorkerIdLease(3, ahead)));
+        when(uniqueIdPort.renewWorkerId(eq(3), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        // Act
+        long id = snowflakeIdService.nextId();
+
+        // Assert
+        assertThat((id >>> 22) + 1_704_067_200_000L).isGreaterThan(ahead);
+    }
+
+    // 驗證 ID 的時間戳超出租約到期時間時，回傳前會先續約並記錄該時間戳，讓下一位持有者從其之後開始
+    @Test
+    @DisplayName("nextId_TimestampBeyondLease_RecordsItFirst — 時間戳超出租約時應先記錄再回傳")
+    void nextId_TimestampBeyondLease_RecordsItFirst() {
+        // Arrange
+        long ahead = System.currentTimeMillis() + 60_000;
+        when(uniqueIdPort.leaseWorkerId(anyString(), anyInt(), anyLong()))
+                .thenReturn(Optional.of(new WorkerIdLease(3, ahead)));
+        when(uniqueIdPort.renewWorkerId(eq(3), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        // Act
+        long id = snowflakeIdService.nextId();
+        snowflakeIdService.nextId();
+
+        // Assert
+        verify(uniqueIdPort, times(1)).renewWorkerId(eq(3), anyString(), anyLong(),
+                eq((id >>> 22) + 1_704_067_200_000L));
+    }
+
+    // 驗證時間戳超出租約且續約失敗時，不回傳可能與下一位持有者重複的 ID
+    @Test
+    @DisplayName("nextId_TimestampBeyondLeaseAndRenewFails_Throws — 超出租約且續約失敗時應拋出例外")
+    void nextId_TimestampBeyondLeaseAndRenewFails_Throws() {
+        // Arrange
+        when(uniqueIdPort.leaseWorkerId(anyString(), anyInt(), anyLong()))
+                .thenReturn(Optional.of(new WorkerIdLease(3, System.currentTimeMillis() + 60_000)));
+        when(uniqueIdPort.renewWorkerId(eq(3), anyString(), anyLong(), anyLong())).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> snowflakeIdService.nextId())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(snowflakeIdService.getWorkerId()).isEqualTo(-1);
+    }
+
+    // 驗證所有工作節點 ID 皆被占用時，應拋出例外而非產生可能重複的 ID
+    @Test
+    @DisplayName("nextId_NoWorkerIdAvailable_Throws — 無可用工作節點 ID 時應拋出例外")
+    void nextId_NoWorkerIdAvailable_Throws() {
+        // Arrange
+        when(uniqueIdPort.leaseWorkerId(anyString(), anyInt(), anyLong())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> snowflakeIdService.nextId())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // 驗證續約失敗（租約遺失）後，下一次產生 ID 時應重新租用工作節點 ID
+    @Test
+    @DisplayName("renewWorkerLease_LeaseLost_LeasesAgain — 租約遺失後應重新租用工作節點 ID")
+    void renewWorkerLease_LeaseLost_LeasesAgain() {
+        // Arrange
+        when(uniqueIdPort.leaseWorkerId(anyString(), anyInt(), anyLong()))
+                .thenReturn(Optional.of(new WorkerIdLease(1, 0)))
+                .thenReturn(Optional.of(new WorkerIdLease(2, 0)));
+        when(uniqueIdPort.renewWorkerId(eq(1), anyString(), anyLong(), anyLong())).thenReturn(false);
+        long first = snowflakeIdService.nextId();
+
+        // Act
+        snowflakeIdService.renewWorkerLease();
+        long second = snowflakeIdService.nextId();
+
+        // Assert
+        assertThat(snowflakeIdService.getWorkerId()).isEqualTo(2);
+        assertThat(second).isGreaterThan(first);
+        assertThat((second >>> 12) & 1023).isEqualTo(2);
+    }
+}
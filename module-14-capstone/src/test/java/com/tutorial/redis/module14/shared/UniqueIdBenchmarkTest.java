@@ -0,0 +1,88 @@
+package com.tutorial.redis.module14.shared;
+
+import com.tutorial.redis.common.test.AbstractRedisIntegrationTest;
+import com.tutorial.redis.common.test.BenchmarkReport;
+import com.tutorial.redis.module14.shared.adapter.outbound.redis.RedisUniqueIdAdapter;
+import com.tutorial.redis.module14.shared.application.usecase.SnowflakeIdService;
+import com.tutorial.redis.module14.shared.application.usecase.UniqueIdService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 唯一 ID 產生器效能量測類別。
+ * 比較每筆 ID 一次 INCR、區段租用（hi/lo）與 Snowflake 三種方式在單一節點上的每秒 ID 產生數，
+ * 並確認並行產生的 ID 皆不重複。
+ * 僅在設定環境變數 REDIS_BENCHMARK=true 時執行。
+ * 所屬：共用分散式模式 — shared 層
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_BENCHMARK", matches = "true")
+@DisplayName("唯一 ID 產生器效能量測")
+class UniqueIdBenchmarkTest extends AbstractRedisIntegrationTest {
+
+    private static final BenchmarkReport report = BenchmarkReport.forClass(UniqueIdBenchmarkTest.class);
+
+    private static final int IDS_PER_THREAD = 50_000;
+    private static final int INCR_IDS_PER_THREAD = 5_000;
+    private static final int THREADS = 8;
+
+    // 比較三種產生方式在 1 與 8 個執行緒下的每秒 ID 產生數
+    @Test
+    @DisplayName("generate_IncrVsSegmentVsSnowflake_ComparesIdsPerSecond — 三種 ID 產生方式吞吐量比較")
+    void generate_IncrVsSegmentVsSnowflake_ComparesIdsPerSecond() throws InterruptedException {
+        // Arrange
+        RedisUniqueIdAdapter adapter = new RedisUniqueIdAdapter(stringRedisTemplate);
+        UniqueIdService segments = new UniqueIdService(adapter);
+        SnowflakeIdService snowflake = new SnowflakeIdService(adapter);
+
+        // Act & Assert
+        report.line("IDs/s per node");
+        for (int threads : new int[]{1, THREADS}) {
+            double incr = run(threads, INCR_IDS_PER_THREAD, () -> adapter.nextSequence("uid:benchmark-incr"));
+            double segment = run(threads, IDS_PER_THREAD, () -> segments.generateId("benchmark").getSequence());
+            double flake = run(threads, IDS_PER_THREAD, snowflake::nextId);
+            report.line("  %d thread(s)   INCR per ID: %,12.0f   segment lease: %,12.0f   snowflake: %,12.0f",
+                    threads, incr, segment, flake);
+            assertThat(segment).isGreaterThan(incr);
+        }
+        segments.destroy();
+        snowflake.releaseWorkerId();
+    }
+
+    /**
+     * Generates IDs on {@code threads} threads, checks they are unique and returns IDs/s.
+     */
+    private double run(int threads, int idsPerThread, LongSupplier generator) throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet(threads * idsPerThread * 2);
+        long[][] generated = new long[threads][idsPerThread];
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long[] out = generated[t];
+            workers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.getAsLong();
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double idsPerSecond = threads * (double) idsPerThread / ((System.nanoTime() - start) / 1e9);
+        for (long[] out : generated) {
+            for (long id : out) {
+                ids.add(id);
+            }
+        }
+        assertThat(ids).hasSize(threads * idsPerThread);
+        return idsPerSecond;
+    }
+}
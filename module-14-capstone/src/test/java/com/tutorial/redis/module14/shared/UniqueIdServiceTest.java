@@ -0,0 +1,113 @@
+package com.tutorial.redis.module14.shared;
+
+import com.tutorial.redis.module14.shared.application.usecase.UniqueIdService;
+import com.tutorial.redis.module14.shared.domain.model.UniqueId;
+import com.tutorial.redis.module14.shared.domain.port.outbound.UniqueIdPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UniqueIdService 應用層單元測試類別。
+ * 驗證以區段租用（hi/lo）在程序內發放序號、提前預取下一區段的邏輯。
+ * 展示以單次 INCRBY 取代每筆 ID 一次 INCR 的高吞吐唯一 ID 產生方式。
+ * 所屬：共用分散式模式 — shared 層
+ */
+@DisplayName("UniqueIdService 單元測試")
+class UniqueIdServiceTest {
+
+    private UniqueIdPort uniqueIdPort;
+    private UniqueIdService uniqueIdService;
+    private AtomicLong counter;
+
+    @BeforeEach
+    void setUp() {
+        uniqueIdPort = Mockito.mock(UniqueIdPort.class);
+        uniqueIdService = new UniqueIdService(uniqueIdPort);
+        counter = new AtomicLong();
+        when(uniqueIdPort.reserveBlock(eq("uid:order"), anyInt()))
+                .thenAnswer(invocation -> counter.addAndGet(invocation.<Integer>getArgument(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        uniqueIdService.destroy();
+    }
+
+    // 驗證同一區段內的序號由本地連續發放，只需保留一次區段
+    @Test
+    @DisplayName("generateId_WithinBlock_ServedLocally — 區段內的序號應由本地發放")
+    void generateId_WithinBlock_ServedLocally() {
+        // Act
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sequences.add(uniqueIdService.generateId("order").getSequence());
+        }
+
+        // Assert
+        assertThat(sequences).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        verify(uniqueIdPort, times(1)).reserveBlock(eq("uid:order"), anyInt());
+        verify(uniqueIdPort, never()).nextSequence("uid:order");
+    }
+
+    // 驗證跨越多個區段時序號仍單調遞增且不重複，並回傳正確前綴
+    @Test
+    @DisplayName("generateId_AcrossBlocks_IncreasingAndUnique — 跨區段的序號應遞增且不重複")
+    void generateId_AcrossBlocks_IncreasingAndUnique() {
+        // Act
+        long previous = 0;
+        for (int i = 0; i < 1_000; i++) {
+            UniqueId id = uniqueIdService.generateId("order");
+
+            // Assert
+            assertThat(id.getPrefix()).isEqualTo("order");
+            assertThat(id.getSequence()).isGreaterThan(previous);
+            previous = id.getSequence();
+        }
+        verify(uniqueIdPort, atLeast(2)).reserveBlock(eq("uid:order"), anyInt());
+    }
+
+    // 驗證多執行緒同時取號時，所有序號皆不重複
+    @Test
+    @DisplayName("generateId_Concurrent_NoDuplicates — 並行取號不應產生重複序號")
+    void generateId_Concurrent_NoDuplicates() throws InterruptedException {
+        // Arrange
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    sequences.add(uniqueIdService.generateId("order").getSequence());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert — every sequence handed out was reserved
+        assertThat(sequences).hasSize(40_000);
+        assertThat(sequences).allMatch(sequence -> sequence >= 1 && sequence <= counter.get());
+        verify(uniqueIdPort, atMost(40_000 / 100)).reserveBlock(eq("uid:order"), anyInt());
+    }
+}